@@ -37,10 +37,11 @@ public class SnapshotJdbcRepository implements SnapshotRepository {
     private static final String COL_TYPE = "type";
     private static final String COL_AGGREGATE = "aggregate";
     private static final String COL_CREATED_AT = "created_at";
-    private static final String SQL_FIND_LATEST_BY_STREAM_ID = "SELECT * FROM snapshot WHERE stream_id=? AND type=? ORDER BY version_id DESC LIMIT 1";
+    private static final String SQL_FIND_LATEST_BY_STREAM_ID = "SELECT stream_id, version_id, type, aggregate, created_at FROM snapshot WHERE stream_id=? AND type=? ORDER BY version_id DESC LIMIT 1";
     private static final String SQL_UPSERT_SNAPSHOT = "INSERT INTO snapshot AS s (stream_id, version_id, type, aggregate, created_at ) VALUES(?, ?, ?, ?, ?) ON CONFLICT ON CONSTRAINT stream_id_version_id_type DO UPDATE SET aggregate =?, created_at = ? WHERE s.created_at<=?";
     private static final String DELETE_ALL_SNAPSHOTS_FOR_STREAM_ID_AND_CLASS = "delete from snapshot where stream_id =? and type=?";
     private static final String DELETE_ALL_SNAPSHOTS_OF_STREAM_ID_AND_CLASS_AND_LESS_THAN_POSITION_IN_STREAM = "delete from snapshot where stream_id =? and type=? and version_id<?";
+    private static final String DELETE_SNAPSHOTS_OF_STREAM_ID_BETWEEN_VERSIONS = "delete from snapshot where stream_id =? and version_id between ? and ?";
     private static final String SQL_CURRENT_SNAPSHOT_VERSION_ID = "SELECT version_id FROM snapshot WHERE stream_id=? AND type=? ORDER BY version_id DESC LIMIT 1";
 
     // using 'stream_id =? and type=? and created_at <=?' may give better outcome and is backward compatible with the current behavious
@@ -138,6 +139,19 @@ public class SnapshotJdbcRepository implements SnapshotRepository {
         }
     }
 
+    @Override
+    public int removeSnapshotsOfStream(final UUID streamId, final long fromVersion, final long toVersion) {
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement ps = connection.prepareStatement(DELETE_SNAPSHOTS_OF_STREAM_ID_BETWEEN_VERSIONS)) {
+            ps.setObject(1, streamId);
+            ps.setLong(2, fromVersion);
+            ps.setLong(3, toVersion);
+            return ps.executeUpdate();
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format("Exception while removing snapshots of stream %s from version %d to %d", streamId, fromVersion, toVersion), e);
+        }
+    }
+
     @Override
     public <T extends Aggregate> long getLatestSnapshotVersion(final UUID streamId, final Class<T> clazz) {
 
@@ -60,6 +60,16 @@ public interface SnapshotRepository {
      */
     <T extends Aggregate> void removeAllSnapshotsOlderThan(final AggregateSnapshot aggregateSnapshot);
 
+    /**
+     * Remove the snapshots of every type of a stream with a version in the given range, inclusive.
+     *
+     * @param streamId    the stream id
+     * @param fromVersion the lowest version to remove
+     * @param toVersion   the highest version to remove
+     * @return the number of snapshots removed
+     */
+    int removeSnapshotsOfStream(final UUID streamId, final long fromVersion, final long toVersion);
+
     /**
      * Gets latest snapshot version.
      *
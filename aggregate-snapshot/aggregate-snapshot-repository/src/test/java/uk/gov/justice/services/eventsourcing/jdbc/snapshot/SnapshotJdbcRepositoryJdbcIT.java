@@ -239,6 +239,29 @@ public class SnapshotJdbcRepositoryJdbcIT {
         verifyNoMoreInteractions(logger);
     }
 
+    @Test
+    public void shouldRemoveSnapshotsOfAllTypesOfStreamBetweenVersions() throws Exception {
+        when(clock.now()).thenReturn(now);
+        final UUID streamId = randomUUID();
+        final UUID otherStreamId = randomUUID();
+
+        final AggregateSnapshot snapshot1 = createSnapshot(streamId, 1L, TYPE, AGGREGATE);
+        final AggregateSnapshot snapshot2 = createSnapshot(streamId, 2L, OTHER_TYPE, AGGREGATE);
+        final AggregateSnapshot snapshot3 = createSnapshot(streamId, 3L, TYPE, AGGREGATE);
+        final AggregateSnapshot snapshot4 = createSnapshot(otherStreamId, 2L, TYPE, AGGREGATE);
+
+        snapshotJdbcRepository.storeSnapshot(snapshot1);
+        snapshotJdbcRepository.storeSnapshot(snapshot2);
+        snapshotJdbcRepository.storeSnapshot(snapshot3);
+        snapshotJdbcRepository.storeSnapshot(snapshot4);
+
+        assertThat(snapshotJdbcRepository.removeSnapshotsOfStream(streamId, 1L, 2L), is(2));
+
+        final List<AggregateSnapshot> fetchedSnapshots = fetchAllSnapshotsFromDb();
+        assertThat(fetchedSnapshots.size(), is(2));
+        assertThat(fetchedSnapshots, hasItems(snapshot3, snapshot4));
+    }
+
     @Test
     void removeSnapshotsShouldReturnZeroOnSQLException() throws Exception {
         final SQLException exception = new SQLException("Failed to get connection");
@@ -0,0 +1,24 @@
+package uk.gov.justice.services.eventsourcing.source.core.snapshot;
+
+import uk.gov.justice.services.eventsourcing.jdbc.snapshot.SnapshotRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.StreamDataRemover;
+
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Removes the snapshots of a stream chunk by chunk as the stream is deleted.
+ */
+@ApplicationScoped
+public class SnapshotStreamDataRemover implements StreamDataRemover {
+
+    @Inject
+    private SnapshotRepository snapshotRepository;
+
+    @Override
+    public int removeChunk(final UUID streamId, final long fromPosition, final long toPosition) {
+        return snapshotRepository.removeSnapshotsOfStream(streamId, fromPosition, toPosition);
+    }
+}
@@ -50,16 +50,20 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.JdbcBasedEventRepos
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PrePublishQueueRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueueRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueuesDataAccess;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.ChunkedStreamDeleter;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.StreamChunkDeleter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStreamJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamCreationMetrics;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamHeadCache;
 import uk.gov.justice.services.eventsourcing.source.core.EventAppender;
 import uk.gov.justice.services.eventsourcing.source.core.EventSource;
 import uk.gov.justice.services.eventsourcing.source.core.EventSourceNameProvider;
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
 import uk.gov.justice.services.eventsourcing.source.core.EventStream;
 import uk.gov.justice.services.eventsourcing.source.core.EventStreamManager;
-import uk.gov.justice.services.eventsourcing.source.core.MaxRetryProvider;
+import uk.gov.justice.services.eventsourcing.source.core.NonConsecutiveAppendMetrics;
 import uk.gov.justice.services.eventsourcing.source.core.PublishingEventAppender;
 import uk.gov.justice.services.eventsourcing.source.core.SnapshotAwareEnvelopeEventStream;
 import uk.gov.justice.services.eventsourcing.source.core.SnapshotAwareEventSource;
@@ -67,11 +71,19 @@ import uk.gov.justice.services.eventsourcing.source.core.SnapshotAwareEventSourc
 import uk.gov.justice.services.eventsourcing.source.core.SnapshotAwareEventSourceProducer;
 import uk.gov.justice.services.eventsourcing.source.core.SystemEventService;
 import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitEventAppender;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitMetrics;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitWriter;
 import uk.gov.justice.services.eventsourcing.source.core.snapshot.DefaultSnapshotService;
 import uk.gov.justice.services.eventsourcing.source.core.snapshot.DefaultSnapshotStrategy;
+import uk.gov.justice.services.eventsourcing.source.core.snapshot.SnapshotStreamDataRemover;
 import uk.gov.justice.services.eventsourcing.source.core.snapshot.async.AsyncSnapshotService;
 import uk.gov.justice.services.eventsourcing.source.core.snapshot.async.SnapshotDeleterObserver;
 import uk.gov.justice.services.eventsourcing.source.core.snapshot.async.SnapshotSaverObserver;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 import uk.gov.justice.services.jdbc.persistence.JdbcRepositoryException;
 import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
 import uk.gov.justice.services.jdbc.persistence.JndiAppNameProvider;
@@ -170,6 +182,10 @@ public class SnapshotAwareAggregateServiceIT {
 
             TestEventInsertionStrategyProducer.class,
             JdbcResultSetStreamer.class,
+            CursorResultSetStreamer.class,
+            StreamingMetrics.class,
+            PipelineMetrics.class,
+            Closer.class,
             PreparedStatementWrapperFactory.class,
             LoggerProducer.class,
 
@@ -191,9 +207,13 @@ public class SnapshotAwareAggregateServiceIT {
             SystemEventService.class,
             EventAppender.class,
             PublishingEventAppender.class,
+            GroupCommitEventAppender.class,
+            GroupCommitWriter.class,
+            GroupCommitMetrics.class,
             DefaultSnapshotStrategy.class,
             ValueProducer.class,
             DefaultSnapshotService.class,
+            SnapshotStreamDataRemover.class,
             UtcClock.class,
             TestServiceContextNameProvider.class,
             GlobalValueProducer.class,
@@ -216,7 +236,11 @@ public class SnapshotAwareAggregateServiceIT {
             EventJdbcRepository.class,
             OpenEjbEventStoreDataSourceProvider.class,
             EventStreamJdbcRepository.class,
-            MaxRetryProvider.class,
+            StreamHeadCache.class,
+            StreamCreationMetrics.class,
+            ChunkedStreamDeleter.class,
+            StreamChunkDeleter.class,
+            NonConsecutiveAppendMetrics.class,
             EventSourceNameProvider.class,
             EventStreamManager.class,
 
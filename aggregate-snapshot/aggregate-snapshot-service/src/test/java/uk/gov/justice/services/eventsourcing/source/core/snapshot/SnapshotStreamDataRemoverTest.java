@@ -0,0 +1,36 @@
+package uk.gov.justice.services.eventsourcing.source.core.snapshot;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.eventsourcing.jdbc.snapshot.SnapshotRepository;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class SnapshotStreamDataRemoverTest {
+
+    @Mock
+    private SnapshotRepository snapshotRepository;
+
+    @InjectMocks
+    private SnapshotStreamDataRemover snapshotStreamDataRemover;
+
+    @Test
+    public void shouldRemoveSnapshotsOfTheChunkOfTheStream() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        when(snapshotRepository.removeSnapshotsOfStream(streamId, 1001L, 2000L)).thenReturn(2);
+
+        assertThat(snapshotStreamDataRemover.removeChunk(streamId, 1001L, 2000L), is(2));
+    }
+}
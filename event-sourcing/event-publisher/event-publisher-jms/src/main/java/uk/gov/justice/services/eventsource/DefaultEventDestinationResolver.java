@@ -1,17 +1,25 @@
 package uk.gov.justice.services.eventsource;
 
 import static java.lang.String.format;
+import static java.util.Collections.unmodifiableMap;
 
 import uk.gov.justice.services.common.configuration.ContextNameProvider;
 import uk.gov.justice.services.eventsourcing.publisher.jms.EventDestinationResolver;
 import uk.gov.justice.services.eventsourcing.publisher.jms.JmsEventPublisher;
 import uk.gov.justice.services.messaging.context.ContextName;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 /**
  * Provides Listener endpoint name to {@link JmsEventPublisher}.
+ *
+ * The destination of an event depends on nothing but its name, so each name is resolved once and
+ * its destination kept in a routing table, sparing the parsing and formatting of the name for
+ * every event published.
  */
 @ApplicationScoped
 public class DefaultEventDestinationResolver implements EventDestinationResolver {
@@ -22,8 +30,21 @@ public class DefaultEventDestinationResolver implements EventDestinationResolver
     @Inject
     private ContextNameProvider contextNameProvider;
 
+    private final Map<String, String> destinationNamesByEventName = new ConcurrentHashMap<>();
+
     @Override
     public String destinationNameOf(final String eventName) {
+        return destinationNamesByEventName.computeIfAbsent(eventName, this::resolveDestinationName);
+    }
+
+    /**
+     * @return the destination name of each event name resolved so far, by event name
+     */
+    public Map<String, String> getRoutes() {
+        return unmodifiableMap(destinationNamesByEventName);
+    }
+
+    private String resolveDestinationName(final String eventName) {
         return format("%s.event", getContextName(eventName));
     }
 
@@ -0,0 +1,72 @@
+package uk.gov.justice.services.eventsourcing.publisher.jms;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.NamedMetrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts of the events sent to one destination through the {@link JmsProducerPool}, and of the
+ * producers opened to send them, one per transaction that sends to the destination.
+ */
+public class DestinationSendMetrics implements DestinationSendMetricsMXBean, NamedMetrics {
+
+    private static final String METRICS_TYPE = "DestinationSendMetrics";
+
+    private final String destinationName;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedSendCount = new AtomicLong();
+    private final AtomicLong sendNanoseconds = new AtomicLong();
+    private final AtomicLong producerCount = new AtomicLong();
+
+    public DestinationSendMetrics(final String destinationName) {
+        this.destinationName = destinationName;
+    }
+
+    public void sent(final long nanoseconds) {
+        sentCount.incrementAndGet();
+        sendNanoseconds.addAndGet(nanoseconds);
+    }
+
+    public void sendFailed() {
+        failedSendCount.incrementAndGet();
+    }
+
+    public void producerOpened() {
+        producerCount.incrementAndGet();
+    }
+
+    @Override
+    public String getMetricsType() {
+        return METRICS_TYPE;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return destinationName;
+    }
+
+    @Override
+    public String getDestinationName() {
+        return destinationName;
+    }
+
+    @Override
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    @Override
+    public long getFailedSendCount() {
+        return failedSendCount.get();
+    }
+
+    @Override
+    public long getSendNanoseconds() {
+        return sendNanoseconds.get();
+    }
+
+    @Override
+    public long getProducerCount() {
+        return producerCount.get();
+    }
+}
@@ -0,0 +1,17 @@
+package uk.gov.justice.services.eventsourcing.publisher.jms;
+
+/**
+ * The sends to one destination as read through JMX
+ */
+public interface DestinationSendMetricsMXBean {
+
+    String getDestinationName();
+
+    long getSentCount();
+
+    long getFailedSendCount();
+
+    long getSendNanoseconds();
+
+    long getProducerCount();
+}
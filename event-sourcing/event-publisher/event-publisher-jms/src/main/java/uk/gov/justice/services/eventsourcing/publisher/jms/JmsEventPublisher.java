@@ -1,15 +1,23 @@
 package uk.gov.justice.services.eventsourcing.publisher.jms;
 
+import static java.lang.Boolean.parseBoolean;
+
+import uk.gov.justice.services.common.configuration.GlobalValue;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 import uk.gov.justice.services.messaging.jms.JmsEnvelopeSender;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
 import org.slf4j.Logger;
 
 /**
  * A JMS implementation of {@link EventPublisher}
+ *
+ * If 'publish.jms.producer.pool.enabled' is set events are sent through the {@link
+ * JmsProducerPool}, which sends all the events of a transaction through one session enlisted in
+ * that transaction, otherwise through the {@link JmsEnvelopeSender}
  */
 @ApplicationScoped
 public class JmsEventPublisher implements EventPublisher {
@@ -17,19 +25,30 @@ public class JmsEventPublisher implements EventPublisher {
     @Inject
     private JmsEnvelopeSender jmsEnvelopeSender;
 
+    @Inject
+    private Instance<JmsProducerPool> jmsProducerPool;
+
     @Inject
     private Logger logger;
 
     @Inject
     private EventDestinationResolver eventDestinationResolver;
 
+    @Inject
+    @GlobalValue(key = "publish.jms.producer.pool.enabled", defaultValue = "false")
+    private String producerPoolEnabled;
+
     @Override
     public void publish(final JsonEnvelope envelope) {
         final String name = envelope.metadata().name();
         final String destination = eventDestinationResolver.destinationNameOf(name);
         logger.trace("Publishing event {} to {}", name, destination);
 
-        jmsEnvelopeSender.send(envelope, destination);
+        if (parseBoolean(producerPoolEnabled)) {
+            jmsProducerPool.get().send(envelope, destination);
+        } else {
+            jmsEnvelopeSender.send(envelope, destination);
+        }
     }
 
 }
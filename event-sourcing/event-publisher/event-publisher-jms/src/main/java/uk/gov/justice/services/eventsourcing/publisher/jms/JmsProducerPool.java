@@ -0,0 +1,179 @@
+package uk.gov.justice.services.eventsourcing.publisher.jms;
+
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.unmodifiableMap;
+import static javax.transaction.Status.STATUS_NO_TRANSACTION;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.justice.services.messaging.jms.DestinationProvider;
+import uk.gov.justice.services.messaging.jms.EnvelopeConverter;
+import uk.gov.justice.services.messaging.jms.exception.JmsEnvelopeSenderException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Sends events to their destinations, looking up each destination once rather than for every
+ * event, and sending all the events of a transaction through one connection and session, with one
+ * producer per destination, rather than opening a connection, session and producer per event.
+ *
+ * Nothing is kept open between transactions. The connection and session are opened from the
+ * container's connection factory on the first send of a transaction, so the session is enlisted
+ * in that transaction and its sends are committed or rolled back with the rest of its work, such
+ * as the deletes from the publish queue or the move of the publish cursor. They are closed once
+ * the transaction completes. As a transaction is only ever on one thread, its session is never
+ * shared between threads.
+ *
+ * An event sent outside a transaction is sent through a connection of its own, closed straight
+ * after the send.
+ */
+@ApplicationScoped
+public class JmsProducerPool {
+
+    private static final String TRANSACTION_SESSION_KEY = JmsProducerPool.class.getName() + ".transactionSession";
+
+    @Inject
+    private ConnectionFactory connectionFactory;
+
+    @Inject
+    private DestinationProvider destinationProvider;
+
+    @Inject
+    private EnvelopeConverter envelopeConverter;
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private final Map<String, Destination> destinationsByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DestinationSendMetrics> metricsByDestination = new ConcurrentHashMap<>();
+
+    public void send(final JsonEnvelope envelope, final String destinationName) {
+
+        final DestinationSendMetrics destinationSendMetrics = forDestination(destinationName);
+        final long startedAt = nanoTime();
+
+        try {
+            if (transactionSynchronizationRegistry.getTransactionStatus() == STATUS_NO_TRANSACTION) {
+                sendOutsideTransaction(envelope, destinationName, destinationSendMetrics);
+            } else {
+                transactionSession().send(envelope, destinationName, destinationSendMetrics);
+            }
+        } catch (final JMSException e) {
+            destinationSendMetrics.sendFailed();
+            throw new JmsEnvelopeSenderException(format("Failed to send event '%s' to destination '%s'", envelope.metadata().name(), destinationName), e);
+        } catch (final RuntimeException e) {
+            destinationSendMetrics.sendFailed();
+            throw e;
+        }
+
+        destinationSendMetrics.sent(nanoTime() - startedAt);
+    }
+
+    public DestinationSendMetrics forDestination(final String destinationName) {
+        return pipelineMetrics.registerIfAbsent(metricsByDestination, destinationName, DestinationSendMetrics::new);
+    }
+
+    public Map<String, DestinationSendMetrics> getMetricsByDestination() {
+        return unmodifiableMap(metricsByDestination);
+    }
+
+    private void sendOutsideTransaction(final JsonEnvelope envelope, final String destinationName, final DestinationSendMetrics destinationSendMetrics) throws JMSException {
+
+        try (final Connection connection = connectionFactory.createConnection()) {
+            final Session session = connection.createSession();
+            final MessageProducer producer = session.createProducer(destinationOf(destinationName));
+            destinationSendMetrics.producerOpened();
+            producer.send(envelopeConverter.toMessage(envelope, session));
+        }
+    }
+
+    /**
+     * @return the session of the current transaction, opened and registered to be closed when the
+     * transaction completes if this is the first send of the transaction
+     */
+    private TransactionSession transactionSession() throws JMSException {
+
+        final TransactionSession transactionSession = (TransactionSession) transactionSynchronizationRegistry.getResource(TRANSACTION_SESSION_KEY);
+        if (transactionSession != null) {
+            return transactionSession;
+        }
+
+        final Connection connection = connectionFactory.createConnection();
+        try {
+            final TransactionSession newTransactionSession = new TransactionSession(connection, connection.createSession());
+            transactionSynchronizationRegistry.registerInterposedSynchronization(newTransactionSession);
+            transactionSynchronizationRegistry.putResource(TRANSACTION_SESSION_KEY, newTransactionSession);
+            return newTransactionSession;
+        } catch (final JMSException | RuntimeException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+    }
+
+    private Destination destinationOf(final String destinationName) {
+        return destinationsByName.computeIfAbsent(destinationName, destinationProvider::getDestination);
+    }
+
+    private static void closeQuietly(final Connection connection) {
+        try {
+            connection.close();
+        } catch (final JMSException ignored) {
+        }
+    }
+
+    /**
+     * The connection and session of one transaction, with the producers opened on the session so
+     * far, closed along with the connection once the transaction completes
+     */
+    private class TransactionSession implements Synchronization {
+
+        private final Connection connection;
+        private final Session session;
+        private final Map<String, MessageProducer> producersByDestination = new HashMap<>();
+
+        private TransactionSession(final Connection connection, final Session session) {
+            this.connection = connection;
+            this.session = session;
+        }
+
+        private void send(final JsonEnvelope envelope, final String destinationName, final DestinationSendMetrics destinationSendMetrics) throws JMSException {
+
+            MessageProducer producer = producersByDestination.get(destinationName);
+            if (producer == null) {
+                producer = session.createProducer(destinationOf(destinationName));
+                producersByDestination.put(destinationName, producer);
+                destinationSendMetrics.producerOpened();
+            }
+
+            producer.send(envelopeConverter.toMessage(envelope, session));
+        }
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            closeQuietly(connection);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package uk.gov.justice.services.eventsource;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import uk.gov.justice.services.common.configuration.ContextNameProvider;
@@ -37,4 +39,22 @@ public class DefaultEventDestinationResolverTest {
 
         assertThat(destinationResolver.destinationNameOf(eventName), is("people.event"));
     }
+
+    @Test
+    public void shouldResolveEachEventNameOnceAndKeepItsRoute() throws Exception {
+
+        final String eventName = "administration.management.correction";
+
+        when(contextNameProvider.getContextName()).thenReturn("people");
+
+        assertThat(destinationResolver.destinationNameOf(eventName), is("people.event"));
+        assertThat(destinationResolver.destinationNameOf(eventName), is("people.event"));
+        assertThat(destinationResolver.destinationNameOf("context1.command.abc"), is("context1.event"));
+
+        verify(contextNameProvider, times(1)).getContextName();
+
+        assertThat(destinationResolver.getRoutes().size(), is(2));
+        assertThat(destinationResolver.getRoutes().get(eventName), is("people.event"));
+        assertThat(destinationResolver.getRoutes().get("context1.command.abc"), is("context1.event"));
+    }
 }
@@ -3,12 +3,16 @@ package uk.gov.justice.services.eventsourcing.publisher.jms;
 import static java.util.UUID.randomUUID;
 import static javax.json.Json.createObjectBuilder;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.messaging.JsonEnvelope.metadataBuilder;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
 import uk.gov.justice.services.messaging.JsonEnvelope;
 import uk.gov.justice.services.messaging.jms.JmsEnvelopeSender;
 
+import javax.enterprise.inject.Instance;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -29,6 +33,12 @@ public class JmsEventPublisherTest {
     @Mock
     private JmsEnvelopeSender jmsEnvelopeSender;
 
+    @Mock
+    private Instance<JmsProducerPool> jmsProducerPoolInstance;
+
+    @Mock
+    private JmsProducerPool jmsProducerPool;
+
     @Mock
     private EventDestinationResolver eventDestinationResolver;
 
@@ -51,6 +61,28 @@ public class JmsEventPublisherTest {
 
         verify(jmsEnvelopeSender).send(envelope, DESTINATION_NAME);
         verify(logger).trace("Publishing event {} to {}", EVENT_NAME, DESTINATION_NAME);
+        verifyNoInteractions(jmsProducerPoolInstance);
+    }
+
+    @Test
+    public void shouldPublishEnvelopeThroughTheProducerPoolIfEnabled() {
+
+        final JsonEnvelope envelope = JsonEnvelope.envelopeFrom(
+                metadataBuilder()
+                        .withName(EVENT_NAME)
+                        .withId(randomUUID()),
+                createObjectBuilder().build()
+        );
+
+        setField(jmsEventPublisher, "producerPoolEnabled", "true");
+
+        when(eventDestinationResolver.destinationNameOf(EVENT_NAME)).thenReturn(DESTINATION_NAME);
+        when(jmsProducerPoolInstance.get()).thenReturn(jmsProducerPool);
+
+        jmsEventPublisher.publish(envelope);
+
+        verify(jmsProducerPool).send(envelope, DESTINATION_NAME);
+        verifyNoInteractions(jmsEnvelopeSender);
     }
 
 }
@@ -0,0 +1,255 @@
+package uk.gov.justice.services.eventsourcing.publisher.jms;
+
+import static java.util.UUID.randomUUID;
+import static javax.json.Json.createObjectBuilder;
+import static javax.transaction.Status.STATUS_ACTIVE;
+import static javax.transaction.Status.STATUS_COMMITTED;
+import static javax.transaction.Status.STATUS_NO_TRANSACTION;
+import static javax.transaction.Status.STATUS_ROLLEDBACK;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonEnvelope.metadataBuilder;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+import uk.gov.justice.services.messaging.jms.DestinationProvider;
+import uk.gov.justice.services.messaging.jms.EnvelopeConverter;
+import uk.gov.justice.services.messaging.jms.exception.JmsEnvelopeSenderException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class JmsProducerPoolTest {
+
+    private static final String DESTINATION_NAME = "people.event";
+    private static final String EVENT_NAME = "people.events.person-added";
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private DestinationProvider destinationProvider;
+
+    @Mock
+    private EnvelopeConverter envelopeConverter;
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @Captor
+    private ArgumentCaptor<Synchronization> synchronizationCaptor;
+
+    @InjectMocks
+    private JmsProducerPool jmsProducerPool;
+
+    @BeforeEach
+    public void createTheMetricsOfEachDestination() {
+        when(pipelineMetrics.registerIfAbsent(any(), any(), any())).thenCallRealMethod();
+    }
+
+    @Test
+    public void shouldSendAllEventsOfATransactionThroughOneSessionAndCloseItWhenTheTransactionCompletes() throws Exception {
+
+        final JsonEnvelope envelope_1 = envelope();
+        final JsonEnvelope envelope_2 = envelope();
+
+        final Connection connection = mock(Connection.class);
+        final Session session = mock(Session.class);
+        final MessageProducer producer = mock(MessageProducer.class);
+        final Destination destination = mock(Destination.class);
+        final TextMessage message_1 = mock(TextMessage.class);
+        final TextMessage message_2 = mock(TextMessage.class);
+
+        inATransaction();
+        when(destinationProvider.getDestination(DESTINATION_NAME)).thenReturn(destination);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession()).thenReturn(session);
+        when(session.createProducer(destination)).thenReturn(producer);
+        when(envelopeConverter.toMessage(envelope_1, session)).thenReturn(message_1);
+        when(envelopeConverter.toMessage(envelope_2, session)).thenReturn(message_2);
+
+        jmsProducerPool.send(envelope_1, DESTINATION_NAME);
+        jmsProducerPool.send(envelope_2, DESTINATION_NAME);
+
+        verify(producer).send(message_1);
+        verify(producer).send(message_2);
+        verify(connectionFactory, times(1)).createConnection();
+        verify(transactionSynchronizationRegistry).registerInterposedSynchronization(synchronizationCaptor.capture());
+        verify(connection, never()).close();
+
+        synchronizationCaptor.getValue().afterCompletion(STATUS_COMMITTED);
+
+        verify(connection).close();
+
+        final DestinationSendMetrics destinationSendMetrics = jmsProducerPool.getMetricsByDestination().get(DESTINATION_NAME);
+        assertThat(destinationSendMetrics.getSentCount(), is(2L));
+        assertThat(destinationSendMetrics.getProducerCount(), is(1L));
+        assertThat(destinationSendMetrics.getFailedSendCount(), is(0L));
+    }
+
+    @Test
+    public void shouldOpenANewSessionForEachTransactionButLookUpTheDestinationOnce() throws Exception {
+
+        final JsonEnvelope envelope_1 = envelope();
+        final JsonEnvelope envelope_2 = envelope();
+
+        final Connection connection_1 = mock(Connection.class);
+        final Connection connection_2 = mock(Connection.class);
+        final Session session_1 = mock(Session.class);
+        final Session session_2 = mock(Session.class);
+        final MessageProducer producer_1 = mock(MessageProducer.class);
+        final MessageProducer producer_2 = mock(MessageProducer.class);
+        final Destination destination = mock(Destination.class);
+        final TextMessage message_1 = mock(TextMessage.class);
+        final TextMessage message_2 = mock(TextMessage.class);
+
+        final Map<Object, Object> transactionResources = inATransaction();
+        when(destinationProvider.getDestination(DESTINATION_NAME)).thenReturn(destination);
+        when(connectionFactory.createConnection()).thenReturn(connection_1, connection_2);
+        when(connection_1.createSession()).thenReturn(session_1);
+        when(connection_2.createSession()).thenReturn(session_2);
+        when(session_1.createProducer(destination)).thenReturn(producer_1);
+        when(session_2.createProducer(destination)).thenReturn(producer_2);
+        when(envelopeConverter.toMessage(envelope_1, session_1)).thenReturn(message_1);
+        when(envelopeConverter.toMessage(envelope_2, session_2)).thenReturn(message_2);
+
+        jmsProducerPool.send(envelope_1, DESTINATION_NAME);
+        transactionResources.clear();
+        jmsProducerPool.send(envelope_2, DESTINATION_NAME);
+
+        verify(producer_1).send(message_1);
+        verify(producer_2).send(message_2);
+        verify(destinationProvider, times(1)).getDestination(DESTINATION_NAME);
+        verify(transactionSynchronizationRegistry, times(2)).registerInterposedSynchronization(any(Synchronization.class));
+        assertThat(jmsProducerPool.getMetricsByDestination().get(DESTINATION_NAME).getProducerCount(), is(2L));
+    }
+
+    @Test
+    public void shouldSendThroughAConnectionOfItsOwnOutsideATransaction() throws Exception {
+
+        final JsonEnvelope envelope = envelope();
+
+        final Connection connection = mock(Connection.class);
+        final Session session = mock(Session.class);
+        final MessageProducer producer = mock(MessageProducer.class);
+        final Destination destination = mock(Destination.class);
+        final TextMessage message = mock(TextMessage.class);
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+        when(destinationProvider.getDestination(DESTINATION_NAME)).thenReturn(destination);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession()).thenReturn(session);
+        when(session.createProducer(destination)).thenReturn(producer);
+        when(envelopeConverter.toMessage(envelope, session)).thenReturn(message);
+
+        jmsProducerPool.send(envelope, DESTINATION_NAME);
+
+        verify(producer).send(message);
+        verify(connection).close();
+        verify(transactionSynchronizationRegistry, never()).registerInterposedSynchronization(any(Synchronization.class));
+    }
+
+    @Test
+    public void shouldCountAFailedSendAndCloseTheSessionWhenTheTransactionRollsBack() throws Exception {
+
+        final JsonEnvelope envelope = envelope();
+        final JMSException jmsException = new JMSException("Ooops");
+
+        final Connection connection = mock(Connection.class);
+        final Session session = mock(Session.class);
+        final MessageProducer producer = mock(MessageProducer.class);
+        final Destination destination = mock(Destination.class);
+        final TextMessage message = mock(TextMessage.class);
+
+        inATransaction();
+        when(destinationProvider.getDestination(DESTINATION_NAME)).thenReturn(destination);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession()).thenReturn(session);
+        when(session.createProducer(destination)).thenReturn(producer);
+        when(envelopeConverter.toMessage(envelope, session)).thenReturn(message);
+        doThrow(jmsException).when(producer).send(message);
+
+        final JmsEnvelopeSenderException jmsEnvelopeSenderException = assertThrows(
+                JmsEnvelopeSenderException.class,
+                () -> jmsProducerPool.send(envelope, DESTINATION_NAME));
+
+        assertThat(jmsEnvelopeSenderException.getCause(), is(instanceOf(JMSException.class)));
+        assertThat(jmsEnvelopeSenderException.getMessage(), is("Failed to send event 'people.events.person-added' to destination 'people.event'"));
+
+        verify(transactionSynchronizationRegistry).registerInterposedSynchronization(synchronizationCaptor.capture());
+        synchronizationCaptor.getValue().afterCompletion(STATUS_ROLLEDBACK);
+
+        verify(connection).close();
+
+        final DestinationSendMetrics destinationSendMetrics = jmsProducerPool.getMetricsByDestination().get(DESTINATION_NAME);
+        assertThat(destinationSendMetrics.getSentCount(), is(0L));
+        assertThat(destinationSendMetrics.getFailedSendCount(), is(1L));
+    }
+
+    @Test
+    public void shouldRegisterTheMetricsOfEachDestinationOnce() throws Exception {
+
+        final DestinationSendMetrics destinationSendMetrics = jmsProducerPool.forDestination(DESTINATION_NAME);
+
+        assertThat(jmsProducerPool.forDestination(DESTINATION_NAME), is(sameInstance(destinationSendMetrics)));
+        assertThat(destinationSendMetrics.getMetricsType(), is("DestinationSendMetrics"));
+        assertThat(destinationSendMetrics.getMetricsName(), is(DESTINATION_NAME));
+
+        verify(pipelineMetrics, times(1)).register(destinationSendMetrics);
+    }
+
+    private Map<Object, Object> inATransaction() {
+
+        final Map<Object, Object> transactionResources = new HashMap<>();
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_ACTIVE);
+        when(transactionSynchronizationRegistry.getResource(any())).thenAnswer(invocation -> transactionResources.get(invocation.getArgument(0)));
+        doAnswer(invocation -> transactionResources.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(transactionSynchronizationRegistry).putResource(any(), any());
+
+        return transactionResources;
+    }
+
+    private JsonEnvelope envelope() {
+        return JsonEnvelope.envelopeFrom(
+                metadataBuilder()
+                        .withName(EVENT_NAME)
+                        .withId(randomUUID()),
+                createObjectBuilder().build()
+        );
+    }
+}
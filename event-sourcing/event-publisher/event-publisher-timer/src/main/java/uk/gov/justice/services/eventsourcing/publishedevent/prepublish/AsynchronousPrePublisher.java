@@ -1,8 +1,21 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
 
+import static java.lang.Math.max;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PRE_PUBLISHED;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.AdaptiveDrainSchedulers;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherLeadership;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherTimerConfig;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.PrePublishQueueRepository;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.AdaptiveDrainScheduler;
 import uk.gov.justice.services.eventsourcing.util.jee.timer.StopWatchFactory;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.WakeUpGate;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 
+import javax.annotation.Resource;
 import javax.ejb.Asynchronous;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 
@@ -14,12 +27,33 @@ public class AsynchronousPrePublisher {
     @Inject
     private PrePublisherTimerConfig prePublisherTimerConfig;
 
+    @Inject
+    private PublisherTimerConfig publisherTimerConfig;
+
     @Inject
     private PrePublishProcessor prePublishProcessor;
 
     @Inject
     private StopWatchFactory stopWatchFactory;
 
+    @Inject
+    private AdaptiveDrainSchedulers adaptiveDrainSchedulers;
+
+    @Inject
+    private PrePublishQueueRepository prePublishQueueRepository;
+
+    @Inject
+    private PublisherLeadership publisherLeadership;
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    @Inject
+    private UtcClock clock;
+
+    @Resource
+    private SessionContext sessionContext;
+
     @Asynchronous
     public void performPrePublish() {
 
@@ -28,11 +62,211 @@ public class AsynchronousPrePublisher {
 
         stopWatch.start();
 
+        if (prePublisherTimerConfig.isAdaptiveDrainEnabled()) {
+            final AdaptiveDrainScheduler adaptiveDrainScheduler = adaptiveDrainSchedulers.forPrePublish();
+            if (adaptiveDrainScheduler.tryStartDrain(clock.now())) {
+                prePublishAdaptively(adaptiveDrainScheduler, maxRuntimeMilliseconds, stopWatch);
+            }
+            return;
+        }
+
+        recordQueueDepth(prePublish(maxRuntimeMilliseconds, stopWatch));
+    }
+
+    /**
+     * Carries on an adaptive drain of the pre publish queue that ended with a backlog, on a new
+     * thread and in a new transaction
+     */
+    @Asynchronous
+    public void continueAdaptivePrePublish() {
+
+        final long maxRuntimeMilliseconds = prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds();
+        final StopWatch stopWatch = stopWatchFactory.createStopWatch();
+
+        stopWatch.start();
+
+        prePublishAdaptively(adaptiveDrainSchedulers.forPrePublish(), maxRuntimeMilliseconds, stopWatch);
+    }
+
+    /**
+     * Drains the pre publish queue when woken by {@link PrePublishWakeUpObserver}, making another
+     * pass for as long as further wake-ups arrive while draining and this is still the active node.
+     */
+    @Asynchronous
+    public void performPrePublishOnWakeUp(final WakeUpGate wakeUpGate) {
+
+        boolean anotherPass = true;
+        try {
+            while (anotherPass) {
+                wakeUpGate.startPass();
+                if (prePublisherTimerConfig.isAdaptiveDrainEnabled()) {
+                    adaptiveDrainSchedulers.forPrePublish().wakeUp();
+                }
+                performPrePublish();
+                anotherPass = wakeUpGate.endPass();
+                if (anotherPass && !publisherLeadership.isActiveNode()) {
+                    break;
+                }
+            }
+        } finally {
+            if (anotherPass) {
+                wakeUpGate.release();
+            }
+        }
+    }
+
+    /**
+     * Drains the pre publish queue without the adaptive drain scheduler, in whichever way the
+     * pipeline is configured
+     *
+     * @return true if the queue was drained, false if the time ran out
+     */
+    private boolean prePublish(final long maxRuntimeMilliseconds, final StopWatch stopWatch) {
+
+        final int batchSize = prePublisherTimerConfig.getBatchSize();
+        if (prePublisherTimerConfig.isFusedPipelineEnabled()) {
+            return prePublishAndPublishInBatches(max(batchSize, 1), maxRuntimeMilliseconds, stopWatch);
+        }
+
+        if (publisherTimerConfig.isCursorEnabled()) {
+            return prePublishWithoutQueueingInBatches(max(batchSize, 1), maxRuntimeMilliseconds, stopWatch);
+        }
+
+        if (batchSize > 1) {
+            return prePublishInBatches(batchSize, maxRuntimeMilliseconds, stopWatch);
+        }
+
         while (prePublishProcessor.prePublishNextEvent()) {
 
             if (stopWatch.getTime() > maxRuntimeMilliseconds) {
-                break;
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Pre-publishes a batch of events per transaction until a batch comes back short, which means
+     * the queue has been drained, or the time runs out
+     *
+     * @return true if the queue was drained, false if the time ran out
+     */
+    private boolean prePublishInBatches(final int batchSize, final long maxRuntimeMilliseconds, final StopWatch stopWatch) {
+
+        while (prePublishProcessor.prePublishNextEvents(batchSize) == batchSize) {
+
+            if (stopWatch.getTime() > maxRuntimeMilliseconds) {
+                return false;
             }
         }
+
+        return true;
+    }
+
+    /**
+     * Pre-publishes and publishes a batch of events per transaction, without going through the
+     * publish queue, until a batch comes back short or the time runs out
+     *
+     * @return true if the queue was drained, false if the time ran out
+     */
+    private boolean prePublishAndPublishInBatches(final int batchSize, final long maxRuntimeMilliseconds, final StopWatch stopWatch) {
+
+        while (prePublishProcessor.prePublishAndPublishNextEvents(batchSize) == batchSize) {
+
+            if (stopWatch.getTime() > maxRuntimeMilliseconds) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Pre-publishes a batch of events per transaction without adding them to the publish queue,
+     * as they are published from the publish cursor, until a batch comes back short or the time
+     * runs out
+     *
+     * @return true if the queue was drained, false if the time ran out
+     */
+    private boolean prePublishWithoutQueueingInBatches(final int batchSize, final long maxRuntimeMilliseconds, final StopWatch stopWatch) {
+
+        while (prePublishProcessor.prePublishNextEventsWithoutQueueing(batchSize) == batchSize) {
+
+            if (stopWatch.getTime() > maxRuntimeMilliseconds) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Records the depth of the pre publish queue in the {@link PipelineMetrics} at the end of a
+     * drain that is not adaptive: 0 if the drain emptied the queue, otherwise the size of the
+     * queue counted up to the adaptive max batch size, so the count stays cheap however deep the
+     * backlog.
+     */
+    private void recordQueueDepth(final boolean drained) {
+
+        final long queueDepth = drained ? 0 : prePublishQueueRepository.getSizeOfQueueUpTo(prePublisherTimerConfig.getAdaptiveMaxBatchSize());
+
+        pipelineMetrics.queueDepthCounted(PRE_PUBLISHED, queueDepth);
+    }
+
+    /**
+     * Pre-publishes batches of the size chosen by the adaptive drain scheduler until a batch
+     * comes back short or the time runs out. If the pre publish queue still has a backlog the
+     * drain carries on straight away with {@link #continueAdaptivePrePublish()}, otherwise it
+     * finishes and the scheduler decides when the next tick of the timer may start another.
+     * The depth of the queue is recorded in the {@link PipelineMetrics} at the end of each slice.
+     */
+    private void prePublishAdaptively(final AdaptiveDrainScheduler adaptiveDrainScheduler, final long maxRuntimeMilliseconds, final StopWatch stopWatch) {
+
+        boolean continued = false;
+        try {
+            long queueDepth = 0;
+            while (true) {
+                final int batchSize = adaptiveDrainScheduler.nextBatchSize();
+                final long batchStartedAt = stopWatch.getTime();
+                final int prePublishedCount = prePublishNextBatch(batchSize);
+                final long batchEndedAt = stopWatch.getTime();
+
+                adaptiveDrainScheduler.batchDrained(batchSize, prePublishedCount, batchEndedAt - batchStartedAt);
+
+                if (prePublishedCount < batchSize) {
+                    break;
+                }
+
+                if (batchEndedAt > maxRuntimeMilliseconds) {
+                    queueDepth = prePublishQueueRepository.getSizeOfQueueUpTo(adaptiveDrainScheduler.getMaxBatchSize());
+                    break;
+                }
+            }
+
+            pipelineMetrics.queueDepthCounted(PRE_PUBLISHED, queueDepth);
+
+            if (adaptiveDrainScheduler.endSlice(queueDepth, clock.now()) && !prePublisherTimerConfig.isDisabled() && publisherLeadership.isActiveNode()) {
+                sessionContext.getBusinessObject(AsynchronousPrePublisher.class).continueAdaptivePrePublish();
+                continued = true;
+            }
+        } finally {
+            if (!continued) {
+                adaptiveDrainScheduler.finishDrain();
+            }
+        }
+    }
+
+    private int prePublishNextBatch(final int batchSize) {
+
+        if (prePublisherTimerConfig.isFusedPipelineEnabled()) {
+            return prePublishProcessor.prePublishAndPublishNextEvents(batchSize);
+        }
+
+        if (publisherTimerConfig.isCursorEnabled()) {
+            return prePublishProcessor.prePublishNextEventsWithoutQueueing(batchSize);
+        }
+
+        return prePublishProcessor.prePublishNextEvents(batchSize);
     }
 }
@@ -0,0 +1,49 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
+
+import static javax.enterprise.event.TransactionPhase.AFTER_SUCCESS;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PRE_PUBLISH_QUEUE_TABLE;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherLeadership;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.EventsQueuedEvent;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.WakeUpGate;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+/**
+ * Wakes the pre-publisher as soon as a transaction that added events to the pre_publish_queue
+ * commits on this node, rather than leaving them for the next tick of {@link PrePublisherTimerBean}.
+ * Only active when the JNDI value 'pre.publish.wake.up.enabled' is true; the timer keeps running
+ * either way to pick up events queued on other nodes.
+ */
+@ApplicationScoped
+public class PrePublishWakeUpObserver {
+
+    private final WakeUpGate wakeUpGate = new WakeUpGate();
+
+    @Inject
+    private PrePublisherTimerConfig prePublisherTimerConfig;
+
+    @Inject
+    private AsynchronousPrePublisher asynchronousPrePublisher;
+
+    @Inject
+    private PublisherLeadership publisherLeadership;
+
+    public void onEventsQueued(@Observes(during = AFTER_SUCCESS) final EventsQueuedEvent eventsQueuedEvent) {
+
+        if (eventsQueuedEvent.getPublishQueueTableName() != PRE_PUBLISH_QUEUE_TABLE) {
+            return;
+        }
+
+        if (prePublisherTimerConfig.isWakeUpEnabled() && !prePublisherTimerConfig.isDisabled() && publisherLeadership.isActiveNode() && wakeUpGate.signal()) {
+            try {
+                asynchronousPrePublisher.performPrePublishOnWakeUp(wakeUpGate);
+            } catch (final RuntimeException e) {
+                wakeUpGate.release();
+                throw e;
+            }
+        }
+    }
+}
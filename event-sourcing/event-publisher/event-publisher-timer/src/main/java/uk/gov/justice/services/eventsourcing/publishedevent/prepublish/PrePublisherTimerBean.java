@@ -1,6 +1,8 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
 
 import uk.gov.justice.services.ejb.timer.TimerServiceManager;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherLeadership;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherTimerConfig;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -22,15 +24,33 @@ public class PrePublisherTimerBean {
     @Inject
     private PrePublisherTimerConfig prePublisherTimerConfig;
 
+    @Inject
+    private PublisherTimerConfig publisherTimerConfig;
+
     @Inject
     private TimerServiceManager timerServiceManager;
 
     @Inject
     private AsynchronousPrePublisher asynchronousPrePublisher;
 
+    @Inject
+    private PublisherLeadership publisherLeadership;
+
+    /**
+     * Fails the deployment if both 'pre.publish.fused.pipeline.enabled' and
+     * 'publish.cursor.enabled' are set: the fused pipeline publishes events as it pre-publishes
+     * them without moving the publish cursor, so the cursor publisher would publish every event a
+     * second time.
+     */
     @PostConstruct
     public void startTimerService() {
 
+        if (prePublisherTimerConfig.isFusedPipelineEnabled() && publisherTimerConfig.isCursorEnabled()) {
+            throw new IllegalStateException("'pre.publish.fused.pipeline.enabled' and 'publish.cursor.enabled' cannot both be true: events would be published twice");
+        }
+
+        publisherLeadership.checkMaxRuntimeFitsInLease("pre.publish.timer.max.runtime.milliseconds", prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds());
+
         timerServiceManager.createIntervalTimer(
                 TIMER_JOB_NAME,
                 prePublisherTimerConfig.getTimerStartWaitMilliseconds(),
@@ -41,7 +61,7 @@ public class PrePublisherTimerBean {
     @Timeout
     public void performPrePublish() {
 
-        if (! prePublisherTimerConfig.isDisabled()) {
+        if (! prePublisherTimerConfig.isDisabled() && publisherLeadership.isActiveNode()) {
             asynchronousPrePublisher.performPrePublish();
         }
     }
@@ -1,6 +1,7 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
 
 import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
 import static java.lang.Long.parseLong;
 
 import uk.gov.justice.services.common.configuration.GlobalValue;
@@ -25,6 +26,34 @@ public class PrePublisherTimerConfig {
     @GlobalValue(key = "pre.publish.disable", defaultValue = "false")
     private String disablePrePublish;
 
+    @Inject
+    @GlobalValue(key = "pre.publish.batch.size", defaultValue = "1")
+    private String batchSize;
+
+    @Inject
+    @GlobalValue(key = "pre.publish.wake.up.enabled", defaultValue = "false")
+    private String wakeUpEnabled;
+
+    @Inject
+    @GlobalValue(key = "pre.publish.fused.pipeline.enabled", defaultValue = "false")
+    private String fusedPipelineEnabled;
+
+    @Inject
+    @GlobalValue(key = "pre.publish.adaptive.drain.enabled", defaultValue = "false")
+    private String adaptiveDrainEnabled;
+
+    @Inject
+    @GlobalValue(key = "pre.publish.adaptive.max.batch.size", defaultValue = "1000")
+    private String adaptiveMaxBatchSize;
+
+    @Inject
+    @GlobalValue(key = "pre.publish.adaptive.target.batch.milliseconds", defaultValue = "200")
+    private String adaptiveTargetBatchMilliseconds;
+
+    @Inject
+    @GlobalValue(key = "pre.publish.adaptive.max.back.off.milliseconds", defaultValue = "16000")
+    private String adaptiveMaxBackOffMilliseconds;
+
     public long getTimerStartWaitMilliseconds() {
         return parseLong(timerStartWaitMilliseconds);
     }
@@ -37,6 +66,34 @@ public class PrePublisherTimerConfig {
         return parseLong(timerMaxRuntimeMilliseconds);
     }
 
+    public int getBatchSize() {
+        return parseInt(batchSize);
+    }
+
+    public boolean isWakeUpEnabled() {
+        return parseBoolean(wakeUpEnabled);
+    }
+
+    public boolean isFusedPipelineEnabled() {
+        return parseBoolean(fusedPipelineEnabled);
+    }
+
+    public boolean isAdaptiveDrainEnabled() {
+        return parseBoolean(adaptiveDrainEnabled);
+    }
+
+    public int getAdaptiveMaxBatchSize() {
+        return parseInt(adaptiveMaxBatchSize);
+    }
+
+    public long getAdaptiveTargetBatchMilliseconds() {
+        return parseLong(adaptiveTargetBatchMilliseconds);
+    }
+
+    public long getAdaptiveMaxBackOffMilliseconds() {
+        return parseLong(adaptiveMaxBackOffMilliseconds);
+    }
+
     public boolean isDisabled() {
         return parseBoolean(disablePrePublish);
     }
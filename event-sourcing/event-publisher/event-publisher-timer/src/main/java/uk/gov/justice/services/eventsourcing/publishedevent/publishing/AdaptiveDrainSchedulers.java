@@ -0,0 +1,66 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publishing;
+
+import static java.lang.Math.max;
+import static java.util.Collections.unmodifiableMap;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.prepublish.PrePublisherTimerConfig;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.AdaptiveDrainScheduler;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * The {@link AdaptiveDrainScheduler}s of the pre-publish and publish jobs of this node, created
+ * from the configuration of each job the first time they are asked for. Each drain starts with
+ * batches of the configured batch size and backs off from the interval of the timer of its job.
+ *
+ * Each scheduler is registered with the {@link PipelineMetrics} when it is created, so its
+ * decisions are exported alongside the metrics of the pipeline, as
+ * 'type=AdaptiveDrainScheduler,name=&lt;pre-publish or publish&gt;' in JMX.
+ */
+@ApplicationScoped
+public class AdaptiveDrainSchedulers {
+
+    public static final String PRE_PUBLISH = "pre-publish";
+    public static final String PUBLISH = "publish";
+
+    @Inject
+    private PrePublisherTimerConfig prePublisherTimerConfig;
+
+    @Inject
+    private PublisherTimerConfig publisherTimerConfig;
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    private final ConcurrentMap<String, AdaptiveDrainScheduler> schedulersByName = new ConcurrentHashMap<>();
+
+    public AdaptiveDrainScheduler forPrePublish() {
+        return pipelineMetrics.registerIfAbsent(schedulersByName, PRE_PUBLISH, name -> new AdaptiveDrainScheduler(
+                name,
+                max(prePublisherTimerConfig.getBatchSize(), 1),
+                prePublisherTimerConfig.getAdaptiveMaxBatchSize(),
+                prePublisherTimerConfig.getAdaptiveTargetBatchMilliseconds(),
+                prePublisherTimerConfig.getTimerIntervalMilliseconds(),
+                prePublisherTimerConfig.getAdaptiveMaxBackOffMilliseconds()));
+    }
+
+    public AdaptiveDrainScheduler forPublish() {
+        return pipelineMetrics.registerIfAbsent(schedulersByName, PUBLISH, name -> new AdaptiveDrainScheduler(
+                name,
+                max(publisherTimerConfig.getBatchSize(), 1),
+                publisherTimerConfig.getAdaptiveMaxBatchSize(),
+                publisherTimerConfig.getAdaptiveTargetBatchMilliseconds(),
+                publisherTimerConfig.getTimerIntervalMilliseconds(),
+                publisherTimerConfig.getAdaptiveMaxBackOffMilliseconds()));
+    }
+
+    public Map<String, AdaptiveDrainScheduler> getSchedulersByName() {
+        return unmodifiableMap(schedulersByName);
+    }
+}
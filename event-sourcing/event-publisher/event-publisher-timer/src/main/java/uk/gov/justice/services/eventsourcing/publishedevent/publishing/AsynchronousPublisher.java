@@ -1,9 +1,21 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.publishing;
 
+import static java.lang.Math.max;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PUBLISHED;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishLanes;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishedEventCursorPublisher;
 import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishedEventDeQueuerAndPublisher;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueueRepository;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.AdaptiveDrainScheduler;
 import uk.gov.justice.services.eventsourcing.util.jee.timer.StopWatchFactory;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.WakeUpGate;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 
+import javax.annotation.Resource;
 import javax.ejb.Asynchronous;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 
@@ -21,6 +33,30 @@ public class AsynchronousPublisher {
     @Inject
     private PublishedEventDeQueuerAndPublisher publishedEventDeQueuerAndPublisher;
 
+    @Inject
+    private PublishLanes publishLanes;
+
+    @Inject
+    private PublishedEventCursorPublisher publishedEventCursorPublisher;
+
+    @Inject
+    private AdaptiveDrainSchedulers adaptiveDrainSchedulers;
+
+    @Inject
+    private PublishQueueRepository publishQueueRepository;
+
+    @Inject
+    private PublisherLeadership publisherLeadership;
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    @Inject
+    private UtcClock clock;
+
+    @Resource
+    private SessionContext sessionContext;
+
     @Asynchronous
     public void doDeQueueAndPublish() {
         final long maxRuntimeMilliseconds = publisherTimerConfig.getTimerMaxRuntimeMilliseconds();
@@ -28,12 +64,244 @@ public class AsynchronousPublisher {
 
         stopWatch.start();
 
+        final int laneCount = publisherTimerConfig.getLaneCount();
+        if (publisherTimerConfig.isAdaptiveDrainEnabled() && (laneCount <= 1 || publisherTimerConfig.isCursorEnabled())) {
+            final AdaptiveDrainScheduler adaptiveDrainScheduler = adaptiveDrainSchedulers.forPublish();
+            if (adaptiveDrainScheduler.tryStartDrain(clock.now())) {
+                publishAdaptively(adaptiveDrainScheduler, maxRuntimeMilliseconds, stopWatch);
+            }
+            return;
+        }
+
+        if (publisherTimerConfig.isCursorEnabled()) {
+            publishFromCursor(maxRuntimeMilliseconds, stopWatch);
+            return;
+        }
+
+        if (laneCount > 1) {
+            boolean drained = true;
+            for (int lane = 0; lane < laneCount; lane++) {
+                drained &= deQueueAndPublishLane(lane, laneCount, maxRuntimeMilliseconds, stopWatch);
+            }
+            recordQueueDepth(drained);
+            return;
+        }
+
+        final int batchSize = publisherTimerConfig.getBatchSize();
+        if (batchSize > 1) {
+            recordQueueDepth(deQueueAndPublishInBatches(batchSize, maxRuntimeMilliseconds, stopWatch));
+            return;
+        }
+
+        recordQueueDepth(deQueueAndPublishOneAtATime(maxRuntimeMilliseconds, stopWatch));
+    }
+
+    /**
+     * Drains one lane of the publish queue, so that each lane can be drained on its own thread.
+     * Does nothing if the lane is already being drained on this node. The depth of the queue is
+     * only counted if the lane runs out of time, as a drained lane says nothing of the others.
+     */
+    @Asynchronous
+    public void doDeQueueAndPublishLane(final int lane, final int laneCount) {
+        final long maxRuntimeMilliseconds = publisherTimerConfig.getTimerMaxRuntimeMilliseconds();
+        final StopWatch stopWatch = stopWatchFactory.createStopWatch();
+
+        stopWatch.start();
+
+        if (!deQueueAndPublishLane(lane, laneCount, maxRuntimeMilliseconds, stopWatch)) {
+            recordQueueDepth(false);
+        }
+    }
+
+    /**
+     * Carries on an adaptive drain of the publish queue that ended with a backlog, on a new
+     * thread and in a new transaction
+     */
+    @Asynchronous
+    public void continueAdaptivePublish() {
+        final long maxRuntimeMilliseconds = publisherTimerConfig.getTimerMaxRuntimeMilliseconds();
+        final StopWatch stopWatch = stopWatchFactory.createStopWatch();
+
+        stopWatch.start();
+
+        publishAdaptively(adaptiveDrainSchedulers.forPublish(), maxRuntimeMilliseconds, stopWatch);
+    }
+
+    /**
+     * Drains the publish queue when woken by {@link PublishWakeUpObserver}, making another pass
+     * for as long as further wake-ups arrive while draining and this is still the active node.
+     */
+    @Asynchronous
+    public void doDeQueueAndPublishOnWakeUp(final WakeUpGate wakeUpGate) {
+
+        boolean anotherPass = true;
+        try {
+            while (anotherPass) {
+                wakeUpGate.startPass();
+                if (publisherTimerConfig.isAdaptiveDrainEnabled()) {
+                    adaptiveDrainSchedulers.forPublish().wakeUp();
+                }
+                doDeQueueAndPublish();
+                anotherPass = wakeUpGate.endPass();
+                if (anotherPass && !publisherLeadership.isActiveNode()) {
+                    break;
+                }
+            }
+        } finally {
+            if (anotherPass) {
+                wakeUpGate.release();
+            }
+        }
+    }
+
+    /**
+     * Publishes one event per transaction until the queue is empty or the time runs out
+     *
+     * @return true if the queue was drained, false if the time ran out
+     */
+    private boolean deQueueAndPublishOneAtATime(final long maxRuntimeMilliseconds, final StopWatch stopWatch) {
+
         while (publishedEventDeQueuerAndPublisher.deQueueAndPublish()) {
 
+            if (stopWatch.getTime() > maxRuntimeMilliseconds) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Publishes a batch of events per transaction until a batch comes back short, which means
+     * the queue has been drained, or the time runs out
+     *
+     * @return true if the queue was drained, false if the time ran out
+     */
+    private boolean deQueueAndPublishInBatches(final int batchSize, final long maxRuntimeMilliseconds, final StopWatch stopWatch) {
+
+        while (publishedEventDeQueuerAndPublisher.deQueueAndPublish(batchSize) == batchSize) {
+
+            if (stopWatch.getTime() > maxRuntimeMilliseconds) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Publishes a batch of events of the lane per transaction until a batch comes back short or
+     * the time runs out, unless another worker on this node is already draining the lane
+     *
+     * @return true if the lane was drained, false if the time ran out or the lane was left to
+     * the other worker
+     */
+    private boolean deQueueAndPublishLane(final int lane, final int laneCount, final long maxRuntimeMilliseconds, final StopWatch stopWatch) {
+
+        if (!publishLanes.tryStart(lane)) {
+            return false;
+        }
+
+        try {
+            final int batchSize = max(publisherTimerConfig.getBatchSize(), 1);
+            while (publishedEventDeQueuerAndPublisher.deQueueAndPublishLane(batchSize, lane, laneCount) == batchSize) {
+
+                if (stopWatch.getTime() > maxRuntimeMilliseconds) {
+                    return false;
+                }
+            }
+
+            return true;
+        } finally {
+            publishLanes.finish(lane);
+        }
+    }
+
+    /**
+     * Records the depth of the publish queue in the {@link PipelineMetrics} at the end of a drain
+     * that is not adaptive: 0 if the drain emptied the queue, otherwise the size of the queue
+     * counted up to the adaptive max batch size, so the count stays cheap however deep the
+     * backlog.
+     */
+    private void recordQueueDepth(final boolean drained) {
+
+        final long queueDepth = drained ? 0 : publishQueueRepository.getSizeOfQueueUpTo(publisherTimerConfig.getAdaptiveMaxBatchSize());
+
+        pipelineMetrics.queueDepthCounted(PUBLISHED, queueDepth);
+    }
+
+    /**
+     * Publishes a batch of events after the publish cursor per transaction until a batch comes
+     * back short, which means all events have been published or the cursor is held up by a gap,
+     * or the time runs out
+     */
+    private void publishFromCursor(final long maxRuntimeMilliseconds, final StopWatch stopWatch) {
+
+        final int batchSize = max(publisherTimerConfig.getBatchSize(), 1);
+        final long gapWaitMilliseconds = publisherTimerConfig.getCursorGapWaitMilliseconds();
+
+        while (publishedEventCursorPublisher.publishNextEvents(batchSize, gapWaitMilliseconds) == batchSize) {
+
             if (stopWatch.getTime() > maxRuntimeMilliseconds) {
                 break;
             }
         }
     }
 
+    /**
+     * Publishes batches of the size chosen by the adaptive drain scheduler until a batch comes
+     * back short or the time runs out. If there is still a backlog the drain carries on straight
+     * away with {@link #continueAdaptivePublish()}, otherwise it finishes and the scheduler
+     * decides when the next tick of the timer may start another.
+     *
+     * When publishing from the cursor there is no queue to count, so a drain that runs out of
+     * time with a full batch is taken to have a backlog of at least another batch, and no queue
+     * depth is recorded in the {@link PipelineMetrics}.
+     */
+    private void publishAdaptively(final AdaptiveDrainScheduler adaptiveDrainScheduler, final long maxRuntimeMilliseconds, final StopWatch stopWatch) {
+
+        boolean continued = false;
+        try {
+            long queueDepth = 0;
+            while (true) {
+                final int batchSize = adaptiveDrainScheduler.nextBatchSize();
+                final long batchStartedAt = stopWatch.getTime();
+                final int publishedCount = publishNextBatch(batchSize);
+                final long batchEndedAt = stopWatch.getTime();
+
+                adaptiveDrainScheduler.batchDrained(batchSize, publishedCount, batchEndedAt - batchStartedAt);
+
+                if (publishedCount < batchSize) {
+                    break;
+                }
+
+                if (batchEndedAt > maxRuntimeMilliseconds) {
+                    queueDepth = publisherTimerConfig.isCursorEnabled() ? batchSize : publishQueueRepository.getSizeOfQueueUpTo(adaptiveDrainScheduler.getMaxBatchSize());
+                    break;
+                }
+            }
+
+            if (!publisherTimerConfig.isCursorEnabled()) {
+                pipelineMetrics.queueDepthCounted(PUBLISHED, queueDepth);
+            }
+
+            if (adaptiveDrainScheduler.endSlice(queueDepth, clock.now()) && !publisherTimerConfig.isDisabled() && publisherLeadership.isActiveNode()) {
+                sessionContext.getBusinessObject(AsynchronousPublisher.class).continueAdaptivePublish();
+                continued = true;
+            }
+        } finally {
+            if (!continued) {
+                adaptiveDrainScheduler.finishDrain();
+            }
+        }
+    }
+
+    private int publishNextBatch(final int batchSize) {
+
+        if (publisherTimerConfig.isCursorEnabled()) {
+            return publishedEventCursorPublisher.publishNextEvents(batchSize, publisherTimerConfig.getCursorGapWaitMilliseconds());
+        }
+
+        return publishedEventDeQueuerAndPublisher.deQueueAndPublish(batchSize);
+    }
 }
@@ -0,0 +1,48 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publishing;
+
+import static javax.enterprise.event.TransactionPhase.AFTER_SUCCESS;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PUBLISH_QUEUE_TABLE;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.EventsQueuedEvent;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.WakeUpGate;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+/**
+ * Wakes the publisher as soon as a transaction that added events to the publish_queue commits on
+ * this node, rather than leaving them for the next tick of {@link PublisherTimerBean}. Only active
+ * when the JNDI value 'publish.wake.up.enabled' is true; the timer keeps running either way to
+ * pick up events queued on other nodes.
+ */
+@ApplicationScoped
+public class PublishWakeUpObserver {
+
+    private final WakeUpGate wakeUpGate = new WakeUpGate();
+
+    @Inject
+    private PublisherTimerConfig publisherTimerConfig;
+
+    @Inject
+    private AsynchronousPublisher asynchronousPublisher;
+
+    @Inject
+    private PublisherLeadership publisherLeadership;
+
+    public void onEventsQueued(@Observes(during = AFTER_SUCCESS) final EventsQueuedEvent eventsQueuedEvent) {
+
+        if (eventsQueuedEvent.getPublishQueueTableName() != PUBLISH_QUEUE_TABLE) {
+            return;
+        }
+
+        if (publisherTimerConfig.isWakeUpEnabled() && !publisherTimerConfig.isDisabled() && publisherLeadership.isActiveNode() && wakeUpGate.signal()) {
+            try {
+                asynchronousPublisher.doDeQueueAndPublishOnWakeUp(wakeUpGate);
+            } catch (final RuntimeException e) {
+                wakeUpGate.release();
+                throw e;
+            }
+        }
+    }
+}
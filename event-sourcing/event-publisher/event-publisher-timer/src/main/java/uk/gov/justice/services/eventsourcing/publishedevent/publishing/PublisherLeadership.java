@@ -0,0 +1,133 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publishing;
+
+import static java.lang.String.format;
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.util.UUID.randomUUID;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublisherLease;
+
+import java.time.ZonedDateTime;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+/**
+ * Decides whether this node should pre-publish and publish events. Unless the JNDI value
+ * 'publish.leader.election.enabled' is true every node does; otherwise only the node holding the
+ * {@link PublisherLease} does, so that one node drains the queues in order while the others
+ * stand by.
+ *
+ * The leader renews its lease every third of the lease, only going to the database when a
+ * renewal is due. A standby takes the lease once it has not been renewed for the whole lease, so
+ * the lease is also the longest time publishing stops when the leader goes away. A standby that
+ * fails to take the lease does not try again until the lease held by the leader could have
+ * expired, so it does not go to the database on every tick of the timers or every commit.
+ *
+ * As a drain may start just before the leader's renewal is due, with two thirds of the lease left,
+ * the timers must not run for longer than that: see {@link #checkMaxRuntimeFitsInLease}.
+ */
+@ApplicationScoped
+public class PublisherLeadership {
+
+    private final String holder = randomUUID().toString();
+
+    @Inject
+    private PublisherTimerConfig publisherTimerConfig;
+
+    @Inject
+    private PublisherLease publisherLease;
+
+    @Inject
+    private UtcClock clock;
+
+    @Inject
+    private Logger logger;
+
+    private boolean leader = false;
+    private ZonedDateTime renewAfter;
+    private ZonedDateTime retryAfter;
+
+    /**
+     * @return true if leader election is disabled or this node holds the lease
+     */
+    public synchronized boolean isActiveNode() {
+
+        if (!publisherTimerConfig.isLeaderElectionEnabled()) {
+            return true;
+        }
+
+        final ZonedDateTime now = clock.now();
+        if (leader && now.isBefore(renewAfter)) {
+            return true;
+        }
+
+        if (!leader && retryAfter != null && now.isBefore(retryAfter)) {
+            return false;
+        }
+
+        final long leaseMilliseconds = publisherTimerConfig.getLeaderLeaseMilliseconds();
+        final boolean wasLeader = leader;
+
+        try {
+            leader = publisherLease.tryAcquireOrRenew(holder, leaseMilliseconds);
+        } catch (final RuntimeException e) {
+            leader = false;
+            throw e;
+        }
+
+        if (leader) {
+            renewAfter = now.plus(leaseMilliseconds / 3, MILLIS);
+        } else {
+            retryAfter = now.plus(publisherLease.millisecondsLeft(), MILLIS);
+        }
+
+        if (leader && !wasLeader) {
+            logger.info(format("Publisher '%s' is now the active event publisher", holder));
+        } else if (!leader && wasLeader) {
+            logger.warn(format("Publisher '%s' has lost its lease and is no longer the active event publisher", holder));
+        }
+
+        return leader;
+    }
+
+    /**
+     * Fails if leader election is enabled and a timer may run for as long as two thirds of the
+     * lease, as the lease of the leader could then expire, and another node start publishing,
+     * while it is still draining.
+     *
+     * @param maxRuntimeKey the JNDI key of the max runtime of the timer, for the message
+     * @param maxRuntimeMilliseconds the max runtime of the timer
+     * @throws IllegalStateException if the max runtime does not fit in the lease
+     */
+    public void checkMaxRuntimeFitsInLease(final String maxRuntimeKey, final long maxRuntimeMilliseconds) {
+
+        if (!publisherTimerConfig.isLeaderElectionEnabled()) {
+            return;
+        }
+
+        final long leaseMilliseconds = publisherTimerConfig.getLeaderLeaseMilliseconds();
+        if (maxRuntimeMilliseconds * 3 >= leaseMilliseconds * 2) {
+            throw new IllegalStateException(format("'%s' of %d milliseconds must be less than two thirds of 'publish.leader.lease.milliseconds' of %d milliseconds",
+                    maxRuntimeKey, maxRuntimeMilliseconds, leaseMilliseconds));
+        }
+    }
+
+    @PreDestroy
+    public synchronized void releaseLease() {
+
+        if (!leader) {
+            return;
+        }
+
+        leader = false;
+        try {
+            publisherLease.release(holder);
+        } catch (final RuntimeException e) {
+            logger.warn(format("Failed to release the lease of publisher '%s', it will expire instead", holder), e);
+        }
+    }
+}
@@ -28,9 +28,14 @@ public class PublisherTimerBean {
     @Inject
     private AsynchronousPublisher asynchronousPublisher;
 
+    @Inject
+    private PublisherLeadership publisherLeadership;
+
     @PostConstruct
     public void startTimerService() {
 
+        publisherLeadership.checkMaxRuntimeFitsInLease("event.dequer.timer.max.runtime.milliseconds", publisherTimerConfig.getTimerMaxRuntimeMilliseconds());
+
         timerServiceManager.createIntervalTimer(
                 TIMER_JOB_NAME,
                 publisherTimerConfig.getTimerStartWaitMilliseconds(),
@@ -41,7 +46,16 @@ public class PublisherTimerBean {
     @Timeout
     public void doDeQueueAndPublish() {
 
-        if (! publisherTimerConfig.isDisabled()) {
+        if (publisherTimerConfig.isDisabled() || !publisherLeadership.isActiveNode()) {
+            return;
+        }
+
+        final int laneCount = publisherTimerConfig.getLaneCount();
+        if (laneCount > 1) {
+            for (int lane = 0; lane < laneCount; lane++) {
+                asynchronousPublisher.doDeQueueAndPublishLane(lane, laneCount);
+            }
+        } else {
             asynchronousPublisher.doDeQueueAndPublish();
         }
     }
@@ -1,6 +1,7 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.publishing;
 
 import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
 import static java.lang.Long.parseLong;
 
 import uk.gov.justice.services.common.configuration.GlobalValue;
@@ -27,6 +28,50 @@ public class PublisherTimerConfig {
     @GlobalValue(key = "publish.disable", defaultValue = "false")
     private String disablePublish;
 
+    @Inject
+    @GlobalValue(key = "publish.batch.size", defaultValue = "1")
+    private String batchSize;
+
+    @Inject
+    @GlobalValue(key = "publish.wake.up.enabled", defaultValue = "false")
+    private String wakeUpEnabled;
+
+    @Inject
+    @GlobalValue(key = "publish.lane.count", defaultValue = "1")
+    private String laneCount;
+
+    @Inject
+    @GlobalValue(key = "publish.cursor.enabled", defaultValue = "false")
+    private String cursorEnabled;
+
+    @Inject
+    @GlobalValue(key = "publish.cursor.gap.wait.milliseconds", defaultValue = "2000")
+    private String cursorGapWaitMilliseconds;
+
+    @Inject
+    @GlobalValue(key = "publish.leader.election.enabled", defaultValue = "false")
+    private String leaderElectionEnabled;
+
+    @Inject
+    @GlobalValue(key = "publish.leader.lease.milliseconds", defaultValue = "10000")
+    private String leaderLeaseMilliseconds;
+
+    @Inject
+    @GlobalValue(key = "publish.adaptive.drain.enabled", defaultValue = "false")
+    private String adaptiveDrainEnabled;
+
+    @Inject
+    @GlobalValue(key = "publish.adaptive.max.batch.size", defaultValue = "1000")
+    private String adaptiveMaxBatchSize;
+
+    @Inject
+    @GlobalValue(key = "publish.adaptive.target.batch.milliseconds", defaultValue = "200")
+    private String adaptiveTargetBatchMilliseconds;
+
+    @Inject
+    @GlobalValue(key = "publish.adaptive.max.back.off.milliseconds", defaultValue = "16000")
+    private String adaptiveMaxBackOffMilliseconds;
+
     public long getTimerStartWaitMilliseconds() {
         return parseLong(timerStartWaitMilliseconds);
     }
@@ -39,6 +84,50 @@ public class PublisherTimerConfig {
         return parseLong(timerMaxRuntimeMilliseconds);
     }
 
+    public int getBatchSize() {
+        return parseInt(batchSize);
+    }
+
+    public int getLaneCount() {
+        return parseInt(laneCount);
+    }
+
+    public boolean isCursorEnabled() {
+        return parseBoolean(cursorEnabled);
+    }
+
+    public long getCursorGapWaitMilliseconds() {
+        return parseLong(cursorGapWaitMilliseconds);
+    }
+
+    public boolean isLeaderElectionEnabled() {
+        return parseBoolean(leaderElectionEnabled);
+    }
+
+    public long getLeaderLeaseMilliseconds() {
+        return parseLong(leaderLeaseMilliseconds);
+    }
+
+    public boolean isAdaptiveDrainEnabled() {
+        return parseBoolean(adaptiveDrainEnabled);
+    }
+
+    public int getAdaptiveMaxBatchSize() {
+        return parseInt(adaptiveMaxBatchSize);
+    }
+
+    public long getAdaptiveTargetBatchMilliseconds() {
+        return parseLong(adaptiveTargetBatchMilliseconds);
+    }
+
+    public long getAdaptiveMaxBackOffMilliseconds() {
+        return parseLong(adaptiveMaxBackOffMilliseconds);
+    }
+
+    public boolean isWakeUpEnabled() {
+        return parseBoolean(wakeUpEnabled);
+    }
+
     public boolean isDisabled() {
         return parseBoolean(disablePublish);
     }
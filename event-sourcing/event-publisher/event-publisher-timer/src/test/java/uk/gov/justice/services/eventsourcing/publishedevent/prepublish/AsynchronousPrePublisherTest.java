@@ -1,11 +1,29 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PRE_PUBLISHED;
 
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.AdaptiveDrainSchedulers;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherLeadership;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherTimerConfig;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.PrePublishQueueRepository;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.AdaptiveDrainScheduler;
 import uk.gov.justice.services.eventsourcing.util.jee.timer.StopWatchFactory;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.WakeUpGate;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import java.time.ZonedDateTime;
+
+import javax.ejb.SessionContext;
 
 import org.apache.commons.lang3.time.StopWatch;
 import org.junit.jupiter.api.Test;
@@ -20,12 +38,33 @@ public class AsynchronousPrePublisherTest {
     @Mock
     private PrePublisherTimerConfig prePublisherTimerConfig;
 
+    @Mock
+    private PublisherTimerConfig publisherTimerConfig;
+
     @Mock
     private PrePublishProcessor prePublishProcessor;
 
     @Mock
     private StopWatchFactory stopWatchFactory;
 
+    @Mock
+    private AdaptiveDrainSchedulers adaptiveDrainSchedulers;
+
+    @Mock
+    private PrePublishQueueRepository prePublishQueueRepository;
+
+    @Mock
+    private PublisherLeadership publisherLeadership;
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @Mock
+    private UtcClock clock;
+
+    @Mock
+    private SessionContext sessionContext;
+
     @InjectMocks
     private AsynchronousPrePublisher asynchronousPrePublisher;
 
@@ -41,6 +80,8 @@ public class AsynchronousPrePublisherTest {
         asynchronousPrePublisher.performPrePublish();
 
         verify(prePublishProcessor, times(3)).prePublishNextEvent();
+        verify(pipelineMetrics).queueDepthCounted(PRE_PUBLISHED, 0L);
+        verifyNoInteractions(prePublishQueueRepository);
     }
 
     @Test
@@ -59,4 +100,254 @@ public class AsynchronousPrePublisherTest {
 
         verify(prePublishProcessor, times(1)).prePublishNextEvent();
     }
+
+    @Test
+    public void shouldPrePublishInBatchesUntilABatchComesBackShort() throws Exception {
+
+        final long timerMaxRuntimeValue = 495L;
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(timerMaxRuntimeValue);
+        when(prePublisherTimerConfig.getBatchSize()).thenReturn(100);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(prePublishProcessor.prePublishNextEvents(100)).thenReturn(100, 100, 23);
+
+        asynchronousPrePublisher.performPrePublish();
+
+        verify(prePublishProcessor, times(3)).prePublishNextEvents(100);
+        verify(prePublishProcessor, never()).prePublishNextEvent();
+    }
+
+    @Test
+    public void shouldPrePublishInBatchesUntilTimeRunsOut() throws Exception {
+
+        final long timerMaxRuntimeValue = 495L;
+        final StopWatch stopWatch = mock(StopWatch.class);
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(timerMaxRuntimeValue);
+        when(prePublisherTimerConfig.getBatchSize()).thenReturn(100);
+        when(prePublisherTimerConfig.getAdaptiveMaxBatchSize()).thenReturn(1000);
+        when(stopWatchFactory.createStopWatch()).thenReturn(stopWatch);
+        when(prePublishProcessor.prePublishNextEvents(100)).thenReturn(100);
+        when(stopWatch.getTime()).thenReturn(2000L);
+        when(prePublishQueueRepository.getSizeOfQueueUpTo(1000)).thenReturn(340);
+
+        asynchronousPrePublisher.performPrePublish();
+
+        verify(prePublishProcessor, times(1)).prePublishNextEvents(100);
+        verify(pipelineMetrics).queueDepthCounted(PRE_PUBLISHED, 340L);
+    }
+
+    @Test
+    public void shouldPrePublishAndPublishInBatchesIfTheFusedPipelineIsEnabled() throws Exception {
+
+        final long timerMaxRuntimeValue = 495L;
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(timerMaxRuntimeValue);
+        when(prePublisherTimerConfig.getBatchSize()).thenReturn(100);
+        when(prePublisherTimerConfig.isFusedPipelineEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(prePublishProcessor.prePublishAndPublishNextEvents(100)).thenReturn(100, 7);
+
+        asynchronousPrePublisher.performPrePublish();
+
+        verify(prePublishProcessor, times(2)).prePublishAndPublishNextEvents(100);
+        verify(prePublishProcessor, never()).prePublishNextEvents(100);
+        verify(prePublishProcessor, never()).prePublishNextEvent();
+    }
+
+    @Test
+    public void shouldPrePublishAndPublishOneEventPerTransactionIfTheFusedPipelineIsEnabledWithoutABatchSize() throws Exception {
+
+        final long timerMaxRuntimeValue = 495L;
+        final StopWatch stopWatch = mock(StopWatch.class);
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(timerMaxRuntimeValue);
+        when(prePublisherTimerConfig.getBatchSize()).thenReturn(0);
+        when(prePublisherTimerConfig.isFusedPipelineEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(stopWatch);
+        when(prePublishProcessor.prePublishAndPublishNextEvents(1)).thenReturn(1);
+        when(stopWatch.getTime()).thenReturn(2000L);
+
+        asynchronousPrePublisher.performPrePublish();
+
+        verify(prePublishProcessor, times(1)).prePublishAndPublishNextEvents(1);
+    }
+
+    @Test
+    public void shouldPrePublishInBatchesWithoutQueueingIfPublishingFromTheCursor() throws Exception {
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(prePublisherTimerConfig.getBatchSize()).thenReturn(1);
+        when(publisherTimerConfig.isCursorEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(prePublishProcessor.prePublishNextEventsWithoutQueueing(1)).thenReturn(1, 1, 0);
+
+        asynchronousPrePublisher.performPrePublish();
+
+        verify(prePublishProcessor, times(3)).prePublishNextEventsWithoutQueueing(1);
+        verify(prePublishProcessor, never()).prePublishNextEvent();
+    }
+
+    @Test
+    public void shouldDrainTheQueueOnWakeUpAndMakeAnotherPassIfWokenAgainWhileDraining() throws Exception {
+
+        final WakeUpGate wakeUpGate = new WakeUpGate();
+        wakeUpGate.signal();
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(prePublishProcessor.prePublishNextEvent()).thenAnswer(invocation -> {
+            wakeUpGate.signal();
+            return false;
+        }).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+
+        asynchronousPrePublisher.performPrePublishOnWakeUp(wakeUpGate);
+
+        verify(prePublishProcessor, times(2)).prePublishNextEvent();
+        assertThat(wakeUpGate.isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldNotMakeAnotherPassOnWakeUpIfThisIsNoLongerTheActiveNode() throws Exception {
+
+        final WakeUpGate wakeUpGate = new WakeUpGate();
+        wakeUpGate.signal();
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(prePublishProcessor.prePublishNextEvent()).thenAnswer(invocation -> {
+            wakeUpGate.signal();
+            return false;
+        });
+        when(publisherLeadership.isActiveNode()).thenReturn(false);
+
+        asynchronousPrePublisher.performPrePublishOnWakeUp(wakeUpGate);
+
+        verify(prePublishProcessor, times(1)).prePublishNextEvent();
+        assertThat(wakeUpGate.isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldReleaseTheWakeUpGateIfDrainingFails() throws Exception {
+
+        final WakeUpGate wakeUpGate = new WakeUpGate();
+        final RuntimeException runtimeException = new RuntimeException("Ooops");
+        wakeUpGate.signal();
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(prePublishProcessor.prePublishNextEvent()).thenThrow(runtimeException);
+
+        final RuntimeException thrown = assertThrows(RuntimeException.class, () -> asynchronousPrePublisher.performPrePublishOnWakeUp(wakeUpGate));
+
+        assertThat(thrown, is(runtimeException));
+        assertThat(wakeUpGate.isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldPrePublishAdaptivelyUntilABatchComesBackShort() throws Exception {
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler("pre-publish", 10, 40, 100L, 500L, 4000L);
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(prePublisherTimerConfig.isAdaptiveDrainEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(adaptiveDrainSchedulers.forPrePublish()).thenReturn(adaptiveDrainScheduler);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(prePublishProcessor.prePublishNextEvents(10)).thenReturn(10);
+        when(prePublishProcessor.prePublishNextEvents(20)).thenReturn(20);
+        when(prePublishProcessor.prePublishNextEvents(40)).thenReturn(7);
+
+        asynchronousPrePublisher.performPrePublish();
+
+        assertThat(adaptiveDrainScheduler.getEventCount(), is(37L));
+        assertThat(adaptiveDrainScheduler.isDraining(), is(false));
+        verifyNoInteractions(prePublishQueueRepository, sessionContext);
+    }
+
+    @Test
+    public void shouldCarryOnPrePublishingAdaptivelyOnANewThreadIfThereIsStillABacklogWhenTimeRunsOut() throws Exception {
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler("pre-publish", 10, 40, 100L, 500L, 4000L);
+        final StopWatch stopWatch = mock(StopWatch.class);
+        final AsynchronousPrePublisher businessObject = mock(AsynchronousPrePublisher.class);
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(prePublisherTimerConfig.isAdaptiveDrainEnabled()).thenReturn(true);
+        when(prePublisherTimerConfig.isFusedPipelineEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(stopWatch);
+        when(stopWatch.getTime()).thenReturn(0L, 500L);
+        when(adaptiveDrainSchedulers.forPrePublish()).thenReturn(adaptiveDrainScheduler);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(prePublishProcessor.prePublishAndPublishNextEvents(10)).thenReturn(10);
+        when(prePublishQueueRepository.getSizeOfQueueUpTo(40)).thenReturn(40);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+        when(sessionContext.getBusinessObject(AsynchronousPrePublisher.class)).thenReturn(businessObject);
+
+        asynchronousPrePublisher.performPrePublish();
+
+        verify(businessObject).continueAdaptivePrePublish();
+        assertThat(adaptiveDrainScheduler.isDraining(), is(true));
+        assertThat(adaptiveDrainScheduler.getLastQueueDepth(), is(40L));
+        verify(pipelineMetrics).queueDepthCounted(PRE_PUBLISHED, 40L);
+    }
+
+    @Test
+    public void shouldNotStartAnAdaptiveDrainIfTheSchedulerSaysNotTo() throws Exception {
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler("pre-publish", 10, 40, 100L, 500L, 4000L);
+        final ZonedDateTime now = ZonedDateTime.now();
+        adaptiveDrainScheduler.tryStartDrain(now);
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(prePublisherTimerConfig.isAdaptiveDrainEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(adaptiveDrainSchedulers.forPrePublish()).thenReturn(adaptiveDrainScheduler);
+        when(clock.now()).thenReturn(now);
+
+        asynchronousPrePublisher.performPrePublish();
+
+        verifyNoInteractions(prePublishProcessor);
+        assertThat(adaptiveDrainScheduler.getSkippedWakeUpCount(), is(1L));
+    }
+
+    @Test
+    public void shouldFinishTheAdaptiveDrainIfPrePublishingFails() throws Exception {
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler("pre-publish", 10, 40, 100L, 500L, 4000L);
+        final RuntimeException runtimeException = new RuntimeException("Ooops");
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(prePublisherTimerConfig.isAdaptiveDrainEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(adaptiveDrainSchedulers.forPrePublish()).thenReturn(adaptiveDrainScheduler);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(prePublishProcessor.prePublishNextEvents(10)).thenThrow(runtimeException);
+
+        final RuntimeException thrown = assertThrows(RuntimeException.class, () -> asynchronousPrePublisher.performPrePublish());
+
+        assertThat(thrown, is(runtimeException));
+        assertThat(adaptiveDrainScheduler.isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldCarryOnAnAdaptiveDrainWithoutStartingANewOne() throws Exception {
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler("pre-publish", 10, 40, 100L, 500L, 4000L);
+        adaptiveDrainScheduler.tryStartDrain(ZonedDateTime.now());
+
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(adaptiveDrainSchedulers.forPrePublish()).thenReturn(adaptiveDrainScheduler);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(publisherTimerConfig.isCursorEnabled()).thenReturn(true);
+        when(prePublishProcessor.prePublishNextEventsWithoutQueueing(10)).thenReturn(3);
+
+        asynchronousPrePublisher.continueAdaptivePrePublish();
+
+        assertThat(adaptiveDrainScheduler.getDrainCount(), is(1L));
+        assertThat(adaptiveDrainScheduler.getEventCount(), is(3L));
+        assertThat(adaptiveDrainScheduler.isDraining(), is(false));
+    }
 }
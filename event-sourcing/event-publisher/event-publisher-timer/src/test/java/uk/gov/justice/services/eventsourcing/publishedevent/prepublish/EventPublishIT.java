@@ -23,13 +23,21 @@ import uk.gov.justice.services.ejb.timer.TimerConfigFactory;
 import uk.gov.justice.services.ejb.timer.TimerServiceManager;
 import uk.gov.justice.services.eventsource.DefaultEventDestinationResolver;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PrePublishRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishCursorRepository;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventQueries;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublisherLeaseRepository;
 import uk.gov.justice.services.eventsourcing.publishedevent.prepublish.helpers.DummyEventPublisher;
 import uk.gov.justice.services.eventsourcing.publishedevent.prepublish.helpers.DummySystemCommandStore;
 import uk.gov.justice.services.eventsourcing.publishedevent.prepublish.helpers.TestGlobalValueProducer;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishCursorGapWait;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishLanes;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishedEventCursorPublisher;
 import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishedEventDeQueuerAndPublisher;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublisherLease;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.AdaptiveDrainSchedulers;
 import uk.gov.justice.services.eventsourcing.publishedevent.publishing.AsynchronousPublisher;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherLeadership;
 import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherTimerBean;
 import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherTimerConfig;
 import uk.gov.justice.services.eventsourcing.publisher.jms.EventDestinationResolver;
@@ -43,8 +51,14 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueuesDataAc
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStreamJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamCreationMetrics;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamHeadCache;
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
 import uk.gov.justice.services.eventsourcing.util.jee.timer.StopWatchFactory;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 import uk.gov.justice.services.framework.utilities.exceptions.StackTraceProvider;
 import uk.gov.justice.services.jdbc.persistence.JdbcDataSourceProvider;
 import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
@@ -159,6 +173,15 @@ public class EventPublishIT {
             TimerCanceler.class,
             PrePublishProcessor.class,
             EventPrePublisher.class,
+            EventNumberWatermark.class,
+            PublishLanes.class,
+            PublishedEventCursorPublisher.class,
+            PublishCursorGapWait.class,
+            PublishCursorRepository.class,
+            PublisherLeadership.class,
+            AdaptiveDrainSchedulers.class,
+            PublisherLease.class,
+            PublisherLeaseRepository.class,
             MetadataEventNumberUpdater.class,
             PrePublishRepository.class,
             UtcClock.class,
@@ -171,6 +194,10 @@ public class EventPublishIT {
             PublishedEventQueries.class,
             EventJdbcRepository.class,
             JdbcResultSetStreamer.class,
+            CursorResultSetStreamer.class,
+            StreamingMetrics.class,
+            PipelineMetrics.class,
+            Closer.class,
             PreparedStatementWrapperFactory.class,
             PreparedStatementWrapper.class,
             PostgresSQLEventLogInsertionStrategy.class,
@@ -193,6 +220,8 @@ public class EventPublishIT {
             JndiBasedServiceContextNameProvider.class,
             JdbcBasedEventRepository.class,
             EventStreamJdbcRepository.class,
+            StreamHeadCache.class,
+            StreamCreationMetrics.class,
             PrePublishQueueRepository.class,
             PublishQueueRepository.class,
             OversizeMessageGuard.class,
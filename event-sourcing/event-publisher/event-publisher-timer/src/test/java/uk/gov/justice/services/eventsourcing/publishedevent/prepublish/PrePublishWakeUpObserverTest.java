@@ -0,0 +1,128 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PRE_PUBLISH_QUEUE_TABLE;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PUBLISH_QUEUE_TABLE;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.getValueOfField;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherLeadership;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.EventsQueuedEvent;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.WakeUpGate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PrePublishWakeUpObserverTest {
+
+    @Mock
+    private PrePublisherTimerConfig prePublisherTimerConfig;
+
+    @Mock
+    private AsynchronousPrePublisher asynchronousPrePublisher;
+
+    @Mock
+    private PublisherLeadership publisherLeadership;
+
+    @InjectMocks
+    private PrePublishWakeUpObserver prePublishWakeUpObserver;
+
+    @Test
+    public void shouldWakeThePrePublisherWhenEventsAreQueuedOnThePrePublishQueue() throws Exception {
+
+        when(prePublisherTimerConfig.isWakeUpEnabled()).thenReturn(true);
+        when(prePublisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+
+        prePublishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PRE_PUBLISH_QUEUE_TABLE));
+
+        verify(asynchronousPrePublisher).performPrePublishOnWakeUp(wakeUpGate());
+    }
+
+    @Test
+    public void shouldNotWakeThePrePublisherAgainWhileItIsDraining() throws Exception {
+
+        when(prePublisherTimerConfig.isWakeUpEnabled()).thenReturn(true);
+        when(prePublisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+
+        prePublishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PRE_PUBLISH_QUEUE_TABLE));
+        prePublishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PRE_PUBLISH_QUEUE_TABLE));
+        prePublishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PRE_PUBLISH_QUEUE_TABLE));
+
+        verify(asynchronousPrePublisher, times(1)).performPrePublishOnWakeUp(any(WakeUpGate.class));
+    }
+
+    @Test
+    public void shouldIgnoreEventsQueuedOnOtherTables() throws Exception {
+
+        prePublishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+
+        verifyNoInteractions(prePublisherTimerConfig, asynchronousPrePublisher);
+    }
+
+    @Test
+    public void shouldNotWakeThePrePublisherIfWakeUpIsNotEnabled() throws Exception {
+
+        when(prePublisherTimerConfig.isWakeUpEnabled()).thenReturn(false);
+
+        prePublishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PRE_PUBLISH_QUEUE_TABLE));
+
+        verifyNoInteractions(asynchronousPrePublisher);
+    }
+
+    @Test
+    public void shouldNotWakeThePrePublisherIfDisabled() throws Exception {
+
+        when(prePublisherTimerConfig.isWakeUpEnabled()).thenReturn(true);
+        when(prePublisherTimerConfig.isDisabled()).thenReturn(true);
+
+        prePublishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PRE_PUBLISH_QUEUE_TABLE));
+
+        verifyNoInteractions(asynchronousPrePublisher);
+    }
+
+    @Test
+    public void shouldNotWakeThePrePublisherIfThisIsNotTheActiveNode() throws Exception {
+
+        when(prePublisherTimerConfig.isWakeUpEnabled()).thenReturn(true);
+        when(prePublisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(false);
+
+        prePublishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PRE_PUBLISH_QUEUE_TABLE));
+
+        verifyNoInteractions(asynchronousPrePublisher);
+        assertThat(wakeUpGate().isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldReleaseTheWakeUpGateIfThePrePublisherCannotBeWoken() throws Exception {
+
+        final RuntimeException runtimeException = new RuntimeException("Ooops");
+
+        when(prePublisherTimerConfig.isWakeUpEnabled()).thenReturn(true);
+        when(prePublisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+        doThrow(runtimeException).when(asynchronousPrePublisher).performPrePublishOnWakeUp(any(WakeUpGate.class));
+
+        final RuntimeException thrown = assertThrows(RuntimeException.class, () -> prePublishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PRE_PUBLISH_QUEUE_TABLE)));
+
+        assertThat(thrown, is(runtimeException));
+        assertThat(wakeUpGate().isDraining(), is(false));
+    }
+
+    private WakeUpGate wakeUpGate() throws Exception {
+        return getValueOfField(prePublishWakeUpObserver, "wakeUpGate", WakeUpGate.class);
+    }
+}
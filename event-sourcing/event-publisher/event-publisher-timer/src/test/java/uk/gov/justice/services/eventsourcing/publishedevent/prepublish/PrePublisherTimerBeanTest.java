@@ -1,10 +1,19 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import uk.gov.justice.services.ejb.timer.TimerServiceManager;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherLeadership;
+import uk.gov.justice.services.eventsourcing.publishedevent.publishing.PublisherTimerConfig;
 
 import javax.ejb.TimerService;
 
@@ -23,12 +32,18 @@ public class PrePublisherTimerBeanTest {
     @Mock
     private PrePublisherTimerConfig prePublisherTimerConfig;
 
+    @Mock
+    private PublisherTimerConfig publisherTimerConfig;
+
     @Mock
     private TimerServiceManager timerServiceManager;
 
     @Mock
     private AsynchronousPrePublisher asynchronousPrePublisher;
 
+    @Mock
+    private PublisherLeadership publisherLeadership;
+
     @InjectMocks
     private PrePublisherTimerBean prePublisherTimerBean;
 
@@ -40,9 +55,11 @@ public class PrePublisherTimerBeanTest {
 
         when(prePublisherTimerConfig.getTimerStartWaitMilliseconds()).thenReturn(timerStartValue);
         when(prePublisherTimerConfig.getTimerIntervalMilliseconds()).thenReturn(timerIntervalValue);
+        when(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(450L);
 
         prePublisherTimerBean.startTimerService();
 
+        verify(publisherLeadership).checkMaxRuntimeFitsInLease("pre.publish.timer.max.runtime.milliseconds", 450L);
         verify(timerServiceManager).createIntervalTimer(
                 "event-store.pre-publish-events.job",
                 timerStartValue,
@@ -50,10 +67,25 @@ public class PrePublisherTimerBeanTest {
                 timerService);
     }
 
+    @Test
+    public void shouldFailToStartIfBothTheFusedPipelineAndThePublishCursorAreEnabled() throws Exception {
+
+        when(prePublisherTimerConfig.isFusedPipelineEnabled()).thenReturn(true);
+        when(publisherTimerConfig.isCursorEnabled()).thenReturn(true);
+
+        final IllegalStateException illegalStateException = assertThrows(
+                IllegalStateException.class,
+                () -> prePublisherTimerBean.startTimerService());
+
+        assertThat(illegalStateException.getMessage(), is("'pre.publish.fused.pipeline.enabled' and 'publish.cursor.enabled' cannot both be true: events would be published twice"));
+        verify(timerServiceManager, never()).createIntervalTimer(anyString(), anyLong(), anyLong(), any(TimerService.class));
+    }
+
     @Test
     public void shouldRunPrePublishAsynchronously() throws Exception {
 
         when(prePublisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
 
         prePublisherTimerBean.performPrePublish();
 
@@ -69,4 +101,15 @@ public class PrePublisherTimerBeanTest {
 
         verifyNoInteractions(asynchronousPrePublisher);
     }
+
+    @Test
+    public void shouldNotRunPrePublishIfThisIsNotTheActiveNode() throws Exception {
+
+        when(prePublisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(false);
+
+        prePublisherTimerBean.performPrePublish();
+
+        verifyNoInteractions(asynchronousPrePublisher);
+    }
 }
@@ -45,6 +45,51 @@ public class PrePublisherTimerConfigTest {
         assertThat(prePublisherTimerConfig.getTimerMaxRuntimeMilliseconds(), is(milliseconds));
     }
 
+    @Test
+    public void shouldGetTheBatchSize() throws Exception {
+
+        setField(prePublisherTimerConfig, "batchSize", "250");
+
+        assertThat(prePublisherTimerConfig.getBatchSize(), is(250));
+    }
+
+    @Test
+    public void shouldGetWhetherWakeUpIsEnabled() throws Exception {
+
+        setField(prePublisherTimerConfig, "wakeUpEnabled", "true");
+        assertThat(prePublisherTimerConfig.isWakeUpEnabled(), is(true));
+
+        setField(prePublisherTimerConfig, "wakeUpEnabled", "false");
+        assertThat(prePublisherTimerConfig.isWakeUpEnabled(), is(false));
+    }
+
+    @Test
+    public void shouldGetWhetherTheFusedPipelineIsEnabled() throws Exception {
+
+        setField(prePublisherTimerConfig, "fusedPipelineEnabled", "true");
+        assertThat(prePublisherTimerConfig.isFusedPipelineEnabled(), is(true));
+
+        setField(prePublisherTimerConfig, "fusedPipelineEnabled", "false");
+        assertThat(prePublisherTimerConfig.isFusedPipelineEnabled(), is(false));
+    }
+
+    @Test
+    public void shouldGetTheAdaptiveDrainSettings() throws Exception {
+
+        setField(prePublisherTimerConfig, "adaptiveDrainEnabled", "true");
+        setField(prePublisherTimerConfig, "adaptiveMaxBatchSize", "500");
+        setField(prePublisherTimerConfig, "adaptiveTargetBatchMilliseconds", "150");
+        setField(prePublisherTimerConfig, "adaptiveMaxBackOffMilliseconds", "8000");
+
+        assertThat(prePublisherTimerConfig.isAdaptiveDrainEnabled(), is(true));
+        assertThat(prePublisherTimerConfig.getAdaptiveMaxBatchSize(), is(500));
+        assertThat(prePublisherTimerConfig.getAdaptiveTargetBatchMilliseconds(), is(150L));
+        assertThat(prePublisherTimerConfig.getAdaptiveMaxBackOffMilliseconds(), is(8000L));
+
+        setField(prePublisherTimerConfig, "adaptiveDrainEnabled", "false");
+        assertThat(prePublisherTimerConfig.isAdaptiveDrainEnabled(), is(false));
+    }
+
     @Test
     public void shouldReturnTrueIfDisabled() throws Exception {
 
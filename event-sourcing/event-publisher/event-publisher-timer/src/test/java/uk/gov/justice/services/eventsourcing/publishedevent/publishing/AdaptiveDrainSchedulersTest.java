@@ -0,0 +1,75 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publishing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.prepublish.PrePublisherTimerConfig;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.AdaptiveDrainScheduler;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AdaptiveDrainSchedulersTest {
+
+    @Mock
+    private PrePublisherTimerConfig prePublisherTimerConfig;
+
+    @Mock
+    private PublisherTimerConfig publisherTimerConfig;
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @InjectMocks
+    private AdaptiveDrainSchedulers adaptiveDrainSchedulers;
+
+    @Test
+    public void shouldCreateThePublishSchedulerFromTheConfigOnceAndRegisterItWithThePipelineMetrics() throws Exception {
+
+        when(pipelineMetrics.registerIfAbsent(any(), any(), any())).thenCallRealMethod();
+        when(publisherTimerConfig.getBatchSize()).thenReturn(10);
+        when(publisherTimerConfig.getAdaptiveMaxBatchSize()).thenReturn(1000);
+        when(publisherTimerConfig.getAdaptiveTargetBatchMilliseconds()).thenReturn(200L);
+        when(publisherTimerConfig.getTimerIntervalMilliseconds()).thenReturn(100L);
+        when(publisherTimerConfig.getAdaptiveMaxBackOffMilliseconds()).thenReturn(16000L);
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = adaptiveDrainSchedulers.forPublish();
+
+        assertThat(adaptiveDrainSchedulers.forPublish(), is(sameInstance(adaptiveDrainScheduler)));
+        assertThat(adaptiveDrainScheduler.getName(), is("publish"));
+        assertThat(adaptiveDrainScheduler.getBatchSize(), is(10));
+        assertThat(adaptiveDrainScheduler.getMaxBatchSize(), is(1000));
+        assertThat(adaptiveDrainSchedulers.getSchedulersByName().get("publish"), is(sameInstance(adaptiveDrainScheduler)));
+
+        verify(pipelineMetrics, times(1)).register(adaptiveDrainScheduler);
+    }
+
+    @Test
+    public void shouldCreateThePrePublishSchedulerFromTheConfigOnceAndRegisterItWithThePipelineMetrics() throws Exception {
+
+        when(pipelineMetrics.registerIfAbsent(any(), any(), any())).thenCallRealMethod();
+        when(prePublisherTimerConfig.getBatchSize()).thenReturn(0);
+        when(prePublisherTimerConfig.getAdaptiveMaxBatchSize()).thenReturn(1000);
+        when(prePublisherTimerConfig.getAdaptiveTargetBatchMilliseconds()).thenReturn(200L);
+        when(prePublisherTimerConfig.getTimerIntervalMilliseconds()).thenReturn(100L);
+        when(prePublisherTimerConfig.getAdaptiveMaxBackOffMilliseconds()).thenReturn(16000L);
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = adaptiveDrainSchedulers.forPrePublish();
+
+        assertThat(adaptiveDrainSchedulers.forPrePublish(), is(sameInstance(adaptiveDrainScheduler)));
+        assertThat(adaptiveDrainScheduler.getName(), is("pre-publish"));
+        assertThat(adaptiveDrainScheduler.getBatchSize(), is(1));
+
+        verify(pipelineMetrics, times(1)).register(adaptiveDrainScheduler);
+    }
+}
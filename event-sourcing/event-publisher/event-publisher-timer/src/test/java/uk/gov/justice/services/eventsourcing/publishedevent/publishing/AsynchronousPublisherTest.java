@@ -1,18 +1,36 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.publishing;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PUBLISHED;
 
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishLanes;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishedEventCursorPublisher;
 import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishedEventDeQueuerAndPublisher;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueueRepository;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.AdaptiveDrainScheduler;
 import uk.gov.justice.services.eventsourcing.util.jee.timer.StopWatchFactory;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.WakeUpGate;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import java.time.ZonedDateTime;
+
+import javax.ejb.SessionContext;
 
 import org.apache.commons.lang3.time.StopWatch;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +45,30 @@ public class AsynchronousPublisherTest {
     @Mock
     private PublishedEventDeQueuerAndPublisher publishedEventDeQueuerAndPublisher;
 
+    @Mock
+    private PublishedEventCursorPublisher publishedEventCursorPublisher;
+
+    @Spy
+    private PublishLanes publishLanes = new PublishLanes();
+
+    @Mock
+    private AdaptiveDrainSchedulers adaptiveDrainSchedulers;
+
+    @Mock
+    private PublishQueueRepository publishQueueRepository;
+
+    @Mock
+    private PublisherLeadership publisherLeadership;
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @Mock
+    private UtcClock clock;
+
+    @Mock
+    private SessionContext sessionContext;
+
     @InjectMocks
     private AsynchronousPublisher asynchronousPublisher;
 
@@ -42,6 +84,8 @@ public class AsynchronousPublisherTest {
         asynchronousPublisher.doDeQueueAndPublish();
 
         verify(publishedEventDeQueuerAndPublisher, times(3)).deQueueAndPublish();
+        verify(pipelineMetrics).queueDepthCounted(PUBLISHED, 0L);
+        verifyNoInteractions(publishQueueRepository);
     }
 
     @Test
@@ -60,4 +104,355 @@ public class AsynchronousPublisherTest {
 
         verify(publishedEventDeQueuerAndPublisher, times(1)).deQueueAndPublish();
     }
+
+    @Test
+    public void shouldPublishInBatchesUntilABatchComesBackShort() throws Exception {
+
+        final long timerMaxRuntimeValue = 495L;
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(timerMaxRuntimeValue);
+        when(publisherTimerConfig.getBatchSize()).thenReturn(100);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublish(100)).thenReturn(100, 100, 7);
+
+        asynchronousPublisher.doDeQueueAndPublish();
+
+        verify(publishedEventDeQueuerAndPublisher, times(3)).deQueueAndPublish(100);
+        verify(publishedEventDeQueuerAndPublisher, never()).deQueueAndPublish();
+    }
+
+    @Test
+    public void shouldPublishInBatchesUntilTimeRunsOut() throws Exception {
+
+        final long timerMaxRuntimeValue = 459L;
+        final StopWatch stopWatch = mock(StopWatch.class);
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(timerMaxRuntimeValue);
+        when(publisherTimerConfig.getBatchSize()).thenReturn(100);
+        when(publisherTimerConfig.getAdaptiveMaxBatchSize()).thenReturn(1000);
+        when(stopWatchFactory.createStopWatch()).thenReturn(stopWatch);
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublish(100)).thenReturn(100);
+        when(stopWatch.getTime()).thenReturn(2000L);
+        when(publishQueueRepository.getSizeOfQueueUpTo(1000)).thenReturn(250);
+
+        asynchronousPublisher.doDeQueueAndPublish();
+
+        verify(publishedEventDeQueuerAndPublisher, times(1)).deQueueAndPublish(100);
+        verify(pipelineMetrics).queueDepthCounted(PUBLISHED, 250L);
+    }
+
+    @Test
+    public void shouldPublishALaneInBatchesUntilABatchComesBackShort() throws Exception {
+
+        final long timerMaxRuntimeValue = 495L;
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(timerMaxRuntimeValue);
+        when(publisherTimerConfig.getBatchSize()).thenReturn(100);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublishLane(100, 2, 4)).thenReturn(100, 7);
+
+        asynchronousPublisher.doDeQueueAndPublishLane(2, 4);
+
+        verify(publishedEventDeQueuerAndPublisher, times(2)).deQueueAndPublishLane(100, 2, 4);
+        assertThat(publishLanes.tryStart(2), is(true));
+        verifyNoInteractions(publishQueueRepository, pipelineMetrics);
+    }
+
+    @Test
+    public void shouldPublishALaneOneEventPerTransactionIfThereIsNoBatchSize() throws Exception {
+
+        final long timerMaxRuntimeValue = 495L;
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(timerMaxRuntimeValue);
+        when(publisherTimerConfig.getBatchSize()).thenReturn(1);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublishLane(1, 0, 2)).thenReturn(1, 1, 0);
+
+        asynchronousPublisher.doDeQueueAndPublishLane(0, 2);
+
+        verify(publishedEventDeQueuerAndPublisher, times(3)).deQueueAndPublishLane(1, 0, 2);
+    }
+
+    @Test
+    public void shouldCountTheQueueDepthIfALaneRunsOutOfTime() throws Exception {
+
+        final StopWatch stopWatch = mock(StopWatch.class);
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(publisherTimerConfig.getBatchSize()).thenReturn(100);
+        when(publisherTimerConfig.getAdaptiveMaxBatchSize()).thenReturn(1000);
+        when(stopWatchFactory.createStopWatch()).thenReturn(stopWatch);
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublishLane(100, 3, 4)).thenReturn(100);
+        when(stopWatch.getTime()).thenReturn(2000L);
+        when(publishQueueRepository.getSizeOfQueueUpTo(1000)).thenReturn(1000);
+
+        asynchronousPublisher.doDeQueueAndPublishLane(3, 4);
+
+        verify(publishedEventDeQueuerAndPublisher, times(1)).deQueueAndPublishLane(100, 3, 4);
+        verify(pipelineMetrics).queueDepthCounted(PUBLISHED, 1000L);
+    }
+
+    @Test
+    public void shouldNotPublishALaneThatIsAlreadyBeingPublished() throws Exception {
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+
+        publishLanes.tryStart(1);
+
+        asynchronousPublisher.doDeQueueAndPublishLane(1, 4);
+
+        verifyNoInteractions(publishedEventDeQueuerAndPublisher);
+    }
+
+    @Test
+    public void shouldFreeTheLaneIfPublishingFails() throws Exception {
+
+        final RuntimeException runtimeException = new RuntimeException("Ooops");
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(publisherTimerConfig.getBatchSize()).thenReturn(100);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublishLane(100, 1, 4)).thenThrow(runtimeException);
+
+        final RuntimeException thrown = assertThrows(RuntimeException.class, () -> asynchronousPublisher.doDeQueueAndPublishLane(1, 4));
+
+        assertThat(thrown, is(runtimeException));
+        assertThat(publishLanes.tryStart(1), is(true));
+    }
+
+    @Test
+    public void shouldPublishEachLaneInTurnWhenDrainingTheWholeQueueWithMoreThanOneLane() throws Exception {
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(publisherTimerConfig.getLaneCount()).thenReturn(2);
+        when(publisherTimerConfig.getBatchSize()).thenReturn(100);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublishLane(100, 0, 2)).thenReturn(3);
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublishLane(100, 1, 2)).thenReturn(0);
+
+        asynchronousPublisher.doDeQueueAndPublish();
+
+        verify(publishedEventDeQueuerAndPublisher).deQueueAndPublishLane(100, 0, 2);
+        verify(publishedEventDeQueuerAndPublisher).deQueueAndPublishLane(100, 1, 2);
+        verify(publishedEventDeQueuerAndPublisher, never()).deQueueAndPublish(100);
+        verify(publishedEventDeQueuerAndPublisher, never()).deQueueAndPublish();
+        verify(pipelineMetrics).queueDepthCounted(PUBLISHED, 0L);
+    }
+
+    @Test
+    public void shouldPublishFromTheCursorUntilABatchComesBackShortIfTheCursorIsEnabled() throws Exception {
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(publisherTimerConfig.isCursorEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getBatchSize()).thenReturn(100);
+        when(publisherTimerConfig.getCursorGapWaitMilliseconds()).thenReturn(2000L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(publishedEventCursorPublisher.publishNextEvents(100, 2000L)).thenReturn(100, 100, 0);
+
+        asynchronousPublisher.doDeQueueAndPublish();
+
+        verify(publishedEventCursorPublisher, times(3)).publishNextEvents(100, 2000L);
+        verifyNoInteractions(publishedEventDeQueuerAndPublisher, pipelineMetrics);
+    }
+
+    @Test
+    public void shouldPublishFromTheCursorUntilTimeRunsOut() throws Exception {
+
+        final StopWatch stopWatch = mock(StopWatch.class);
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(publisherTimerConfig.isCursorEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getBatchSize()).thenReturn(1);
+        when(publisherTimerConfig.getCursorGapWaitMilliseconds()).thenReturn(2000L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(stopWatch);
+        when(publishedEventCursorPublisher.publishNextEvents(1, 2000L)).thenReturn(1);
+        when(stopWatch.getTime()).thenReturn(2000L);
+
+        asynchronousPublisher.doDeQueueAndPublish();
+
+        verify(publishedEventCursorPublisher, times(1)).publishNextEvents(1, 2000L);
+    }
+
+    @Test
+    public void shouldDrainTheQueueOnWakeUpAndMakeAnotherPassIfWokenAgainWhileDraining() throws Exception {
+
+        final WakeUpGate wakeUpGate = new WakeUpGate();
+        wakeUpGate.signal();
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublish()).thenAnswer(invocation -> {
+            wakeUpGate.signal();
+            return false;
+        }).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+
+        asynchronousPublisher.doDeQueueAndPublishOnWakeUp(wakeUpGate);
+
+        verify(publishedEventDeQueuerAndPublisher, times(2)).deQueueAndPublish();
+        assertThat(wakeUpGate.isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldNotMakeAnotherPassOnWakeUpIfThisIsNoLongerTheActiveNode() throws Exception {
+
+        final WakeUpGate wakeUpGate = new WakeUpGate();
+        wakeUpGate.signal();
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublish()).thenAnswer(invocation -> {
+            wakeUpGate.signal();
+            return false;
+        });
+        when(publisherLeadership.isActiveNode()).thenReturn(false);
+
+        asynchronousPublisher.doDeQueueAndPublishOnWakeUp(wakeUpGate);
+
+        verify(publishedEventDeQueuerAndPublisher, times(1)).deQueueAndPublish();
+        assertThat(wakeUpGate.isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldReleaseTheWakeUpGateIfDrainingFails() throws Exception {
+
+        final WakeUpGate wakeUpGate = new WakeUpGate();
+        final RuntimeException runtimeException = new RuntimeException("Ooops");
+        wakeUpGate.signal();
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublish()).thenThrow(runtimeException);
+
+        final RuntimeException thrown = assertThrows(RuntimeException.class, () -> asynchronousPublisher.doDeQueueAndPublishOnWakeUp(wakeUpGate));
+
+        assertThat(thrown, is(runtimeException));
+        assertThat(wakeUpGate.isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldPublishAdaptivelyUntilABatchComesBackShort() throws Exception {
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler("publish", 10, 40, 100L, 500L, 4000L);
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(publisherTimerConfig.getLaneCount()).thenReturn(1);
+        when(publisherTimerConfig.isAdaptiveDrainEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(adaptiveDrainSchedulers.forPublish()).thenReturn(adaptiveDrainScheduler);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublish(10)).thenReturn(10);
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublish(20)).thenReturn(2);
+
+        asynchronousPublisher.doDeQueueAndPublish();
+
+        assertThat(adaptiveDrainScheduler.getEventCount(), is(12L));
+        assertThat(adaptiveDrainScheduler.getBatchSize(), is(20));
+        assertThat(adaptiveDrainScheduler.isDraining(), is(false));
+        verifyNoInteractions(publishQueueRepository, sessionContext);
+    }
+
+    @Test
+    public void shouldCarryOnPublishingAdaptivelyOnANewThreadIfThereIsStillABacklogWhenTimeRunsOut() throws Exception {
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler("publish", 10, 40, 100L, 500L, 4000L);
+        final StopWatch stopWatch = mock(StopWatch.class);
+        final AsynchronousPublisher businessObject = mock(AsynchronousPublisher.class);
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(publisherTimerConfig.getLaneCount()).thenReturn(1);
+        when(publisherTimerConfig.isAdaptiveDrainEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(stopWatch);
+        when(stopWatch.getTime()).thenReturn(0L, 500L);
+        when(adaptiveDrainSchedulers.forPublish()).thenReturn(adaptiveDrainScheduler);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublish(10)).thenReturn(10);
+        when(publishQueueRepository.getSizeOfQueueUpTo(40)).thenReturn(15);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+        when(sessionContext.getBusinessObject(AsynchronousPublisher.class)).thenReturn(businessObject);
+
+        asynchronousPublisher.doDeQueueAndPublish();
+
+        verify(businessObject).continueAdaptivePublish();
+        assertThat(adaptiveDrainScheduler.isDraining(), is(true));
+        assertThat(adaptiveDrainScheduler.getLastQueueDepth(), is(15L));
+        verify(pipelineMetrics).queueDepthCounted(PUBLISHED, 15L);
+    }
+
+    @Test
+    public void shouldTakeAFullBatchFromTheCursorAsABacklogWhenTimeRunsOut() throws Exception {
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler("publish", 10, 40, 100L, 500L, 4000L);
+        final StopWatch stopWatch = mock(StopWatch.class);
+        final AsynchronousPublisher businessObject = mock(AsynchronousPublisher.class);
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(publisherTimerConfig.isAdaptiveDrainEnabled()).thenReturn(true);
+        when(publisherTimerConfig.isCursorEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getCursorGapWaitMilliseconds()).thenReturn(2000L);
+        when(stopWatchFactory.createStopWatch()).thenReturn(stopWatch);
+        when(stopWatch.getTime()).thenReturn(0L, 500L);
+        when(adaptiveDrainSchedulers.forPublish()).thenReturn(adaptiveDrainScheduler);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(publishedEventCursorPublisher.publishNextEvents(10, 2000L)).thenReturn(10);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+        when(sessionContext.getBusinessObject(AsynchronousPublisher.class)).thenReturn(businessObject);
+
+        asynchronousPublisher.doDeQueueAndPublish();
+
+        verify(businessObject).continueAdaptivePublish();
+        verifyNoInteractions(publishQueueRepository, publishedEventDeQueuerAndPublisher, pipelineMetrics);
+        assertThat(adaptiveDrainScheduler.getLastQueueDepth(), is(10L));
+    }
+
+    @Test
+    public void shouldFinishTheAdaptiveDrainRatherThanCarryOnIfThisIsNoLongerTheActiveNode() throws Exception {
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler("publish", 10, 40, 100L, 500L, 4000L);
+        final StopWatch stopWatch = mock(StopWatch.class);
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(publisherTimerConfig.getLaneCount()).thenReturn(1);
+        when(publisherTimerConfig.isAdaptiveDrainEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(stopWatch);
+        when(stopWatch.getTime()).thenReturn(0L, 500L);
+        when(adaptiveDrainSchedulers.forPublish()).thenReturn(adaptiveDrainScheduler);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublish(10)).thenReturn(10);
+        when(publishQueueRepository.getSizeOfQueueUpTo(40)).thenReturn(40);
+        when(publisherLeadership.isActiveNode()).thenReturn(false);
+
+        asynchronousPublisher.doDeQueueAndPublish();
+
+        verifyNoInteractions(sessionContext);
+        assertThat(adaptiveDrainScheduler.isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldEndTheBackOffOfTheAdaptiveDrainOnWakeUp() throws Exception {
+
+        final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler("publish", 10, 40, 100L, 500L, 4000L);
+        final ZonedDateTime now = ZonedDateTime.now();
+        final WakeUpGate wakeUpGate = new WakeUpGate();
+        wakeUpGate.signal();
+
+        adaptiveDrainScheduler.tryStartDrain(now);
+        adaptiveDrainScheduler.endSlice(0L, now);
+        adaptiveDrainScheduler.finishDrain();
+
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(495L);
+        when(publisherTimerConfig.getLaneCount()).thenReturn(1);
+        when(publisherTimerConfig.isAdaptiveDrainEnabled()).thenReturn(true);
+        when(stopWatchFactory.createStopWatch()).thenReturn(mock(StopWatch.class));
+        when(adaptiveDrainSchedulers.forPublish()).thenReturn(adaptiveDrainScheduler);
+        when(clock.now()).thenReturn(now);
+        when(publishedEventDeQueuerAndPublisher.deQueueAndPublish(10)).thenReturn(1);
+
+        asynchronousPublisher.doDeQueueAndPublishOnWakeUp(wakeUpGate);
+
+        verify(publishedEventDeQueuerAndPublisher).deQueueAndPublish(10);
+        assertThat(adaptiveDrainScheduler.getNextWakeUpDelayMilliseconds(), is(0L));
+        assertThat(wakeUpGate.isDraining(), is(false));
+    }
 }
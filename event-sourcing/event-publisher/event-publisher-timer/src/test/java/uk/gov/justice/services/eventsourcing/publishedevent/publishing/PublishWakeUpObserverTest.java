@@ -0,0 +1,127 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publishing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PRE_PUBLISH_QUEUE_TABLE;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PUBLISH_QUEUE_TABLE;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.getValueOfField;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.EventsQueuedEvent;
+import uk.gov.justice.services.eventsourcing.util.jee.timer.WakeUpGate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PublishWakeUpObserverTest {
+
+    @Mock
+    private PublisherTimerConfig publisherTimerConfig;
+
+    @Mock
+    private AsynchronousPublisher asynchronousPublisher;
+
+    @Mock
+    private PublisherLeadership publisherLeadership;
+
+    @InjectMocks
+    private PublishWakeUpObserver publishWakeUpObserver;
+
+    @Test
+    public void shouldWakeThePublisherWhenEventsAreQueuedOnThePublishQueue() throws Exception {
+
+        when(publisherTimerConfig.isWakeUpEnabled()).thenReturn(true);
+        when(publisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+
+        publishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+
+        verify(asynchronousPublisher).doDeQueueAndPublishOnWakeUp(wakeUpGate());
+    }
+
+    @Test
+    public void shouldNotWakeThePublisherAgainWhileItIsDraining() throws Exception {
+
+        when(publisherTimerConfig.isWakeUpEnabled()).thenReturn(true);
+        when(publisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+
+        publishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+        publishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+        publishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+
+        verify(asynchronousPublisher, times(1)).doDeQueueAndPublishOnWakeUp(any(WakeUpGate.class));
+    }
+
+    @Test
+    public void shouldIgnoreEventsQueuedOnOtherTables() throws Exception {
+
+        publishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PRE_PUBLISH_QUEUE_TABLE));
+
+        verifyNoInteractions(publisherTimerConfig, asynchronousPublisher);
+    }
+
+    @Test
+    public void shouldNotWakeThePublisherIfWakeUpIsNotEnabled() throws Exception {
+
+        when(publisherTimerConfig.isWakeUpEnabled()).thenReturn(false);
+
+        publishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+
+        verifyNoInteractions(asynchronousPublisher);
+    }
+
+    @Test
+    public void shouldNotWakeThePublisherIfDisabled() throws Exception {
+
+        when(publisherTimerConfig.isWakeUpEnabled()).thenReturn(true);
+        when(publisherTimerConfig.isDisabled()).thenReturn(true);
+
+        publishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+
+        verifyNoInteractions(asynchronousPublisher);
+    }
+
+    @Test
+    public void shouldNotWakeThePublisherIfThisIsNotTheActiveNode() throws Exception {
+
+        when(publisherTimerConfig.isWakeUpEnabled()).thenReturn(true);
+        when(publisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(false);
+
+        publishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+
+        verifyNoInteractions(asynchronousPublisher);
+        assertThat(wakeUpGate().isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldReleaseTheWakeUpGateIfThePublisherCannotBeWoken() throws Exception {
+
+        final RuntimeException runtimeException = new RuntimeException("Ooops");
+
+        when(publisherTimerConfig.isWakeUpEnabled()).thenReturn(true);
+        when(publisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+        doThrow(runtimeException).when(asynchronousPublisher).doDeQueueAndPublishOnWakeUp(any(WakeUpGate.class));
+
+        final RuntimeException thrown = assertThrows(RuntimeException.class, () -> publishWakeUpObserver.onEventsQueued(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE)));
+
+        assertThat(thrown, is(runtimeException));
+        assertThat(wakeUpGate().isDraining(), is(false));
+    }
+
+    private WakeUpGate wakeUpGate() throws Exception {
+        return getValueOfField(publishWakeUpObserver, "wakeUpGate", WakeUpGate.class);
+    }
+}
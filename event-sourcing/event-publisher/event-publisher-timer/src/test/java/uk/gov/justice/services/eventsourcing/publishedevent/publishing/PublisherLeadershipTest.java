@@ -0,0 +1,250 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publishing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.getValueOfField;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.PublisherLease;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class PublisherLeadershipTest {
+
+    private static final long LEASE_MILLISECONDS = 9000L;
+
+    @Mock
+    private PublisherTimerConfig publisherTimerConfig;
+
+    @Mock
+    private PublisherLease publisherLease;
+
+    @Mock
+    private UtcClock clock;
+
+    @Mock
+    private Logger logger;
+
+    @InjectMocks
+    private PublisherLeadership publisherLeadership;
+
+    @Test
+    public void shouldAlwaysBeTheActiveNodeIfLeaderElectionIsDisabled() throws Exception {
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(false);
+
+        assertThat(publisherLeadership.isActiveNode(), is(true));
+
+        verifyNoInteractions(publisherLease, clock);
+    }
+
+    @Test
+    public void shouldBeTheActiveNodeOnceItHasAcquiredTheLease() throws Exception {
+
+        final String holder = holder();
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getLeaderLeaseMilliseconds()).thenReturn(LEASE_MILLISECONDS);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(publisherLease.tryAcquireOrRenew(holder, LEASE_MILLISECONDS)).thenReturn(true);
+
+        assertThat(publisherLeadership.isActiveNode(), is(true));
+
+        verify(logger).info("Publisher '" + holder + "' is now the active event publisher");
+    }
+
+    @Test
+    public void shouldNotBeTheActiveNodeWhileAnotherNodeHoldsTheLease() throws Exception {
+
+        final String holder = holder();
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getLeaderLeaseMilliseconds()).thenReturn(LEASE_MILLISECONDS);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(publisherLease.tryAcquireOrRenew(holder, LEASE_MILLISECONDS)).thenReturn(false);
+
+        assertThat(publisherLeadership.isActiveNode(), is(false));
+
+        verify(publisherLease).tryAcquireOrRenew(holder, LEASE_MILLISECONDS);
+        verifyNoInteractions(logger);
+    }
+
+    @Test
+    public void shouldNotTryToAcquireTheLeaseAgainUntilTheLeaseOfTheActiveNodeCouldHaveExpired() throws Exception {
+
+        final String holder = holder();
+        final ZonedDateTime triedAt = ZonedDateTime.now();
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getLeaderLeaseMilliseconds()).thenReturn(LEASE_MILLISECONDS);
+        when(clock.now()).thenReturn(
+                triedAt,
+                triedAt.plusNanos(5999_000_000L),
+                triedAt.plusSeconds(6));
+        when(publisherLease.tryAcquireOrRenew(holder, LEASE_MILLISECONDS)).thenReturn(false, true);
+        when(publisherLease.millisecondsLeft()).thenReturn(6000L);
+
+        assertThat(publisherLeadership.isActiveNode(), is(false));
+        assertThat(publisherLeadership.isActiveNode(), is(false));
+        verify(publisherLease, times(1)).tryAcquireOrRenew(holder, LEASE_MILLISECONDS);
+
+        assertThat(publisherLeadership.isActiveNode(), is(true));
+        verify(publisherLease, times(2)).tryAcquireOrRenew(holder, LEASE_MILLISECONDS);
+    }
+
+    @Test
+    public void shouldOnlyRenewTheLeaseOnceAThirdOfItHasPassed() throws Exception {
+
+        final String holder = holder();
+        final ZonedDateTime acquiredAt = ZonedDateTime.now();
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getLeaderLeaseMilliseconds()).thenReturn(LEASE_MILLISECONDS);
+        when(clock.now()).thenReturn(
+                acquiredAt,
+                acquiredAt.plusNanos(2999_000_000L),
+                acquiredAt.plusSeconds(3));
+        when(publisherLease.tryAcquireOrRenew(holder, LEASE_MILLISECONDS)).thenReturn(true);
+
+        assertThat(publisherLeadership.isActiveNode(), is(true));
+        assertThat(publisherLeadership.isActiveNode(), is(true));
+        verify(publisherLease, times(1)).tryAcquireOrRenew(holder, LEASE_MILLISECONDS);
+
+        assertThat(publisherLeadership.isActiveNode(), is(true));
+        verify(publisherLease, times(2)).tryAcquireOrRenew(holder, LEASE_MILLISECONDS);
+        verify(logger, times(1)).info(anyString());
+    }
+
+    @Test
+    public void shouldStopBeingTheActiveNodeIfItLosesTheLease() throws Exception {
+
+        final String holder = holder();
+        final ZonedDateTime acquiredAt = ZonedDateTime.now();
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getLeaderLeaseMilliseconds()).thenReturn(LEASE_MILLISECONDS);
+        when(clock.now()).thenReturn(acquiredAt, acquiredAt.plusSeconds(10));
+        when(publisherLease.tryAcquireOrRenew(holder, LEASE_MILLISECONDS)).thenReturn(true, false);
+
+        assertThat(publisherLeadership.isActiveNode(), is(true));
+        assertThat(publisherLeadership.isActiveNode(), is(false));
+
+        verify(logger).warn("Publisher '" + holder + "' has lost its lease and is no longer the active event publisher");
+    }
+
+    @Test
+    public void shouldStopBeingTheActiveNodeIfTheLeaseCannotBeRenewed() throws Exception {
+
+        final String holder = holder();
+        final ZonedDateTime acquiredAt = ZonedDateTime.now();
+        final PublishedEventException publishedEventException = new PublishedEventException("Ooops");
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getLeaderLeaseMilliseconds()).thenReturn(LEASE_MILLISECONDS);
+        when(clock.now()).thenReturn(acquiredAt, acquiredAt.plusSeconds(10));
+        when(publisherLease.tryAcquireOrRenew(holder, LEASE_MILLISECONDS))
+                .thenReturn(true)
+                .thenThrow(publishedEventException);
+
+        assertThat(publisherLeadership.isActiveNode(), is(true));
+
+        final PublishedEventException thrown = assertThrows(PublishedEventException.class, () -> publisherLeadership.isActiveNode());
+
+        assertThat(thrown, is(publishedEventException));
+
+        publisherLeadership.releaseLease();
+        verify(publisherLease, times(0)).release(anyString());
+    }
+
+    @Test
+    public void shouldAcceptAMaxRuntimeOfLessThanTwoThirdsOfTheLease() throws Exception {
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getLeaderLeaseMilliseconds()).thenReturn(LEASE_MILLISECONDS);
+
+        publisherLeadership.checkMaxRuntimeFitsInLease("event.dequer.timer.max.runtime.milliseconds", 5999L);
+    }
+
+    @Test
+    public void shouldRejectAMaxRuntimeOfTwoThirdsOfTheLeaseOrMore() throws Exception {
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getLeaderLeaseMilliseconds()).thenReturn(LEASE_MILLISECONDS);
+
+        final IllegalStateException illegalStateException = assertThrows(
+                IllegalStateException.class,
+                () -> publisherLeadership.checkMaxRuntimeFitsInLease("event.dequer.timer.max.runtime.milliseconds", 6000L));
+
+        assertThat(illegalStateException.getMessage(), is("'event.dequer.timer.max.runtime.milliseconds' of 6000 milliseconds must be less than two thirds of 'publish.leader.lease.milliseconds' of 9000 milliseconds"));
+    }
+
+    @Test
+    public void shouldAcceptAnyMaxRuntimeIfLeaderElectionIsDisabled() throws Exception {
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(false);
+
+        publisherLeadership.checkMaxRuntimeFitsInLease("event.dequer.timer.max.runtime.milliseconds", 60_000L);
+    }
+
+    @Test
+    public void shouldReleaseTheLeaseOnShutdownIfItHoldsIt() throws Exception {
+
+        final String holder = holder();
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getLeaderLeaseMilliseconds()).thenReturn(LEASE_MILLISECONDS);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(publisherLease.tryAcquireOrRenew(holder, LEASE_MILLISECONDS)).thenReturn(true);
+
+        publisherLeadership.isActiveNode();
+        publisherLeadership.releaseLease();
+
+        verify(publisherLease).release(holder);
+    }
+
+    @Test
+    public void shouldNotReleaseTheLeaseOnShutdownIfItDoesNotHoldIt() throws Exception {
+
+        publisherLeadership.releaseLease();
+
+        verifyNoInteractions(publisherLease);
+    }
+
+    @Test
+    public void shouldLogAndCarryOnIfTheLeaseCannotBeReleased() throws Exception {
+
+        final String holder = holder();
+        final PublishedEventException publishedEventException = new PublishedEventException("Ooops");
+
+        when(publisherTimerConfig.isLeaderElectionEnabled()).thenReturn(true);
+        when(publisherTimerConfig.getLeaderLeaseMilliseconds()).thenReturn(LEASE_MILLISECONDS);
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        when(publisherLease.tryAcquireOrRenew(holder, LEASE_MILLISECONDS)).thenReturn(true);
+        doThrow(publishedEventException).when(publisherLease).release(holder);
+
+        publisherLeadership.isActiveNode();
+        publisherLeadership.releaseLease();
+
+        verify(logger).warn("Failed to release the lease of publisher '" + holder + "', it will expire instead", publishedEventException);
+    }
+
+    private String holder() throws Exception {
+        return getValueOfField(publisherLeadership, "holder", String.class);
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.publishing;
 
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -29,6 +30,9 @@ public class PublisherTimerBeanTest {
     @Mock
     private AsynchronousPublisher asynchronousPublisher;
 
+    @Mock
+    private PublisherLeadership publisherLeadership;
+
     @InjectMocks
     private PublisherTimerBean publisherTimerBean;
 
@@ -40,9 +44,11 @@ public class PublisherTimerBeanTest {
 
         when(publisherTimerConfig.getTimerStartWaitMilliseconds()).thenReturn(timerStartValue);
         when(publisherTimerConfig.getTimerIntervalMilliseconds()).thenReturn(timerIntervalValue);
+        when(publisherTimerConfig.getTimerMaxRuntimeMilliseconds()).thenReturn(450L);
 
         publisherTimerBean.startTimerService();
 
+        verify(publisherLeadership).checkMaxRuntimeFitsInLease("event.dequer.timer.max.runtime.milliseconds", 450L);
         verify(timerServiceManager).createIntervalTimer(
                 "event-store.de-queue-events-and-publish.job",
                 timerStartValue,
@@ -54,12 +60,28 @@ public class PublisherTimerBeanTest {
     public void shouldRunPublishAsynchronously() throws Exception {
 
         when(publisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
 
         publisherTimerBean.doDeQueueAndPublish();
 
         verify(asynchronousPublisher).doDeQueueAndPublish();
     }
 
+    @Test
+    public void shouldRunPublishOfEachLaneAsynchronouslyIfThereIsMoreThanOneLane() throws Exception {
+
+        when(publisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(true);
+        when(publisherTimerConfig.getLaneCount()).thenReturn(3);
+
+        publisherTimerBean.doDeQueueAndPublish();
+
+        verify(asynchronousPublisher).doDeQueueAndPublishLane(0, 3);
+        verify(asynchronousPublisher).doDeQueueAndPublishLane(1, 3);
+        verify(asynchronousPublisher).doDeQueueAndPublishLane(2, 3);
+        verify(asynchronousPublisher, never()).doDeQueueAndPublish();
+    }
+
     @Test
     public void shouldRunPublishIfDisabled() throws Exception {
 
@@ -69,4 +91,15 @@ public class PublisherTimerBeanTest {
 
         verifyNoInteractions(asynchronousPublisher);
     }
+
+    @Test
+    public void shouldNotRunPublishIfThisIsNotTheActiveNode() throws Exception {
+
+        when(publisherTimerConfig.isDisabled()).thenReturn(false);
+        when(publisherLeadership.isActiveNode()).thenReturn(false);
+
+        publisherTimerBean.doDeQueueAndPublish();
+
+        verifyNoInteractions(asynchronousPublisher);
+    }
 }
@@ -45,6 +45,75 @@ public class PublisherTimerConfigTest {
         assertThat(publisherTimerConfig.getTimerMaxRuntimeMilliseconds(), is(milliseconds));
     }
 
+    @Test
+    public void shouldGetTheBatchSize() throws Exception {
+
+        setField(publisherTimerConfig, "batchSize", "250");
+
+        assertThat(publisherTimerConfig.getBatchSize(), is(250));
+    }
+
+    @Test
+    public void shouldGetTheLaneCount() throws Exception {
+
+        setField(publisherTimerConfig, "laneCount", "8");
+
+        assertThat(publisherTimerConfig.getLaneCount(), is(8));
+    }
+
+    @Test
+    public void shouldGetWhetherTheCursorIsEnabledAndItsGapWait() throws Exception {
+
+        setField(publisherTimerConfig, "cursorEnabled", "true");
+        setField(publisherTimerConfig, "cursorGapWaitMilliseconds", "1500");
+
+        assertThat(publisherTimerConfig.isCursorEnabled(), is(true));
+        assertThat(publisherTimerConfig.getCursorGapWaitMilliseconds(), is(1500L));
+
+        setField(publisherTimerConfig, "cursorEnabled", "false");
+        assertThat(publisherTimerConfig.isCursorEnabled(), is(false));
+    }
+
+    @Test
+    public void shouldGetWhetherLeaderElectionIsEnabledAndTheLeaderLease() throws Exception {
+
+        setField(publisherTimerConfig, "leaderElectionEnabled", "true");
+        setField(publisherTimerConfig, "leaderLeaseMilliseconds", "15000");
+
+        assertThat(publisherTimerConfig.isLeaderElectionEnabled(), is(true));
+        assertThat(publisherTimerConfig.getLeaderLeaseMilliseconds(), is(15000L));
+
+        setField(publisherTimerConfig, "leaderElectionEnabled", "false");
+        assertThat(publisherTimerConfig.isLeaderElectionEnabled(), is(false));
+    }
+
+    @Test
+    public void shouldGetTheAdaptiveDrainSettings() throws Exception {
+
+        setField(publisherTimerConfig, "adaptiveDrainEnabled", "true");
+        setField(publisherTimerConfig, "adaptiveMaxBatchSize", "500");
+        setField(publisherTimerConfig, "adaptiveTargetBatchMilliseconds", "150");
+        setField(publisherTimerConfig, "adaptiveMaxBackOffMilliseconds", "8000");
+
+        assertThat(publisherTimerConfig.isAdaptiveDrainEnabled(), is(true));
+        assertThat(publisherTimerConfig.getAdaptiveMaxBatchSize(), is(500));
+        assertThat(publisherTimerConfig.getAdaptiveTargetBatchMilliseconds(), is(150L));
+        assertThat(publisherTimerConfig.getAdaptiveMaxBackOffMilliseconds(), is(8000L));
+
+        setField(publisherTimerConfig, "adaptiveDrainEnabled", "false");
+        assertThat(publisherTimerConfig.isAdaptiveDrainEnabled(), is(false));
+    }
+
+    @Test
+    public void shouldGetWhetherWakeUpIsEnabled() throws Exception {
+
+        setField(publisherTimerConfig, "wakeUpEnabled", "true");
+        assertThat(publisherTimerConfig.isWakeUpEnabled(), is(true));
+
+        setField(publisherTimerConfig, "wakeUpEnabled", "false");
+        assertThat(publisherTimerConfig.isWakeUpEnabled(), is(false));
+    }
+
     @Test
     public void shouldReturnTrueIfDisabled() throws Exception {
 
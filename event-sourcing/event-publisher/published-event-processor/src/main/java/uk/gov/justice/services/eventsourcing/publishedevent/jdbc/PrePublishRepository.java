@@ -9,6 +9,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import javax.sql.DataSource;
@@ -18,6 +19,7 @@ public class PrePublishRepository {
     private static final int NO_PREVIOUS_EVENT_NUMBER = 0;
     private static final String SELECT_EVENT_NUMBER_SQL = "SELECT event_number FROM event_log WHERE id = ?";
     private static final String SELECT_PREVIOUS_EVENT_NUMBER_SQL = "SELECT event_number FROM event_log WHERE event_number < ? ORDER BY event_number DESC LIMIT 1";
+    private static final String SELECT_HIGHEST_PUBLISHED_EVENT_NUMBER_SQL = "SELECT MAX(event_number) AS event_number FROM published_event";
     private static final String INSERT_INTO_PUBLISH_QUEUE_SQL = "INSERT INTO publish_queue (event_log_id, date_queued) VALUES (?, ?)";
 
     public long getEventNumber(final UUID eventId, final DataSource dataSource) throws SQLException {
@@ -53,6 +55,19 @@ public class PrePublishRepository {
         }
     }
 
+    public long getHighestPublishedEventNumber(final DataSource dataSource) throws SQLException {
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_HIGHEST_PUBLISHED_EVENT_NUMBER_SQL);
+             final ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            if (resultSet.next()) {
+                return resultSet.getLong("event_number");
+            }
+
+            return NO_PREVIOUS_EVENT_NUMBER;
+        }
+    }
+
     public void addToPublishQueueTable(final UUID eventId, final ZonedDateTime now, final DataSource dataSource) throws SQLException {
 
         try (final Connection connection = dataSource.getConnection();
@@ -63,4 +78,19 @@ public class PrePublishRepository {
             preparedStatement.executeUpdate();
         }
     }
+
+    public void addToPublishQueueTable(final List<UUID> eventIds, final ZonedDateTime now, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(INSERT_INTO_PUBLISH_QUEUE_SQL)) {
+
+            for (final UUID eventId : eventIds) {
+                preparedStatement.setObject(1, eventId);
+                preparedStatement.setTimestamp(2, toSqlTimestamp(now));
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+        }
+    }
 }
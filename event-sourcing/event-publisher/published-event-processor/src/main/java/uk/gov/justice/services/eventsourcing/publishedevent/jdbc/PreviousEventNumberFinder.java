@@ -2,10 +2,12 @@ package uk.gov.justice.services.eventsourcing.publishedevent.jdbc;
 
 import static java.lang.String.format;
 
+import uk.gov.justice.services.eventsourcing.publishedevent.prepublish.EventNumberWatermark;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
 
 import java.sql.SQLException;
+import java.util.Optional;
 import java.util.UUID;
 
 import javax.inject.Inject;
@@ -19,8 +21,18 @@ public class PreviousEventNumberFinder {
     @Inject
     private PrePublishRepository prePublishRepository;
 
+    @Inject
+    private EventNumberWatermark eventNumberWatermark;
+
     public long getPreviousEventNumber(final UUID eventId, final long eventNumber) {
 
+        final Optional<Long> previousEventNumber = eventNumberWatermark.previousEventNumberOf(eventNumber);
+        eventNumberWatermark.advanceTo(eventNumber);
+
+        if (previousEventNumber.isPresent()) {
+            return previousEventNumber.get();
+        }
+
         final DataSource defaultDataSource = eventStoreDataSourceProvider.getDefaultDataSource();
         try {
             return prePublishRepository.getPreviousEventNumber(eventNumber, defaultDataSource);
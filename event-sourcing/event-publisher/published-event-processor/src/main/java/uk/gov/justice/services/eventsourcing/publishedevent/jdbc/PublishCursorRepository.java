@@ -0,0 +1,103 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.jdbc;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+/**
+ * Access to the publish_cursor table, which holds the event number of the last event published
+ * from the published_event table by each cursor publisher.
+ */
+public class PublishCursorRepository {
+
+    private static final String LOCK_CURSOR_SQL = "SELECT last_event_number FROM publish_cursor WHERE name = ? FOR UPDATE";
+    private static final String CREATE_CURSOR_SQL =
+            "INSERT INTO publish_cursor (name, last_event_number, date_updated) " +
+                    "SELECT ?, COALESCE(" +
+                    "(SELECT MIN(published_event.event_number) - 1 FROM publish_queue JOIN published_event ON published_event.id = publish_queue.event_log_id), " +
+                    "(SELECT MAX(event_number) FROM published_event), " +
+                    "0), ? " +
+                    "ON CONFLICT (name) DO NOTHING";
+    private static final String DELETE_ALL_FROM_PUBLISH_QUEUE_SQL = "DELETE FROM publish_queue";
+    private static final String ADVANCE_CURSOR_SQL = "UPDATE publish_cursor SET last_event_number = ?, date_updated = ? WHERE name = ?";
+    private static final String RESET_CURSORS_SQL = "UPDATE publish_cursor SET last_event_number = COALESCE((SELECT MAX(event_number) FROM published_event), 0), date_updated = ?";
+
+    /**
+     * Locks the row of the cursor until the end of the transaction, so that only one publisher in
+     * the cluster can publish from the cursor at a time.
+     *
+     * @return the event number of the last event published, or empty if the cursor does not exist
+     */
+    public Optional<Long> lockCursor(final String name, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(LOCK_CURSOR_SQL)) {
+            preparedStatement.setString(1, name);
+
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                if (resultSet.next()) {
+                    return of(resultSet.getLong("last_event_number"));
+                }
+
+                return empty();
+            }
+        }
+    }
+
+    /**
+     * Creates the cursor, if no other publisher has created it, just before the oldest event still
+     * in the publish_queue, or after the newest published event if the queue is empty. The
+     * publish_queue is then emptied, as the events in it will be published from the cursor.
+     */
+    public void createCursor(final String name, final ZonedDateTime now, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection()) {
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(CREATE_CURSOR_SQL)) {
+                preparedStatement.setString(1, name);
+                preparedStatement.setTimestamp(2, toSqlTimestamp(now));
+
+                preparedStatement.executeUpdate();
+            }
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(DELETE_ALL_FROM_PUBLISH_QUEUE_SQL)) {
+                preparedStatement.executeUpdate();
+            }
+        }
+    }
+
+    public void advanceCursor(final String name, final long lastEventNumber, final ZonedDateTime now, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(ADVANCE_CURSOR_SQL)) {
+            preparedStatement.setLong(1, lastEventNumber);
+            preparedStatement.setTimestamp(2, toSqlTimestamp(now));
+            preparedStatement.setString(3, name);
+
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * Moves every cursor to the newest event in published_event. A rebuild renumbers the
+     * event_log from 1, so a cursor left at an event number from before the rebuild would skip
+     * every event appended after it until the new event numbers caught up.
+     */
+    public void resetCursors(final ZonedDateTime now, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(RESET_CURSORS_SQL)) {
+            preparedStatement.setTimestamp(1, toSqlTimestamp(now));
+
+            preparedStatement.executeUpdate();
+        }
+    }
+}
@@ -1,23 +1,33 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.jdbc;
 
+import static java.lang.String.format;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static java.util.UUID.fromString;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.fromSqlTimestamp;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+import static uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventStatements.CLAIM_QUEUED_PUBLISHED_EVENTS_IN_LANE_QUERY;
+import static uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventStatements.CLAIM_QUEUED_PUBLISHED_EVENTS_QUERY;
 import static uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventStatements.INSERT_INTO_PUBLISHED_EVENT_SQL;
+import static uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventStatements.SELECT_EVENT_WAITING_TO_BE_PRE_PUBLISHED_BETWEEN_EVENT_NUMBERS_QUERY;
 import static uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventStatements.SELECT_FROM_PUBLISHED_EVENT_QUERY;
+import static uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventStatements.SELECT_PUBLISHED_EVENTS_AFTER_EVENT_NUMBER_QUERY;
 import static uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventStatements.TRUNCATE_PREPUBLISH_QUEUE;
 import static uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventStatements.TRUNCATE_PUBLISHED_EVENT;
+import static uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventStatements.TRY_LOCK_PUBLISH_LANE_QUERY;
+import static uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventStatements.UPDATE_PREVIOUS_EVENT_NUMBER_OF_PUBLISHED_EVENT_SQL;
 
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.MissingEventNumberException;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -55,6 +65,40 @@ public class PublishedEventQueries {
         }
     }
 
+    public void insertPublishedEvents(final List<PublishedEvent> publishedEvents, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(INSERT_INTO_PUBLISHED_EVENT_SQL)) {
+
+            for (final PublishedEvent publishedEvent : publishedEvents) {
+                preparedStatement.setObject(1, publishedEvent.getId());
+                preparedStatement.setObject(2, publishedEvent.getStreamId());
+                preparedStatement.setLong(3, publishedEvent.getPositionInStream());
+                preparedStatement.setString(4, publishedEvent.getName());
+                preparedStatement.setString(5, publishedEvent.getPayload());
+                preparedStatement.setString(6, publishedEvent.getMetadata());
+                preparedStatement.setObject(7, toSqlTimestamp(publishedEvent.getCreatedAt()));
+                preparedStatement.setLong(8, publishedEvent.getEventNumber().orElseThrow(() -> new MissingEventNumberException(format("Event with id '%s' does not have an event number", publishedEvent.getId()))));
+                preparedStatement.setLong(9, publishedEvent.getPreviousEventNumber());
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+        }
+    }
+
+    public void updatePreviousEventNumber(final PublishedEvent publishedEvent, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(UPDATE_PREVIOUS_EVENT_NUMBER_OF_PUBLISHED_EVENT_SQL)) {
+            preparedStatement.setString(1, publishedEvent.getMetadata());
+            preparedStatement.setLong(2, publishedEvent.getPreviousEventNumber());
+            preparedStatement.setObject(3, publishedEvent.getId());
+
+            preparedStatement.executeUpdate();
+        }
+    }
+
     @SuppressWarnings("DuplicatedCode")
     public Optional<PublishedEvent> getPublishedEvent(final UUID id, final DataSource dataSource) throws SQLException {
 
@@ -92,4 +136,154 @@ public class PublishedEventQueries {
 
         return empty();
     }
+
+    /**
+     * @param eventNumber the event number to read from, exclusive
+     * @return up to maxNumberOfEvents published events after the event number, ordered by event_number
+     */
+    public List<PublishedEvent> findPublishedEventsAfter(final long eventNumber, final int maxNumberOfEvents, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_PUBLISHED_EVENTS_AFTER_EVENT_NUMBER_QUERY)) {
+
+            preparedStatement.setLong(1, eventNumber);
+            preparedStatement.setInt(2, maxNumberOfEvents);
+
+            final List<PublishedEvent> publishedEvents = new ArrayList<>();
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                while (resultSet.next()) {
+                    publishedEvents.add(new PublishedEvent(
+                            fromString(resultSet.getString("id")),
+                            fromString(resultSet.getString("stream_id")),
+                            resultSet.getLong("position_in_stream"),
+                            resultSet.getString("name"),
+                            resultSet.getString("metadata"),
+                            resultSet.getString("payload"),
+                            fromSqlTimestamp(resultSet.getTimestamp("date_created")),
+                            resultSet.getLong("event_number"),
+                            resultSet.getLong("previous_event_number")));
+                }
+            }
+
+            return publishedEvents;
+        }
+    }
+
+    /**
+     * Checks whether any event numbered between the two event numbers is still in the
+     * pre_publish_queue, so a gap in the event numbers of published_event will yet be filled.
+     *
+     * @param fromEventNumber the event number to look from, exclusive
+     * @param toEventNumber the event number to look to, exclusive
+     * @return true if an event between the two event numbers is waiting to be pre-published
+     */
+    public boolean hasEventsWaitingToBePrePublishedBetween(final long fromEventNumber, final long toEventNumber, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_EVENT_WAITING_TO_BE_PRE_PUBLISHED_BETWEEN_EVENT_NUMBERS_QUERY)) {
+
+            preparedStatement.setLong(1, fromEventNumber);
+            preparedStatement.setLong(2, toEventNumber);
+
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    /**
+     * Locks up to maxNumberOfEvents of the oldest rows of the publish_queue, skipping rows locked
+     * by other transactions, and reads their published events in the same query. The rows stay
+     * locked until the end of the transaction and should be deleted before it commits.
+     *
+     * @return the published events of the claimed rows, ordered by event_number
+     * @throws PublishedEventException if a claimed row has no published event
+     */
+    public List<PublishedEvent> claimQueuedPublishedEvents(final int maxNumberOfEvents, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(CLAIM_QUEUED_PUBLISHED_EVENTS_QUERY)) {
+
+            preparedStatement.setInt(1, maxNumberOfEvents);
+
+            return claimedPublishedEventsOf(preparedStatement);
+        }
+    }
+
+    /**
+     * As {@link #claimQueuedPublishedEvents(int, DataSource)}, but only claims the rows of the
+     * publish_queue whose stream id hashes into the given lane, so that all the events of a
+     * stream are always claimed by the same lane.
+     *
+     * @param lane the lane to claim rows for, from 0 to laneCount - 1
+     * @param laneCount the number of lanes the streams are hashed into
+     * @return the published events of the claimed rows, ordered by event_number
+     */
+    public List<PublishedEvent> claimQueuedPublishedEventsInLane(final int maxNumberOfEvents, final int lane, final int laneCount, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(CLAIM_QUEUED_PUBLISHED_EVENTS_IN_LANE_QUERY)) {
+
+            preparedStatement.setInt(1, laneCount);
+            preparedStatement.setInt(2, lane);
+            preparedStatement.setInt(3, maxNumberOfEvents);
+
+            return claimedPublishedEventsOf(preparedStatement);
+        }
+    }
+
+    /**
+     * Takes a transaction scoped advisory lock on a lane of the publish_queue without waiting for
+     * it, so that only one transaction across all nodes publishes a lane at a time. The lock is
+     * released when the transaction commits or rolls back.
+     *
+     * The key of the lock includes the number of lanes, as the same lane of a different number of
+     * lanes holds a different partition of the streams.
+     *
+     * @param lane the lane to lock
+     * @param laneCount the number of lanes the streams are hashed into
+     * @return true if the lock was taken, false if another transaction holds it
+     */
+    public boolean tryLockLane(final int lane, final int laneCount, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(TRY_LOCK_PUBLISH_LANE_QUERY)) {
+
+            preparedStatement.setInt(1, laneCount);
+            preparedStatement.setInt(2, lane);
+
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private List<PublishedEvent> claimedPublishedEventsOf(final PreparedStatement preparedStatement) throws SQLException {
+
+        final List<PublishedEvent> publishedEvents = new ArrayList<>();
+        try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            while (resultSet.next()) {
+                final UUID eventLogId = fromString(resultSet.getString("event_log_id"));
+
+                if (resultSet.getString("id") == null) {
+                    throw new PublishedEventException(format("Failed to find PublishedEvent with id '%s'", eventLogId));
+                }
+
+                publishedEvents.add(new PublishedEvent(
+                        eventLogId,
+                        fromString(resultSet.getString("stream_id")),
+                        resultSet.getLong("position_in_stream"),
+                        resultSet.getString("name"),
+                        resultSet.getString("metadata"),
+                        resultSet.getString("payload"),
+                        fromSqlTimestamp(resultSet.getTimestamp("date_created")),
+                        resultSet.getLong("event_number"),
+                        resultSet.getLong("previous_event_number")));
+            }
+        }
+
+        return publishedEvents;
+    }
 }
@@ -7,6 +7,7 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.Published
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
 
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -44,4 +45,61 @@ public class PublishedEventRepository {
             throw new PublishedEventException(format("Unable to insert PublishedEvent with id '%s'", publishedEvent.getId()), e);
         }
     }
+
+    /**
+     * Sets the previous event number, and the metadata that carries it, of a PublishedEvent
+     * already in the published_event table
+     */
+    public void updatePreviousEventNumber(final PublishedEvent publishedEvent) {
+        final DataSource defaultDataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+        try {
+            publishedEventQueries.updatePreviousEventNumber(publishedEvent, defaultDataSource);
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Unable to update previous event number of PublishedEvent with id '%s'", publishedEvent.getId()), e);
+        }
+    }
+
+    /**
+     * Locks up to maxNumberOfEvents rows of the publish_queue and gets their PublishedEvents
+     *
+     * @return the PublishedEvents, ordered by event_number
+     */
+    public List<PublishedEvent> claimQueuedPublishedEvents(final int maxNumberOfEvents) {
+        final DataSource defaultDataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+        try {
+            return publishedEventQueries.claimQueuedPublishedEvents(maxNumberOfEvents, defaultDataSource);
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to claim %d PublishedEvents from publish_queue", maxNumberOfEvents), e);
+        }
+    }
+
+    /**
+     * Locks up to maxNumberOfEvents rows of the publish_queue of one lane and gets their
+     * PublishedEvents
+     *
+     * @return the PublishedEvents, ordered by event_number
+     */
+    public List<PublishedEvent> claimQueuedPublishedEventsInLane(final int maxNumberOfEvents, final int lane, final int laneCount) {
+        final DataSource defaultDataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+        try {
+            return publishedEventQueries.claimQueuedPublishedEventsInLane(maxNumberOfEvents, lane, laneCount, defaultDataSource);
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to claim %d PublishedEvents from lane %d of %d of publish_queue", maxNumberOfEvents, lane, laneCount), e);
+        }
+    }
+
+    /**
+     * Takes a transaction scoped advisory lock on a lane of the publish_queue, if no other
+     * transaction holds it
+     *
+     * @return true if the lock was taken
+     */
+    public boolean tryLockLane(final int lane, final int laneCount) {
+        final DataSource defaultDataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+        try {
+            return publishedEventQueries.tryLockLane(lane, laneCount, defaultDataSource);
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to lock lane %d of %d of publish_queue", lane, laneCount), e);
+        }
+    }
 }
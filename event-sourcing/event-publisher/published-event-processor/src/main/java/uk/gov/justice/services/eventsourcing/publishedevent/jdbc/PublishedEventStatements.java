@@ -10,6 +10,10 @@ public interface PublishedEventStatements {
             "VALUES " +
             "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
+    String UPDATE_PREVIOUS_EVENT_NUMBER_OF_PUBLISHED_EVENT_SQL = "UPDATE published_event " +
+            "SET metadata = ?, previous_event_number = ? " +
+            "WHERE id = ?";
+
     String SELECT_FROM_PUBLISHED_EVENT_QUERY =
             "SELECT stream_id, position_in_stream, name, payload, metadata, date_created, event_number, previous_event_number " +
                     "FROM published_event " +
@@ -21,4 +25,49 @@ public interface PublishedEventStatements {
                     "ORDER BY event_number DESC " +
                     "LIMIT 1"
             ;
+
+    String SELECT_PUBLISHED_EVENTS_AFTER_EVENT_NUMBER_QUERY =
+            "SELECT id, stream_id, position_in_stream, name, payload, metadata, date_created, event_number, previous_event_number " +
+                    "FROM published_event " +
+                    "WHERE event_number > ? " +
+                    "ORDER BY event_number " +
+                    "LIMIT ?"
+            ;
+
+    String SELECT_EVENT_WAITING_TO_BE_PRE_PUBLISHED_BETWEEN_EVENT_NUMBERS_QUERY =
+            "SELECT 1 " +
+                    "FROM pre_publish_queue " +
+                    "JOIN event_log ON event_log.id = pre_publish_queue.event_log_id " +
+                    "WHERE event_log.event_number > ? AND event_log.event_number < ? " +
+                    "LIMIT 1"
+            ;
+
+    String CLAIM_QUEUED_PUBLISHED_EVENTS_QUERY =
+            "WITH claimed AS (" +
+                    "SELECT event_log_id FROM publish_queue ORDER BY date_queued, queue_order LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                    "SELECT claimed.event_log_id, published_event.id, published_event.stream_id, published_event.position_in_stream, " +
+                    "published_event.name, published_event.payload, published_event.metadata, published_event.date_created, " +
+                    "published_event.event_number, published_event.previous_event_number " +
+                    "FROM claimed " +
+                    "LEFT JOIN published_event ON published_event.id = claimed.event_log_id " +
+                    "ORDER BY published_event.event_number"
+            ;
+
+    String CLAIM_QUEUED_PUBLISHED_EVENTS_IN_LANE_QUERY =
+            "WITH claimed AS (" +
+                    "SELECT publish_queue.event_log_id FROM publish_queue " +
+                    "JOIN published_event ON published_event.id = publish_queue.event_log_id " +
+                    "WHERE (hashtext(published_event.stream_id::text) & 2147483647) % ? = ? " +
+                    "ORDER BY publish_queue.date_queued, publish_queue.queue_order LIMIT ? FOR UPDATE OF publish_queue SKIP LOCKED) " +
+                    "SELECT claimed.event_log_id, published_event.id, published_event.stream_id, published_event.position_in_stream, " +
+                    "published_event.name, published_event.payload, published_event.metadata, published_event.date_created, " +
+                    "published_event.event_number, published_event.previous_event_number " +
+                    "FROM claimed " +
+                    "LEFT JOIN published_event ON published_event.id = claimed.event_log_id " +
+                    "ORDER BY published_event.event_number"
+            ;
+
+    String TRY_LOCK_PUBLISH_LANE_QUERY =
+            "SELECT pg_try_advisory_xact_lock(hashtext('publish_queue:' || CAST(? AS text)), ?)"
+            ;
 }
@@ -0,0 +1,76 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+/**
+ * Access to the publisher_lease table. Expiry times are taken from the database clock, so that
+ * the clocks of the nodes competing for a lease do not need to agree.
+ */
+public class PublisherLeaseRepository {
+
+    private static final String ACQUIRE_OR_RENEW_LEASE_SQL =
+            "INSERT INTO publisher_lease (name, holder, lease_expires_at) " +
+                    "VALUES (?, ?, clock_timestamp() + ? * INTERVAL '1 millisecond') " +
+                    "ON CONFLICT (name) DO UPDATE " +
+                    "SET holder = EXCLUDED.holder, lease_expires_at = EXCLUDED.lease_expires_at " +
+                    "WHERE publisher_lease.holder = EXCLUDED.holder OR publisher_lease.lease_expires_at < clock_timestamp()";
+    private static final String RELEASE_LEASE_SQL = "DELETE FROM publisher_lease WHERE name = ? AND holder = ?";
+    private static final String FIND_MILLISECONDS_LEFT_SQL =
+            "SELECT CAST(EXTRACT(EPOCH FROM (lease_expires_at - clock_timestamp())) * 1000 AS BIGINT) " +
+                    "FROM publisher_lease WHERE name = ?";
+
+    /**
+     * Takes the lease if nobody holds it or the lease of its holder has expired, or renews it if
+     * it is already held by the holder.
+     *
+     * @return true if the holder now holds the lease, false if another holder does
+     */
+    public boolean tryAcquireOrRenew(final String name, final String holder, final long leaseMilliseconds, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(ACQUIRE_OR_RENEW_LEASE_SQL)) {
+            preparedStatement.setString(1, name);
+            preparedStatement.setString(2, holder);
+            preparedStatement.setLong(3, leaseMilliseconds);
+
+            return preparedStatement.executeUpdate() == 1;
+        }
+    }
+
+    public void release(final String name, final String holder, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(RELEASE_LEASE_SQL)) {
+            preparedStatement.setString(1, name);
+            preparedStatement.setString(2, holder);
+
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * @return the milliseconds left until the lease expires, negative if it already has, or empty
+     * if nobody holds it
+     */
+    public Optional<Long> findMillisecondsLeft(final String name, final DataSource dataSource) throws SQLException {
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(FIND_MILLISECONDS_LEFT_SQL)) {
+            preparedStatement.setString(1, name);
+
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(resultSet.getLong(1));
+                }
+            }
+
+            return Optional.empty();
+        }
+    }
+}
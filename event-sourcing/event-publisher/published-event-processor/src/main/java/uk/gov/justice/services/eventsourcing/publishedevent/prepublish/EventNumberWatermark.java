@@ -0,0 +1,71 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PrePublishRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Holds the number of the last event this node created a published event for, seeded once from
+ * the highest event number in the published_event table, so that the previous event number of
+ * the next event can usually be found without querying the event_log.
+ *
+ * The watermark is only used when the event number asked about immediately follows it. Every
+ * number the watermark holds belongs to an event in the event_log, so the event before event
+ * number n + 1 is then always event number n, whatever other nodes have pre-published since.
+ * If another node has moved on, the next event this node sees will not follow its watermark and
+ * the previous event number is queried as before.
+ */
+@ApplicationScoped
+public class EventNumberWatermark {
+
+    private static final long NOT_SEEDED = -1L;
+
+    @Inject
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Inject
+    private PrePublishRepository prePublishRepository;
+
+    private final AtomicLong lastEventNumber = new AtomicLong(NOT_SEEDED);
+
+    /**
+     * @param eventNumber the event number of the event about to be published
+     * @return the previous event number if it is the watermark, otherwise empty
+     */
+    public Optional<Long> previousEventNumberOf(final long eventNumber) {
+
+        if (lastEventNumber.get() == NOT_SEEDED) {
+            seed();
+        }
+
+        final long watermark = lastEventNumber.get();
+        if (watermark == eventNumber - 1) {
+            return of(watermark);
+        }
+
+        return empty();
+    }
+
+    public void advanceTo(final long eventNumber) {
+        lastEventNumber.set(eventNumber);
+    }
+
+    private void seed() {
+        try {
+            final long highestPublishedEventNumber = prePublishRepository.getHighestPublishedEventNumber(eventStoreDataSourceProvider.getDefaultDataSource());
+            lastEventNumber.compareAndSet(NOT_SEEDED, highestPublishedEventNumber);
+        } catch (final SQLException e) {
+            throw new PublishedEventException("Failed to get highest event number from published_event table", e);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
 
 import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
 import static javax.transaction.Transactional.TxType.MANDATORY;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PUBLISH_QUEUE_TABLE;
 
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PrePublishRepository;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventQueries;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.EventsQueuedEvent;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
@@ -14,6 +18,9 @@ import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourcePro
 import uk.gov.justice.services.messaging.Metadata;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import javax.inject.Inject;
@@ -43,6 +50,12 @@ public class EventPrePublisher {
     @Inject
     private PublishedEventFactory publishedEventFactory;
 
+    @Inject
+    private EventNumberWatermark eventNumberWatermark;
+
+    @Inject
+    private javax.enterprise.event.Event<EventsQueuedEvent> eventsQueuedEventFirer;
+
     @Transactional(MANDATORY)
     public void prePublish(final Event event) {
 
@@ -51,7 +64,7 @@ public class EventPrePublisher {
         final DataSource defaultDataSource = eventStoreDataSourceProvider.getDefaultDataSource();
         try {
             final long eventNumber = prePublishRepository.getEventNumber(eventId, defaultDataSource);
-            final long previousEventNumber = prePublishRepository.getPreviousEventNumber(eventNumber, defaultDataSource);
+            final long previousEventNumber = previousEventNumberOf(eventNumber, defaultDataSource);
 
             final Metadata updatedMetadata = metadataEventNumberUpdater.updateMetadataJson(
                     eventConverter.metadataOf(event),
@@ -66,9 +79,102 @@ public class EventPrePublisher {
 
             publishedEventQueries.insertPublishedEvent(publishedEvent, defaultDataSource);
             prePublishRepository.addToPublishQueueTable(eventId, clock.now(), defaultDataSource);
+            eventsQueuedEventFirer.fire(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+
+            eventNumberWatermark.advanceTo(eventNumber);
 
         } catch (final SQLException e) {
             throw new PublishedEventException(format("Failed to insert event_number into metadata in event_log table for event id %s", eventId), e);
         }
     }
+
+    /**
+     * Pre-publishes a batch of events with one jdbc batch insert into published_event and one
+     * into publish_queue. The previous event number of each event is found through the
+     * {@link EventNumberWatermark}, so is only queried when event numbers are not consecutive.
+     *
+     * @param events the events to pre-publish, ordered by event_number
+     */
+    @Transactional(MANDATORY)
+    public void prePublish(final List<Event> events) {
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        final DataSource defaultDataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+        try {
+            final List<UUID> eventIds = events.stream()
+                    .map(Event::getId)
+                    .collect(toList());
+
+            insertPublishedEvents(events, defaultDataSource);
+            prePublishRepository.addToPublishQueueTable(eventIds, clock.now(), defaultDataSource);
+            eventsQueuedEventFirer.fire(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to pre-publish %d events from event number %s", events.size(), events.get(0).getEventNumber().orElse(null)), e);
+        }
+    }
+
+    /**
+     * Pre-publishes a batch of events as {@link #prePublish(List)} does, but without adding them
+     * to the publish_queue, for when the caller publishes the returned events itself in the same
+     * transaction.
+     *
+     * @param events the events to pre-publish, ordered by event_number
+     * @return the published events, in the same order
+     */
+    @Transactional(MANDATORY)
+    public List<PublishedEvent> prePublishWithoutQueueing(final List<Event> events) {
+
+        if (events.isEmpty()) {
+            return emptyList();
+        }
+
+        try {
+            return insertPublishedEvents(events, eventStoreDataSourceProvider.getDefaultDataSource());
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to pre-publish %d events from event number %s", events.size(), events.get(0).getEventNumber().orElse(null)), e);
+        }
+    }
+
+    private List<PublishedEvent> insertPublishedEvents(final List<Event> events, final DataSource defaultDataSource) throws SQLException {
+
+        final List<PublishedEvent> publishedEvents = new ArrayList<>(events.size());
+
+        for (final Event event : events) {
+            final long eventNumber = event.getEventNumber()
+                    .orElseThrow(() -> new PublishedEventException(format("Event with id '%s' does not have an event number", event.getId())));
+            final long previousEventNumber = previousEventNumberOf(eventNumber, defaultDataSource);
+
+            final Metadata updatedMetadata = metadataEventNumberUpdater.updateMetadataJson(
+                    eventConverter.metadataOf(event),
+                    previousEventNumber,
+                    eventNumber);
+
+            publishedEvents.add(publishedEventFactory.create(
+                    event,
+                    updatedMetadata,
+                    eventNumber,
+                    previousEventNumber));
+
+            eventNumberWatermark.advanceTo(eventNumber);
+        }
+
+        publishedEventQueries.insertPublishedEvents(publishedEvents, defaultDataSource);
+
+        return publishedEvents;
+    }
+
+    private long previousEventNumberOf(final long eventNumber, final DataSource dataSource) throws SQLException {
+
+        final Optional<Long> previousEventNumber = eventNumberWatermark.previousEventNumberOf(eventNumber);
+
+        if (previousEventNumber.isPresent()) {
+            return previousEventNumber.get();
+        }
+
+        return prePublishRepository.getPreviousEventNumber(eventNumber, dataSource);
+    }
 }
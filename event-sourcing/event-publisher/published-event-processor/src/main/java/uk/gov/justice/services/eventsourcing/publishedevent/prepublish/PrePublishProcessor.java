@@ -1,14 +1,27 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
 
 import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PRE_PUBLISHED;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PUBLISHED;
 
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publisher.jms.EventPublisher;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PrePublishQueueRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 
+import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.inject.Inject;
@@ -25,6 +38,18 @@ public class PrePublishProcessor {
     @Inject
     private EventJdbcRepository eventJdbcRepository;
 
+    @Inject
+    private EventPublisher eventPublisher;
+
+    @Inject
+    private EventConverter eventConverter;
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    @Inject
+    private UtcClock clock;
+
     @Transactional(REQUIRES_NEW)
     public boolean prePublishNextEvent() {
 
@@ -35,6 +60,7 @@ public class PrePublishProcessor {
 
             if(event.isPresent()) {
                 eventPrePublisher.prePublish(event.get());
+                pipelineMetrics.eventProcessed(PRE_PUBLISHED, event.get().getCreatedAt(), clock.now());
                 return true;
 
             } else {
@@ -44,4 +70,106 @@ public class PrePublishProcessor {
 
         return false;
     }
+
+    /**
+     * Pops up to maxNumberOfEvents events from the pre publish queue and pre-publishes them all in
+     * one transaction, loading the events with one query and writing them with jdbc batches.
+     *
+     * @param maxNumberOfEvents the most events to pre-publish
+     * @return the number of events pre-published, 0 if the queue is empty
+     */
+    @Transactional(REQUIRES_NEW)
+    public int prePublishNextEvents(final int maxNumberOfEvents) {
+
+        final List<Event> events = popNextEvents(maxNumberOfEvents);
+
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        eventPrePublisher.prePublish(events);
+        recordLags(PRE_PUBLISHED, events, clock.now());
+
+        return events.size();
+    }
+
+    /**
+     * As {@link #prePublishNextEvents(int)}, but without adding the events to the publish_queue,
+     * for when they are published from the published_event table by the cursor publisher.
+     *
+     * @param maxNumberOfEvents the most events to pre-publish
+     * @return the number of events pre-published, 0 if the queue is empty
+     */
+    @Transactional(REQUIRES_NEW)
+    public int prePublishNextEventsWithoutQueueing(final int maxNumberOfEvents) {
+
+        final List<Event> events = popNextEvents(maxNumberOfEvents);
+
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        eventPrePublisher.prePublishWithoutQueueing(events);
+        recordLags(PRE_PUBLISHED, events, clock.now());
+
+        return events.size();
+    }
+
+    /**
+     * Pops up to maxNumberOfEvents events from the pre publish queue, pre-publishes them and
+     * publishes them in event_number order, all in one transaction, so that the events never go
+     * through the publish_queue. The published_event rows and the sends to the event topic are
+     * committed or rolled back together, so published_event acts as the outbox of the sends.
+     *
+     * @param maxNumberOfEvents the most events to pre-publish and publish
+     * @return the number of events published, 0 if the queue is empty
+     */
+    @Transactional(REQUIRES_NEW)
+    public int prePublishAndPublishNextEvents(final int maxNumberOfEvents) {
+
+        final List<Event> events = popNextEvents(maxNumberOfEvents);
+
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        final List<PublishedEvent> publishedEvents = eventPrePublisher.prePublishWithoutQueueing(events);
+
+        for (final PublishedEvent publishedEvent : publishedEvents) {
+            eventPublisher.publish(eventConverter.envelopeOf(publishedEvent));
+        }
+
+        final ZonedDateTime now = clock.now();
+        recordLags(PRE_PUBLISHED, publishedEvents, now);
+        recordLags(PUBLISHED, publishedEvents, now);
+
+        return publishedEvents.size();
+    }
+
+    private void recordLags(final String stageName, final List<? extends Event> events, final ZonedDateTime now) {
+        for (final Event event : events) {
+            pipelineMetrics.eventProcessed(stageName, event.getCreatedAt(), now);
+        }
+    }
+
+    private List<Event> popNextEvents(final int maxNumberOfEvents) {
+
+        final List<UUID> eventIds = prePublishQueueRepository.popNextEventIds(maxNumberOfEvents);
+
+        if (eventIds.isEmpty()) {
+            return emptyList();
+        }
+
+        final List<Event> events = eventJdbcRepository.findByIdsOrderByEventNumber(eventIds);
+
+        if (events.size() != eventIds.size()) {
+            final Set<UUID> foundEventIds = events.stream().map(Event::getId).collect(toSet());
+            final List<UUID> missingEventIds = eventIds.stream()
+                    .filter(eventId -> !foundEventIds.contains(eventId))
+                    .collect(toList());
+            throw new PublishedEventException(format("Failed to find Events with ids %s", missingEventIds));
+        }
+
+        return events;
+    }
 }
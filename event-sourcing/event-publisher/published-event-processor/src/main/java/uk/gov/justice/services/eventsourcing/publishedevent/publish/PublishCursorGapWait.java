@@ -0,0 +1,34 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publish;
+
+import static java.time.Duration.between;
+
+import java.time.ZonedDateTime;
+
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Remembers since when the cursor publisher on this node has been held up by a gap straight after
+ * the cursor, so that a gap left by a rolled back transaction is waited for only so long.
+ */
+@ApplicationScoped
+public class PublishCursorGapWait {
+
+    private long cursorHeldUp = -1L;
+    private ZonedDateTime heldUpSince;
+
+    /**
+     * @param cursor the event number of the last event published, which the next event does not follow
+     * @param now the time now
+     * @param gapWaitMilliseconds how long to wait for the gap to be filled
+     * @return true if the cursor has been held up at the same event number for at least the gap wait
+     */
+    public synchronized boolean hasWaitedLongEnough(final long cursor, final ZonedDateTime now, final long gapWaitMilliseconds) {
+
+        if (cursor != cursorHeldUp) {
+            cursorHeldUp = cursor;
+            heldUpSince = now;
+        }
+
+        return between(heldUpSince, now).toMillis() >= gapWaitMilliseconds;
+    }
+}
@@ -0,0 +1,84 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publish;
+
+import static java.lang.String.valueOf;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.NamedMetrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts of the events and batches published by one lane, and how far behind the event_log the
+ * lane was when it published them, together with how often the lane was found locked by a
+ * transaction of another node.
+ *
+ * The lag of a batch is the time from the creation of its oldest event to its publishing.
+ *
+ * Exported as 'type=PublishLaneMetrics,name=&lt;lane&gt;' in JMX.
+ */
+public class PublishLaneMetrics implements PublishLaneMetricsMXBean, NamedMetrics {
+
+    public static final String METRICS_TYPE = "PublishLaneMetrics";
+
+    private final int lane;
+
+    private final AtomicLong eventCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong lastLagMilliseconds = new AtomicLong();
+    private final AtomicLong maxLagMilliseconds = new AtomicLong();
+    private final AtomicLong lockedByAnotherNodeCount = new AtomicLong();
+
+    public PublishLaneMetrics(final int lane) {
+        this.lane = lane;
+    }
+
+    public void batchPublished(final int numberOfEvents, final long lagMilliseconds) {
+        eventCount.addAndGet(numberOfEvents);
+        batchCount.incrementAndGet();
+        lastLagMilliseconds.set(lagMilliseconds);
+        maxLagMilliseconds.accumulateAndGet(lagMilliseconds, Math::max);
+    }
+
+    public void lockedByAnotherNode() {
+        lockedByAnotherNodeCount.incrementAndGet();
+    }
+
+    @Override
+    public String getMetricsType() {
+        return METRICS_TYPE;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return valueOf(lane);
+    }
+
+    @Override
+    public int getLane() {
+        return lane;
+    }
+
+    @Override
+    public long getEventCount() {
+        return eventCount.get();
+    }
+
+    @Override
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    @Override
+    public long getLastLagMilliseconds() {
+        return lastLagMilliseconds.get();
+    }
+
+    @Override
+    public long getMaxLagMilliseconds() {
+        return maxLagMilliseconds.get();
+    }
+
+    @Override
+    public long getLockedByAnotherNodeCount() {
+        return lockedByAnotherNodeCount.get();
+    }
+}
@@ -0,0 +1,19 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publish;
+
+/**
+ * The metrics of one publish lane as read through JMX
+ */
+public interface PublishLaneMetricsMXBean {
+
+    int getLane();
+
+    long getEventCount();
+
+    long getBatchCount();
+
+    long getLastLagMilliseconds();
+
+    long getMaxLagMilliseconds();
+
+    long getLockedByAnotherNodeCount();
+}
@@ -0,0 +1,55 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publish;
+
+import static java.util.Collections.unmodifiableMap;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * The lanes the publish_queue is partitioned into by stream id when publishing in parallel.
+ *
+ * Only one worker at a time may drain a lane, as two workers claiming rows of the same lane
+ * could publish the events of a stream out of order. The busy lanes kept here only stop two
+ * workers of this node draining the same lane; across nodes each batch of a lane is published
+ * under a transaction scoped advisory lock on the lane, taken by
+ * {@link PublishedEventDeQueuerAndPublisher#deQueueAndPublishLane(int, int, int)}.
+ *
+ * The metrics of each lane are registered with the {@link PipelineMetrics} when the lane first
+ * publishes, so they are exported alongside the metrics of the pipeline.
+ */
+@ApplicationScoped
+public class PublishLanes {
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    private final Set<Integer> busyLanes = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<Integer, PublishLaneMetrics> metricsByLane = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if the lane was free and is now busy, false if another worker of this node is
+     * draining it
+     */
+    public boolean tryStart(final int lane) {
+        return busyLanes.add(lane);
+    }
+
+    public void finish(final int lane) {
+        busyLanes.remove(lane);
+    }
+
+    public PublishLaneMetrics forLane(final int lane) {
+        return pipelineMetrics.registerIfAbsent(metricsByLane, lane, PublishLaneMetrics::new);
+    }
+
+    public Map<Integer, PublishLaneMetrics> getMetricsByLane() {
+        return unmodifiableMap(metricsByLane);
+    }
+}
@@ -0,0 +1,157 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publish;
+
+import static java.lang.String.format;
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PUBLISHED;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishCursorRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventQueries;
+import uk.gov.justice.services.eventsourcing.publisher.jms.EventPublisher;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import javax.transaction.Transactional;
+
+import org.slf4j.Logger;
+
+/**
+ * Publishes events straight from the published_event table in event_number order, keeping the
+ * event number of the last event published in one row of the publish_cursor table rather than
+ * inserting and deleting a row of the publish_queue per event.
+ *
+ * An event is published only once its event number follows the cursor. Anything else is a gap,
+ * left either by a transaction still in flight or by one that rolled back and will never fill it.
+ * The previous event number is not enough to go by: it is the highest event number pre-published
+ * when the event was, so events appended concurrently with lower event numbers may yet arrive
+ * after it. A gap straight after the cursor is waited for until the gap wait runs out, and is then
+ * only skipped if none of the events in it are still in the pre_publish_queue.
+ */
+public class PublishedEventCursorPublisher {
+
+    public static final String CURSOR_NAME = "event-publisher";
+
+    @Inject
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Inject
+    private PublishCursorRepository publishCursorRepository;
+
+    @Inject
+    private PublishedEventQueries publishedEventQueries;
+
+    @Inject
+    private PublishCursorGapWait publishCursorGapWait;
+
+    @Inject
+    private EventPublisher eventPublisher;
+
+    @Inject
+    private EventConverter eventConverter;
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    @Inject
+    private UtcClock clock;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Publishes up to maxNumberOfEvents events after the cursor and advances the cursor past
+     * them, all in one transaction, so the sends and the new cursor are committed together.
+     *
+     * @param maxNumberOfEvents the most events to publish
+     * @param gapWaitMilliseconds how long to wait for a gap after the cursor to be filled
+     * @return the number of events published, 0 if there are none or the cursor is held up by a gap
+     */
+    @Transactional(REQUIRES_NEW)
+    public int publishNextEvents(final int maxNumberOfEvents, final long gapWaitMilliseconds) {
+
+        final DataSource defaultDataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+        try {
+            final long cursor = lockCursor(defaultDataSource);
+            final List<PublishedEvent> publishedEvents = publishedEventQueries.findPublishedEventsAfter(cursor, maxNumberOfEvents, defaultDataSource);
+            final List<PublishedEvent> eventsToPublish = eventsWithoutGapsAfter(cursor, publishedEvents, gapWaitMilliseconds, defaultDataSource);
+
+            if (eventsToPublish.isEmpty()) {
+                return 0;
+            }
+
+            for (final PublishedEvent publishedEvent : eventsToPublish) {
+                eventPublisher.publish(eventConverter.envelopeOf(publishedEvent));
+            }
+
+            final ZonedDateTime now = clock.now();
+            final long lastEventNumber = eventNumberOf(eventsToPublish.get(eventsToPublish.size() - 1));
+            publishCursorRepository.advanceCursor(CURSOR_NAME, lastEventNumber, now, defaultDataSource);
+
+            for (final PublishedEvent publishedEvent : eventsToPublish) {
+                pipelineMetrics.eventProcessed(PUBLISHED, publishedEvent.getCreatedAt(), now);
+            }
+
+            return eventsToPublish.size();
+
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to publish events from publish_cursor '%s'", CURSOR_NAME), e);
+        }
+    }
+
+    private long lockCursor(final DataSource dataSource) throws SQLException {
+
+        final Optional<Long> cursor = publishCursorRepository.lockCursor(CURSOR_NAME, dataSource);
+        if (cursor.isPresent()) {
+            return cursor.get();
+        }
+
+        publishCursorRepository.createCursor(CURSOR_NAME, clock.now(), dataSource);
+
+        return publishCursorRepository.lockCursor(CURSOR_NAME, dataSource)
+                .orElseThrow(() -> new PublishedEventException(format("Failed to create publish_cursor '%s'", CURSOR_NAME)));
+    }
+
+    private List<PublishedEvent> eventsWithoutGapsAfter(final long cursor, final List<PublishedEvent> publishedEvents, final long gapWaitMilliseconds, final DataSource dataSource) throws SQLException {
+
+        final List<PublishedEvent> eventsToPublish = new ArrayList<>(publishedEvents.size());
+
+        long lastEventNumber = cursor;
+        for (final PublishedEvent publishedEvent : publishedEvents) {
+            final long eventNumber = eventNumberOf(publishedEvent);
+
+            if (eventNumber != lastEventNumber + 1) {
+                if (!eventsToPublish.isEmpty() || !canSkipGap(cursor, eventNumber, gapWaitMilliseconds, dataSource)) {
+                    break;
+                }
+
+                logger.warn(format("Skipping gap in event numbers between %d and %d after waiting %d milliseconds", cursor, eventNumber, gapWaitMilliseconds));
+            }
+
+            eventsToPublish.add(publishedEvent);
+            lastEventNumber = eventNumber;
+        }
+
+        return eventsToPublish;
+    }
+
+    private boolean canSkipGap(final long cursor, final long eventNumber, final long gapWaitMilliseconds, final DataSource dataSource) throws SQLException {
+        return publishCursorGapWait.hasWaitedLongEnough(cursor, clock.now(), gapWaitMilliseconds)
+                && !publishedEventQueries.hasEventsWaitingToBePrePublishedBetween(cursor, eventNumber, dataSource);
+    }
+
+    private long eventNumberOf(final PublishedEvent publishedEvent) {
+        return publishedEvent.getEventNumber()
+                .orElseThrow(() -> new PublishedEventException(format("PublishedEvent with id '%s' does not have an event number", publishedEvent.getId())));
+    }
+}
@@ -1,16 +1,23 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.publish;
 
 import static java.lang.String.format;
+import static java.time.Duration.between;
+import static java.util.stream.Collectors.toList;
 import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PUBLISHED;
 
+import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventRepository;
 import uk.gov.justice.services.eventsourcing.publisher.jms.EventPublisher;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueueRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 
+import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -35,6 +42,15 @@ public class PublishedEventDeQueuerAndPublisher {
     @Inject
     private PublishedEventRepository publishedEventRepository;
 
+    @Inject
+    private PublishLanes publishLanes;
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    @Inject
+    private UtcClock clock;
+
     /**
      * Method that gets the next event to process from the EventDeQueuer,
      * converts the event to a JsonEnvelope type with the EventConverter
@@ -52,6 +68,7 @@ public class PublishedEventDeQueuerAndPublisher {
             if(publishedEvent.isPresent()) {
                 final JsonEnvelope jsonEnvelope = eventConverter.envelopeOf(publishedEvent.get());
                 eventPublisher.publish(jsonEnvelope);
+                pipelineMetrics.eventProcessed(PUBLISHED, publishedEvent.get().getCreatedAt(), clock.now());
 
                 return true;
             } else {
@@ -61,4 +78,86 @@ public class PublishedEventDeQueuerAndPublisher {
 
         return false;
     }
+
+    /**
+     * Claims up to maxNumberOfEvents rows of the publish queue together with their published
+     * events in one query, publishes the events in event_number order, so in order within each
+     * stream, then deletes the claimed rows in one statement. All of it happens in the one
+     * transaction, so the sends and the deletes are committed together.
+     *
+     * @param maxNumberOfEvents the most events to publish
+     * @return the number of events published, 0 if the queue is empty
+     */
+    @Transactional(REQUIRES_NEW)
+    public int deQueueAndPublish(final int maxNumberOfEvents) {
+
+        final List<PublishedEvent> publishedEvents = publishedEventRepository.claimQueuedPublishedEvents(maxNumberOfEvents);
+
+        if (publishedEvents.isEmpty()) {
+            return 0;
+        }
+
+        for (final PublishedEvent publishedEvent : publishedEvents) {
+            eventPublisher.publish(eventConverter.envelopeOf(publishedEvent));
+        }
+
+        publishQueuerepository.deleteFromQueue(publishedEvents.stream()
+                .map(PublishedEvent::getId)
+                .collect(toList()));
+
+        recordLags(publishedEvents, clock.now());
+
+        return publishedEvents.size();
+    }
+
+    /**
+     * As {@link #deQueueAndPublish(int)}, but only claims the rows of the publish queue whose
+     * stream id hashes into the given lane, so that lanes can be drained in parallel while the
+     * events of each stream are still published in order. The lag of each batch is recorded in
+     * the metrics of the lane.
+     *
+     * The rows are only claimed once an advisory lock on the lane is taken for the transaction,
+     * so that no transaction of another node publishes the lane at the same time. If the lock is
+     * held elsewhere nothing is published and the lane is left to the node holding it.
+     *
+     * @param maxNumberOfEvents the most events to publish
+     * @param lane the lane to publish, from 0 to laneCount - 1
+     * @param laneCount the number of lanes the streams are hashed into
+     * @return the number of events published, 0 if the lane is empty or locked by another node
+     */
+    @Transactional(REQUIRES_NEW)
+    public int deQueueAndPublishLane(final int maxNumberOfEvents, final int lane, final int laneCount) {
+
+        if (!publishedEventRepository.tryLockLane(lane, laneCount)) {
+            publishLanes.forLane(lane).lockedByAnotherNode();
+            return 0;
+        }
+
+        final List<PublishedEvent> publishedEvents = publishedEventRepository.claimQueuedPublishedEventsInLane(maxNumberOfEvents, lane, laneCount);
+
+        if (publishedEvents.isEmpty()) {
+            return 0;
+        }
+
+        for (final PublishedEvent publishedEvent : publishedEvents) {
+            eventPublisher.publish(eventConverter.envelopeOf(publishedEvent));
+        }
+
+        publishQueuerepository.deleteFromQueue(publishedEvents.stream()
+                .map(PublishedEvent::getId)
+                .collect(toList()));
+
+        final ZonedDateTime now = clock.now();
+        final ZonedDateTime oldestCreatedAt = publishedEvents.get(0).getCreatedAt();
+        publishLanes.forLane(lane).batchPublished(publishedEvents.size(), between(oldestCreatedAt, now).toMillis());
+        recordLags(publishedEvents, now);
+
+        return publishedEvents.size();
+    }
+
+    private void recordLags(final List<PublishedEvent> publishedEvents, final ZonedDateTime now) {
+        for (final PublishedEvent publishedEvent : publishedEvents) {
+            pipelineMetrics.eventProcessed(PUBLISHED, publishedEvent.getCreatedAt(), now);
+        }
+    }
 }
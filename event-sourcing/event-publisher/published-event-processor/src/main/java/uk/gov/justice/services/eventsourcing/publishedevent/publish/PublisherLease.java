@@ -0,0 +1,59 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publish;
+
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublisherLeaseRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.SQLException;
+
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+/**
+ * The lease on publishing held by the one node elected to pre-publish and publish events, each
+ * change to it committed in its own transaction so that other nodes see it straight away.
+ */
+public class PublisherLease {
+
+    public static final String LEASE_NAME = "event-publisher";
+
+    @Inject
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Inject
+    private PublisherLeaseRepository publisherLeaseRepository;
+
+    @Transactional(REQUIRES_NEW)
+    public boolean tryAcquireOrRenew(final String holder, final long leaseMilliseconds) {
+        try {
+            return publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, holder, leaseMilliseconds, eventStoreDataSourceProvider.getDefaultDataSource());
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to acquire or renew publisher_lease '%s' for '%s'", LEASE_NAME, holder), e);
+        }
+    }
+
+    @Transactional(REQUIRES_NEW)
+    public void release(final String holder) {
+        try {
+            publisherLeaseRepository.release(LEASE_NAME, holder, eventStoreDataSourceProvider.getDefaultDataSource());
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to release publisher_lease '%s' for '%s'", LEASE_NAME, holder), e);
+        }
+    }
+
+    /**
+     * @return the milliseconds left until the current lease expires, 0 if it has expired or
+     * nobody holds it
+     */
+    public long millisecondsLeft() {
+        try {
+            return max(publisherLeaseRepository.findMillisecondsLeft(LEASE_NAME, eventStoreDataSourceProvider.getDefaultDataSource()).orElse(0L), 0L);
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to read publisher_lease '%s'", LEASE_NAME), e);
+        }
+    }
+}
@@ -1,18 +1,19 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
 
-import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+import static java.lang.Math.toIntExact;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint;
 
-import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class BatchProcessingDetailsCalculator {
 
-    public BatchProcessDetails createFirstBatchProcessDetails() {
+    public BatchProcessDetails createFirstBatchProcessDetails(final RebuildCheckpoint rebuildCheckpoint) {
 
         return new BatchProcessDetails(
-                new AtomicLong(0),
-                new AtomicLong(0),
-                0,
+                new AtomicLong(rebuildCheckpoint.getPreviousEventNumber()),
+                new AtomicLong(rebuildCheckpoint.getLastEventNumber()),
+                toIntExact(rebuildCheckpoint.getInsertedCount()),
                 0
         );
     }
@@ -21,9 +22,9 @@ public class BatchProcessingDetailsCalculator {
             final BatchProcessDetails currentBatchProcessDetails,
             final AtomicLong currentEventNumber,
             final AtomicLong previousEventNumber,
-            final List<PublishedEvent> publishedEvents) {
+            final InsertedPublishedEvents insertedPublishedEvents) {
 
-        final int processedInBatchCount = publishedEvents.size();
+        final int processedInBatchCount = insertedPublishedEvents.getCount();
         return new BatchProcessDetails(
                 previousEventNumber,
                 new AtomicLong(currentEventNumber.get()),
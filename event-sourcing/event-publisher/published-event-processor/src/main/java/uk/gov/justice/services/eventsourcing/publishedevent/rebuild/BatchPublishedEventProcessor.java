@@ -2,12 +2,14 @@ package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
 
 import static java.lang.String.format;
 import static javax.transaction.Transactional.TxType.REQUIRED;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
 
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpointRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
-import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
 
-import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
@@ -20,8 +22,6 @@ import org.slf4j.Logger;
 
 public class BatchPublishedEventProcessor {
 
-    private static final int PAGE_SIZE = 1_000;
-
     @Inject
     private EventJdbcRepository eventJdbcRepository;
 
@@ -31,9 +31,22 @@ public class BatchPublishedEventProcessor {
     @Inject
     private PublishedEventsRebuilder publishedEventsRebuilder;
 
+    @Inject
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
+    @Inject
+    private RebuildCheckpointRepository rebuildCheckpointRepository;
+
+    @Inject
+    private UtcClock clock;
+
     @Inject
     private Logger logger;
 
+    /**
+     * Inserts the PublishedEvents of the next page of events and moves the rebuild checkpoint on
+     * to the last event of the page, in the same transaction
+     */
     @Transactional(REQUIRED)
     public BatchProcessDetails processNextBatchOfEvents(
             final BatchProcessDetails currentBatchProcessDetails,
@@ -42,9 +55,9 @@ public class BatchPublishedEventProcessor {
         final AtomicLong currentEventNumber = currentBatchProcessDetails.getCurrentEventNumber();
         final AtomicLong previousEventNumber = currentBatchProcessDetails.getPreviousEventNumber();
 
-        try (final Stream<Event> eventStream = eventJdbcRepository.findAllFromEventNumberUptoPageSize(currentEventNumber.get(), PAGE_SIZE);) {
+        try (final Stream<Event> eventStream = eventJdbcRepository.findAllFromEventNumberUptoPageSize(currentEventNumber.get(), publishedEventRebuildConfig.getPageSize());) {
 
-            final List<PublishedEvent> publishedEvents = publishedEventsRebuilder.rebuild(
+            final InsertedPublishedEvents insertedPublishedEvents = publishedEventsRebuilder.rebuild(
                     eventStream,
                     previousEventNumber, currentEventNumber,
                     activeStreamIds);
@@ -53,7 +66,13 @@ public class BatchPublishedEventProcessor {
                     currentBatchProcessDetails,
                     currentEventNumber,
                     previousEventNumber,
-                    publishedEvents);
+                    insertedPublishedEvents);
+
+            rebuildCheckpointRepository.saveCheckpoint(new RebuildCheckpoint(
+                    CREATING_PUBLISHED_EVENTS,
+                    currentEventNumber.get(),
+                    previousEventNumber.get(),
+                    nextBatchProcessDetails.getProcessCount()), clock.now());
 
             if (nextBatchProcessDetails.getProcessedInBatchCount() > 0) {
                 logger.info(format("Inserted %d PublishedEvents", nextBatchProcessDetails.getProcessCount()));
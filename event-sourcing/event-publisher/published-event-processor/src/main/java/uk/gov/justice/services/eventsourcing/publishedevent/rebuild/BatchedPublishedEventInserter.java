@@ -14,7 +14,7 @@ import java.sql.SQLException;
 
 import javax.sql.DataSource;
 
-public class BatchedPublishedEventInserter implements AutoCloseable {
+public class BatchedPublishedEventInserter implements PublishedEventInserter {
 
     private final Closer closer;
 
@@ -34,6 +34,7 @@ public class BatchedPublishedEventInserter implements AutoCloseable {
         }
     }
 
+    @Override
     public PublishedEvent addToBatch(final PublishedEvent publishedEvent) {
 
         try {
@@ -56,6 +57,7 @@ public class BatchedPublishedEventInserter implements AutoCloseable {
         }
     }
 
+    @Override
     public void insertBatch() {
 
         try {
@@ -0,0 +1,119 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.MissingEventNumberException;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.jdbc.persistence.DataAccessException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Inserts PublishedEvents using the postgres COPY protocol: each PublishedEvent is written to the
+ * copy stream as a row of csv as soon as it is added, and the rows are committed to the
+ * published_event table when the copy is ended by {@link #insertBatch()}
+ */
+public class CopyPublishedEventInserter implements PublishedEventInserter {
+
+    static final String COPY_INTO_PUBLISHED_EVENT_SQL =
+            "COPY published_event (id, stream_id, position_in_stream, name, payload, metadata, date_created, event_number, previous_event_number) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final char END_OF_ROW = '\n';
+
+    private final Closer closer;
+    private final StringBuilder row = new StringBuilder();
+
+    private Connection connection;
+    private CopyIn copyIn;
+
+    public CopyPublishedEventInserter(final Closer closer) {
+        this.closer = closer;
+    }
+
+    public void prepareForInserts(final DataSource eventStoreDataSource) {
+        try {
+            connection = eventStoreDataSource.getConnection();
+            copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_INTO_PUBLISHED_EVENT_SQL);
+        } catch (final SQLException e) {
+            throw new DataAccessException("Failed to start copy of PublishedEvents into published_event", e);
+        }
+    }
+
+    @Override
+    public PublishedEvent addToBatch(final PublishedEvent publishedEvent) {
+
+        final Long eventNumber = publishedEvent.getEventNumber()
+                .orElseThrow(() -> new MissingEventNumberException(format("Event with id '%s' does not have an event number", publishedEvent.getId())));
+
+        row.setLength(0);
+        row.append(publishedEvent.getId()).append(SEPARATOR)
+                .append(publishedEvent.getStreamId()).append(SEPARATOR)
+                .append(publishedEvent.getPositionInStream()).append(SEPARATOR);
+        appendQuoted(publishedEvent.getName());
+        appendQuoted(publishedEvent.getPayload());
+        appendQuoted(publishedEvent.getMetadata());
+        row.append(ISO_OFFSET_DATE_TIME.format(publishedEvent.getCreatedAt())).append(SEPARATOR)
+                .append(eventNumber).append(SEPARATOR)
+                .append(publishedEvent.getPreviousEventNumber()).append(END_OF_ROW);
+
+        final byte[] bytes = row.toString().getBytes(UTF_8);
+
+        try {
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            return publishedEvent;
+        } catch (final SQLException e) {
+            throw new DataAccessException(format("Failed to copy PublishedEvent with id '%s' into published_event", publishedEvent.getId()), e);
+        }
+    }
+
+    @Override
+    public void insertBatch() {
+
+        try {
+            copyIn.endCopy();
+        } catch (final SQLException e) {
+            throw new DataAccessException("Failed to insert copy of PublishedEvents into published_event", e);
+        }
+    }
+
+    /**
+     * Cancels the copy if it was not ended, so that no PublishedEvents are inserted, and closes
+     * the connection
+     */
+    @Override
+    public void close() {
+        try {
+            if (copyIn != null && copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        } catch (final SQLException ignored) {
+        } finally {
+            closer.closeQuietly(connection);
+        }
+    }
+
+    private void appendQuoted(final String value) {
+
+        row.append(QUOTE);
+        for (int index = 0; index < value.length(); index++) {
+            final char character = value.charAt(index);
+            if (character == QUOTE) {
+                row.append(QUOTE);
+            }
+            row.append(character);
+        }
+        row.append(QUOTE).append(SEPARATOR);
+    }
+}
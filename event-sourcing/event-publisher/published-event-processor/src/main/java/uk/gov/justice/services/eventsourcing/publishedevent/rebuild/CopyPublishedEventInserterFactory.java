@@ -0,0 +1,24 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+
+import javax.inject.Inject;
+
+public class CopyPublishedEventInserterFactory {
+
+    @Inject
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Inject
+    private Closer closer;
+
+    public CopyPublishedEventInserter createInitialised() {
+
+        final CopyPublishedEventInserter copyPublishedEventInserter = new CopyPublishedEventInserter(closer);
+
+        copyPublishedEventInserter.prepareForInserts(eventStoreDataSourceProvider.getDefaultDataSource());
+
+        return copyPublishedEventInserter;
+    }
+}
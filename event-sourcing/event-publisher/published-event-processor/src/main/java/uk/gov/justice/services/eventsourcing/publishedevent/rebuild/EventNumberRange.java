@@ -0,0 +1,56 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import java.util.Objects;
+
+/**
+ * A range of event numbers of the event_log, from an event number (exclusive) to a last event
+ * number (inclusive)
+ */
+public class EventNumberRange {
+
+    private final int rangeNumber;
+    private final long fromEventNumber;
+    private final long toEventNumber;
+
+    public EventNumberRange(final int rangeNumber, final long fromEventNumber, final long toEventNumber) {
+        this.rangeNumber = rangeNumber;
+        this.fromEventNumber = fromEventNumber;
+        this.toEventNumber = toEventNumber;
+    }
+
+    public int getRangeNumber() {
+        return rangeNumber;
+    }
+
+    public long getFromEventNumber() {
+        return fromEventNumber;
+    }
+
+    public long getToEventNumber() {
+        return toEventNumber;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EventNumberRange)) return false;
+        final EventNumberRange that = (EventNumberRange) o;
+        return rangeNumber == that.rangeNumber &&
+                fromEventNumber == that.fromEventNumber &&
+                toEventNumber == that.toEventNumber;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rangeNumber, fromEventNumber, toEventNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "EventNumberRange{" +
+                "rangeNumber=" + rangeNumber +
+                ", fromEventNumber=" + fromEventNumber +
+                ", toEventNumber=" + toEventNumber +
+                '}';
+    }
+}
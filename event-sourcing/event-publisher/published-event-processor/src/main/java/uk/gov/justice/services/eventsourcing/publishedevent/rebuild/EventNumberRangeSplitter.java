@@ -0,0 +1,34 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EventNumberRangeSplitter {
+
+    /**
+     * Splits the event numbers from 1 to the maximum event number into ranges of (almost) equal
+     * width. Fewer ranges than asked for are returned if there are fewer event numbers than ranges.
+     *
+     * @param maximumEventNumber the highest event number of the event_log
+     * @param rangeCount the number of ranges to split the event numbers into
+     * @return the ranges, in order of event number
+     */
+    public List<EventNumberRange> split(final long maximumEventNumber, final int rangeCount) {
+
+        final List<EventNumberRange> eventNumberRanges = new ArrayList<>();
+        if (maximumEventNumber <= 0) {
+            return eventNumberRanges;
+        }
+
+        final long rangeWidth = (maximumEventNumber + rangeCount - 1) / rangeCount;
+
+        long fromEventNumber = 0;
+        while (fromEventNumber < maximumEventNumber) {
+            final long toEventNumber = Math.min(fromEventNumber + rangeWidth, maximumEventNumber);
+            eventNumberRanges.add(new EventNumberRange(eventNumberRanges.size() + 1, fromEventNumber, toEventNumber));
+            fromEventNumber = toEventNumber;
+        }
+
+        return eventNumberRanges;
+    }
+}
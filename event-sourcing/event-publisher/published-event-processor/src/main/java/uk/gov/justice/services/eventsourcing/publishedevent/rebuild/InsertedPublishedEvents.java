@@ -0,0 +1,35 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.util.Optional.ofNullable;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The count of the PublishedEvents inserted from a page of events, and the id of the first of
+ * them, kept in place of the PublishedEvents themselves so that a page need not be held in memory
+ */
+public class InsertedPublishedEvents {
+
+    private int count = 0;
+    private UUID firstPublishedEventId;
+
+    public void inserted(final PublishedEvent publishedEvent) {
+
+        if (firstPublishedEventId == null) {
+            firstPublishedEventId = publishedEvent.getId();
+        }
+
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Optional<UUID> getFirstPublishedEventId() {
+        return ofNullable(firstPublishedEventId);
+    }
+}
@@ -0,0 +1,185 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.lang.String.format;
+import static java.lang.Thread.currentThread;
+import static java.util.stream.Collectors.toList;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint.startOf;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RangeRebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressTracker;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+/**
+ * Creates the PublishedEvents from the event_log by splitting the event numbers into ranges and
+ * rebuilding each range on its own thread, and so on its own connection.
+ *
+ * Each range links its PublishedEvents to each other as it goes; once every range is rebuilt the
+ * first PublishedEvent of each range is linked to the last PublishedEvent of the range before.
+ *
+ * The ranges are saved to the published_event_rebuild_range_checkpoint table before any is
+ * rebuilt, and the checkpoint of each range is moved on with each page of events inserted, so
+ * that a rebuild that does not finish can carry on each range after the last event it read. The
+ * progress reported is of all the ranges together: the number of event numbers read across the
+ * ranges and the number of PublishedEvents inserted.
+ */
+public class ParallelPublishedEventUpdater {
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    @Inject
+    private EventJdbcRepository eventJdbcRepository;
+
+    @Inject
+    private EventNumberRangeSplitter eventNumberRangeSplitter;
+
+    @Inject
+    private PublishedEventRangeRebuilder publishedEventRangeRebuilder;
+
+    @Inject
+    private RangeBoundaryLinker rangeBoundaryLinker;
+
+    @Inject
+    private RangeRebuildCheckpointRepository rangeRebuildCheckpointRepository;
+
+    @Inject
+    private RebuildCheckpointRepository rebuildCheckpointRepository;
+
+    @Inject
+    private UtcClock clock;
+
+    @Inject
+    private Logger logger;
+
+    public List<RangeRebuildProgress> createPublishedEvents(
+            final Set<UUID> activeStreamIds,
+            final int rangeCount,
+            final RebuildProgressTracker rebuildProgressTracker) {
+
+        final long maximumEventNumber = eventJdbcRepository.getMaximumEventNumber();
+
+        final List<RangeRebuildProgress> rangeRebuildProgresses = eventNumberRangeSplitter.split(maximumEventNumber, rangeCount).stream()
+                .map(RangeRebuildProgress::new)
+                .collect(toList());
+
+        for (final RangeRebuildProgress rangeRebuildProgress : rangeRebuildProgresses) {
+            rangeRebuildCheckpointRepository.saveRangeCheckpoint(rangeRebuildProgress, clock.now());
+        }
+
+        rebuildCheckpointRepository.saveCheckpoint(startOf(CREATING_PUBLISHED_EVENTS), clock.now());
+
+        logger.info(format("Creating PublishedEvents from %d ranges of event numbers in parallel..", rangeRebuildProgresses.size()));
+
+        return rebuildRanges(rangeRebuildProgresses, activeStreamIds, rebuildProgressTracker);
+    }
+
+    /**
+     * Carries on each range of a parallel rebuild that did not finish after the last event it
+     * read, as saved to its checkpoint
+     *
+     * @param rangeRebuildProgresses the progress of each range as last saved, in order of event
+     *                               number
+     */
+    public List<RangeRebuildProgress> resumeCreatingPublishedEvents(
+            final Set<UUID> activeStreamIds,
+            final List<RangeRebuildProgress> rangeRebuildProgresses,
+            final RebuildProgressTracker rebuildProgressTracker) {
+
+        final long maximumEventNumber = rangeRebuildProgresses.get(rangeRebuildProgresses.size() - 1)
+                .getEventNumberRange()
+                .getToEventNumber();
+
+        rebuildProgressTracker.phaseStarted(
+                CREATING_PUBLISHED_EVENTS,
+                readCountOf(rangeRebuildProgresses),
+                maximumEventNumber,
+                insertedCountOf(rangeRebuildProgresses));
+
+        logger.info(format("Resuming creation of PublishedEvents from %d ranges of event numbers in parallel..", rangeRebuildProgresses.size()));
+
+        return rebuildRanges(rangeRebuildProgresses, activeStreamIds, rebuildProgressTracker);
+    }
+
+    private List<RangeRebuildProgress> rebuildRanges(
+            final List<RangeRebuildProgress> rangeRebuildProgresses,
+            final Set<UUID> activeStreamIds,
+            final RebuildProgressTracker rebuildProgressTracker) {
+
+        final int numberOfRanges = rangeRebuildProgresses.size();
+        final Runnable progressReporter = () -> rebuildProgressTracker.eventsProcessed(
+                readCountOf(rangeRebuildProgresses),
+                insertedCountOf(rangeRebuildProgresses));
+
+        final List<Future<?>> rangeRebuilds = rangeRebuildProgresses.stream()
+                .map(rangeRebuildProgress -> managedExecutorService.submit(() -> publishedEventRangeRebuilder.rebuildRange(
+                        rangeRebuildProgress,
+                        numberOfRanges,
+                        activeStreamIds,
+                        progressReporter)))
+                .collect(toList());
+
+        awaitAll(rangeRebuilds);
+
+        final int linkedCount = rangeBoundaryLinker.linkRanges(rangeRebuildProgresses);
+
+        logger.info(format("Inserted %d PublishedEvents in total from %d ranges, linking %d range boundaries",
+                insertedCountOf(rangeRebuildProgresses),
+                numberOfRanges,
+                linkedCount));
+
+        return rangeRebuildProgresses;
+    }
+
+    private long readCountOf(final List<RangeRebuildProgress> rangeRebuildProgresses) {
+        return rangeRebuildProgresses.stream()
+                .mapToLong(RangeRebuildProgress::getReadCount)
+                .sum();
+    }
+
+    private long insertedCountOf(final List<RangeRebuildProgress> rangeRebuildProgresses) {
+        return rangeRebuildProgresses.stream()
+                .mapToLong(RangeRebuildProgress::getInsertedCount)
+                .sum();
+    }
+
+    /**
+     * Waits for every range to finish, even once one has failed, so that no range is still
+     * inserting PublishedEvents when the rebuild fails
+     */
+    private void awaitAll(final List<Future<?>> rangeRebuilds) {
+
+        RebuildException rebuildException = null;
+
+        for (final Future<?> rangeRebuild : rangeRebuilds) {
+            try {
+                rangeRebuild.get();
+            } catch (final InterruptedException e) {
+                currentThread().interrupt();
+                throw new RebuildException("Interrupted while waiting for ranges of PublishedEvents to be created", e);
+            } catch (final ExecutionException e) {
+                if (rebuildException == null) {
+                    rebuildException = new RebuildException("Failed to create PublishedEvents of a range of event numbers", e.getCause());
+                }
+            }
+        }
+
+        if (rebuildException != null) {
+            throw rebuildException;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+
+/**
+ * Inserts a page of rebuilt PublishedEvents into the published_event table
+ */
+public interface PublishedEventInserter extends AutoCloseable {
+
+    PublishedEvent addToBatch(final PublishedEvent publishedEvent);
+
+    void insertBatch();
+
+    @Override
+    void close();
+}
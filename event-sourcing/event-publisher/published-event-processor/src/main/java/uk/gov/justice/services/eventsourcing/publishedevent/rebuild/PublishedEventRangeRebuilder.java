@@ -0,0 +1,62 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.lang.String.format;
+
+import java.util.Set;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+public class PublishedEventRangeRebuilder {
+
+    @Inject
+    private RangeBatchPublishedEventProcessor rangeBatchPublishedEventProcessor;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Inserts the PublishedEvents of one range of event numbers, a page of events at a time with
+     * each page in its own transaction, carrying on after the last event the range has read.
+     *
+     * @param progressReporter run after each page, to report the progress of all the ranges
+     */
+    public void rebuildRange(
+            final RangeRebuildProgress rangeRebuildProgress,
+            final int rangeCount,
+            final Set<UUID> activeStreamIds,
+            final Runnable progressReporter) {
+
+        final EventNumberRange eventNumberRange = rangeRebuildProgress.getEventNumberRange();
+        final int rangeNumber = eventNumberRange.getRangeNumber();
+        final long toEventNumber = eventNumberRange.getToEventNumber();
+
+        logger.info(format("Creating PublishedEvents of range %d of %d, from event number %d to %d..",
+                rangeNumber,
+                rangeCount,
+                rangeRebuildProgress.getCurrentEventNumber().get() + 1,
+                toEventNumber));
+
+        while (rangeRebuildProgress.getCurrentEventNumber().get() < toEventNumber &&
+                rangeBatchPublishedEventProcessor.processNextBatchOfEvents(rangeRebuildProgress, activeStreamIds)) {
+
+            logger.info(format("Range %d of %d: inserted %d PublishedEvents, up to event number %d of %d",
+                    rangeNumber,
+                    rangeCount,
+                    rangeRebuildProgress.getInsertedCount(),
+                    rangeRebuildProgress.getCurrentEventNumber().get(),
+                    toEventNumber));
+
+            progressReporter.run();
+        }
+
+        rangeRebuildProgress.completed();
+
+        logger.info(format("Range %d of %d complete: inserted %d PublishedEvents",
+                rangeNumber,
+                rangeCount,
+                rangeRebuildProgress.getInsertedCount()));
+    }
+}
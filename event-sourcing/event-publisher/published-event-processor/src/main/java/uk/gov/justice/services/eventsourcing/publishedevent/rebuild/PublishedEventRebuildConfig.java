@@ -0,0 +1,76 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
+
+import uk.gov.justice.services.common.configuration.GlobalValue;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+@Singleton
+public class PublishedEventRebuildConfig {
+
+    @Inject
+    @GlobalValue(key = "rebuild.published.event.range.count", defaultValue = "1")
+    private String rangeCount;
+
+    @Inject
+    @GlobalValue(key = "rebuild.published.event.page.size", defaultValue = "1000")
+    private String pageSize;
+
+    @Inject
+    @GlobalValue(key = "rebuild.published.event.copy.enabled", defaultValue = "false")
+    private String copyEnabled;
+
+    @Inject
+    @GlobalValue(key = "rebuild.published.event.progress.interval.seconds", defaultValue = "30")
+    private String progressReportingIntervalSeconds;
+
+    @Inject
+    @GlobalValue(key = "rebuild.event.number.renumber.chunked.enabled", defaultValue = "false")
+    private String chunkedRenumberEnabled;
+
+    @Inject
+    @GlobalValue(key = "rebuild.event.number.renumber.chunk.size", defaultValue = "50000")
+    private String renumberChunkSize;
+
+    /**
+     * @return the number of ranges of event_number to rebuild published_event from in parallel.
+     * 1 rebuilds published_event from the whole of event_log in a single thread
+     */
+    public int getRangeCount() {
+        return parseInt(rangeCount);
+    }
+
+    public int getPageSize() {
+        return parseInt(pageSize);
+    }
+
+    /**
+     * @return true if published_event is loaded using the postgres COPY protocol rather than by
+     * batches of inserts
+     */
+    public boolean isCopyEnabled() {
+        return parseBoolean(copyEnabled);
+    }
+
+    /**
+     * @return the least number of seconds between reports of the progress of creating PublishedEvents
+     */
+    public int getProgressReportingIntervalSeconds() {
+        return parseInt(progressReportingIntervalSeconds);
+    }
+
+    /**
+     * @return true if event_log is renumbered in chunks by the database, resuming from the last
+     * chunk renumbered, rather than by reading every event id first
+     */
+    public boolean isChunkedRenumberEnabled() {
+        return parseBoolean(chunkedRenumberEnabled);
+    }
+
+    public int getRenumberChunkSize() {
+        return parseInt(renumberChunkSize);
+    }
+}
@@ -1,13 +1,48 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
 
+import static java.lang.String.format;
 import static javax.transaction.Transactional.TxType.NOT_SUPPORTED;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint.startOf;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.DELETING_PUBLISHED_EVENTS;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.RENUMBERING_EVENTS;
 
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishCursorRepository;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventTableCleaner;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RangeRebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressListener;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressTracker;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressTrackerFactory;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.EventNumberRenumberer;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.SQLException;
+import java.util.Optional;
 
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 
+import org.slf4j.Logger;
+
+/**
+ * Rebuilds published_event by renumbering the event_log, deleting all PublishedEvents and creating
+ * them again from the event_log.
+ *
+ * The phase the rebuild has reached is saved to the published_event_rebuild_checkpoint table as
+ * each phase starts, and while creating PublishedEvents the checkpoint is moved on with each page
+ * of events inserted, or the checkpoint of each range with each page of the range if the ranges
+ * are rebuilt in parallel, so that a rebuild that does not finish can be resumed. The checkpoints
+ * are deleted once the rebuild is complete. Any range checkpoints left by an earlier rebuild are
+ * deleted along with the PublishedEvents.
+ *
+ * As the event_log is renumbered from 1, the publish_cursor is moved to the last rebuilt
+ * PublishedEvent before the checkpoint is deleted, so that publishing from the cursor carries on
+ * with the events appended after the rebuild.
+ */
 public class PublishedEventRebuilder {
 
     @Inject
@@ -19,11 +54,97 @@ public class PublishedEventRebuilder {
     @Inject
     private PublishedEventUpdater publishedEventUpdater;
 
+    @Inject
+    private RebuildCheckpointRepository rebuildCheckpointRepository;
+
+    @Inject
+    private RangeRebuildCheckpointRepository rangeRebuildCheckpointRepository;
+
+    @Inject
+    private PublishCursorRepository publishCursorRepository;
+
+    @Inject
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Inject
+    private RebuildProgressTrackerFactory rebuildProgressTrackerFactory;
+
+    @Inject
+    private UtcClock clock;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Rebuilds from the start, ignoring any checkpoint left by a rebuild or renumbering that did
+     * not finish
+     */
+    @Transactional(NOT_SUPPORTED)
+    public void rebuild(final RebuildProgressListener rebuildProgressListener) {
+        rebuildFrom(startOf(RENUMBERING_EVENTS), false, rebuildProgressTrackerFactory.create(rebuildProgressListener));
+    }
+
+    /**
+     * Carries on a rebuild that did not finish from the checkpoint it saved, or rebuilds from the
+     * start if there is no checkpoint
+     */
     @Transactional(NOT_SUPPORTED)
-    public void rebuild() {
+    public void resumeRebuild(final RebuildProgressListener rebuildProgressListener) {
+
+        final RebuildProgressTracker rebuildProgressTracker = rebuildProgressTrackerFactory.create(rebuildProgressListener);
+        final Optional<RebuildCheckpoint> rebuildCheckpoint = rebuildCheckpointRepository.findCheckpoint();
+
+        if (rebuildCheckpoint.isPresent()) {
+            logger.info(format("Resuming rebuild from phase %s after event number %d",
+                    rebuildCheckpoint.get().getPhase(),
+                    rebuildCheckpoint.get().getLastEventNumber()));
+            rebuildFrom(rebuildCheckpoint.get(), true, rebuildProgressTracker);
+        } else {
+            logger.info("No rebuild checkpoint found, rebuilding from the start");
+            rebuildFrom(startOf(RENUMBERING_EVENTS), false, rebuildProgressTracker);
+        }
+    }
+
+    /**
+     * @param resuming true if carrying on from a saved checkpoint, in which case a renumbering
+     * that did not finish is carried on from its own checkpoint rather than started again
+     */
+    private void rebuildFrom(final RebuildCheckpoint rebuildCheckpoint, final boolean resuming, final RebuildProgressTracker rebuildProgressTracker) {
+
+        if (rebuildCheckpoint.getPhase() == RENUMBERING_EVENTS) {
+            startPhase(RENUMBERING_EVENTS, rebuildProgressTracker);
+            if (resuming) {
+                eventNumberRenumberer.resumeRenumberingEventLogEventNumber();
+            } else {
+                eventNumberRenumberer.renumberEventLogEventNumber();
+            }
+        }
+
+        if (rebuildCheckpoint.getPhase() == CREATING_PUBLISHED_EVENTS) {
+            publishedEventUpdater.createPublishedEvents(rebuildCheckpoint, rebuildProgressTracker);
+        } else {
+            startPhase(DELETING_PUBLISHED_EVENTS, rebuildProgressTracker);
+            rangeRebuildCheckpointRepository.deleteRangeCheckpoints();
+            publishedEventTableCleaner.deleteAll();
+            publishedEventUpdater.createPublishedEvents(startOf(CREATING_PUBLISHED_EVENTS), rebuildProgressTracker);
+        }
+
+        resetPublishCursors();
+
+        rebuildCheckpointRepository.deleteCheckpoint();
+        rangeRebuildCheckpointRepository.deleteRangeCheckpoints();
+    }
+
+    private void resetPublishCursors() {
+        try {
+            publishCursorRepository.resetCursors(clock.now(), eventStoreDataSourceProvider.getDefaultDataSource());
+        } catch (final SQLException e) {
+            throw new RebuildException("Failed to move publish_cursor to the last event number of the rebuilt published_event table", e);
+        }
+    }
 
-        eventNumberRenumberer.renumberEventLogEventNumber();
-        publishedEventTableCleaner.deleteAll();
-        publishedEventUpdater.createPublishedEvents();
+    private void startPhase(final RebuildPhase phase, final RebuildProgressTracker rebuildProgressTracker) {
+        rebuildCheckpointRepository.saveCheckpoint(startOf(phase), clock.now());
+        rebuildProgressTracker.phaseStarted(phase);
     }
 }
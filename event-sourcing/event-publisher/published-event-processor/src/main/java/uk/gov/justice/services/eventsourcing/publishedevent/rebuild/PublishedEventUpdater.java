@@ -2,7 +2,14 @@ package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
 
 import static java.lang.String.format;
 import static javax.transaction.Transactional.TxType.NOT_SUPPORTED;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
 
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RangeRebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressTracker;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
+
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -25,23 +32,65 @@ public class PublishedEventUpdater {
     @Inject
     private ProcessCompleteDecider processCompleteDecider;
 
+    @Inject
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
+    @Inject
+    private ParallelPublishedEventUpdater parallelPublishedEventUpdater;
+
+    @Inject
+    private RangeRebuildCheckpointRepository rangeRebuildCheckpointRepository;
+
+    @Inject
+    private EventJdbcRepository eventJdbcRepository;
+
     @Inject
     private Logger logger;
 
+    /**
+     * Creates the PublishedEvents of the events after the last event number of the checkpoint.
+     *
+     * If ranges of event numbers were being rebuilt in parallel when the rebuild stopped, each
+     * range is carried on from its own checkpoint instead. Otherwise a rebuild carried on from a
+     * checkpoint is carried on a page at a time in a single thread, and creating PublishedEvents
+     * from ranges in parallel is only started from the start of the event_log.
+     */
     @Transactional(NOT_SUPPORTED)
-    public void createPublishedEvents() {
+    public void createPublishedEvents(final RebuildCheckpoint rebuildCheckpoint, final RebuildProgressTracker rebuildProgressTracker) {
 
         logger.info("Creating PublishedEvents..");
 
         final Set<UUID> activeStreamIds = activeEventStreamIdProvider.getActiveStreamIds();
 
-        BatchProcessDetails batchProcessDetails = batchProcessingDetailsCalculator.createFirstBatchProcessDetails();
-        batchProcessDetails = batchPublishedEventProcessor.processNextBatchOfEvents(batchProcessDetails, activeStreamIds);
+        final List<RangeRebuildProgress> rangeRebuildProgresses = rangeRebuildCheckpointRepository.findRangeCheckpoints();
+        if (!rangeRebuildProgresses.isEmpty()) {
+            parallelPublishedEventUpdater.resumeCreatingPublishedEvents(activeStreamIds, rangeRebuildProgresses, rebuildProgressTracker);
+            return;
+        }
 
-        while (!processCompleteDecider.isProcessingComplete(batchProcessDetails)) {
-            batchProcessDetails = batchPublishedEventProcessor.processNextBatchOfEvents(batchProcessDetails, activeStreamIds);
+        rebuildProgressTracker.phaseStarted(
+                CREATING_PUBLISHED_EVENTS,
+                rebuildCheckpoint.getLastEventNumber(),
+                eventJdbcRepository.getMaximumEventNumber(),
+                rebuildCheckpoint.getInsertedCount());
+
+        final int rangeCount = publishedEventRebuildConfig.getRangeCount();
+        if (rangeCount > 1 && !rebuildCheckpoint.isPartwayThroughCreatingPublishedEvents()) {
+            parallelPublishedEventUpdater.createPublishedEvents(activeStreamIds, rangeCount, rebuildProgressTracker);
+            return;
+        }
+
+        if (rebuildCheckpoint.isPartwayThroughCreatingPublishedEvents()) {
+            logger.info(format("Resuming creation of PublishedEvents after event number %d..", rebuildCheckpoint.getLastEventNumber()));
         }
 
+        BatchProcessDetails batchProcessDetails = batchProcessingDetailsCalculator.createFirstBatchProcessDetails(rebuildCheckpoint);
+
+        do {
+            batchProcessDetails = batchPublishedEventProcessor.processNextBatchOfEvents(batchProcessDetails, activeStreamIds);
+            rebuildProgressTracker.eventsProcessed(batchProcessDetails.getCurrentEventNumber().get(), batchProcessDetails.getProcessCount());
+        } while (!processCompleteDecider.isProcessingComplete(batchProcessDetails));
+
         logger.info(format("Inserted %d PublishedEvents in total", batchProcessDetails.getProcessCount()));
     }
 }
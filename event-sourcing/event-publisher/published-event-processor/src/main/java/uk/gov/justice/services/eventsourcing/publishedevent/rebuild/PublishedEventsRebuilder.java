@@ -1,11 +1,7 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
 
-import static java.util.stream.Collectors.toList;
-
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
-import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
 
-import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
@@ -21,6 +17,12 @@ public class PublishedEventsRebuilder {
     @Inject
     private BatchedPublishedEventInserterFactory batchedPublishedEventInserterFactory;
 
+    @Inject
+    private CopyPublishedEventInserterFactory copyPublishedEventInserterFactory;
+
+    @Inject
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
     @Inject
     private ActiveEventFilter activeEventFilter;
 
@@ -28,23 +30,34 @@ public class PublishedEventsRebuilder {
     private RebuildPublishedEventFactory rebuildPublishedEventFactory;
 
     @SuppressWarnings("squid:S3864")
-    public List<PublishedEvent> rebuild(
+    public InsertedPublishedEvents rebuild(
             final Stream<Event> eventStream,
             final AtomicLong previousEventNumber,
             final AtomicLong currentEventNumber,
             final Set<UUID> activeStreamIds) {
 
-        try (final BatchedPublishedEventInserter batchedPublishedEventInserter = batchedPublishedEventInserterFactory.createInitialised()) {
-            final List<PublishedEvent> publishedEvents = eventStream
+        final InsertedPublishedEvents insertedPublishedEvents = new InsertedPublishedEvents();
+
+        try (final PublishedEventInserter publishedEventInserter = createPublishedEventInserter()) {
+            eventStream
                     .peek(event -> currentEventNumber.set(eventNumberGetter.eventNumberFrom(event)))
                     .filter(event -> activeEventFilter.isActiveEvent(event, activeStreamIds))
                     .map(event -> rebuildPublishedEventFactory.createPublishedEventFrom(event, previousEventNumber))
-                    .map(batchedPublishedEventInserter::addToBatch)
-                    .collect(toList());
+                    .map(publishedEventInserter::addToBatch)
+                    .forEach(insertedPublishedEvents::inserted);
 
-            batchedPublishedEventInserter.insertBatch();
+            publishedEventInserter.insertBatch();
 
-            return publishedEvents;
+            return insertedPublishedEvents;
         }
     }
+
+    private PublishedEventInserter createPublishedEventInserter() {
+
+        if (publishedEventRebuildConfig.isCopyEnabled()) {
+            return copyPublishedEventInserterFactory.createInitialised();
+        }
+
+        return batchedPublishedEventInserterFactory.createInitialised();
+    }
 }
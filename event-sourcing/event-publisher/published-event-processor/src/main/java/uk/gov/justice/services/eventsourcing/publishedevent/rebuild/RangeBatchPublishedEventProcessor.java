@@ -0,0 +1,66 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static javax.transaction.Transactional.TxType.REQUIRED;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RangeRebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+public class RangeBatchPublishedEventProcessor {
+
+    @Inject
+    private EventJdbcRepository eventJdbcRepository;
+
+    @Inject
+    private PublishedEventsRebuilder publishedEventsRebuilder;
+
+    @Inject
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
+    @Inject
+    private RangeRebuildCheckpointRepository rangeRebuildCheckpointRepository;
+
+    @Inject
+    private UtcClock clock;
+
+    /**
+     * Inserts the PublishedEvents of the next page of events of a range, linking each to the
+     * PublishedEvent before it in the range, and moves the checkpoint of the range on to the last
+     * event of the page, in the same transaction
+     *
+     * @return true if any events were read from the event_log, false if the range is finished
+     */
+    @Transactional(REQUIRED)
+    public boolean processNextBatchOfEvents(final RangeRebuildProgress rangeRebuildProgress, final Set<UUID> activeStreamIds) {
+
+        final AtomicLong currentEventNumber = rangeRebuildProgress.getCurrentEventNumber();
+        final long fromEventNumber = currentEventNumber.get();
+        final long toEventNumber = rangeRebuildProgress.getEventNumberRange().getToEventNumber();
+
+        try (final Stream<Event> eventStream = eventJdbcRepository.findAllInEventNumberRangeUptoPageSize(
+                fromEventNumber,
+                toEventNumber,
+                publishedEventRebuildConfig.getPageSize())) {
+
+            final InsertedPublishedEvents insertedPublishedEvents = publishedEventsRebuilder.rebuild(
+                    eventStream,
+                    rangeRebuildProgress.getPreviousEventNumber(),
+                    currentEventNumber,
+                    activeStreamIds);
+
+            rangeRebuildProgress.batchInserted(insertedPublishedEvents);
+            rangeRebuildCheckpointRepository.saveRangeCheckpoint(rangeRebuildProgress, clock.now());
+        }
+
+        return currentEventNumber.get() > fromEventNumber;
+    }
+}
@@ -0,0 +1,65 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.lang.String.format;
+import static javax.transaction.Transactional.TxType.REQUIRED;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+public class RangeBoundaryLinker {
+
+    @Inject
+    private EventJdbcRepository eventJdbcRepository;
+
+    @Inject
+    private PublishedEventConverter publishedEventConverter;
+
+    @Inject
+    private PublishedEventRepository publishedEventRepository;
+
+    /**
+     * Links the first PublishedEvent of each range to the last PublishedEvent of the nearest range
+     * before it that has any, by updating its previous event number and metadata.
+     *
+     * @param rangeRebuildProgresses the progress of each rebuilt range, in order of event number
+     * @return the number of PublishedEvents linked
+     */
+    @Transactional(REQUIRED)
+    public int linkRanges(final List<RangeRebuildProgress> rangeRebuildProgresses) {
+
+        long previousEventNumber = 0;
+        int linkedCount = 0;
+
+        for (final RangeRebuildProgress rangeRebuildProgress : rangeRebuildProgresses) {
+
+            final Optional<UUID> firstPublishedEventId = rangeRebuildProgress.getFirstPublishedEventId();
+            if (firstPublishedEventId.isPresent() && previousEventNumber > 0) {
+                link(firstPublishedEventId.get(), previousEventNumber);
+                linkedCount++;
+            }
+
+            final long lastPublishedEventNumber = rangeRebuildProgress.getPreviousEventNumber().get();
+            if (lastPublishedEventNumber > 0) {
+                previousEventNumber = lastPublishedEventNumber;
+            }
+        }
+
+        return linkedCount;
+    }
+
+    private void link(final UUID eventId, final long previousEventNumber) {
+
+        final Event event = eventJdbcRepository.findById(eventId)
+                .orElseThrow(() -> new RebuildException(format("Failed to find event with id '%s' in event_log", eventId)));
+
+        publishedEventRepository.updatePreviousEventNumber(publishedEventConverter.toPublishedEvent(event, previousEventNumber));
+    }
+}
@@ -0,0 +1,97 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.util.Optional.ofNullable;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The progress of the rebuild of the PublishedEvents of one range of event numbers.
+ *
+ * The previous event number of the first PublishedEvent of a range can only be known once the
+ * range before it is rebuilt, so it is inserted with a previous event number of 0 and its id kept
+ * so that it can be linked to the last PublishedEvent of the range before once all ranges are
+ * rebuilt.
+ */
+public class RangeRebuildProgress {
+
+    private final EventNumberRange eventNumberRange;
+    private final AtomicLong currentEventNumber;
+    private final AtomicLong previousEventNumber;
+    private final AtomicLong insertedCount;
+
+    private volatile UUID firstPublishedEventId;
+    private volatile boolean complete = false;
+
+    public RangeRebuildProgress(final EventNumberRange eventNumberRange) {
+        this(eventNumberRange, eventNumberRange.getFromEventNumber(), 0L, 0L, null);
+    }
+
+    /**
+     * The progress of a range as saved to its checkpoint, so that the range can be carried on
+     * after the last event it read
+     */
+    public RangeRebuildProgress(
+            final EventNumberRange eventNumberRange,
+            final long currentEventNumber,
+            final long previousEventNumber,
+            final long insertedCount,
+            final UUID firstPublishedEventId) {
+        this.eventNumberRange = eventNumberRange;
+        this.currentEventNumber = new AtomicLong(currentEventNumber);
+        this.previousEventNumber = new AtomicLong(previousEventNumber);
+        this.insertedCount = new AtomicLong(insertedCount);
+        this.firstPublishedEventId = firstPublishedEventId;
+    }
+
+    public void batchInserted(final InsertedPublishedEvents insertedPublishedEvents) {
+
+        if (firstPublishedEventId == null) {
+            firstPublishedEventId = insertedPublishedEvents.getFirstPublishedEventId().orElse(null);
+        }
+
+        insertedCount.addAndGet(insertedPublishedEvents.getCount());
+    }
+
+    public void completed() {
+        complete = true;
+    }
+
+    public EventNumberRange getEventNumberRange() {
+        return eventNumberRange;
+    }
+
+    /**
+     * @return the event number of the last event read from the event_log
+     */
+    public AtomicLong getCurrentEventNumber() {
+        return currentEventNumber;
+    }
+
+    /**
+     * @return the event number of the last PublishedEvent inserted, 0 if none has been
+     */
+    public AtomicLong getPreviousEventNumber() {
+        return previousEventNumber;
+    }
+
+    public long getInsertedCount() {
+        return insertedCount.get();
+    }
+
+    /**
+     * @return the number of event numbers of the range read so far
+     */
+    public long getReadCount() {
+        return currentEventNumber.get() - eventNumberRange.getFromEventNumber();
+    }
+
+    public Optional<UUID> getFirstPublishedEventId() {
+        return ofNullable(firstPublishedEventId);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+}
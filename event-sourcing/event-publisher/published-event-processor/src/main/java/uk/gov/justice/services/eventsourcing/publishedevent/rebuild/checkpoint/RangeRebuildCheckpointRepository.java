@@ -0,0 +1,111 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint;
+
+import static java.lang.String.format;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.EventNumberRange;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.RangeRebuildProgress;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.RebuildException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+/**
+ * Access to the published_event_rebuild_range_checkpoint table, which holds how far each range of
+ * event numbers of a parallel rebuild of published_event that has not yet finished has got.
+ */
+public class RangeRebuildCheckpointRepository {
+
+    private static final String SELECT_RANGE_CHECKPOINTS_SQL = "SELECT range_number, from_event_number, to_event_number, " +
+            "last_event_number, previous_event_number, inserted_count, first_published_event_id " +
+            "FROM published_event_rebuild_range_checkpoint " +
+            "ORDER BY range_number";
+    private static final String UPSERT_RANGE_CHECKPOINT_SQL = "INSERT INTO published_event_rebuild_range_checkpoint (range_number, from_event_number, to_event_number, " +
+            "last_event_number, previous_event_number, inserted_count, first_published_event_id, date_updated) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (range_number) DO UPDATE SET " +
+            "from_event_number = EXCLUDED.from_event_number, " +
+            "to_event_number = EXCLUDED.to_event_number, " +
+            "last_event_number = EXCLUDED.last_event_number, " +
+            "previous_event_number = EXCLUDED.previous_event_number, " +
+            "inserted_count = EXCLUDED.inserted_count, " +
+            "first_published_event_id = EXCLUDED.first_published_event_id, " +
+            "date_updated = EXCLUDED.date_updated";
+    private static final String DELETE_RANGE_CHECKPOINTS_SQL = "DELETE FROM published_event_rebuild_range_checkpoint";
+
+    @Inject
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    /**
+     * @return the progress of each range as last saved, in order of event number, or an empty
+     * list if no parallel rebuild is partway through
+     */
+    public List<RangeRebuildProgress> findRangeCheckpoints() {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_RANGE_CHECKPOINTS_SQL);
+             final ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            final List<RangeRebuildProgress> rangeRebuildProgresses = new ArrayList<>();
+            while (resultSet.next()) {
+                rangeRebuildProgresses.add(new RangeRebuildProgress(
+                        new EventNumberRange(
+                                resultSet.getInt("range_number"),
+                                resultSet.getLong("from_event_number"),
+                                resultSet.getLong("to_event_number")),
+                        resultSet.getLong("last_event_number"),
+                        resultSet.getLong("previous_event_number"),
+                        resultSet.getLong("inserted_count"),
+                        (UUID) resultSet.getObject("first_published_event_id")));
+            }
+
+            return rangeRebuildProgresses;
+
+        } catch (final SQLException e) {
+            throw new RebuildException("Failed to read checkpoints from published_event_rebuild_range_checkpoint table", e);
+        }
+    }
+
+    public void saveRangeCheckpoint(final RangeRebuildProgress rangeRebuildProgress, final ZonedDateTime now) {
+
+        final EventNumberRange eventNumberRange = rangeRebuildProgress.getEventNumberRange();
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(UPSERT_RANGE_CHECKPOINT_SQL)) {
+            preparedStatement.setInt(1, eventNumberRange.getRangeNumber());
+            preparedStatement.setLong(2, eventNumberRange.getFromEventNumber());
+            preparedStatement.setLong(3, eventNumberRange.getToEventNumber());
+            preparedStatement.setLong(4, rangeRebuildProgress.getCurrentEventNumber().get());
+            preparedStatement.setLong(5, rangeRebuildProgress.getPreviousEventNumber().get());
+            preparedStatement.setLong(6, rangeRebuildProgress.getInsertedCount());
+            preparedStatement.setObject(7, rangeRebuildProgress.getFirstPublishedEventId().orElse(null));
+            preparedStatement.setTimestamp(8, toSqlTimestamp(now));
+
+            preparedStatement.executeUpdate();
+
+        } catch (final SQLException e) {
+            throw new RebuildException(format("Failed to save checkpoint of range %d to published_event_rebuild_range_checkpoint table", eventNumberRange.getRangeNumber()), e);
+        }
+    }
+
+    public void deleteRangeCheckpoints() {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(DELETE_RANGE_CHECKPOINTS_SQL)) {
+
+            preparedStatement.executeUpdate();
+
+        } catch (final SQLException e) {
+            throw new RebuildException("Failed to delete checkpoints from published_event_rebuild_range_checkpoint table", e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint;
+
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
+
+import java.util.Objects;
+
+/**
+ * The phase a rebuild of published_event had reached and, once creating PublishedEvents, the
+ * event number of the last event read from the event_log, the event number of the last
+ * PublishedEvent inserted and the number of PublishedEvents inserted so far.
+ */
+public class RebuildCheckpoint {
+
+    private final RebuildPhase phase;
+    private final long lastEventNumber;
+    private final long previousEventNumber;
+    private final long insertedCount;
+
+    public RebuildCheckpoint(
+            final RebuildPhase phase,
+            final long lastEventNumber,
+            final long previousEventNumber,
+            final long insertedCount) {
+        this.phase = phase;
+        this.lastEventNumber = lastEventNumber;
+        this.previousEventNumber = previousEventNumber;
+        this.insertedCount = insertedCount;
+    }
+
+    public static RebuildCheckpoint startOf(final RebuildPhase phase) {
+        return new RebuildCheckpoint(phase, 0L, 0L, 0L);
+    }
+
+    public RebuildPhase getPhase() {
+        return phase;
+    }
+
+    public long getLastEventNumber() {
+        return lastEventNumber;
+    }
+
+    public long getPreviousEventNumber() {
+        return previousEventNumber;
+    }
+
+    public long getInsertedCount() {
+        return insertedCount;
+    }
+
+    /**
+     * @return true if some PublishedEvents have been created, so that creating them can carry on
+     * after the last event number rather than from the start of the event_log
+     */
+    public boolean isPartwayThroughCreatingPublishedEvents() {
+        return phase == CREATING_PUBLISHED_EVENTS && lastEventNumber > 0;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RebuildCheckpoint)) return false;
+        final RebuildCheckpoint that = (RebuildCheckpoint) o;
+        return lastEventNumber == that.lastEventNumber &&
+                previousEventNumber == that.previousEventNumber &&
+                insertedCount == that.insertedCount &&
+                phase == that.phase;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(phase, lastEventNumber, previousEventNumber, insertedCount);
+    }
+
+    @Override
+    public String toString() {
+        return "RebuildCheckpoint{" +
+                "phase=" + phase +
+                ", lastEventNumber=" + lastEventNumber +
+                ", previousEventNumber=" + previousEventNumber +
+                ", insertedCount=" + insertedCount +
+                '}';
+    }
+}
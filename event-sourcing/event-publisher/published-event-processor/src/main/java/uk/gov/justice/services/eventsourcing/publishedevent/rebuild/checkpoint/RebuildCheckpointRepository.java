@@ -0,0 +1,97 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.RebuildException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+/**
+ * Access to the published_event_rebuild_checkpoint table, which holds how far a rebuild of
+ * published_event that has not yet finished has got.
+ */
+public class RebuildCheckpointRepository {
+
+    private static final String CHECKPOINT_NAME = "published_event";
+
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT phase, last_event_number, previous_event_number, inserted_count " +
+            "FROM published_event_rebuild_checkpoint " +
+            "WHERE name = ?";
+    private static final String UPSERT_CHECKPOINT_SQL = "INSERT INTO published_event_rebuild_checkpoint (name, phase, last_event_number, previous_event_number, inserted_count, date_updated) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (name) DO UPDATE SET " +
+            "phase = EXCLUDED.phase, " +
+            "last_event_number = EXCLUDED.last_event_number, " +
+            "previous_event_number = EXCLUDED.previous_event_number, " +
+            "inserted_count = EXCLUDED.inserted_count, " +
+            "date_updated = EXCLUDED.date_updated";
+    private static final String DELETE_CHECKPOINT_SQL = "DELETE FROM published_event_rebuild_checkpoint WHERE name = ?";
+
+    @Inject
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    public Optional<RebuildCheckpoint> findCheckpoint() {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_CHECKPOINT_SQL)) {
+            preparedStatement.setString(1, CHECKPOINT_NAME);
+
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                if (resultSet.next()) {
+                    return of(new RebuildCheckpoint(
+                            RebuildPhase.valueOf(resultSet.getString("phase")),
+                            resultSet.getLong("last_event_number"),
+                            resultSet.getLong("previous_event_number"),
+                            resultSet.getLong("inserted_count")));
+                }
+
+                return empty();
+            }
+
+        } catch (final SQLException e) {
+            throw new RebuildException("Failed to read checkpoint from published_event_rebuild_checkpoint table", e);
+        }
+    }
+
+    public void saveCheckpoint(final RebuildCheckpoint rebuildCheckpoint, final ZonedDateTime now) {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(UPSERT_CHECKPOINT_SQL)) {
+            preparedStatement.setString(1, CHECKPOINT_NAME);
+            preparedStatement.setString(2, rebuildCheckpoint.getPhase().name());
+            preparedStatement.setLong(3, rebuildCheckpoint.getLastEventNumber());
+            preparedStatement.setLong(4, rebuildCheckpoint.getPreviousEventNumber());
+            preparedStatement.setLong(5, rebuildCheckpoint.getInsertedCount());
+            preparedStatement.setTimestamp(6, toSqlTimestamp(now));
+
+            preparedStatement.executeUpdate();
+
+        } catch (final SQLException e) {
+            throw new RebuildException("Failed to save checkpoint to published_event_rebuild_checkpoint table", e);
+        }
+    }
+
+    public void deleteCheckpoint() {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(DELETE_CHECKPOINT_SQL)) {
+            preparedStatement.setString(1, CHECKPOINT_NAME);
+
+            preparedStatement.executeUpdate();
+
+        } catch (final SQLException e) {
+            throw new RebuildException("Failed to delete checkpoint from published_event_rebuild_checkpoint table", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint;
+
+/**
+ * The phases of a rebuild of published_event, in the order they are run
+ */
+public enum RebuildPhase {
+
+    RENUMBERING_EVENTS("Renumbering events"),
+    DELETING_PUBLISHED_EVENTS("Deleting PublishedEvents"),
+    CREATING_PUBLISHED_EVENTS("Creating PublishedEvents");
+
+    private final String description;
+
+    RebuildPhase(final String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,96 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress;
+
+import static java.util.Optional.ofNullable;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * How far a rebuild of published_event has got: the phase it is in and, once creating
+ * PublishedEvents, the last event number read of the maximum event number in the event_log, the
+ * rate events are read at since the phase started and the time that rate leaves to run.
+ */
+public class RebuildProgress {
+
+    private final RebuildPhase phase;
+    private final long lastEventNumber;
+    private final long maximumEventNumber;
+    private final long insertedCount;
+    private final long eventsPerSecond;
+    private final Duration estimatedTimeRemaining;
+
+    public RebuildProgress(
+            final RebuildPhase phase,
+            final long lastEventNumber,
+            final long maximumEventNumber,
+            final long insertedCount,
+            final long eventsPerSecond,
+            final Duration estimatedTimeRemaining) {
+        this.phase = phase;
+        this.lastEventNumber = lastEventNumber;
+        this.maximumEventNumber = maximumEventNumber;
+        this.insertedCount = insertedCount;
+        this.eventsPerSecond = eventsPerSecond;
+        this.estimatedTimeRemaining = estimatedTimeRemaining;
+    }
+
+    public RebuildPhase getPhase() {
+        return phase;
+    }
+
+    public long getLastEventNumber() {
+        return lastEventNumber;
+    }
+
+    public long getMaximumEventNumber() {
+        return maximumEventNumber;
+    }
+
+    public long getInsertedCount() {
+        return insertedCount;
+    }
+
+    public long getEventsPerSecond() {
+        return eventsPerSecond;
+    }
+
+    /**
+     * @return the time left at the current rate, empty if no events have been read yet
+     */
+    public Optional<Duration> getEstimatedTimeRemaining() {
+        return ofNullable(estimatedTimeRemaining);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RebuildProgress)) return false;
+        final RebuildProgress that = (RebuildProgress) o;
+        return lastEventNumber == that.lastEventNumber &&
+                maximumEventNumber == that.maximumEventNumber &&
+                insertedCount == that.insertedCount &&
+                eventsPerSecond == that.eventsPerSecond &&
+                phase == that.phase &&
+                Objects.equals(estimatedTimeRemaining, that.estimatedTimeRemaining);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(phase, lastEventNumber, maximumEventNumber, insertedCount, eventsPerSecond, estimatedTimeRemaining);
+    }
+
+    @Override
+    public String toString() {
+        return "RebuildProgress{" +
+                "phase=" + phase +
+                ", lastEventNumber=" + lastEventNumber +
+                ", maximumEventNumber=" + maximumEventNumber +
+                ", insertedCount=" + insertedCount +
+                ", eventsPerSecond=" + eventsPerSecond +
+                ", estimatedTimeRemaining=" + estimatedTimeRemaining +
+                '}';
+    }
+}
@@ -0,0 +1,11 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress;
+
+/**
+ * Told of the progress of a rebuild of published_event as each phase starts and, while creating
+ * PublishedEvents, at most once every reporting interval
+ */
+@FunctionalInterface
+public interface RebuildProgressListener {
+
+    void progressMade(final RebuildProgress rebuildProgress);
+}
@@ -0,0 +1,91 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress;
+
+import static java.lang.Math.max;
+import static java.time.temporal.ChronoUnit.MILLIS;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * Tracks the progress of one rebuild of published_event, reporting it to a
+ * {@link RebuildProgressListener}. The rate is of the events read since the current phase started,
+ * so that a resumed rebuild is not credited with the events read before it was stopped.
+ *
+ * Ranges of event numbers rebuilt in parallel report their progress from their own threads, so
+ * progress is recorded and reported under a lock.
+ */
+public class RebuildProgressTracker {
+
+    private final RebuildProgressListener rebuildProgressListener;
+    private final UtcClock clock;
+    private final Duration reportingInterval;
+
+    private RebuildPhase phase;
+    private ZonedDateTime phaseStartedAt;
+    private ZonedDateTime lastReportedAt;
+    private long fromEventNumber;
+    private long maximumEventNumber;
+
+    public RebuildProgressTracker(
+            final RebuildProgressListener rebuildProgressListener,
+            final UtcClock clock,
+            final Duration reportingInterval) {
+        this.rebuildProgressListener = rebuildProgressListener;
+        this.clock = clock;
+        this.reportingInterval = reportingInterval;
+    }
+
+    public void phaseStarted(final RebuildPhase phase) {
+        phaseStarted(phase, 0L, 0L, 0L);
+    }
+
+    public synchronized void phaseStarted(
+            final RebuildPhase phase,
+            final long fromEventNumber,
+            final long maximumEventNumber,
+            final long insertedCount) {
+
+        this.phase = phase;
+        this.fromEventNumber = fromEventNumber;
+        this.maximumEventNumber = maximumEventNumber;
+        this.phaseStartedAt = clock.now();
+
+        report(fromEventNumber, insertedCount, phaseStartedAt);
+    }
+
+    /**
+     * Reports the progress if the reporting interval has passed since it was last reported
+     */
+    public synchronized void eventsProcessed(final long lastEventNumber, final long insertedCount) {
+
+        final ZonedDateTime now = clock.now();
+
+        if (Duration.between(lastReportedAt, now).compareTo(reportingInterval) >= 0) {
+            report(lastEventNumber, insertedCount, now);
+        }
+    }
+
+    private void report(final long lastEventNumber, final long insertedCount, final ZonedDateTime now) {
+
+        lastReportedAt = now;
+
+        final long elapsedMilliseconds = MILLIS.between(phaseStartedAt, now);
+        final long eventsRead = lastEventNumber - fromEventNumber;
+        final long eventsPerSecond = elapsedMilliseconds > 0 ? eventsRead * 1000 / elapsedMilliseconds : 0;
+
+        final Duration estimatedTimeRemaining = eventsPerSecond > 0 ?
+                Duration.ofSeconds(max(maximumEventNumber - lastEventNumber, 0L) / eventsPerSecond) :
+                null;
+
+        rebuildProgressListener.progressMade(new RebuildProgress(
+                phase,
+                lastEventNumber,
+                maximumEventNumber,
+                insertedCount,
+                eventsPerSecond,
+                estimatedTimeRemaining));
+    }
+}
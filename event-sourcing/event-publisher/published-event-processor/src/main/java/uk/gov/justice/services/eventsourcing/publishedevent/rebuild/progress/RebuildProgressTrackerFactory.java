@@ -0,0 +1,24 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress;
+
+import static java.time.Duration.ofSeconds;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventRebuildConfig;
+
+import javax.inject.Inject;
+
+public class RebuildProgressTrackerFactory {
+
+    @Inject
+    private UtcClock clock;
+
+    @Inject
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
+    public RebuildProgressTracker create(final RebuildProgressListener rebuildProgressListener) {
+        return new RebuildProgressTracker(
+                rebuildProgressListener,
+                clock,
+                ofSeconds(publishedEventRebuildConfig.getProgressReportingIntervalSeconds()));
+    }
+}
@@ -0,0 +1,109 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber;
+
+import static java.lang.String.format;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.fromSqlTimestamp;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.RebuildException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+/**
+ * Renumbers the event_log in chunks of events ordered by date_created then id, numbering each
+ * chunk with a single UPDATE run by the database, so that no event ids are read into memory.
+ * The last event of each chunk is saved as a checkpoint in the same transaction as the chunk,
+ * so that a renumbering that fails can be resumed from the last chunk renumbered.
+ */
+public class ChunkedEventRenumberer {
+
+    private static final String RENUMBER_CHUNK_SQL = "WITH chunk AS (" +
+            "SELECT id, date_created, ? + row_number() OVER (ORDER BY date_created, id) AS new_event_number " +
+            "FROM (SELECT id, date_created FROM event_log%s ORDER BY date_created, id LIMIT ?) AS next_events), " +
+            "renumbered AS (" +
+            "UPDATE event_log SET event_number = chunk.new_event_number FROM chunk WHERE event_log.id = chunk.id " +
+            "RETURNING chunk.date_created, chunk.id, chunk.new_event_number) " +
+            "SELECT date_created, id, new_event_number FROM renumbered ORDER BY new_event_number DESC LIMIT 1";
+
+    private static final String RENUMBER_FIRST_CHUNK_SQL = format(RENUMBER_CHUNK_SQL, "");
+    private static final String RENUMBER_NEXT_CHUNK_SQL = format(RENUMBER_CHUNK_SQL, " WHERE (date_created, id) > (?, ?)");
+
+    @Inject
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Inject
+    private RenumberCheckpointRepository renumberCheckpointRepository;
+
+    @Inject
+    private UtcClock clock;
+
+    /**
+     * @return the checkpoint of the last event renumbered, or empty if the event_log is empty
+     */
+    @Transactional(REQUIRES_NEW)
+    public Optional<RenumberCheckpoint> renumberFirstChunk(final int chunkSize) {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(RENUMBER_FIRST_CHUNK_SQL)) {
+            preparedStatement.setLong(1, 0L);
+            preparedStatement.setInt(2, chunkSize);
+
+            return renumberChunk(preparedStatement);
+
+        } catch (final SQLException e) {
+            throw new RebuildException("Failed to renumber first chunk of event_number in event_log table", e);
+        }
+    }
+
+    /**
+     * @return the checkpoint of the last event renumbered, or empty if no events are left to
+     * renumber after the last checkpoint
+     */
+    @Transactional(REQUIRES_NEW)
+    public Optional<RenumberCheckpoint> renumberNextChunk(final RenumberCheckpoint lastCheckpoint, final int chunkSize) {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(RENUMBER_NEXT_CHUNK_SQL)) {
+            preparedStatement.setLong(1, lastCheckpoint.getLastEventNumber());
+            preparedStatement.setTimestamp(2, toSqlTimestamp(lastCheckpoint.getLastDateCreated()));
+            preparedStatement.setObject(3, lastCheckpoint.getLastEventId());
+            preparedStatement.setInt(4, chunkSize);
+
+            return renumberChunk(preparedStatement);
+
+        } catch (final SQLException e) {
+            throw new RebuildException(format("Failed to renumber chunk of event_number in event_log table after event number %d", lastCheckpoint.getLastEventNumber()), e);
+        }
+    }
+
+    private Optional<RenumberCheckpoint> renumberChunk(final PreparedStatement preparedStatement) throws SQLException {
+
+        try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            if (!resultSet.next()) {
+                return empty();
+            }
+
+            final RenumberCheckpoint renumberCheckpoint = new RenumberCheckpoint(
+                    fromSqlTimestamp(resultSet.getTimestamp("date_created")),
+                    (UUID) resultSet.getObject("id"),
+                    resultSet.getLong("new_event_number"));
+
+            renumberCheckpointRepository.saveCheckpoint(renumberCheckpoint, clock.now());
+
+            return of(renumberCheckpoint);
+        }
+    }
+}
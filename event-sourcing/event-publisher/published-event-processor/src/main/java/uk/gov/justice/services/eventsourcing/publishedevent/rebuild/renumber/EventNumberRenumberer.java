@@ -1,9 +1,13 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber;
 
 import static java.lang.String.format;
+import static java.util.Optional.empty;
 import static javax.transaction.Transactional.TxType.NEVER;
 
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventRebuildConfig;
+
 import java.util.List;
+import java.util.Optional;
 
 import javax.inject.Inject;
 import javax.transaction.Transactional;
@@ -18,12 +22,54 @@ public class EventNumberRenumberer {
     @Inject
     private EventNumberSequenceResetter eventNumberSequenceResetter;
 
+    @Inject
+    private ChunkedEventRenumberer chunkedEventRenumberer;
+
+    @Inject
+    private RenumberCheckpointRepository renumberCheckpointRepository;
+
+    @Inject
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
     @Inject
     private Logger logger;
 
+    /**
+     * Renumbers the whole event_log from the start. Any checkpoint left by an earlier chunked
+     * renumbering that did not finish is deleted first, so it is never carried on from.
+     */
     @Transactional(NEVER)
     public void renumberEventLogEventNumber() {
-        
+
+        renumberCheckpointRepository.deleteCheckpoint();
+
+        if (publishedEventRebuildConfig.isChunkedRenumberEnabled()) {
+            renumberEventLogEventNumberInChunks(empty());
+            return;
+        }
+
+        renumberEventLogEventNumberInBatches();
+    }
+
+    /**
+     * Carries on a chunked renumbering of the event_log that did not finish from the last chunk
+     * renumbered, or renumbers from the start if there is no checkpoint. Renumbering that is not
+     * chunked saves no checkpoints, so always starts again from the start.
+     */
+    @Transactional(NEVER)
+    public void resumeRenumberingEventLogEventNumber() {
+
+        if (publishedEventRebuildConfig.isChunkedRenumberEnabled()) {
+            renumberEventLogEventNumberInChunks(renumberCheckpointRepository.findCheckpoint());
+            return;
+        }
+
+        renumberCheckpointRepository.deleteCheckpoint();
+        renumberEventLogEventNumberInBatches();
+    }
+
+    private void renumberEventLogEventNumberInBatches() {
+
         eventNumberSequenceResetter.resetSequence();
 
         logger.info("Renumbering events in the event_log table...");
@@ -41,4 +87,44 @@ public class EventNumberRenumberer {
 
         logger.info(format("Renumbered %d events in total", total));
     }
+
+    /**
+     * Renumbers the event_log a chunk at a time, carrying on from the given checkpoint if there
+     * is one. The sequence is set to the last event number once all events are renumbered.
+     */
+    private void renumberEventLogEventNumberInChunks(final Optional<RenumberCheckpoint> resumeFrom) {
+
+        final int chunkSize = publishedEventRebuildConfig.getRenumberChunkSize();
+
+        Optional<RenumberCheckpoint> lastCheckpoint = resumeFrom;
+        Optional<RenumberCheckpoint> nextCheckpoint;
+
+        if (lastCheckpoint.isPresent()) {
+            logger.info(format("Resuming renumbering of events in the event_log table after event number %d...", lastCheckpoint.get().getLastEventNumber()));
+            nextCheckpoint = chunkedEventRenumberer.renumberNextChunk(lastCheckpoint.get(), chunkSize);
+        } else {
+            logger.info("Renumbering events in the event_log table in chunks...");
+            nextCheckpoint = chunkedEventRenumberer.renumberFirstChunk(chunkSize);
+        }
+
+        while (nextCheckpoint.isPresent()) {
+            lastCheckpoint = nextCheckpoint;
+            logger.info(format("Renumbered %d events", lastCheckpoint.get().getLastEventNumber()));
+            nextCheckpoint = chunkedEventRenumberer.renumberNextChunk(lastCheckpoint.get(), chunkSize);
+        }
+
+        final long total = lastCheckpoint
+                .map(RenumberCheckpoint::getLastEventNumber)
+                .orElse(0L);
+
+        if (total > 0) {
+            eventNumberSequenceResetter.setSequenceTo(total);
+        } else {
+            eventNumberSequenceResetter.resetSequence();
+        }
+
+        renumberCheckpointRepository.deleteCheckpoint();
+
+        logger.info(format("Renumbered %d events in total", total));
+    }
 }
@@ -16,6 +16,7 @@ import javax.transaction.Transactional;
 public class EventNumberSequenceResetter {
 
     private static final String ALTER_SEQUENCE_QUERY = "ALTER SEQUENCE event_sequence_seq RESTART WITH 1";
+    private static final String SET_SEQUENCE_QUERY = "SELECT setval('event_sequence_seq', ?)";
 
     @Inject
     private EventStoreDataSourceProvider eventStoreDataSourceProvider;
@@ -33,4 +34,21 @@ public class EventNumberSequenceResetter {
             throw new RebuildException(format("Failed run sql statement '%s", ALTER_SEQUENCE_QUERY), e);
         }
     }
+
+    /**
+     * Sets the sequence so that the next event number it gives is one after the last event number
+     */
+    @Transactional(REQUIRES_NEW)
+    public void setSequenceTo(final long lastEventNumber) {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(SET_SEQUENCE_QUERY)) {
+
+            preparedStatement.setLong(1, lastEventNumber);
+            preparedStatement.execute();
+
+        } catch (SQLException e) {
+            throw new RebuildException(format("Failed to run sql statement '%s'", SET_SEQUENCE_QUERY), e);
+        }
+    }
 }
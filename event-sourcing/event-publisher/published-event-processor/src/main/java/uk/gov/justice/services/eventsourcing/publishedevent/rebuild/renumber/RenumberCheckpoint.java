@@ -0,0 +1,58 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber;
+
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * The last event renumbered by a chunked renumbering of the event_log. Events are renumbered in
+ * order of date_created then id, so the next chunk starts after this date_created and id.
+ */
+public class RenumberCheckpoint {
+
+    private final ZonedDateTime lastDateCreated;
+    private final UUID lastEventId;
+    private final long lastEventNumber;
+
+    public RenumberCheckpoint(final ZonedDateTime lastDateCreated, final UUID lastEventId, final long lastEventNumber) {
+        this.lastDateCreated = lastDateCreated;
+        this.lastEventId = lastEventId;
+        this.lastEventNumber = lastEventNumber;
+    }
+
+    public ZonedDateTime getLastDateCreated() {
+        return lastDateCreated;
+    }
+
+    public UUID getLastEventId() {
+        return lastEventId;
+    }
+
+    public long getLastEventNumber() {
+        return lastEventNumber;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RenumberCheckpoint)) return false;
+        final RenumberCheckpoint that = (RenumberCheckpoint) o;
+        return lastEventNumber == that.lastEventNumber &&
+                Objects.equals(lastDateCreated, that.lastDateCreated) &&
+                Objects.equals(lastEventId, that.lastEventId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lastDateCreated, lastEventId, lastEventNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "RenumberCheckpoint{" +
+                "lastDateCreated=" + lastDateCreated +
+                ", lastEventId=" + lastEventId +
+                ", lastEventNumber=" + lastEventNumber +
+                '}';
+    }
+}
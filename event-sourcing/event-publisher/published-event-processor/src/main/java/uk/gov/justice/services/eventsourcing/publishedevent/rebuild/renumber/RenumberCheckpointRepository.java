@@ -0,0 +1,96 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.fromSqlTimestamp;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.RebuildException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+/**
+ * Access to the event_renumber_checkpoint table, which holds the last event renumbered by a
+ * chunked renumbering of the event_log that has not yet finished.
+ */
+public class RenumberCheckpointRepository {
+
+    private static final String CHECKPOINT_NAME = "event_log";
+
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT last_date_created, last_event_id, last_event_number " +
+            "FROM event_renumber_checkpoint " +
+            "WHERE name = ?";
+    private static final String UPSERT_CHECKPOINT_SQL = "INSERT INTO event_renumber_checkpoint (name, last_date_created, last_event_id, last_event_number, date_updated) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (name) DO UPDATE SET " +
+            "last_date_created = EXCLUDED.last_date_created, " +
+            "last_event_id = EXCLUDED.last_event_id, " +
+            "last_event_number = EXCLUDED.last_event_number, " +
+            "date_updated = EXCLUDED.date_updated";
+    private static final String DELETE_CHECKPOINT_SQL = "DELETE FROM event_renumber_checkpoint WHERE name = ?";
+
+    @Inject
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    public Optional<RenumberCheckpoint> findCheckpoint() {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_CHECKPOINT_SQL)) {
+            preparedStatement.setString(1, CHECKPOINT_NAME);
+
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                if (resultSet.next()) {
+                    return of(new RenumberCheckpoint(
+                            fromSqlTimestamp(resultSet.getTimestamp("last_date_created")),
+                            (UUID) resultSet.getObject("last_event_id"),
+                            resultSet.getLong("last_event_number")));
+                }
+
+                return empty();
+            }
+
+        } catch (final SQLException e) {
+            throw new RebuildException("Failed to read checkpoint from event_renumber_checkpoint table", e);
+        }
+    }
+
+    public void saveCheckpoint(final RenumberCheckpoint renumberCheckpoint, final ZonedDateTime now) {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(UPSERT_CHECKPOINT_SQL)) {
+            preparedStatement.setString(1, CHECKPOINT_NAME);
+            preparedStatement.setTimestamp(2, toSqlTimestamp(renumberCheckpoint.getLastDateCreated()));
+            preparedStatement.setObject(3, renumberCheckpoint.getLastEventId());
+            preparedStatement.setLong(4, renumberCheckpoint.getLastEventNumber());
+            preparedStatement.setTimestamp(5, toSqlTimestamp(now));
+
+            preparedStatement.executeUpdate();
+
+        } catch (final SQLException e) {
+            throw new RebuildException("Failed to save checkpoint to event_renumber_checkpoint table", e);
+        }
+    }
+
+    public void deleteCheckpoint() {
+
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(DELETE_CHECKPOINT_SQL)) {
+            preparedStatement.setString(1, CHECKPOINT_NAME);
+
+            preparedStatement.executeUpdate();
+
+        } catch (final SQLException e) {
+            throw new RebuildException("Failed to delete checkpoint from event_renumber_checkpoint table", e);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.jdbc;
 
 
+import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.fromSqlTimestamp;
 import static uk.gov.justice.services.test.utils.events.EventBuilder.eventBuilder;
+import static uk.gov.justice.services.test.utils.events.PublishedEventBuilder.publishedEventBuilder;
 
 import uk.gov.justice.services.common.util.Clock;
 import uk.gov.justice.services.common.util.UtcClock;
@@ -19,6 +22,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import javax.sql.DataSource;
@@ -90,6 +95,19 @@ public class PrePublishRepositoryIT {
         assertThat(prePublishRepository.getPreviousEventNumber(4, eventStoreDataSource), is(3L));
     }
 
+    @Test
+    public void shouldGetTheHighestPublishedEventNumber() throws Exception {
+
+        assertThat(prePublishRepository.getHighestPublishedEventNumber(eventStoreDataSource), is(0L));
+
+        final PublishedEventQueries publishedEventQueries = new PublishedEventQueries();
+        publishedEventQueries.insertPublishedEvent(publishedEventBuilder().withPositionInStream(1L).withEventNumber(1L).withPreviousEventNumber(0L).build(), eventStoreDataSource);
+        publishedEventQueries.insertPublishedEvent(publishedEventBuilder().withPositionInStream(2L).withEventNumber(7L).withPreviousEventNumber(1L).build(), eventStoreDataSource);
+        publishedEventQueries.insertPublishedEvent(publishedEventBuilder().withPositionInStream(3L).withEventNumber(3L).withPreviousEventNumber(1L).build(), eventStoreDataSource);
+
+        assertThat(prePublishRepository.getHighestPublishedEventNumber(eventStoreDataSource), is(7L));
+    }
+
     @Test
     public void shouldInsertEventIdIntoThePublishTable() throws Exception {
 
@@ -115,5 +133,27 @@ public class PrePublishRepositoryIT {
             }
     }
 
+    @Test
+    public void shouldInsertSeveralEventIdsIntoThePublishTableInOneBatch() throws Exception {
+
+        final UUID eventId_1 = randomUUID();
+        final UUID eventId_2 = randomUUID();
+        final UUID eventId_3 = randomUUID();
+        final ZonedDateTime now = clock.now();
+
+        prePublishRepository.addToPublishQueueTable(asList(eventId_1, eventId_2, eventId_3), now, eventStoreDataSource);
+
+        final List<UUID> eventLogIds = new ArrayList<>();
+        try (final Connection connection = eventStoreDataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement("SELECT event_log_id, date_queued FROM publish_queue");
+             final ResultSet resultSet = preparedStatement.executeQuery()) {
 
+            while (resultSet.next()) {
+                eventLogIds.add((UUID) resultSet.getObject("event_log_id"));
+                assertThat(fromSqlTimestamp(resultSet.getTimestamp("date_queued")), is(now));
+            }
+        }
+
+        assertThat(eventLogIds, containsInAnyOrder(eventId_1, eventId_2, eventId_3));
+    }
 }
@@ -1,12 +1,16 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.jdbc;
 
+import static java.util.Optional.of;
 import static java.util.UUID.fromString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import uk.gov.justice.services.eventsourcing.publishedevent.prepublish.EventNumberWatermark;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
 
@@ -30,6 +34,9 @@ public class PreviousEventNumberFinderTest {
     @Mock
     private PrePublishRepository prePublishRepository;
 
+    @Mock
+    private EventNumberWatermark eventNumberWatermark;
+
     @InjectMocks
     private PreviousEventNumberFinder previousEventNumberFinder;
 
@@ -48,6 +55,23 @@ public class PreviousEventNumberFinderTest {
         when(prePublishRepository.getPreviousEventNumber(eventNumber, dataSource)).thenReturn(previousEventNumber);
 
         assertThat(previousEventNumberFinder.getPreviousEventNumber(eventId, eventNumber), is(previousEventNumber));
+
+        verify(eventNumberWatermark).advanceTo(eventNumber);
+    }
+
+    @Test
+    public void shouldTakeThePreviousEventNumberFromTheWatermarkWithoutQueryingIfTheEventFollowsIt() throws Exception {
+
+        final long eventNumber = 23L;
+        final long previousEventNumber = 22L;
+        final UUID eventId = fromString("019edc7f-a5d5-4143-b026-30eb4d4b14c6");
+
+        when(eventNumberWatermark.previousEventNumberOf(eventNumber)).thenReturn(of(previousEventNumber));
+
+        assertThat(previousEventNumberFinder.getPreviousEventNumber(eventId, eventNumber), is(previousEventNumber));
+
+        verify(eventNumberWatermark).advanceTo(eventNumber);
+        verifyNoInteractions(eventStoreDataSourceProvider, prePublishRepository);
     }
 
     @Test
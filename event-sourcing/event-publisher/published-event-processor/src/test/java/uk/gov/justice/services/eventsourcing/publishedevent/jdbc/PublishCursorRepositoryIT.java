@@ -0,0 +1,160 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.jdbc;
+
+import static java.util.Arrays.asList;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static uk.gov.justice.services.test.utils.events.PublishedEventBuilder.publishedEventBuilder;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+import uk.gov.justice.services.test.utils.core.eventsource.EventStoreInitializer;
+import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
+import uk.gov.justice.services.test.utils.persistence.TableCleaner;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.ZonedDateTime;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PublishCursorRepositoryIT {
+
+    private static final String CURSOR_NAME = "event-publisher";
+
+    private final DataSource eventStoreDataSource = new FrameworkTestDataSourceFactory().createEventStoreDataSource();
+    private final PublishedEventQueries publishedEventQueries = new PublishedEventQueries();
+    private final PrePublishRepository prePublishRepository = new PrePublishRepository();
+
+    @InjectMocks
+    private PublishCursorRepository publishCursorRepository;
+
+    @BeforeEach
+    public void initDatabase() throws Exception {
+        new EventStoreInitializer().initializeEventStore(eventStoreDataSource);
+        new TableCleaner().clean("publish_cursor", eventStoreDataSource);
+    }
+
+    @Test
+    public void shouldReturnEmptyIfTheCursorDoesNotExist() throws Exception {
+
+        assertThat(publishCursorRepository.lockCursor(CURSOR_NAME, eventStoreDataSource), is(empty()));
+    }
+
+    @Test
+    public void shouldCreateTheCursorAfterTheNewestPublishedEventIfThePublishQueueIsEmpty() throws Exception {
+
+        publishedEventQueries.insertPublishedEvents(asList(
+                publishedEvent(1L, 0L),
+                publishedEvent(2L, 1L),
+                publishedEvent(3L, 2L)), eventStoreDataSource);
+
+        publishCursorRepository.createCursor(CURSOR_NAME, new UtcClock().now(), eventStoreDataSource);
+
+        assertThat(publishCursorRepository.lockCursor(CURSOR_NAME, eventStoreDataSource), is(of(3L)));
+    }
+
+    @Test
+    public void shouldCreateTheCursorBeforeTheOldestQueuedEventAndEmptyThePublishQueue() throws Exception {
+
+        final PublishedEvent publishedEvent_2 = publishedEvent(2L, 1L);
+        final PublishedEvent publishedEvent_3 = publishedEvent(3L, 2L);
+        final ZonedDateTime now = new UtcClock().now();
+
+        publishedEventQueries.insertPublishedEvents(asList(publishedEvent(1L, 0L), publishedEvent_2, publishedEvent_3), eventStoreDataSource);
+        prePublishRepository.addToPublishQueueTable(publishedEvent_3.getId(), now, eventStoreDataSource);
+        prePublishRepository.addToPublishQueueTable(publishedEvent_2.getId(), now, eventStoreDataSource);
+
+        publishCursorRepository.createCursor(CURSOR_NAME, now, eventStoreDataSource);
+
+        assertThat(publishCursorRepository.lockCursor(CURSOR_NAME, eventStoreDataSource), is(of(1L)));
+        assertThat(countRowsOfPublishQueue(), is(0));
+    }
+
+    @Test
+    public void shouldCreateTheCursorAtZeroIfNothingHasBeenPublished() throws Exception {
+
+        publishCursorRepository.createCursor(CURSOR_NAME, new UtcClock().now(), eventStoreDataSource);
+
+        assertThat(publishCursorRepository.lockCursor(CURSOR_NAME, eventStoreDataSource), is(of(0L)));
+    }
+
+    @Test
+    public void shouldNotMoveAnExistingCursorWhenCreatingItAgain() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+
+        publishCursorRepository.createCursor(CURSOR_NAME, now, eventStoreDataSource);
+        publishCursorRepository.advanceCursor(CURSOR_NAME, 23L, now, eventStoreDataSource);
+        publishCursorRepository.createCursor(CURSOR_NAME, now, eventStoreDataSource);
+
+        assertThat(publishCursorRepository.lockCursor(CURSOR_NAME, eventStoreDataSource), is(of(23L)));
+    }
+
+    @Test
+    public void shouldAdvanceTheCursor() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+
+        publishCursorRepository.createCursor(CURSOR_NAME, now, eventStoreDataSource);
+        publishCursorRepository.advanceCursor(CURSOR_NAME, 42L, now.plusSeconds(1), eventStoreDataSource);
+
+        assertThat(publishCursorRepository.lockCursor(CURSOR_NAME, eventStoreDataSource), is(of(42L)));
+    }
+
+    @Test
+    public void shouldResetTheCursorToTheNewestPublishedEvent() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+
+        publishedEventQueries.insertPublishedEvents(asList(
+                publishedEvent(1L, 0L),
+                publishedEvent(2L, 1L)), eventStoreDataSource);
+
+        publishCursorRepository.createCursor(CURSOR_NAME, now, eventStoreDataSource);
+        publishCursorRepository.advanceCursor(CURSOR_NAME, 1005L, now, eventStoreDataSource);
+
+        publishCursorRepository.resetCursors(now.plusSeconds(1), eventStoreDataSource);
+
+        assertThat(publishCursorRepository.lockCursor(CURSOR_NAME, eventStoreDataSource), is(of(2L)));
+    }
+
+    @Test
+    public void shouldResetTheCursorToZeroIfThereAreNoPublishedEvents() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+
+        publishCursorRepository.createCursor(CURSOR_NAME, now, eventStoreDataSource);
+        publishCursorRepository.advanceCursor(CURSOR_NAME, 1005L, now, eventStoreDataSource);
+
+        publishCursorRepository.resetCursors(now.plusSeconds(1), eventStoreDataSource);
+
+        assertThat(publishCursorRepository.lockCursor(CURSOR_NAME, eventStoreDataSource), is(of(0L)));
+    }
+
+    private PublishedEvent publishedEvent(final long eventNumber, final long previousEventNumber) {
+        return publishedEventBuilder()
+                .withPositionInStream(eventNumber)
+                .withEventNumber(eventNumber)
+                .withPreviousEventNumber(previousEventNumber)
+                .build();
+    }
+
+    private int countRowsOfPublishQueue() throws Exception {
+        try (final Connection connection = eventStoreDataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement("SELECT COUNT(*) FROM publish_queue");
+             final ResultSet resultSet = preparedStatement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.jdbc;
 
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparing;
 import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.fromSqlTimestamp;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+import static uk.gov.justice.services.test.utils.events.EventBuilder.eventBuilder;
 import static uk.gov.justice.services.test.utils.events.PublishedEventBuilder.publishedEventBuilder;
 
 import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
 import uk.gov.justice.services.test.utils.core.eventsource.EventStoreInitializer;
+import uk.gov.justice.services.test.utils.events.EventStoreDataAccess;
 import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.sql.DataSource;
@@ -108,6 +121,166 @@ public class PublishedEventQueriesIT {
         assertThat(publishedEventQueries.getPublishedEvent(unknownId, eventStoreDataSource).isPresent(), is(false));
     }
 
+    @Test
+    public void shouldFindThePublishedEventsAfterAnEventNumberOrderedByEventNumber() throws Exception {
+
+        final PublishedEvent publishedEvent_1 = publishedEventBuilder().withPositionInStream(1L).withEventNumber(1L).withPreviousEventNumber(0L).build();
+        final PublishedEvent publishedEvent_2 = publishedEventBuilder().withPositionInStream(2L).withEventNumber(2L).withPreviousEventNumber(1L).build();
+        final PublishedEvent publishedEvent_4 = publishedEventBuilder().withPositionInStream(3L).withEventNumber(4L).withPreviousEventNumber(2L).build();
+        final PublishedEvent publishedEvent_5 = publishedEventBuilder().withPositionInStream(4L).withEventNumber(5L).withPreviousEventNumber(4L).build();
+
+        publishedEventQueries.insertPublishedEvents(asList(publishedEvent_5, publishedEvent_1, publishedEvent_4, publishedEvent_2), eventStoreDataSource);
+
+        assertThat(publishedEventQueries.findPublishedEventsAfter(1L, 2, eventStoreDataSource), is(asList(publishedEvent_2, publishedEvent_4)));
+        assertThat(publishedEventQueries.findPublishedEventsAfter(4L, 10, eventStoreDataSource), is(asList(publishedEvent_5)));
+        assertThat(publishedEventQueries.findPublishedEventsAfter(5L, 10, eventStoreDataSource).isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldFindWhetherAnyEventBetweenTwoEventNumbersIsWaitingToBePrePublished() throws Exception {
+
+        final EventStoreDataAccess eventStoreDataAccess = new EventStoreDataAccess(eventStoreDataSource);
+        final PrePublishRepository prePublishRepository = new PrePublishRepository();
+
+        final Event event_1 = eventBuilder().withName("event-1").withPositionInStream(1L).build();
+        final Event event_2 = eventBuilder().withName("event-2").withPositionInStream(2L).build();
+
+        eventStoreDataAccess.insertIntoEventLog(event_1);
+        eventStoreDataAccess.insertIntoEventLog(event_2);
+        addToPrePublishQueue(event_2.getId());
+
+        final long eventNumber_1 = prePublishRepository.getEventNumber(event_1.getId(), eventStoreDataSource);
+        final long eventNumber_2 = prePublishRepository.getEventNumber(event_2.getId(), eventStoreDataSource);
+
+        assertThat(publishedEventQueries.hasEventsWaitingToBePrePublishedBetween(eventNumber_1 - 1, eventNumber_1 + 1, eventStoreDataSource), is(false));
+        assertThat(publishedEventQueries.hasEventsWaitingToBePrePublishedBetween(eventNumber_1, eventNumber_2 + 1, eventStoreDataSource), is(true));
+        assertThat(publishedEventQueries.hasEventsWaitingToBePrePublishedBetween(eventNumber_1, eventNumber_2, eventStoreDataSource), is(false));
+    }
+
+    @Test
+    public void shouldUpdateThePreviousEventNumberAndMetadataOfAPublishedEvent() throws Exception {
+
+        final PublishedEvent publishedEvent = publishedEventBuilder()
+                .withPositionInStream(1L)
+                .withEventNumber(5L)
+                .withPreviousEventNumber(0L)
+                .build();
+
+        publishedEventQueries.insertPublishedEvent(publishedEvent, eventStoreDataSource);
+
+        final PublishedEvent linkedPublishedEvent = new PublishedEvent(
+                publishedEvent.getId(),
+                publishedEvent.getStreamId(),
+                publishedEvent.getPositionInStream(),
+                publishedEvent.getName(),
+                "{\"some\": \"updated metadata\"}",
+                publishedEvent.getPayload(),
+                publishedEvent.getCreatedAt(),
+                5L,
+                4L
+        );
+
+        publishedEventQueries.updatePreviousEventNumber(linkedPublishedEvent, eventStoreDataSource);
+
+        assertThat(publishedEventQueries.getPublishedEvent(publishedEvent.getId(), eventStoreDataSource), is(Optional.of(linkedPublishedEvent)));
+    }
+
+    @Test
+    public void shouldClaimTheOldestQueuedPublishedEventsOrderedByEventNumber() throws Exception {
+
+        final PublishedEvent publishedEvent_1 = publishedEventBuilder().withPositionInStream(1L).withEventNumber(1L).withPreviousEventNumber(0L).build();
+        final PublishedEvent publishedEvent_2 = publishedEventBuilder().withPositionInStream(2L).withEventNumber(2L).withPreviousEventNumber(1L).build();
+        final PublishedEvent publishedEvent_3 = publishedEventBuilder().withPositionInStream(3L).withEventNumber(3L).withPreviousEventNumber(2L).build();
+
+        publishedEventQueries.insertPublishedEvents(asList(publishedEvent_1, publishedEvent_2, publishedEvent_3), eventStoreDataSource);
+
+        final ZonedDateTime now = new UtcClock().now();
+        final PrePublishRepository prePublishRepository = new PrePublishRepository();
+        prePublishRepository.addToPublishQueueTable(publishedEvent_2.getId(), now.minusSeconds(3), eventStoreDataSource);
+        prePublishRepository.addToPublishQueueTable(publishedEvent_1.getId(), now.minusSeconds(2), eventStoreDataSource);
+        prePublishRepository.addToPublishQueueTable(publishedEvent_3.getId(), now.minusSeconds(1), eventStoreDataSource);
+
+        final List<PublishedEvent> publishedEvents = publishedEventQueries.claimQueuedPublishedEvents(2, eventStoreDataSource);
+
+        assertThat(publishedEvents, is(asList(publishedEvent_1, publishedEvent_2)));
+    }
+
+    @Test
+    public void shouldFailToClaimQueuedEventsIfAQueuedEventHasNoPublishedEvent() throws Exception {
+
+        final UUID unknownId = randomUUID();
+
+        new PrePublishRepository().addToPublishQueueTable(unknownId, new UtcClock().now(), eventStoreDataSource);
+
+        final PublishedEventException publishedEventException = assertThrows(
+                PublishedEventException.class,
+                () -> publishedEventQueries.claimQueuedPublishedEvents(2, eventStoreDataSource));
+
+        assertThat(publishedEventException.getMessage(), is("Failed to find PublishedEvent with id '" + unknownId + "'"));
+    }
+
+    @Test
+    public void shouldClaimQueuedPublishedEventsOfEachLaneSoThatAllEventsOfAStreamAreInTheSameLane() throws Exception {
+
+        final List<PublishedEvent> allPublishedEvents = new ArrayList<>();
+        final ZonedDateTime now = new UtcClock().now();
+        final PrePublishRepository prePublishRepository = new PrePublishRepository();
+
+        long eventNumber = 1L;
+        for (int streamIndex = 0; streamIndex < 10; streamIndex++) {
+            final UUID streamId = randomUUID();
+            for (long positionInStream = 1L; positionInStream <= 3L; positionInStream++) {
+                final PublishedEvent publishedEvent = publishedEventBuilder()
+                        .withStreamId(streamId)
+                        .withPositionInStream(positionInStream)
+                        .withEventNumber(eventNumber)
+                        .withPreviousEventNumber(eventNumber - 1)
+                        .build();
+                publishedEventQueries.insertPublishedEvent(publishedEvent, eventStoreDataSource);
+                prePublishRepository.addToPublishQueueTable(publishedEvent.getId(), now, eventStoreDataSource);
+                allPublishedEvents.add(publishedEvent);
+                eventNumber++;
+            }
+        }
+
+        final List<PublishedEvent> lane_0 = publishedEventQueries.claimQueuedPublishedEventsInLane(100, 0, 2, eventStoreDataSource);
+        final List<PublishedEvent> lane_1 = publishedEventQueries.claimQueuedPublishedEventsInLane(100, 1, 2, eventStoreDataSource);
+
+        final Set<UUID> streamIdsOfLane_0 = lane_0.stream().map(PublishedEvent::getStreamId).collect(toSet());
+        final Set<UUID> streamIdsOfLane_1 = lane_1.stream().map(PublishedEvent::getStreamId).collect(toSet());
+
+        assertThat(lane_0.size() + lane_1.size(), is(allPublishedEvents.size()));
+        assertThat(streamIdsOfLane_0.stream().anyMatch(streamIdsOfLane_1::contains), is(false));
+
+        final List<PublishedEvent> claimedPublishedEvents = new ArrayList<>(lane_0);
+        claimedPublishedEvents.addAll(lane_1);
+        claimedPublishedEvents.sort(comparing(publishedEvent -> publishedEvent.getEventNumber().orElse(0L)));
+
+        assertThat(claimedPublishedEvents, is(allPublishedEvents));
+    }
+
+    @Test
+    public void shouldOnlyLockALaneIfNoOtherTransactionHoldsItsLock() throws Exception {
+
+        try (final Connection connection = eventStoreDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (final PreparedStatement preparedStatement = connection.prepareStatement("SELECT pg_try_advisory_xact_lock(hashtext('publish_queue:8'), 3)");
+                 final ResultSet resultSet = preparedStatement.executeQuery()) {
+                assertThat(resultSet.next(), is(true));
+                assertThat(resultSet.getBoolean(1), is(true));
+            }
+
+            assertThat(publishedEventQueries.tryLockLane(3, 8, eventStoreDataSource), is(false));
+            assertThat(publishedEventQueries.tryLockLane(4, 8, eventStoreDataSource), is(true));
+            assertThat(publishedEventQueries.tryLockLane(3, 4, eventStoreDataSource), is(true));
+
+            connection.rollback();
+        }
+
+        assertThat(publishedEventQueries.tryLockLane(3, 8, eventStoreDataSource), is(true));
+    }
+
     @Test
     public void shouldTruncatePublishedEventTable() throws Exception {
 
@@ -135,4 +308,13 @@ public class PublishedEventQueriesIT {
             }
         }
     }
+
+    private void addToPrePublishQueue(final UUID eventId) throws Exception {
+        try (final Connection connection = eventStoreDataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO pre_publish_queue (event_log_id, date_queued) VALUES (?, ?)")) {
+            preparedStatement.setObject(1, eventId);
+            preparedStatement.setTimestamp(2, toSqlTimestamp(new UtcClock().now()));
+            preparedStatement.executeUpdate();
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.jdbc;
 
+import static java.util.Arrays.asList;
 import static java.util.Optional.of;
 import static java.util.UUID.fromString;
 import static java.util.UUID.randomUUID;
@@ -16,6 +17,7 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.Published
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
 
 import java.sql.SQLException;
+import java.util.List;
 import java.util.UUID;
 
 import javax.sql.DataSource;
@@ -72,6 +74,40 @@ public class PublishedEventRepositoryTest {
         assertThat(publishedEventException.getMessage(), is("Unable to insert PublishedEvent with id '019edc7f-a5d5-4143-b026-30eb4d4b14c6'"));
     }
 
+    @Test
+    public void shouldUpdateThePreviousEventNumberOfAPublishedEvent() throws Exception {
+
+        final PublishedEvent publishedEvent = mock(PublishedEvent.class);
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+
+        publishedEventRepository.updatePreviousEventNumber(publishedEvent);
+
+        verify(publishedEventQueries).updatePreviousEventNumber(publishedEvent, dataSource);
+    }
+
+    @Test
+    public void shouldThrowExceptionIfUpdatingThePreviousEventNumberFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+        final UUID eventId = fromString("7e0f7bd1-0d0e-4b7c-9a44-3f6b8d5a0c21");
+
+        final PublishedEvent publishedEvent = mock(PublishedEvent.class);
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishedEvent.getId()).thenReturn(eventId);
+        doThrow(sqlException).when(publishedEventQueries).updatePreviousEventNumber(publishedEvent, dataSource);
+
+        final PublishedEventException publishedEventException = assertThrows(
+                PublishedEventException.class,
+                () -> publishedEventRepository.updatePreviousEventNumber(publishedEvent));
+
+        assertThat(publishedEventException.getCause(), is(sqlException));
+        assertThat(publishedEventException.getMessage(), is("Unable to update previous event number of PublishedEvent with id '7e0f7bd1-0d0e-4b7c-9a44-3f6b8d5a0c21'"));
+    }
+
     @Test
     public void shouldGetPublishedEventById() throws Exception {
 
@@ -103,4 +139,89 @@ public class PublishedEventRepositoryTest {
         assertThat(publishedEventException.getMessage(), is("Failed to get PublishedEvent with id '3fa24506-0738-4987-80ab-ccb20318a195'"));
     }
 
+    @Test
+    public void shouldClaimQueuedPublishedEvents() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+        final List<PublishedEvent> publishedEvents = asList(mock(PublishedEvent.class), mock(PublishedEvent.class));
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishedEventQueries.claimQueuedPublishedEvents(50, dataSource)).thenReturn(publishedEvents);
+
+        assertThat(publishedEventRepository.claimQueuedPublishedEvents(50), is(publishedEvents));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfClaimingQueuedPublishedEventsFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishedEventQueries.claimQueuedPublishedEvents(50, dataSource)).thenThrow(sqlException);
+
+        final PublishedEventException publishedEventException = assertThrows(
+                PublishedEventException.class,
+                () -> publishedEventRepository.claimQueuedPublishedEvents(50));
+
+        assertThat(publishedEventException.getCause(), is(sqlException));
+        assertThat(publishedEventException.getMessage(), is("Failed to claim 50 PublishedEvents from publish_queue"));
+    }
+
+    @Test
+    public void shouldClaimQueuedPublishedEventsOfALane() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+        final List<PublishedEvent> publishedEvents = asList(mock(PublishedEvent.class), mock(PublishedEvent.class));
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishedEventQueries.claimQueuedPublishedEventsInLane(50, 3, 8, dataSource)).thenReturn(publishedEvents);
+
+        assertThat(publishedEventRepository.claimQueuedPublishedEventsInLane(50, 3, 8), is(publishedEvents));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfClaimingQueuedPublishedEventsOfALaneFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishedEventQueries.claimQueuedPublishedEventsInLane(50, 3, 8, dataSource)).thenThrow(sqlException);
+
+        final PublishedEventException publishedEventException = assertThrows(
+                PublishedEventException.class,
+                () -> publishedEventRepository.claimQueuedPublishedEventsInLane(50, 3, 8));
+
+        assertThat(publishedEventException.getCause(), is(sqlException));
+        assertThat(publishedEventException.getMessage(), is("Failed to claim 50 PublishedEvents from lane 3 of 8 of publish_queue"));
+    }
+
+    @Test
+    public void shouldTryToLockALane() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishedEventQueries.tryLockLane(3, 8, dataSource)).thenReturn(true);
+
+        assertThat(publishedEventRepository.tryLockLane(3, 8), is(true));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfLockingALaneFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishedEventQueries.tryLockLane(3, 8, dataSource)).thenThrow(sqlException);
+
+        final PublishedEventException publishedEventException = assertThrows(
+                PublishedEventException.class,
+                () -> publishedEventRepository.tryLockLane(3, 8));
+
+        assertThat(publishedEventException.getCause(), is(sqlException));
+        assertThat(publishedEventException.getMessage(), is("Failed to lock lane 3 of 8 of publish_queue"));
+    }
 }
@@ -0,0 +1,97 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.jdbc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import uk.gov.justice.services.test.utils.core.eventsource.EventStoreInitializer;
+import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
+import uk.gov.justice.services.test.utils.persistence.TableCleaner;
+
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PublisherLeaseRepositoryIT {
+
+    private static final String LEASE_NAME = "event-publisher";
+    private static final long LEASE_MILLISECONDS = 60_000L;
+
+    private final DataSource eventStoreDataSource = new FrameworkTestDataSourceFactory().createEventStoreDataSource();
+
+    @InjectMocks
+    private PublisherLeaseRepository publisherLeaseRepository;
+
+    @BeforeEach
+    public void initDatabase() throws Exception {
+        new EventStoreInitializer().initializeEventStore(eventStoreDataSource);
+        new TableCleaner().clean("publisher_lease", eventStoreDataSource);
+    }
+
+    @Test
+    public void shouldAcquireTheLeaseIfNobodyHoldsIt() throws Exception {
+
+        assertThat(publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-1", LEASE_MILLISECONDS, eventStoreDataSource), is(true));
+    }
+
+    @Test
+    public void shouldRenewTheLeaseOfItsHolder() throws Exception {
+
+        publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-1", LEASE_MILLISECONDS, eventStoreDataSource);
+
+        assertThat(publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-1", LEASE_MILLISECONDS, eventStoreDataSource), is(true));
+    }
+
+    @Test
+    public void shouldNotAcquireTheLeaseWhileAnotherHolderHasAValidLease() throws Exception {
+
+        publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-1", LEASE_MILLISECONDS, eventStoreDataSource);
+
+        assertThat(publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-2", LEASE_MILLISECONDS, eventStoreDataSource), is(false));
+        assertThat(publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-1", LEASE_MILLISECONDS, eventStoreDataSource), is(true));
+    }
+
+    @Test
+    public void shouldTakeOverTheLeaseOnceItHasExpired() throws Exception {
+
+        publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-1", 1L, eventStoreDataSource);
+
+        Thread.sleep(20L);
+
+        assertThat(publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-2", LEASE_MILLISECONDS, eventStoreDataSource), is(true));
+        assertThat(publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-1", LEASE_MILLISECONDS, eventStoreDataSource), is(false));
+    }
+
+    @Test
+    public void shouldLetAnotherHolderAcquireTheLeaseOnceItIsReleased() throws Exception {
+
+        publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-1", LEASE_MILLISECONDS, eventStoreDataSource);
+
+        publisherLeaseRepository.release(LEASE_NAME, "node-2", eventStoreDataSource);
+        assertThat(publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-2", LEASE_MILLISECONDS, eventStoreDataSource), is(false));
+
+        publisherLeaseRepository.release(LEASE_NAME, "node-1", eventStoreDataSource);
+        assertThat(publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-2", LEASE_MILLISECONDS, eventStoreDataSource), is(true));
+    }
+
+    @Test
+    public void shouldFindTheMillisecondsLeftOnTheLease() throws Exception {
+
+        assertThat(publisherLeaseRepository.findMillisecondsLeft(LEASE_NAME, eventStoreDataSource), is(Optional.empty()));
+
+        publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, "node-1", LEASE_MILLISECONDS, eventStoreDataSource);
+
+        final long millisecondsLeft = publisherLeaseRepository.findMillisecondsLeft(LEASE_NAME, eventStoreDataSource).get();
+
+        assertThat(millisecondsLeft, is(greaterThan(0L)));
+        assertThat(millisecondsLeft, is(lessThanOrEqualTo(LEASE_MILLISECONDS)));
+    }
+}
@@ -0,0 +1,86 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PrePublishRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class EventNumberWatermarkTest {
+
+    @Mock
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Mock
+    private PrePublishRepository prePublishRepository;
+
+    @InjectMocks
+    private EventNumberWatermark eventNumberWatermark;
+
+    @Test
+    public void shouldSeedTheWatermarkOnceFromTheHighestPublishedEventNumber() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(prePublishRepository.getHighestPublishedEventNumber(dataSource)).thenReturn(23L);
+
+        assertThat(eventNumberWatermark.previousEventNumberOf(24L), is(of(23L)));
+        assertThat(eventNumberWatermark.previousEventNumberOf(25L), is(empty()));
+
+        verify(prePublishRepository, times(1)).getHighestPublishedEventNumber(dataSource);
+    }
+
+    @Test
+    public void shouldOnlyGiveThePreviousEventNumberOfTheEventImmediatelyFollowingTheWatermark() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(prePublishRepository.getHighestPublishedEventNumber(dataSource)).thenReturn(0L);
+
+        assertThat(eventNumberWatermark.previousEventNumberOf(1L), is(of(0L)));
+
+        eventNumberWatermark.advanceTo(1L);
+        assertThat(eventNumberWatermark.previousEventNumberOf(2L), is(of(1L)));
+        assertThat(eventNumberWatermark.previousEventNumberOf(4L), is(empty()));
+        assertThat(eventNumberWatermark.previousEventNumberOf(1L), is(empty()));
+
+        eventNumberWatermark.advanceTo(4L);
+        assertThat(eventNumberWatermark.previousEventNumberOf(5L), is(of(4L)));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfSeedingTheWatermarkFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(prePublishRepository.getHighestPublishedEventNumber(dataSource)).thenThrow(sqlException);
+
+        final PublishedEventException expected = assertThrows(PublishedEventException.class, () -> eventNumberWatermark.previousEventNumberOf(1L));
+
+        assertThat(expected.getCause(), is(sqlException));
+        assertThat(expected.getMessage(), is("Failed to get highest event number from published_event table"));
+    }
+}
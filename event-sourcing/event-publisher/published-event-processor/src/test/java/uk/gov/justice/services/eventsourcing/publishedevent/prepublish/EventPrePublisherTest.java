@@ -1,18 +1,29 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
 import static java.util.UUID.fromString;
 import static java.util.UUID.randomUUID;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Answers.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PUBLISH_QUEUE_TABLE;
 
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PrePublishRepository;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventQueries;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.EventsQueuedEvent;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
@@ -58,6 +69,12 @@ public class EventPrePublisherTest {
     @Mock
     private PublishedEventFactory publishedEventFactory;
 
+    @Mock
+    private EventNumberWatermark eventNumberWatermark;
+
+    @Mock
+    private javax.enterprise.event.Event<EventsQueuedEvent> eventsQueuedEventFirer;
+
     @InjectMocks
     private EventPrePublisher eventPrePublisher;
 
@@ -94,9 +111,48 @@ public class EventPrePublisherTest {
 
         eventPrePublisher.prePublish(event);
 
-        final InOrder inOrder = inOrder(publishedEventQueries, prePublishRepository);
+        final InOrder inOrder = inOrder(publishedEventQueries, prePublishRepository, eventsQueuedEventFirer);
+        inOrder.verify(publishedEventQueries).insertPublishedEvent(publishedEvent, dataSource);
+        inOrder.verify(prePublishRepository).addToPublishQueueTable(eventId, now, dataSource);
+        inOrder.verify(eventsQueuedEventFirer).fire(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+    }
+
+    @Test
+    public void shouldTakeThePreviousEventNumberFromTheWatermarkIfTheEventFollowsIt() throws Exception {
+
+        final UUID eventId = randomUUID();
+        final Metadata originalMetadata = mock(Metadata.class);
+        final Metadata updatedMetadata = mock(Metadata.class);
+
+        final long eventNumber = 982L;
+        final long previousEventNumber = 981L;
+
+        final ZonedDateTime now = new UtcClock().now();
+
+        final Event event = mock(Event.class);
+        final PublishedEvent publishedEvent = mock(PublishedEvent.class);
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(event.getId()).thenReturn(eventId);
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(prePublishRepository.getEventNumber(eventId, dataSource)).thenReturn(eventNumber);
+        when(eventNumberWatermark.previousEventNumberOf(eventNumber)).thenReturn(of(previousEventNumber));
+        when(clock.now()).thenReturn(now);
+        when(eventConverter.metadataOf(event)).thenReturn(originalMetadata);
+        when(metadataEventNumberUpdater.updateMetadataJson(
+                originalMetadata,
+                previousEventNumber,
+                eventNumber)).thenReturn(updatedMetadata);
+        when(publishedEventFactory.create(event, updatedMetadata, eventNumber, previousEventNumber)).thenReturn(publishedEvent);
+
+        eventPrePublisher.prePublish(event);
+
+        final InOrder inOrder = inOrder(publishedEventQueries, prePublishRepository, eventNumberWatermark);
         inOrder.verify(publishedEventQueries).insertPublishedEvent(publishedEvent, dataSource);
         inOrder.verify(prePublishRepository).addToPublishQueueTable(eventId, now, dataSource);
+        inOrder.verify(eventNumberWatermark).advanceTo(eventNumber);
+
+        verify(prePublishRepository, never()).getPreviousEventNumber(eventNumber, dataSource);
     }
 
     @Test
@@ -121,4 +177,138 @@ public class EventPrePublisherTest {
             assertThat(expected.getMessage(), is("Failed to insert event_number into metadata in event_log table for event id 5dd46779-07a6-4772-b5e8-e9d280708269"));
         }
     }
+
+    @Test
+    public void shouldPrePublishABatchOfEventsOnlyQueryingThePreviousEventNumberIfNotFollowingTheWatermark() throws Exception {
+
+        final UUID eventId_1 = randomUUID();
+        final UUID eventId_2 = randomUUID();
+        final UUID eventId_3 = randomUUID();
+        final Event event_1 = mock(Event.class);
+        final Event event_2 = mock(Event.class);
+        final Event event_3 = mock(Event.class);
+        final Metadata metadata_1 = mock(Metadata.class);
+        final Metadata metadata_2 = mock(Metadata.class);
+        final Metadata metadata_3 = mock(Metadata.class);
+        final Metadata updatedMetadata_1 = mock(Metadata.class);
+        final Metadata updatedMetadata_2 = mock(Metadata.class);
+        final Metadata updatedMetadata_3 = mock(Metadata.class);
+        final PublishedEvent publishedEvent_1 = mock(PublishedEvent.class);
+        final PublishedEvent publishedEvent_2 = mock(PublishedEvent.class);
+        final PublishedEvent publishedEvent_3 = mock(PublishedEvent.class);
+        final DataSource dataSource = mock(DataSource.class);
+
+        final ZonedDateTime now = new UtcClock().now();
+
+        when(event_1.getId()).thenReturn(eventId_1);
+        when(event_2.getId()).thenReturn(eventId_2);
+        when(event_3.getId()).thenReturn(eventId_3);
+        when(event_1.getEventNumber()).thenReturn(of(10L));
+        when(event_2.getEventNumber()).thenReturn(of(11L));
+        when(event_3.getEventNumber()).thenReturn(of(14L));
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(eventNumberWatermark.previousEventNumberOf(10L)).thenReturn(empty());
+        when(eventNumberWatermark.previousEventNumberOf(11L)).thenReturn(of(10L));
+        when(eventNumberWatermark.previousEventNumberOf(14L)).thenReturn(empty());
+        when(prePublishRepository.getPreviousEventNumber(10L, dataSource)).thenReturn(9L);
+        when(prePublishRepository.getPreviousEventNumber(14L, dataSource)).thenReturn(12L);
+        when(clock.now()).thenReturn(now);
+        when(eventConverter.metadataOf(event_1)).thenReturn(metadata_1);
+        when(eventConverter.metadataOf(event_2)).thenReturn(metadata_2);
+        when(eventConverter.metadataOf(event_3)).thenReturn(metadata_3);
+        when(metadataEventNumberUpdater.updateMetadataJson(metadata_1, 9L, 10L)).thenReturn(updatedMetadata_1);
+        when(metadataEventNumberUpdater.updateMetadataJson(metadata_2, 10L, 11L)).thenReturn(updatedMetadata_2);
+        when(metadataEventNumberUpdater.updateMetadataJson(metadata_3, 12L, 14L)).thenReturn(updatedMetadata_3);
+        when(publishedEventFactory.create(event_1, updatedMetadata_1, 10L, 9L)).thenReturn(publishedEvent_1);
+        when(publishedEventFactory.create(event_2, updatedMetadata_2, 11L, 10L)).thenReturn(publishedEvent_2);
+        when(publishedEventFactory.create(event_3, updatedMetadata_3, 14L, 12L)).thenReturn(publishedEvent_3);
+
+        eventPrePublisher.prePublish(asList(event_1, event_2, event_3));
+
+        final InOrder inOrder = inOrder(eventNumberWatermark, publishedEventQueries, prePublishRepository, eventsQueuedEventFirer);
+        inOrder.verify(eventNumberWatermark).advanceTo(10L);
+        inOrder.verify(eventNumberWatermark).advanceTo(11L);
+        inOrder.verify(eventNumberWatermark).advanceTo(14L);
+        inOrder.verify(publishedEventQueries).insertPublishedEvents(asList(publishedEvent_1, publishedEvent_2, publishedEvent_3), dataSource);
+        inOrder.verify(prePublishRepository).addToPublishQueueTable(asList(eventId_1, eventId_2, eventId_3), now, dataSource);
+        inOrder.verify(eventsQueuedEventFirer).fire(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
+
+        verify(prePublishRepository, never()).getPreviousEventNumber(11L, dataSource);
+    }
+
+    @Test
+    public void shouldThrowAPublishQueueExceptionIfAnSQLExceptionIsThrownWhilePrePublishingABatch() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+
+        final Event event = mock(Event.class);
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(event.getEventNumber()).thenReturn(of(23L));
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(prePublishRepository.getPreviousEventNumber(23L, dataSource)).thenThrow(sqlException);
+
+        final PublishedEventException expected = assertThrows(PublishedEventException.class, () -> eventPrePublisher.prePublish(singletonList(event)));
+
+        assertThat(expected.getCause(), is(sqlException));
+        assertThat(expected.getMessage(), is("Failed to pre-publish 1 events from event number 23"));
+    }
+
+    @Test
+    public void shouldDoNothingIfTheBatchIsEmpty() throws Exception {
+
+        eventPrePublisher.prePublish(emptyList());
+
+        verifyNoInteractions(eventStoreDataSourceProvider, prePublishRepository, publishedEventQueries);
+    }
+
+    @Test
+    public void shouldPrePublishABatchOfEventsWithoutAddingThemToThePublishQueue() throws Exception {
+
+        final Event event_1 = mock(Event.class);
+        final Event event_2 = mock(Event.class);
+        final Metadata metadata_1 = mock(Metadata.class);
+        final Metadata metadata_2 = mock(Metadata.class);
+        final Metadata updatedMetadata_1 = mock(Metadata.class);
+        final Metadata updatedMetadata_2 = mock(Metadata.class);
+        final PublishedEvent publishedEvent_1 = mock(PublishedEvent.class);
+        final PublishedEvent publishedEvent_2 = mock(PublishedEvent.class);
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(event_1.getEventNumber()).thenReturn(of(10L));
+        when(event_2.getEventNumber()).thenReturn(of(11L));
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(eventNumberWatermark.previousEventNumberOf(10L)).thenReturn(of(9L));
+        when(eventNumberWatermark.previousEventNumberOf(11L)).thenReturn(of(10L));
+        when(eventConverter.metadataOf(event_1)).thenReturn(metadata_1);
+        when(eventConverter.metadataOf(event_2)).thenReturn(metadata_2);
+        when(metadataEventNumberUpdater.updateMetadataJson(metadata_1, 9L, 10L)).thenReturn(updatedMetadata_1);
+        when(metadataEventNumberUpdater.updateMetadataJson(metadata_2, 10L, 11L)).thenReturn(updatedMetadata_2);
+        when(publishedEventFactory.create(event_1, updatedMetadata_1, 10L, 9L)).thenReturn(publishedEvent_1);
+        when(publishedEventFactory.create(event_2, updatedMetadata_2, 11L, 10L)).thenReturn(publishedEvent_2);
+
+        assertThat(eventPrePublisher.prePublishWithoutQueueing(asList(event_1, event_2)), is(asList(publishedEvent_1, publishedEvent_2)));
+
+        verify(publishedEventQueries).insertPublishedEvents(asList(publishedEvent_1, publishedEvent_2), dataSource);
+        verify(eventNumberWatermark).advanceTo(11L);
+        verifyNoInteractions(prePublishRepository, clock, eventsQueuedEventFirer);
+    }
+
+    @Test
+    public void shouldThrowAPublishQueueExceptionIfAnSQLExceptionIsThrownWhilePrePublishingABatchWithoutQueueing() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+
+        final Event event = mock(Event.class);
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(event.getEventNumber()).thenReturn(of(23L));
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(prePublishRepository.getPreviousEventNumber(23L, dataSource)).thenThrow(sqlException);
+
+        final PublishedEventException expected = assertThrows(PublishedEventException.class, () -> eventPrePublisher.prePublishWithoutQueueing(singletonList(event)));
+
+        assertThat(expected.getCause(), is(sqlException));
+        assertThat(expected.getMessage(), is("Failed to pre-publish 1 events from event number 23"));
+    }
 }
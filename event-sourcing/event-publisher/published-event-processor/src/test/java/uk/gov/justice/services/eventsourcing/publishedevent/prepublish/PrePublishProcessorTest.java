@@ -1,23 +1,40 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.prepublish;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PRE_PUBLISHED;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PUBLISHED;
 
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publisher.jms.EventPublisher;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PrePublishQueueRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+import uk.gov.justice.services.messaging.JsonEnvelope;
 
+import java.time.ZonedDateTime;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -34,6 +51,18 @@ public class PrePublishProcessorTest {
     @Mock
     private EventJdbcRepository eventJdbcRepository;
 
+    @Mock
+    private EventPublisher eventPublisher;
+
+    @Mock
+    private EventConverter eventConverter;
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @Mock
+    private UtcClock clock;
+
     @InjectMocks
     private PrePublishProcessor prePublishProcessor;
 
@@ -77,4 +106,121 @@ public class PrePublishProcessorTest {
 
         verifyNoInteractions(eventPrePublisher);
     }
+
+    @Test
+    public void shouldPrePublishABatchOfEvents() throws Exception {
+
+        final UUID eventId_1 = UUID.randomUUID();
+        final UUID eventId_2 = UUID.randomUUID();
+        final Event event_1 = mock(Event.class);
+        final Event event_2 = mock(Event.class);
+
+        final ZonedDateTime createdAt_1 = new UtcClock().now().minusSeconds(2);
+        final ZonedDateTime createdAt_2 = createdAt_1.plusSeconds(1);
+        final ZonedDateTime now = createdAt_1.plusSeconds(3);
+
+        when(prePublishQueueRepository.popNextEventIds(10)).thenReturn(asList(eventId_2, eventId_1));
+        when(eventJdbcRepository.findByIdsOrderByEventNumber(asList(eventId_2, eventId_1))).thenReturn(asList(event_1, event_2));
+        when(event_1.getCreatedAt()).thenReturn(createdAt_1);
+        when(event_2.getCreatedAt()).thenReturn(createdAt_2);
+        when(clock.now()).thenReturn(now);
+
+        assertThat(prePublishProcessor.prePublishNextEvents(10), is(2));
+
+        final InOrder inOrder = inOrder(eventPrePublisher, pipelineMetrics);
+        inOrder.verify(eventPrePublisher).prePublish(asList(event_1, event_2));
+        inOrder.verify(pipelineMetrics).eventProcessed(PRE_PUBLISHED, createdAt_1, now);
+        inOrder.verify(pipelineMetrics).eventProcessed(PRE_PUBLISHED, createdAt_2, now);
+    }
+
+    @Test
+    public void shouldPrePublishNothingIfTheQueueIsEmpty() throws Exception {
+
+        when(prePublishQueueRepository.popNextEventIds(10)).thenReturn(emptyList());
+
+        assertThat(prePublishProcessor.prePublishNextEvents(10), is(0));
+
+        verifyNoInteractions(eventJdbcRepository, eventPrePublisher);
+    }
+
+    @Test
+    public void shouldThrowExceptionIfAnyEventOfTheBatchIsNotFoundInEventLogTable() throws Exception {
+
+        final UUID eventId_1 = UUID.randomUUID();
+        final UUID eventId_2 = UUID.randomUUID();
+        final Event event_1 = mock(Event.class);
+
+        when(event_1.getId()).thenReturn(eventId_1);
+        when(prePublishQueueRepository.popNextEventIds(10)).thenReturn(asList(eventId_1, eventId_2));
+        when(eventJdbcRepository.findByIdsOrderByEventNumber(asList(eventId_1, eventId_2))).thenReturn(singletonList(event_1));
+
+        final PublishedEventException expected = assertThrows(PublishedEventException.class, () -> prePublishProcessor.prePublishNextEvents(10));
+
+        assertThat(expected.getMessage(), is("Failed to find Events with ids [" + eventId_2 + "]"));
+        verifyNoInteractions(eventPrePublisher);
+    }
+
+    @Test
+    public void shouldPrePublishABatchOfEventsWithoutQueueingThem() throws Exception {
+
+        final UUID eventId_1 = UUID.randomUUID();
+        final UUID eventId_2 = UUID.randomUUID();
+        final Event event_1 = mock(Event.class);
+        final Event event_2 = mock(Event.class);
+
+        when(prePublishQueueRepository.popNextEventIds(10)).thenReturn(asList(eventId_1, eventId_2));
+        when(eventJdbcRepository.findByIdsOrderByEventNumber(asList(eventId_1, eventId_2))).thenReturn(asList(event_1, event_2));
+
+        assertThat(prePublishProcessor.prePublishNextEventsWithoutQueueing(10), is(2));
+
+        verify(eventPrePublisher).prePublishWithoutQueueing(asList(event_1, event_2));
+        verify(eventPrePublisher, never()).prePublish(asList(event_1, event_2));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void shouldPrePublishAndPublishABatchOfEventsInOneGo() throws Exception {
+
+        final UUID eventId_1 = UUID.randomUUID();
+        final UUID eventId_2 = UUID.randomUUID();
+        final Event event_1 = mock(Event.class);
+        final Event event_2 = mock(Event.class);
+        final PublishedEvent publishedEvent_1 = mock(PublishedEvent.class);
+        final PublishedEvent publishedEvent_2 = mock(PublishedEvent.class);
+        final JsonEnvelope jsonEnvelope_1 = mock(JsonEnvelope.class);
+        final JsonEnvelope jsonEnvelope_2 = mock(JsonEnvelope.class);
+
+        when(prePublishQueueRepository.popNextEventIds(10)).thenReturn(asList(eventId_2, eventId_1));
+        when(eventJdbcRepository.findByIdsOrderByEventNumber(asList(eventId_2, eventId_1))).thenReturn(asList(event_1, event_2));
+        when(eventPrePublisher.prePublishWithoutQueueing(asList(event_1, event_2))).thenReturn(asList(publishedEvent_1, publishedEvent_2));
+        when(eventConverter.envelopeOf(publishedEvent_1)).thenReturn(jsonEnvelope_1);
+        when(eventConverter.envelopeOf(publishedEvent_2)).thenReturn(jsonEnvelope_2);
+
+        final ZonedDateTime createdAt = new UtcClock().now().minusSeconds(2);
+        final ZonedDateTime now = createdAt.plusSeconds(2);
+        when(publishedEvent_1.getCreatedAt()).thenReturn(createdAt);
+        when(publishedEvent_2.getCreatedAt()).thenReturn(createdAt);
+        when(clock.now()).thenReturn(now);
+
+        assertThat(prePublishProcessor.prePublishAndPublishNextEvents(10), is(2));
+
+        final InOrder inOrder = inOrder(eventPrePublisher, eventPublisher, pipelineMetrics);
+        inOrder.verify(eventPrePublisher).prePublishWithoutQueueing(asList(event_1, event_2));
+        inOrder.verify(eventPublisher).publish(jsonEnvelope_1);
+        inOrder.verify(eventPublisher).publish(jsonEnvelope_2);
+        inOrder.verify(pipelineMetrics, times(2)).eventProcessed(PRE_PUBLISHED, createdAt, now);
+        inOrder.verify(pipelineMetrics, times(2)).eventProcessed(PUBLISHED, createdAt, now);
+
+        verify(eventPrePublisher, never()).prePublish(asList(event_1, event_2));
+    }
+
+    @Test
+    public void shouldPrePublishAndPublishNothingIfTheQueueIsEmpty() throws Exception {
+
+        when(prePublishQueueRepository.popNextEventIds(10)).thenReturn(emptyList());
+
+        assertThat(prePublishProcessor.prePublishAndPublishNextEvents(10), is(0));
+
+        verifyNoInteractions(eventJdbcRepository, eventPrePublisher, eventPublisher);
+    }
 }
@@ -0,0 +1,35 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publish;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import uk.gov.justice.services.common.util.UtcClock;
+
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class PublishCursorGapWaitTest {
+
+    private final PublishCursorGapWait publishCursorGapWait = new PublishCursorGapWait();
+
+    @Test
+    public void shouldOnlyHaveWaitedLongEnoughOnceTheCursorHasBeenHeldUpForTheGapWait() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+
+        assertThat(publishCursorGapWait.hasWaitedLongEnough(23L, now, 2000L), is(false));
+        assertThat(publishCursorGapWait.hasWaitedLongEnough(23L, now.plusNanos(1_999_000_000L), 2000L), is(false));
+        assertThat(publishCursorGapWait.hasWaitedLongEnough(23L, now.plusSeconds(2), 2000L), is(true));
+    }
+
+    @Test
+    public void shouldStartWaitingAgainIfTheCursorHasMoved() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+
+        assertThat(publishCursorGapWait.hasWaitedLongEnough(23L, now, 2000L), is(false));
+        assertThat(publishCursorGapWait.hasWaitedLongEnough(42L, now.plusSeconds(3), 2000L), is(false));
+        assertThat(publishCursorGapWait.hasWaitedLongEnough(42L, now.plusSeconds(5), 2000L), is(true));
+    }
+}
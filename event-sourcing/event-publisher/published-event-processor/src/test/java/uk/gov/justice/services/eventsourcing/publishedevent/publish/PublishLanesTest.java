@@ -0,0 +1,55 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publish;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PublishLanesTest {
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @InjectMocks
+    private PublishLanes publishLanes;
+
+    @Test
+    public void shouldOnlyLetOneWorkerOfThisNodeDrainALaneAtATime() throws Exception {
+
+        assertThat(publishLanes.tryStart(2), is(true));
+        assertThat(publishLanes.tryStart(2), is(false));
+        assertThat(publishLanes.tryStart(3), is(true));
+
+        publishLanes.finish(2);
+
+        assertThat(publishLanes.tryStart(2), is(true));
+    }
+
+    @Test
+    public void shouldRegisterTheMetricsOfEachLaneOnce() throws Exception {
+
+        when(pipelineMetrics.registerIfAbsent(any(), any(), any())).thenCallRealMethod();
+
+        final PublishLaneMetrics publishLaneMetrics = publishLanes.forLane(2);
+
+        assertThat(publishLanes.forLane(2), is(sameInstance(publishLaneMetrics)));
+        assertThat(publishLanes.getMetricsByLane().get(2), is(sameInstance(publishLaneMetrics)));
+        assertThat(publishLaneMetrics.getMetricsType(), is("PublishLaneMetrics"));
+        assertThat(publishLaneMetrics.getMetricsName(), is("2"));
+        assertThat(publishLaneMetrics.getLane(), is(2));
+
+        verify(pipelineMetrics, times(1)).register(publishLaneMetrics);
+    }
+}
@@ -0,0 +1,274 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publish;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.publish.PublishedEventCursorPublisher.CURSOR_NAME;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PUBLISHED;
+import static uk.gov.justice.services.test.utils.events.PublishedEventBuilder.publishedEventBuilder;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishCursorRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventQueries;
+import uk.gov.justice.services.eventsourcing.publisher.jms.EventPublisher;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class PublishedEventCursorPublisherTest {
+
+    private static final long GAP_WAIT_MILLISECONDS = 2000L;
+
+    @Mock
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Mock
+    private PublishCursorRepository publishCursorRepository;
+
+    @Mock
+    private PublishedEventQueries publishedEventQueries;
+
+    @Mock
+    private PublishCursorGapWait publishCursorGapWait;
+
+    @Mock
+    private EventPublisher eventPublisher;
+
+    @Mock
+    private EventConverter eventConverter;
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @Mock
+    private UtcClock clock;
+
+    @Mock
+    private Logger logger;
+
+    @InjectMocks
+    private PublishedEventCursorPublisher publishedEventCursorPublisher;
+
+    @Test
+    public void shouldPublishTheEventsAfterTheCursorAndAdvanceTheCursorPastThem() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+        final ZonedDateTime now = new UtcClock().now();
+        final PublishedEvent publishedEvent_1 = publishedEvent(11L, 10L);
+        final PublishedEvent publishedEvent_2 = publishedEvent(12L, 11L);
+        final JsonEnvelope jsonEnvelope_1 = mock(JsonEnvelope.class);
+        final JsonEnvelope jsonEnvelope_2 = mock(JsonEnvelope.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishCursorRepository.lockCursor(CURSOR_NAME, dataSource)).thenReturn(of(10L));
+        when(publishedEventQueries.findPublishedEventsAfter(10L, 100, dataSource)).thenReturn(asList(publishedEvent_1, publishedEvent_2));
+        when(eventConverter.envelopeOf(publishedEvent_1)).thenReturn(jsonEnvelope_1);
+        when(eventConverter.envelopeOf(publishedEvent_2)).thenReturn(jsonEnvelope_2);
+        when(clock.now()).thenReturn(now);
+
+        assertThat(publishedEventCursorPublisher.publishNextEvents(100, GAP_WAIT_MILLISECONDS), is(2));
+
+        final InOrder inOrder = inOrder(eventPublisher, publishCursorRepository);
+        inOrder.verify(eventPublisher).publish(jsonEnvelope_1);
+        inOrder.verify(eventPublisher).publish(jsonEnvelope_2);
+        inOrder.verify(publishCursorRepository).advanceCursor(CURSOR_NAME, 12L, now, dataSource);
+        verify(pipelineMetrics, times(2)).eventProcessed(eq(PUBLISHED), any(ZonedDateTime.class), eq(now));
+
+        verifyNoInteractions(publishCursorGapWait);
+    }
+
+    @Test
+    public void shouldWaitForAGapAfterTheCursorEvenIfThePreviousEventNumberOfTheNextEventIsTheCursor() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+        final ZonedDateTime now = new UtcClock().now();
+        final PublishedEvent publishedEvent = publishedEvent(15L, 10L);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishCursorRepository.lockCursor(CURSOR_NAME, dataSource)).thenReturn(of(10L));
+        when(publishedEventQueries.findPublishedEventsAfter(10L, 100, dataSource)).thenReturn(asList(publishedEvent));
+        when(clock.now()).thenReturn(now);
+        when(publishCursorGapWait.hasWaitedLongEnough(10L, now, GAP_WAIT_MILLISECONDS)).thenReturn(false);
+
+        assertThat(publishedEventCursorPublisher.publishNextEvents(100, GAP_WAIT_MILLISECONDS), is(0));
+
+        verifyNoInteractions(eventPublisher);
+        verify(publishCursorRepository, never()).advanceCursor(eq(CURSOR_NAME), anyLong(), eq(now), eq(dataSource));
+    }
+
+    @Test
+    public void shouldOnlyPublishTheEventsBeforeAGap() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+        final ZonedDateTime now = new UtcClock().now();
+        final PublishedEvent publishedEvent_1 = publishedEvent(11L, 10L);
+        final PublishedEvent publishedEvent_2 = publishedEvent(14L, 13L);
+        final JsonEnvelope jsonEnvelope_1 = mock(JsonEnvelope.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishCursorRepository.lockCursor(CURSOR_NAME, dataSource)).thenReturn(of(10L));
+        when(publishedEventQueries.findPublishedEventsAfter(10L, 100, dataSource)).thenReturn(asList(publishedEvent_1, publishedEvent_2));
+        when(eventConverter.envelopeOf(publishedEvent_1)).thenReturn(jsonEnvelope_1);
+        when(clock.now()).thenReturn(now);
+
+        assertThat(publishedEventCursorPublisher.publishNextEvents(100, GAP_WAIT_MILLISECONDS), is(1));
+
+        verify(eventPublisher).publish(jsonEnvelope_1);
+        verify(eventConverter, never()).envelopeOf(publishedEvent_2);
+        verify(publishCursorRepository).advanceCursor(CURSOR_NAME, 11L, now, dataSource);
+        verifyNoInteractions(publishCursorGapWait);
+    }
+
+    @Test
+    public void shouldPublishNothingWhileWaitingForAGapAfterTheCursorToBeFilled() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+        final ZonedDateTime now = new UtcClock().now();
+        final PublishedEvent publishedEvent = publishedEvent(14L, 13L);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishCursorRepository.lockCursor(CURSOR_NAME, dataSource)).thenReturn(of(10L));
+        when(publishedEventQueries.findPublishedEventsAfter(10L, 100, dataSource)).thenReturn(asList(publishedEvent));
+        when(clock.now()).thenReturn(now);
+        when(publishCursorGapWait.hasWaitedLongEnough(10L, now, GAP_WAIT_MILLISECONDS)).thenReturn(false);
+
+        assertThat(publishedEventCursorPublisher.publishNextEvents(100, GAP_WAIT_MILLISECONDS), is(0));
+
+        verifyNoInteractions(eventPublisher);
+        verify(publishCursorRepository, never()).advanceCursor(eq(CURSOR_NAME), anyLong(), eq(now), eq(dataSource));
+    }
+
+    @Test
+    public void shouldSkipAGapAfterTheCursorOnceTheGapWaitHasRunOut() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+        final ZonedDateTime now = new UtcClock().now();
+        final PublishedEvent publishedEvent_1 = publishedEvent(14L, 13L);
+        final PublishedEvent publishedEvent_2 = publishedEvent(15L, 14L);
+        final JsonEnvelope jsonEnvelope_1 = mock(JsonEnvelope.class);
+        final JsonEnvelope jsonEnvelope_2 = mock(JsonEnvelope.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishCursorRepository.lockCursor(CURSOR_NAME, dataSource)).thenReturn(of(10L));
+        when(publishedEventQueries.findPublishedEventsAfter(10L, 100, dataSource)).thenReturn(asList(publishedEvent_1, publishedEvent_2));
+        when(clock.now()).thenReturn(now);
+        when(publishCursorGapWait.hasWaitedLongEnough(10L, now, GAP_WAIT_MILLISECONDS)).thenReturn(true);
+        when(publishedEventQueries.hasEventsWaitingToBePrePublishedBetween(10L, 14L, dataSource)).thenReturn(false);
+        when(eventConverter.envelopeOf(publishedEvent_1)).thenReturn(jsonEnvelope_1);
+        when(eventConverter.envelopeOf(publishedEvent_2)).thenReturn(jsonEnvelope_2);
+
+        assertThat(publishedEventCursorPublisher.publishNextEvents(100, GAP_WAIT_MILLISECONDS), is(2));
+
+        verify(logger).warn("Skipping gap in event numbers between 10 and 14 after waiting 2000 milliseconds");
+        verify(eventPublisher).publish(jsonEnvelope_1);
+        verify(eventPublisher).publish(jsonEnvelope_2);
+        verify(publishCursorRepository).advanceCursor(CURSOR_NAME, 15L, now, dataSource);
+    }
+
+    @Test
+    public void shouldNotSkipAGapAfterTheCursorWhileAnEventInItIsWaitingToBePrePublished() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+        final ZonedDateTime now = new UtcClock().now();
+        final PublishedEvent publishedEvent = publishedEvent(14L, 13L);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishCursorRepository.lockCursor(CURSOR_NAME, dataSource)).thenReturn(of(10L));
+        when(publishedEventQueries.findPublishedEventsAfter(10L, 100, dataSource)).thenReturn(asList(publishedEvent));
+        when(clock.now()).thenReturn(now);
+        when(publishCursorGapWait.hasWaitedLongEnough(10L, now, GAP_WAIT_MILLISECONDS)).thenReturn(true);
+        when(publishedEventQueries.hasEventsWaitingToBePrePublishedBetween(10L, 14L, dataSource)).thenReturn(true);
+
+        assertThat(publishedEventCursorPublisher.publishNextEvents(100, GAP_WAIT_MILLISECONDS), is(0));
+
+        verifyNoInteractions(eventPublisher, logger);
+        verify(publishCursorRepository, never()).advanceCursor(eq(CURSOR_NAME), anyLong(), eq(now), eq(dataSource));
+    }
+
+    @Test
+    public void shouldPublishNothingIfThereAreNoEventsAfterTheCursor() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishCursorRepository.lockCursor(CURSOR_NAME, dataSource)).thenReturn(of(10L));
+        when(publishedEventQueries.findPublishedEventsAfter(10L, 100, dataSource)).thenReturn(emptyList());
+
+        assertThat(publishedEventCursorPublisher.publishNextEvents(100, GAP_WAIT_MILLISECONDS), is(0));
+
+        verifyNoInteractions(eventPublisher, publishCursorGapWait, clock);
+    }
+
+    @Test
+    public void shouldCreateTheCursorIfItDoesNotExist() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+        final ZonedDateTime now = new UtcClock().now();
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishCursorRepository.lockCursor(CURSOR_NAME, dataSource)).thenReturn(empty(), of(7L));
+        when(clock.now()).thenReturn(now);
+        when(publishedEventQueries.findPublishedEventsAfter(7L, 100, dataSource)).thenReturn(emptyList());
+
+        assertThat(publishedEventCursorPublisher.publishNextEvents(100, GAP_WAIT_MILLISECONDS), is(0));
+
+        verify(publishCursorRepository).createCursor(CURSOR_NAME, now, dataSource);
+    }
+
+    @Test
+    public void shouldThrowAPublishedEventExceptionIfAnSQLExceptionIsThrown() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publishCursorRepository.lockCursor(CURSOR_NAME, dataSource)).thenThrow(sqlException);
+
+        final PublishedEventException publishedEventException = assertThrows(
+                PublishedEventException.class,
+                () -> publishedEventCursorPublisher.publishNextEvents(100, GAP_WAIT_MILLISECONDS));
+
+        assertThat(publishedEventException.getCause(), is(sqlException));
+        assertThat(publishedEventException.getMessage(), is("Failed to publish events from publish_cursor 'event-publisher'"));
+    }
+
+    private PublishedEvent publishedEvent(final long eventNumber, final long previousEventNumber) {
+        return publishedEventBuilder()
+                .withId(randomUUID())
+                .withEventNumber(eventNumber)
+                .withPreviousEventNumber(previousEventNumber)
+                .build();
+    }
+}
@@ -1,27 +1,36 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.publish;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PUBLISHED;
 
+import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventRepository;
 import uk.gov.justice.services.eventsourcing.publisher.jms.EventPublisher;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueueRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 
+import java.time.ZonedDateTime;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -41,6 +50,15 @@ public class PublishedPublishQueuesDataAccessAndPublisherTest {
     @Mock
     private PublishedEventRepository publishedEventRepository;
 
+    @Mock
+    private PublishLanes publishLanes;
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @Mock
+    private UtcClock clock;
+
     @InjectMocks
     private PublishedEventDeQueuerAndPublisher publishedEventDeQueuerAndPublisher;
 
@@ -92,4 +110,114 @@ public class PublishedPublishQueuesDataAccessAndPublisherTest {
         verifyNoInteractions(eventConverter);
         verifyNoInteractions(eventPublisher);
     }
+
+    @Test
+    public void shouldPublishABatchOfClaimedPublishedEventsInOrderThenDeleteThemFromTheQueue() throws Exception {
+
+        final UUID eventId_1 = UUID.randomUUID();
+        final UUID eventId_2 = UUID.randomUUID();
+        final PublishedEvent publishedEvent_1 = mock(PublishedEvent.class);
+        final PublishedEvent publishedEvent_2 = mock(PublishedEvent.class);
+        final JsonEnvelope jsonEnvelope_1 = mock(JsonEnvelope.class);
+        final JsonEnvelope jsonEnvelope_2 = mock(JsonEnvelope.class);
+
+        when(publishedEventRepository.claimQueuedPublishedEvents(10)).thenReturn(asList(publishedEvent_1, publishedEvent_2));
+        when(publishedEvent_1.getId()).thenReturn(eventId_1);
+        when(publishedEvent_2.getId()).thenReturn(eventId_2);
+        when(eventConverter.envelopeOf(publishedEvent_1)).thenReturn(jsonEnvelope_1);
+        when(eventConverter.envelopeOf(publishedEvent_2)).thenReturn(jsonEnvelope_2);
+
+        final ZonedDateTime now = new UtcClock().now();
+        final ZonedDateTime createdAt_1 = now.minusSeconds(3);
+        final ZonedDateTime createdAt_2 = now.minusSeconds(2);
+        when(publishedEvent_1.getCreatedAt()).thenReturn(createdAt_1);
+        when(publishedEvent_2.getCreatedAt()).thenReturn(createdAt_2);
+        when(clock.now()).thenReturn(now);
+
+        assertThat(publishedEventDeQueuerAndPublisher.deQueueAndPublish(10), is(2));
+
+        final InOrder inOrder = inOrder(eventPublisher, publishQueueRepository, pipelineMetrics);
+        inOrder.verify(eventPublisher).publish(jsonEnvelope_1);
+        inOrder.verify(eventPublisher).publish(jsonEnvelope_2);
+        inOrder.verify(publishQueueRepository).deleteFromQueue(asList(eventId_1, eventId_2));
+        inOrder.verify(pipelineMetrics).eventProcessed(PUBLISHED, createdAt_1, now);
+        inOrder.verify(pipelineMetrics).eventProcessed(PUBLISHED, createdAt_2, now);
+    }
+
+    @Test
+    public void shouldPublishNothingIfNoPublishedEventsCouldBeClaimed() throws Exception {
+
+        when(publishedEventRepository.claimQueuedPublishedEvents(10)).thenReturn(emptyList());
+
+        assertThat(publishedEventDeQueuerAndPublisher.deQueueAndPublish(10), is(0));
+
+        verifyNoInteractions(eventConverter);
+        verifyNoInteractions(eventPublisher);
+        verifyNoInteractions(publishQueueRepository);
+    }
+
+    @Test
+    public void shouldPublishABatchOfALaneAndRecordTheLagOfItsOldestEvent() throws Exception {
+
+        final UUID eventId_1 = UUID.randomUUID();
+        final UUID eventId_2 = UUID.randomUUID();
+        final ZonedDateTime now = new UtcClock().now();
+        final PublishedEvent publishedEvent_1 = mock(PublishedEvent.class);
+        final PublishedEvent publishedEvent_2 = mock(PublishedEvent.class);
+        final JsonEnvelope jsonEnvelope_1 = mock(JsonEnvelope.class);
+        final JsonEnvelope jsonEnvelope_2 = mock(JsonEnvelope.class);
+        final PublishLaneMetrics publishLaneMetrics = new PublishLaneMetrics(2);
+
+        when(publishedEventRepository.tryLockLane(2, 4)).thenReturn(true);
+        when(publishedEventRepository.claimQueuedPublishedEventsInLane(10, 2, 4)).thenReturn(asList(publishedEvent_1, publishedEvent_2));
+        when(publishedEvent_1.getId()).thenReturn(eventId_1);
+        when(publishedEvent_2.getId()).thenReturn(eventId_2);
+        when(publishedEvent_1.getCreatedAt()).thenReturn(now.minusSeconds(3));
+        when(eventConverter.envelopeOf(publishedEvent_1)).thenReturn(jsonEnvelope_1);
+        when(eventConverter.envelopeOf(publishedEvent_2)).thenReturn(jsonEnvelope_2);
+        when(clock.now()).thenReturn(now);
+        when(publishLanes.forLane(2)).thenReturn(publishLaneMetrics);
+
+        assertThat(publishedEventDeQueuerAndPublisher.deQueueAndPublishLane(10, 2, 4), is(2));
+
+        final InOrder inOrder = inOrder(publishedEventRepository, eventPublisher, publishQueueRepository);
+        inOrder.verify(publishedEventRepository).tryLockLane(2, 4);
+        inOrder.verify(publishedEventRepository).claimQueuedPublishedEventsInLane(10, 2, 4);
+        inOrder.verify(eventPublisher).publish(jsonEnvelope_1);
+        inOrder.verify(eventPublisher).publish(jsonEnvelope_2);
+        inOrder.verify(publishQueueRepository).deleteFromQueue(asList(eventId_1, eventId_2));
+
+        assertThat(publishLaneMetrics.getEventCount(), is(2L));
+        assertThat(publishLaneMetrics.getBatchCount(), is(1L));
+        assertThat(publishLaneMetrics.getLastLagMilliseconds(), is(3000L));
+        assertThat(publishLaneMetrics.getMaxLagMilliseconds(), is(3000L));
+        assertThat(publishLaneMetrics.getLockedByAnotherNodeCount(), is(0L));
+    }
+
+    @Test
+    public void shouldPublishNothingIfNoPublishedEventsOfTheLaneCouldBeClaimed() throws Exception {
+
+        when(publishedEventRepository.tryLockLane(2, 4)).thenReturn(true);
+        when(publishedEventRepository.claimQueuedPublishedEventsInLane(10, 2, 4)).thenReturn(emptyList());
+
+        assertThat(publishedEventDeQueuerAndPublisher.deQueueAndPublishLane(10, 2, 4), is(0));
+
+        verifyNoInteractions(eventConverter, eventPublisher, publishQueueRepository, clock, publishLanes);
+    }
+
+    @Test
+    public void shouldLeaveTheLaneToAnotherNodeIfItHoldsTheLockOfTheLane() throws Exception {
+
+        final PublishLaneMetrics publishLaneMetrics = new PublishLaneMetrics(2);
+
+        when(publishedEventRepository.tryLockLane(2, 4)).thenReturn(false);
+        when(publishLanes.forLane(2)).thenReturn(publishLaneMetrics);
+
+        assertThat(publishedEventDeQueuerAndPublisher.deQueueAndPublishLane(10, 2, 4), is(0));
+
+        verify(publishedEventRepository, never()).claimQueuedPublishedEventsInLane(10, 2, 4);
+        verifyNoInteractions(eventConverter, eventPublisher, publishQueueRepository, clock);
+        assertThat(publishLaneMetrics.getLockedByAnotherNodeCount(), is(1L));
+        assertThat(publishLaneMetrics.getBatchCount(), is(0L));
+    }
 }
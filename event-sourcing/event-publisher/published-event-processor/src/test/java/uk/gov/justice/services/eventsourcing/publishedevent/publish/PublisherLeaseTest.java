@@ -0,0 +1,110 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.publish;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.publish.PublisherLease.LEASE_NAME;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublisherLeaseRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.PublishedEventException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PublisherLeaseTest {
+
+    private static final String HOLDER = "node-1";
+
+    @Mock
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Mock
+    private PublisherLeaseRepository publisherLeaseRepository;
+
+    @InjectMocks
+    private PublisherLease publisherLease;
+
+    @Test
+    public void shouldTryToAcquireOrRenewTheLease() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, HOLDER, 10_000L, dataSource)).thenReturn(true);
+
+        assertThat(publisherLease.tryAcquireOrRenew(HOLDER, 10_000L), is(true));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfAcquiringOrRenewingTheLeaseFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publisherLeaseRepository.tryAcquireOrRenew(LEASE_NAME, HOLDER, 10_000L, dataSource)).thenThrow(sqlException);
+
+        final PublishedEventException publishedEventException = assertThrows(
+                PublishedEventException.class,
+                () -> publisherLease.tryAcquireOrRenew(HOLDER, 10_000L));
+
+        assertThat(publishedEventException.getCause(), is(sqlException));
+        assertThat(publishedEventException.getMessage(), is("Failed to acquire or renew publisher_lease 'event-publisher' for 'node-1'"));
+    }
+
+    @Test
+    public void shouldReleaseTheLease() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+
+        publisherLease.release(HOLDER);
+
+        verify(publisherLeaseRepository).release(LEASE_NAME, HOLDER, dataSource);
+    }
+
+    @Test
+    public void shouldThrowExceptionIfReleasingTheLeaseFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        doThrow(sqlException).when(publisherLeaseRepository).release(LEASE_NAME, HOLDER, dataSource);
+
+        final PublishedEventException publishedEventException = assertThrows(
+                PublishedEventException.class,
+                () -> publisherLease.release(HOLDER));
+
+        assertThat(publishedEventException.getCause(), is(sqlException));
+        assertThat(publishedEventException.getMessage(), is("Failed to release publisher_lease 'event-publisher' for 'node-1'"));
+    }
+
+    @Test
+    public void shouldFindTheMillisecondsLeftOnTheLease() throws Exception {
+
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(publisherLeaseRepository.findMillisecondsLeft(LEASE_NAME, dataSource)).thenReturn(Optional.of(6_000L), Optional.of(-20L), Optional.empty());
+
+        assertThat(publisherLease.millisecondsLeft(), is(6_000L));
+        assertThat(publisherLease.millisecondsLeft(), is(0L));
+        assertThat(publisherLease.millisecondsLeft(), is(0L));
+    }
+}
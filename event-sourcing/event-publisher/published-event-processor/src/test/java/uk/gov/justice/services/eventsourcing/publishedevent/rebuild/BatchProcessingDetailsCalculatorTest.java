@@ -1,13 +1,14 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
 
-import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint.startOf;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
 
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
 
-import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.jupiter.api.Test;
@@ -25,13 +26,26 @@ public class BatchProcessingDetailsCalculatorTest {
     @Test
     public void shouldStartWithProcessingDetailsOfZero() throws Exception {
 
-        final BatchProcessDetails batchProcessDetails = batchProcessingDetailsCalculator.createFirstBatchProcessDetails();
+        final BatchProcessDetails batchProcessDetails = batchProcessingDetailsCalculator.createFirstBatchProcessDetails(startOf(CREATING_PUBLISHED_EVENTS));
 
         assertThat(batchProcessDetails.getCurrentEventNumber().get(), is(0L));
         assertThat(batchProcessDetails.getPreviousEventNumber().get(), is(0L));
         assertThat(batchProcessDetails.getProcessCount(), is(0));
     }
 
+    @Test
+    public void shouldStartWithTheProcessingDetailsOfTheCheckpoint() throws Exception {
+
+        final RebuildCheckpoint rebuildCheckpoint = new RebuildCheckpoint(CREATING_PUBLISHED_EVENTS, 2_000L, 1_998L, 1_500L);
+
+        final BatchProcessDetails batchProcessDetails = batchProcessingDetailsCalculator.createFirstBatchProcessDetails(rebuildCheckpoint);
+
+        assertThat(batchProcessDetails.getCurrentEventNumber().get(), is(2_000L));
+        assertThat(batchProcessDetails.getPreviousEventNumber().get(), is(1_998L));
+        assertThat(batchProcessDetails.getProcessCount(), is(1_500));
+        assertThat(batchProcessDetails.getProcessedInBatchCount(), is(0));
+    }
+
     @Test
     public void shouldCalculateTheNextProcessingDetailsBasedOnTheCurrentProcessedEvents() throws Exception {
 
@@ -48,7 +62,10 @@ public class BatchProcessingDetailsCalculatorTest {
         final PublishedEvent event_22 = mock(PublishedEvent.class);
         final PublishedEvent event_23 = mock(PublishedEvent.class);
 
-        final List<PublishedEvent> publishedEvents = asList(event_21, event_22, event_23);
+        final InsertedPublishedEvents insertedPublishedEvents = new InsertedPublishedEvents();
+        insertedPublishedEvents.inserted(event_21);
+        insertedPublishedEvents.inserted(event_22);
+        insertedPublishedEvents.inserted(event_23);
 
         final AtomicLong previousEventNumber = new AtomicLong(22L);
         final AtomicLong currentEventNumber = new AtomicLong(23L);
@@ -57,7 +74,7 @@ public class BatchProcessingDetailsCalculatorTest {
                 previousProcessDetails,
                 currentEventNumber,
                 previousEventNumber,
-                publishedEvents);
+                insertedPublishedEvents);
 
         assertThat(nextBatchProcessDetails.getProcessedInBatchCount(), is(3));
         assertThat(nextBatchProcessDetails.getProcessCount(), is(23));
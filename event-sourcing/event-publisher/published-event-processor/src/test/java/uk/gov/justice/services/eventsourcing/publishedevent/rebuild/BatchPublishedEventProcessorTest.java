@@ -1,19 +1,21 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
 
 import static com.google.common.collect.Sets.newHashSet;
-import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
 
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpointRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
-import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
 
-import java.util.List;
+import java.time.ZonedDateTime;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
@@ -38,6 +40,15 @@ public class BatchPublishedEventProcessorTest {
     @Mock
     private BatchProcessingDetailsCalculator batchProcessingDetailsCalculator;
 
+    @Mock
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
+    @Mock
+    private RebuildCheckpointRepository rebuildCheckpointRepository;
+
+    @Mock
+    private UtcClock clock;
+
     @Mock
     private Logger logger;
 
@@ -47,6 +58,7 @@ public class BatchPublishedEventProcessorTest {
     @Test
     public void shouldGetAndProcessTheNextBatchOfEvents() throws Exception {
 
+        final ZonedDateTime now = new UtcClock().now();
         final AtomicLong previousEventNumber = new AtomicLong(22L);
         final AtomicLong currentEventNumber = new AtomicLong(23L);
 
@@ -59,31 +71,31 @@ public class BatchPublishedEventProcessorTest {
         final Event event_25 = mock(Event.class);
         final Stream<Event> eventStream = Stream.of(event_23, event_24, event_25);
 
-        final PublishedEvent publishedEvent_23 = mock(PublishedEvent.class);
-        final PublishedEvent publishedEvent_24 = mock(PublishedEvent.class);
-        final PublishedEvent publishedEvent_25 = mock(PublishedEvent.class);
-        final List<PublishedEvent> publishedEvents = asList(publishedEvent_23, publishedEvent_24, publishedEvent_25);
+        final InsertedPublishedEvents insertedPublishedEvents = mock(InsertedPublishedEvents.class);
 
         when(currentBatchProcessDetails.getCurrentEventNumber()).thenReturn(currentEventNumber);
         when(currentBatchProcessDetails.getPreviousEventNumber()).thenReturn(previousEventNumber);
+        when(publishedEventRebuildConfig.getPageSize()).thenReturn(1_000);
         when(eventJdbcRepository.findAllFromEventNumberUptoPageSize(currentEventNumber.get(), 1_000)).thenReturn(eventStream);
 
         when(publishedEventsRebuilder.rebuild(
                 eventStream,
                 previousEventNumber, currentEventNumber,
-                activeStreamIds)).thenReturn(publishedEvents);
+                activeStreamIds)).thenReturn(insertedPublishedEvents);
 
         when(batchProcessingDetailsCalculator.calculateNextBatchProcessDetails(
                 currentBatchProcessDetails,
                 currentEventNumber,
                 previousEventNumber,
-                publishedEvents)).thenReturn(nextBatchProcessDetails);
+                insertedPublishedEvents)).thenReturn(nextBatchProcessDetails);
 
         when(nextBatchProcessDetails.getProcessedInBatchCount()).thenReturn(3);
         when(nextBatchProcessDetails.getProcessCount()).thenReturn(3);
+        when(clock.now()).thenReturn(now);
 
         assertThat(batchPublishedEventProcessor.processNextBatchOfEvents(currentBatchProcessDetails, activeStreamIds), is(nextBatchProcessDetails));
 
+        verify(rebuildCheckpointRepository).saveCheckpoint(new RebuildCheckpoint(CREATING_PUBLISHED_EVENTS, 23L, 22L, 3L), now);
         verify(logger).info("Inserted 3 PublishedEvents");
     }
 
@@ -102,25 +114,23 @@ public class BatchPublishedEventProcessorTest {
         final Event event_25 = mock(Event.class);
         final Stream<Event> eventStream = Stream.of(event_23, event_24, event_25);
 
-        final PublishedEvent publishedEvent_23 = mock(PublishedEvent.class);
-        final PublishedEvent publishedEvent_24 = mock(PublishedEvent.class);
-        final PublishedEvent publishedEvent_25 = mock(PublishedEvent.class);
-        final List<PublishedEvent> publishedEvents = asList(publishedEvent_23, publishedEvent_24, publishedEvent_25);
+        final InsertedPublishedEvents insertedPublishedEvents = mock(InsertedPublishedEvents.class);
 
         when(currentBatchProcessDetails.getCurrentEventNumber()).thenReturn(currentEventNumber);
         when(currentBatchProcessDetails.getPreviousEventNumber()).thenReturn(previousEventNumber);
+        when(publishedEventRebuildConfig.getPageSize()).thenReturn(1_000);
         when(eventJdbcRepository.findAllFromEventNumberUptoPageSize(currentEventNumber.get(), 1_000)).thenReturn(eventStream);
 
         when(publishedEventsRebuilder.rebuild(
                 eventStream,
                 previousEventNumber, currentEventNumber,
-                activeStreamIds)).thenReturn(publishedEvents);
+                activeStreamIds)).thenReturn(insertedPublishedEvents);
 
         when(batchProcessingDetailsCalculator.calculateNextBatchProcessDetails(
                 currentBatchProcessDetails,
                 currentEventNumber,
                 previousEventNumber,
-                publishedEvents)).thenReturn(nextBatchProcessDetails);
+                insertedPublishedEvents)).thenReturn(nextBatchProcessDetails);
 
         when(nextBatchProcessDetails.getProcessedInBatchCount()).thenReturn(0);
 
@@ -0,0 +1,59 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.CopyPublishedEventInserter.COPY_INTO_PUBLISHED_EVENT_SQL;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.getValueOfField;
+
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+
+import java.sql.Connection;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+@ExtendWith(MockitoExtension.class)
+public class CopyPublishedEventInserterFactoryTest {
+
+    @Mock
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Mock
+    private Closer closer;
+
+    @InjectMocks
+    private CopyPublishedEventInserterFactory copyPublishedEventInserterFactory;
+
+    @Test
+    public void shouldCreateCorrectlyInitialisedEventInserter() throws Exception {
+
+        final DataSource eventStoreDataSource = mock(DataSource.class);
+        final Connection connection = mock(Connection.class);
+        final PGConnection pgConnection = mock(PGConnection.class);
+        final CopyManager copyManager = mock(CopyManager.class);
+        final CopyIn copyIn = mock(CopyIn.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(eventStoreDataSource);
+        when(eventStoreDataSource.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyIn(COPY_INTO_PUBLISHED_EVENT_SQL)).thenReturn(copyIn);
+
+        final CopyPublishedEventInserter copyPublishedEventInserter = copyPublishedEventInserterFactory.createInitialised();
+
+        assertThat(getValueOfField(copyPublishedEventInserter, "closer", Closer.class), is(closer));
+        assertThat(getValueOfField(copyPublishedEventInserter, "connection", Connection.class), is(connection));
+        assertThat(getValueOfField(copyPublishedEventInserter, "copyIn", CopyIn.class), is(copyIn));
+    }
+}
@@ -0,0 +1,201 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.ZoneOffset.UTC;
+import static java.util.UUID.fromString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.CopyPublishedEventInserter.COPY_INTO_PUBLISHED_EVENT_SQL;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.jdbc.persistence.DataAccessException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+@ExtendWith(MockitoExtension.class)
+public class CopyPublishedEventInserterTest {
+
+    @Mock
+    private Closer closer;
+
+    @InjectMocks
+    private CopyPublishedEventInserter copyPublishedEventInserter;
+
+    @Test
+    public void shouldWriteEachPublishedEventToTheCopyStreamAsARowOfCsv() throws Exception {
+
+        final PublishedEvent publishedEvent = new PublishedEvent(
+                fromString("3a2b4f6e-0c3d-4e8a-9b1f-2d5c6e7f8a90"),
+                fromString("b1c2d3e4-f5a6-4b7c-8d9e-0f1a2b3c4d5e"),
+                23L,
+                "event-name",
+                "{\"name\": \"metadata\"}",
+                "{\"name\": \"payload, with a comma\"}",
+                ZonedDateTime.of(2025, 3, 12, 10, 30, 15, 123_456_000, UTC),
+                234L,
+                233L
+        );
+
+        final CopyIn copyIn = startCopy();
+
+        copyPublishedEventInserter.addToBatch(publishedEvent);
+
+        final ArgumentCaptor<byte[]> rowCaptor = ArgumentCaptor.forClass(byte[].class);
+        final ArgumentCaptor<Integer> lengthCaptor = ArgumentCaptor.forClass(Integer.class);
+
+        verify(copyIn).writeToCopy(rowCaptor.capture(), eq(0), lengthCaptor.capture());
+        verify(copyIn, never()).endCopy();
+
+        assertThat(lengthCaptor.getValue(), is(rowCaptor.getValue().length));
+        assertThat(new String(rowCaptor.getValue(), UTF_8), is(
+                "3a2b4f6e-0c3d-4e8a-9b1f-2d5c6e7f8a90," +
+                "b1c2d3e4-f5a6-4b7c-8d9e-0f1a2b3c4d5e," +
+                "23," +
+                "\"event-name\"," +
+                "\"{\"\"name\"\": \"\"payload, with a comma\"\"}\"," +
+                "\"{\"\"name\"\": \"\"metadata\"\"}\"," +
+                "2025-03-12T10:30:15.123456Z," +
+                "234," +
+                "233\n"));
+
+        copyPublishedEventInserter.insertBatch();
+
+        verify(copyIn).endCopy();
+    }
+
+    @Test
+    public void shouldCancelTheCopyIfNotEndedAndCloseTheConnectionOnClose() throws Exception {
+
+        final CopyIn copyIn = startCopy();
+
+        when(copyIn.isActive()).thenReturn(true);
+
+        copyPublishedEventInserter.close();
+
+        final InOrder inOrder = inOrder(copyIn, closer);
+
+        inOrder.verify(copyIn).cancelCopy();
+        inOrder.verify(closer).closeQuietly(any(Connection.class));
+    }
+
+    @Test
+    public void shouldOnlyCloseTheConnectionOnCloseIfTheCopyIsEnded() throws Exception {
+
+        final CopyIn copyIn = startCopy();
+
+        when(copyIn.isActive()).thenReturn(false);
+
+        copyPublishedEventInserter.close();
+
+        verify(copyIn, never()).cancelCopy();
+        verify(closer).closeQuietly(any(Connection.class));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfStartingTheCopyFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Oops");
+
+        final DataSource eventStoreDataSource = mock(DataSource.class);
+        final Connection connection = mock(Connection.class);
+
+        when(eventStoreDataSource.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenThrow(sqlException);
+
+        final DataAccessException dataAccessException = assertThrows(
+                DataAccessException.class,
+                () -> copyPublishedEventInserter.prepareForInserts(eventStoreDataSource));
+
+        assertThat(dataAccessException.getCause(), is(sqlException));
+        assertThat(dataAccessException.getMessage(), is("Failed to start copy of PublishedEvents into published_event"));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfWritingToTheCopyFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Oops");
+        final PublishedEvent publishedEvent = new PublishedEvent(
+                fromString("3a2b4f6e-0c3d-4e8a-9b1f-2d5c6e7f8a90"),
+                fromString("b1c2d3e4-f5a6-4b7c-8d9e-0f1a2b3c4d5e"),
+                23L,
+                "event-name",
+                "metadata",
+                "payload",
+                ZonedDateTime.of(2025, 3, 12, 10, 30, 15, 0, UTC),
+                234L,
+                233L
+        );
+
+        final CopyIn copyIn = startCopy();
+
+        doThrow(sqlException).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+
+        final DataAccessException dataAccessException = assertThrows(
+                DataAccessException.class,
+                () -> copyPublishedEventInserter.addToBatch(publishedEvent));
+
+        assertThat(dataAccessException.getCause(), is(sqlException));
+        assertThat(dataAccessException.getMessage(), is("Failed to copy PublishedEvent with id '3a2b4f6e-0c3d-4e8a-9b1f-2d5c6e7f8a90' into published_event"));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfEndingTheCopyFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Oops");
+
+        final CopyIn copyIn = startCopy();
+
+        when(copyIn.endCopy()).thenThrow(sqlException);
+
+        final DataAccessException dataAccessException = assertThrows(
+                DataAccessException.class,
+                () -> copyPublishedEventInserter.insertBatch());
+
+        assertThat(dataAccessException.getCause(), is(sqlException));
+        assertThat(dataAccessException.getMessage(), is("Failed to insert copy of PublishedEvents into published_event"));
+    }
+
+    private CopyIn startCopy() throws SQLException {
+
+        final DataSource eventStoreDataSource = mock(DataSource.class);
+        final Connection connection = mock(Connection.class);
+        final PGConnection pgConnection = mock(PGConnection.class);
+        final CopyManager copyManager = mock(CopyManager.class);
+        final CopyIn copyIn = mock(CopyIn.class);
+
+        when(eventStoreDataSource.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyIn(COPY_INTO_PUBLISHED_EVENT_SQL)).thenReturn(copyIn);
+
+        copyPublishedEventInserter.prepareForInserts(eventStoreDataSource);
+
+        return copyIn;
+    }
+}
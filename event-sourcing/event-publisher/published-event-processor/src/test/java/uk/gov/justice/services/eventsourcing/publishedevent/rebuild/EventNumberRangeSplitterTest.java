@@ -0,0 +1,53 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class EventNumberRangeSplitterTest {
+
+    @InjectMocks
+    private EventNumberRangeSplitter eventNumberRangeSplitter;
+
+    @Test
+    public void shouldSplitTheEventNumbersIntoRangesOfEqualWidth() throws Exception {
+
+        assertThat(eventNumberRangeSplitter.split(100L, 4), is(asList(
+                new EventNumberRange(1, 0L, 25L),
+                new EventNumberRange(2, 25L, 50L),
+                new EventNumberRange(3, 50L, 75L),
+                new EventNumberRange(4, 75L, 100L)
+        )));
+    }
+
+    @Test
+    public void shouldMakeTheLastRangeNarrowerIfTheEventNumbersDoNotSplitEvenly() throws Exception {
+
+        assertThat(eventNumberRangeSplitter.split(10L, 3), is(asList(
+                new EventNumberRange(1, 0L, 4L),
+                new EventNumberRange(2, 4L, 8L),
+                new EventNumberRange(3, 8L, 10L)
+        )));
+    }
+
+    @Test
+    public void shouldReturnFewerRangesIfThereAreFewerEventNumbersThanRanges() throws Exception {
+
+        assertThat(eventNumberRangeSplitter.split(2L, 4), is(asList(
+                new EventNumberRange(1, 0L, 1L),
+                new EventNumberRange(2, 1L, 2L)
+        )));
+    }
+
+    @Test
+    public void shouldReturnNoRangesIfTheEventLogIsEmpty() throws Exception {
+
+        assertThat(eventNumberRangeSplitter.split(0L, 4).isEmpty(), is(true));
+    }
+}
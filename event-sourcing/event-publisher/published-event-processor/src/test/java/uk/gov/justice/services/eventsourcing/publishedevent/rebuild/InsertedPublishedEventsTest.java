@@ -0,0 +1,43 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class InsertedPublishedEventsTest {
+
+    @Test
+    public void shouldCountTheInsertedPublishedEventsAndKeepTheIdOfTheFirst() throws Exception {
+
+        final UUID firstPublishedEventId = randomUUID();
+        final PublishedEvent publishedEvent_1 = mock(PublishedEvent.class);
+        final PublishedEvent publishedEvent_2 = mock(PublishedEvent.class);
+
+        when(publishedEvent_1.getId()).thenReturn(firstPublishedEventId);
+
+        final InsertedPublishedEvents insertedPublishedEvents = new InsertedPublishedEvents();
+
+        insertedPublishedEvents.inserted(publishedEvent_1);
+        insertedPublishedEvents.inserted(publishedEvent_2);
+
+        assertThat(insertedPublishedEvents.getCount(), is(2));
+        assertThat(insertedPublishedEvents.getFirstPublishedEventId().get(), is(firstPublishedEventId));
+    }
+
+    @Test
+    public void shouldHaveNoFirstPublishedEventIdIfNoneWereInserted() throws Exception {
+
+        final InsertedPublishedEvents insertedPublishedEvents = new InsertedPublishedEvents();
+
+        assertThat(insertedPublishedEvents.getCount(), is(0));
+        assertThat(insertedPublishedEvents.getFirstPublishedEventId().isPresent(), is(false));
+    }
+}
@@ -0,0 +1,178 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Arrays.asList;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint.startOf;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RangeRebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressTracker;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class ParallelPublishedEventUpdaterTest {
+
+    @Mock
+    private ManagedExecutorService managedExecutorService;
+
+    @Mock
+    private EventJdbcRepository eventJdbcRepository;
+
+    @Mock
+    private EventNumberRangeSplitter eventNumberRangeSplitter;
+
+    @Mock
+    private PublishedEventRangeRebuilder publishedEventRangeRebuilder;
+
+    @Mock
+    private RangeBoundaryLinker rangeBoundaryLinker;
+
+    @Mock
+    private RangeRebuildCheckpointRepository rangeRebuildCheckpointRepository;
+
+    @Mock
+    private RebuildCheckpointRepository rebuildCheckpointRepository;
+
+    @Mock
+    private UtcClock clock;
+
+    @Mock
+    private RebuildProgressTracker rebuildProgressTracker;
+
+    @Mock
+    private Logger logger;
+
+    @InjectMocks
+    private ParallelPublishedEventUpdater parallelPublishedEventUpdater;
+
+    @Test
+    public void shouldCheckpointEachRangeThenRebuildEachRangeOnTheManagedExecutorThenLinkTheRanges() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final EventNumberRange range_1 = new EventNumberRange(1, 0L, 50L);
+        final EventNumberRange range_2 = new EventNumberRange(2, 50L, 100L);
+
+        when(eventJdbcRepository.getMaximumEventNumber()).thenReturn(100L);
+        when(eventNumberRangeSplitter.split(100L, 2)).thenReturn(asList(range_1, range_2));
+        when(clock.now()).thenReturn(now);
+        when(managedExecutorService.submit(any(Runnable.class))).thenAnswer(invocationOnMock -> {
+            final Runnable rangeRebuild = invocationOnMock.getArgument(0);
+            rangeRebuild.run();
+            return completedFuture(null);
+        });
+        doAnswerInsertingOneEventPerRange(activeStreamIds);
+        when(rangeBoundaryLinker.linkRanges(anyList())).thenReturn(1);
+
+        final List<RangeRebuildProgress> rangeRebuildProgresses = parallelPublishedEventUpdater.createPublishedEvents(activeStreamIds, 2, rebuildProgressTracker);
+
+        assertThat(rangeRebuildProgresses.size(), is(2));
+        assertThat(rangeRebuildProgresses.get(0).getEventNumberRange(), is(range_1));
+        assertThat(rangeRebuildProgresses.get(1).getEventNumberRange(), is(range_2));
+
+        verify(rangeRebuildCheckpointRepository).saveRangeCheckpoint(rangeRebuildProgresses.get(0), now);
+        verify(rangeRebuildCheckpointRepository).saveRangeCheckpoint(rangeRebuildProgresses.get(1), now);
+        verify(rebuildCheckpointRepository).saveCheckpoint(startOf(CREATING_PUBLISHED_EVENTS), now);
+        verify(publishedEventRangeRebuilder).rebuildRange(eq(rangeRebuildProgresses.get(0)), eq(2), eq(activeStreamIds), any(Runnable.class));
+        verify(publishedEventRangeRebuilder).rebuildRange(eq(rangeRebuildProgresses.get(1)), eq(2), eq(activeStreamIds), any(Runnable.class));
+        verify(rebuildProgressTracker).eventsProcessed(50L, 1L);
+        verify(rebuildProgressTracker).eventsProcessed(100L, 2L);
+        verify(rangeBoundaryLinker).linkRanges(rangeRebuildProgresses);
+
+        verify(logger).info("Creating PublishedEvents from 2 ranges of event numbers in parallel..");
+        verify(logger).info("Inserted 2 PublishedEvents in total from 2 ranges, linking 1 range boundaries");
+    }
+
+    @Test
+    public void shouldFailWithoutLinkingTheRangesIfTheRebuildOfARangeFails() throws Exception {
+
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RuntimeException rangeFailure = new RuntimeException("Ooops");
+        final CompletableFuture<Object> failedRangeRebuild = new CompletableFuture<>();
+        failedRangeRebuild.completeExceptionally(rangeFailure);
+
+        when(eventJdbcRepository.getMaximumEventNumber()).thenReturn(100L);
+        when(eventNumberRangeSplitter.split(100L, 2)).thenReturn(asList(new EventNumberRange(1, 0L, 50L), new EventNumberRange(2, 50L, 100L)));
+        doReturn(failedRangeRebuild, completedFuture(null)).when(managedExecutorService).submit(any(Runnable.class));
+
+        final RebuildException rebuildException = assertThrows(
+                RebuildException.class,
+                () -> parallelPublishedEventUpdater.createPublishedEvents(activeStreamIds, 2, rebuildProgressTracker));
+
+        assertThat(rebuildException.getMessage(), is("Failed to create PublishedEvents of a range of event numbers"));
+        assertThat(rebuildException.getCause(), is(rangeFailure));
+        verifyNoInteractions(rangeBoundaryLinker);
+    }
+
+    @Test
+    public void shouldCarryOnEachRangeFromItsCheckpointAndReportTheProgressSoFar() throws Exception {
+
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RangeRebuildProgress rangeRebuildProgress_1 = new RangeRebuildProgress(new EventNumberRange(1, 0L, 50L), 50L, 49L, 40L, randomUUID());
+        final RangeRebuildProgress rangeRebuildProgress_2 = new RangeRebuildProgress(new EventNumberRange(2, 50L, 100L), 70L, 69L, 15L, randomUUID());
+        final List<RangeRebuildProgress> rangeRebuildProgresses = asList(rangeRebuildProgress_1, rangeRebuildProgress_2);
+
+        when(managedExecutorService.submit(any(Runnable.class))).thenAnswer(invocationOnMock -> {
+            final Runnable rangeRebuild = invocationOnMock.getArgument(0);
+            rangeRebuild.run();
+            return completedFuture(null);
+        });
+        when(rangeBoundaryLinker.linkRanges(rangeRebuildProgresses)).thenReturn(1);
+
+        assertThat(parallelPublishedEventUpdater.resumeCreatingPublishedEvents(activeStreamIds, rangeRebuildProgresses, rebuildProgressTracker), is(rangeRebuildProgresses));
+
+        verify(rebuildProgressTracker).phaseStarted(CREATING_PUBLISHED_EVENTS, 70L, 100L, 55L);
+        verify(publishedEventRangeRebuilder).rebuildRange(eq(rangeRebuildProgress_1), eq(2), eq(activeStreamIds), any(Runnable.class));
+        verify(publishedEventRangeRebuilder).rebuildRange(eq(rangeRebuildProgress_2), eq(2), eq(activeStreamIds), any(Runnable.class));
+        verifyNoInteractions(rangeRebuildCheckpointRepository, rebuildCheckpointRepository, eventJdbcRepository);
+
+        verify(logger).info("Resuming creation of PublishedEvents from 2 ranges of event numbers in parallel..");
+        verify(logger).info("Inserted 55 PublishedEvents in total from 2 ranges, linking 1 range boundaries");
+    }
+
+    private void doAnswerInsertingOneEventPerRange(final Set<UUID> activeStreamIds) {
+        doAnswer(invocationOnMock -> {
+            final RangeRebuildProgress rangeRebuildProgress = invocationOnMock.getArgument(0);
+            final InsertedPublishedEvents insertedPublishedEvents = new InsertedPublishedEvents();
+            insertedPublishedEvents.inserted(mock(PublishedEvent.class));
+            rangeRebuildProgress.batchInserted(insertedPublishedEvents);
+            rangeRebuildProgress.getCurrentEventNumber().set(rangeRebuildProgress.getEventNumberRange().getToEventNumber());
+            final Runnable progressReporter = invocationOnMock.getArgument(3);
+            progressReporter.run();
+            return null;
+        }).when(publishedEventRangeRebuilder).rebuildRange(any(RangeRebuildProgress.class), anyInt(), eq(activeStreamIds), any(Runnable.class));
+    }
+}
@@ -0,0 +1,96 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class PublishedEventRangeRebuilderTest {
+
+    @Mock
+    private RangeBatchPublishedEventProcessor rangeBatchPublishedEventProcessor;
+
+    @Mock
+    private Logger logger;
+
+    @InjectMocks
+    private PublishedEventRangeRebuilder publishedEventRangeRebuilder;
+
+    @Test
+    public void shouldProcessPagesOfTheRangeUntilTheEndOfTheRangeIsReached() throws Exception {
+
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RangeRebuildProgress rangeRebuildProgress = new RangeRebuildProgress(new EventNumberRange(2, 100L, 200L));
+
+        when(rangeBatchPublishedEventProcessor.processNextBatchOfEvents(rangeRebuildProgress, activeStreamIds))
+                .thenAnswer(invocationOnMock -> {
+                    rangeRebuildProgress.getCurrentEventNumber().addAndGet(50L);
+                    return true;
+                });
+
+        final Runnable progressReporter = mock(Runnable.class);
+
+        publishedEventRangeRebuilder.rebuildRange(rangeRebuildProgress, 4, activeStreamIds, progressReporter);
+
+        verify(rangeBatchPublishedEventProcessor, times(2)).processNextBatchOfEvents(rangeRebuildProgress, activeStreamIds);
+        verify(progressReporter, times(2)).run();
+        assertThat(rangeRebuildProgress.isComplete(), is(true));
+
+        verify(logger).info("Creating PublishedEvents of range 2 of 4, from event number 101 to 200..");
+        verify(logger).info("Range 2 of 4: inserted 0 PublishedEvents, up to event number 150 of 200");
+        verify(logger).info("Range 2 of 4: inserted 0 PublishedEvents, up to event number 200 of 200");
+        verify(logger).info("Range 2 of 4 complete: inserted 0 PublishedEvents");
+    }
+
+    @Test
+    public void shouldStopOnceNoEventsAreLeftInTheRange() throws Exception {
+
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RangeRebuildProgress rangeRebuildProgress = new RangeRebuildProgress(new EventNumberRange(1, 0L, 100L));
+
+        when(rangeBatchPublishedEventProcessor.processNextBatchOfEvents(rangeRebuildProgress, activeStreamIds)).thenReturn(false);
+
+        final Runnable progressReporter = mock(Runnable.class);
+
+        publishedEventRangeRebuilder.rebuildRange(rangeRebuildProgress, 4, activeStreamIds, progressReporter);
+
+        verify(rangeBatchPublishedEventProcessor, times(1)).processNextBatchOfEvents(rangeRebuildProgress, activeStreamIds);
+        verify(progressReporter, never()).run();
+        assertThat(rangeRebuildProgress.isComplete(), is(true));
+    }
+
+    @Test
+    public void shouldCarryOnARangeAfterTheLastEventItRead() throws Exception {
+
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RangeRebuildProgress rangeRebuildProgress = new RangeRebuildProgress(new EventNumberRange(2, 100L, 200L), 150L, 149L, 40L, randomUUID());
+
+        when(rangeBatchPublishedEventProcessor.processNextBatchOfEvents(rangeRebuildProgress, activeStreamIds))
+                .thenAnswer(invocationOnMock -> {
+                    rangeRebuildProgress.getCurrentEventNumber().addAndGet(50L);
+                    return true;
+                });
+
+        publishedEventRangeRebuilder.rebuildRange(rangeRebuildProgress, 4, activeStreamIds, mock(Runnable.class));
+
+        verify(rangeBatchPublishedEventProcessor, times(1)).processNextBatchOfEvents(rangeRebuildProgress, activeStreamIds);
+        verify(logger).info("Creating PublishedEvents of range 2 of 4, from event number 151 to 200..");
+        verify(logger).info("Range 2 of 4 complete: inserted 40 PublishedEvents");
+    }
+}
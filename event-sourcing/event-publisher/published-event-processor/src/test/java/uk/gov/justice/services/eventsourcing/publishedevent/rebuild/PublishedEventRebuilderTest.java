@@ -1,9 +1,38 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
 
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint.startOf;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.DELETING_PUBLISHED_EVENTS;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.RENUMBERING_EVENTS;
 
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishCursorRepository;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventTableCleaner;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RangeRebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressListener;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressTracker;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressTrackerFactory;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.EventNumberRenumberer;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+
+import javax.sql.DataSource;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +40,7 @@ import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
 
 @ExtendWith(MockitoExtension.class)
 public class PublishedEventRebuilderTest {
@@ -24,22 +54,209 @@ public class PublishedEventRebuilderTest {
     @Mock
     private PublishedEventUpdater publishedEventUpdater;
 
+    @Mock
+    private RebuildCheckpointRepository rebuildCheckpointRepository;
+
+    @Mock
+    private RangeRebuildCheckpointRepository rangeRebuildCheckpointRepository;
+
+    @Mock
+    private PublishCursorRepository publishCursorRepository;
+
+    @Mock
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Mock
+    private RebuildProgressTrackerFactory rebuildProgressTrackerFactory;
+
+    @Mock
+    private UtcClock clock;
+
+    @Mock
+    private Logger logger;
+
     @InjectMocks
     private PublishedEventRebuilder publishedEventRebuilder;
 
     @Test
     public void shouldRenumberEventsAndSaveNewPublishedEvents() throws Exception {
 
-        publishedEventRebuilder.rebuild();
+        final ZonedDateTime now = new UtcClock().now();
+        final RebuildProgressListener rebuildProgressListener = mock(RebuildProgressListener.class);
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(rebuildProgressTrackerFactory.create(rebuildProgressListener)).thenReturn(rebuildProgressTracker);
+        when(clock.now()).thenReturn(now);
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+
+        publishedEventRebuilder.rebuild(rebuildProgressListener);
 
         final InOrder inOrder = inOrder(
+                rebuildCheckpointRepository,
+                rangeRebuildCheckpointRepository,
+                rebuildProgressTracker,
                 eventNumberRenumberer,
                 publishedEventTableCleaner,
-                publishedEventUpdater
+                publishedEventUpdater,
+                publishCursorRepository
         );
 
+        inOrder.verify(rebuildCheckpointRepository).saveCheckpoint(startOf(RENUMBERING_EVENTS), now);
+        inOrder.verify(rebuildProgressTracker).phaseStarted(RENUMBERING_EVENTS);
+        inOrder.verify(eventNumberRenumberer).renumberEventLogEventNumber();
+        inOrder.verify(rebuildCheckpointRepository).saveCheckpoint(startOf(DELETING_PUBLISHED_EVENTS), now);
+        inOrder.verify(rebuildProgressTracker).phaseStarted(DELETING_PUBLISHED_EVENTS);
+        inOrder.verify(rangeRebuildCheckpointRepository).deleteRangeCheckpoints();
+        inOrder.verify(publishedEventTableCleaner).deleteAll();
+        inOrder.verify(publishedEventUpdater).createPublishedEvents(startOf(CREATING_PUBLISHED_EVENTS), rebuildProgressTracker);
+        inOrder.verify(publishCursorRepository).resetCursors(now, dataSource);
+        inOrder.verify(rebuildCheckpointRepository).deleteCheckpoint();
+        inOrder.verify(rangeRebuildCheckpointRepository).deleteRangeCheckpoints();
+
+        verify(eventNumberRenumberer, never()).resumeRenumberingEventLogEventNumber();
+        verify(rebuildCheckpointRepository, never()).findCheckpoint();
+    }
+
+    @Test
+    public void shouldKeepTheCheckpointIfResettingThePublishCursorFails() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+        final SQLException sqlException = new SQLException("Ooops");
+        final RebuildProgressListener rebuildProgressListener = mock(RebuildProgressListener.class);
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(rebuildProgressTrackerFactory.create(rebuildProgressListener)).thenReturn(rebuildProgressTracker);
+        when(rebuildCheckpointRepository.findCheckpoint()).thenReturn(of(startOf(CREATING_PUBLISHED_EVENTS)));
+        when(clock.now()).thenReturn(now);
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        doThrow(sqlException).when(publishCursorRepository).resetCursors(now, dataSource);
+
+        final RebuildException rebuildException = assertThrows(
+                RebuildException.class,
+                () -> publishedEventRebuilder.resumeRebuild(rebuildProgressListener));
+
+        assertThat(rebuildException.getCause(), is(sqlException));
+        assertThat(rebuildException.getMessage(), is("Failed to move publish_cursor to the last event number of the rebuilt published_event table"));
+
+        verify(rebuildCheckpointRepository, never()).deleteCheckpoint();
+        verify(rangeRebuildCheckpointRepository, never()).deleteRangeCheckpoints();
+    }
+
+    @Test
+    public void shouldResumeARenumberingThatDidNotFinishFromItsOwnCheckpoint() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+        final RebuildProgressListener rebuildProgressListener = mock(RebuildProgressListener.class);
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
+
+        when(rebuildProgressTrackerFactory.create(rebuildProgressListener)).thenReturn(rebuildProgressTracker);
+        when(rebuildCheckpointRepository.findCheckpoint()).thenReturn(of(startOf(RENUMBERING_EVENTS)));
+        when(clock.now()).thenReturn(now);
+
+        publishedEventRebuilder.resumeRebuild(rebuildProgressListener);
+
+        final InOrder inOrder = inOrder(eventNumberRenumberer, publishedEventTableCleaner, publishedEventUpdater, rebuildCheckpointRepository);
+
+        inOrder.verify(rebuildCheckpointRepository).saveCheckpoint(startOf(RENUMBERING_EVENTS), now);
+        inOrder.verify(eventNumberRenumberer).resumeRenumberingEventLogEventNumber();
+        inOrder.verify(publishedEventTableCleaner).deleteAll();
+        inOrder.verify(publishedEventUpdater).createPublishedEvents(startOf(CREATING_PUBLISHED_EVENTS), rebuildProgressTracker);
+        inOrder.verify(rebuildCheckpointRepository).deleteCheckpoint();
+
+        verify(eventNumberRenumberer, never()).renumberEventLogEventNumber();
+    }
+
+    @Test
+    public void shouldResumeCreatingPublishedEventsAfterTheLastEventNumberOfTheCheckpoint() throws Exception {
+
+        final RebuildCheckpoint rebuildCheckpoint = new RebuildCheckpoint(CREATING_PUBLISHED_EVENTS, 2_000L, 1_998L, 1_500L);
+        final RebuildProgressListener rebuildProgressListener = mock(RebuildProgressListener.class);
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
+
+        when(rebuildProgressTrackerFactory.create(rebuildProgressListener)).thenReturn(rebuildProgressTracker);
+        when(rebuildCheckpointRepository.findCheckpoint()).thenReturn(of(rebuildCheckpoint));
+
+        publishedEventRebuilder.resumeRebuild(rebuildProgressListener);
+
+        final InOrder inOrder = inOrder(logger, publishedEventUpdater, publishCursorRepository, rebuildCheckpointRepository);
+
+        inOrder.verify(logger).info("Resuming rebuild from phase CREATING_PUBLISHED_EVENTS after event number 2000");
+        inOrder.verify(publishedEventUpdater).createPublishedEvents(rebuildCheckpoint, rebuildProgressTracker);
+        inOrder.verify(publishCursorRepository).resetCursors(null, null);
+        inOrder.verify(rebuildCheckpointRepository).deleteCheckpoint();
+
+        verify(eventNumberRenumberer, never()).renumberEventLogEventNumber();
+        verify(publishedEventTableCleaner, never()).deleteAll();
+    }
+
+    @Test
+    public void shouldResumeCreatingPublishedEventsInParallelRangesWithoutDeletingTheRangeCheckpointsUntilComplete() throws Exception {
+
+        final RebuildProgressListener rebuildProgressListener = mock(RebuildProgressListener.class);
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
+
+        when(rebuildProgressTrackerFactory.create(rebuildProgressListener)).thenReturn(rebuildProgressTracker);
+        when(rebuildCheckpointRepository.findCheckpoint()).thenReturn(of(startOf(CREATING_PUBLISHED_EVENTS)));
+
+        publishedEventRebuilder.resumeRebuild(rebuildProgressListener);
+
+        final InOrder inOrder = inOrder(publishedEventUpdater, rebuildCheckpointRepository, rangeRebuildCheckpointRepository);
+
+        inOrder.verify(publishedEventUpdater).createPublishedEvents(startOf(CREATING_PUBLISHED_EVENTS), rebuildProgressTracker);
+        inOrder.verify(rebuildCheckpointRepository).deleteCheckpoint();
+        inOrder.verify(rangeRebuildCheckpointRepository).deleteRangeCheckpoints();
+
+        verify(rangeRebuildCheckpointRepository, times(1)).deleteRangeCheckpoints();
+        verify(publishedEventTableCleaner, never()).deleteAll();
+        verify(rebuildProgressTracker, never()).phaseStarted(DELETING_PUBLISHED_EVENTS);
+    }
+
+    @Test
+    public void shouldResumeFromDeletingPublishedEventsWithoutRenumberingAgain() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+        final RebuildProgressListener rebuildProgressListener = mock(RebuildProgressListener.class);
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
+
+        when(rebuildProgressTrackerFactory.create(rebuildProgressListener)).thenReturn(rebuildProgressTracker);
+        when(rebuildCheckpointRepository.findCheckpoint()).thenReturn(of(startOf(DELETING_PUBLISHED_EVENTS)));
+        when(clock.now()).thenReturn(now);
+
+        publishedEventRebuilder.resumeRebuild(rebuildProgressListener);
+
+        final InOrder inOrder = inOrder(publishedEventTableCleaner, publishedEventUpdater, rebuildCheckpointRepository);
+
+        inOrder.verify(rebuildCheckpointRepository).saveCheckpoint(startOf(DELETING_PUBLISHED_EVENTS), now);
+        inOrder.verify(publishedEventTableCleaner).deleteAll();
+        inOrder.verify(publishedEventUpdater).createPublishedEvents(startOf(CREATING_PUBLISHED_EVENTS), rebuildProgressTracker);
+        inOrder.verify(rebuildCheckpointRepository).deleteCheckpoint();
+
+        verify(eventNumberRenumberer, never()).renumberEventLogEventNumber();
+    }
+
+    @Test
+    public void shouldRebuildFromTheStartIfResumingAndThereIsNoCheckpoint() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+        final RebuildProgressListener rebuildProgressListener = mock(RebuildProgressListener.class);
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
+
+        when(rebuildProgressTrackerFactory.create(rebuildProgressListener)).thenReturn(rebuildProgressTracker);
+        when(rebuildCheckpointRepository.findCheckpoint()).thenReturn(empty());
+        when(clock.now()).thenReturn(now);
+
+        publishedEventRebuilder.resumeRebuild(rebuildProgressListener);
+
+        final InOrder inOrder = inOrder(logger, eventNumberRenumberer, publishedEventTableCleaner, publishedEventUpdater, rebuildCheckpointRepository);
+
+        inOrder.verify(logger).info("No rebuild checkpoint found, rebuilding from the start");
         inOrder.verify(eventNumberRenumberer).renumberEventLogEventNumber();
         inOrder.verify(publishedEventTableCleaner).deleteAll();
-        inOrder.verify(publishedEventUpdater).createPublishedEvents();
+        inOrder.verify(publishedEventUpdater).createPublishedEvents(startOf(CREATING_PUBLISHED_EVENTS), rebuildProgressTracker);
+        inOrder.verify(rebuildCheckpointRepository).deleteCheckpoint();
+
+        verify(eventNumberRenumberer, never()).resumeRenumberingEventLogEventNumber();
     }
 }
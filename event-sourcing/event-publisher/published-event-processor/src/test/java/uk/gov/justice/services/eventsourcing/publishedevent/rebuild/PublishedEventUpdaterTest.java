@@ -1,16 +1,29 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
 
 import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint.startOf;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
 
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RangeRebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressTracker;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
+
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -32,6 +45,18 @@ public class PublishedEventUpdaterTest {
     @Mock
     private ProcessCompleteDecider processCompleteDecider;
 
+    @Mock
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
+    @Mock
+    private ParallelPublishedEventUpdater parallelPublishedEventUpdater;
+
+    @Mock
+    private RangeRebuildCheckpointRepository rangeRebuildCheckpointRepository;
+
+    @Mock
+    private EventJdbcRepository eventJdbcRepository;
+
     @Mock
     private Logger logger;
 
@@ -42,21 +67,99 @@ public class PublishedEventUpdaterTest {
     public void shouldIterateThroughAllBatchesOfEventsAndProcessThem() throws Exception {
 
         final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RebuildCheckpoint rebuildCheckpoint = startOf(CREATING_PUBLISHED_EVENTS);
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
         final BatchProcessDetails startBatchProcessDetails = mock(BatchProcessDetails.class);
         final BatchProcessDetails nextBatchProcessDetails = mock(BatchProcessDetails.class);
         final BatchProcessDetails finalBatchProcessDetails = mock(BatchProcessDetails.class);
 
         when(activeEventStreamIdProvider.getActiveStreamIds()).thenReturn(activeStreamIds);
-        when(batchProcessingDetailsCalculator.createFirstBatchProcessDetails()).thenReturn(startBatchProcessDetails);
+        when(eventJdbcRepository.getMaximumEventNumber()).thenReturn(25L);
+        when(publishedEventRebuildConfig.getRangeCount()).thenReturn(1);
+        when(batchProcessingDetailsCalculator.createFirstBatchProcessDetails(rebuildCheckpoint)).thenReturn(startBatchProcessDetails);
         when(batchPublishedEventProcessor.processNextBatchOfEvents(startBatchProcessDetails, activeStreamIds)).thenReturn(nextBatchProcessDetails);
+        when(nextBatchProcessDetails.getCurrentEventNumber()).thenReturn(new AtomicLong(12L));
+        when(nextBatchProcessDetails.getProcessCount()).thenReturn(11);
         when(processCompleteDecider.isProcessingComplete(nextBatchProcessDetails)).thenReturn(false);
         when(batchPublishedEventProcessor.processNextBatchOfEvents(nextBatchProcessDetails, activeStreamIds)).thenReturn(finalBatchProcessDetails);
+        when(finalBatchProcessDetails.getCurrentEventNumber()).thenReturn(new AtomicLong(25L));
         when(processCompleteDecider.isProcessingComplete(finalBatchProcessDetails)).thenReturn(true);
         when(finalBatchProcessDetails.getProcessCount()).thenReturn(23);
 
-        publishedEventUpdater.createPublishedEvents();
+        publishedEventUpdater.createPublishedEvents(rebuildCheckpoint, rebuildProgressTracker);
+
+        final InOrder inOrder = inOrder(rebuildProgressTracker);
+
+        inOrder.verify(rebuildProgressTracker).phaseStarted(CREATING_PUBLISHED_EVENTS, 0L, 25L, 0L);
+        inOrder.verify(rebuildProgressTracker).eventsProcessed(12L, 11L);
+        inOrder.verify(rebuildProgressTracker).eventsProcessed(25L, 23L);
 
         verify(logger).info("Creating PublishedEvents..");
         verify(logger).info("Inserted 23 PublishedEvents in total");
     }
+
+    @Test
+    public void shouldCarryOnCreatingPublishedEventsAfterTheLastEventNumberOfTheCheckpoint() throws Exception {
+
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RebuildCheckpoint rebuildCheckpoint = new RebuildCheckpoint(CREATING_PUBLISHED_EVENTS, 20L, 19L, 18L);
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
+        final BatchProcessDetails startBatchProcessDetails = mock(BatchProcessDetails.class);
+        final BatchProcessDetails finalBatchProcessDetails = mock(BatchProcessDetails.class);
+
+        when(activeEventStreamIdProvider.getActiveStreamIds()).thenReturn(activeStreamIds);
+        when(eventJdbcRepository.getMaximumEventNumber()).thenReturn(25L);
+        when(publishedEventRebuildConfig.getRangeCount()).thenReturn(4);
+        when(batchProcessingDetailsCalculator.createFirstBatchProcessDetails(rebuildCheckpoint)).thenReturn(startBatchProcessDetails);
+        when(batchPublishedEventProcessor.processNextBatchOfEvents(startBatchProcessDetails, activeStreamIds)).thenReturn(finalBatchProcessDetails);
+        when(finalBatchProcessDetails.getCurrentEventNumber()).thenReturn(new AtomicLong(25L));
+        when(processCompleteDecider.isProcessingComplete(finalBatchProcessDetails)).thenReturn(true);
+        when(finalBatchProcessDetails.getProcessCount()).thenReturn(23);
+
+        publishedEventUpdater.createPublishedEvents(rebuildCheckpoint, rebuildProgressTracker);
+
+        verify(rebuildProgressTracker).phaseStarted(CREATING_PUBLISHED_EVENTS, 20L, 25L, 18L);
+        verify(rebuildProgressTracker).eventsProcessed(25L, 23L);
+        verify(logger).info("Resuming creation of PublishedEvents after event number 20..");
+        verify(logger).info("Inserted 23 PublishedEvents in total");
+        verifyNoInteractions(parallelPublishedEventUpdater);
+    }
+
+    @Test
+    public void shouldCreatePublishedEventsFromRangesOfEventNumbersInParallelIfMoreThanOneRangeIsConfigured() throws Exception {
+
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
+        final int rangeCount = 4;
+
+        when(activeEventStreamIdProvider.getActiveStreamIds()).thenReturn(activeStreamIds);
+        when(publishedEventRebuildConfig.getRangeCount()).thenReturn(rangeCount);
+
+        publishedEventUpdater.createPublishedEvents(startOf(CREATING_PUBLISHED_EVENTS), rebuildProgressTracker);
+
+        verify(parallelPublishedEventUpdater).createPublishedEvents(activeStreamIds, rangeCount, rebuildProgressTracker);
+        verifyNoInteractions(batchProcessingDetailsCalculator);
+        verifyNoInteractions(batchPublishedEventProcessor);
+    }
+
+    @Test
+    public void shouldCarryOnEachRangeFromItsCheckpointIfRangesWereBeingCreatedInParallel() throws Exception {
+
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RebuildProgressTracker rebuildProgressTracker = mock(RebuildProgressTracker.class);
+        final List<RangeRebuildProgress> rangeRebuildProgresses = asList(
+                new RangeRebuildProgress(new EventNumberRange(1, 0L, 50L), 50L, 49L, 40L, randomUUID()),
+                new RangeRebuildProgress(new EventNumberRange(2, 50L, 100L), 70L, 69L, 15L, randomUUID()));
+
+        when(activeEventStreamIdProvider.getActiveStreamIds()).thenReturn(activeStreamIds);
+        when(rangeRebuildCheckpointRepository.findRangeCheckpoints()).thenReturn(rangeRebuildProgresses);
+
+        publishedEventUpdater.createPublishedEvents(startOf(CREATING_PUBLISHED_EVENTS), rebuildProgressTracker);
+
+        verify(parallelPublishedEventUpdater).resumeCreatingPublishedEvents(activeStreamIds, rangeRebuildProgresses, rebuildProgressTracker);
+        verifyNoInteractions(rebuildProgressTracker);
+        verifyNoInteractions(batchProcessingDetailsCalculator);
+        verifyNoInteractions(batchPublishedEventProcessor);
+        verifyNoInteractions(publishedEventRebuildConfig);
+    }
 }
@@ -6,12 +6,12 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
 
-import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
@@ -33,6 +33,12 @@ public class PublishedEventsRebuilderTest {
     @Mock
     private BatchedPublishedEventInserterFactory batchedPublishedEventInserterFactory;
 
+    @Mock
+    private CopyPublishedEventInserterFactory copyPublishedEventInserterFactory;
+
+    @Mock
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
     @Mock
     private ActiveEventFilter activeEventFilter;
 
@@ -48,6 +54,7 @@ public class PublishedEventsRebuilderTest {
         final UUID streamId_1 = randomUUID();
         final UUID streamId_2 = randomUUID();
         final UUID streamId_3 = randomUUID();
+        final UUID publishedEventId_1 = randomUUID();
 
         final Event event_1 = mock(Event.class);
         final Event event_2 = mock(Event.class);
@@ -70,6 +77,7 @@ public class PublishedEventsRebuilderTest {
         when(activeEventFilter.isActiveEvent(event_1, activeStreamIds)).thenReturn(true);
         when(rebuildPublishedEventFactory.createPublishedEventFrom(event_1, previousEventNumber)).thenReturn(publishedEvent_1);
         when(batchedPublishedEventInserter.addToBatch(publishedEvent_1)).thenReturn(publishedEvent_1);
+        when(publishedEvent_1.getId()).thenReturn(publishedEventId_1);
 
         when(eventNumberGetter.eventNumberFrom(event_2)).thenReturn(2L);
         when(activeEventFilter.isActiveEvent(event_2, activeStreamIds)).thenReturn(true);
@@ -81,15 +89,14 @@ public class PublishedEventsRebuilderTest {
         when(rebuildPublishedEventFactory.createPublishedEventFrom(event_3, previousEventNumber)).thenReturn(publishedEvent_3);
         when(batchedPublishedEventInserter.addToBatch(publishedEvent_3)).thenReturn(publishedEvent_3);
 
-        final List<PublishedEvent> publishedEvents = publishedEventsRebuilder.rebuild(
+        final InsertedPublishedEvents insertedPublishedEvents = publishedEventsRebuilder.rebuild(
                 eventStream,
                 previousEventNumber, currentEventNumber,
                 activeStreamIds);
 
-        assertThat(publishedEvents.size(), is(3));
-        assertThat(publishedEvents.get(0), is(publishedEvent_1));
-        assertThat(publishedEvents.get(1), is(publishedEvent_2));
-        assertThat(publishedEvents.get(2), is(publishedEvent_3));
+        assertThat(insertedPublishedEvents.getCount(), is(3));
+        assertThat(insertedPublishedEvents.getFirstPublishedEventId().get(), is(publishedEventId_1));
+        assertThat(currentEventNumber.get(), is(3L));
 
         final InOrder inOrder = inOrder(batchedPublishedEventInserter);
 
@@ -106,6 +113,7 @@ public class PublishedEventsRebuilderTest {
         final UUID streamId_1 = randomUUID();
         final UUID streamId_2 = randomUUID();
         final UUID streamId_3 = randomUUID();
+        final UUID publishedEventId_1 = randomUUID();
 
         final Event event_1 = mock(Event.class);
         final Event event_2 = mock(Event.class);
@@ -127,6 +135,7 @@ public class PublishedEventsRebuilderTest {
         when(activeEventFilter.isActiveEvent(event_1, activeStreamIds)).thenReturn(true);
         when(rebuildPublishedEventFactory.createPublishedEventFrom(event_1, previousEventNumber)).thenReturn(publishedEvent_1);
         when(batchedPublishedEventInserter.addToBatch(publishedEvent_1)).thenReturn(publishedEvent_1);
+        when(publishedEvent_1.getId()).thenReturn(publishedEventId_1);
 
         when(eventNumberGetter.eventNumberFrom(event_2)).thenReturn(2L);
         when(activeEventFilter.isActiveEvent(event_2, activeStreamIds)).thenReturn(false);
@@ -136,14 +145,13 @@ public class PublishedEventsRebuilderTest {
         when(rebuildPublishedEventFactory.createPublishedEventFrom(event_3, previousEventNumber)).thenReturn(publishedEvent_3);
         when(batchedPublishedEventInserter.addToBatch(publishedEvent_3)).thenReturn(publishedEvent_3);
 
-        final List<PublishedEvent> publishedEvents = publishedEventsRebuilder.rebuild(
+        final InsertedPublishedEvents insertedPublishedEvents = publishedEventsRebuilder.rebuild(
                 eventStream,
                 previousEventNumber, currentEventNumber,
                 activeStreamIds);
 
-        assertThat(publishedEvents.size(), is(2));
-        assertThat(publishedEvents.get(0), is(publishedEvent_1));
-        assertThat(publishedEvents.get(1), is(publishedEvent_3));
+        assertThat(insertedPublishedEvents.getCount(), is(2));
+        assertThat(insertedPublishedEvents.getFirstPublishedEventId().get(), is(publishedEventId_1));
 
         final InOrder inOrder = inOrder(batchedPublishedEventInserter);
 
@@ -152,4 +160,55 @@ public class PublishedEventsRebuilderTest {
         inOrder.verify(batchedPublishedEventInserter).insertBatch();
         inOrder.verify(batchedPublishedEventInserter).close();
     }
+
+    @Test
+    public void shouldCopyThePublishedEventsIntoTheDatabaseIfCopyIsEnabled() throws Exception {
+
+        final UUID streamId = randomUUID();
+        final UUID publishedEventId_1 = randomUUID();
+
+        final Event event_1 = mock(Event.class);
+        final Event event_2 = mock(Event.class);
+
+        final PublishedEvent publishedEvent_1 = mock(PublishedEvent.class);
+        final PublishedEvent publishedEvent_2 = mock(PublishedEvent.class);
+
+        final Stream<Event> eventStream = Stream.of(event_1, event_2);
+        final AtomicLong currentEventNumber = new AtomicLong(1);
+        final AtomicLong previousEventNumber = new AtomicLong(0);
+        final Set<UUID> activeStreamIds = newHashSet(streamId);
+
+        final CopyPublishedEventInserter copyPublishedEventInserter = mock(CopyPublishedEventInserter.class);
+
+        when(publishedEventRebuildConfig.isCopyEnabled()).thenReturn(true);
+        when(copyPublishedEventInserterFactory.createInitialised()).thenReturn(copyPublishedEventInserter);
+
+        when(eventNumberGetter.eventNumberFrom(event_1)).thenReturn(1L);
+        when(activeEventFilter.isActiveEvent(event_1, activeStreamIds)).thenReturn(true);
+        when(rebuildPublishedEventFactory.createPublishedEventFrom(event_1, previousEventNumber)).thenReturn(publishedEvent_1);
+        when(copyPublishedEventInserter.addToBatch(publishedEvent_1)).thenReturn(publishedEvent_1);
+        when(publishedEvent_1.getId()).thenReturn(publishedEventId_1);
+
+        when(eventNumberGetter.eventNumberFrom(event_2)).thenReturn(2L);
+        when(activeEventFilter.isActiveEvent(event_2, activeStreamIds)).thenReturn(true);
+        when(rebuildPublishedEventFactory.createPublishedEventFrom(event_2, previousEventNumber)).thenReturn(publishedEvent_2);
+        when(copyPublishedEventInserter.addToBatch(publishedEvent_2)).thenReturn(publishedEvent_2);
+
+        final InsertedPublishedEvents insertedPublishedEvents = publishedEventsRebuilder.rebuild(
+                eventStream,
+                previousEventNumber, currentEventNumber,
+                activeStreamIds);
+
+        assertThat(insertedPublishedEvents.getCount(), is(2));
+        assertThat(insertedPublishedEvents.getFirstPublishedEventId().get(), is(publishedEventId_1));
+
+        final InOrder inOrder = inOrder(copyPublishedEventInserter);
+
+        inOrder.verify(copyPublishedEventInserter).addToBatch(publishedEvent_1);
+        inOrder.verify(copyPublishedEventInserter).addToBatch(publishedEvent_2);
+        inOrder.verify(copyPublishedEventInserter).insertBatch();
+        inOrder.verify(copyPublishedEventInserter).close();
+
+        verifyNoInteractions(batchedPublishedEventInserterFactory);
+    }
 }
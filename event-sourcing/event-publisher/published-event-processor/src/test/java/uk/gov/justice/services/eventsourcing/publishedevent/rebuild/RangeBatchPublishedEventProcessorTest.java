@@ -0,0 +1,106 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RangeRebuildCheckpointRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RangeBatchPublishedEventProcessorTest {
+
+    @Mock
+    private EventJdbcRepository eventJdbcRepository;
+
+    @Mock
+    private PublishedEventsRebuilder publishedEventsRebuilder;
+
+    @Mock
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
+    @Mock
+    private RangeRebuildCheckpointRepository rangeRebuildCheckpointRepository;
+
+    @Mock
+    private UtcClock clock;
+
+    @InjectMocks
+    private RangeBatchPublishedEventProcessor rangeBatchPublishedEventProcessor;
+
+    @Test
+    public void shouldInsertTheNextPageOfEventsOfTheRangeAndRecordTheProgress() throws Exception {
+
+        final ZonedDateTime now = new UtcClock().now();
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RangeRebuildProgress rangeRebuildProgress = new RangeRebuildProgress(new EventNumberRange(2, 100L, 200L));
+        final UUID firstPublishedEventId = randomUUID();
+
+        final Stream<Event> eventStream = Stream.of(mock(Event.class), mock(Event.class));
+        final PublishedEvent publishedEvent_1 = mock(PublishedEvent.class);
+        final PublishedEvent publishedEvent_2 = mock(PublishedEvent.class);
+
+        when(publishedEventRebuildConfig.getPageSize()).thenReturn(2);
+        when(eventJdbcRepository.findAllInEventNumberRangeUptoPageSize(100L, 200L, 2)).thenReturn(eventStream);
+        when(publishedEventsRebuilder.rebuild(
+                eq(eventStream),
+                eq(rangeRebuildProgress.getPreviousEventNumber()),
+                eq(rangeRebuildProgress.getCurrentEventNumber()),
+                eq(activeStreamIds))).thenAnswer(invocationOnMock -> {
+                    final AtomicLong currentEventNumber = invocationOnMock.getArgument(2);
+                    currentEventNumber.set(102L);
+                    final InsertedPublishedEvents insertedPublishedEvents = new InsertedPublishedEvents();
+                    insertedPublishedEvents.inserted(publishedEvent_1);
+                    insertedPublishedEvents.inserted(publishedEvent_2);
+                    return insertedPublishedEvents;
+                });
+        when(publishedEvent_1.getId()).thenReturn(firstPublishedEventId);
+        when(clock.now()).thenReturn(now);
+
+        assertThat(rangeBatchPublishedEventProcessor.processNextBatchOfEvents(rangeRebuildProgress, activeStreamIds), is(true));
+
+        assertThat(rangeRebuildProgress.getInsertedCount(), is(2L));
+        assertThat(rangeRebuildProgress.getCurrentEventNumber().get(), is(102L));
+        assertThat(rangeRebuildProgress.getFirstPublishedEventId().get(), is(firstPublishedEventId));
+
+        verify(rangeRebuildCheckpointRepository).saveRangeCheckpoint(rangeRebuildProgress, now);
+    }
+
+    @Test
+    public void shouldReturnFalseIfNoEventsAreLeftInTheRange() throws Exception {
+
+        final Set<UUID> activeStreamIds = newHashSet(randomUUID());
+        final RangeRebuildProgress rangeRebuildProgress = new RangeRebuildProgress(new EventNumberRange(2, 100L, 200L));
+        final Stream<Event> eventStream = Stream.empty();
+
+        when(publishedEventRebuildConfig.getPageSize()).thenReturn(2);
+        when(eventJdbcRepository.findAllInEventNumberRangeUptoPageSize(100L, 200L, 2)).thenReturn(eventStream);
+        when(publishedEventsRebuilder.rebuild(eq(eventStream), any(AtomicLong.class), any(AtomicLong.class), eq(activeStreamIds))).thenReturn(new InsertedPublishedEvents());
+
+        assertThat(rangeBatchPublishedEventProcessor.processNextBatchOfEvents(rangeRebuildProgress, activeStreamIds), is(false));
+
+        assertThat(rangeRebuildProgress.getInsertedCount(), is(0L));
+        assertThat(rangeRebuildProgress.getFirstPublishedEventId().isPresent(), is(false));
+    }
+}
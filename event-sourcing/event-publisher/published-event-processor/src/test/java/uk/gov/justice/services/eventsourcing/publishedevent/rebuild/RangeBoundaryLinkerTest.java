@@ -0,0 +1,117 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild;
+
+import static java.util.Arrays.asList;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.UUID.fromString;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RangeBoundaryLinkerTest {
+
+    @Mock
+    private EventJdbcRepository eventJdbcRepository;
+
+    @Mock
+    private PublishedEventConverter publishedEventConverter;
+
+    @Mock
+    private PublishedEventRepository publishedEventRepository;
+
+    @InjectMocks
+    private RangeBoundaryLinker rangeBoundaryLinker;
+
+    @Test
+    public void shouldLinkTheFirstPublishedEventOfEachRangeToTheLastPublishedEventOfTheRangeBefore() throws Exception {
+
+        final UUID firstEventIdOfRange_1 = randomUUID();
+        final UUID firstEventIdOfRange_3 = randomUUID();
+
+        final RangeRebuildProgress range_1 = rebuiltRange(1, 0L, 10L, firstEventIdOfRange_1, 9L);
+        final RangeRebuildProgress range_2 = new RangeRebuildProgress(new EventNumberRange(2, 10L, 20L));
+        final RangeRebuildProgress range_3 = rebuiltRange(3, 20L, 30L, firstEventIdOfRange_3, 30L);
+
+        final Event firstEventOfRange_3 = mock(Event.class);
+        final PublishedEvent linkedPublishedEvent = mock(PublishedEvent.class);
+
+        when(eventJdbcRepository.findById(firstEventIdOfRange_3)).thenReturn(of(firstEventOfRange_3));
+        when(publishedEventConverter.toPublishedEvent(firstEventOfRange_3, 9L)).thenReturn(linkedPublishedEvent);
+
+        assertThat(rangeBoundaryLinker.linkRanges(asList(range_1, range_2, range_3)), is(1));
+
+        verify(publishedEventRepository).updatePreviousEventNumber(linkedPublishedEvent);
+        verifyNoMoreInteractions(eventJdbcRepository);
+    }
+
+    @Test
+    public void shouldNotLinkAnythingIfOnlyTheFirstRangeHasPublishedEvents() throws Exception {
+
+        final RangeRebuildProgress range_1 = rebuiltRange(1, 0L, 10L, randomUUID(), 9L);
+        final RangeRebuildProgress range_2 = new RangeRebuildProgress(new EventNumberRange(2, 10L, 20L));
+
+        assertThat(rangeBoundaryLinker.linkRanges(asList(range_1, range_2)), is(0));
+
+        verifyNoInteractions(eventJdbcRepository);
+        verifyNoInteractions(publishedEventRepository);
+    }
+
+    @Test
+    public void shouldFailIfTheFirstEventOfARangeIsNotInTheEventLog() throws Exception {
+
+        final UUID firstEventIdOfRange_2 = fromString("0c5f4c8a-3d8e-4b8e-9c3e-6f2d1a7b9e10");
+
+        final RangeRebuildProgress range_1 = rebuiltRange(1, 0L, 10L, randomUUID(), 9L);
+        final RangeRebuildProgress range_2 = rebuiltRange(2, 10L, 20L, firstEventIdOfRange_2, 20L);
+
+        when(eventJdbcRepository.findById(firstEventIdOfRange_2)).thenReturn(empty());
+
+        final RebuildException rebuildException = assertThrows(
+                RebuildException.class,
+                () -> rangeBoundaryLinker.linkRanges(asList(range_1, range_2)));
+
+        assertThat(rebuildException.getMessage(), is("Failed to find event with id '0c5f4c8a-3d8e-4b8e-9c3e-6f2d1a7b9e10' in event_log"));
+    }
+
+    private RangeRebuildProgress rebuiltRange(
+            final int rangeNumber,
+            final long fromEventNumber,
+            final long toEventNumber,
+            final UUID firstPublishedEventId,
+            final long lastPublishedEventNumber) {
+
+        final RangeRebuildProgress rangeRebuildProgress = new RangeRebuildProgress(new EventNumberRange(rangeNumber, fromEventNumber, toEventNumber));
+        final PublishedEvent firstPublishedEvent = mock(PublishedEvent.class);
+
+        when(firstPublishedEvent.getId()).thenReturn(firstPublishedEventId);
+
+        final InsertedPublishedEvents insertedPublishedEvents = new InsertedPublishedEvents();
+        insertedPublishedEvents.inserted(firstPublishedEvent);
+
+        rangeRebuildProgress.batchInserted(insertedPublishedEvents);
+        rangeRebuildProgress.getPreviousEventNumber().set(lastPublishedEventNumber);
+        rangeRebuildProgress.getCurrentEventNumber().set(toEventNumber);
+
+        return rangeRebuildProgress;
+    }
+}
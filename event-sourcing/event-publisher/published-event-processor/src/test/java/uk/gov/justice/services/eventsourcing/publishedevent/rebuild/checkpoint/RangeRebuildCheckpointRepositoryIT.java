@@ -0,0 +1,90 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.EventNumberRange;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.RangeRebuildProgress;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.test.utils.core.eventsource.EventStoreInitializer;
+import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
+import uk.gov.justice.services.test.utils.persistence.TableCleaner;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RangeRebuildCheckpointRepositoryIT {
+
+    private final DataSource eventStoreDataSource = new FrameworkTestDataSourceFactory().createEventStoreDataSource();
+
+    @Mock
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @InjectMocks
+    private RangeRebuildCheckpointRepository rangeRebuildCheckpointRepository;
+
+    @BeforeEach
+    public void initDatabase() throws Exception {
+        new EventStoreInitializer().initializeEventStore(eventStoreDataSource);
+        new TableCleaner().clean("published_event_rebuild_range_checkpoint", eventStoreDataSource);
+    }
+
+    @Test
+    public void shouldReturnNoRangesIfThereAreNoRangeCheckpoints() throws Exception {
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(eventStoreDataSource);
+
+        assertThat(rangeRebuildCheckpointRepository.findRangeCheckpoints().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldSaveUpdateAndDeleteTheCheckpointOfEachRange() throws Exception {
+
+        final UUID firstPublishedEventId = randomUUID();
+        final RangeRebuildProgress rangeRebuildProgress_1 = new RangeRebuildProgress(new EventNumberRange(1, 0L, 50L));
+        final RangeRebuildProgress rangeRebuildProgress_2 = new RangeRebuildProgress(new EventNumberRange(2, 50L, 100L));
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(eventStoreDataSource);
+
+        rangeRebuildCheckpointRepository.saveRangeCheckpoint(rangeRebuildProgress_2, new UtcClock().now());
+        rangeRebuildCheckpointRepository.saveRangeCheckpoint(rangeRebuildProgress_1, new UtcClock().now());
+
+        rangeRebuildCheckpointRepository.saveRangeCheckpoint(
+                new RangeRebuildProgress(new EventNumberRange(2, 50L, 100L), 70L, 69L, 1L, firstPublishedEventId),
+                new UtcClock().now());
+
+        final List<RangeRebuildProgress> rangeCheckpoints = rangeRebuildCheckpointRepository.findRangeCheckpoints();
+
+        assertThat(rangeCheckpoints.size(), is(2));
+
+        assertThat(rangeCheckpoints.get(0).getEventNumberRange(), is(new EventNumberRange(1, 0L, 50L)));
+        assertThat(rangeCheckpoints.get(0).getCurrentEventNumber().get(), is(0L));
+        assertThat(rangeCheckpoints.get(0).getPreviousEventNumber().get(), is(0L));
+        assertThat(rangeCheckpoints.get(0).getInsertedCount(), is(0L));
+        assertThat(rangeCheckpoints.get(0).getFirstPublishedEventId(), is(empty()));
+
+        assertThat(rangeCheckpoints.get(1).getEventNumberRange(), is(new EventNumberRange(2, 50L, 100L)));
+        assertThat(rangeCheckpoints.get(1).getCurrentEventNumber().get(), is(70L));
+        assertThat(rangeCheckpoints.get(1).getPreviousEventNumber().get(), is(69L));
+        assertThat(rangeCheckpoints.get(1).getInsertedCount(), is(1L));
+        assertThat(rangeCheckpoints.get(1).getFirstPublishedEventId(), is(of(firstPublishedEventId)));
+
+        rangeRebuildCheckpointRepository.deleteRangeCheckpoints();
+        assertThat(rangeRebuildCheckpointRepository.findRangeCheckpoints().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,68 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.RENUMBERING_EVENTS;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.test.utils.core.eventsource.EventStoreInitializer;
+import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
+import uk.gov.justice.services.test.utils.persistence.TableCleaner;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RebuildCheckpointRepositoryIT {
+
+    private final DataSource eventStoreDataSource = new FrameworkTestDataSourceFactory().createEventStoreDataSource();
+
+    @Mock
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @InjectMocks
+    private RebuildCheckpointRepository rebuildCheckpointRepository;
+
+    @BeforeEach
+    public void initDatabase() throws Exception {
+        new EventStoreInitializer().initializeEventStore(eventStoreDataSource);
+        new TableCleaner().clean("published_event_rebuild_checkpoint", eventStoreDataSource);
+    }
+
+    @Test
+    public void shouldReturnEmptyIfThereIsNoCheckpoint() throws Exception {
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(eventStoreDataSource);
+
+        assertThat(rebuildCheckpointRepository.findCheckpoint(), is(empty()));
+    }
+
+    @Test
+    public void shouldSaveUpdateAndDeleteTheCheckpoint() throws Exception {
+
+        final RebuildCheckpoint renumberingCheckpoint = RebuildCheckpoint.startOf(RENUMBERING_EVENTS);
+        final RebuildCheckpoint creatingCheckpoint = new RebuildCheckpoint(CREATING_PUBLISHED_EVENTS, 2_000L, 1_998L, 1_500L);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(eventStoreDataSource);
+
+        rebuildCheckpointRepository.saveCheckpoint(renumberingCheckpoint, new UtcClock().now());
+        assertThat(rebuildCheckpointRepository.findCheckpoint(), is(of(renumberingCheckpoint)));
+
+        rebuildCheckpointRepository.saveCheckpoint(creatingCheckpoint, new UtcClock().now());
+        assertThat(rebuildCheckpointRepository.findCheckpoint(), is(of(creatingCheckpoint)));
+
+        rebuildCheckpointRepository.deleteCheckpoint();
+        assertThat(rebuildCheckpointRepository.findCheckpoint(), is(empty()));
+    }
+}
@@ -0,0 +1,19 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.DELETING_PUBLISHED_EVENTS;
+
+import org.junit.jupiter.api.Test;
+
+public class RebuildCheckpointTest {
+
+    @Test
+    public void shouldBePartwayThroughCreatingPublishedEventsOnlyOnceSomeEventsHaveBeenRead() throws Exception {
+
+        assertThat(new RebuildCheckpoint(CREATING_PUBLISHED_EVENTS, 23L, 22L, 20L).isPartwayThroughCreatingPublishedEvents(), is(true));
+        assertThat(RebuildCheckpoint.startOf(CREATING_PUBLISHED_EVENTS).isPartwayThroughCreatingPublishedEvents(), is(false));
+        assertThat(RebuildCheckpoint.startOf(DELETING_PUBLISHED_EVENTS).isPartwayThroughCreatingPublishedEvents(), is(false));
+    }
+}
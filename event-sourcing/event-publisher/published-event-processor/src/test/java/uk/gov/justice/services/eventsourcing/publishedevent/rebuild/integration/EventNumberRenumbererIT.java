@@ -9,13 +9,17 @@ import static uk.gov.justice.services.test.utils.events.EventBuilder.eventBuilde
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.integration.helpers.EventNumberRenumbererFactory;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.EventNumberRenumberer;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.RenumberCheckpoint;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.RenumberCheckpointRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
 import uk.gov.justice.services.test.utils.events.EventStoreDataAccess;
 import uk.gov.justice.services.test.utils.persistence.DatabaseCleaner;
 import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
 import uk.gov.justice.services.test.utils.persistence.SequenceSetter;
+import uk.gov.justice.services.test.utils.persistence.TableCleaner;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 
 import javax.sql.DataSource;
@@ -53,6 +57,7 @@ public class EventNumberRenumbererIT {
 
         when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(eventStoreDataSource);
         databaseCleaner.cleanEventStoreTables("framework");
+        new TableCleaner().clean("event_renumber_checkpoint", eventStoreDataSource);
     }
 
     @Test
@@ -101,4 +106,98 @@ public class EventNumberRenumbererIT {
 
         assertThat(sequenceSetter.getCurrentSequenceValue("event_sequence_seq", eventStoreDataSource), is(5L));
     }
+
+    @Test
+    public void shouldRenumberTheEventsInChunksAndSetTheSequenceToTheLastEventNumber() throws Exception {
+
+        final SequenceSetter sequenceSetter = new SequenceSetter();
+        final ZonedDateTime now = clock.now();
+
+        sequenceSetter.setSequenceTo(11L, "event_sequence_seq", eventStoreDataSource);
+
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 1").withTimestamp(now.plusSeconds(1)).build());
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 2").withTimestamp(now.plusSeconds(2)).build());
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 3").withTimestamp(now.plusSeconds(3)).build());
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 4").withTimestamp(now.plusSeconds(4)).build());
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 5").withTimestamp(now.plusSeconds(5)).build());
+
+        final EventNumberRenumberer chunkedEventNumberRenumberer = new EventNumberRenumbererFactory().chunkedEventNumberRenumberer(
+                eventStoreDataSourceProvider,
+                logger,
+                2);
+
+        chunkedEventNumberRenumberer.renumberEventLogEventNumber();
+
+        final List<Event> renumberedEvents = eventStoreDataAccess.findAllEventsOrderedByDateCreated();
+
+        assertThat(renumberedEvents.size(), is(5));
+        for (int index = 0; index < renumberedEvents.size(); index++) {
+            assertThat(renumberedEvents.get(index).getName(), is("event " + (index + 1)));
+            assertThat(renumberedEvents.get(index).getEventNumber(), is(of(index + 1L)));
+        }
+
+        assertThat(sequenceSetter.getCurrentSequenceValue("event_sequence_seq", eventStoreDataSource), is(5L));
+        assertThat(new EventNumberRenumbererFactory().renumberCheckpointRepository(eventStoreDataSourceProvider).findCheckpoint().isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldResumeRenumberingTheEventsInChunksFromTheLastCheckpoint() throws Exception {
+
+        final ZonedDateTime now = clock.now();
+
+        new SequenceSetter().setSequenceTo(11L, "event_sequence_seq", eventStoreDataSource);
+
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 1").withTimestamp(now.plusSeconds(1)).build());
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 2").withTimestamp(now.plusSeconds(2)).build());
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 3").withTimestamp(now.plusSeconds(3)).build());
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 4").withTimestamp(now.plusSeconds(4)).build());
+
+        final Event event_2 = eventStoreDataAccess.findAllEventsOrderedByDateCreated().get(1);
+
+        final RenumberCheckpointRepository renumberCheckpointRepository = new EventNumberRenumbererFactory().renumberCheckpointRepository(eventStoreDataSourceProvider);
+        renumberCheckpointRepository.saveCheckpoint(new RenumberCheckpoint(event_2.getCreatedAt(), event_2.getId(), 2L), now);
+
+        new EventNumberRenumbererFactory()
+                .chunkedEventNumberRenumberer(eventStoreDataSourceProvider, logger, 2)
+                .resumeRenumberingEventLogEventNumber();
+
+        final List<Event> renumberedEvents = eventStoreDataAccess.findAllEventsOrderedByDateCreated();
+
+        assertThat(renumberedEvents.get(0).getEventNumber(), is(of(11L)));
+        assertThat(renumberedEvents.get(1).getEventNumber(), is(of(12L)));
+        assertThat(renumberedEvents.get(2).getEventNumber(), is(of(3L)));
+        assertThat(renumberedEvents.get(3).getEventNumber(), is(of(4L)));
+
+        assertThat(renumberCheckpointRepository.findCheckpoint().isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldRenumberTheEventsInChunksFromTheStartIgnoringTheCheckpointOfARenumberingThatDidNotFinish() throws Exception {
+
+        final ZonedDateTime now = clock.now();
+
+        new SequenceSetter().setSequenceTo(11L, "event_sequence_seq", eventStoreDataSource);
+
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 1").withTimestamp(now.plusSeconds(1)).build());
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 2").withTimestamp(now.plusSeconds(2)).build());
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 3").withTimestamp(now.plusSeconds(3)).build());
+        eventStoreDataAccess.insertIntoEventLog(eventBuilder().withName("event 4").withTimestamp(now.plusSeconds(4)).build());
+
+        final Event event_2 = eventStoreDataAccess.findAllEventsOrderedByDateCreated().get(1);
+
+        final RenumberCheckpointRepository renumberCheckpointRepository = new EventNumberRenumbererFactory().renumberCheckpointRepository(eventStoreDataSourceProvider);
+        renumberCheckpointRepository.saveCheckpoint(new RenumberCheckpoint(event_2.getCreatedAt(), event_2.getId(), 2L), now);
+
+        new EventNumberRenumbererFactory()
+                .chunkedEventNumberRenumberer(eventStoreDataSourceProvider, logger, 2)
+                .renumberEventLogEventNumber();
+
+        final List<Event> renumberedEvents = eventStoreDataAccess.findAllEventsOrderedByDateCreated();
+
+        for (int index = 0; index < renumberedEvents.size(); index++) {
+            assertThat(renumberedEvents.get(index).getEventNumber(), is(of(index + 1L)));
+        }
+
+        assertThat(renumberCheckpointRepository.findCheckpoint().isPresent(), is(false));
+    }
 }
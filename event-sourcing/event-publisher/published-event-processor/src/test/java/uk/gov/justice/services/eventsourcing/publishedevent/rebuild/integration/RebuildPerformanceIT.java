@@ -4,12 +4,16 @@ import static org.apache.openejb.util.NetworkUtil.getNextAvailablePort;
 import static uk.gov.justice.services.core.postgres.OpenEjbConfigurationBuilder.createOpenEjbConfigurationBuilder;
 
 import uk.gov.justice.services.cdi.LoggerProducer;
+import uk.gov.justice.services.common.configuration.ContextNameProvider;
+import uk.gov.justice.services.common.configuration.JndiBasedServiceContextNameProvider;
+import uk.gov.justice.services.common.configuration.ValueProducer;
 import uk.gov.justice.services.common.converter.StringToJsonObjectConverter;
 import uk.gov.justice.services.common.converter.jackson.ObjectMapperProducer;
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.DatabaseTableTruncator;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventRepository;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventTableCleaner;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.helpers.TestGlobalValueProducer;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.ActiveEventStreamIdProvider;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventConverter;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventRebuilder;
@@ -26,7 +30,10 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverte
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStreamJdbcRepository;
 import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
 import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
+import uk.gov.justice.services.jdbc.persistence.JndiAppNameProvider;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
 import uk.gov.justice.services.messaging.DefaultJsonObjectEnvelopeConverter;
 import uk.gov.justice.services.messaging.spi.DefaultEnvelopeProvider;
@@ -97,6 +104,13 @@ public class RebuildPerformanceIT {
             DatabaseTableTruncator.class,
             EventStreamJdbcRepository.class,
             JdbcResultSetStreamer.class,
+            CursorResultSetStreamer.class,
+            StreamingMetrics.class,
+            TestGlobalValueProducer.class,
+            JndiAppNameProvider.class,
+            ContextNameProvider.class,
+            JndiBasedServiceContextNameProvider.class,
+            ValueProducer.class,
             PreparedStatementWrapperFactory.class,
             UtcClock.class,
             EventConverter.class,
@@ -142,7 +156,7 @@ public class RebuildPerformanceIT {
 
         stopWatch.reset();
         stopWatch.start();
-        publishedEventRebuilder.rebuild();
+        publishedEventRebuilder.rebuild(rebuildProgress -> {});
         stopWatch.stop();
 
         final long time = stopWatch.getTime();
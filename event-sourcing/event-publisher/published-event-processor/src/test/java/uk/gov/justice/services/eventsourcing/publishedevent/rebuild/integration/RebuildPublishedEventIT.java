@@ -1,23 +1,35 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.integration;
 
+import static java.util.Collections.singletonList;
+import static java.util.Optional.empty;
 import static java.util.Optional.of;
+import static java.util.stream.Collectors.toList;
 import static org.apache.openejb.util.NetworkUtil.getNextAvailablePort;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static uk.gov.justice.services.core.postgres.OpenEjbConfigurationBuilder.createOpenEjbConfigurationBuilder;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpoint.startOf;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.DELETING_PUBLISHED_EVENTS;
 import static uk.gov.justice.services.test.utils.core.messaging.MetadataBuilderFactory.metadataFrom;
 import static uk.gov.justice.services.test.utils.events.PublishedEventBuilder.publishedEventBuilder;
 
 import uk.gov.justice.services.cdi.LoggerProducer;
+import uk.gov.justice.services.common.configuration.ContextNameProvider;
+import uk.gov.justice.services.common.configuration.JndiBasedServiceContextNameProvider;
+import uk.gov.justice.services.common.configuration.ValueProducer;
 import uk.gov.justice.services.common.converter.StringToJsonObjectConverter;
 import uk.gov.justice.services.common.converter.jackson.ObjectMapperProducer;
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.DatabaseTableTruncator;
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishCursorRepository;
+import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventQueries;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventRepository;
 import uk.gov.justice.services.eventsourcing.publishedevent.jdbc.PublishedEventTableCleaner;
+import uk.gov.justice.services.eventsourcing.publishedevent.publish.helpers.TestGlobalValueProducer;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.ActiveEventStreamIdProvider;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventConverter;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventRebuilder;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildCheckpointRepository;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.integration.helpers.EventInserter;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.integration.helpers.StreamIdGenerator;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.integration.helpers.StreamStatusInserter;
@@ -32,7 +44,10 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepo
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.PublishedEvent;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStreamJdbcRepository;
 import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
 import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
+import uk.gov.justice.services.jdbc.persistence.JndiAppNameProvider;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
 import uk.gov.justice.services.messaging.DefaultJsonObjectEnvelopeConverter;
 import uk.gov.justice.services.messaging.Metadata;
@@ -45,6 +60,7 @@ import uk.gov.justice.services.test.utils.persistence.OpenEjbEventStoreDataSourc
 import uk.gov.justice.services.test.utils.persistence.SequenceSetter;
 
 import java.io.StringReader;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
@@ -107,12 +123,21 @@ public class RebuildPublishedEventIT {
             PublishedEventTableCleaner.class,
             PublishedEventConverter.class,
             PublishedEventRepository.class,
+            PublishCursorRepository.class,
+            PublishedEventQueries.class,
             ActiveEventStreamIdProvider.class,
             OpenEjbEventStoreDataSourceProvider.class,
             EventInsertionStrategyProducer.class,
             DatabaseTableTruncator.class,
             EventStreamJdbcRepository.class,
             JdbcResultSetStreamer.class,
+            CursorResultSetStreamer.class,
+            StreamingMetrics.class,
+            TestGlobalValueProducer.class,
+            JndiAppNameProvider.class,
+            ContextNameProvider.class,
+            JndiBasedServiceContextNameProvider.class,
+            ValueProducer.class,
             PreparedStatementWrapperFactory.class,
             UtcClock.class,
             EventConverter.class,
@@ -135,6 +160,15 @@ public class RebuildPublishedEventIT {
     @Inject
     private PublishedEventRebuilder publishedEventRebuilder;
 
+    @Inject
+    private RebuildCheckpointRepository rebuildCheckpointRepository;
+
+    @Inject
+    private PublishCursorRepository publishCursorRepository;
+
+    @Inject
+    private PublishedEventQueries publishedEventQueries;
+
     @SuppressWarnings("UnnecessaryLocalVariable")
     @Test
     public void shouldRenumberEventsInEventLogTruncatePublishedEventsAndUpdatePublishedEventFromEventLog() throws Exception {
@@ -157,7 +191,7 @@ public class RebuildPublishedEventIT {
 
         final List<Event> events = eventStoreDataAccess.findAllEventsOrderedByDateCreated();
 
-        publishedEventRebuilder.rebuild();
+        publishedEventRebuilder.rebuild(rebuildProgress -> {});
 
         final List<PublishedEvent> publishedEvents = eventStoreDataAccess.findAllPublishedEventsOrderedByEventNumber();
 
@@ -184,6 +218,73 @@ public class RebuildPublishedEventIT {
         assertThat(sequenceSetter.getCurrentSequenceValue("event_sequence_seq", eventStoreDataSource), is((long) numberOfEvents));
     }
 
+    @Test
+    public void shouldResumeARebuildFromItsCheckpointAndDeleteTheCheckpointOnceComplete() throws Exception {
+
+        sequenceSetter.setSequenceTo(CURRENT_EVENT_START_NUMBER, "event_sequence_seq", eventStoreDataSource);
+
+        eventStoreDataAccess.insertIntoPublishedEvent(publishedEventBuilder().withEventNumber(1001).withPreviousEventNumber(1000).build());
+        eventStoreDataAccess.insertIntoPublishedEvent(publishedEventBuilder().withEventNumber(1002).withPreviousEventNumber(1001).build());
+
+        final int numberOfStreams = 5;
+        final int numberOfEvents = 10;
+
+        final List<UUID> streamIds = streamIdGenerator.generateStreamIds(numberOfStreams);
+        streamIds.forEach(streamStatusInserter::insertStreamStatus);
+
+        eventInserter.insertSomeEvents(numberOfEvents, streamIds);
+
+        rebuildCheckpointRepository.saveCheckpoint(startOf(DELETING_PUBLISHED_EVENTS), new UtcClock().now());
+
+        publishedEventRebuilder.resumeRebuild(rebuildProgress -> {});
+
+        final List<PublishedEvent> publishedEvents = eventStoreDataAccess.findAllPublishedEventsOrderedByEventNumber();
+
+        assertThat(publishedEvents.size(), is(numberOfEvents));
+        assertThat(rebuildCheckpointRepository.findCheckpoint(), is(empty()));
+    }
+
+    @Test
+    public void shouldMoveThePublishCursorToTheRebuiltEventsSoThatEventsAppendedAfterTheRebuildArePublished() throws Exception {
+
+        final String cursorName = "event-publisher";
+        final ZonedDateTime now = new UtcClock().now();
+
+        sequenceSetter.setSequenceTo(CURRENT_EVENT_START_NUMBER, "event_sequence_seq", eventStoreDataSource);
+
+        eventStoreDataAccess.insertIntoPublishedEvent(publishedEventBuilder().withEventNumber(1001).withPreviousEventNumber(1000).build());
+        eventStoreDataAccess.insertIntoPublishedEvent(publishedEventBuilder().withEventNumber(1002).withPreviousEventNumber(1001).build());
+
+        publishCursorRepository.createCursor(cursorName, now, eventStoreDataSource);
+        publishCursorRepository.advanceCursor(cursorName, 1002L, now, eventStoreDataSource);
+
+        final int numberOfStreams = 5;
+        final int numberOfEvents = 10;
+
+        final List<UUID> streamIds = streamIdGenerator.generateStreamIds(numberOfStreams);
+        streamIds.forEach(streamStatusInserter::insertStreamStatus);
+
+        eventInserter.insertSomeEvents(numberOfEvents, streamIds);
+
+        publishedEventRebuilder.rebuild(rebuildProgress -> {});
+
+        final long cursor = publishCursorRepository.lockCursor(cursorName, eventStoreDataSource).orElseThrow(AssertionError::new);
+
+        assertThat(cursor, is((long) numberOfEvents));
+
+        final PublishedEvent appendedAfterRebuild = publishedEventBuilder()
+                .withEventNumber(numberOfEvents + 1)
+                .withPreviousEventNumber(numberOfEvents)
+                .build();
+        eventStoreDataAccess.insertIntoPublishedEvent(appendedAfterRebuild);
+
+        final List<UUID> publishedEventIds = publishedEventQueries.findPublishedEventsAfter(cursor, 100, eventStoreDataSource).stream()
+                .map(PublishedEvent::getId)
+                .collect(toList());
+
+        assertThat(publishedEventIds, is(singletonList(appendedAfterRebuild.getId())));
+    }
+
     private Metadata createExpectedMetadataFrom(final String metadata, final long previousEventNumber, final long currentEventNumber) {
 
         final JsonObject metadataJsonObject = Json.createReader(new StringReader(metadata)).readObject();
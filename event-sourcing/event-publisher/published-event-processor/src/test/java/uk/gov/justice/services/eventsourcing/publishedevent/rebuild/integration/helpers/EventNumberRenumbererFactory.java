@@ -2,10 +2,14 @@ package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.integration
 
 import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventRebuildConfig;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.BatchEventRenumberer;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.ChunkedEventRenumberer;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.EventIdsByBatchProvider;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.EventNumberRenumberer;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.EventNumberSequenceResetter;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber.RenumberCheckpointRepository;
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
 
 import org.slf4j.Logger;
@@ -16,8 +20,47 @@ public class EventNumberRenumbererFactory {
             final EventStoreDataSourceProvider eventStoreDataSourceProvider,
             final Logger logger) {
 
+        return eventNumberRenumberer(eventStoreDataSourceProvider, logger, false, 50_000);
+    }
+
+    public EventNumberRenumberer chunkedEventNumberRenumberer(
+            final EventStoreDataSourceProvider eventStoreDataSourceProvider,
+            final Logger logger,
+            final int chunkSize) {
+
+        return eventNumberRenumberer(eventStoreDataSourceProvider, logger, true, chunkSize);
+    }
+
+    public RenumberCheckpointRepository renumberCheckpointRepository(final EventStoreDataSourceProvider eventStoreDataSourceProvider) {
+
+        final RenumberCheckpointRepository renumberCheckpointRepository = new RenumberCheckpointRepository();
+
+        setField(renumberCheckpointRepository, "eventStoreDataSourceProvider", eventStoreDataSourceProvider);
+
+        return renumberCheckpointRepository;
+    }
+
+    private EventNumberRenumberer eventNumberRenumberer(
+            final EventStoreDataSourceProvider eventStoreDataSourceProvider,
+            final Logger logger,
+            final boolean chunkedRenumberEnabled,
+            final int chunkSize) {
 
         final EventNumberRenumberer eventNumberRenumberer = new EventNumberRenumberer();
+        final RenumberCheckpointRepository renumberCheckpointRepository = renumberCheckpointRepository(eventStoreDataSourceProvider);
+        final ChunkedEventRenumberer chunkedEventRenumberer = new ChunkedEventRenumberer();
+        final PublishedEventRebuildConfig publishedEventRebuildConfig = new PublishedEventRebuildConfig();
+
+        setField(chunkedEventRenumberer, "eventStoreDataSourceProvider", eventStoreDataSourceProvider);
+        setField(chunkedEventRenumberer, "renumberCheckpointRepository", renumberCheckpointRepository);
+        setField(chunkedEventRenumberer, "clock", new UtcClock());
+
+        setField(publishedEventRebuildConfig, "chunkedRenumberEnabled", Boolean.toString(chunkedRenumberEnabled));
+        setField(publishedEventRebuildConfig, "renumberChunkSize", Integer.toString(chunkSize));
+
+        setField(eventNumberRenumberer, "chunkedEventRenumberer", chunkedEventRenumberer);
+        setField(eventNumberRenumberer, "renumberCheckpointRepository", renumberCheckpointRepository);
+        setField(eventNumberRenumberer, "publishedEventRebuildConfig", publishedEventRebuildConfig);
         final BatchEventRenumberer batchEventRenumberer = batchEventRenumberer(eventStoreDataSourceProvider);
 
         final EventNumberSequenceResetter eventNumberSequenceResetter = eventNumberSequenceResetter(
@@ -0,0 +1,46 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress;
+
+import static java.time.Duration.ofSeconds;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.getValueOfField;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventRebuildConfig;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RebuildProgressTrackerFactoryTest {
+
+    @Mock
+    private UtcClock clock;
+
+    @Mock
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
+    @InjectMocks
+    private RebuildProgressTrackerFactory rebuildProgressTrackerFactory;
+
+    @Test
+    public void shouldCreateATrackerReportingAtTheConfiguredInterval() throws Exception {
+
+        final RebuildProgressListener rebuildProgressListener = mock(RebuildProgressListener.class);
+
+        when(publishedEventRebuildConfig.getProgressReportingIntervalSeconds()).thenReturn(30);
+
+        final RebuildProgressTracker rebuildProgressTracker = rebuildProgressTrackerFactory.create(rebuildProgressListener);
+
+        assertThat(getValueOfField(rebuildProgressTracker, "rebuildProgressListener", RebuildProgressListener.class), is(rebuildProgressListener));
+        assertThat(getValueOfField(rebuildProgressTracker, "clock", UtcClock.class), is(clock));
+        assertThat(getValueOfField(rebuildProgressTracker, "reportingInterval", Duration.class), is(ofSeconds(30)));
+    }
+}
@@ -0,0 +1,85 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress;
+
+import static java.time.Duration.ofSeconds;
+import static java.time.ZoneOffset.UTC;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.RENUMBERING_EVENTS;
+
+import uk.gov.justice.services.common.util.UtcClock;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RebuildProgressTrackerTest {
+
+    @Mock
+    private RebuildProgressListener rebuildProgressListener;
+
+    @Mock
+    private UtcClock clock;
+
+    @Captor
+    private ArgumentCaptor<RebuildProgress> rebuildProgressCaptor;
+
+    private RebuildProgressTracker rebuildProgressTracker;
+
+    @BeforeEach
+    public void createTracker() {
+        rebuildProgressTracker = new RebuildProgressTracker(rebuildProgressListener, clock, ofSeconds(30));
+    }
+
+    @Test
+    public void shouldReportTheStartOfEachPhase() throws Exception {
+
+        when(clock.now()).thenReturn(ZonedDateTime.of(2025, 3, 12, 10, 0, 0, 0, UTC));
+
+        rebuildProgressTracker.phaseStarted(RENUMBERING_EVENTS);
+
+        verify(rebuildProgressListener).progressMade(new RebuildProgress(RENUMBERING_EVENTS, 0L, 0L, 0L, 0L, null));
+    }
+
+    @Test
+    public void shouldReportTheRateAndEstimatedTimeRemainingOnlyOnceEveryReportingInterval() throws Exception {
+
+        final ZonedDateTime phaseStartedAt = ZonedDateTime.of(2025, 3, 12, 10, 0, 0, 0, UTC);
+
+        when(clock.now()).thenReturn(
+                phaseStartedAt,
+                phaseStartedAt.plusSeconds(10),
+                phaseStartedAt.plusSeconds(40));
+
+        rebuildProgressTracker.phaseStarted(CREATING_PUBLISHED_EVENTS, 1_000L, 9_000L, 900L);
+        rebuildProgressTracker.eventsProcessed(2_000L, 1_800L);
+        rebuildProgressTracker.eventsProcessed(5_000L, 4_500L);
+
+        verify(rebuildProgressListener, times(2)).progressMade(rebuildProgressCaptor.capture());
+
+        final List<RebuildProgress> rebuildProgresses = rebuildProgressCaptor.getAllValues();
+
+        assertThat(rebuildProgresses.get(0), is(new RebuildProgress(CREATING_PUBLISHED_EVENTS, 1_000L, 9_000L, 900L, 0L, null)));
+        assertThat(rebuildProgresses.get(0).getEstimatedTimeRemaining(), is(Optional.empty()));
+
+        final RebuildProgress rebuildProgress = rebuildProgresses.get(1);
+
+        assertThat(rebuildProgress.getLastEventNumber(), is(5_000L));
+        assertThat(rebuildProgress.getMaximumEventNumber(), is(9_000L));
+        assertThat(rebuildProgress.getInsertedCount(), is(4_500L));
+        assertThat(rebuildProgress.getEventsPerSecond(), is(100L));
+        assertThat(rebuildProgress.getEstimatedTimeRemaining(), is(Optional.of(ofSeconds(40))));
+    }
+}
@@ -0,0 +1,159 @@
+package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber;
+
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.RebuildException;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ChunkedEventRenumbererTest {
+
+    @Mock
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Mock
+    private RenumberCheckpointRepository renumberCheckpointRepository;
+
+    @Mock
+    private UtcClock clock;
+
+    @InjectMocks
+    private ChunkedEventRenumberer chunkedEventRenumberer;
+
+    @Test
+    public void shouldRenumberTheFirstChunkOfEventsAndSaveTheLastEventAsTheCheckpoint() throws Exception {
+
+        final ZonedDateTime lastDateCreated = new UtcClock().now();
+        final ZonedDateTime now = lastDateCreated.plusSeconds(5);
+        final UUID lastEventId = randomUUID();
+
+        final DataSource dataSource = mock(DataSource.class);
+        final Connection connection = mock(Connection.class);
+        final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        final ResultSet resultSet = mock(ResultSet.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(startsWith("WITH chunk AS (SELECT id, date_created, ? + row_number() OVER (ORDER BY date_created, id) AS new_event_number FROM (SELECT id, date_created FROM event_log ORDER BY date_created, id LIMIT ?)"))).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getTimestamp("date_created")).thenReturn(toSqlTimestamp(lastDateCreated));
+        when(resultSet.getObject("id")).thenReturn(lastEventId);
+        when(resultSet.getLong("new_event_number")).thenReturn(500L);
+        when(clock.now()).thenReturn(now);
+
+        final RenumberCheckpoint expectedCheckpoint = new RenumberCheckpoint(lastDateCreated, lastEventId, 500L);
+
+        assertThat(chunkedEventRenumberer.renumberFirstChunk(500), is(of(expectedCheckpoint)));
+
+        verify(preparedStatement).setLong(1, 0L);
+        verify(preparedStatement).setInt(2, 500);
+        verify(renumberCheckpointRepository).saveCheckpoint(expectedCheckpoint, now);
+        verify(connection).close();
+    }
+
+    @Test
+    public void shouldRenumberTheNextChunkOfEventsAfterTheLastCheckpoint() throws Exception {
+
+        final ZonedDateTime lastDateCreated = new UtcClock().now();
+        final ZonedDateTime nextDateCreated = lastDateCreated.plusSeconds(2);
+        final ZonedDateTime now = lastDateCreated.plusSeconds(5);
+        final UUID lastEventId = randomUUID();
+        final UUID nextEventId = randomUUID();
+        final RenumberCheckpoint lastCheckpoint = new RenumberCheckpoint(lastDateCreated, lastEventId, 500L);
+
+        final DataSource dataSource = mock(DataSource.class);
+        final Connection connection = mock(Connection.class);
+        final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        final ResultSet resultSet = mock(ResultSet.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(startsWith("WITH chunk AS (SELECT id, date_created, ? + row_number() OVER (ORDER BY date_created, id) AS new_event_number FROM (SELECT id, date_created FROM event_log WHERE (date_created, id) > (?, ?) ORDER BY date_created, id LIMIT ?)"))).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getTimestamp("date_created")).thenReturn(toSqlTimestamp(nextDateCreated));
+        when(resultSet.getObject("id")).thenReturn(nextEventId);
+        when(resultSet.getLong("new_event_number")).thenReturn(1000L);
+        when(clock.now()).thenReturn(now);
+
+        final RenumberCheckpoint expectedCheckpoint = new RenumberCheckpoint(nextDateCreated, nextEventId, 1000L);
+
+        assertThat(chunkedEventRenumberer.renumberNextChunk(lastCheckpoint, 500), is(of(expectedCheckpoint)));
+
+        verify(preparedStatement).setLong(1, 500L);
+        verify(preparedStatement).setTimestamp(2, toSqlTimestamp(lastDateCreated));
+        verify(preparedStatement).setObject(3, lastEventId);
+        verify(preparedStatement).setInt(4, 500);
+        verify(renumberCheckpointRepository).saveCheckpoint(expectedCheckpoint, now);
+    }
+
+    @Test
+    public void shouldReturnEmptyAndSaveNoCheckpointIfNoEventsAreLeftToRenumber() throws Exception {
+
+        final RenumberCheckpoint lastCheckpoint = new RenumberCheckpoint(new UtcClock().now(), randomUUID(), 500L);
+
+        final DataSource dataSource = mock(DataSource.class);
+        final Connection connection = mock(Connection.class);
+        final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        final ResultSet resultSet = mock(ResultSet.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        assertThat(chunkedEventRenumberer.renumberNextChunk(lastCheckpoint, 500).isPresent(), is(false));
+
+        verifyNoInteractions(renumberCheckpointRepository);
+    }
+
+    @Test
+    public void shouldThrowExceptionOnSqlExceptionRenumberingAChunk() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+        final RenumberCheckpoint lastCheckpoint = new RenumberCheckpoint(new UtcClock().now(), randomUUID(), 500L);
+
+        final DataSource dataSource = mock(DataSource.class);
+        final Connection connection = mock(Connection.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenThrow(sqlException);
+
+        final RebuildException rebuildException = assertThrows(
+                RebuildException.class,
+                () -> chunkedEventRenumberer.renumberNextChunk(lastCheckpoint, 500));
+
+        assertThat(rebuildException.getCause(), is(sqlException));
+        assertThat(rebuildException.getMessage(), is("Failed to renumber chunk of event_number in event_log table after event number 500"));
+    }
+}
@@ -1,10 +1,21 @@
 package uk.gov.justice.services.eventsourcing.publishedevent.rebuild.renumber;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventRebuildConfig;
+
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -24,6 +35,15 @@ public class EventNumberRenumbererTest {
     @Mock
     private EventNumberSequenceResetter eventNumberSequenceResetter;
 
+    @Mock
+    private ChunkedEventRenumberer chunkedEventRenumberer;
+
+    @Mock
+    private RenumberCheckpointRepository renumberCheckpointRepository;
+
+    @Mock
+    private PublishedEventRebuildConfig publishedEventRebuildConfig;
+
     @Mock
     private Logger logger;
 
@@ -51,11 +71,13 @@ public class EventNumberRenumbererTest {
         eventNumberRenumberer.renumberEventLogEventNumber();
 
         final InOrder inOrder = inOrder(
+                renumberCheckpointRepository,
                 eventNumberSequenceResetter,
                 logger,
                 batchEventRenumberer
         );
 
+        inOrder.verify(renumberCheckpointRepository).deleteCheckpoint();
         inOrder.verify(eventNumberSequenceResetter).resetSequence();
         inOrder.verify(logger).info("Renumbering events in the event_log table...");
         inOrder.verify(batchEventRenumberer).getEventIdsOrderedByCreationDate();
@@ -67,4 +89,113 @@ public class EventNumberRenumbererTest {
         inOrder.verify(logger).info("Renumbered 6 events");
         inOrder.verify(logger).info("Renumbered 6 events in total");
     }
+
+    @Test
+    public void shouldRenumberEventsInChunksThenSetTheSequenceToTheLastEventNumber() throws Exception {
+
+        final RenumberCheckpoint checkpoint_1 = new RenumberCheckpoint(new UtcClock().now(), randomUUID(), 2L);
+        final RenumberCheckpoint checkpoint_2 = new RenumberCheckpoint(new UtcClock().now(), randomUUID(), 4L);
+        final RenumberCheckpoint checkpoint_3 = new RenumberCheckpoint(new UtcClock().now(), randomUUID(), 5L);
+
+        when(publishedEventRebuildConfig.isChunkedRenumberEnabled()).thenReturn(true);
+        when(publishedEventRebuildConfig.getRenumberChunkSize()).thenReturn(2);
+        when(chunkedEventRenumberer.renumberFirstChunk(2)).thenReturn(of(checkpoint_1));
+        when(chunkedEventRenumberer.renumberNextChunk(checkpoint_1, 2)).thenReturn(of(checkpoint_2));
+        when(chunkedEventRenumberer.renumberNextChunk(checkpoint_2, 2)).thenReturn(of(checkpoint_3));
+        when(chunkedEventRenumberer.renumberNextChunk(checkpoint_3, 2)).thenReturn(empty());
+
+        eventNumberRenumberer.renumberEventLogEventNumber();
+
+        final InOrder inOrder = inOrder(
+                eventNumberSequenceResetter,
+                renumberCheckpointRepository,
+                logger
+        );
+
+        inOrder.verify(renumberCheckpointRepository).deleteCheckpoint();
+        inOrder.verify(logger).info("Renumbering events in the event_log table in chunks...");
+        inOrder.verify(logger).info("Renumbered 2 events");
+        inOrder.verify(logger).info("Renumbered 4 events");
+        inOrder.verify(logger).info("Renumbered 5 events");
+        inOrder.verify(eventNumberSequenceResetter).setSequenceTo(5L);
+        inOrder.verify(renumberCheckpointRepository).deleteCheckpoint();
+        inOrder.verify(logger).info("Renumbered 5 events in total");
+
+        verify(eventNumberSequenceResetter, never()).resetSequence();
+        verify(renumberCheckpointRepository, never()).findCheckpoint();
+        verifyNoInteractions(batchEventRenumberer);
+    }
+
+    @Test
+    public void shouldResumeRenumberingEventsInChunksFromTheLastCheckpoint() throws Exception {
+
+        final RenumberCheckpoint lastCheckpoint = new RenumberCheckpoint(new UtcClock().now(), randomUUID(), 4L);
+        final RenumberCheckpoint nextCheckpoint = new RenumberCheckpoint(new UtcClock().now(), randomUUID(), 5L);
+
+        when(publishedEventRebuildConfig.isChunkedRenumberEnabled()).thenReturn(true);
+        when(publishedEventRebuildConfig.getRenumberChunkSize()).thenReturn(2);
+        when(renumberCheckpointRepository.findCheckpoint()).thenReturn(of(lastCheckpoint));
+        when(chunkedEventRenumberer.renumberNextChunk(lastCheckpoint, 2)).thenReturn(of(nextCheckpoint));
+        when(chunkedEventRenumberer.renumberNextChunk(nextCheckpoint, 2)).thenReturn(empty());
+
+        eventNumberRenumberer.resumeRenumberingEventLogEventNumber();
+
+        verify(logger).info("Resuming renumbering of events in the event_log table after event number 4...");
+        verify(chunkedEventRenumberer, never()).renumberFirstChunk(2);
+        verify(eventNumberSequenceResetter).setSequenceTo(5L);
+        verify(renumberCheckpointRepository).deleteCheckpoint();
+        verify(logger).info("Renumbered 5 events in total");
+    }
+
+    @Test
+    public void shouldResetTheSequenceIfThereAreNoEventsToRenumberInChunks() throws Exception {
+
+        when(publishedEventRebuildConfig.isChunkedRenumberEnabled()).thenReturn(true);
+        when(publishedEventRebuildConfig.getRenumberChunkSize()).thenReturn(2);
+        when(chunkedEventRenumberer.renumberFirstChunk(2)).thenReturn(empty());
+
+        eventNumberRenumberer.renumberEventLogEventNumber();
+
+        verify(eventNumberSequenceResetter).resetSequence();
+        verify(renumberCheckpointRepository, times(2)).deleteCheckpoint();
+        verify(logger).info("Renumbered 0 events in total");
+    }
+
+    @Test
+    public void shouldIgnoreTheCheckpointOfARenumberingThatDidNotFinishIfNotResuming() throws Exception {
+
+        final RenumberCheckpoint checkpoint = new RenumberCheckpoint(new UtcClock().now(), randomUUID(), 2L);
+
+        when(publishedEventRebuildConfig.isChunkedRenumberEnabled()).thenReturn(true);
+        when(publishedEventRebuildConfig.getRenumberChunkSize()).thenReturn(2);
+        when(chunkedEventRenumberer.renumberFirstChunk(2)).thenReturn(of(checkpoint));
+        when(chunkedEventRenumberer.renumberNextChunk(checkpoint, 2)).thenReturn(empty());
+
+        eventNumberRenumberer.renumberEventLogEventNumber();
+
+        final InOrder inOrder = inOrder(renumberCheckpointRepository, chunkedEventRenumberer);
+
+        inOrder.verify(renumberCheckpointRepository).deleteCheckpoint();
+        inOrder.verify(chunkedEventRenumberer).renumberFirstChunk(2);
+
+        verify(renumberCheckpointRepository, never()).findCheckpoint();
+        verify(logger, never()).info("Resuming renumbering of events in the event_log table after event number 2...");
+    }
+
+    @Test
+    public void shouldRenumberFromTheStartWhenResumingIfRenumberingIsNotChunked() throws Exception {
+
+        when(batchEventRenumberer.getEventIdsOrderedByCreationDate()).thenReturn(emptyList());
+
+        eventNumberRenumberer.resumeRenumberingEventLogEventNumber();
+
+        final InOrder inOrder = inOrder(renumberCheckpointRepository, eventNumberSequenceResetter, batchEventRenumberer);
+
+        inOrder.verify(renumberCheckpointRepository).deleteCheckpoint();
+        inOrder.verify(eventNumberSequenceResetter).resetSequence();
+        inOrder.verify(batchEventRenumberer).getEventIdsOrderedByCreationDate();
+
+        verify(renumberCheckpointRepository, never()).findCheckpoint();
+        verifyNoInteractions(chunkedEventRenumberer);
+    }
 }
@@ -5,6 +5,7 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidPo
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapper;
 
 import java.sql.SQLException;
+import java.util.List;
 
 import javax.enterprise.inject.Alternative;
 
@@ -16,6 +17,11 @@ public class AnsiSQLEventLogInsertionStrategy extends BaseEventInsertStrategy {
         return SQL_INSERT_EVENT;
     }
 
+    @Override
+    public String batchInsertStatement(final int numberOfEvents) {
+        return multiRowInsertStatement(numberOfEvents);
+    }
+
     /**
      * Insert the given event into the event log.
      *
@@ -26,4 +32,15 @@ public class AnsiSQLEventLogInsertionStrategy extends BaseEventInsertStrategy {
     public void insert(final PreparedStatementWrapper ps, final Event event) throws SQLException, InvalidPositionException {
         executeStatement(ps, event);
     }
+
+    /**
+     * Insert all the given events into the event log with a single statement.
+     *
+     * @param events the events to insert
+     * @throws InvalidPositionException if an event already exists at the specified position.
+     */
+    @Override
+    public void insertBatch(final PreparedStatementWrapper ps, final List<Event> events) throws SQLException, InvalidPositionException {
+        executeBatchStatement(ps, events);
+    }
 }
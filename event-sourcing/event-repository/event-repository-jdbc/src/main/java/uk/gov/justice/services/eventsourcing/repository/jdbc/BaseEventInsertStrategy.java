@@ -1,6 +1,8 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc;
 
 import static java.lang.String.format;
+import static java.lang.String.join;
+import static java.util.Collections.nCopies;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
 
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
@@ -8,12 +10,29 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidPo
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapper;
 
 import java.sql.SQLException;
+import java.util.List;
 
 public abstract class BaseEventInsertStrategy implements EventInsertionStrategy {
 
     static final String SQL_INSERT_EVENT = "INSERT INTO event_log (id, stream_id, position_in_stream, name, metadata, payload, date_created) " +
             "VALUES(?, ?, ?, ?, ?, ?, ?)";
 
+    static final String SQL_INSERT_EVENTS = "INSERT INTO event_log (id, stream_id, position_in_stream, name, metadata, payload, date_created) " +
+            "VALUES ";
+    static final String SQL_INSERT_EVENTS_ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int NUMBER_OF_COLUMNS = 7;
+
+    /**
+     * Creates a single multi row insert statement with one VALUES row per event
+     *
+     * @param numberOfEvents the number of rows to insert
+     * @return the multi row insert statement
+     */
+    protected String multiRowInsertStatement(final int numberOfEvents) {
+        return SQL_INSERT_EVENTS + join(", ", nCopies(numberOfEvents, SQL_INSERT_EVENTS_ROW));
+    }
+
     /**
      * Executes the Insertion into Event Log.
      *
@@ -24,17 +43,40 @@ public abstract class BaseEventInsertStrategy implements EventInsertionStrategy
      * @throws InvalidPositionException if an event already exists at the specified position.
      */
     protected int executeStatement(final PreparedStatementWrapper preparedStatement, final Event event) throws SQLException, InvalidPositionException {
+        setParameters(preparedStatement, event, 0);
+        return preparedStatement.executeUpdate();
+    }
+
+    /**
+     * Executes a multi row Insertion of all the events into Event Log in one round trip.
+     *
+     * @param preparedStatement the prepared statement wrapper created from {@link #multiRowInsertStatement(int)}
+     * @param events            the events to set into the prepared statement, in order
+     * @return the number of rows inserted
+     * @throws SQLException               if thrown by the execute update
+     * @throws InvalidPositionException if any of the events has no position.
+     */
+    protected int executeBatchStatement(final PreparedStatementWrapper preparedStatement, final List<Event> events) throws SQLException, InvalidPositionException {
+        int offset = 0;
+        for (final Event event : events) {
+            setParameters(preparedStatement, event, offset);
+            offset = offset + NUMBER_OF_COLUMNS;
+        }
+
+        return preparedStatement.executeUpdate();
+    }
+
+    private void setParameters(final PreparedStatementWrapper preparedStatement, final Event event, final int offset) throws SQLException, InvalidPositionException {
         if (event.getPositionInStream() == null) {
             throw new InvalidPositionException(format("Version is null for stream %s", event.getStreamId()));
         }
 
-        preparedStatement.setObject(1, event.getId());
-        preparedStatement.setObject(2, event.getStreamId());
-        preparedStatement.setLong(3, event.getPositionInStream());
-        preparedStatement.setString(4, event.getName());
-        preparedStatement.setString(5, event.getMetadata());
-        preparedStatement.setString(6, event.getPayload());
-        preparedStatement.setTimestamp(7, toSqlTimestamp(event.getCreatedAt()));
-        return preparedStatement.executeUpdate();
+        preparedStatement.setObject(offset + 1, event.getId());
+        preparedStatement.setObject(offset + 2, event.getStreamId());
+        preparedStatement.setLong(offset + 3, event.getPositionInStream());
+        preparedStatement.setString(offset + 4, event.getName());
+        preparedStatement.setString(offset + 5, event.getMetadata());
+        preparedStatement.setString(offset + 6, event.getPayload());
+        preparedStatement.setTimestamp(offset + 7, toSqlTimestamp(event.getCreatedAt()));
     }
 }
@@ -5,6 +5,7 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidPo
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapper;
 
 import java.sql.SQLException;
+import java.util.List;
 
 public interface EventInsertionStrategy {
 
@@ -15,5 +16,15 @@ public interface EventInsertionStrategy {
      */
     String insertStatement();
 
+    /**
+     * The multi row Insert Statement as a String for the this Insertion Strategy
+     *
+     * @param numberOfEvents the number of events the statement will insert
+     * @return the multi row insert statement
+     */
+    String batchInsertStatement(final int numberOfEvents);
+
     void insert(final PreparedStatementWrapper ps, final Event event) throws SQLException, InvalidPositionException;
+
+    void insertBatch(final PreparedStatementWrapper ps, final List<Event> events) throws SQLException, InvalidPositionException;
 }
@@ -3,6 +3,9 @@ package uk.gov.justice.services.eventsourcing.repository.jdbc;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.StoreEventRequestFailedException;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -55,6 +58,70 @@ public interface EventRepository {
      */
     void storeEvent(final JsonEnvelope envelope) throws StoreEventRequestFailedException;
 
+    /**
+     * Stores all the given envelopes into the event stream, writing the event log and the pre
+     * publish queue in one batch each.
+     *
+     * @param envelopes the envelopes containing the events and the metadata, in position order.
+     * @throws StoreEventRequestFailedException If there was a failure in storing the events, this
+     *                                          will wrap the underlying cause.
+     */
+    void storeEvents(final List<JsonEnvelope> envelopes) throws StoreEventRequestFailedException;
+
+    /**
+     * Stores the events of several appends, each of consecutive events of a single stream, with one
+     * batched insert into the event log and one into the pre publish queue. An append is only stored
+     * if its stream is still at the position before its first event; the others are left out
+     * without failing the appends that can be stored.
+     *
+     * @param appends the envelopes of each append, each in position order.
+     * @return the appends that were not stored because their stream had moved on.
+     * @throws StoreEventRequestFailedException If there was a failure in storing the events, this
+     *                                          will wrap the underlying cause.
+     */
+    List<List<JsonEnvelope>> storeEventsOfAppends(final List<List<JsonEnvelope>> appends) throws StoreEventRequestFailedException;
+
+    /**
+     * Locks the given streams against other appends for the rest of the current transaction and
+     * returns their sizes, read from the database rather than any local cache.
+     *
+     * @param streamIds ids of the streams.
+     * @return the size of each stream, by stream id. 0 for streams that do not exist.
+     */
+    Map<UUID, Long> lockStreamSizes(final Collection<UUID> streamIds);
+
+    /**
+     * Stores the events of several appends, each of consecutive events of a single stream locked
+     * with {@link #lockStreamSizes(Collection)}, with one batched insert into the event log and one
+     * into the pre publish queue. The head of each stream is moved to its last event.
+     *
+     * @param appends the envelopes of each append, each in position order.
+     * @throws StoreEventRequestFailedException If there was a failure in storing the events, this
+     *                                          will wrap the underlying cause.
+     */
+    void storeEventsOfLockedStreams(final List<List<JsonEnvelope>> appends) throws StoreEventRequestFailedException;
+
+    /**
+     * Reserves the next positions of the stream, letting the database assign them atomically. The
+     * stream is locked against other appends until the current transaction completes.
+     *
+     * @param streamId          id of the stream.
+     * @param numberOfPositions the number of positions to reserve.
+     * @return the last of the reserved positions, the first being this minus numberOfPositions plus
+     * one.
+     */
+    long reserveStreamPositions(final UUID streamId, final int numberOfPositions);
+
+    /**
+     * Stores all the given envelopes into the event stream at positions previously reserved with
+     * {@link #reserveStreamPositions(UUID, int)}, so without checking the head of the stream.
+     *
+     * @param envelopes the envelopes containing the events and the metadata, in position order.
+     * @throws StoreEventRequestFailedException If there was a failure in storing the events, this
+     *                                          will wrap the underlying cause.
+     */
+    void storeEventsAtReservedPositions(final List<JsonEnvelope> envelopes) throws StoreEventRequestFailedException;
+
     /**
      * Returns the position for the given stream id.
      *
@@ -63,6 +130,14 @@ public interface EventRepository {
      */
     long getStreamSize(final UUID streamId);
 
+    /**
+     * Discards any position for the given stream held locally by this node, so that the next call
+     * to {@link #getStreamSize(UUID)} reads it from the database.
+     *
+     * @param streamId id of the stream.
+     */
+    void invalidateStreamSize(final UUID streamId);
+
     /**
      * Returns stream of envelope streams. Envelopes in the nested stream are ordered by position
      * ascending
@@ -108,6 +183,32 @@ public interface EventRepository {
      */
     Stream<EventStreamMetadata> getEventStreamsFromPosition(final long position);
 
+    /**
+     * Checks whether there is an event stream at the given position, without reading the stream.
+     *
+     * @param position the position of the stream
+     * @return true if a stream exists at the position
+     */
+    boolean eventStreamExistsAtPosition(final long position);
+
+    /**
+     * Counts the event streams at or after the given position, without reading them.
+     *
+     * @param position the position to count from
+     * @return the number of streams from the position
+     */
+    long countEventStreamsFromPosition(final long position);
+
+    /**
+     * Checks whether the stream has an event at or after the given position, without reading the
+     * payload or metadata of any event.
+     *
+     * @param streamId the id of the stream
+     * @param position the position to look from
+     * @return true if the stream has an event from the position
+     */
+    boolean hasEventsFromPosition(final UUID streamId, final long position);
+
     /**
      * Mark the stream as active or inactive.
      *
@@ -117,12 +218,31 @@ public interface EventRepository {
     void markEventStreamActive(final UUID streamId, final boolean active);
 
     /**
-     * Creates an event stream record with automatic position.
+     * Creates an event stream record with automatic position, unless the stream already exists.
      *
      * @param streamId the streamId of the stream to save.
      */
     void createEventStream(final UUID streamId);
 
+    /**
+     * Creates the event stream records of several streams with one statement, leaving out the
+     * streams that already exist.
+     *
+     * @param streamIds the streamIds of the streams to save.
+     */
+    void createEventStreams(final Collection<UUID> streamIds);
+
+    /**
+     * Copies all the events of a stream on to a new, inactive stream without reading them out of
+     * the event store, and adds the copies to the pre publish queue.
+     *
+     * @param streamId        the streamId of the stream to copy.
+     * @param clonedStreamId  the streamId of the new stream.
+     * @param eventSourceName the source of the copied events.
+     * @return the number of events copied, which is the size of the new stream.
+     */
+    long cloneEventStream(final UUID streamId, final UUID clonedStreamId, final String eventSourceName);
+
 
     /**
      * Returns the stream position.
@@ -0,0 +1,42 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName;
+
+import java.util.Objects;
+
+/**
+ * CDI event fired whenever events are added to one of the publish queue tables, so that the job
+ * draining that queue can be woken once the transaction that added them has committed.
+ */
+public class EventsQueuedEvent {
+
+    private final PublishQueueTableName publishQueueTableName;
+
+    public EventsQueuedEvent(final PublishQueueTableName publishQueueTableName) {
+        this.publishQueueTableName = publishQueueTableName;
+    }
+
+    public PublishQueueTableName getPublishQueueTableName() {
+        return publishQueueTableName;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final EventsQueuedEvent that = (EventsQueuedEvent) o;
+        return publishQueueTableName == that.publishQueueTableName;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(publishQueueTableName);
+    }
+
+    @Override
+    public String toString() {
+        return "EventsQueuedEvent{" +
+                "publishQueueTableName=" + publishQueueTableName +
+                '}';
+    }
+}
@@ -1,11 +1,18 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc;
 
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.nullsFirst;
+import static java.util.stream.Collectors.toList;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamIdComparator.STREAM_ID_ORDER;
+
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStream;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStreamJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamCreationMetrics;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamHeadCache;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidPositionException;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidStreamIdException;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.OptimisticLockingRetryException;
@@ -14,7 +21,12 @@ import uk.gov.justice.services.jdbc.persistence.JdbcRepositoryException;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.BaseStream;
@@ -44,6 +56,12 @@ public class JdbcBasedEventRepository implements EventRepository {
     @Inject
     private PrePublishQueueRepository prePublishQueueRepository;
 
+    @Inject
+    private StreamHeadCache streamHeadCache;
+
+    @Inject
+    private StreamCreationMetrics streamCreationMetrics;
+
     @Inject
     private UtcClock clock;
 
@@ -97,20 +115,189 @@ public class JdbcBasedEventRepository implements EventRepository {
     @Override
     @Transactional(dontRollbackOn = OptimisticLockingRetryException.class)
     public void storeEvent(final JsonEnvelope envelope) throws StoreEventRequestFailedException {
+        final Event event = eventConverter.eventOf(envelope);
         try {
-            final Event event = eventConverter.eventOf(envelope);
             logger.trace("Storing event {} into stream {} at position {}", event.getName(), event.getStreamId(), event.getPositionInStream());
+            advanceStreamHead(event.getStreamId(), event.getPositionInStream(), event.getPositionInStream());
             eventJdbcRepository.insert(event);
             prePublishQueueRepository.addToQueue(event.getId(), clock.now());
+        } catch (final OptimisticLockingRetryException e) {
+            streamHeadCache.invalidate(event.getStreamId());
+            throw e;
         } catch (InvalidPositionException ex) {
             throw new StoreEventRequestFailedException(String.format("Could not store event for position %d of stream %s",
                     envelope.metadata().position().orElse(null), envelope.metadata().streamId().orElse(null)), ex);
         }
     }
 
+    @Override
+    @Transactional(dontRollbackOn = OptimisticLockingRetryException.class)
+    public void storeEvents(final List<JsonEnvelope> envelopes) throws StoreEventRequestFailedException {
+        final List<Event> events = envelopes.stream()
+                .map(eventConverter::eventOf)
+                .collect(toList());
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        final Event firstEvent = events.get(0);
+        final Event lastEvent = events.get(events.size() - 1);
+
+        try {
+            logger.trace("Storing {} events", events.size());
+            advanceStreamHead(firstEvent.getStreamId(), firstEvent.getPositionInStream(), lastEvent.getPositionInStream());
+            eventJdbcRepository.insertBatch(events);
+            prePublishQueueRepository.addToQueue(events.stream().map(Event::getId).collect(toList()), clock.now());
+        } catch (final OptimisticLockingRetryException e) {
+            streamHeadCache.invalidate(firstEvent.getStreamId());
+            throw e;
+        } catch (InvalidPositionException ex) {
+            throw new StoreEventRequestFailedException(String.format("Could not store %d events for stream %s",
+                    events.size(), firstEvent.getStreamId()), ex);
+        }
+    }
+
+    @Override
+    @Transactional(dontRollbackOn = OptimisticLockingRetryException.class)
+    public List<List<JsonEnvelope>> storeEventsOfAppends(final List<List<JsonEnvelope>> appends) throws StoreEventRequestFailedException {
+
+        final List<List<JsonEnvelope>> rejectedAppends = new ArrayList<>();
+        final List<Event> events = new ArrayList<>();
+
+        // stream heads are locked in the stream id order of Postgres, as by lockLatestPositions, so that
+        // concurrent batches and multi stream appends cannot deadlock
+        final List<List<JsonEnvelope>> appendsInStreamOrder = appends.stream()
+                .filter(append -> !append.isEmpty())
+                .sorted(comparing(append -> append.get(0).metadata().streamId().orElse(null), nullsFirst(STREAM_ID_ORDER)))
+                .collect(toList());
+
+        for (final List<JsonEnvelope> append : appendsInStreamOrder) {
+            final List<Event> appendEvents = append.stream()
+                    .map(eventConverter::eventOf)
+                    .collect(toList());
+
+            final Event firstEvent = appendEvents.get(0);
+            final Event lastEvent = appendEvents.get(appendEvents.size() - 1);
+
+            try {
+                advanceStreamHead(firstEvent.getStreamId(), firstEvent.getPositionInStream(), lastEvent.getPositionInStream());
+                events.addAll(appendEvents);
+            } catch (final OptimisticLockingRetryException e) {
+                logger.trace("Not storing {} events into stream {} which has moved on", appendEvents.size(), firstEvent.getStreamId());
+                streamHeadCache.invalidate(firstEvent.getStreamId());
+                rejectedAppends.add(append);
+            }
+        }
+
+        if (events.isEmpty()) {
+            return rejectedAppends;
+        }
+
+        try {
+            logger.trace("Storing {} events of {} appends", events.size(), appendsInStreamOrder.size() - rejectedAppends.size());
+            eventJdbcRepository.insertBatch(events);
+            prePublishQueueRepository.addToQueue(events.stream().map(Event::getId).collect(toList()), clock.now());
+        } catch (InvalidPositionException ex) {
+            throw new StoreEventRequestFailedException(String.format("Could not store %d events of %d appends",
+                    events.size(), appendsInStreamOrder.size() - rejectedAppends.size()), ex);
+        }
+
+        return rejectedAppends;
+    }
+
+    @Override
+    public Map<UUID, Long> lockStreamSizes(final Collection<UUID> streamIds) {
+        final Map<UUID, Long> streamSizes = new HashMap<>(eventStreamJdbcRepository.lockLatestPositions(streamIds));
+
+        final List<UUID> streamIdsWithoutEventStreamRow = streamIds.stream()
+                .filter(streamId -> !streamSizes.containsKey(streamId))
+                .collect(toList());
+
+        if (!streamIdsWithoutEventStreamRow.isEmpty()) {
+            streamSizes.putAll(eventJdbcRepository.getStreamSizes(streamIdsWithoutEventStreamRow));
+        }
+
+        return streamSizes;
+    }
+
+    @Override
+    @Transactional
+    public void storeEventsOfLockedStreams(final List<List<JsonEnvelope>> appends) throws StoreEventRequestFailedException {
+
+        final List<Event> events = new ArrayList<>();
+        final Map<UUID, Long> latestPositions = new HashMap<>();
+
+        for (final List<JsonEnvelope> append : appends) {
+            for (final JsonEnvelope envelope : append) {
+                final Event event = eventConverter.eventOf(envelope);
+                events.add(event);
+                if (event.getPositionInStream() != null) {
+                    latestPositions.put(event.getStreamId(), event.getPositionInStream());
+                }
+            }
+        }
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            logger.trace("Storing {} events into {} streams", events.size(), latestPositions.size());
+            eventStreamJdbcRepository.updateLatestPositions(latestPositions);
+            latestPositions.forEach(streamHeadCache::updateLatestPositionOnCommit);
+            eventJdbcRepository.insertBatch(events);
+            prePublishQueueRepository.addToQueue(events.stream().map(Event::getId).collect(toList()), clock.now());
+        } catch (InvalidPositionException ex) {
+            throw new StoreEventRequestFailedException(String.format("Could not store %d events into streams %s",
+                    events.size(), latestPositions.keySet()), ex);
+        }
+    }
+
+    @Override
+    public long reserveStreamPositions(final UUID streamId, final int numberOfPositions) {
+        final long lastPosition = eventStreamJdbcRepository.reservePositions(streamId, numberOfPositions);
+        logger.trace("Reserved positions {} to {} of stream {}", lastPosition - numberOfPositions + 1, lastPosition, streamId);
+        streamHeadCache.updateLatestPositionOnCommit(streamId, lastPosition);
+        return lastPosition;
+    }
+
+    @Override
+    @Transactional
+    public void storeEventsAtReservedPositions(final List<JsonEnvelope> envelopes) throws StoreEventRequestFailedException {
+        final List<Event> events = envelopes.stream()
+                .map(eventConverter::eventOf)
+                .collect(toList());
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            logger.trace("Storing {} events at reserved positions", events.size());
+            eventJdbcRepository.insertBatch(events);
+            prePublishQueueRepository.addToQueue(events.stream().map(Event::getId).collect(toList()), clock.now());
+        } catch (InvalidPositionException ex) {
+            throw new StoreEventRequestFailedException(String.format("Could not store %d events for stream %s",
+                    events.size(), events.get(0).getStreamId()), ex);
+        }
+    }
+
+    /**
+     * Returns the head position of the stream: from the node local {@link StreamHeadCache} if
+     * this node has appended to the stream, otherwise from event_stream.latest_position. Streams
+     * without an event_stream row fall back to the maximum position in the event_log.
+     */
     @Override
     public long getStreamSize(final UUID streamId) {
-        return eventJdbcRepository.getStreamSize(streamId);
+        return streamHeadCache.getLatestPosition(streamId)
+                .orElseGet(() -> eventStreamJdbcRepository.findLatestPosition(streamId)
+                        .orElseGet(() -> eventJdbcRepository.getStreamSize(streamId)));
+    }
+
+    @Override
+    public void invalidateStreamSize(final UUID streamId) {
+        streamHeadCache.invalidate(streamId);
     }
 
     @Override
@@ -126,14 +313,12 @@ public class JdbcBasedEventRepository implements EventRepository {
 
     @Override
     public Stream<UUID> getAllActiveStreamIds() {
-        return eventStreamJdbcRepository.findActive()
-                .map(EventStream::getStreamId);
+        return eventStreamJdbcRepository.findActiveStreamIds();
     }
 
     @Override
     public Stream<UUID> getAllStreamIds() {
-        return eventStreamJdbcRepository.findAll()
-                .map(EventStream::getStreamId);
+        return eventStreamJdbcRepository.findAllStreamIds();
     }
 
     private Stream<Stream<JsonEnvelope>> getStreams(final Stream<UUID> streamIds) {
@@ -152,6 +337,8 @@ public class JdbcBasedEventRepository implements EventRepository {
     @Override
     public void clearEventsForStream(final UUID id) {
         eventJdbcRepository.clear(id);
+        eventStreamJdbcRepository.resetLatestPosition(id);
+        streamHeadCache.invalidate(id);
     }
 
     @Override
@@ -166,14 +353,89 @@ public class JdbcBasedEventRepository implements EventRepository {
         return eventStreamStream.map(toEventStreamMetadata());
     }
 
+    @Override
+    public boolean eventStreamExistsAtPosition(final long position) {
+        return eventStreamJdbcRepository.existsAtPosition(position);
+    }
+
+    @Override
+    public long countEventStreamsFromPosition(final long position) {
+        return eventStreamJdbcRepository.countFromPosition(position);
+    }
+
+    @Override
+    public boolean hasEventsFromPosition(final UUID streamId, final long position) {
+        return eventJdbcRepository.hasEventsFromPosition(streamId, position);
+    }
+
     @Override
     public void markEventStreamActive(final UUID streamId, final boolean active) {
         eventStreamJdbcRepository.markActive(streamId, active);
     }
 
+    /**
+     * Streams held in the node's {@link StreamHeadCache} are taken to exist without running the
+     * insert. Should another node have deleted one since, the append that follows is rejected
+     * when it moves the stream head, and creates the stream when it is retried.
+     */
     @Override
     public void createEventStream(final UUID streamId) {
-        eventStreamJdbcRepository.insert(streamId);
+
+        if (streamHeadCache.getLatestPosition(streamId).isPresent()) {
+            streamCreationMetrics.cacheHit();
+            return;
+        }
+
+        if (eventStreamJdbcRepository.insert(streamId)) {
+            streamCreationMetrics.streamCreated();
+            streamHeadCache.updateLatestPositionOnCommit(streamId, 0L);
+        } else {
+            streamCreationMetrics.streamAlreadyExisted();
+        }
+    }
+
+    @Override
+    public void createEventStreams(final Collection<UUID> streamIds) {
+
+        final List<UUID> uncachedStreamIds = new ArrayList<>();
+        for (final UUID streamId : streamIds) {
+            if (streamHeadCache.getLatestPosition(streamId).isPresent()) {
+                streamCreationMetrics.cacheHit();
+            } else {
+                uncachedStreamIds.add(streamId);
+            }
+        }
+
+        if (uncachedStreamIds.isEmpty()) {
+            return;
+        }
+
+        final Set<UUID> createdStreamIds = eventStreamJdbcRepository.insertAll(uncachedStreamIds);
+
+        for (final UUID streamId : uncachedStreamIds) {
+            if (createdStreamIds.contains(streamId)) {
+                streamCreationMetrics.streamCreated();
+                streamHeadCache.updateLatestPositionOnCommit(streamId, 0L);
+            } else {
+                streamCreationMetrics.streamAlreadyExisted();
+            }
+        }
+    }
+
+    @Override
+    public long cloneEventStream(final UUID streamId, final UUID clonedStreamId, final String eventSourceName) {
+
+        eventStreamJdbcRepository.insert(clonedStreamId, false);
+
+        final long numberOfEvents = eventJdbcRepository.cloneStream(streamId, clonedStreamId, eventSourceName);
+
+        if (numberOfEvents > 0) {
+            eventStreamJdbcRepository.advanceLatestPosition(clonedStreamId, 0L, numberOfEvents);
+            prePublishQueueRepository.addStreamToQueue(clonedStreamId, clock.now());
+            streamHeadCache.updateLatestPositionOnCommit(clonedStreamId, numberOfEvents);
+        }
+
+        return numberOfEvents;
     }
 
     @Override
@@ -181,6 +443,41 @@ public class JdbcBasedEventRepository implements EventRepository {
         return eventStreamJdbcRepository.getPosition(streamId);
     }
 
+    /**
+     * Moves event_stream.latest_position from the position before the first appended event to the
+     * position of the last one. If the stream has moved on in the meantime the append is rejected
+     * with an {@link OptimisticLockingRetryException} before anything is written to the event_log.
+     *
+     * Streams without an event_stream row are not tracked and rely on the event_log insert alone,
+     * unless this node has the stream in its {@link StreamHeadCache}: the row was then deleted by
+     * another node since, and the append is rejected so that it is retried with the cache entry
+     * gone, which creates the stream again rather than storing events with no event_stream row.
+     */
+    private void advanceStreamHead(final UUID streamId, final Long firstPosition, final Long lastPosition) {
+
+        if (firstPosition == null || lastPosition == null) {
+            return;
+        }
+
+        final long expectedLatestPosition = firstPosition - 1;
+
+        if (eventStreamJdbcRepository.advanceLatestPosition(streamId, expectedLatestPosition, lastPosition)) {
+            streamHeadCache.updateLatestPositionOnCommit(streamId, lastPosition);
+            return;
+        }
+
+        final Optional<Long> latestPosition = eventStreamJdbcRepository.findLatestPosition(streamId);
+        if (latestPosition.isPresent()) {
+            throw new OptimisticLockingRetryException(String.format("Locking Exception while storing sequence %s of stream %s which is already at %s",
+                    firstPosition, streamId, latestPosition.get()));
+        }
+
+        if (streamHeadCache.getLatestPosition(streamId).isPresent()) {
+            throw new OptimisticLockingRetryException(String.format("Locking Exception while storing sequence %s of stream %s which no longer exists",
+                    firstPosition, streamId));
+        }
+    }
+
     private Function<EventStream, EventStreamMetadata> toEventStreamMetadata() {
         return e -> new DefaultEventStreamMetadata(e.getStreamId(), e.getPosition(),
                 e.isActive(), e.getCreatedAt());
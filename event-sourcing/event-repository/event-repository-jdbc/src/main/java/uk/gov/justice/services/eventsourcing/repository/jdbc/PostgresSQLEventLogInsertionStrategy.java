@@ -8,15 +8,23 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.Optimisti
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapper;
 
 import java.sql.SQLException;
+import java.util.List;
 
 import javax.enterprise.inject.Alternative;
 
 @Alternative
 public class PostgresSQLEventLogInsertionStrategy extends BaseEventInsertStrategy {
 
+    private static final String ON_CONFLICT_DO_NOTHING = " ON CONFLICT DO NOTHING";
+
     @Override
     public String insertStatement() {
-        return SQL_INSERT_EVENT + " ON CONFLICT DO NOTHING";
+        return SQL_INSERT_EVENT + ON_CONFLICT_DO_NOTHING;
+    }
+
+    @Override
+    public String batchInsertStatement(final int numberOfEvents) {
+        return multiRowInsertStatement(numberOfEvents) + ON_CONFLICT_DO_NOTHING;
     }
 
     /**
@@ -36,4 +44,24 @@ public class PostgresSQLEventLogInsertionStrategy extends BaseEventInsertStrateg
                     event.getPositionInStream(), event.getStreamId()));
         }
     }
+
+    /**
+     * Tries to insert all the given events into the event log with a single statement. If any of
+     * the rows hits the ON CONFLICT clause fewer rows are inserted than requested, which is
+     * treated in the same way as a conflict on a single insert.
+     *
+     * @param events the events to insert
+     * @throws SQLException               if thrown from {@link BaseEventInsertStrategy#executeBatchStatement}
+     * @throws InvalidPositionException if any version is null.
+     */
+    @Override
+    public void insertBatch(final PreparedStatementWrapper ps, final List<Event> events) throws SQLException, InvalidPositionException {
+        final int updatedRows = executeBatchStatement(ps, events);
+
+        if (updatedRows != events.size()) {
+            final Event firstEvent = events.get(0);
+            throw new OptimisticLockingRetryException(format("Locking Exception while storing %d events from sequence %s of stream %s, only %d were inserted",
+                    events.size(), firstEvent.getPositionInStream(), firstEvent.getStreamId(), updatedRows));
+        }
+    }
 }
@@ -3,6 +3,7 @@ package uk.gov.justice.services.eventsourcing.repository.jdbc;
 import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PRE_PUBLISH_QUEUE_TABLE;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,13 +19,38 @@ public class PrePublishQueueRepository implements PublishQueue {
         publishQueuesDataAccess.addToQueue(eventId, queuedAt, PRE_PUBLISH_QUEUE_TABLE);
     }
 
+    @Override
+    public void addToQueue(final List<UUID> eventIds, final ZonedDateTime queuedAt) {
+        publishQueuesDataAccess.addToQueue(eventIds, queuedAt, PRE_PUBLISH_QUEUE_TABLE);
+    }
+
+    @Override
+    public void addStreamToQueue(final UUID streamId, final ZonedDateTime queuedAt) {
+        publishQueuesDataAccess.addStreamToQueue(streamId, queuedAt, PRE_PUBLISH_QUEUE_TABLE);
+    }
+
     @Override
     public Optional<UUID> popNextEventId() {
         return publishQueuesDataAccess.popNextEventId(PRE_PUBLISH_QUEUE_TABLE);
     }
 
+    @Override
+    public List<UUID> popNextEventIds(final int maxNumberOfEvents) {
+        return publishQueuesDataAccess.popNextEventIds(maxNumberOfEvents, PRE_PUBLISH_QUEUE_TABLE);
+    }
+
+    @Override
+    public void deleteFromQueue(final List<UUID> eventIds) {
+        publishQueuesDataAccess.deleteFromQueue(eventIds, PRE_PUBLISH_QUEUE_TABLE);
+    }
+
     @Override
     public int getSizeOfQueue() {
         return publishQueuesDataAccess.getSizeOfQueue(PRE_PUBLISH_QUEUE_TABLE);
     }
+
+    @Override
+    public int getSizeOfQueueUpTo(final int maxSize) {
+        return publishQueuesDataAccess.getSizeOfQueueUpTo(maxSize, PRE_PUBLISH_QUEUE_TABLE);
+    }
 }
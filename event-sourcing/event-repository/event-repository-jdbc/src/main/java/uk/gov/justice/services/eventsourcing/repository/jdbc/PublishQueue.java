@@ -1,6 +1,7 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,6 +24,11 @@ public interface PublishQueue {
     }
 
     void addToQueue(final UUID eventId, final ZonedDateTime queuedAt);
+    void addToQueue(final List<UUID> eventIds, final ZonedDateTime queuedAt);
+    void addStreamToQueue(final UUID streamId, final ZonedDateTime queuedAt);
     Optional<UUID> popNextEventId();
+    List<UUID> popNextEventIds(final int maxNumberOfEvents);
+    void deleteFromQueue(final List<UUID> eventIds);
     int getSizeOfQueue();
+    int getSizeOfQueueUpTo(final int maxSize);
 }
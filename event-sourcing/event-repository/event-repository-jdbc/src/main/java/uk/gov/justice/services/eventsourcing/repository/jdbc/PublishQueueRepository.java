@@ -3,6 +3,7 @@ package uk.gov.justice.services.eventsourcing.repository.jdbc;
 import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PUBLISH_QUEUE_TABLE;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,13 +19,38 @@ public class PublishQueueRepository implements PublishQueue {
         publishQueuesDataAccess.addToQueue(eventId, queuedAt, PUBLISH_QUEUE_TABLE);
     }
 
+    @Override
+    public void addToQueue(final List<UUID> eventIds, final ZonedDateTime queuedAt) {
+        publishQueuesDataAccess.addToQueue(eventIds, queuedAt, PUBLISH_QUEUE_TABLE);
+    }
+
+    @Override
+    public void addStreamToQueue(final UUID streamId, final ZonedDateTime queuedAt) {
+        publishQueuesDataAccess.addStreamToQueue(streamId, queuedAt, PUBLISH_QUEUE_TABLE);
+    }
+
     @Override
     public Optional<UUID> popNextEventId() {
         return publishQueuesDataAccess.popNextEventId(PUBLISH_QUEUE_TABLE);
     }
 
+    @Override
+    public List<UUID> popNextEventIds(final int maxNumberOfEvents) {
+        return publishQueuesDataAccess.popNextEventIds(maxNumberOfEvents, PUBLISH_QUEUE_TABLE);
+    }
+
+    @Override
+    public void deleteFromQueue(final List<UUID> eventIds) {
+        publishQueuesDataAccess.deleteFromQueue(eventIds, PUBLISH_QUEUE_TABLE);
+    }
+
     @Override
     public int getSizeOfQueue() {
         return publishQueuesDataAccess.getSizeOfQueue(PUBLISH_QUEUE_TABLE);
     }
+
+    @Override
+    public int getSizeOfQueueUpTo(final int maxSize) {
+        return publishQueuesDataAccess.getSizeOfQueueUpTo(maxSize, PUBLISH_QUEUE_TABLE);
+    }
 }
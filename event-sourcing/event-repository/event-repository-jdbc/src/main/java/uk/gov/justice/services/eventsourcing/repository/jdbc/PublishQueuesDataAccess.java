@@ -16,9 +16,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 
@@ -28,13 +31,24 @@ import javax.transaction.Transactional;
 public class PublishQueuesDataAccess {
 
     private static final String INSERT_INTO_PUBLISH_TABLE_QUERY_PATTERN = "INSERT into %s (event_log_id, date_queued) values (?, ?)";
-    private static final String SELECT_FROM_PUBLISH_TABLE_QUERY_PATTERN = "SELECT event_log_id FROM %s ORDER BY date_queued LIMIT 1 FOR UPDATE SKIP LOCKED ";
+    private static final String INSERT_STREAM_INTO_PUBLISH_TABLE_QUERY_PATTERN = "INSERT into %s (event_log_id, date_queued) SELECT id, ? FROM event_log WHERE stream_id = ? ORDER BY position_in_stream";
+    private static final String SELECT_FROM_PUBLISH_TABLE_QUERY_PATTERN = "SELECT event_log_id FROM %s ORDER BY date_queued, queue_order LIMIT 1 FOR UPDATE SKIP LOCKED ";
     private static final String DELETE_FROM_PUBLISH_TABLE_QUERY_PATTERN = "DELETE FROM %s where event_log_id = ?";
+    private static final String POP_FROM_PUBLISH_TABLE_QUERY_PATTERN = "WITH popped AS (" +
+            "DELETE FROM %1$s WHERE event_log_id IN " +
+            "(SELECT event_log_id FROM %1$s ORDER BY date_queued, queue_order LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING event_log_id, date_queued, queue_order) " +
+            "SELECT event_log_id FROM popped ORDER BY date_queued, queue_order";
+    private static final String DELETE_ALL_FROM_PUBLISH_TABLE_QUERY_PATTERN = "DELETE FROM %s WHERE event_log_id = ANY(?)";
     private static final String COUNT_ROWS_QUERY_PATTERN = "SELECT COUNT (*) FROM %s";
+    private static final String COUNT_ROWS_UP_TO_QUERY_PATTERN = "SELECT COUNT (*) FROM (SELECT 1 FROM %s LIMIT ?) AS queued";
 
     @Inject
     private EventStoreDataSourceProvider eventStoreDataSourceProvider;
 
+    @Inject
+    private Event<EventsQueuedEvent> eventsQueuedEventFirer;
+
     @Transactional(MANDATORY)
     public void addToQueue(final UUID eventId, final ZonedDateTime queuedAt, final PublishQueueTableName publishQueueTableName) {
 
@@ -50,6 +64,62 @@ public class PublishQueuesDataAccess {
         } catch (final SQLException e) {
             throw new PublishedEventException(format("Failed to add eventId '%s' to %s table", eventId, publishQueueTableName.getTableName()), e);
         }
+
+        eventsQueuedEventFirer.fire(new EventsQueuedEvent(publishQueueTableName));
+    }
+
+    /**
+     * Adds all the event ids to the queue table using a single jdbc batch. The rows all have the
+     * same date_queued, so they are popped in the order of the list by their queue_order
+     */
+    @Transactional(MANDATORY)
+    public void addToQueue(final List<UUID> eventIds, final ZonedDateTime queuedAt, final PublishQueueTableName publishQueueTableName) {
+
+        if (eventIds.isEmpty()) {
+            return;
+        }
+
+        final String sql = format(INSERT_INTO_PUBLISH_TABLE_QUERY_PATTERN, publishQueueTableName.getTableName());
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            for (final UUID eventId : eventIds) {
+                preparedStatement.setObject(1, eventId);
+                preparedStatement.setObject(2, toSqlTimestamp(queuedAt));
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to add %d eventIds to %s table", eventIds.size(), publishQueueTableName.getTableName()), e);
+        }
+
+        eventsQueuedEventFirer.fire(new EventsQueuedEvent(publishQueueTableName));
+    }
+
+    /**
+     * Adds every event of the stream to the queue table with a single INSERT ... SELECT, so the
+     * event ids never leave the database. The rows are inserted, and so given their queue_order,
+     * in order of position_in_stream
+     */
+    @Transactional(MANDATORY)
+    public void addStreamToQueue(final UUID streamId, final ZonedDateTime queuedAt, final PublishQueueTableName publishQueueTableName) {
+
+        final String sql = format(INSERT_STREAM_INTO_PUBLISH_TABLE_QUERY_PATTERN, publishQueueTableName.getTableName());
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setObject(1, toSqlTimestamp(queuedAt));
+            preparedStatement.setObject(2, streamId);
+
+            preparedStatement.executeUpdate();
+
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to add events of stream '%s' to %s table", streamId, publishQueueTableName.getTableName()), e);
+        }
+
+        eventsQueuedEventFirer.fire(new EventsQueuedEvent(publishQueueTableName));
     }
 
     /**
@@ -82,6 +152,55 @@ public class PublishQueuesDataAccess {
         return empty();
     }
 
+    /**
+     * Locks and deletes up to maxNumberOfEvents of the oldest rows of the queue table with a
+     * single statement, skipping rows locked by other transactions.
+     *
+     * @return the event_log_ids of the deleted rows, in the order they were queued
+     */
+    @Transactional(MANDATORY)
+    public List<UUID> popNextEventIds(final int maxNumberOfEvents, final PublishQueueTableName publishQueueTableName) {
+
+        final String sql = format(POP_FROM_PUBLISH_TABLE_QUERY_PATTERN, publishQueueTableName.getTableName());
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setInt(1, maxNumberOfEvents);
+
+            final List<UUID> eventLogIds = new ArrayList<>();
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    eventLogIds.add(fromString(resultSet.getString("event_log_id")));
+                }
+            }
+
+            return eventLogIds;
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to read event_ids from %s table", publishQueueTableName.getTableName()), e);
+        }
+    }
+
+    /**
+     * Deletes the rows of all the event ids from the queue table with a single statement
+     */
+    @Transactional(MANDATORY)
+    public void deleteFromQueue(final List<UUID> eventIds, final PublishQueueTableName publishQueueTableName) {
+
+        if (eventIds.isEmpty()) {
+            return;
+        }
+
+        final String sql = format(DELETE_ALL_FROM_PUBLISH_TABLE_QUERY_PATTERN, publishQueueTableName.getTableName());
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setArray(1, connection.createArrayOf("uuid", eventIds.toArray()));
+            preparedStatement.executeUpdate();
+
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to delete %d eventIds from %s table", eventIds.size(), publishQueueTableName.getTableName()), e);
+        }
+    }
 
     @Transactional(MANDATORY)
     public int getSizeOfQueue(final PublishQueueTableName publishQueueTableName) {
@@ -100,6 +219,32 @@ public class PublishQueuesDataAccess {
         throw new PublishedEventException(format("Query '%s' returned no results", sql));
     }
 
+    /**
+     * Counts the rows of the queue table, but stops counting at maxSize, so that the cost of
+     * the count stays bounded however long the queue grows.
+     *
+     * @return the number of rows in the queue table, or maxSize if there are at least that many
+     */
+    @Transactional(MANDATORY)
+    public int getSizeOfQueueUpTo(final int maxSize, final PublishQueueTableName publishQueueTableName) {
+        final String sql = format(COUNT_ROWS_UP_TO_QUERY_PATTERN, publishQueueTableName.getTableName());
+        try (final Connection connection = eventStoreDataSourceProvider.getDefaultDataSource().getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setInt(1, maxSize);
+
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getInt(1);
+                }
+            }
+        } catch (final SQLException e) {
+            throw new PublishedEventException(format("Failed to count up to %d rows of %s table", maxSize, publishQueueTableName.getTableName()), e);
+        }
+
+        throw new PublishedEventException(format("Query '%s' returned no results", sql));
+    }
+
     /**
      * Method that deletes the next event from the pre_publish_queue table using the event_log_id.
      */
@@ -0,0 +1,133 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.deletion;
+
+import static java.lang.Long.parseLong;
+import static java.lang.Math.min;
+
+import uk.gov.justice.services.common.configuration.GlobalValue;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamHeadCache;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+/**
+ * Deletes or clears a stream and everything stored for it: its events, their pre_publish_queue,
+ * publish_queue and published_event rows and the rows of any {@link StreamDataRemover} such as
+ * aggregate snapshots. Deleting then removes the event_stream row; clearing keeps it and resets
+ * its position to 0.
+ *
+ * The events are deleted in chunks of 'event.stream.deletion.chunk.size' positions, lowest
+ * positions first, each chunk in a transaction of its own, so concurrent writers to other streams
+ * never wait on one long running delete. As every chunk commits, a deletion that fails or is
+ * interrupted can be resumed by deleting the same stream again: it carries on from the lowest
+ * position left in the event_log. The event_stream row is only deleted or reset once no events
+ * are left. Progress is reported to a {@link StreamDeletionProgressListener} as each chunk commits.
+ *
+ * Only this node's {@link StreamHeadCache} is invalidated. Other nodes caching the head of the
+ * stream find it has moved, or gone, on their next append to it, which fails with an
+ * OptimisticLockingRetryException, invalidates their cached head and is retried.
+ *
+ * Must not be called inside a transaction, or the chunks would not be committed independently.
+ */
+@ApplicationScoped
+public class ChunkedStreamDeleter {
+
+    private static final StreamDeletionProgressListener NO_LISTENER = streamDeletionProgress -> {};
+
+    @Inject
+    @GlobalValue(key = "event.stream.deletion.chunk.size", defaultValue = "1000")
+    private String chunkSize;
+
+    @Inject
+    private StreamChunkDeleter streamChunkDeleter;
+
+    @Inject
+    private StreamHeadCache streamHeadCache;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * @param streamId the id of the stream to delete
+     * @return the number of events deleted
+     */
+    public long deleteStream(final UUID streamId) {
+        return deleteStream(streamId, NO_LISTENER);
+    }
+
+    /**
+     * @param streamId                       the id of the stream to delete
+     * @param streamDeletionProgressListener told of the progress as each chunk commits
+     * @return the number of events deleted
+     */
+    public long deleteStream(final UUID streamId, final StreamDeletionProgressListener streamDeletionProgressListener) {
+
+        final long eventsDeleted = deleteEvents(streamId, streamDeletionProgressListener);
+
+        streamChunkDeleter.deleteEventStream(streamId);
+        streamHeadCache.invalidate(streamId);
+
+        logger.info("Deleted stream {}, {} events deleted", streamId, eventsDeleted);
+
+        return eventsDeleted;
+    }
+
+    /**
+     * @param streamId the id of the stream to clear
+     * @return the number of events deleted
+     */
+    public long clearStream(final UUID streamId) {
+        return clearStream(streamId, NO_LISTENER);
+    }
+
+    /**
+     * @param streamId                       the id of the stream to clear
+     * @param streamDeletionProgressListener told of the progress as each chunk commits
+     * @return the number of events deleted
+     */
+    public long clearStream(final UUID streamId, final StreamDeletionProgressListener streamDeletionProgressListener) {
+
+        final long eventsDeleted = deleteEvents(streamId, streamDeletionProgressListener);
+
+        streamChunkDeleter.resetEventStream(streamId);
+        streamHeadCache.invalidate(streamId);
+
+        logger.info("Cleared stream {}, {} events deleted", streamId, eventsDeleted);
+
+        return eventsDeleted;
+    }
+
+    private long deleteEvents(final UUID streamId, final StreamDeletionProgressListener streamDeletionProgressListener) {
+
+        final long positionsPerChunk = parseLong(chunkSize);
+
+        streamHeadCache.invalidate(streamId);
+
+        final long lastPosition = streamChunkDeleter.findLastPosition(streamId).orElse(0L);
+        long eventsDeleted = 0;
+
+        Optional<Long> firstPosition = streamChunkDeleter.findFirstPosition(streamId);
+        if (firstPosition.isPresent()) {
+            logger.info("Deleting events of stream {} in chunks of {} positions, starting from position {} of {}", streamId, positionsPerChunk, firstPosition.get(), lastPosition);
+        }
+
+        while (firstPosition.isPresent()) {
+            final long fromPosition = firstPosition.get();
+            final long toPosition = fromPosition + positionsPerChunk - 1;
+
+            eventsDeleted += streamChunkDeleter.deleteChunk(streamId, fromPosition, toPosition);
+
+            final long deletedUpToPosition = min(toPosition, lastPosition);
+            logger.info("Deleted {} events of stream {}, up to position {} of {}", eventsDeleted, streamId, deletedUpToPosition, lastPosition);
+            streamDeletionProgressListener.progressMade(new StreamDeletionProgress(streamId, eventsDeleted, deletedUpToPosition, lastPosition));
+
+            firstPosition = streamChunkDeleter.findFirstPosition(streamId);
+        }
+
+        return eventsDeleted;
+    }
+}
@@ -0,0 +1,163 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.deletion;
+
+import static java.lang.String.format;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PRE_PUBLISH_QUEUE_TABLE;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PUBLISH_QUEUE_TABLE;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStreamJdbcRepository;
+import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.jdbc.persistence.JdbcRepositoryException;
+import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapper;
+import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import javax.transaction.Transactional;
+
+/**
+ * Deletes one bounded chunk of a stream per transaction, so that deleting a very large stream
+ * never holds more than a chunk's worth of row locks or WAL at a time.
+ *
+ * The queue and published_event rows of a chunk are found through the ids of its events, so every
+ * delete is driven by the (stream_id, position_in_stream) index of the event_log.
+ */
+@ApplicationScoped
+public class StreamChunkDeleter {
+
+    private static final String SQL_FIND_FIRST_POSITION = "SELECT MIN(position_in_stream) FROM event_log WHERE stream_id=?";
+    private static final String SQL_FIND_LAST_POSITION = "SELECT MAX(position_in_stream) FROM event_log WHERE stream_id=?";
+    private static final String SQL_DELETE_FROM_QUEUE_PATTERN = "DELETE FROM %s WHERE event_log_id IN " +
+            "(SELECT id FROM event_log WHERE stream_id=? AND position_in_stream BETWEEN ? AND ?)";
+    private static final String SQL_DELETE_PUBLISHED_EVENTS = "DELETE FROM published_event WHERE id IN " +
+            "(SELECT id FROM event_log WHERE stream_id=? AND position_in_stream BETWEEN ? AND ?)";
+    private static final String SQL_DELETE_EVENTS = "DELETE FROM event_log WHERE stream_id=? AND position_in_stream BETWEEN ? AND ?";
+
+    private static final String DELETING_CHUNK_EXCEPTION = "Exception while deleting positions %d to %d of stream %s";
+    private static final String READING_STREAM_EXCEPTION = "Exception while reading positions of stream %s";
+
+    @Inject
+    private PreparedStatementWrapperFactory preparedStatementWrapperFactory;
+
+    @Inject
+    private EventStoreDataSourceProvider eventStoreDataSourceProvider;
+
+    @Inject
+    private EventStreamJdbcRepository eventStreamJdbcRepository;
+
+    @Inject
+    @Any
+    private Instance<StreamDataRemover> streamDataRemovers;
+
+    /**
+     * @param streamId the id of the stream
+     * @return the lowest position of the stream still in the event_log, or empty if none are left
+     */
+    public Optional<Long> findFirstPosition(final UUID streamId) {
+        return findPosition(streamId, SQL_FIND_FIRST_POSITION);
+    }
+
+    /**
+     * @param streamId the id of the stream
+     * @return the highest position of the stream still in the event_log, or empty if none are left
+     */
+    public Optional<Long> findLastPosition(final UUID streamId) {
+        return findPosition(streamId, SQL_FIND_LAST_POSITION);
+    }
+
+    /**
+     * Deletes the events of the stream from the given position to the given position, inclusive,
+     * together with their queue, published_event and other rows, and commits.
+     *
+     * @return the number of events deleted from the event_log
+     */
+    @Transactional(REQUIRES_NEW)
+    public int deleteChunk(final UUID streamId, final long fromPosition, final long toPosition) {
+
+        deleteFromQueue(PRE_PUBLISH_QUEUE_TABLE, streamId, fromPosition, toPosition);
+        deleteFromQueue(PUBLISH_QUEUE_TABLE, streamId, fromPosition, toPosition);
+        executeDelete(SQL_DELETE_PUBLISHED_EVENTS, streamId, fromPosition, toPosition);
+        for (final StreamDataRemover streamDataRemover : streamDataRemovers) {
+            streamDataRemover.removeChunk(streamId, fromPosition, toPosition);
+        }
+
+        return executeDelete(SQL_DELETE_EVENTS, streamId, fromPosition, toPosition);
+    }
+
+    /**
+     * Deletes whatever other rows of the stream are left, then the event_stream row itself, and
+     * commits. Called once all the events of the stream have been deleted, when the chunks have
+     * already removed nearly all the other rows.
+     */
+    @Transactional(REQUIRES_NEW)
+    public void deleteEventStream(final UUID streamId) {
+        for (final StreamDataRemover streamDataRemover : streamDataRemovers) {
+            streamDataRemover.removeChunk(streamId, 0L, Long.MAX_VALUE);
+        }
+        eventStreamJdbcRepository.delete(streamId);
+    }
+
+    /**
+     * Deletes whatever other rows of the stream are left and resets the position of its
+     * event_stream row to 0, keeping the row, and commits. Called once all the events of a stream
+     * being cleared have been deleted.
+     */
+    @Transactional(REQUIRES_NEW)
+    public void resetEventStream(final UUID streamId) {
+        for (final StreamDataRemover streamDataRemover : streamDataRemovers) {
+            streamDataRemover.removeChunk(streamId, 0L, Long.MAX_VALUE);
+        }
+        eventStreamJdbcRepository.resetLatestPosition(streamId);
+    }
+
+    private void deleteFromQueue(final PublishQueueTableName publishQueueTableName, final UUID streamId, final long fromPosition, final long toPosition) {
+        executeDelete(format(SQL_DELETE_FROM_QUEUE_PATTERN, publishQueueTableName.getTableName()), streamId, fromPosition, toPosition);
+    }
+
+    private int executeDelete(final String sql, final UUID streamId, final long fromPosition, final long toPosition) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, sql)) {
+            ps.setObject(1, streamId);
+            ps.setLong(2, fromPosition);
+            ps.setLong(3, toPosition);
+
+            return ps.executeUpdate();
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format(DELETING_CHUNK_EXCEPTION, fromPosition, toPosition, streamId), e);
+        }
+    }
+
+    private Optional<Long> findPosition(final UUID streamId, final String sql) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, sql)) {
+            ps.setObject(1, streamId);
+
+            final ResultSet resultSet = ps.executeQuery();
+            if (resultSet.next()) {
+                final long position = resultSet.getLong(1);
+                if (!resultSet.wasNull()) {
+                    return of(position);
+                }
+            }
+
+            return empty();
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format(READING_STREAM_EXCEPTION, streamId), e);
+        }
+    }
+}
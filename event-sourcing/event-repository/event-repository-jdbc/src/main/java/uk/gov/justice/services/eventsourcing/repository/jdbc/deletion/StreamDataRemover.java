@@ -0,0 +1,23 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.deletion;
+
+import java.util.UUID;
+
+/**
+ * Removes rows belonging to a stream that live outside the event_log, such as aggregate
+ * snapshots, while the stream is being deleted by the {@link ChunkedStreamDeleter}.
+ *
+ * Implementations are discovered as CDI beans and called inside the transaction that deletes each
+ * chunk of events, so they must not start transactions of their own.
+ */
+public interface StreamDataRemover {
+
+    /**
+     * Removes the rows of the stream from the given position to the given position, inclusive.
+     *
+     * @param streamId     the id of the stream being deleted
+     * @param fromPosition the first position of the chunk
+     * @param toPosition   the last position of the chunk
+     * @return the number of rows removed
+     */
+    int removeChunk(final UUID streamId, final long fromPosition, final long toPosition);
+}
@@ -0,0 +1,69 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.deletion;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * How far deleting or clearing a stream has got: the number of events deleted so far and the
+ * position deleted up to, of the last position the stream had when its deletion started.
+ */
+public class StreamDeletionProgress {
+
+    private final UUID streamId;
+    private final long eventsDeleted;
+    private final long deletedUpToPosition;
+    private final long lastPosition;
+
+    public StreamDeletionProgress(
+            final UUID streamId,
+            final long eventsDeleted,
+            final long deletedUpToPosition,
+            final long lastPosition) {
+        this.streamId = streamId;
+        this.eventsDeleted = eventsDeleted;
+        this.deletedUpToPosition = deletedUpToPosition;
+        this.lastPosition = lastPosition;
+    }
+
+    public UUID getStreamId() {
+        return streamId;
+    }
+
+    public long getEventsDeleted() {
+        return eventsDeleted;
+    }
+
+    public long getDeletedUpToPosition() {
+        return deletedUpToPosition;
+    }
+
+    public long getLastPosition() {
+        return lastPosition;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StreamDeletionProgress)) return false;
+        final StreamDeletionProgress that = (StreamDeletionProgress) o;
+        return eventsDeleted == that.eventsDeleted &&
+                deletedUpToPosition == that.deletedUpToPosition &&
+                lastPosition == that.lastPosition &&
+                Objects.equals(streamId, that.streamId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(streamId, eventsDeleted, deletedUpToPosition, lastPosition);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamDeletionProgress{" +
+                "streamId=" + streamId +
+                ", eventsDeleted=" + eventsDeleted +
+                ", deletedUpToPosition=" + deletedUpToPosition +
+                ", lastPosition=" + lastPosition +
+                '}';
+    }
+}
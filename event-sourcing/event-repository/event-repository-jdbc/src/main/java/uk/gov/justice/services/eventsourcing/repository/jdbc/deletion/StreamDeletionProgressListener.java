@@ -0,0 +1,10 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.deletion;
+
+/**
+ * Told of the progress of deleting or clearing a stream as each chunk of its events is committed
+ */
+@FunctionalInterface
+public interface StreamDeletionProgressListener {
+
+    void progressMade(final StreamDeletionProgress streamDeletionProgress);
+}
@@ -1,15 +1,20 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc.event;
 
 
+import static java.lang.Integer.parseInt;
+import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static java.util.UUID.fromString;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.fromSqlTimestamp;
 
+import uk.gov.justice.services.common.configuration.GlobalValue;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.EventInsertionStrategy;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidPositionException;
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingQuery;
 import uk.gov.justice.services.jdbc.persistence.JdbcRepositoryException;
 import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapper;
@@ -20,6 +25,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
@@ -47,20 +57,47 @@ public class EventJdbcRepository {
     static final String COL_TIMESTAMP = "date_created";
     static final String COL_EVENT_NUMBER = "event_number";
 
+    /**
+     * The columns read into an {@link Event}; anything else in the table is left where it is.
+     *
+     * Every caller reading whole events goes on to convert them into envelopes or published events,
+     * so needs the payload and metadata. Callers that only need ids, positions or event numbers use
+     * the narrower queries below instead, such as {@link #getStreamIds()},
+     * {@link #hasEventsFromPosition(UUID, long)}, {@link #getStreamSize(UUID)} and
+     * {@link #getMaximumEventNumber()}.
+     */
+    static final String EVENT_COLUMNS = "id, stream_id, position_in_stream, name, metadata, payload, date_created, event_number";
+
     /**
      * Statements
      */
-    static final String SQL_FIND_ALL = "SELECT * FROM event_log ORDER BY position_in_stream ASC";
+    static final String SQL_FIND_ALL = "SELECT " + EVENT_COLUMNS + " FROM event_log ORDER BY position_in_stream ASC";
     static final String SQL_FIND_BY_ID = "SELECT stream_id, position_in_stream, name, payload, metadata, date_created FROM event_log WHERE id = ?";
-    static final String SQL_FIND_BY_STREAM_ID = "SELECT * FROM event_log WHERE stream_id=? ORDER BY position_in_stream ASC";
-    static final String SQL_FIND_BY_STREAM_ID_AND_POSITION = "SELECT * FROM event_log WHERE stream_id=? AND position_in_stream>=? ORDER BY position_in_stream ASC";
-    static final String SQL_FIND_ALL_ORDERED_BY_EVENT_NUMBER = "SELECT * FROM event_log ORDER BY event_number ASC";
-    static final String SQL_FIND_BY_STREAM_ID_AND_POSITION_BY_PAGE = "SELECT * FROM event_log WHERE stream_id=? AND position_in_stream>=? ORDER BY position_in_stream ASC LIMIT ?";
+    static final String SQL_FIND_BY_IDS = "SELECT " + EVENT_COLUMNS + " FROM event_log WHERE id = ANY(?) ORDER BY event_number ASC";
+    static final String SQL_FIND_BY_STREAM_ID = "SELECT " + EVENT_COLUMNS + " FROM event_log WHERE stream_id=? ORDER BY position_in_stream ASC";
+    static final String SQL_FIND_BY_STREAM_ID_AND_POSITION = "SELECT " + EVENT_COLUMNS + " FROM event_log WHERE stream_id=? AND position_in_stream>=? ORDER BY position_in_stream ASC";
+    static final String SQL_FIND_ALL_ORDERED_BY_EVENT_NUMBER = "SELECT " + EVENT_COLUMNS + " FROM event_log ORDER BY event_number ASC";
+    static final String SQL_FIND_BY_STREAM_ID_AND_POSITION_BY_PAGE = "SELECT " + EVENT_COLUMNS + " FROM event_log WHERE stream_id=? AND position_in_stream>=? ORDER BY position_in_stream ASC LIMIT ?";
+    static final String SQL_FIND_ID_FROM_POSITION = "SELECT id FROM event_log WHERE stream_id=? AND position_in_stream>=? LIMIT 1";
     static final String SQL_FIND_LATEST_POSITION = "SELECT MAX(position_in_stream) FROM event_log WHERE stream_id=?";
+    static final String SQL_FIND_LATEST_POSITIONS = "SELECT stream_id, MAX(position_in_stream) FROM event_log WHERE stream_id = ANY(?) GROUP BY stream_id";
     static final String SQL_DISTINCT_STREAM_ID = "SELECT DISTINCT stream_id FROM event_log";
     static final String SQL_DELETE_STREAM = "DELETE FROM event_log t WHERE t.stream_id=?";
-    static final String SQL_FIND_FROM_EVENT_NUMBER_WITH_PAGE = "SELECT * FROM event_log WHERE event_number>? ORDER BY event_number ASC LIMIT ?";
+    static final String SQL_FIND_FROM_EVENT_NUMBER_WITH_PAGE = "SELECT " + EVENT_COLUMNS + " FROM event_log WHERE event_number>? ORDER BY event_number ASC LIMIT ?";
+    static final String SQL_FIND_IN_EVENT_NUMBER_RANGE_WITH_PAGE = "SELECT " + EVENT_COLUMNS + " FROM event_log WHERE event_number>? AND event_number<=? ORDER BY event_number ASC LIMIT ?";
     static final String SQL_MAX_EVENT_NUMBER_FROM_EVENT_LOG = "SELECT MAX(event_number) from event_log";
+    static final String SQL_CLONE_STREAM = "INSERT INTO event_log (id, stream_id, position_in_stream, name, metadata, payload, date_created) " +
+            "SELECT c.id, c.stream_id, c.position_in_stream, c.name, " +
+            "CAST((c.metadata - 'id' - 'causation' - 'stream' - 'source') || jsonb_build_object(" +
+            "'id', c.id, " +
+            "'causation', COALESCE(c.metadata -> 'causation', CAST('[]' AS jsonb)) || jsonb_build_array(c.metadata ->> 'id'), " +
+            "'stream', jsonb_build_object('id', c.stream_id, 'version', c.position_in_stream), " +
+            "'source', CAST(? AS text)) AS text), " +
+            "c.payload, c.date_created " +
+            "FROM (SELECT CAST(md5(CAST(? AS text) || CAST(id AS text)) AS uuid) AS id, CAST(? AS uuid) AS stream_id, " +
+            "ROW_NUMBER() OVER (ORDER BY position_in_stream) AS position_in_stream, name, CAST(metadata AS jsonb) AS metadata, payload, date_created " +
+            "FROM event_log WHERE stream_id=?) c " +
+            "ORDER BY c.position_in_stream";
 
     /*
      * Error Messages
@@ -68,17 +105,48 @@ public class EventJdbcRepository {
     private static final String READING_STREAM_ALL_EXCEPTION = "Exception while reading stream";
     private static final String READING_STREAM_EXCEPTION = "Exception while reading stream %s";
     private static final String DELETING_STREAM_EXCEPTION = "Exception while deleting stream %s";
+    private static final String CLONING_STREAM_EXCEPTION = "Exception while cloning stream %s to stream %s";
     private static final String DELETING_STREAM_EXCEPTION_DETAILS = DELETING_STREAM_EXCEPTION + ", expected %d rows to be updated but was %d";
     private static final String FAILED_TO_READ_STREAM = "Failed to read stream {}";
 
     private static final long NO_EXISTING_VERSION = 0L;
 
+    private static final long UUID_SIZE_IN_BYTES = 16L;
+    private static final long FIXED_WIDTH_COLUMNS_SIZE_IN_BYTES = 2 * UUID_SIZE_IN_BYTES + 3 * 8L;
+
+    /**
+     * Keeps the number of bind parameters of a multi row insert well below the Postgres limit of 32767
+     */
+    static final int MAX_EVENTS_PER_INSERT = 1000;
+
+    /**
+     * Names of the streamed queries in the StreamingMetrics
+     */
+    static final String STREAM_READ_QUERY = "event_log.stream";
+    static final String SCAN_QUERY = "event_log.scan";
+    static final String STREAM_IDS_QUERY = "event_log.stream_ids";
+
+    @Inject
+    @GlobalValue(key = "event.log.stream.read.fetch.size", defaultValue = "500")
+    private String streamReadFetchSize;
+
+    @Inject
+    @GlobalValue(key = "event.log.scan.fetch.size", defaultValue = "1000")
+    private String scanFetchSize;
+
+    @Inject
+    @GlobalValue(key = "event.log.stream.ids.fetch.size", defaultValue = "10000")
+    private String streamIdsFetchSize;
+
     @Inject
     private EventInsertionStrategy eventInsertionStrategy;
 
     @Inject
     private JdbcResultSetStreamer jdbcResultSetStreamer;
 
+    @Inject
+    private CursorResultSetStreamer cursorResultSetStreamer;
+
     @Inject
     private PreparedStatementWrapperFactory preparedStatementWrapperFactory;
 
@@ -107,6 +175,37 @@ public class EventJdbcRepository {
         }
     }
 
+    /**
+     * Insert the given events into the event log using multi row inserts, so that all the events
+     * of one append are written in a single round trip (or one round trip per
+     * {@value #MAX_EVENTS_PER_INSERT} events).
+     *
+     * @param events the events to insert, in position order
+     * @throws InvalidPositionException if any version is null.
+     */
+    public void insertBatch(final List<Event> events) throws InvalidPositionException {
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        for (int fromIndex = 0; fromIndex < events.size(); fromIndex += MAX_EVENTS_PER_INSERT) {
+            final List<Event> batch = events.subList(fromIndex, min(fromIndex + MAX_EVENTS_PER_INSERT, events.size()));
+            final String sql = eventInsertionStrategy.batchInsertStatement(batch.size());
+
+            try (final PreparedStatementWrapper preparedStatementWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, sql)) {
+                eventInsertionStrategy.insertBatch(preparedStatementWrapper, batch);
+            } catch (final SQLException e) {
+                final Event firstEvent = batch.get(0);
+                logger.error("Error persisting events to the database", e);
+                throw new JdbcRepositoryException(format("Exception while storing %d events from sequence %s of stream %s",
+                        batch.size(), firstEvent.getPositionInStream(), firstEvent.getStreamId()), e);
+            }
+        }
+    }
+
     public Optional<Event> findById(final UUID id) {
 
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
@@ -146,6 +245,41 @@ public class EventJdbcRepository {
         return empty();
     }
 
+    /**
+     * Loads the events with the given ids with a single query.
+     *
+     * @param ids the ids of the events
+     * @return the events found, ordered by event_number. Events that do not exist are left out.
+     */
+    public List<Event> findByIdsOrderByEventNumber(final List<UUID> ids) {
+
+        final List<Event> events = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return events;
+        }
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(SQL_FIND_BY_IDS)) {
+
+            preparedStatement.setArray(1, connection.createArrayOf("uuid", ids.toArray()));
+
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                final Function<ResultSet, Event> asEvent = asEvent();
+                while (resultSet.next()) {
+                    events.add(asEvent.apply(resultSet));
+                }
+            }
+
+            return events;
+        } catch (final SQLException e) {
+            final String message = format("Failed to get %d events by id", ids.size());
+            logger.error(message, e);
+            throw new JdbcRepositoryException(message, e);
+        }
+    }
+
     /**
      * Returns a Stream of {@link Event} for the given stream streamId.
      *
@@ -157,10 +291,12 @@ public class EventJdbcRepository {
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
 
         try {
-            final PreparedStatementWrapper preparedStatementWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_BY_STREAM_ID);
-            preparedStatementWrapper.setObject(1, streamId);
-
-            return jdbcResultSetStreamer.streamOf(preparedStatementWrapper, asEvent());
+            return cursorResultSetStreamer.streamOf(
+                    dataSource,
+                    new StreamingQuery(STREAM_READ_QUERY, SQL_FIND_BY_STREAM_ID, parseInt(streamReadFetchSize)),
+                    asEvent(),
+                    EventJdbcRepository::sizeInBytesOf,
+                    streamId);
         } catch (final SQLException e) {
             logger.warn(FAILED_TO_READ_STREAM, streamId, e);
             throw new JdbcRepositoryException(format(READING_STREAM_EXCEPTION, streamId), e);
@@ -181,11 +317,13 @@ public class EventJdbcRepository {
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
 
         try {
-            final PreparedStatementWrapper preparedStatementWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_BY_STREAM_ID_AND_POSITION);
-            preparedStatementWrapper.setObject(1, streamId);
-            preparedStatementWrapper.setLong(2, position);
-
-            return jdbcResultSetStreamer.streamOf(preparedStatementWrapper, asEvent());
+            return cursorResultSetStreamer.streamOf(
+                    dataSource,
+                    new StreamingQuery(STREAM_READ_QUERY, SQL_FIND_BY_STREAM_ID_AND_POSITION, parseInt(streamReadFetchSize)),
+                    asEvent(),
+                    EventJdbcRepository::sizeInBytesOf,
+                    streamId,
+                    position);
         } catch (final SQLException e) {
             logger.warn(FAILED_TO_READ_STREAM, streamId, e);
             throw new JdbcRepositoryException(format(READING_STREAM_EXCEPTION, streamId), e);
@@ -220,11 +358,11 @@ public class EventJdbcRepository {
 
         final DataSource defaultDataSource = eventStoreDataSourceProvider.getDefaultDataSource();
         try {
-            final PreparedStatementWrapper preparedStatementWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(
+            return cursorResultSetStreamer.streamOf(
                     defaultDataSource,
-                    SQL_FIND_ALL_ORDERED_BY_EVENT_NUMBER);
-
-            return jdbcResultSetStreamer.streamOf(preparedStatementWrapper, asEvent());
+                    new StreamingQuery(SCAN_QUERY, SQL_FIND_ALL_ORDERED_BY_EVENT_NUMBER, parseInt(scanFetchSize)),
+                    asEvent(),
+                    EventJdbcRepository::sizeInBytesOf);
 
         } catch (final SQLException e) {
             logger.error("Failed to get stream of events", e);
@@ -256,6 +394,32 @@ public class EventJdbcRepository {
         }
     }
 
+    /**
+     * Returns a Stream of Events from the given event number (exclusive) up to the given last event
+     * number (inclusive), limited by the page size.
+     *
+     * @param eventNumber     - return all events greater than
+     * @param lastEventNumber - return no events greater than
+     * @param pageSize        - limit the page size of the returned result
+     * @return Stream of Event
+     */
+    public Stream<Event> findAllInEventNumberRangeUptoPageSize(final Long eventNumber, final Long lastEventNumber, final Integer pageSize) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try {
+            final PreparedStatementWrapper preparedStatementWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_IN_EVENT_NUMBER_RANGE_WITH_PAGE);
+            preparedStatementWrapper.setLong(1, eventNumber);
+            preparedStatementWrapper.setLong(2, lastEventNumber);
+            preparedStatementWrapper.setInt(3, pageSize);
+
+            return jdbcResultSetStreamer.streamOf(preparedStatementWrapper, asEvent());
+        } catch (final SQLException e) {
+            logger.error(format("Failed to read events from event_log from event number : '%s' to event number : '%s' with page size : '%s'", eventNumber, lastEventNumber, pageSize), e);
+            throw new JdbcRepositoryException(format("Failed to read events from event_log from event number : '%s' to event number : '%s' with page size : '%s'", eventNumber, lastEventNumber, pageSize), e);
+        }
+    }
+
     public long getMaximumEventNumber() {
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
 
@@ -285,14 +449,39 @@ public class EventJdbcRepository {
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
 
         try {
-            return jdbcResultSetStreamer
-                    .streamOf(preparedStatementWrapperFactory
-                            .preparedStatementWrapperOf(dataSource, SQL_FIND_ALL), asEvent());
+            return cursorResultSetStreamer.streamOf(
+                    dataSource,
+                    new StreamingQuery(SCAN_QUERY, SQL_FIND_ALL, parseInt(scanFetchSize)),
+                    asEvent(),
+                    EventJdbcRepository::sizeInBytesOf);
         } catch (final SQLException e) {
             throw new JdbcRepositoryException(READING_STREAM_ALL_EXCEPTION, e);
         }
     }
 
+    /**
+     * Checks whether the stream has any event at or after the given position, reading only the id
+     * of the first such event rather than the event itself.
+     *
+     * @param streamId streamId of the stream.
+     * @param position the position to look from.
+     * @return true if there is an event in the stream at or after the position
+     */
+    public boolean hasEventsFromPosition(final UUID streamId, final long position) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final PreparedStatementWrapper preparedStatementWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_ID_FROM_POSITION)) {
+            preparedStatementWrapper.setObject(1, streamId);
+            preparedStatementWrapper.setLong(2, position);
+
+            return preparedStatementWrapper.executeQuery().next();
+        } catch (final SQLException e) {
+            logger.warn(FAILED_TO_READ_STREAM, streamId, e);
+            throw new JdbcRepositoryException(format(READING_STREAM_EXCEPTION, streamId), e);
+        }
+    }
+
     /**
      * Returns the current position for the given stream streamId.
      *
@@ -320,6 +509,42 @@ public class EventJdbcRepository {
         return NO_EXISTING_VERSION;
     }
 
+    /**
+     * Returns the current position of each of the given streams with a single grouped query.
+     *
+     * @param streamIds the ids of the streams
+     * @return the current position of each stream, by stream id. 0 for streams that don't exist.
+     */
+    public Map<UUID, Long> getStreamSizes(final Collection<UUID> streamIds) {
+
+        final Map<UUID, Long> streamSizes = new HashMap<>();
+        if (streamIds.isEmpty()) {
+            return streamSizes;
+        }
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(SQL_FIND_LATEST_POSITIONS)) {
+
+            preparedStatement.setArray(1, connection.createArrayOf("uuid", streamIds.toArray()));
+
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    streamSizes.put((UUID) resultSet.getObject(1), resultSet.getLong(2));
+                }
+            }
+        } catch (final SQLException e) {
+            final String message = format("Failed to get the size of %d streams", streamIds.size());
+            logger.error(message, e);
+            throw new JdbcRepositoryException(message, e);
+        }
+
+        streamIds.forEach(streamId -> streamSizes.putIfAbsent(streamId, NO_EXISTING_VERSION));
+
+        return streamSizes;
+    }
+
 
     /**
      * Returns stream of event stream ids
@@ -331,14 +556,48 @@ public class EventJdbcRepository {
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
 
         try {
-            final PreparedStatementWrapper preparedStatementWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_DISTINCT_STREAM_ID);
-            return streamFrom(preparedStatementWrapper);
+            return cursorResultSetStreamer.streamOf(
+                    dataSource,
+                    new StreamingQuery(STREAM_IDS_QUERY, SQL_DISTINCT_STREAM_ID, parseInt(streamIdsFetchSize)),
+                    asStreamId(),
+                    streamId -> UUID_SIZE_IN_BYTES);
         } catch (final SQLException e) {
             throw new JdbcRepositoryException(READING_STREAM_ALL_EXCEPTION, e);
         }
 
     }
 
+    /**
+     * Copies every event of a stream on to a new stream with a single INSERT ... SELECT, so the
+     * events never leave the database. The copies are numbered from 1 in the order of the
+     * original stream and get the metadata the Enveloper would give them: a new id, the id of the
+     * original event added to the causation, and the new stream id, version and source.
+     *
+     * The id of each copy is derived from the ids of the new stream and of the original event, so
+     * no id needs generating or sending per event.
+     *
+     * @param streamId        id of the stream to copy
+     * @param clonedStreamId  id of the new stream
+     * @param eventSourceName the source to give the copies
+     * @return the number of events copied
+     */
+    public long cloneStream(final UUID streamId, final UUID clonedStreamId, final String eventSourceName) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final PreparedStatementWrapper preparedStatementWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_CLONE_STREAM)) {
+            preparedStatementWrapper.setString(1, eventSourceName);
+            preparedStatementWrapper.setString(2, clonedStreamId.toString());
+            preparedStatementWrapper.setObject(3, clonedStreamId);
+            preparedStatementWrapper.setObject(4, streamId);
+
+            return preparedStatementWrapper.executeUpdate();
+        } catch (final SQLException e) {
+            logger.error(format(CLONING_STREAM_EXCEPTION, streamId, clonedStreamId), e);
+            throw new JdbcRepositoryException(format(CLONING_STREAM_EXCEPTION, streamId, clonedStreamId), e);
+        }
+    }
+
     public void clear(final UUID streamId) {
 
         final long eventCount = getStreamSize(streamId);
@@ -362,15 +621,24 @@ public class EventJdbcRepository {
         }
     }
 
-    private Stream<UUID> streamFrom(final PreparedStatementWrapper preparedStatementWrapper) throws SQLException {
-        return jdbcResultSetStreamer.streamOf(preparedStatementWrapper, resultSet -> {
+    private Function<ResultSet, UUID> asStreamId() {
+        return resultSet -> {
             try {
                 return (UUID) resultSet.getObject(COL_STREAM_ID);
             } catch (final SQLException e) {
-                preparedStatementWrapper.close();
                 throw new JdbcRepositoryException(e);
             }
-        });
+        };
+    }
+
+    /**
+     * An estimate of the bytes read from the database for the event, for the StreamingMetrics
+     */
+    static long sizeInBytesOf(final Event event) {
+        return FIXED_WIDTH_COLUMNS_SIZE_IN_BYTES
+                + event.getName().length()
+                + event.getMetadata().length()
+                + event.getPayload().length();
     }
 
     private Function<ResultSet, Event> asEvent() {
@@ -6,8 +6,9 @@ import static java.util.Optional.of;
 import static java.util.UUID.fromString;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.fromSqlTimestamp;
 
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingQuery;
 import uk.gov.justice.services.jdbc.persistence.JdbcRepositoryException;
-import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapper;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
 
@@ -25,9 +26,12 @@ import javax.sql.DataSource;
 
 public class MultipleDataSourcePublishedEventRepository {
 
-    private static final String SQL_FIND_ALL_SINCE = "SELECT * FROM published_event WHERE event_number > ? ORDER BY event_number ASC";
-    private static final String SQL_FIND_RANGE = "SELECT * FROM published_event WHERE event_number >= ? AND event_number < ? ORDER BY event_number ASC";
-    private static final String SQL_FIND_BY_ID = "SELECT * FROM published_event WHERE id = ?";
+    private static final String PUBLISHED_EVENT_COLUMNS = "id, stream_id, position_in_stream, name, payload, metadata, date_created, event_number, previous_event_number";
+
+    private static final String SQL_FIND_ALL_SINCE = "SELECT " + PUBLISHED_EVENT_COLUMNS + " FROM published_event WHERE event_number > ? ORDER BY event_number ASC";
+    private static final String SQL_FIND_RANGE = "SELECT " + PUBLISHED_EVENT_COLUMNS + " FROM published_event WHERE event_number >= ? AND event_number < ? ORDER BY event_number ASC";
+    private static final String SQL_FIND_BY_ID = "SELECT " + PUBLISHED_EVENT_COLUMNS + " FROM published_event WHERE id = ?";
+    private static final String SQL_FIND_HIGHEST_EVENT_NUMBER = "SELECT MAX(event_number) FROM published_event";
     private static final String SQL_FIND_LATEST_PUBLISHED_EVENT = """
         SELECT id, stream_id, position_in_stream, name, payload, metadata, date_created, event_number, previous_event_number 
         FROM published_event 
@@ -45,17 +49,22 @@ public class MultipleDataSourcePublishedEventRepository {
     private static final String EVENT_NUMBER = "event_number";
     private static final String PREVIOUS_EVENT_NUMBER = "previous_event_number";
 
-    private final JdbcResultSetStreamer jdbcResultSetStreamer;
+    private static final String SCAN_QUERY = "published_event.scan";
+
+    private final CursorResultSetStreamer cursorResultSetStreamer;
     private final PreparedStatementWrapperFactory preparedStatementWrapperFactory;
     private final DataSource dataSource;
+    private final int scanFetchSize;
 
     public MultipleDataSourcePublishedEventRepository(
-            final JdbcResultSetStreamer jdbcResultSetStreamer,
+            final CursorResultSetStreamer cursorResultSetStreamer,
             final PreparedStatementWrapperFactory preparedStatementWrapperFactory,
-            final DataSource dataSource) {
-        this.jdbcResultSetStreamer = jdbcResultSetStreamer;
+            final DataSource dataSource,
+            final int scanFetchSize) {
+        this.cursorResultSetStreamer = cursorResultSetStreamer;
         this.preparedStatementWrapperFactory = preparedStatementWrapperFactory;
         this.dataSource = dataSource;
+        this.scanFetchSize = scanFetchSize;
     }
 
     /**
@@ -67,11 +76,12 @@ public class MultipleDataSourcePublishedEventRepository {
     public Stream<PublishedEvent> findEventsSince(final long eventNumber) {
 
         try {
-            final PreparedStatementWrapper psWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_ALL_SINCE);
-
-            psWrapper.setLong(1, eventNumber);
-
-            return jdbcResultSetStreamer.streamOf(psWrapper, asPublishedEvent());
+            return cursorResultSetStreamer.streamOf(
+                    dataSource,
+                    new StreamingQuery(SCAN_QUERY, SQL_FIND_ALL_SINCE, scanFetchSize),
+                    asPublishedEvent(),
+                    EventJdbcRepository::sizeInBytesOf,
+                    eventNumber);
         } catch (final SQLException e) {
             throw new JdbcRepositoryException(format("Failed to find events since event_number %d", eventNumber), e);
         }
@@ -87,12 +97,13 @@ public class MultipleDataSourcePublishedEventRepository {
     public Stream<PublishedEvent> findEventRange(final long fromEventNumber, final long toEventNumber) {
 
         try {
-            final PreparedStatementWrapper psWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_RANGE);
-
-            psWrapper.setLong(1, fromEventNumber);
-            psWrapper.setLong(2, toEventNumber);
-
-            return jdbcResultSetStreamer.streamOf(psWrapper, asPublishedEvent());
+            return cursorResultSetStreamer.streamOf(
+                    dataSource,
+                    new StreamingQuery(SCAN_QUERY, SQL_FIND_RANGE, scanFetchSize),
+                    asPublishedEvent(),
+                    EventJdbcRepository::sizeInBytesOf,
+                    fromEventNumber,
+                    toEventNumber);
         } catch (final SQLException e) {
             throw new JdbcRepositoryException(format("Failed to find events from event_number %d to %d", fromEventNumber, toEventNumber), e);
         }
@@ -121,6 +132,24 @@ public class MultipleDataSourcePublishedEventRepository {
         }
     }
 
+    /**
+     * Returns the event number of the latest published event, reading nothing but the index on
+     * event_number.
+     *
+     * @return the highest event_number in published_event, or 0 if there are no published events
+     */
+    public long getHighestEventNumber() {
+
+        try (final PreparedStatementWrapper psWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_HIGHEST_EVENT_NUMBER)) {
+
+            final ResultSet resultSet = psWrapper.executeQuery();
+
+            return resultSet.next() ? resultSet.getLong(1) : 0L;
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException("Failed to find highest event_number in published_event", e);
+        }
+    }
+
     @SuppressWarnings("DuplicatedCode")
     public Optional<PublishedEvent> getLatestPublishedEvent() {
         try {
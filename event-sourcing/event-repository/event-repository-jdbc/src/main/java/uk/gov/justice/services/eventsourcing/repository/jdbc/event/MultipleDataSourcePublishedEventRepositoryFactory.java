@@ -1,6 +1,9 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc.event;
 
-import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
+import static java.lang.Integer.parseInt;
+
+import uk.gov.justice.services.common.configuration.GlobalValue;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
 
 import javax.inject.Inject;
@@ -9,15 +12,20 @@ import javax.sql.DataSource;
 public class MultipleDataSourcePublishedEventRepositoryFactory {
 
     @Inject
-    private JdbcResultSetStreamer jdbcResultSetStreamer;
+    @GlobalValue(key = "published.event.scan.fetch.size", defaultValue = "1000")
+    private String scanFetchSize;
+
+    @Inject
+    private CursorResultSetStreamer cursorResultSetStreamer;
 
     @Inject
     private PreparedStatementWrapperFactory preparedStatementWrapperFactory;
 
     public MultipleDataSourcePublishedEventRepository create(final DataSource dataSource) {
         return new MultipleDataSourcePublishedEventRepository(
-                jdbcResultSetStreamer,
+                cursorResultSetStreamer,
                 preparedStatementWrapperFactory,
-                dataSource);
+                dataSource,
+                parseInt(scanFetchSize));
     }
 }
@@ -1,20 +1,36 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream;
 
+import static java.lang.Integer.parseInt;
 import static java.lang.String.format;
+import static java.lang.String.join;
+import static java.util.Collections.nCopies;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.stream.Collectors.toList;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamIdComparator.STREAM_ID_ORDER;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.fromSqlTimestamp;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
 
+import uk.gov.justice.services.common.configuration.GlobalValue;
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidStreamIdException;
-import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.OptimisticLockingRetryException;
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingQuery;
 import uk.gov.justice.services.jdbc.persistence.JdbcRepositoryException;
-import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapper;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -24,14 +40,31 @@ import javax.sql.DataSource;
 
 public class EventStreamJdbcRepository {
 
-    private static final String SQL_FIND_BY_POSITION = "SELECT * FROM event_stream WHERE position_in_stream>=? ORDER BY position_in_stream ASC";
+    private static final String EVENT_STREAM_COLUMNS = "stream_id, position_in_stream, active, date_created";
+
+    private static final String SQL_FIND_BY_POSITION = "SELECT " + EVENT_STREAM_COLUMNS + " FROM event_stream WHERE position_in_stream>=? ORDER BY position_in_stream ASC";
     private static final String SQL_FIND_POSITION_BY_STREAM = "SELECT position_in_stream FROM event_stream s WHERE s.stream_id=?";
-    private static final String SQL_FIND_EVENT_STREAM = "SELECT * FROM event_stream s WHERE s.stream_id=?";
     private static final String SQL_INSERT_EVENT_STREAM = "INSERT INTO event_stream (stream_id, date_created, active) values (?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String SQL_INSERT_EVENT_STREAMS = "INSERT INTO event_stream (stream_id, date_created, active) VALUES %s ON CONFLICT DO NOTHING RETURNING stream_id";
+    private static final String SQL_INSERT_EVENT_STREAMS_ROW = "(?, ?, true)";
     private static final String SQL_UPDATE_EVENT_STREAM_ACTIVE = "UPDATE event_stream SET active=? WHERE stream_id=?";
     private static final String SQL_DELETE_EVENT_STREAM = "DELETE FROM event_stream t WHERE t.stream_id=?";
-    private static final String SQL_FIND_ALL = "SELECT * FROM event_stream ORDER BY position_in_stream ASC";
-    private static final String SQL_FIND_ALL_ACTIVE = "SELECT * FROM event_stream s WHERE s.active=true ORDER BY position_in_stream ASC";
+    private static final String SQL_FIND_ALL = "SELECT " + EVENT_STREAM_COLUMNS + " FROM event_stream ORDER BY position_in_stream ASC";
+    private static final String SQL_FIND_ALL_ACTIVE = "SELECT " + EVENT_STREAM_COLUMNS + " FROM event_stream s WHERE s.active=true ORDER BY position_in_stream ASC";
+    private static final String SQL_FIND_ALL_STREAM_IDS = "SELECT stream_id FROM event_stream ORDER BY position_in_stream ASC";
+    private static final String SQL_FIND_ALL_ACTIVE_STREAM_IDS = "SELECT stream_id FROM event_stream s WHERE s.active=true ORDER BY position_in_stream ASC";
+    private static final String SQL_FIND_STREAM_ID_AT_POSITION = "SELECT stream_id FROM event_stream WHERE position_in_stream=? LIMIT 1";
+    private static final String SQL_COUNT_FROM_POSITION = "SELECT COUNT(*) FROM event_stream WHERE position_in_stream>=?";
+    private static final String SQL_FIND_LATEST_POSITION = "SELECT latest_position FROM event_stream WHERE stream_id=?";
+    private static final String SQL_ADVANCE_LATEST_POSITION = "UPDATE event_stream SET latest_position=? WHERE stream_id=? AND latest_position=? RETURNING latest_position";
+    private static final String SQL_RESET_LATEST_POSITION = "UPDATE event_stream SET latest_position=0 WHERE stream_id=?";
+    private static final String SQL_LOCK_LATEST_POSITIONS = "SELECT stream_id, latest_position FROM event_stream WHERE stream_id IN (%s) ORDER BY stream_id FOR UPDATE";
+    private static final String SQL_UPDATE_LATEST_POSITIONS = "UPDATE event_stream s SET latest_position=v.latest_position FROM (VALUES %s) AS v (stream_id, latest_position) WHERE s.stream_id=v.stream_id";
+    private static final String SQL_LATEST_POSITIONS_ROW = "(CAST(? AS uuid), CAST(? AS bigint))";
+    private static final String SQL_RESERVE_POSITIONS = "INSERT INTO event_stream (stream_id, date_created, active, latest_position) " +
+            "VALUES (?, ?, true, (SELECT COALESCE(MAX(position_in_stream), 0) FROM event_log WHERE stream_id=?) + ?) " +
+            "ON CONFLICT (stream_id) DO UPDATE SET latest_position=event_stream.latest_position + ? " +
+            "RETURNING latest_position";
 
     private static final String READING_STREAM_EXCEPTION = "Exception while reading stream";
 
@@ -39,10 +72,20 @@ public class EventStreamJdbcRepository {
     private static final String COL_POSITION = "position_in_stream";
     private static final String COL_ACTIVE = "active";
     private static final String COL_DATE_CREATED = "date_created";
+    private static final String COL_LATEST_POSITION = "latest_position";
     private static final String EVENT_STREAM_EXCEPTION_MESSAGE = "Exception while deleting stream %s";
 
+    private static final String SCAN_QUERY = "event_stream.scan";
+    private static final String STREAM_IDS_QUERY = "event_stream.stream_ids";
+    private static final long EVENT_STREAM_ROW_SIZE_IN_BYTES = 16L + 8L + 1L + 8L;
+    private static final long STREAM_ID_SIZE_IN_BYTES = 16L;
+
+    @Inject
+    @GlobalValue(key = "event.stream.scan.fetch.size", defaultValue = "5000")
+    private String scanFetchSize;
+
     @Inject
-    private JdbcResultSetStreamer jdbcResultSetStreamer;
+    private CursorResultSetStreamer cursorResultSetStreamer;
 
     @Inject
     private PreparedStatementWrapperFactory preparedStatementWrapperFactory;
@@ -53,27 +96,68 @@ public class EventStreamJdbcRepository {
     @Inject
     private UtcClock clock;
 
-    public void insert(final UUID streamId) {
-        insert(streamId, true);
+    public boolean insert(final UUID streamId) {
+        return insert(streamId, true);
     }
 
-    public void insert(final UUID streamId, final boolean active) {
+    /**
+     * Creates the event_stream row of the stream unless it already exists, in a single statement.
+     *
+     * @param streamId the id of the stream
+     * @param active   whether the new stream is active
+     * @return true if the row was created, false if the stream already existed
+     */
+    public boolean insert(final UUID streamId, final boolean active) {
 
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
 
-        if (!isExistingStream(streamId)) {
-            try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_INSERT_EVENT_STREAM)) {
-                ps.setObject(1, streamId);
-                ps.setTimestamp(2, toSqlTimestamp(clock.now()));
-                ps.setBoolean(3, active);
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_INSERT_EVENT_STREAM)) {
+            ps.setObject(1, streamId);
+            ps.setTimestamp(2, toSqlTimestamp(clock.now()));
+            ps.setBoolean(3, active);
 
-                final int updatedRows = ps.executeUpdate();
-                if (updatedRows == 0) {
-                    throw new OptimisticLockingRetryException(format("Locking Exception while storing stream %s", streamId));
-                }
-            } catch (final SQLException e) {
-                throw new JdbcRepositoryException(format("Exception while storing stream %s", streamId), e);
+            return ps.executeUpdate() > 0;
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format("Exception while storing stream %s", streamId), e);
+        }
+    }
+
+    /**
+     * Creates the active event_stream rows of those of the given streams that do not exist yet,
+     * with one multi row statement. The rows are inserted in the stream id order of
+     * {@link StreamIdComparator}, the order in which {@link #lockLatestPositions(Collection)} locks
+     * them.
+     *
+     * @param streamIds the ids of the streams
+     * @return the ids of the streams whose rows were created
+     */
+    public Set<UUID> insertAll(final Collection<UUID> streamIds) {
+
+        final Set<UUID> createdStreamIds = new HashSet<>();
+        if (streamIds.isEmpty()) {
+            return createdStreamIds;
+        }
+
+        final List<UUID> streamIdsInOrder = streamIds.stream().sorted(STREAM_ID_ORDER).collect(toList());
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+        final String sql = format(SQL_INSERT_EVENT_STREAMS, join(", ", nCopies(streamIdsInOrder.size(), SQL_INSERT_EVENT_STREAMS_ROW)));
+        final Timestamp dateCreated = toSqlTimestamp(clock.now());
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, sql)) {
+            int parameterIndex = 1;
+            for (final UUID streamId : streamIdsInOrder) {
+                ps.setObject(parameterIndex++, streamId);
+                ps.setTimestamp(parameterIndex++, dateCreated);
+            }
+
+            final ResultSet resultSet = ps.executeQuery();
+            while (resultSet.next()) {
+                createdStreamIds.add((UUID) resultSet.getObject(COL_STREAM_ID));
             }
+
+            return createdStreamIds;
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format("Exception while storing streams %s", streamIds), e);
         }
     }
 
@@ -109,8 +193,7 @@ public class EventStreamJdbcRepository {
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
 
         try {
-            return jdbcResultSetStreamer.streamOf(preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_ALL),
-                    entityFromFunction());
+            return streamOf(dataSource, SQL_FIND_ALL);
         } catch (SQLException e) {
             throw new JdbcRepositoryException(READING_STREAM_EXCEPTION, e);
         }
@@ -122,8 +205,7 @@ public class EventStreamJdbcRepository {
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
 
         try {
-            return jdbcResultSetStreamer.streamOf(preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_ALL_ACTIVE),
-                    entityFromFunction());
+            return streamOf(dataSource, SQL_FIND_ALL_ACTIVE);
         } catch (SQLException e) {
             throw new JdbcRepositoryException(READING_STREAM_EXCEPTION, e);
         }
@@ -134,24 +216,78 @@ public class EventStreamJdbcRepository {
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
 
         try {
-            final PreparedStatementWrapper preparedStatementWrapper = preparedStatementWrapperFactory
-                    .preparedStatementWrapperOf(dataSource, SQL_FIND_BY_POSITION);
-            preparedStatementWrapper.setLong(1, position);
-            return jdbcResultSetStreamer.streamOf(preparedStatementWrapper, entityFromFunction());
+            return streamOf(dataSource, SQL_FIND_BY_POSITION, position);
         } catch (SQLException e) {
             throw new JdbcRepositoryException(READING_STREAM_EXCEPTION, e);
         }
     }
 
-    private boolean isExistingStream(final UUID streamId) {
+    /**
+     * Returns the ids of all the streams, in position order, without reading the rest of their rows.
+     *
+     * @return a Stream of the stream ids, which should be closed by the caller
+     */
+    public Stream<UUID> findAllStreamIds() {
 
         final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
 
-        try (final PreparedStatementWrapper psquery = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_EVENT_STREAM)) {
-            psquery.setObject(1, streamId);
+        try {
+            return streamIdsOf(dataSource, SQL_FIND_ALL_STREAM_IDS);
+        } catch (SQLException e) {
+            throw new JdbcRepositoryException(READING_STREAM_EXCEPTION, e);
+        }
+    }
+
+    /**
+     * Returns the ids of the active streams, in position order, without reading the rest of their
+     * rows.
+     *
+     * @return a Stream of the active stream ids, which should be closed by the caller
+     */
+    public Stream<UUID> findActiveStreamIds() {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try {
+            return streamIdsOf(dataSource, SQL_FIND_ALL_ACTIVE_STREAM_IDS);
+        } catch (SQLException e) {
+            throw new JdbcRepositoryException(READING_STREAM_EXCEPTION, e);
+        }
+    }
+
+    /**
+     * @param position the position of a stream in the event_stream table
+     * @return true if there is a stream at the position
+     */
+    public boolean existsAtPosition(final long position) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final PreparedStatementWrapper psquery = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_STREAM_ID_AT_POSITION)) {
+            psquery.setLong(1, position);
+
             return psquery.executeQuery().next();
         } catch (final SQLException e) {
-            throw new JdbcRepositoryException(format(EVENT_STREAM_EXCEPTION_MESSAGE, streamId), e);
+            throw new JdbcRepositoryException(format("Exception while looking for stream at position %d", position), e);
+        }
+    }
+
+    /**
+     * @param position the position to count from
+     * @return the number of streams at or after the position
+     */
+    public long countFromPosition(final long position) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final PreparedStatementWrapper psquery = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_COUNT_FROM_POSITION)) {
+            psquery.setLong(1, position);
+
+            final ResultSet resultSet = psquery.executeQuery();
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format("Exception while counting streams from position %d", position), e);
         }
     }
 
@@ -171,6 +307,182 @@ public class EventStreamJdbcRepository {
         }
     }
 
+    /**
+     * Moves the head position of the stream forward, but only if the stream is still at the
+     * expected position. The conditional update takes the row lock on the stream, so it also serves
+     * as the optimistic version check for concurrent appends to the same stream.
+     *
+     * @param streamId                 the id of the stream
+     * @param expectedLatestPosition the position the stream is expected to be at
+     * @param newLatestPosition      the position of the last event being appended
+     * @return true if the head was moved, false if the stream is not at the expected position or
+     * has no event_stream row
+     */
+    public boolean advanceLatestPosition(final UUID streamId, final long expectedLatestPosition, final long newLatestPosition) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_ADVANCE_LATEST_POSITION)) {
+            ps.setLong(1, newLatestPosition);
+            ps.setObject(2, streamId);
+            ps.setLong(3, expectedLatestPosition);
+
+            return ps.executeQuery().next();
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format("Exception while updating latest position of stream %s to %d", streamId, newLatestPosition), e);
+        }
+    }
+
+    /**
+     * Returns the head position of the stream as held in the event_stream table
+     *
+     * @param streamId the id of the stream
+     * @return the latest position of the stream, or empty if there is no event_stream row
+     */
+    public Optional<Long> findLatestPosition(final UUID streamId) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final PreparedStatementWrapper psquery = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_LATEST_POSITION)) {
+            psquery.setObject(1, streamId);
+            final ResultSet resultSet = psquery.executeQuery();
+            if (resultSet.next()) {
+                return of(resultSet.getLong(1));
+            }
+
+            return empty();
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format(READING_STREAM_EXCEPTION + " %s", streamId), e);
+        }
+    }
+
+    public void resetLatestPosition(final UUID streamId) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_RESET_LATEST_POSITION)) {
+            ps.setObject(1, streamId);
+
+            ps.executeUpdate();
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format("Exception while resetting latest position of stream %s", streamId), e);
+        }
+    }
+
+    /**
+     * Reserves the next positions of the stream by moving its head forward in a single statement,
+     * creating the event_stream row if the stream does not have one yet. The row stays locked until
+     * the surrounding transaction completes, so concurrent appends to the stream queue up behind it
+     * rather than failing.
+     *
+     * @param streamId           the id of the stream
+     * @param numberOfPositions the number of positions to reserve
+     * @return the new latest position of the stream, i.e. the last of the reserved positions
+     */
+    public long reservePositions(final UUID streamId, final int numberOfPositions) {
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_RESERVE_POSITIONS)) {
+            ps.setObject(1, streamId);
+            ps.setTimestamp(2, toSqlTimestamp(clock.now()));
+            ps.setObject(3, streamId);
+            ps.setLong(4, numberOfPositions);
+            ps.setLong(5, numberOfPositions);
+
+            final ResultSet resultSet = ps.executeQuery();
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format("Exception while reserving %d positions of stream %s", numberOfPositions, streamId), e);
+        }
+    }
+
+    /**
+     * Locks the event_stream rows of the given streams for the rest of the transaction, in the
+     * stream id order of {@link StreamIdComparator}, and returns their head positions.
+     *
+     * @param streamIds the ids of the streams
+     * @return the latest position of each stream that has an event_stream row, by stream id
+     */
+    public Map<UUID, Long> lockLatestPositions(final Collection<UUID> streamIds) {
+
+        final Map<UUID, Long> latestPositions = new HashMap<>();
+        if (streamIds.isEmpty()) {
+            return latestPositions;
+        }
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+        final String sql = format(SQL_LOCK_LATEST_POSITIONS, join(", ", nCopies(streamIds.size(), "?")));
+
+        try (final PreparedStatementWrapper psquery = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, sql)) {
+            int parameterIndex = 1;
+            for (final UUID streamId : streamIds) {
+                psquery.setObject(parameterIndex++, streamId);
+            }
+
+            final ResultSet resultSet = psquery.executeQuery();
+            while (resultSet.next()) {
+                latestPositions.put((UUID) resultSet.getObject(COL_STREAM_ID), resultSet.getLong(COL_LATEST_POSITION));
+            }
+
+            return latestPositions;
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format("Exception while locking streams %s", streamIds), e);
+        }
+    }
+
+    /**
+     * Sets the head positions of several streams with one statement. Meant for streams locked
+     * with {@link #lockLatestPositions(Collection)} whose positions have already been checked.
+     *
+     * @param latestPositions the new latest position of each stream, by stream id
+     */
+    public void updateLatestPositions(final Map<UUID, Long> latestPositions) {
+
+        if (latestPositions.isEmpty()) {
+            return;
+        }
+
+        final DataSource dataSource = eventStoreDataSourceProvider.getDefaultDataSource();
+        final String sql = format(SQL_UPDATE_LATEST_POSITIONS, join(", ", nCopies(latestPositions.size(), SQL_LATEST_POSITIONS_ROW)));
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, sql)) {
+            int parameterIndex = 1;
+            for (final Map.Entry<UUID, Long> latestPosition : latestPositions.entrySet()) {
+                ps.setObject(parameterIndex++, latestPosition.getKey());
+                ps.setLong(parameterIndex++, latestPosition.getValue());
+            }
+
+            ps.executeUpdate();
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException(format("Exception while updating latest positions of streams %s", latestPositions.keySet()), e);
+        }
+    }
+
+    private Stream<EventStream> streamOf(final DataSource dataSource, final String sql, final Object... parameters) throws SQLException {
+        return cursorResultSetStreamer.streamOf(
+                dataSource,
+                new StreamingQuery(SCAN_QUERY, sql, parseInt(scanFetchSize)),
+                entityFromFunction(),
+                eventStream -> EVENT_STREAM_ROW_SIZE_IN_BYTES,
+                parameters);
+    }
+
+    private Stream<UUID> streamIdsOf(final DataSource dataSource, final String sql) throws SQLException {
+        return cursorResultSetStreamer.streamOf(
+                dataSource,
+                new StreamingQuery(STREAM_IDS_QUERY, sql, parseInt(scanFetchSize)),
+                resultSet -> {
+                    try {
+                        return (UUID) resultSet.getObject(COL_STREAM_ID);
+                    } catch (final SQLException e) {
+                        throw new JdbcRepositoryException(e);
+                    }
+                },
+                streamId -> STREAM_ID_SIZE_IN_BYTES);
+    }
+
     protected Function<ResultSet, EventStream> entityFromFunction() {
         return resultSet -> {
             try {
@@ -0,0 +1,81 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.NamedMetrics;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Counts the requests to create an event stream on this node: how many were answered by the
+ * {@link StreamHeadCache} without touching the database, how many created the stream and how many
+ * found it already existed.
+ *
+ * Exported through the registries of the {@link PipelineMetrics}, as
+ * 'type=EventStoreMetrics,name="stream-creation"' in JMX.
+ */
+@ApplicationScoped
+public class StreamCreationMetrics implements StreamCreationMetricsMXBean, NamedMetrics {
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    private final AtomicLong cacheHitCount = new AtomicLong();
+    private final AtomicLong streamsCreatedCount = new AtomicLong();
+    private final AtomicLong streamsAlreadyExistingCount = new AtomicLong();
+
+    @PostConstruct
+    public void register() {
+        pipelineMetrics.register(this);
+    }
+
+    public void cacheHit() {
+        cacheHitCount.incrementAndGet();
+    }
+
+    public void streamCreated() {
+        streamsCreatedCount.incrementAndGet();
+    }
+
+    public void streamAlreadyExisted() {
+        streamsAlreadyExistingCount.incrementAndGet();
+    }
+
+    @Override
+    public String getMetricsType() {
+        return "EventStoreMetrics";
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "stream-creation";
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return cacheHitCount.get();
+    }
+
+    @Override
+    public long getStreamsCreatedCount() {
+        return streamsCreatedCount.get();
+    }
+
+    @Override
+    public long getStreamsAlreadyExistingCount() {
+        return streamsAlreadyExistingCount.get();
+    }
+
+    /**
+     * @return the fraction of requests answered by the cache, or 0 if there have been none
+     */
+    @Override
+    public double getCacheHitRate() {
+        final long hits = cacheHitCount.get();
+        final long total = hits + streamsCreatedCount.get() + streamsAlreadyExistingCount.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
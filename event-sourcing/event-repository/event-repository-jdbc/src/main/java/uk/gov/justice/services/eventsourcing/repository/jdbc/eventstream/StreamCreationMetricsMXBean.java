@@ -0,0 +1,15 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream;
+
+/**
+ * The event stream creations of this node as read through JMX
+ */
+public interface StreamCreationMetricsMXBean {
+
+    long getCacheHitCount();
+
+    long getStreamsCreatedCount();
+
+    long getStreamsAlreadyExistingCount();
+
+    double getCacheHitRate();
+}
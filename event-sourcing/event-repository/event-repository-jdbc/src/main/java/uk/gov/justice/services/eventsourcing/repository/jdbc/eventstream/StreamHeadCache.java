@@ -0,0 +1,99 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream;
+
+import static java.lang.Integer.parseInt;
+import static java.util.Collections.synchronizedMap;
+import static java.util.Optional.ofNullable;
+import static javax.transaction.Status.STATUS_COMMITTED;
+import static javax.transaction.Status.STATUS_NO_TRANSACTION;
+
+import uk.gov.justice.services.common.configuration.GlobalValue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Node local, size bounded cache of the head position of recently appended streams.
+ *
+ * Positions are only cached once the transaction that appended them has committed, so a cached
+ * position is never ahead of what this node wrote. It can however differ from the database when
+ * another node appends to, clears or deletes the same stream: the cache is then behind, or ahead,
+ * of event_stream.latest_position. Either way the conditional update of latest_position fails with
+ * an OptimisticLockingRetryException and the entry is invalidated, and an append after an expected
+ * version that differs from the cached position invalidates the entry and re-reads the position
+ * before failing.
+ *
+ * Setting 'event.stream.head.cache.max.size' to 0 disables the cache.
+ */
+@ApplicationScoped
+public class StreamHeadCache {
+
+    @Inject
+    @GlobalValue(key = "event.stream.head.cache.max.size", defaultValue = "10000")
+    private String maxSize;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private Map<UUID, Long> latestPositions;
+
+    @PostConstruct
+    public void initialise() {
+        final int maximumNumberOfStreams = parseInt(maxSize);
+        latestPositions = synchronizedMap(new LinkedHashMap<UUID, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<UUID, Long> eldest) {
+                return size() > maximumNumberOfStreams;
+            }
+        });
+    }
+
+    public Optional<Long> getLatestPosition(final UUID streamId) {
+        return ofNullable(latestPositions.get(streamId));
+    }
+
+    /**
+     * Caches the new head position of the stream once the current transaction commits. If the
+     * transaction rolls back the stream is removed from the cache instead. Where one transaction
+     * updates the same stream more than once the highest position wins, whatever the order in
+     * which the synchronizations run.
+     *
+     * @param streamId       the id of the stream
+     * @param latestPosition the position of the last event appended to the stream
+     */
+    public void updateLatestPositionOnCommit(final UUID streamId, final long latestPosition) {
+
+        if (transactionSynchronizationRegistry.getTransactionStatus() == STATUS_NO_TRANSACTION) {
+            latestPositions.put(streamId, latestPosition);
+            return;
+        }
+
+        invalidate(streamId);
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(final int status) {
+                if (status == STATUS_COMMITTED) {
+                    latestPositions.merge(streamId, latestPosition, Math::max);
+                } else {
+                    invalidate(streamId);
+                }
+            }
+        });
+    }
+
+    public void invalidate(final UUID streamId) {
+        latestPositions.remove(streamId);
+    }
+}
@@ -0,0 +1,29 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Orders stream ids as Postgres orders the uuid stream_id column of event_stream, that is byte by
+ * byte and unsigned.
+ *
+ * {@link UUID#compareTo(UUID)} compares signed longs, so disagrees with ORDER BY stream_id for any
+ * id with its top bit set. Every path that locks more than one stream sorts with this order, so
+ * that two transactions locking the same streams cannot take the locks the opposite way round and
+ * deadlock.
+ */
+public class StreamIdComparator implements Comparator<UUID> {
+
+    public static final StreamIdComparator STREAM_ID_ORDER = new StreamIdComparator();
+
+    @Override
+    public int compare(final UUID streamId_1, final UUID streamId_2) {
+        final int mostSignificantBits = Long.compareUnsigned(streamId_1.getMostSignificantBits(), streamId_2.getMostSignificantBits());
+
+        if (mostSignificantBits != 0) {
+            return mostSignificantBits;
+        }
+
+        return Long.compareUnsigned(streamId_1.getLeastSignificantBits(), streamId_2.getLeastSignificantBits());
+    }
+}
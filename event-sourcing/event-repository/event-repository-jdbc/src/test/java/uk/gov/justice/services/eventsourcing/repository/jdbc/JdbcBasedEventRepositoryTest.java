@@ -1,6 +1,9 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc;
 
 import static java.time.ZonedDateTime.now;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static java.util.UUID.randomUUID;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.of;
@@ -11,9 +14,14 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import uk.gov.justice.services.common.util.UtcClock;
@@ -22,8 +30,11 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverte
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStream;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStreamJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamCreationMetrics;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamHeadCache;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidPositionException;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidStreamIdException;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.OptimisticLockingRetryException;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.StoreEventRequestFailedException;
 import uk.gov.justice.services.jdbc.persistence.JdbcRepositoryException;
 import uk.gov.justice.services.messaging.JsonEnvelope;
@@ -31,13 +42,17 @@ import uk.gov.justice.services.messaging.Metadata;
 import uk.gov.justice.services.test.utils.common.stream.StreamCloseSpy;
 
 import java.time.ZonedDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -79,6 +94,12 @@ public class JdbcBasedEventRepositoryTest {
     @Mock
     private UtcClock clock;
 
+    @Mock
+    private StreamHeadCache streamHeadCache;
+
+    @Mock
+    private StreamCreationMetrics streamCreationMetrics;
+
     @InjectMocks
     private JdbcBasedEventRepository jdbcBasedEventRepository;
 
@@ -206,7 +227,7 @@ public class JdbcBasedEventRepositoryTest {
         final JsonEnvelope envelope2 = mock(JsonEnvelope.class);
         final JsonEnvelope envelope3 = mock(JsonEnvelope.class);
 
-        when(eventStreamJdbcRepository.findActive()).thenReturn(of(buildEventStreamFor(streamId1, 1L), buildEventStreamFor(streamId2, 2L), buildEventStreamFor(streamId3, 3L)));
+        when(eventStreamJdbcRepository.findActiveStreamIds()).thenReturn(of(streamId1, streamId2, streamId3));
         when(eventJdbcRepository.findByStreamIdOrderByPositionAsc(streamId1)).thenReturn(of(event1));
         when(eventJdbcRepository.findByStreamIdOrderByPositionAsc(streamId2)).thenReturn(of(event2));
         when(eventJdbcRepository.findByStreamIdOrderByPositionAsc(streamId3)).thenReturn(of(event3));
@@ -232,7 +253,7 @@ public class JdbcBasedEventRepositoryTest {
         final UUID streamId2 = UUID.fromString("4b4e80a0-76f7-476c-b75b-527e38fb252e");
         final UUID streamId3 = UUID.fromString("4b4e80a0-76f7-476c-b75b-527e38fb253e");
 
-        when(eventStreamJdbcRepository.findActive()).thenReturn(of(buildEventStreamFor(streamId1, 1L), buildEventStreamFor(streamId2, 2L), buildEventStreamFor(streamId3, 3L)));
+        when(eventStreamJdbcRepository.findActiveStreamIds()).thenReturn(of(streamId1, streamId2, streamId3));
 
         final Stream<UUID> allActiveStreamIds = jdbcBasedEventRepository.getAllActiveStreamIds();
 
@@ -250,7 +271,7 @@ public class JdbcBasedEventRepositoryTest {
         final UUID streamId2 = UUID.fromString("4b4e80a0-76f7-476c-b75b-527e38fb252e");
         final UUID streamId3 = UUID.fromString("4b4e80a0-76f7-476c-b75b-527e38fb253e");
 
-        when(eventStreamJdbcRepository.findAll()).thenReturn(of(buildEventStreamFor(streamId1, 1L), buildEventStreamFor(streamId2, 2L), buildEventStreamFor(streamId3, 3L)));
+        when(eventStreamJdbcRepository.findAllStreamIds()).thenReturn(of(streamId1, streamId2, streamId3));
 
         final Stream<UUID> allStreamIds = jdbcBasedEventRepository.getAllStreamIds();
 
@@ -262,6 +283,31 @@ public class JdbcBasedEventRepositoryTest {
         assertThat(streamIds.get(2), is(streamId3));
     }
 
+    @Test
+    public void shouldCheckWhetherAnEventStreamExistsAtAPosition() throws Exception {
+
+        when(eventStreamJdbcRepository.existsAtPosition(3L)).thenReturn(true);
+
+        assertThat(jdbcBasedEventRepository.eventStreamExistsAtPosition(3L), is(true));
+        verifyNoInteractions(eventJdbcRepository);
+    }
+
+    @Test
+    public void shouldCountEventStreamsFromAPosition() throws Exception {
+
+        when(eventStreamJdbcRepository.countFromPosition(1L)).thenReturn(7L);
+
+        assertThat(jdbcBasedEventRepository.countEventStreamsFromPosition(1L), is(7L));
+    }
+
+    @Test
+    public void shouldCheckWhetherAStreamHasEventsFromAPosition() throws Exception {
+
+        when(eventJdbcRepository.hasEventsFromPosition(STREAM_ID, 4L)).thenReturn(true);
+
+        assertThat(jdbcBasedEventRepository.hasEventsFromPosition(STREAM_ID, 4L), is(true));
+    }
+
     @Test
     public void shouldCloseAllStreamsOnCloseOfStreamOfStreams() throws Exception {
         final UUID streamId1 = UUID.fromString("4b4e80a0-76f7-476c-b75b-527e38fb251e");
@@ -313,6 +359,40 @@ public class JdbcBasedEventRepositoryTest {
         verify(logger).trace("Storing event {} into stream {} at position {}", name, STREAM_ID, POSITION);
     }
 
+    @Test
+    public void shouldStoreAllEventEnvelopesInOneBatch() throws Exception {
+        final UUID eventId_1 = randomUUID();
+        final UUID eventId_2 = randomUUID();
+        final JsonEnvelope envelope_1 = mock(JsonEnvelope.class);
+        final JsonEnvelope envelope_2 = mock(JsonEnvelope.class);
+        final Event event_1 = new Event(eventId_1, STREAM_ID, POSITION, "name_1", null, null, TIMESTAMP);
+        final Event event_2 = new Event(eventId_2, STREAM_ID, POSITION + 1, "name_2", null, null, TIMESTAMP);
+
+        when(eventConverter.eventOf(envelope_1)).thenReturn(event_1);
+        when(eventConverter.eventOf(envelope_2)).thenReturn(event_2);
+        when(clock.now()).thenReturn(TIMESTAMP);
+
+        jdbcBasedEventRepository.storeEvents(asList(envelope_1, envelope_2));
+
+        verify(eventJdbcRepository).insertBatch(asList(event_1, event_2));
+        verify(prePublishQueueRepository).addToQueue(asList(eventId_1, eventId_2), TIMESTAMP);
+        verify(logger).trace("Storing {} events", 2);
+    }
+
+    @Test
+    public void shouldThrowExceptionOnNullPositionWhenStoringABatch() throws Exception {
+        final Event event = new Event(randomUUID(), STREAM_ID, null, "name", null, null, TIMESTAMP);
+        when(eventConverter.eventOf(envelope)).thenReturn(event);
+
+        doThrow(InvalidPositionException.class).when(eventJdbcRepository).insertBatch(singletonList(event));
+
+        final StoreEventRequestFailedException storeEventRequestFailedException = assertThrows(
+                StoreEventRequestFailedException.class,
+                () -> jdbcBasedEventRepository.storeEvents(singletonList(envelope)));
+
+        assertThat(storeEventRequestFailedException.getMessage(), is("Could not store 1 events for stream " + STREAM_ID));
+    }
+
     @Test
     public void shouldThrowExceptionOnDuplicatePosition() throws Exception {
         when(eventConverter.eventOf(envelope)).thenReturn(event);
@@ -332,11 +412,251 @@ public class JdbcBasedEventRepositoryTest {
         assertThat(jdbcBasedEventRepository.getStreamSize(STREAM_ID), equalTo(POSITION));
     }
 
+    @Test
+    public void shouldReturnStreamSizeFromStreamHeadCacheWithoutQuerying() {
+        when(streamHeadCache.getLatestPosition(STREAM_ID)).thenReturn(Optional.of(23L));
+
+        assertThat(jdbcBasedEventRepository.getStreamSize(STREAM_ID), equalTo(23L));
+
+        verifyNoInteractions(eventJdbcRepository, eventStreamJdbcRepository);
+    }
+
+    @Test
+    public void shouldReturnStreamSizeFromLatestPositionOfEventStreamIfNotCached() {
+        when(streamHeadCache.getLatestPosition(STREAM_ID)).thenReturn(Optional.empty());
+        when(eventStreamJdbcRepository.findLatestPosition(STREAM_ID)).thenReturn(Optional.of(42L));
+
+        assertThat(jdbcBasedEventRepository.getStreamSize(STREAM_ID), equalTo(42L));
+
+        verifyNoInteractions(eventJdbcRepository);
+    }
+
+    @Test
+    public void shouldInvalidateCachedStreamSize() {
+        jdbcBasedEventRepository.invalidateStreamSize(STREAM_ID);
+
+        verify(streamHeadCache).invalidate(STREAM_ID);
+    }
+
+    @Test
+    public void shouldAdvanceStreamHeadBeforeStoringEventsAndCacheItOnCommit() throws Exception {
+        final JsonEnvelope envelope_1 = mock(JsonEnvelope.class);
+        final JsonEnvelope envelope_2 = mock(JsonEnvelope.class);
+        final Event event_1 = new Event(randomUUID(), STREAM_ID, 6L, "name_1", null, null, TIMESTAMP);
+        final Event event_2 = new Event(randomUUID(), STREAM_ID, 7L, "name_2", null, null, TIMESTAMP);
+
+        when(eventConverter.eventOf(envelope_1)).thenReturn(event_1);
+        when(eventConverter.eventOf(envelope_2)).thenReturn(event_2);
+        when(eventStreamJdbcRepository.advanceLatestPosition(STREAM_ID, 5L, 7L)).thenReturn(true);
+
+        jdbcBasedEventRepository.storeEvents(asList(envelope_1, envelope_2));
+
+        final InOrder inOrder = inOrder(eventStreamJdbcRepository, eventJdbcRepository, streamHeadCache);
+        inOrder.verify(eventStreamJdbcRepository).advanceLatestPosition(STREAM_ID, 5L, 7L);
+        inOrder.verify(streamHeadCache).updateLatestPositionOnCommit(STREAM_ID, 7L);
+        inOrder.verify(eventJdbcRepository).insertBatch(asList(event_1, event_2));
+    }
+
+    @Test
+    public void shouldThrowOptimisticLockingRetryExceptionAndInvalidateCacheIfStreamHasMovedOn() throws Exception {
+        final Event event = new Event(randomUUID(), STREAM_ID, 6L, "name", null, null, TIMESTAMP);
+
+        when(eventConverter.eventOf(envelope)).thenReturn(event);
+        when(eventStreamJdbcRepository.advanceLatestPosition(STREAM_ID, 5L, 6L)).thenReturn(false);
+        when(eventStreamJdbcRepository.findLatestPosition(STREAM_ID)).thenReturn(Optional.of(6L));
+
+        final OptimisticLockingRetryException optimisticLockingRetryException = assertThrows(
+                OptimisticLockingRetryException.class,
+                () -> jdbcBasedEventRepository.storeEvent(envelope));
+
+        assertThat(optimisticLockingRetryException.getMessage(), is("Locking Exception while storing sequence 6 of stream " + STREAM_ID + " which is already at 6"));
+        verify(streamHeadCache).invalidate(STREAM_ID);
+        verifyNoInteractions(eventJdbcRepository, prePublishQueueRepository);
+    }
+
+    @Test
+    public void shouldThrowOptimisticLockingRetryExceptionAndInvalidateCacheIfCachedStreamNoLongerExists() throws Exception {
+        final Event event = new Event(randomUUID(), STREAM_ID, 6L, "name", null, null, TIMESTAMP);
+
+        when(eventConverter.eventOf(envelope)).thenReturn(event);
+        when(eventStreamJdbcRepository.advanceLatestPosition(STREAM_ID, 5L, 6L)).thenReturn(false);
+        when(eventStreamJdbcRepository.findLatestPosition(STREAM_ID)).thenReturn(Optional.empty());
+        when(streamHeadCache.getLatestPosition(STREAM_ID)).thenReturn(Optional.of(5L));
+
+        final OptimisticLockingRetryException optimisticLockingRetryException = assertThrows(
+                OptimisticLockingRetryException.class,
+                () -> jdbcBasedEventRepository.storeEvent(envelope));
+
+        assertThat(optimisticLockingRetryException.getMessage(), is("Locking Exception while storing sequence 6 of stream " + STREAM_ID + " which no longer exists"));
+        verify(streamHeadCache).invalidate(STREAM_ID);
+        verifyNoInteractions(eventJdbcRepository, prePublishQueueRepository);
+    }
+
+    @Test
+    public void shouldStoreEventOfStreamWithoutEventStreamRowThatIsNotCached() throws Exception {
+        final Event event = new Event(randomUUID(), STREAM_ID, 6L, "name", null, null, TIMESTAMP);
+
+        when(eventConverter.eventOf(envelope)).thenReturn(event);
+        when(eventStreamJdbcRepository.advanceLatestPosition(STREAM_ID, 5L, 6L)).thenReturn(false);
+        when(eventStreamJdbcRepository.findLatestPosition(STREAM_ID)).thenReturn(Optional.empty());
+        when(streamHeadCache.getLatestPosition(STREAM_ID)).thenReturn(Optional.empty());
+        when(clock.now()).thenReturn(TIMESTAMP);
+
+        jdbcBasedEventRepository.storeEvent(envelope);
+
+        verify(eventJdbcRepository).insert(event);
+        verify(prePublishQueueRepository).addToQueue(event.getId(), TIMESTAMP);
+    }
+
+    @Test
+    public void shouldStoreEventsOfAppendsInOneBatchLeavingOutAppendsToStreamsThatHaveMovedOn() throws Exception {
+        final UUID streamId_1 = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        final UUID streamId_2 = UUID.fromString("80000000-0000-0000-0000-000000000002");
+        final UUID eventId = randomUUID();
+
+        final JsonEnvelope envelope_1 = envelopeOfStream(streamId_1);
+        final JsonEnvelope envelope_2 = envelopeOfStream(streamId_2);
+        final Event event_1 = new Event(eventId, streamId_1, 3L, "name_1", null, null, TIMESTAMP);
+        final Event event_2 = new Event(randomUUID(), streamId_2, 9L, "name_2", null, null, TIMESTAMP);
+
+        when(eventConverter.eventOf(envelope_1)).thenReturn(event_1);
+        when(eventConverter.eventOf(envelope_2)).thenReturn(event_2);
+        when(eventStreamJdbcRepository.advanceLatestPosition(streamId_1, 2L, 3L)).thenReturn(true);
+        when(eventStreamJdbcRepository.advanceLatestPosition(streamId_2, 8L, 9L)).thenReturn(false);
+        when(eventStreamJdbcRepository.findLatestPosition(streamId_2)).thenReturn(Optional.of(9L));
+        when(clock.now()).thenReturn(TIMESTAMP);
+
+        final List<JsonEnvelope> append_1 = singletonList(envelope_1);
+        final List<JsonEnvelope> append_2 = singletonList(envelope_2);
+
+        final List<List<JsonEnvelope>> rejectedAppends = jdbcBasedEventRepository.storeEventsOfAppends(asList(append_2, append_1));
+
+        assertThat(rejectedAppends, is(singletonList(append_2)));
+
+        final InOrder inOrder = inOrder(eventStreamJdbcRepository);
+        inOrder.verify(eventStreamJdbcRepository).advanceLatestPosition(streamId_1, 2L, 3L);
+        inOrder.verify(eventStreamJdbcRepository).advanceLatestPosition(streamId_2, 8L, 9L);
+
+        verify(eventJdbcRepository).insertBatch(singletonList(event_1));
+        verify(prePublishQueueRepository).addToQueue(singletonList(eventId), TIMESTAMP);
+        verify(streamHeadCache).invalidate(streamId_2);
+    }
+
+    @Test
+    public void shouldNotStoreAnythingIfAllAppendsAreToStreamsThatHaveMovedOn() throws Exception {
+        final JsonEnvelope envelope = mock(JsonEnvelope.class);
+        final Event event = new Event(randomUUID(), STREAM_ID, 6L, "name", null, null, TIMESTAMP);
+
+        when(eventConverter.eventOf(envelope)).thenReturn(event);
+        when(eventStreamJdbcRepository.advanceLatestPosition(STREAM_ID, 5L, 6L)).thenReturn(false);
+        when(eventStreamJdbcRepository.findLatestPosition(STREAM_ID)).thenReturn(Optional.of(7L));
+
+        final List<JsonEnvelope> append = singletonList(envelope);
+
+        assertThat(jdbcBasedEventRepository.storeEventsOfAppends(singletonList(append)), is(singletonList(append)));
+
+        verifyNoInteractions(eventJdbcRepository, prePublishQueueRepository);
+    }
+
+    @Test
+    public void shouldLockStreamSizesFallingBackToEventLogForStreamsWithoutEventStreamRow() {
+        final UUID streamId_1 = randomUUID();
+        final UUID streamId_2 = randomUUID();
+        final UUID streamId_3 = randomUUID();
+        final List<UUID> streamIds = asList(streamId_1, streamId_2, streamId_3);
+
+        final Map<UUID, Long> eventLogStreamSizes = new HashMap<>();
+        eventLogStreamSizes.put(streamId_2, 0L);
+        eventLogStreamSizes.put(streamId_3, 7L);
+
+        when(eventStreamJdbcRepository.lockLatestPositions(streamIds)).thenReturn(singletonMap(streamId_1, 4L));
+        when(eventJdbcRepository.getStreamSizes(asList(streamId_2, streamId_3))).thenReturn(eventLogStreamSizes);
+
+        final Map<UUID, Long> streamSizes = jdbcBasedEventRepository.lockStreamSizes(streamIds);
+
+        assertThat(streamSizes.get(streamId_1), is(4L));
+        assertThat(streamSizes.get(streamId_2), is(0L));
+        assertThat(streamSizes.get(streamId_3), is(7L));
+        verify(eventJdbcRepository, never()).getStreamSize(any(UUID.class));
+        verifyNoInteractions(streamHeadCache);
+    }
+
+    @Test
+    public void shouldNotReadStreamSizesFromEventLogIfAllStreamsHaveEventStreamRows() {
+        final UUID streamId = randomUUID();
+
+        when(eventStreamJdbcRepository.lockLatestPositions(singletonList(streamId))).thenReturn(singletonMap(streamId, 4L));
+
+        assertThat(jdbcBasedEventRepository.lockStreamSizes(singletonList(streamId)), is(singletonMap(streamId, 4L)));
+
+        verifyNoInteractions(eventJdbcRepository);
+    }
+
+    @Test
+    public void shouldStoreEventsOfLockedStreamsMovingTheHeadOfEachStream() throws Exception {
+        final UUID streamId_1 = randomUUID();
+        final UUID streamId_2 = randomUUID();
+        final JsonEnvelope envelope_1 = mock(JsonEnvelope.class);
+        final JsonEnvelope envelope_2 = mock(JsonEnvelope.class);
+        final JsonEnvelope envelope_3 = mock(JsonEnvelope.class);
+        final Event event_1 = new Event(randomUUID(), streamId_1, 3L, "name_1", null, null, TIMESTAMP);
+        final Event event_2 = new Event(randomUUID(), streamId_1, 4L, "name_2", null, null, TIMESTAMP);
+        final Event event_3 = new Event(randomUUID(), streamId_2, 1L, "name_3", null, null, TIMESTAMP);
+
+        when(eventConverter.eventOf(envelope_1)).thenReturn(event_1);
+        when(eventConverter.eventOf(envelope_2)).thenReturn(event_2);
+        when(eventConverter.eventOf(envelope_3)).thenReturn(event_3);
+        when(clock.now()).thenReturn(TIMESTAMP);
+
+        jdbcBasedEventRepository.storeEventsOfLockedStreams(asList(asList(envelope_1, envelope_2), singletonList(envelope_3)));
+
+        final Map<UUID, Long> latestPositions = new HashMap<>();
+        latestPositions.put(streamId_1, 4L);
+        latestPositions.put(streamId_2, 1L);
+
+        verify(eventStreamJdbcRepository).updateLatestPositions(latestPositions);
+        verify(streamHeadCache).updateLatestPositionOnCommit(streamId_1, 4L);
+        verify(streamHeadCache).updateLatestPositionOnCommit(streamId_2, 1L);
+        verify(eventJdbcRepository).insertBatch(asList(event_1, event_2, event_3));
+        verify(prePublishQueueRepository).addToQueue(asList(event_1.getId(), event_2.getId(), event_3.getId()), TIMESTAMP);
+    }
+
+    @Test
+    public void shouldReserveStreamPositionsAndCacheTheNewHeadOnCommit() {
+        when(eventStreamJdbcRepository.reservePositions(STREAM_ID, 3)).thenReturn(8L);
+
+        assertThat(jdbcBasedEventRepository.reserveStreamPositions(STREAM_ID, 3), is(8L));
+
+        verify(streamHeadCache).updateLatestPositionOnCommit(STREAM_ID, 8L);
+    }
+
+    @Test
+    public void shouldStoreEventsAtReservedPositionsWithoutAdvancingStreamHead() throws Exception {
+        final JsonEnvelope envelope_1 = mock(JsonEnvelope.class);
+        final JsonEnvelope envelope_2 = mock(JsonEnvelope.class);
+        final UUID eventId_1 = randomUUID();
+        final UUID eventId_2 = randomUUID();
+        final Event event_1 = new Event(eventId_1, STREAM_ID, 6L, "name_1", null, null, TIMESTAMP);
+        final Event event_2 = new Event(eventId_2, STREAM_ID, 7L, "name_2", null, null, TIMESTAMP);
+
+        when(eventConverter.eventOf(envelope_1)).thenReturn(event_1);
+        when(eventConverter.eventOf(envelope_2)).thenReturn(event_2);
+        when(clock.now()).thenReturn(TIMESTAMP);
+
+        jdbcBasedEventRepository.storeEventsAtReservedPositions(asList(envelope_1, envelope_2));
+
+        verify(eventJdbcRepository).insertBatch(asList(event_1, event_2));
+        verify(prePublishQueueRepository).addToQueue(asList(eventId_1, eventId_2), TIMESTAMP);
+        verifyNoInteractions(eventStreamJdbcRepository, streamHeadCache);
+    }
+
     @Test
     public void shouldDeleteStream() {
         jdbcBasedEventRepository.clearEventsForStream(STREAM_ID);
 
         verify(eventJdbcRepository).clear(STREAM_ID);
+        verify(eventStreamJdbcRepository).resetLatestPosition(STREAM_ID);
+        verify(streamHeadCache).invalidate(STREAM_ID);
     }
 
     @Test
@@ -425,15 +745,109 @@ public class JdbcBasedEventRepositoryTest {
 
     @Test
     public void shouldStoreEventStream() {
+        when(streamHeadCache.getLatestPosition(STREAM_ID)).thenReturn(Optional.empty());
+        when(eventStreamJdbcRepository.insert(STREAM_ID)).thenReturn(true);
+
         jdbcBasedEventRepository.createEventStream(STREAM_ID);
+
         verify(eventStreamJdbcRepository).insert(STREAM_ID);
+        verify(streamHeadCache).updateLatestPositionOnCommit(STREAM_ID, 0L);
+        verify(streamCreationMetrics).streamCreated();
+    }
+
+    @Test
+    public void shouldNotStoreEventStreamKnownToExistByThisNode() {
+        when(streamHeadCache.getLatestPosition(STREAM_ID)).thenReturn(Optional.of(3L));
+
+        jdbcBasedEventRepository.createEventStream(STREAM_ID);
+
+        verifyNoInteractions(eventStreamJdbcRepository);
+        verify(streamCreationMetrics).cacheHit();
+    }
+
+    @Test
+    public void shouldStoreSeveralEventStreamsWithOneStatementLeavingOutStreamsKnownToExistByThisNode() {
+        final UUID cachedStreamId = randomUUID();
+        final UUID newStreamId = randomUUID();
+        final UUID existingStreamId = randomUUID();
+
+        when(streamHeadCache.getLatestPosition(cachedStreamId)).thenReturn(Optional.of(3L));
+        when(streamHeadCache.getLatestPosition(newStreamId)).thenReturn(Optional.empty());
+        when(streamHeadCache.getLatestPosition(existingStreamId)).thenReturn(Optional.empty());
+        when(eventStreamJdbcRepository.insertAll(asList(newStreamId, existingStreamId))).thenReturn(Set.of(newStreamId));
+
+        jdbcBasedEventRepository.createEventStreams(asList(cachedStreamId, newStreamId, existingStreamId));
+
+        verify(streamHeadCache).updateLatestPositionOnCommit(newStreamId, 0L);
+        verify(streamHeadCache, never()).updateLatestPositionOnCommit(existingStreamId, 0L);
+        verify(streamCreationMetrics).cacheHit();
+        verify(streamCreationMetrics).streamCreated();
+        verify(streamCreationMetrics).streamAlreadyExisted();
+        verify(eventStreamJdbcRepository, never()).insert(any(UUID.class));
+    }
+
+    @Test
+    public void shouldNotStoreEventStreamsIfAllAreKnownToExistByThisNode() {
+        when(streamHeadCache.getLatestPosition(STREAM_ID)).thenReturn(Optional.of(3L));
+
+        jdbcBasedEventRepository.createEventStreams(singletonList(STREAM_ID));
+
+        verifyNoInteractions(eventStreamJdbcRepository);
+        verify(streamCreationMetrics).cacheHit();
+    }
+
+    @Test
+    public void shouldNotCacheEventStreamThatAlreadyExisted() {
+        when(streamHeadCache.getLatestPosition(STREAM_ID)).thenReturn(Optional.empty());
+        when(eventStreamJdbcRepository.insert(STREAM_ID)).thenReturn(false);
+
+        jdbcBasedEventRepository.createEventStream(STREAM_ID);
+
+        verify(streamHeadCache, never()).updateLatestPositionOnCommit(any(UUID.class), anyLong());
+        verify(streamCreationMetrics).streamAlreadyExisted();
+    }
+
+    @Test
+    public void shouldCloneEventStreamInTheEventStoreAsInactiveStream() {
+
+        final UUID clonedStreamId = randomUUID();
+        final ZonedDateTime queuedAt = now();
+
+        when(eventJdbcRepository.cloneStream(STREAM_ID, clonedStreamId, "eventSourceName")).thenReturn(3L);
+        when(clock.now()).thenReturn(queuedAt);
+
+        assertThat(jdbcBasedEventRepository.cloneEventStream(STREAM_ID, clonedStreamId, "eventSourceName"), is(3L));
+
+        final InOrder inOrder = inOrder(eventStreamJdbcRepository, eventJdbcRepository, prePublishQueueRepository, streamHeadCache);
+        inOrder.verify(eventStreamJdbcRepository).insert(clonedStreamId, false);
+        inOrder.verify(eventJdbcRepository).cloneStream(STREAM_ID, clonedStreamId, "eventSourceName");
+        inOrder.verify(eventStreamJdbcRepository).advanceLatestPosition(clonedStreamId, 0L, 3L);
+        inOrder.verify(prePublishQueueRepository).addStreamToQueue(clonedStreamId, queuedAt);
+        inOrder.verify(streamHeadCache).updateLatestPositionOnCommit(clonedStreamId, 3L);
     }
 
-    private EventStream buildEventStreamFor(final UUID streamId, final Long sequence) {
-        return new EventStream(streamId, sequence, true, TIMESTAMP);
+    @Test
+    public void shouldOnlyCreateInactiveStreamWhenCloningAnEmptyStream() {
+
+        final UUID clonedStreamId = randomUUID();
+
+        when(eventJdbcRepository.cloneStream(STREAM_ID, clonedStreamId, "eventSourceName")).thenReturn(0L);
+
+        assertThat(jdbcBasedEventRepository.cloneEventStream(STREAM_ID, clonedStreamId, "eventSourceName"), is(0L));
+
+        verify(eventStreamJdbcRepository).insert(clonedStreamId, false);
+        verifyNoInteractions(prePublishQueueRepository, streamHeadCache);
     }
 
     private Event eventOf(final UUID streamId) {
         return new Event(null, streamId, null, null, null, null, null);
     }
+
+    private JsonEnvelope envelopeOfStream(final UUID streamId) {
+        final JsonEnvelope envelope = mock(JsonEnvelope.class);
+        final Metadata metadata = mock(Metadata.class);
+        when(envelope.metadata()).thenReturn(metadata);
+        when(metadata.streamId()).thenReturn(Optional.of(streamId));
+        return envelope;
+    }
 }
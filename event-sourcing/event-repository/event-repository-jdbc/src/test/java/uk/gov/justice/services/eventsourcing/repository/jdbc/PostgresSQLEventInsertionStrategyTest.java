@@ -1,5 +1,6 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -99,4 +100,49 @@ public class PostgresSQLEventInsertionStrategyTest {
     public void shouldReturnTheDefaultSqlInsertStatementWithPostgresDoNothingSuffix() throws Exception {
         assertThat(strategy.insertStatement(), is(SQL_INSERT_EVENT + " ON CONFLICT DO NOTHING"));
     }
+
+    @Test
+    public void shouldSetTheParametersOfEveryRowAndExecuteMultiRowInsertOnce() throws Exception {
+        final Event event_1 = new Event(ID, STREAM_ID, SEQUENCE_ID, NAME, METADATA, PAYLOAD, createdAt);
+        final UUID id_2 = UUID.randomUUID();
+        final Event event_2 = new Event(id_2, STREAM_ID, SEQUENCE_ID + 1, NAME, METADATA, PAYLOAD, createdAt);
+
+        when(preparedStatement.executeUpdate()).thenReturn(2);
+
+        strategy.insertBatch(preparedStatement, asList(event_1, event_2));
+
+        verify(preparedStatement).setObject(1, ID);
+        verify(preparedStatement).setObject(2, STREAM_ID);
+        verify(preparedStatement).setLong(3, SEQUENCE_ID);
+        verify(preparedStatement).setTimestamp(7, toSqlTimestamp(createdAt));
+        verify(preparedStatement).setObject(8, id_2);
+        verify(preparedStatement).setObject(9, STREAM_ID);
+        verify(preparedStatement).setLong(10, SEQUENCE_ID + 1);
+        verify(preparedStatement).setString(11, NAME);
+        verify(preparedStatement).setString(12, METADATA);
+        verify(preparedStatement).setString(13, PAYLOAD);
+        verify(preparedStatement).setTimestamp(14, toSqlTimestamp(createdAt));
+        verify(preparedStatement).executeUpdate();
+    }
+
+    @Test
+    public void shouldThrowExceptionIfAnyRowOfMultiRowInsertWasNotInsertedDueToConflict() throws Exception {
+        final Event event_1 = new Event(ID, STREAM_ID, SEQUENCE_ID, NAME, METADATA, PAYLOAD, createdAt);
+        final Event event_2 = new Event(UUID.randomUUID(), STREAM_ID, SEQUENCE_ID + 1, NAME, METADATA, PAYLOAD, createdAt);
+
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+
+        final OptimisticLockingRetryException optimisticLockingRetryException = assertThrows(OptimisticLockingRetryException.class, () ->
+                strategy.insertBatch(preparedStatement, asList(event_1, event_2))
+        );
+
+        assertThat(optimisticLockingRetryException.getMessage(), is("Locking Exception while storing 2 events from sequence 1 of stream " + STREAM_ID + ", only 1 were inserted"));
+    }
+
+    @Test
+    public void shouldReturnMultiRowInsertStatementWithPostgresDoNothingSuffix() throws Exception {
+        assertThat(strategy.batchInsertStatement(2), is(
+                "INSERT INTO event_log (id, stream_id, position_in_stream, name, metadata, payload, date_created) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING"));
+    }
 }
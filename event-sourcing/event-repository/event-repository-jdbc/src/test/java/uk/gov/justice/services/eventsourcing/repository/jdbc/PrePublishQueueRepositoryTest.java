@@ -1,5 +1,6 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc;
 
+import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -10,6 +11,7 @@ import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue
 import uk.gov.justice.services.common.util.UtcClock;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
@@ -35,6 +37,24 @@ public class PrePublishQueueRepositoryTest {
         verify(publishQueuesDataAccess).popNextEventId(PRE_PUBLISH_QUEUE_TABLE);
     }
 
+    @Test
+    public void shouldPopNextEventIdsFromThePrePublishQueueTable() throws Exception {
+
+        prePublishQueueRepository.popNextEventIds(50);
+
+        verify(publishQueuesDataAccess).popNextEventIds(50, PRE_PUBLISH_QUEUE_TABLE);
+    }
+
+    @Test
+    public void shouldDeleteEventIdsFromThePrePublishQueueTable() throws Exception {
+
+        final List<UUID> eventIds = asList(randomUUID(), randomUUID());
+
+        prePublishQueueRepository.deleteFromQueue(eventIds);
+
+        verify(publishQueuesDataAccess).deleteFromQueue(eventIds, PRE_PUBLISH_QUEUE_TABLE);
+    }
+
     @Test
     public void shouldAddToQueueOfThePrePublishQueueTable() throws Exception {
 
@@ -46,6 +66,17 @@ public class PrePublishQueueRepositoryTest {
         verify(publishQueuesDataAccess).addToQueue(eventId, queuedAt, PRE_PUBLISH_QUEUE_TABLE);
     }
 
+    @Test
+    public void shouldAddStreamToQueueOfThePrePublishQueueTable() throws Exception {
+
+        final UUID streamId = randomUUID();
+        final ZonedDateTime queuedAt = new UtcClock().now();
+
+        prePublishQueueRepository.addStreamToQueue(streamId, queuedAt);
+
+        verify(publishQueuesDataAccess).addStreamToQueue(streamId, queuedAt, PRE_PUBLISH_QUEUE_TABLE);
+    }
+
     @Test
     public void shouldGetSizeOfQueueFromThePrePublishQueueTable() throws Exception {
 
@@ -55,4 +86,12 @@ public class PrePublishQueueRepositoryTest {
 
         assertThat(prePublishQueueRepository.getSizeOfQueue(), is(queueSize));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldGetSizeOfQueueUpToAMaximumSize() throws Exception {
+
+        when(publishQueuesDataAccess.getSizeOfQueueUpTo(500, PRE_PUBLISH_QUEUE_TABLE)).thenReturn(23);
+
+        assertThat(prePublishQueueRepository.getSizeOfQueueUpTo(500), is(23));
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc;
 
+import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -10,6 +11,7 @@ import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue
 import uk.gov.justice.services.common.util.UtcClock;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
@@ -35,6 +37,24 @@ public class PublishQueueRepositoryTest {
         verify(publishQueuesDataAccess).popNextEventId(PUBLISH_QUEUE_TABLE);
     }
 
+    @Test
+    public void shouldPopNextEventIdsFromThePublishQueueTable() throws Exception {
+
+        publishQueueRepository.popNextEventIds(50);
+
+        verify(publishQueuesDataAccess).popNextEventIds(50, PUBLISH_QUEUE_TABLE);
+    }
+
+    @Test
+    public void shouldDeleteEventIdsFromThePublishQueueTable() throws Exception {
+
+        final List<UUID> eventIds = asList(randomUUID(), randomUUID());
+
+        publishQueueRepository.deleteFromQueue(eventIds);
+
+        verify(publishQueuesDataAccess).deleteFromQueue(eventIds, PUBLISH_QUEUE_TABLE);
+    }
+
     @Test
     public void shouldAddToQueueOfThePublishQueueTable() throws Exception {
 
@@ -46,6 +66,17 @@ public class PublishQueueRepositoryTest {
         verify(publishQueuesDataAccess).addToQueue(eventId, queuedAt, PUBLISH_QUEUE_TABLE);
     }
 
+    @Test
+    public void shouldAddStreamToQueueOfThePublishQueueTable() throws Exception {
+
+        final UUID streamId = randomUUID();
+        final ZonedDateTime queuedAt = new UtcClock().now();
+
+        publishQueueRepository.addStreamToQueue(streamId, queuedAt);
+
+        verify(publishQueuesDataAccess).addStreamToQueue(streamId, queuedAt, PUBLISH_QUEUE_TABLE);
+    }
+
     @Test
     public void shouldGetSizeOfQueueFromThePublishQueueTable() throws Exception {
 
@@ -55,4 +86,12 @@ public class PublishQueueRepositoryTest {
 
         assertThat(publishQueueRepository.getSizeOfQueue(), is(queueSize));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldGetSizeOfQueueUpToAMaximumSize() throws Exception {
+
+        when(publishQueuesDataAccess.getSizeOfQueueUpTo(500, PUBLISH_QUEUE_TABLE)).thenReturn(23);
+
+        assertThat(publishQueueRepository.getSizeOfQueueUpTo(500), is(23));
+    }
+}
@@ -2,9 +2,14 @@ package uk.gov.justice.services.eventsourcing.repository.jdbc;
 
 import static java.time.ZoneOffset.UTC;
 import static java.time.ZonedDateTime.of;
+import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PRE_PUBLISH_QUEUE_TABLE;
 import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PUBLISH_QUEUE_TABLE;
@@ -15,8 +20,10 @@ import uk.gov.justice.services.test.utils.core.eventsource.EventStoreInitializer
 import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.UUID;
 
+import javax.enterprise.event.Event;
 import javax.sql.DataSource;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -34,6 +41,9 @@ public class PublishQueuesDataAccessIT {
     @Mock
     private EventStoreDataSourceProvider eventStoreDataSourceProvider;
 
+    @Mock
+    private Event<EventsQueuedEvent> eventsQueuedEventFirer;
+
     @InjectMocks
     private PublishQueuesDataAccess publishQueuesDataAccess;
 
@@ -105,6 +115,82 @@ public class PublishQueuesDataAccessIT {
 
     }
 
+    @Test
+    public void shouldCountTheRowsOfTheQueueUpToAMaximumSize() throws Exception {
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(eventStoreDataSource);
+
+        assertThat(publishQueuesDataAccess.getSizeOfQueueUpTo(2, PUBLISH_QUEUE_TABLE), is(0));
+
+        publishQueuesDataAccess.addToQueue(randomUUID(), of(2021, 8, 23, 11, 11, 1, 0, UTC), PUBLISH_QUEUE_TABLE);
+        assertThat(publishQueuesDataAccess.getSizeOfQueueUpTo(2, PUBLISH_QUEUE_TABLE), is(1));
+
+        publishQueuesDataAccess.addToQueue(randomUUID(), of(2021, 8, 23, 11, 11, 2, 0, UTC), PUBLISH_QUEUE_TABLE);
+        publishQueuesDataAccess.addToQueue(randomUUID(), of(2021, 8, 23, 11, 11, 3, 0, UTC), PUBLISH_QUEUE_TABLE);
+        assertThat(publishQueuesDataAccess.getSizeOfQueueUpTo(2, PUBLISH_QUEUE_TABLE), is(2));
+        assertThat(publishQueuesDataAccess.getSizeOfQueue(PUBLISH_QUEUE_TABLE), is(3));
+    }
+
+    @Test
+    public void shouldPopSeveralEventsFromTheQueueAtOnce() throws Exception {
+
+        final UUID eventId_1 = randomUUID();
+        final UUID eventId_2 = randomUUID();
+        final UUID eventId_3 = randomUUID();
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(eventStoreDataSource);
+
+        assertThat(publishQueuesDataAccess.popNextEventIds(2, PRE_PUBLISH_QUEUE_TABLE).isEmpty(), is(true));
+
+        publishQueuesDataAccess.addToQueue(eventId_1, of(2021, 8, 23, 11, 11, 1, 0, UTC), PRE_PUBLISH_QUEUE_TABLE);
+        publishQueuesDataAccess.addToQueue(eventId_2, of(2021, 8, 23, 11, 11, 2, 0, UTC), PRE_PUBLISH_QUEUE_TABLE);
+        publishQueuesDataAccess.addToQueue(eventId_3, of(2021, 8, 23, 11, 11, 3, 0, UTC), PRE_PUBLISH_QUEUE_TABLE);
+
+        final List<UUID> firstEventIds = publishQueuesDataAccess.popNextEventIds(2, PRE_PUBLISH_QUEUE_TABLE);
+
+        assertThat(firstEventIds, containsInAnyOrder(eventId_1, eventId_2));
+        assertThat(publishQueuesDataAccess.getSizeOfQueue(PRE_PUBLISH_QUEUE_TABLE), is(1));
+        assertThat(publishQueuesDataAccess.popNextEventIds(2, PRE_PUBLISH_QUEUE_TABLE), contains(eventId_3));
+        assertThat(publishQueuesDataAccess.getSizeOfQueue(PRE_PUBLISH_QUEUE_TABLE), is(0));
+    }
+
+    @Test
+    public void shouldPopEventsQueuedTogetherInTheOrderTheyWereQueued() throws Exception {
+
+        final UUID eventId_1 = randomUUID();
+        final UUID eventId_2 = randomUUID();
+        final UUID eventId_3 = randomUUID();
+        final UUID eventId_4 = randomUUID();
+        final ZonedDateTime queuedAt = of(2021, 8, 23, 11, 11, 1, 0, UTC);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(eventStoreDataSource);
+
+        publishQueuesDataAccess.addToQueue(asList(eventId_1, eventId_2, eventId_3, eventId_4), queuedAt, PRE_PUBLISH_QUEUE_TABLE);
+
+        assertThat(publishQueuesDataAccess.popNextEventId(PRE_PUBLISH_QUEUE_TABLE).get(), is(eventId_1));
+        assertThat(publishQueuesDataAccess.popNextEventIds(2, PRE_PUBLISH_QUEUE_TABLE), contains(eventId_2, eventId_3));
+        assertThat(publishQueuesDataAccess.popNextEventId(PRE_PUBLISH_QUEUE_TABLE).get(), is(eventId_4));
+    }
+
+    @Test
+    public void shouldDeleteSeveralEventsFromTheQueueAtOnce() throws Exception {
+
+        final UUID eventId_1 = randomUUID();
+        final UUID eventId_2 = randomUUID();
+        final UUID eventId_3 = randomUUID();
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(eventStoreDataSource);
+
+        publishQueuesDataAccess.addToQueue(eventId_1, of(2021, 8, 23, 11, 11, 1, 0, UTC), PUBLISH_QUEUE_TABLE);
+        publishQueuesDataAccess.addToQueue(eventId_2, of(2021, 8, 23, 11, 11, 2, 0, UTC), PUBLISH_QUEUE_TABLE);
+        publishQueuesDataAccess.addToQueue(eventId_3, of(2021, 8, 23, 11, 11, 3, 0, UTC), PUBLISH_QUEUE_TABLE);
+
+        publishQueuesDataAccess.deleteFromQueue(asList(eventId_1, eventId_3), PUBLISH_QUEUE_TABLE);
+
+        assertThat(publishQueuesDataAccess.getSizeOfQueue(PUBLISH_QUEUE_TABLE), is(1));
+        assertThat(publishQueuesDataAccess.popNextEventId(PUBLISH_QUEUE_TABLE).get(), is(eventId_2));
+    }
+
     @Test
     public void shouldGetTheSizeOfTheQueue() throws Exception {
 
@@ -115,5 +201,7 @@ public class PublishQueuesDataAccessIT {
         publishQueuesDataAccess.addToQueue(randomUUID(), new UtcClock().now(), PUBLISH_QUEUE_TABLE);
 
         assertThat(publishQueuesDataAccess.getSizeOfQueue(PUBLISH_QUEUE_TABLE), is(3));
+
+        verify(eventsQueuedEventFirer, times(3)).fire(new EventsQueuedEvent(PUBLISH_QUEUE_TABLE));
     }
 }
@@ -1,11 +1,13 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc;
 
+import static java.util.Collections.singletonList;
 import static java.util.UUID.fromString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PRE_PUBLISH_QUEUE_TABLE;
 import static uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueue.PublishQueueTableName.PUBLISH_QUEUE_TABLE;
 
 import uk.gov.justice.services.common.util.UtcClock;
@@ -16,6 +18,7 @@ import java.sql.SQLException;
 import java.time.ZonedDateTime;
 import java.util.UUID;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.sql.DataSource;
 
@@ -32,6 +35,9 @@ public class PublishQueuesDataAccessTest {
     @Inject
     private EventStoreDataSourceProvider eventStoreDataSourceProvider;
 
+    @Mock
+    private Event<EventsQueuedEvent> eventsQueuedEventFirer;
+
     @InjectMocks
     private PublishQueuesDataAccess publishQueuesDataAccess;
 
@@ -56,6 +62,27 @@ public class PublishQueuesDataAccessTest {
         assertThat(publishedEventException.getCause(), is(sqlException));
     }
 
+    @Test
+    public void shouldRethrowSqlExceptionIfAddingBatchToQueueFails() throws Exception {
+
+        final UUID eventId = fromString("fc9ac4d0-66ba-4b78-a114-875c6950c64d");
+        final ZonedDateTime queuedAt = new UtcClock().now();
+        final SQLException sqlException = new SQLException("Oops");
+
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenThrow(sqlException);
+
+        final PublishedEventException publishedEventException = assertThrows(PublishedEventException.class, () -> publishQueuesDataAccess.addToQueue(
+                singletonList(eventId),
+                queuedAt,
+                PRE_PUBLISH_QUEUE_TABLE));
+
+        assertThat(publishedEventException.getMessage(), is("Failed to add 1 eventIds to pre_publish_queue table"));
+        assertThat(publishedEventException.getCause(), is(sqlException));
+    }
+
     @Test
     public void shouldRethrowSqlExceptionIfPopNextEventIdFails() throws Exception {
 
@@ -87,4 +114,20 @@ public class PublishQueuesDataAccessTest {
         assertThat(publishedEventException.getMessage(), is("Failed to count rows of publish_queue table"));
         assertThat(publishedEventException.getCause(), is(sqlException));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldRethrowSqlExceptionIfGetSizeOfQueueUpToAMaximumSizeFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Oops");
+
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenThrow(sqlException);
+
+        final PublishedEventException publishedEventException = assertThrows(PublishedEventException.class, () -> publishQueuesDataAccess.getSizeOfQueueUpTo(500, PUBLISH_QUEUE_TABLE));
+
+        assertThat(publishedEventException.getMessage(), is("Failed to count up to 500 rows of publish_queue table"));
+        assertThat(publishedEventException.getCause(), is(sqlException));
+    }
+}
@@ -0,0 +1,145 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.deletion;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamHeadCache;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class ChunkedStreamDeleterTest {
+
+    @Mock
+    private StreamChunkDeleter streamChunkDeleter;
+
+    @Mock
+    private StreamHeadCache streamHeadCache;
+
+    @Mock
+    private StreamDeletionProgressListener streamDeletionProgressListener;
+
+    @Mock
+    private Logger logger;
+
+    @InjectMocks
+    private ChunkedStreamDeleter chunkedStreamDeleter;
+
+    @BeforeEach
+    public void setUp() {
+        setField(chunkedStreamDeleter, "chunkSize", "100");
+    }
+
+    @Test
+    public void shouldDeleteStreamInChunksOfPositionsThenDeleteTheEventStream() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        when(streamChunkDeleter.findLastPosition(streamId)).thenReturn(of(250L));
+        when(streamChunkDeleter.findFirstPosition(streamId)).thenReturn(of(1L), of(101L), of(201L), empty());
+        when(streamChunkDeleter.deleteChunk(streamId, 1L, 100L)).thenReturn(100);
+        when(streamChunkDeleter.deleteChunk(streamId, 101L, 200L)).thenReturn(100);
+        when(streamChunkDeleter.deleteChunk(streamId, 201L, 300L)).thenReturn(50);
+
+        assertThat(chunkedStreamDeleter.deleteStream(streamId), is(250L));
+
+        final InOrder inOrder = inOrder(streamChunkDeleter, streamHeadCache);
+        inOrder.verify(streamHeadCache).invalidate(streamId);
+        inOrder.verify(streamChunkDeleter).deleteChunk(streamId, 1L, 100L);
+        inOrder.verify(streamChunkDeleter).deleteChunk(streamId, 101L, 200L);
+        inOrder.verify(streamChunkDeleter).deleteChunk(streamId, 201L, 300L);
+        inOrder.verify(streamChunkDeleter).deleteEventStream(streamId);
+        inOrder.verify(streamHeadCache).invalidate(streamId);
+    }
+
+    @Test
+    public void shouldResumeDeletionFromTheLowestPositionLeft() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        when(streamChunkDeleter.findLastPosition(streamId)).thenReturn(of(250L));
+        when(streamChunkDeleter.findFirstPosition(streamId)).thenReturn(of(201L), empty());
+        when(streamChunkDeleter.deleteChunk(streamId, 201L, 300L)).thenReturn(50);
+
+        assertThat(chunkedStreamDeleter.deleteStream(streamId), is(50L));
+
+        verify(streamChunkDeleter).deleteEventStream(streamId);
+    }
+
+    @Test
+    public void shouldOnlyDeleteTheEventStreamIfNoEventsAreLeft() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        when(streamChunkDeleter.findLastPosition(streamId)).thenReturn(empty());
+        when(streamChunkDeleter.findFirstPosition(streamId)).thenReturn(empty());
+
+        assertThat(chunkedStreamDeleter.deleteStream(streamId), is(0L));
+
+        verify(streamChunkDeleter, never()).deleteChunk(eq(streamId), anyLong(), anyLong());
+        verify(streamChunkDeleter).deleteEventStream(streamId);
+    }
+
+    @Test
+    public void shouldReportProgressAsEachChunkIsDeleted() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        when(streamChunkDeleter.findLastPosition(streamId)).thenReturn(of(150L));
+        when(streamChunkDeleter.findFirstPosition(streamId)).thenReturn(of(1L), of(101L), empty());
+        when(streamChunkDeleter.deleteChunk(streamId, 1L, 100L)).thenReturn(100);
+        when(streamChunkDeleter.deleteChunk(streamId, 101L, 200L)).thenReturn(50);
+
+        chunkedStreamDeleter.deleteStream(streamId, streamDeletionProgressListener);
+
+        final InOrder inOrder = inOrder(streamChunkDeleter, streamDeletionProgressListener);
+        inOrder.verify(streamChunkDeleter).deleteChunk(streamId, 1L, 100L);
+        inOrder.verify(streamDeletionProgressListener).progressMade(new StreamDeletionProgress(streamId, 100L, 100L, 150L));
+        inOrder.verify(streamChunkDeleter).deleteChunk(streamId, 101L, 200L);
+        inOrder.verify(streamDeletionProgressListener).progressMade(new StreamDeletionProgress(streamId, 150L, 150L, 150L));
+        inOrder.verify(streamChunkDeleter).deleteEventStream(streamId);
+    }
+
+    @Test
+    public void shouldClearStreamInChunksOfPositionsThenResetTheEventStream() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        when(streamChunkDeleter.findLastPosition(streamId)).thenReturn(of(150L));
+        when(streamChunkDeleter.findFirstPosition(streamId)).thenReturn(of(1L), of(101L), empty());
+        when(streamChunkDeleter.deleteChunk(streamId, 1L, 100L)).thenReturn(100);
+        when(streamChunkDeleter.deleteChunk(streamId, 101L, 200L)).thenReturn(50);
+
+        assertThat(chunkedStreamDeleter.clearStream(streamId), is(150L));
+
+        final InOrder inOrder = inOrder(streamChunkDeleter, streamHeadCache);
+        inOrder.verify(streamHeadCache).invalidate(streamId);
+        inOrder.verify(streamChunkDeleter).deleteChunk(streamId, 1L, 100L);
+        inOrder.verify(streamChunkDeleter).deleteChunk(streamId, 101L, 200L);
+        inOrder.verify(streamChunkDeleter).resetEventStream(streamId);
+        inOrder.verify(streamHeadCache).invalidate(streamId);
+
+        verify(streamChunkDeleter, never()).deleteEventStream(streamId);
+        verifyNoInteractions(streamDeletionProgressListener);
+    }
+}
@@ -0,0 +1,200 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.deletion;
+
+import static java.util.Collections.singletonList;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStreamJdbcRepository;
+import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
+import uk.gov.justice.services.test.utils.persistence.DatabaseCleaner;
+import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
+import uk.gov.justice.services.test.utils.persistence.SettableEventStoreDataSourceProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import javax.enterprise.inject.Instance;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class StreamChunkDeleterIT {
+
+    private static final String FRAMEWORK_CONTEXT_NAME = "framework";
+
+    private DataSource dataSource;
+
+    @SuppressWarnings("unused")
+    @Spy
+    private PreparedStatementWrapperFactory preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
+
+    @Spy
+    private SettableEventStoreDataSourceProvider eventStoreDataSourceProvider = new SettableEventStoreDataSourceProvider();
+
+    @Mock
+    private EventStreamJdbcRepository eventStreamJdbcRepository;
+
+    @Mock
+    private Instance<StreamDataRemover> streamDataRemovers;
+
+    @Mock
+    private StreamDataRemover streamDataRemover;
+
+    @InjectMocks
+    private StreamChunkDeleter streamChunkDeleter;
+
+    @BeforeEach
+    public void initialize() throws Exception {
+
+        dataSource = new FrameworkTestDataSourceFactory().createEventStoreDataSource();
+
+        eventStoreDataSourceProvider.setDataSource(dataSource);
+
+        new DatabaseCleaner().cleanEventStoreTables(FRAMEWORK_CONTEXT_NAME);
+    }
+
+    @AfterEach
+    public void after() throws SQLException {
+        dataSource.getConnection().close();
+    }
+
+    @Test
+    public void shouldFindFirstAndLastPositionsOfStream() throws Exception {
+
+        final UUID streamId = randomUUID();
+        insertEvent(streamId, 3L);
+        insertEvent(streamId, 4L);
+        insertEvent(streamId, 5L);
+
+        assertThat(streamChunkDeleter.findFirstPosition(streamId), is(of(3L)));
+        assertThat(streamChunkDeleter.findLastPosition(streamId), is(of(5L)));
+        assertThat(streamChunkDeleter.findFirstPosition(randomUUID()), is(empty()));
+        assertThat(streamChunkDeleter.findLastPosition(randomUUID()), is(empty()));
+    }
+
+    @Test
+    public void shouldDeleteEventsOfChunkWithTheirQueueAndPublishedEventRows() throws Exception {
+
+        final UUID streamId = randomUUID();
+        final UUID otherStreamId = randomUUID();
+
+        for (long position = 1; position <= 5; position++) {
+            final UUID eventId = insertEvent(streamId, position);
+            queueEvent(eventId, "pre_publish_queue");
+            queueEvent(eventId, "publish_queue");
+            insertPublishedEvent(eventId, streamId, position);
+        }
+        insertEvent(otherStreamId, 1L);
+
+        when(streamDataRemovers.iterator()).thenReturn(singletonList(streamDataRemover).iterator());
+
+        assertThat(streamChunkDeleter.deleteChunk(streamId, 1L, 3L), is(3));
+
+        assertThat(countRows("SELECT COUNT(*) FROM event_log WHERE stream_id='" + streamId + "'"), is(2));
+        assertThat(countRows("SELECT COUNT(*) FROM event_log WHERE stream_id='" + otherStreamId + "'"), is(1));
+        assertThat(countRows("SELECT COUNT(*) FROM pre_publish_queue"), is(2));
+        assertThat(countRows("SELECT COUNT(*) FROM publish_queue"), is(2));
+        assertThat(countRows("SELECT COUNT(*) FROM published_event"), is(2));
+        assertThat(streamChunkDeleter.findFirstPosition(streamId), is(of(4L)));
+
+        verify(streamDataRemover).removeChunk(streamId, 1L, 3L);
+    }
+
+    @Test
+    public void shouldDeleteRemainingRowsAndEventStream() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        when(streamDataRemovers.iterator()).thenReturn(singletonList(streamDataRemover).iterator());
+
+        streamChunkDeleter.deleteEventStream(streamId);
+
+        verify(streamDataRemover).removeChunk(streamId, 0L, Long.MAX_VALUE);
+        verify(eventStreamJdbcRepository).delete(streamId);
+    }
+
+    @Test
+    public void shouldDeleteRemainingRowsAndResetEventStream() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        when(streamDataRemovers.iterator()).thenReturn(singletonList(streamDataRemover).iterator());
+
+        streamChunkDeleter.resetEventStream(streamId);
+
+        verify(streamDataRemover).removeChunk(streamId, 0L, Long.MAX_VALUE);
+        verify(eventStreamJdbcRepository).resetLatestPosition(streamId);
+    }
+
+    private UUID insertEvent(final UUID streamId, final long position) throws SQLException {
+        final UUID eventId = randomUUID();
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(
+                     "INSERT INTO event_log (id, stream_id, position_in_stream, name, metadata, payload, date_created) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            preparedStatement.setObject(1, eventId);
+            preparedStatement.setObject(2, streamId);
+            preparedStatement.setLong(3, position);
+            preparedStatement.setString(4, "test.event");
+            preparedStatement.setString(5, "{}");
+            preparedStatement.setString(6, "{}");
+            preparedStatement.setTimestamp(7, toSqlTimestamp(new UtcClock().now()));
+            preparedStatement.executeUpdate();
+        }
+        return eventId;
+    }
+
+    private void queueEvent(final UUID eventId, final String tableName) throws SQLException {
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(
+                     "INSERT INTO " + tableName + " (event_log_id, date_queued) VALUES (?, ?)")) {
+            preparedStatement.setObject(1, eventId);
+            preparedStatement.setTimestamp(2, toSqlTimestamp(new UtcClock().now()));
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    private void insertPublishedEvent(final UUID eventId, final UUID streamId, final long position) throws SQLException {
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(
+                     "INSERT INTO published_event (id, stream_id, position_in_stream, name, payload, metadata, date_created, event_number, previous_event_number) " +
+                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            preparedStatement.setObject(1, eventId);
+            preparedStatement.setObject(2, streamId);
+            preparedStatement.setLong(3, position);
+            preparedStatement.setString(4, "test.event");
+            preparedStatement.setString(5, "{}");
+            preparedStatement.setString(6, "{}");
+            preparedStatement.setTimestamp(7, toSqlTimestamp(new UtcClock().now()));
+            preparedStatement.setLong(8, position);
+            preparedStatement.setLong(9, position - 1);
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    private int countRows(final String sql) throws SQLException {
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             final ResultSet resultSet = preparedStatement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
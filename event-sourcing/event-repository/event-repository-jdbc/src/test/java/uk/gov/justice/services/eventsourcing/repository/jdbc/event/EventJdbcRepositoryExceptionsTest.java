@@ -5,18 +5,21 @@ import static java.util.UUID.randomUUID;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import static uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository.SQL_FIND_ALL_ORDERED_BY_EVENT_NUMBER;
-import static uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository.SQL_FIND_BY_STREAM_ID;
-import static uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository.SQL_FIND_BY_STREAM_ID_AND_POSITION;
 import static uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository.SQL_FIND_BY_STREAM_ID_AND_POSITION_BY_PAGE;
 import static uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository.SQL_FIND_FROM_EVENT_NUMBER_WITH_PAGE;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository.SQL_FIND_IN_EVENT_NUMBER_RANGE_WITH_PAGE;
 import static uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository.SQL_MAX_EVENT_NUMBER_FROM_EVENT_LOG;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
 import uk.gov.justice.services.eventsourcing.repository.jdbc.EventInsertionStrategy;
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingQuery;
 import uk.gov.justice.services.jdbc.persistence.JdbcRepositoryException;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
 
@@ -25,6 +28,7 @@ import java.util.UUID;
 
 import javax.sql.DataSource;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -44,6 +48,9 @@ public class EventJdbcRepositoryExceptionsTest {
     @Mock
     private PreparedStatementWrapperFactory preparedStatementWrapperFactory;
 
+    @Mock
+    private CursorResultSetStreamer cursorResultSetStreamer;
+
     @Mock
     private EventStoreDataSourceProvider eventStoreDataSourceProvider;
 
@@ -53,6 +60,12 @@ public class EventJdbcRepositoryExceptionsTest {
     @InjectMocks
     private EventJdbcRepository eventJdbcRepository;
 
+    @BeforeEach
+    public void setFetchSizes() {
+        setField(eventJdbcRepository, "streamReadFetchSize", "500");
+        setField(eventJdbcRepository, "scanFetchSize", "1000");
+    }
+
     @Test
     public void shouldLogAndThrowExceptionIfSqlExceptionIsThrownInInsert() throws Exception {
 
@@ -108,10 +121,7 @@ public class EventJdbcRepositoryExceptionsTest {
         final DataSource dataSource = mock(DataSource.class);
 
         when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
-        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(
-                dataSource,
-                SQL_FIND_ALL_ORDERED_BY_EVENT_NUMBER))
-                .thenThrow(sqlException);
+        when(cursorResultSetStreamer.streamOf(eq(dataSource), any(StreamingQuery.class), any(), any())).thenThrow(sqlException);
 
         try {
             eventJdbcRepository.findAllOrderedByEventNumber();
@@ -132,7 +142,7 @@ public class EventJdbcRepositoryExceptionsTest {
         final DataSource dataSource = mock(DataSource.class);
 
         when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
-        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_BY_STREAM_ID)).thenThrow(sqlException);
+        when(cursorResultSetStreamer.streamOf(eq(dataSource), any(StreamingQuery.class), any(), any(), eq(streamId))).thenThrow(sqlException);
 
         try {
             eventJdbcRepository.findByStreamIdOrderByPositionAsc(streamId);
@@ -153,7 +163,7 @@ public class EventJdbcRepositoryExceptionsTest {
         final DataSource dataSource = mock(DataSource.class);
 
         when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
-        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_BY_STREAM_ID_AND_POSITION)).thenThrow(sqlException);
+        when(cursorResultSetStreamer.streamOf(eq(dataSource), any(StreamingQuery.class), any(), any(), eq(streamId), eq(position))).thenThrow(sqlException);
 
         try {
             eventJdbcRepository.findByStreamIdFromPositionOrderByPositionAsc(streamId, position);
@@ -207,6 +217,28 @@ public class EventJdbcRepositoryExceptionsTest {
         }
     }
 
+    @Test
+    public void shouldLogAndThrowExceptionIfSqlExceptionIsThrownInFindAllInEventNumberRangeUptoPageSize() throws Exception {
+
+        final long eventNumber = 2L;
+        final long lastEventNumber = 20L;
+        final int pageSize = 10;
+        final SQLException sqlException = new SQLException();
+
+        final DataSource dataSource = mock(DataSource.class);
+
+        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
+        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_IN_EVENT_NUMBER_RANGE_WITH_PAGE)).thenThrow(sqlException);
+
+        try {
+            eventJdbcRepository.findAllInEventNumberRangeUptoPageSize(eventNumber, lastEventNumber, pageSize);
+            fail();
+        } catch (final JdbcRepositoryException e) {
+            assertThat(e.getMessage(), is("Failed to read events from event_log from event number : '2' to event number : '20' with page size : '10'"));
+            verify(logger).error("Failed to read events from event_log from event number : '2' to event number : '20' with page size : '10'", sqlException);
+        }
+    }
+
     @Test
     public void shouldLogAndThrowExceptionIfSqlExceptionIsThrownInCountEventsFrom() throws Exception {
 
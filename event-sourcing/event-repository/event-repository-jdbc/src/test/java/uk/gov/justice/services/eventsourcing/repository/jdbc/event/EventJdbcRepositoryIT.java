@@ -1,19 +1,31 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc.event;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.UUID.randomUUID;
 import static java.util.stream.Collectors.toList;
+import static javax.json.Json.createArrayBuilder;
+import static javax.json.Json.createObjectBuilder;
+import static javax.json.Json.createReader;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 import static uk.gov.justice.services.test.utils.events.EventBuilder.eventBuilder;
 
+import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.AnsiSQLEventLogInsertionStrategy;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.EventInsertionStrategy;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidPositionException;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamedQueryMetrics;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
 import uk.gov.justice.services.jdbc.persistence.JdbcRepositoryException;
 import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
@@ -22,12 +34,16 @@ import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFac
 import uk.gov.justice.services.test.utils.persistence.SequenceSetter;
 import uk.gov.justice.services.test.utils.persistence.SettableEventStoreDataSourceProvider;
 
+import java.io.StringReader;
 import java.sql.SQLException;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
 
+import javax.json.JsonObject;
 import javax.sql.DataSource;
 
 import org.junit.jupiter.api.AfterEach;
@@ -60,6 +76,11 @@ public class EventJdbcRepositoryIT {
     @Spy
     private PreparedStatementWrapperFactory preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
 
+    @Spy
+    private CursorResultSetStreamer cursorResultSetStreamer = new CursorResultSetStreamer();
+
+    private final StreamingMetrics streamingMetrics = new StreamingMetrics();
+
     @Spy
     private SettableEventStoreDataSourceProvider eventStoreDDataSourceProvider = new SettableEventStoreDataSourceProvider();
 
@@ -79,6 +100,12 @@ public class EventJdbcRepositoryIT {
 
         eventStoreDDataSourceProvider.setDataSource(dataSource);
 
+        setField(cursorResultSetStreamer, "streamingMetrics", streamingMetrics);
+        setField(cursorResultSetStreamer, "closer", new Closer());
+        setField(jdbcRepository, "streamReadFetchSize", "2");
+        setField(jdbcRepository, "scanFetchSize", "2");
+        setField(jdbcRepository, "streamIdsFetchSize", "2");
+
         new DatabaseCleaner().cleanEventStoreTables(FRAMEWORK_CONTEXT_NAME);
     }
 
@@ -103,6 +130,41 @@ public class EventJdbcRepositoryIT {
         assertThat(latestSequenceId, equalTo(7L));
     }
 
+    @Test
+    public void shouldGetTheSizesOfSeveralStreamsWithOneQuery() throws InvalidPositionException {
+
+        final UUID streamId_1 = randomUUID();
+        final UUID streamId_2 = randomUUID();
+        final UUID unknownStreamId = randomUUID();
+
+        jdbcRepository.insert(eventBuilder().withStreamId(streamId_1).withPositionInStream(1L).build());
+        jdbcRepository.insert(eventBuilder().withStreamId(streamId_1).withPositionInStream(2L).build());
+        jdbcRepository.insert(eventBuilder().withStreamId(streamId_2).withPositionInStream(1L).build());
+
+        final Map<UUID, Long> streamSizes = jdbcRepository.getStreamSizes(asList(streamId_1, streamId_2, unknownStreamId));
+
+        assertThat(streamSizes.size(), is(3));
+        assertThat(streamSizes.get(streamId_1), is(2L));
+        assertThat(streamSizes.get(streamId_2), is(1L));
+        assertThat(streamSizes.get(unknownStreamId), is(0L));
+    }
+
+    @Test
+    public void shouldStoreEventsUsingMultiRowInsert() throws InvalidPositionException {
+
+        jdbcRepository.insertBatch(asList(
+                eventBuilder().withStreamId(STREAM_ID).withPositionInStream(SEQUENCE_ID).build(),
+                eventBuilder().withStreamId(STREAM_ID).withPositionInStream(SEQUENCE_ID + 1).build(),
+                eventBuilder().withStreamId(STREAM_ID).withPositionInStream(SEQUENCE_ID + 2).build()));
+
+        try (final Stream<Event> events = jdbcRepository.findByStreamIdOrderByPositionAsc(STREAM_ID)) {
+            final List<Event> eventList = events.collect(toList());
+            assertThat(eventList, hasSize(3));
+            assertThat(eventList.get(0).getPositionInStream(), is(SEQUENCE_ID));
+            assertThat(eventList.get(2).getPositionInStream(), is(SEQUENCE_ID + 2));
+        }
+    }
+
     @Test
     public void shouldFindById() throws Exception {
 
@@ -121,6 +183,26 @@ public class EventJdbcRepositoryIT {
         }
     }
 
+    @Test
+    public void shouldFindSeveralEventsByIdOrderedByEventNumber() throws Exception {
+
+        final UUID id_1 = randomUUID();
+        final UUID id_2 = randomUUID();
+        final UUID id_3 = randomUUID();
+
+        jdbcRepository.insert(eventBuilder().withId(id_1).withStreamId(STREAM_ID).withPositionInStream(1L).build());
+        jdbcRepository.insert(eventBuilder().withId(id_2).withStreamId(STREAM_ID).withPositionInStream(2L).build());
+        jdbcRepository.insert(eventBuilder().withId(id_3).withStreamId(STREAM_ID).withPositionInStream(3L).build());
+
+        final List<Event> events = jdbcRepository.findByIdsOrderByEventNumber(asList(id_3, randomUUID(), id_1));
+
+        assertThat(events, hasSize(2));
+        assertThat(events.get(0).getId(), is(id_1));
+        assertThat(events.get(1).getId(), is(id_3));
+        assertThat(events.get(0).getEventNumber().get() < events.get(1).getEventNumber().get(), is(true));
+        assertThat(jdbcRepository.findByIdsOrderByEventNumber(emptyList()), hasSize(0));
+    }
+
     @Test
     public void shouldReturnEventsByStreamIdOrderedBySequenceId() throws InvalidPositionException {
 
@@ -163,6 +245,24 @@ public class EventJdbcRepositoryIT {
         }
     }
 
+    @Test
+    public void shouldStreamAllEventsThroughACursorAndReleaseItAfterTheLastRow() throws Exception {
+
+        for (int i = 1; i <= 5; i++) {
+            jdbcRepository.insert(eventBuilder().withName("event " + i).build());
+        }
+
+        final List<Event> events = jdbcRepository.findAllOrderedByEventNumber().collect(toList());
+
+        assertThat(events, hasSize(5));
+
+        final StreamedQueryMetrics streamedQueryMetrics = streamingMetrics.forQuery("event_log.scan");
+        assertThat(streamedQueryMetrics.getQueryCount(), is(1L));
+        assertThat(streamedQueryMetrics.getRowCount(), is(5L));
+        assertThat(streamedQueryMetrics.getOpenCursorCount(), is(0L));
+        assertThat(streamedQueryMetrics.getByteCount() > 0, is(true));
+    }
+
     @Test
     public void shouldStoreAndReturnDateCreated() throws InvalidPositionException {
 
@@ -191,6 +291,19 @@ public class EventJdbcRepositoryIT {
         assertThat(eventList.get(1).getPositionInStream(), is(7L));
     }
 
+    @Test
+    public void shouldCheckWhetherAStreamHasEventsFromAPosition() throws InvalidPositionException {
+
+        jdbcRepository.insert(eventBuilder().withStreamId(randomUUID()).withPositionInStream(5L).build());
+        jdbcRepository.insert(eventBuilder().withStreamId(STREAM_ID).withPositionInStream(3L).build());
+        jdbcRepository.insert(eventBuilder().withStreamId(STREAM_ID).withPositionInStream(4L).build());
+
+        assertThat(jdbcRepository.hasEventsFromPosition(STREAM_ID, 1L), is(true));
+        assertThat(jdbcRepository.hasEventsFromPosition(STREAM_ID, 4L), is(true));
+        assertThat(jdbcRepository.hasEventsFromPosition(STREAM_ID, 5L), is(false));
+        assertThat(jdbcRepository.hasEventsFromPosition(randomUUID(), 1L), is(false));
+    }
+
     @Test
     public void shouldReturnEventsByStreamIdFromPositionOrderByPositionByPage() throws InvalidPositionException {
 
@@ -270,6 +383,29 @@ public class EventJdbcRepositoryIT {
         assertThat(page_3, hasSize(0));
     }
 
+    @Test
+    public void shouldReturnEventsInEventNumberRangeByPage() throws Exception {
+
+        final int pageSize = 2;
+
+        jdbcRepository.insert(eventBuilder().withStreamId(STREAM_ID).withPositionInStream(3L).build());
+        jdbcRepository.insert(eventBuilder().withStreamId(STREAM_ID).withPositionInStream(4L).build());
+        jdbcRepository.insert(eventBuilder().withStreamId(STREAM_ID).withPositionInStream(7L).build());
+        jdbcRepository.insert(eventBuilder().withStreamId(STREAM_ID).withPositionInStream(8L).build());
+
+        final List<Event> allEvents = jdbcRepository.findAllFromEventNumberUptoPageSize(0L, 4).collect(toList());
+        final long firstEventNumber = allEvents.get(0).getEventNumber().get();
+        final long thirdEventNumber = allEvents.get(2).getEventNumber().get();
+
+        final List<Event> page_1 = jdbcRepository.findAllInEventNumberRangeUptoPageSize(firstEventNumber, thirdEventNumber, pageSize).collect(toList());
+        assertThat(page_1, hasSize(2));
+        assertThat(page_1.get(0).getPositionInStream(), is(4L));
+        assertThat(page_1.get(1).getPositionInStream(), is(7L));
+
+        final List<Event> page_2 = jdbcRepository.findAllInEventNumberRangeUptoPageSize(thirdEventNumber, thirdEventNumber, pageSize).collect(toList());
+        assertThat(page_2, hasSize(0));
+    }
+
     @Test
     public void shouldReturnMaximumEventNumber() throws Exception {
 
@@ -329,4 +465,62 @@ public class EventJdbcRepositoryIT {
         final Long deletedStreamLatestSequenceId = jdbcRepository.getStreamSize(STREAM_ID);
         assertThat(deletedStreamLatestSequenceId, equalTo(0L));
     }
+
+    @Test
+    public void shouldCloneStreamRenumberingTheEventsAndRewritingTheirMetadata() throws InvalidPositionException {
+
+        final UUID eventId_1 = randomUUID();
+        final UUID eventId_2 = randomUUID();
+        final UUID causationId = randomUUID();
+        final UUID clonedStreamId = randomUUID();
+        final ZonedDateTime createdAt = new UtcClock().now();
+
+        jdbcRepository.insertBatch(asList(
+                new Event(eventId_1, STREAM_ID, 3L, "test.event-1", metadataOf(eventId_1, "test.event-1", causationId, 3L), "{\"field\":\"value-1\"}", createdAt),
+                new Event(eventId_2, STREAM_ID, 4L, "test.event-2", metadataOf(eventId_2, "test.event-2", causationId, 4L), "{\"field\":\"value-2\"}", createdAt)));
+
+        assertThat(jdbcRepository.cloneStream(STREAM_ID, clonedStreamId, "cloning-source"), is(2L));
+
+        final List<Event> originalEvents = jdbcRepository.findByStreamIdOrderByPositionAsc(STREAM_ID).collect(toList());
+        final List<Event> clonedEvents = jdbcRepository.findByStreamIdOrderByPositionAsc(clonedStreamId).collect(toList());
+
+        assertThat(originalEvents, hasSize(2));
+        assertThat(clonedEvents, hasSize(2));
+
+        final Event clonedEvent = clonedEvents.get(0);
+        assertThat(clonedEvent.getId(), is(not(eventId_1)));
+        assertThat(clonedEvent.getPositionInStream(), is(1L));
+        assertThat(clonedEvent.getName(), is("test.event-1"));
+        assertThat(clonedEvent.getPayload(), is(originalEvents.get(0).getPayload()));
+        assertThat(clonedEvent.getCreatedAt(), is(originalEvents.get(0).getCreatedAt()));
+        assertThat(clonedEvents.get(1).getPositionInStream(), is(2L));
+        assertThat(clonedEvents.get(1).getId(), is(not(clonedEvent.getId())));
+
+        final JsonObject metadata = createReader(new StringReader(clonedEvent.getMetadata())).readObject();
+        assertThat(metadata.getString("id"), is(clonedEvent.getId().toString()));
+        assertThat(metadata.getString("name"), is("test.event-1"));
+        assertThat(metadata.getString("source"), is("cloning-source"));
+        assertThat(metadata.getJsonObject("stream").getString("id"), is(clonedStreamId.toString()));
+        assertThat(metadata.getJsonObject("stream").getJsonNumber("version").longValue(), is(1L));
+        assertThat(metadata.getJsonArray("causation").getString(0), is(causationId.toString()));
+        assertThat(metadata.getJsonArray("causation").getString(1), is(eventId_1.toString()));
+        assertThat(metadata.getJsonObject("context").getString("user"), is("user-id"));
+    }
+
+    @Test
+    public void shouldCloneNothingFromAnEmptyStream() {
+        assertThat(jdbcRepository.cloneStream(randomUUID(), randomUUID(), "cloning-source"), is(0L));
+    }
+
+    private String metadataOf(final UUID id, final String name, final UUID causationId, final long position) {
+        return createObjectBuilder()
+                .add("id", id.toString())
+                .add("name", name)
+                .add("causation", createArrayBuilder().add(causationId.toString()))
+                .add("context", createObjectBuilder().add("user", "user-id"))
+                .add("stream", createObjectBuilder().add("id", STREAM_ID.toString()).add("version", position))
+                .add("source", "original-source")
+                .build()
+                .toString();
+    }
 }
@@ -4,8 +4,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
 import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.getValueOfField;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
-import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
 
 import javax.sql.DataSource;
@@ -20,7 +21,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 public class MultipleDataSourcePublishedEventRepositoryFactoryTest {
 
     @Mock
-    private JdbcResultSetStreamer jdbcResultSetStreamer;
+    private CursorResultSetStreamer cursorResultSetStreamer;
 
     @Mock
     private PreparedStatementWrapperFactory preparedStatementWrapperFactory;
@@ -32,11 +33,13 @@ public class MultipleDataSourcePublishedEventRepositoryFactoryTest {
     public void shouldCreateAPublishedEventFinder() throws Exception {
 
         final DataSource dataSource = mock(DataSource.class);
+        setField(multipleDataSourcePublishedEventRepositoryFactory, "scanFetchSize", "250");
 
         final MultipleDataSourcePublishedEventRepository multipleDataSourcePublishedEventRepository = multipleDataSourcePublishedEventRepositoryFactory.create(dataSource);
 
-        assertThat(getValueOfField(multipleDataSourcePublishedEventRepository, "jdbcResultSetStreamer", JdbcResultSetStreamer.class), is(jdbcResultSetStreamer));
+        assertThat(getValueOfField(multipleDataSourcePublishedEventRepository, "cursorResultSetStreamer", CursorResultSetStreamer.class), is(cursorResultSetStreamer));
         assertThat(getValueOfField(multipleDataSourcePublishedEventRepository, "preparedStatementWrapperFactory", PreparedStatementWrapperFactory.class), is(preparedStatementWrapperFactory));
         assertThat(getValueOfField(multipleDataSourcePublishedEventRepository, "dataSource", DataSource.class), is(dataSource));
+        assertThat(getValueOfField(multipleDataSourcePublishedEventRepository, "scanFetchSize", Integer.class), is(250));
     }
 }
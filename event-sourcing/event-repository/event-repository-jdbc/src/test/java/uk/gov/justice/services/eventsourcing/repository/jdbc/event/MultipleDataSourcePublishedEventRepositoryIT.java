@@ -8,9 +8,12 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 import static uk.gov.justice.services.test.utils.events.PublishedEventBuilder.publishedEventBuilder;
 
-import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
 import uk.gov.justice.services.test.utils.persistence.DatabaseCleaner;
 import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
@@ -39,12 +42,16 @@ public class MultipleDataSourcePublishedEventRepositoryIT {
         dataSource = new FrameworkTestDataSourceFactory().createEventStoreDataSource();
         new DatabaseCleaner().cleanEventStoreTables("framework");
 
-        final JdbcResultSetStreamer jdbcResultSetStreamer = new JdbcResultSetStreamer();
+        final CursorResultSetStreamer cursorResultSetStreamer = new CursorResultSetStreamer();
+        setField(cursorResultSetStreamer, "streamingMetrics", new StreamingMetrics());
+        setField(cursorResultSetStreamer, "closer", new Closer());
+
         final PreparedStatementWrapperFactory preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
         multipleDataSourcePublishedEventRepository = new MultipleDataSourcePublishedEventRepository(
-                jdbcResultSetStreamer,
+                cursorResultSetStreamer,
                 preparedStatementWrapperFactory,
-                dataSource);
+                dataSource,
+                2);
     }
 
     @AfterEach
@@ -163,6 +170,25 @@ public class MultipleDataSourcePublishedEventRepositoryIT {
         assertThat(multipleDataSourcePublishedEventRepository.getLatestPublishedEvent(), is(empty()));
     }
 
+    @Test
+    public void shouldGetTheHighestEventNumber() throws Exception {
+
+        final PublishedEvent event_1 = publishedEventBuilder().withPreviousEventNumber(0).withEventNumber(1).build();
+        final PublishedEvent event_2 = publishedEventBuilder().withPreviousEventNumber(1).withEventNumber(2).build();
+
+        final Connection connection = dataSource.getConnection();
+
+        insertPublishedEvent(event_1, connection);
+        insertPublishedEvent(event_2, connection);
+
+        assertThat(multipleDataSourcePublishedEventRepository.getHighestEventNumber(), is(2L));
+    }
+
+    @Test
+    public void shouldReturnZeroAsTheHighestEventNumberIfNoPublishedEventsExist() throws Exception {
+        assertThat(multipleDataSourcePublishedEventRepository.getHighestEventNumber(), is(0L));
+    }
+
     private void insertPublishedEvent(final PublishedEvent publishedEvent, final Connection connection) throws SQLException {
 
         final String sql = "INSERT into published_event (" +
@@ -1,23 +1,31 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream;
 
 
+import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidPositionException;
-import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
 import uk.gov.justice.services.test.utils.persistence.DatabaseCleaner;
 import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
 import uk.gov.justice.services.test.utils.persistence.SettableEventStoreDataSourceProvider;
 
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -40,11 +48,12 @@ public class EventStreamJdbcRepositoryIT {
 
     @SuppressWarnings("unused")
     @Spy
-    private JdbcResultSetStreamer jdbcResultSetStreamer = new JdbcResultSetStreamer();
+    private PreparedStatementWrapperFactory preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
 
-    @SuppressWarnings("unused")
     @Spy
-    private PreparedStatementWrapperFactory preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
+    private CursorResultSetStreamer cursorResultSetStreamer = new CursorResultSetStreamer();
+
+    private final StreamingMetrics streamingMetrics = new StreamingMetrics();
 
     @SuppressWarnings("unused")
     @Spy
@@ -64,6 +73,10 @@ public class EventStreamJdbcRepositoryIT {
 
         eventStoreDefaultDataSourceProvider.setDataSource(dataSource);
 
+        setField(cursorResultSetStreamer, "streamingMetrics", streamingMetrics);
+        setField(cursorResultSetStreamer, "closer", new Closer());
+        setField(jdbcRepository, "scanFetchSize", "2");
+
         new DatabaseCleaner().cleanEventStoreTables(FRAMEWORK_CONTEXT_NAME);
     }
 
@@ -85,8 +98,8 @@ public class EventStreamJdbcRepositoryIT {
     @Test
     public void shouldNotThrowExceptionOnDuplicateStreamId() throws InvalidPositionException {
         final UUID streamID = randomUUID();
-        jdbcRepository.insert(streamID);
-        jdbcRepository.insert(streamID);
+        assertTrue(jdbcRepository.insert(streamID));
+        assertFalse(jdbcRepository.insert(streamID));
     }
 
     @Test
@@ -116,6 +129,37 @@ public class EventStreamJdbcRepositoryIT {
         assertThat((int) jdbcRepository.findActive().count(), is(1));
     }
 
+    @Test
+    public void shouldFindStreamIdsWithoutTheRestOfTheirRows() {
+        final UUID streamId_1 = randomUUID();
+        final UUID streamId_2 = randomUUID();
+        final UUID streamId_3 = randomUUID();
+        jdbcRepository.insert(streamId_1);
+        jdbcRepository.insert(streamId_2, false);
+        jdbcRepository.insert(streamId_3);
+
+        assertThat(jdbcRepository.findAllStreamIds().collect(toList()), is(asList(streamId_1, streamId_2, streamId_3)));
+        assertThat(jdbcRepository.findActiveStreamIds().collect(toList()), is(asList(streamId_1, streamId_3)));
+        assertThat(streamingMetrics.forQuery("event_stream.stream_ids").getOpenCursorCount(), is(0L));
+    }
+
+    @Test
+    public void shouldCheckWhetherAStreamExistsAtAPositionAndCountStreamsFromAPosition() {
+        jdbcRepository.insert(randomUUID());
+        jdbcRepository.insert(randomUUID());
+        jdbcRepository.insert(randomUUID());
+
+        final long firstPosition = jdbcRepository.findAll().findFirst().get().getPosition();
+
+        assertTrue(jdbcRepository.existsAtPosition(firstPosition));
+        assertTrue(jdbcRepository.existsAtPosition(firstPosition + 2));
+        assertFalse(jdbcRepository.existsAtPosition(firstPosition + 3));
+
+        assertThat(jdbcRepository.countFromPosition(firstPosition), is(3L));
+        assertThat(jdbcRepository.countFromPosition(firstPosition + 1), is(2L));
+        assertThat(jdbcRepository.countFromPosition(firstPosition + 3), is(0L));
+    }
+
     @Test
     public void shouldDeleteStream() {
         final UUID streamId = randomUUID();
@@ -140,4 +184,102 @@ public class EventStreamJdbcRepositoryIT {
         assertTrue(eventStream.isPresent());
         assertFalse(eventStream.get().isActive());
     }
+
+    @Test
+    public void shouldInsertSeveralNewStreamsWithOneStatementLeavingOutStreamsThatExist() {
+        final UUID existingStreamId = randomUUID();
+        final UUID newStreamId_1 = randomUUID();
+        final UUID newStreamId_2 = randomUUID();
+        jdbcRepository.insert(existingStreamId);
+        jdbcRepository.advanceLatestPosition(existingStreamId, 0L, 3L);
+
+        final Set<UUID> createdStreamIds = jdbcRepository.insertAll(asList(newStreamId_1, existingStreamId, newStreamId_2));
+
+        assertThat(createdStreamIds, is(Set.of(newStreamId_1, newStreamId_2)));
+        assertThat(jdbcRepository.findLatestPosition(existingStreamId), is(Optional.of(3L)));
+        assertThat(jdbcRepository.findLatestPosition(newStreamId_1), is(Optional.of(0L)));
+        assertThat(jdbcRepository.findLatestPosition(newStreamId_2), is(Optional.of(0L)));
+        assertTrue(jdbcRepository.findAll().allMatch(EventStream::isActive));
+    }
+
+    @Test
+    public void shouldAdvanceLatestPositionOnlyIfStreamIsAtExpectedPosition() {
+        final UUID streamId = randomUUID();
+        jdbcRepository.insert(streamId);
+
+        assertThat(jdbcRepository.findLatestPosition(streamId), is(Optional.of(0L)));
+
+        assertTrue(jdbcRepository.advanceLatestPosition(streamId, 0L, 3L));
+        assertFalse(jdbcRepository.advanceLatestPosition(streamId, 0L, 1L));
+        assertTrue(jdbcRepository.advanceLatestPosition(streamId, 3L, 4L));
+
+        assertThat(jdbcRepository.findLatestPosition(streamId), is(Optional.of(4L)));
+    }
+
+    @Test
+    public void shouldNotAdvanceLatestPositionOfUnknownStream() {
+        final UUID streamId = randomUUID();
+
+        assertFalse(jdbcRepository.advanceLatestPosition(streamId, 0L, 1L));
+        assertThat(jdbcRepository.findLatestPosition(streamId), is(Optional.empty()));
+    }
+
+    @Test
+    public void shouldResetLatestPosition() {
+        final UUID streamId = randomUUID();
+        jdbcRepository.insert(streamId);
+        jdbcRepository.advanceLatestPosition(streamId, 0L, 12L);
+
+        jdbcRepository.resetLatestPosition(streamId);
+
+        assertThat(jdbcRepository.findLatestPosition(streamId), is(Optional.of(0L)));
+    }
+
+    @Test
+    public void shouldReservePositionsOfExistingStream() {
+        final UUID streamId = randomUUID();
+        jdbcRepository.insert(streamId);
+        jdbcRepository.advanceLatestPosition(streamId, 0L, 4L);
+
+        assertThat(jdbcRepository.reservePositions(streamId, 3), is(7L));
+        assertThat(jdbcRepository.reservePositions(streamId, 1), is(8L));
+        assertThat(jdbcRepository.findLatestPosition(streamId), is(Optional.of(8L)));
+    }
+
+    @Test
+    public void shouldCreateActiveStreamWhenReservingPositionsOfNewStream() {
+        final UUID streamId = randomUUID();
+
+        assertThat(jdbcRepository.reservePositions(streamId, 2), is(2L));
+
+        final Optional<EventStream> eventStream = jdbcRepository.findAll().findFirst();
+        assertTrue(eventStream.isPresent());
+        assertThat(eventStream.get().getStreamId(), is(streamId));
+        assertTrue(eventStream.get().isActive());
+        assertThat(jdbcRepository.findLatestPosition(streamId), is(Optional.of(2L)));
+    }
+
+    @Test
+    public void shouldLockAndUpdateLatestPositionsOfSeveralStreams() {
+        final UUID streamId_1 = randomUUID();
+        final UUID streamId_2 = randomUUID();
+        final UUID unknownStreamId = randomUUID();
+        jdbcRepository.insert(streamId_1);
+        jdbcRepository.insert(streamId_2);
+        jdbcRepository.advanceLatestPosition(streamId_2, 0L, 5L);
+
+        final Map<UUID, Long> latestPositions = jdbcRepository.lockLatestPositions(asList(streamId_1, streamId_2, unknownStreamId));
+
+        assertThat(latestPositions.size(), is(2));
+        assertThat(latestPositions.get(streamId_1), is(0L));
+        assertThat(latestPositions.get(streamId_2), is(5L));
+
+        final Map<UUID, Long> newLatestPositions = new HashMap<>();
+        newLatestPositions.put(streamId_1, 2L);
+        newLatestPositions.put(streamId_2, 7L);
+        jdbcRepository.updateLatestPositions(newLatestPositions);
+
+        assertThat(jdbcRepository.findLatestPosition(streamId_1), is(Optional.of(2L)));
+        assertThat(jdbcRepository.findLatestPosition(streamId_2), is(Optional.of(7L)));
+    }
 }
@@ -1,17 +1,15 @@
 package uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream;
 
 import static java.util.UUID.randomUUID;
-import static org.junit.jupiter.api.Assertions.fail;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import uk.gov.justice.services.common.converter.ZonedDateTimes;
 import uk.gov.justice.services.common.util.UtcClock;
-import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.OptimisticLockingRetryException;
 import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourceProvider;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapper;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
@@ -24,7 +22,6 @@ import javax.sql.DataSource;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -32,7 +29,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 public class EventStreamJdbcRepositoryTest {
 
-    private static final String SQL_FIND_EVENT_STREAM = "SELECT * FROM event_stream s WHERE s.stream_id=?";
     private static final String SQL_INSERT_EVENT_STREAM = "INSERT INTO event_stream (stream_id, date_created, active) values (?, ?, ?) ON CONFLICT DO NOTHING";
 
     @Mock
@@ -41,8 +37,8 @@ public class EventStreamJdbcRepositoryTest {
     @Mock
     private UtcClock clock;
 
-    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
-    private PreparedStatementWrapper queryPreparedStatementWrapper, insertPreparedStatementWrapper;
+    @Mock
+    private PreparedStatementWrapper insertPreparedStatementWrapper;
 
     @Mock
     private EventStoreDataSourceProvider eventStoreDataSourceProvider;
@@ -51,80 +47,43 @@ public class EventStreamJdbcRepositoryTest {
     private EventStreamJdbcRepository eventStreamJdbcRepository;
 
     @Test
-    public void insertActiveStreamSuccessfully() throws SQLException {
+    public void insertActiveStreamSuccessfullyWithASingleStatement() throws SQLException {
 
         final DataSource dataSource = mock(DataSource.class);
 
         when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
-        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_EVENT_STREAM)).thenReturn(queryPreparedStatementWrapper);
-        when(queryPreparedStatementWrapper.executeQuery().next()).thenReturn(false);
-
         when(preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_INSERT_EVENT_STREAM)).thenReturn(insertPreparedStatementWrapper);
         final ZonedDateTime streamCreationTimestamp = ZonedDateTime.now();
         when(clock.now()).thenReturn(streamCreationTimestamp);
         when(insertPreparedStatementWrapper.executeUpdate()).thenReturn(1);
 
         final UUID streamId = randomUUID();
-        eventStreamJdbcRepository.insert(streamId);
+        assertThat(eventStreamJdbcRepository.insert(streamId), is(true));
 
-        verify(preparedStatementWrapperFactory).preparedStatementWrapperOf(dataSource, SQL_FIND_EVENT_STREAM);
-        verify(queryPreparedStatementWrapper).setObject(1, streamId);
         verify(preparedStatementWrapperFactory).preparedStatementWrapperOf(dataSource, SQL_INSERT_EVENT_STREAM);
         verify(insertPreparedStatementWrapper).setObject(1, streamId);
         verify(insertPreparedStatementWrapper).setTimestamp(2, ZonedDateTimes.toSqlTimestamp(streamCreationTimestamp));
         verify(insertPreparedStatementWrapper).setBoolean(3, true);
         verify(insertPreparedStatementWrapper).executeUpdate();
+        verifyNoMoreInteractions(preparedStatementWrapperFactory);
     }
 
     @Test
-    public void insertExistingStreamAndRecordOptimisticLockingException() throws SQLException {
+    public void insertExistingStreamAndReturnWithoutException() throws SQLException {
 
         final DataSource dataSource = mock(DataSource.class);
 
         when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
-        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_EVENT_STREAM)).thenReturn(queryPreparedStatementWrapper);
-        // indicates stream doesn't exist
-        when(queryPreparedStatementWrapper.executeQuery().next()).thenReturn(false);
-
         when(preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_INSERT_EVENT_STREAM)).thenReturn(insertPreparedStatementWrapper);
-        final ZonedDateTime streamCreationTimestamp = ZonedDateTime.now();
-        when(clock.now()).thenReturn(streamCreationTimestamp);
-        // not able to insert stream as another transaction inserted a stream with the same identifier after the check above
+        when(clock.now()).thenReturn(ZonedDateTime.now());
+        // the stream already exists, or another transaction inserted a stream with the same identifier
         when(insertPreparedStatementWrapper.executeUpdate()).thenReturn(0);
 
         final UUID streamId = randomUUID();
-        try {
-            eventStreamJdbcRepository.insert(streamId);
-            fail("Exception should be thrown when 0 records are updated");
-        } catch (OptimisticLockingRetryException e) {
-            verify(preparedStatementWrapperFactory).preparedStatementWrapperOf(dataSource, SQL_FIND_EVENT_STREAM);
-            verify(queryPreparedStatementWrapper).setObject(1, streamId);
-            verify(preparedStatementWrapperFactory).preparedStatementWrapperOf(dataSource, SQL_INSERT_EVENT_STREAM);
-            verify(insertPreparedStatementWrapper).setObject(1, streamId);
-            verify(insertPreparedStatementWrapper).setTimestamp(2, ZonedDateTimes.toSqlTimestamp(streamCreationTimestamp));
-            verify(insertPreparedStatementWrapper).setBoolean(3, true);
-            verify(insertPreparedStatementWrapper).executeUpdate();
-        }
-    }
-
-    @Test
-    public void insertExistingStreamAndReturnWithoutException() throws SQLException {
-
-        final DataSource dataSource = mock(DataSource.class);
+        assertThat(eventStreamJdbcRepository.insert(streamId, false), is(false));
 
-        when(eventStoreDataSourceProvider.getDefaultDataSource()).thenReturn(dataSource);
-        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(dataSource, SQL_FIND_EVENT_STREAM)).thenReturn(queryPreparedStatementWrapper);
-        // indicates stream already exists
-        when(queryPreparedStatementWrapper.executeQuery().next()).thenReturn(true);
-
-        final UUID streamId = randomUUID();
-        eventStreamJdbcRepository.insert(streamId);
-        verify(preparedStatementWrapperFactory).preparedStatementWrapperOf(dataSource, SQL_FIND_EVENT_STREAM);
-        verify(queryPreparedStatementWrapper).setObject(1, streamId);
-        verify(preparedStatementWrapperFactory, never()).preparedStatementWrapperOf(dataSource, SQL_INSERT_EVENT_STREAM);
-        verify(insertPreparedStatementWrapper, never()).setObject(1, streamId);
-        verify(insertPreparedStatementWrapper, never()).setTimestamp(eq(2), any());
-        verify(insertPreparedStatementWrapper, never()).setBoolean(3, true);
-        verify(insertPreparedStatementWrapper, never()).executeUpdate();
+        verify(insertPreparedStatementWrapper).setObject(1, streamId);
+        verify(insertPreparedStatementWrapper).setBoolean(3, false);
+        verifyNoMoreInteractions(preparedStatementWrapperFactory);
     }
 }
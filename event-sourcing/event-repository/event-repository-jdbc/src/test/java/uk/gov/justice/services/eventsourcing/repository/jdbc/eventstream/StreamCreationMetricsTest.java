@@ -0,0 +1,49 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import org.junit.jupiter.api.Test;
+
+public class StreamCreationMetricsTest {
+
+    private final StreamCreationMetrics streamCreationMetrics = new StreamCreationMetrics();
+
+    @Test
+    public void shouldCountStreamCreationsAndCacheHitRate() {
+
+        streamCreationMetrics.cacheHit();
+        streamCreationMetrics.cacheHit();
+        streamCreationMetrics.cacheHit();
+        streamCreationMetrics.streamCreated();
+        streamCreationMetrics.streamAlreadyExisted();
+
+        assertThat(streamCreationMetrics.getCacheHitCount(), is(3L));
+        assertThat(streamCreationMetrics.getStreamsCreatedCount(), is(1L));
+        assertThat(streamCreationMetrics.getStreamsAlreadyExistingCount(), is(1L));
+        assertThat(streamCreationMetrics.getCacheHitRate(), is(0.6));
+    }
+
+    @Test
+    public void shouldHaveHitRateOfZeroIfNoStreamsHaveBeenCreated() {
+        assertThat(streamCreationMetrics.getCacheHitRate(), is(0.0));
+    }
+
+    @Test
+    public void shouldRegisterWithThePipelineMetrics() {
+
+        final PipelineMetrics pipelineMetrics = mock(PipelineMetrics.class);
+        setField(streamCreationMetrics, "pipelineMetrics", pipelineMetrics);
+
+        streamCreationMetrics.register();
+
+        verify(pipelineMetrics).register(streamCreationMetrics);
+        assertThat(streamCreationMetrics.getMetricsType(), is("EventStoreMetrics"));
+        assertThat(streamCreationMetrics.getMetricsName(), is("stream-creation"));
+    }
+}
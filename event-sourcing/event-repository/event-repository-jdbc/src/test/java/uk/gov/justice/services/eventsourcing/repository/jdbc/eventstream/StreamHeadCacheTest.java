@@ -0,0 +1,135 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static javax.transaction.Status.STATUS_ACTIVE;
+import static javax.transaction.Status.STATUS_COMMITTED;
+import static javax.transaction.Status.STATUS_NO_TRANSACTION;
+import static javax.transaction.Status.STATUS_ROLLEDBACK;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import java.util.UUID;
+
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class StreamHeadCacheTest {
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @InjectMocks
+    private StreamHeadCache streamHeadCache;
+
+    @Test
+    public void shouldCacheLatestPositionOnlyOnceTheTransactionCommits() throws Exception {
+
+        final UUID streamId = randomUUID();
+        initialiseWithMaxSize("10");
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_ACTIVE);
+
+        streamHeadCache.updateLatestPositionOnCommit(streamId, 23L);
+
+        final ArgumentCaptor<Synchronization> synchronizationCaptor = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionSynchronizationRegistry).registerInterposedSynchronization(synchronizationCaptor.capture());
+
+        assertThat(streamHeadCache.getLatestPosition(streamId), is(empty()));
+
+        synchronizationCaptor.getValue().afterCompletion(STATUS_COMMITTED);
+
+        assertThat(streamHeadCache.getLatestPosition(streamId), is(of(23L)));
+    }
+
+    @Test
+    public void shouldKeepHighestPositionIfTheSameStreamIsUpdatedTwiceInOneTransaction() throws Exception {
+
+        final UUID streamId = randomUUID();
+        initialiseWithMaxSize("10");
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_ACTIVE);
+
+        streamHeadCache.updateLatestPositionOnCommit(streamId, 0L);
+        streamHeadCache.updateLatestPositionOnCommit(streamId, 3L);
+
+        final ArgumentCaptor<Synchronization> synchronizationCaptor = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionSynchronizationRegistry, times(2)).registerInterposedSynchronization(synchronizationCaptor.capture());
+
+        synchronizationCaptor.getAllValues().get(1).afterCompletion(STATUS_COMMITTED);
+        synchronizationCaptor.getAllValues().get(0).afterCompletion(STATUS_COMMITTED);
+
+        assertThat(streamHeadCache.getLatestPosition(streamId), is(of(3L)));
+    }
+
+    @Test
+    public void shouldRemoveStreamFromCacheIfTheTransactionRollsBack() throws Exception {
+
+        final UUID streamId = randomUUID();
+        initialiseWithMaxSize("10");
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION, STATUS_ACTIVE);
+
+        streamHeadCache.updateLatestPositionOnCommit(streamId, 1L);
+        streamHeadCache.updateLatestPositionOnCommit(streamId, 2L);
+
+        final ArgumentCaptor<Synchronization> synchronizationCaptor = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionSynchronizationRegistry).registerInterposedSynchronization(synchronizationCaptor.capture());
+
+        synchronizationCaptor.getValue().afterCompletion(STATUS_ROLLEDBACK);
+
+        assertThat(streamHeadCache.getLatestPosition(streamId), is(empty()));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedStreamWhenFull() throws Exception {
+
+        final UUID streamId_1 = randomUUID();
+        final UUID streamId_2 = randomUUID();
+        final UUID streamId_3 = randomUUID();
+        initialiseWithMaxSize("2");
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+
+        streamHeadCache.updateLatestPositionOnCommit(streamId_1, 1L);
+        streamHeadCache.updateLatestPositionOnCommit(streamId_2, 2L);
+        streamHeadCache.getLatestPosition(streamId_1);
+        streamHeadCache.updateLatestPositionOnCommit(streamId_3, 3L);
+
+        assertThat(streamHeadCache.getLatestPosition(streamId_1), is(of(1L)));
+        assertThat(streamHeadCache.getLatestPosition(streamId_2), is(empty()));
+        assertThat(streamHeadCache.getLatestPosition(streamId_3), is(of(3L)));
+    }
+
+    @Test
+    public void shouldInvalidateStream() throws Exception {
+
+        final UUID streamId = randomUUID();
+        initialiseWithMaxSize("10");
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+
+        streamHeadCache.updateLatestPositionOnCommit(streamId, 5L);
+        streamHeadCache.invalidate(streamId);
+
+        assertThat(streamHeadCache.getLatestPosition(streamId), is(empty()));
+    }
+
+    private void initialiseWithMaxSize(final String maxSize) {
+        setField(streamHeadCache, "maxSize", maxSize);
+        streamHeadCache.initialise();
+    }
+}
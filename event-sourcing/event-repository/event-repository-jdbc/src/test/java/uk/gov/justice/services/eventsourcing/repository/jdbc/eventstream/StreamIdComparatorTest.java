@@ -0,0 +1,42 @@
+package uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamIdComparator.STREAM_ID_ORDER;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class StreamIdComparatorTest {
+
+    @Test
+    public void shouldOrderStreamIdsByUnsignedBytesAsPostgresDoes() throws Exception {
+
+        final UUID streamId_1 = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        final UUID streamId_2 = UUID.fromString("00000000-0000-0000-8000-000000000000");
+        final UUID streamId_3 = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        final UUID streamId_4 = UUID.fromString("80000000-0000-0000-0000-000000000000");
+        final UUID streamId_5 = UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff");
+
+        final List<UUID> sortedStreamIds = asList(streamId_5, streamId_3, streamId_1, streamId_4, streamId_2).stream()
+                .sorted(STREAM_ID_ORDER)
+                .collect(toList());
+
+        assertThat(sortedStreamIds, is(asList(streamId_1, streamId_2, streamId_3, streamId_4, streamId_5)));
+    }
+
+    @Test
+    public void shouldDisagreeWithUuidCompareToWhenTheTopBitIsSet() throws Exception {
+
+        final UUID topBitClear = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        final UUID topBitSet = UUID.fromString("80000000-0000-0000-0000-000000000000");
+
+        assertThat(topBitSet.compareTo(topBitClear) < 0, is(true));
+        assertThat(STREAM_ID_ORDER.compare(topBitSet, topBitClear) > 0, is(true));
+        assertThat(STREAM_ID_ORDER.compare(topBitSet, topBitSet), is(0));
+    }
+}
@@ -43,10 +43,14 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.PostgresSQLEventLog
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PrePublishQueueRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueueRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueuesDataAccess;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.ChunkedStreamDeleter;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.StreamChunkDeleter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.MultipleDataSourcePublishedEventRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStreamJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamCreationMetrics;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamHeadCache;
 import uk.gov.justice.services.eventsourcing.source.api.resource.EventSourceApiApplication;
 import uk.gov.justice.services.eventsourcing.source.api.resource.EventStreamPageResource;
 import uk.gov.justice.services.eventsourcing.source.api.security.AccessController;
@@ -66,9 +70,17 @@ import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourcePro
 import uk.gov.justice.services.eventsourcing.source.core.EventStreamManager;
 import uk.gov.justice.services.eventsourcing.source.core.JdbcBasedEventSource;
 import uk.gov.justice.services.eventsourcing.source.core.JdbcEventSourceFactory;
-import uk.gov.justice.services.eventsourcing.source.core.MaxRetryProvider;
+import uk.gov.justice.services.eventsourcing.source.core.JdbcEventStreamLookup;
+import uk.gov.justice.services.eventsourcing.source.core.NonConsecutiveAppendMetrics;
 import uk.gov.justice.services.eventsourcing.source.core.PublishingEventAppender;
 import uk.gov.justice.services.eventsourcing.source.core.SystemEventService;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitEventAppender;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitMetrics;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitWriter;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
 import uk.gov.justice.services.jdbc.persistence.JndiAppNameProvider;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
@@ -184,6 +196,10 @@ public class EventStreamPageIT {
             UrlLinkFactory.class,
             PositionValueFactory.class,
             JdbcResultSetStreamer.class,
+            CursorResultSetStreamer.class,
+            StreamingMetrics.class,
+            PipelineMetrics.class,
+            Closer.class,
             PreparedStatementWrapperFactory.class,
             UtcClock.class,
             JsonValidationLoggerHelper.class,
@@ -193,6 +209,9 @@ public class EventStreamPageIT {
             JdbcBasedEventSource.class,
             EventAppender.class,
             PublishingEventAppender.class,
+            GroupCommitEventAppender.class,
+            GroupCommitWriter.class,
+            GroupCommitMetrics.class,
             EventConverter.class,
             SystemEventService.class,
             StringToJsonObjectConverter.class,
@@ -220,14 +239,19 @@ public class EventStreamPageIT {
 
             QualifierAnnotationExtractor.class,
             JdbcEventSourceFactory.class,
+            JdbcEventStreamLookup.class,
 
             DefaultEventSourceDefinitionFactory.class,
             SubscriptionSorter.class,
             MultipleDataSourcePublishedEventRepository.class,
             EventJdbcRepository.class,
             EventStreamJdbcRepository.class,
+            StreamHeadCache.class,
+            StreamCreationMetrics.class,
+            ChunkedStreamDeleter.class,
+            StreamChunkDeleter.class,
             JdbcBasedEventRepository.class,
-            MaxRetryProvider.class,
+            NonConsecutiveAppendMetrics.class,
             EventSourceNameProvider.class,
             EventStreamManager.class,
 
@@ -44,11 +44,15 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.PostgresSQLEventLog
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PrePublishQueueRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueueRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.PublishQueuesDataAccess;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.ChunkedStreamDeleter;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.StreamChunkDeleter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.Event;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventConverter;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.EventJdbcRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.event.MultipleDataSourcePublishedEventRepository;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.EventStreamJdbcRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamCreationMetrics;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamHeadCache;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.InvalidPositionException;
 import uk.gov.justice.services.eventsourcing.source.api.resource.EventPageResource;
 import uk.gov.justice.services.eventsourcing.source.api.resource.EventSourceApiApplication;
@@ -69,9 +73,17 @@ import uk.gov.justice.services.eventsourcing.source.core.EventStoreDataSourcePro
 import uk.gov.justice.services.eventsourcing.source.core.EventStreamManager;
 import uk.gov.justice.services.eventsourcing.source.core.JdbcBasedEventSource;
 import uk.gov.justice.services.eventsourcing.source.core.JdbcEventSourceFactory;
-import uk.gov.justice.services.eventsourcing.source.core.MaxRetryProvider;
+import uk.gov.justice.services.eventsourcing.source.core.JdbcEventStreamLookup;
+import uk.gov.justice.services.eventsourcing.source.core.NonConsecutiveAppendMetrics;
 import uk.gov.justice.services.eventsourcing.source.core.PublishingEventAppender;
 import uk.gov.justice.services.eventsourcing.source.core.SystemEventService;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitEventAppender;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitMetrics;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitWriter;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
 import uk.gov.justice.services.jdbc.persistence.JndiAppNameProvider;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
@@ -191,6 +203,10 @@ public class EventsPageIT {
             PositionValueFactory.class,
             BadRequestExceptionMapper.class,
             JdbcResultSetStreamer.class,
+            CursorResultSetStreamer.class,
+            StreamingMetrics.class,
+            PipelineMetrics.class,
+            Closer.class,
             PreparedStatementWrapperFactory.class,
             UtcClock.class,
             DefaultJsonValidationLoggerHelper.class,
@@ -198,6 +214,9 @@ public class EventsPageIT {
             JdbcBasedEventSource.class,
             EventAppender.class,
             PublishingEventAppender.class,
+            GroupCommitEventAppender.class,
+            GroupCommitWriter.class,
+            GroupCommitMetrics.class,
             EventConverter.class,
             SystemEventService.class,
             StringToJsonObjectConverter.class,
@@ -226,6 +245,7 @@ public class EventsPageIT {
 
             QualifierAnnotationExtractor.class,
             JdbcEventSourceFactory.class,
+            JdbcEventStreamLookup.class,
 
             DefaultEventSourceDefinitionFactory.class,
             SubscriptionSorter.class,
@@ -234,7 +254,11 @@ public class EventsPageIT {
             OpenEjbEventStoreDataSourceProvider.class,
             EventJdbcRepository.class,
             EventStreamJdbcRepository.class,
-            MaxRetryProvider.class,
+            StreamHeadCache.class,
+            StreamCreationMetrics.class,
+            ChunkedStreamDeleter.class,
+            StreamChunkDeleter.class,
+            NonConsecutiveAppendMetrics.class,
             EventSourceNameProvider.class,
             EventStreamManager.class,
 
@@ -0,0 +1,29 @@
+package uk.gov.justice.services.eventsourcing.source.api.service.core;
+
+import java.util.UUID;
+
+/**
+ * Answers questions about event streams and their events by position, without reading the
+ * events themselves.
+ */
+public interface EventStreamLookup {
+
+    /**
+     * @param position the position of an event stream
+     * @return true if there is an event stream at the position
+     */
+    boolean eventStreamExists(final long position);
+
+    /**
+     * @param position the position to count from
+     * @return the number of event streams at or after the position
+     */
+    long countEventStreamsFrom(final long position);
+
+    /**
+     * @param streamId the id of the event stream
+     * @param position the position in the stream to look from
+     * @return true if the stream has an event at or after the position
+     */
+    boolean eventExistsFrom(final UUID streamId, final long position);
+}
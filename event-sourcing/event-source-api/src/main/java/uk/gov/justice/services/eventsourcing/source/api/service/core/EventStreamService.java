@@ -20,6 +20,9 @@ public class EventStreamService {
     @Inject
     private EventSource eventSource;
 
+    @Inject
+    private EventStreamLookup eventStreamLookup;
+
     public List<EventStreamEntry> eventStreams(final Position position,
                                                final Direction direction,
                                                final long pageSize) {
@@ -35,8 +38,7 @@ public class EventStreamService {
                                                 final long pageSize) {
 
         if (position.isHead()) {
-            final Stream<EventStream> eventStreamsFromFirst = eventSource.getStreamsFrom(1);
-            final long fromPosition = eventStreamsFromFirst.count() - pageSize + 1L;
+            final long fromPosition = eventStreamLookup.countEventStreamsFrom(1) - pageSize + 1L;
             return eventSource.getStreamsFrom(fromPosition);
         }
 
@@ -75,7 +77,6 @@ public class EventStreamService {
 
     public boolean eventStreamExists(final long position) {
 
-        return eventSource.getStreamsFrom(1)
-                .anyMatch(eventStream -> eventStream.getPosition() == position);
+        return eventStreamLookup.eventStreamExists(position);
     }
 }
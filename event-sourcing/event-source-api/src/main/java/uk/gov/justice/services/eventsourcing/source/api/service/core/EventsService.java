@@ -25,6 +25,9 @@ public class EventsService {
     @Inject
     private EventSource eventSource;
 
+    @Inject
+    private EventStreamLookup eventStreamLookup;
+
     public List<EventEntry> events(final UUID streamId,
                                    final Position position,
                                    final Direction direction,
@@ -60,10 +63,7 @@ public class EventsService {
     }
 
     public boolean eventExists(final UUID streamId, final long version) {
-        final EventStream eventStream = eventSource.getStreamById(streamId);
-        final Stream<JsonEnvelope> event = eventStream.readFrom(version);
-
-        return event.findAny().isPresent();
+        return eventStreamLookup.eventExistsFrom(streamId, version);
     }
 
     private List<EventEntry> eventEntries(final Stream<JsonEnvelope> events) {
@@ -31,6 +31,9 @@ public class EventStreamServiceTest {
     @Mock
     private EventSource eventSource;
 
+    @Mock
+    private EventStreamLookup eventStreamLookup;
+
     @InjectMocks
     private EventStreamService service;
 
@@ -39,13 +42,9 @@ public class EventStreamServiceTest {
 
         final long pageSize = 2L;
 
-        final UUID streamId_1 = randomUUID();
-        final UUID streamId_2 = randomUUID();
         final UUID streamId_3 = randomUUID();
         final UUID streamId_4 = randomUUID();
 
-        final EventStream eventStream_1 = mock(EventStream.class);
-        final EventStream eventStream_2 = mock(EventStream.class);
         final EventStream eventStream_3 = mock(EventStream.class);
         final EventStream eventStream_4 = mock(EventStream.class);
 
@@ -55,18 +54,11 @@ public class EventStreamServiceTest {
         when(eventStream_3.getPosition()).thenReturn(3L);
         when(eventStream_4.getPosition()).thenReturn(4L);
 
-        final Stream.Builder<EventStream> eventStreamBuilder = Stream.builder();
-
-        eventStreamBuilder.add(eventStream_1);
-        eventStreamBuilder.add(eventStream_2);
-        eventStreamBuilder.add(eventStream_3);
-        eventStreamBuilder.add(eventStream_4);
-
         final Stream.Builder<EventStream> eventStreamBuilderFrom3 = Stream.builder();
         eventStreamBuilderFrom3.add(eventStream_3);
         eventStreamBuilderFrom3.add(eventStream_4);
 
-        when(eventSource.getStreamsFrom(1)).thenReturn(eventStreamBuilder.build());
+        when(eventStreamLookup.countEventStreamsFrom(1)).thenReturn(4L);
         when(eventSource.getStreamsFrom(3)).thenReturn(eventStreamBuilderFrom3.build());
 
         final List<EventStreamEntry> entries = service.eventStreams(head(), BACKWARD, pageSize);
@@ -191,4 +183,14 @@ public class EventStreamServiceTest {
         assertThat(eventEntries.get(1).getStreamId(), is(streamId_5.toString()));
         assertThat(eventEntries.get(1).getSequenceNumber(), is(5L));
     }
+
+    @Test
+    public void shouldCheckWhetherAnEventStreamExistsAtAPosition() throws Exception {
+
+        when(eventStreamLookup.eventStreamExists(3L)).thenReturn(true);
+        when(eventStreamLookup.eventStreamExists(4L)).thenReturn(false);
+
+        assertThat(service.eventStreamExists(3L), is(true));
+        assertThat(service.eventStreamExists(4L), is(false));
+    }
 }
@@ -7,9 +7,10 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.eventsourcing.source.api.service.core.Direction.BACKWARD;
 import static uk.gov.justice.services.eventsourcing.source.api.service.core.Direction.FORWARD;
@@ -44,6 +45,9 @@ public class EventsServiceTest {
     @Mock
     private EventSource eventSource;
 
+    @Mock
+    private EventStreamLookup eventStreamLookup;
+
     @InjectMocks
     private EventsService service;
 
@@ -296,25 +300,19 @@ public class EventsServiceTest {
         final UUID streamId = randomUUID();
         final long position = 1L;
 
-        final ZonedDateTime createdAt = now();
+        when(eventStreamLookup.eventExistsFrom(streamId, position)).thenReturn(true);
 
-        final JsonEnvelope event = envelopeFrom(
-                metadataBuilder()
-                        .withId(streamId)
-                        .withName("Test Name1")
-                        .withVersion(position)
-                        .withStreamId(streamId)
-                        .createdAt(createdAt),
-                createObjectBuilder().add("field1", "value1")
-        );
+        assertTrue(service.eventExists(streamId, position));
+        verifyNoInteractions(eventSource);
+    }
 
-        final EventStream eventStream = mock(EventStream.class);
+    @Test
+    public void shouldReturnEventDoesNotExist() {
+        final UUID streamId = randomUUID();
+        final long position = 3L;
 
-        when(eventSource.getStreamById(streamId)).thenReturn(eventStream);
-        when(eventStream.readFrom(1L)).thenReturn(Stream.of(event));
+        when(eventStreamLookup.eventExistsFrom(streamId, position)).thenReturn(false);
 
-        assertTrue(service.eventExists(streamId, position));
-        verify(eventSource).getStreamById(streamId);
-        verify(eventStream).readFrom(position);
+        assertFalse(service.eventExists(streamId, position));
     }
 }
@@ -45,12 +45,6 @@ public class DefaultPublishedEventSource implements PublishedEventSource {
     @Transactional(REQUIRED)
     @Override
     public Long getHighestPublishedEventNumber() {
-        final Optional<PublishedEvent> latestPublishedEvent = multipleDataSourcePublishedEventRepository
-                .getLatestPublishedEvent();
-
-        return latestPublishedEvent.map(publishedEvent -> publishedEvent
-                        .getEventNumber()
-                        .orElse(0L))
-                .orElse(0L);
+        return multipleDataSourcePublishedEventRepository.getHighestEventNumber();
     }
 }
@@ -2,20 +2,30 @@ package uk.gov.justice.services.eventsourcing.source.core;
 
 
 import static java.lang.String.format;
+import static java.lang.String.join;
+import static java.util.Collections.singletonList;
 import static java.util.UUID.randomUUID;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Stream.concat;
-import static java.util.stream.Stream.of;
+import static javax.transaction.Transactional.TxType.NEVER;
+import static uk.gov.justice.services.eventsourcing.repository.jdbc.eventstream.StreamIdComparator.STREAM_ID_ORDER;
 
-import uk.gov.justice.services.core.enveloper.Enveloper;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.EventRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.ChunkedStreamDeleter;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.StreamDeletionProgressListener;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.OptimisticLockingRetryException;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.StoreEventRequestFailedException;
 import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
 import uk.gov.justice.services.eventsourcing.source.core.exception.VersionMismatchException;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitEventAppender;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -29,20 +39,22 @@ import org.slf4j.Logger;
  */
 public class EventStreamManager {
 
+    private static final long INITIAL_VERSION = 0L;
+
     @Inject
     private PublishingEventAppender publishingEventAppender;
 
     @Inject
-    private MaxRetryProvider maxRetryProvider;
+    private GroupCommitEventAppender groupCommitEventAppender;
 
     @Inject
-    private Logger logger;
+    private NonConsecutiveAppendMetrics nonConsecutiveAppendMetrics;
 
     @Inject
-    private SystemEventService systemEventService;
+    private Logger logger;
 
     @Inject
-    private Enveloper enveloper;
+    private SystemEventService systemEventService;
 
     @Inject
     private EventRepository eventRepository;
@@ -50,6 +62,9 @@ public class EventStreamManager {
     @Inject
     private EventSourceNameProvider eventSourceNameProvider;
 
+    @Inject
+    private ChunkedStreamDeleter chunkedStreamDeleter;
+
     /**
      * Get the stream of events.
      *
@@ -93,14 +108,31 @@ public class EventStreamManager {
      */
     @Transactional(dontRollbackOn = OptimisticLockingRetryException.class)
     public long append(final UUID id, final Stream<JsonEnvelope> events) throws EventStreamException {
-        return append(id, events, Optional.empty());
+        return append(id, events, Optional.empty(), publishingEventAppender);
+
+    }
 
+    /**
+     * Store a stream of events in a transaction of their own, committed together with the appends
+     * of other concurrent callers if group commit is enabled with the JNDI value
+     * event.appender.group.commit.enabled, see {@link GroupCommitEventAppender}. As the events are
+     * not stored in the caller's transaction this must not be called inside one.
+     *
+     * @param id     the id of the stream
+     * @param events the stream of events to store
+     * @return the current stream version
+     * @throws EventStreamException if an event could not be appended
+     */
+    @Transactional(value = NEVER, dontRollbackOn = OptimisticLockingRetryException.class)
+    public long appendWithGroupCommit(final UUID id, final Stream<JsonEnvelope> events) throws EventStreamException {
+        return append(id, events, Optional.empty(), groupCommitEventAppender);
     }
 
     /**
-     * Store a stream of events without enforcing consecutive version ids. Reduces risk of throwing
-     * optimistic lock error. To be use instead of the append method, when it's acceptable to store
-     * events with non consecutive version ids
+     * Store a stream of events without enforcing consecutive version ids. The versions are assigned
+     * by the database as the next free versions of the stream, so the append does not fail on
+     * concurrent appends to the same stream. To be use instead of the append method, when it's
+     * acceptable to store events with non consecutive version ids
      *
      * @param streamId - id of the stream to append to
      * @param events   the stream of events to store
@@ -110,33 +142,26 @@ public class EventStreamManager {
     @Transactional(dontRollbackOn = OptimisticLockingRetryException.class)
     public long appendNonConsecutively(final UUID streamId, final Stream<JsonEnvelope> events) throws EventStreamException {
         final List<JsonEnvelope> envelopeList = events.collect(toList());
-        long currentVersion = eventRepository.getStreamSize(streamId);
+        final long currentVersion = eventRepository.getStreamSize(streamId);
 
         validateEvents(streamId, envelopeList);
 
-        for (final JsonEnvelope event : envelopeList) {
-            boolean appendedSuccessfully = false;
-            long retryCount = 0L;
-            while (!appendedSuccessfully) {
-                try {
-                    publishingEventAppender.append(
-                            event,
-                            streamId,
-                            ++currentVersion,
-                            eventSourceNameProvider.getDefaultEventSourceName());
-                    appendedSuccessfully = true;
-                } catch (final OptimisticLockingRetryException e) {
-                    retryCount++;
-                    if (retryCount > maxRetryProvider.getMaxRetry()) {
-                        logger.warn("Failed to append to stream {} due to concurrency issues, returning to handler.", streamId);
-                        throw e;
-                    }
-                    currentVersion = eventRepository.getStreamSize(streamId);
-                    logger.trace("Retrying appending to stream {}, with version {}", streamId, currentVersion + 1);
-                }
-            }
+        if (envelopeList.isEmpty()) {
+            return currentVersion;
+        }
+
+        final long lastVersion = publishingEventAppender.appendAtNextVersions(
+                envelopeList,
+                streamId,
+                eventSourceNameProvider.getDefaultEventSourceName());
+
+        nonConsecutiveAppendMetrics.incrementAppendCount();
+        if (lastVersion != currentVersion + envelopeList.size()) {
+            nonConsecutiveAppendMetrics.incrementRetriesAvoidedCount();
+            logger.trace("Stream {} moved on from version {} while appending, events appended up to version {}", streamId, currentVersion, lastVersion);
         }
-        return currentVersion;
+
+        return lastVersion;
     }
 
     /**
@@ -153,7 +178,86 @@ public class EventStreamManager {
         if (version == null) {
             throw new EventStreamException(format("Failed to append to stream %s. Version must not be null.", id));
         }
-        return append(id, events, Optional.of(version));
+        return append(id, events, Optional.of(version), publishingEventAppender);
+    }
+
+    /**
+     * Store a stream of events after the given version in a transaction of their own, as
+     * {@link #appendWithGroupCommit(UUID, Stream)} does. Must not be called inside a transaction.
+     *
+     * @param id      the id of the stream
+     * @param events  the stream of events to store
+     * @param version the version to append from
+     * @return the current version
+     * @throws EventStreamException if an event could not be appended
+     */
+    @Transactional(value = NEVER, dontRollbackOn = OptimisticLockingRetryException.class)
+    public long appendAfterWithGroupCommit(final UUID id, final Stream<JsonEnvelope> events, final Long version) throws EventStreamException {
+        if (version == null) {
+            throw new EventStreamException(format("Failed to append to stream %s. Version must not be null.", id));
+        }
+        return append(id, events, Optional.of(version), groupCommitEventAppender);
+    }
+
+    /**
+     * Store events on several streams at once, each after the version its stream is expected to be
+     * at. The new streams are created with one statement, the streams are locked and their versions
+     * checked in one query, then the events of all the streams are stored with one batched insert.
+     * If any stream is not at its expected version nothing is stored.
+     *
+     * @param streamAppends the events to append and the expected version, by id of the stream
+     * @return the current version of each stream, by id of the stream
+     * @throws EventStreamException if the events could not be appended; a
+     *                              {@link VersionMismatchException} naming the streams if a stream
+     *                              is behind its expected version
+     */
+    @Transactional(dontRollbackOn = OptimisticLockingRetryException.class)
+    public Map<UUID, Long> appendToStreams(final Map<UUID, StreamAppend> streamAppends) throws EventStreamException {
+
+        final SortedMap<UUID, StreamAppend> appendsInStreamOrder = new TreeMap<>(STREAM_ID_ORDER);
+        appendsInStreamOrder.putAll(streamAppends);
+
+        final List<UUID> newStreamIds = new ArrayList<>();
+        for (final Map.Entry<UUID, StreamAppend> streamAppend : appendsInStreamOrder.entrySet()) {
+            validateEvents(streamAppend.getKey(), streamAppend.getValue().getEvents());
+            if (streamAppend.getValue().getExpectedVersion() == INITIAL_VERSION) {
+                newStreamIds.add(streamAppend.getKey());
+            }
+        }
+
+        if (!newStreamIds.isEmpty()) {
+            eventRepository.createEventStreams(newStreamIds);
+        }
+
+        final Map<UUID, Long> currentVersions = eventRepository.lockStreamSizes(appendsInStreamOrder.keySet());
+        validateVersions(appendsInStreamOrder, currentVersions);
+
+        final String eventSourceName = eventSourceNameProvider.getDefaultEventSourceName();
+        final List<List<JsonEnvelope>> appends = new ArrayList<>();
+        final Map<UUID, Long> newVersions = new HashMap<>();
+
+        for (final Map.Entry<UUID, StreamAppend> streamAppend : appendsInStreamOrder.entrySet()) {
+            final UUID streamId = streamAppend.getKey();
+            long version = streamAppend.getValue().getExpectedVersion();
+
+            final List<JsonEnvelope> eventsWithStreamIdAndVersion = new ArrayList<>();
+            for (final JsonEnvelope event : streamAppend.getValue().getEvents()) {
+                eventsWithStreamIdAndVersion.add(publishingEventAppender.eventFrom(event, streamId, ++version, eventSourceName));
+            }
+
+            if (!eventsWithStreamIdAndVersion.isEmpty()) {
+                appends.add(eventsWithStreamIdAndVersion);
+            }
+            newVersions.put(streamId, version);
+        }
+
+        try {
+            eventRepository.storeEventsOfLockedStreams(appends);
+        } catch (final StoreEventRequestFailedException e) {
+            throw new EventStreamException(format("Failed to append events to streams %s", appendsInStreamOrder.keySet()), e);
+        }
+
+        return newVersions;
     }
 
     /**
@@ -162,34 +266,90 @@ public class EventStreamManager {
      * stream repository and a system event is appended to the copy that points to its origin
      * streamId.
      *
+     * The events are copied inside the event store, so cloning takes constant memory whatever the
+     * size of the stream.
+     *
      * @param id - the id of the stream to clone
      * @return the id of the cloned stream
      */
     @Transactional
     public UUID cloneAsAncestor(final UUID id) throws EventStreamException {
 
-        final Stream<JsonEnvelope> existingStream = eventRepository.getEventsByStreamId(id);
-
-        final JsonEnvelope systemEvent = systemEventService.clonedEventFor(id);
-
+        final String eventSourceName = eventSourceNameProvider.getDefaultEventSourceName();
         final UUID clonedId = randomUUID();
-        append(clonedId, concat(existingStream.map(this::stripMetadataFrom), of(systemEvent)));
 
-        eventRepository.markEventStreamActive(clonedId, false);
+        final long numberOfClonedEvents = eventRepository.cloneEventStream(id, clonedId, eventSourceName);
+
+        final JsonEnvelope systemEvent = systemEventService.clonedEventFor(id);
 
-        existingStream.close();
+        try {
+            eventRepository.storeEvents(singletonList(publishingEventAppender.eventFrom(systemEvent, clonedId, numberOfClonedEvents + 1, eventSourceName)));
+        } catch (final StoreEventRequestFailedException e) {
+            throw new EventStreamException(format("Failed to append event to the event store %s", systemEvent.metadata().id()), e);
+        }
 
         return clonedId;
     }
 
     /**
-     * Clears the stream, deleting all associated events from the event_log, it does not update the
-     * event_stream.
+     * Clears the stream, deleting all associated events from the event_log in the caller's
+     * transaction, and resets the position of its event_stream row to 0.
      */
     public void clear(final UUID id) {
         eventRepository.clearEventsForStream(id);
     }
 
+    /**
+     * Clears the stream, deleting all associated events, published events and snapshots but
+     * keeping its event_stream row, with its position reset to 0. As with {@link #delete(UUID)} the
+     * events are deleted in bounded chunks, each committed on its own, so this must not be called
+     * inside a transaction, and a clear that fails part way through can be resumed by clearing the
+     * stream again.
+     *
+     * @param id the id of the stream to clear
+     * @return the number of events deleted
+     */
+    public long clearInChunks(final UUID id) {
+        return chunkedStreamDeleter.clearStream(id);
+    }
+
+    /**
+     * Clears the stream as {@link #clearInChunks(UUID)} does, telling the listener of the progress
+     * as each chunk of events is committed.
+     *
+     * @param id                             the id of the stream to clear
+     * @param streamDeletionProgressListener told of the progress as each chunk commits
+     * @return the number of events deleted
+     */
+    public long clearInChunks(final UUID id, final StreamDeletionProgressListener streamDeletionProgressListener) {
+        return chunkedStreamDeleter.clearStream(id, streamDeletionProgressListener);
+    }
+
+    /**
+     * Deletes the stream and everything stored for it, including its event_stream row, published
+     * events and snapshots. The events are deleted in bounded chunks, each committed on its own,
+     * so this must not be called inside a transaction. A deletion that fails part way through can
+     * be resumed by deleting the stream again.
+     *
+     * @param id the id of the stream to delete
+     * @return the number of events deleted
+     */
+    public long delete(final UUID id) {
+        return chunkedStreamDeleter.deleteStream(id);
+    }
+
+    /**
+     * Deletes the stream as {@link #delete(UUID)} does, telling the listener of the progress as
+     * each chunk of events is committed.
+     *
+     * @param id                             the id of the stream to delete
+     * @param streamDeletionProgressListener told of the progress as each chunk commits
+     * @return the number of events deleted
+     */
+    public long delete(final UUID id, final StreamDeletionProgressListener streamDeletionProgressListener) {
+        return chunkedStreamDeleter.deleteStream(id, streamDeletionProgressListener);
+    }
+
     /**
      * Get the latest position number for a stream
      *
@@ -209,19 +369,28 @@ public class EventStreamManager {
         return eventRepository.getStreamPosition(streamId);
     }
 
-    private long append(final UUID id, final Stream<JsonEnvelope> events, final Optional<Long> positionFrom) throws EventStreamException {
+    private long append(
+            final UUID id,
+            final Stream<JsonEnvelope> events,
+            final Optional<Long> positionFrom,
+            final EventAppender eventAppender) throws EventStreamException {
         final List<JsonEnvelope> envelopeList = events.collect(toList());
 
         long currentPosition = eventRepository.getStreamSize(id);
         if (positionFrom.isPresent()) {
+            if (positionFrom.get() != currentPosition) {
+                // the stream size may come from a node local cache that is behind appends made by other
+                // nodes, or ahead of a stream cleared or deleted by another node
+                eventRepository.invalidateStreamSize(id);
+                currentPosition = eventRepository.getStreamSize(id);
+            }
             validateVersion(id, positionFrom.get(), currentPosition);
         }
         validateEvents(id, envelopeList);
 
-        for (final JsonEnvelope event : envelopeList) {
-            publishingEventAppender.append(event, id, ++currentPosition, eventSourceNameProvider.getDefaultEventSourceName());
-        }
-        return currentPosition;
+        eventAppender.appendAll(envelopeList, id, currentPosition + 1, eventSourceNameProvider.getDefaultEventSourceName());
+
+        return currentPosition + envelopeList.size();
     }
 
     private void validateEvents(final UUID id, final List<JsonEnvelope> envelopeList) throws EventStreamException {
@@ -240,14 +409,27 @@ public class EventStreamManager {
         }
     }
 
-    /**
-     * Clears the version (and other metadata) from the events so they can be appended as fresh
-     * events.
-     *
-     * @param event - the event to have its metadata cleared
-     * @return the event with cleared metadata
-     */
-    private JsonEnvelope stripMetadataFrom(final JsonEnvelope event) {
-        return enveloper.withMetadataFrom(event, event.metadata().name()).apply(event.payload());
+    private void validateVersions(final SortedMap<UUID, StreamAppend> streamAppends, final Map<UUID, Long> currentVersions) throws VersionMismatchException {
+
+        final List<String> streamsBehind = new ArrayList<>();
+        final List<String> streamsAhead = new ArrayList<>();
+
+        streamAppends.forEach((streamId, streamAppend) -> {
+            final long expectedVersion = streamAppend.getExpectedVersion();
+            final long currentVersion = currentVersions.getOrDefault(streamId, INITIAL_VERSION);
+            if (expectedVersion > currentVersion) {
+                streamsBehind.add(format("stream %s expected %d, found %d", streamId, expectedVersion, currentVersion));
+            } else if (expectedVersion < currentVersion) {
+                streamsAhead.add(format("stream %s expected %d, found %d", streamId, expectedVersion, currentVersion));
+            }
+        });
+
+        if (!streamsBehind.isEmpty()) {
+            throw new VersionMismatchException(format("Failed to append to streams due to a version mismatch; %s",
+                    join("; ", streamsBehind)));
+        } else if (!streamsAhead.isEmpty()) {
+            throw new OptimisticLockingRetryException(format("Optimistic locking failure while appending to streams which have moved on; %s",
+                    join("; ", streamsAhead)));
+        }
     }
 }
@@ -0,0 +1,33 @@
+package uk.gov.justice.services.eventsourcing.source.core;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.EventRepository;
+import uk.gov.justice.services.eventsourcing.source.api.service.core.EventStreamLookup;
+
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+/**
+ * Looks up event streams and events with id only queries against the event store, so that
+ * no payload or metadata is read just to be thrown away.
+ */
+public class JdbcEventStreamLookup implements EventStreamLookup {
+
+    @Inject
+    private EventRepository eventRepository;
+
+    @Override
+    public boolean eventStreamExists(final long position) {
+        return eventRepository.eventStreamExistsAtPosition(position);
+    }
+
+    @Override
+    public long countEventStreamsFrom(final long position) {
+        return eventRepository.countEventStreamsFromPosition(position);
+    }
+
+    @Override
+    public boolean eventExistsFrom(final UUID streamId, final long position) {
+        return eventRepository.hasEventsFromPosition(streamId, position);
+    }
+}
@@ -1,16 +0,0 @@
-package uk.gov.justice.services.eventsourcing.source.core;
-
-import uk.gov.justice.services.common.configuration.GlobalValue;
-
-import javax.inject.Inject;
-
-public class MaxRetryProvider {
-
-    @Inject
-    @GlobalValue(key = "internal.max.retry", defaultValue = "20")
-    private long maxRetry;
-
-    public long getMaxRetry() {
-        return maxRetry;
-    }
-}
@@ -0,0 +1,62 @@
+package uk.gov.justice.services.eventsourcing.source.core;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.NamedMetrics;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Counts the appends made through {@link EventStreamManager#appendNonConsecutively} on this node,
+ * and how many of them found the stream had moved on since this node last read its size. Each of
+ * those would have failed with an optimistic lock and been retried had the versions been chosen
+ * by the caller rather than assigned by the database.
+ *
+ * Exported through the registries of the {@link PipelineMetrics}, as
+ * 'type=EventStoreMetrics,name="non-consecutive-appends"' in JMX.
+ */
+@ApplicationScoped
+public class NonConsecutiveAppendMetrics implements NonConsecutiveAppendMetricsMXBean, NamedMetrics {
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    private final AtomicLong appendCount = new AtomicLong();
+    private final AtomicLong retriesAvoidedCount = new AtomicLong();
+
+    @PostConstruct
+    public void register() {
+        pipelineMetrics.register(this);
+    }
+
+    public void incrementAppendCount() {
+        appendCount.incrementAndGet();
+    }
+
+    public void incrementRetriesAvoidedCount() {
+        retriesAvoidedCount.incrementAndGet();
+    }
+
+    @Override
+    public String getMetricsType() {
+        return "EventStoreMetrics";
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "non-consecutive-appends";
+    }
+
+    @Override
+    public long getAppendCount() {
+        return appendCount.get();
+    }
+
+    @Override
+    public long getRetriesAvoidedCount() {
+        return retriesAvoidedCount.get();
+    }
+}
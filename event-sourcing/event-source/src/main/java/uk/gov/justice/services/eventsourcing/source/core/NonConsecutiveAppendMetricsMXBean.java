@@ -0,0 +1,11 @@
+package uk.gov.justice.services.eventsourcing.source.core;
+
+/**
+ * The non consecutive appends of this node as read through JMX
+ */
+public interface NonConsecutiveAppendMetricsMXBean {
+
+    long getAppendCount();
+
+    long getRetriesAvoidedCount();
+}
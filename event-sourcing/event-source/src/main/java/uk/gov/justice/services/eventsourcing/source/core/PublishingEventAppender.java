@@ -8,10 +8,14 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.StoreEven
 import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+import javax.enterprise.inject.Typed;
 import javax.inject.Inject;
 
+@Typed(PublishingEventAppender.class)
 public class PublishingEventAppender implements EventAppender {
 
     @Inject
@@ -36,4 +40,64 @@ public class PublishingEventAppender implements EventAppender {
             throw new EventStreamException(format("Failed to append event to the event store %s", event.metadata().id()), e);
         }
     }
+
+    /**
+     * Stores all the events in the event store with one batched insert into the event log and one
+     * into the pre publish queue.
+     *
+     * @param events       - the events to be appended, in order
+     * @param streamId     - id of the stream the events will be part of
+     * @param firstVersion - version id of the first event in the stream
+     */
+    @Override
+    public void appendAll(final List<JsonEnvelope> events, final UUID streamId, final long firstVersion, final String eventSourceName) throws EventStreamException {
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (firstVersion == INITIAL_EVENT_VERSION) {
+                eventRepository.createEventStream(streamId);
+            }
+
+            final List<JsonEnvelope> eventsWithStreamIdAndVersion = new ArrayList<>(events.size());
+            long version = firstVersion;
+            for (final JsonEnvelope event : events) {
+                eventsWithStreamIdAndVersion.add(eventFrom(event, streamId, version++, eventSourceName));
+            }
+
+            eventRepository.storeEvents(eventsWithStreamIdAndVersion);
+        } catch (StoreEventRequestFailedException e) {
+            throw new EventStreamException(format("Failed to append %d events to the event store for stream %s", events.size(), streamId), e);
+        }
+    }
+
+    /**
+     * Reserves the next versions of the stream in the event store and stores all the events at
+     * them, so the append cannot fail on a concurrent append to the same stream.
+     *
+     * @param events   - the events to be appended, in order
+     * @param streamId - id of the stream the events will be part of
+     * @return the version id of the last event appended
+     */
+    @Override
+    public long appendAtNextVersions(final List<JsonEnvelope> events, final UUID streamId, final String eventSourceName) throws EventStreamException {
+
+        final long lastVersion = eventRepository.reserveStreamPositions(streamId, events.size());
+
+        try {
+            final List<JsonEnvelope> eventsWithStreamIdAndVersion = new ArrayList<>(events.size());
+            long version = lastVersion - events.size() + 1;
+            for (final JsonEnvelope event : events) {
+                eventsWithStreamIdAndVersion.add(eventFrom(event, streamId, version++, eventSourceName));
+            }
+
+            eventRepository.storeEventsAtReservedPositions(eventsWithStreamIdAndVersion);
+        } catch (StoreEventRequestFailedException e) {
+            throw new EventStreamException(format("Failed to append %d events to the event store for stream %s", events.size(), streamId), e);
+        }
+
+        return lastVersion;
+    }
 }
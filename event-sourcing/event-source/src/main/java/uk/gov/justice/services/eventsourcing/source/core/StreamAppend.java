@@ -0,0 +1,29 @@
+package uk.gov.justice.services.eventsourcing.source.core;
+
+import uk.gov.justice.services.messaging.JsonEnvelope;
+
+import java.util.List;
+
+/**
+ * The events to append to one stream as part of
+ * {@link EventStreamManager#appendToStreams(java.util.Map)}, with the version the stream is
+ * expected to be at before they are appended.
+ */
+public class StreamAppend {
+
+    private final long expectedVersion;
+    private final List<JsonEnvelope> events;
+
+    public StreamAppend(final long expectedVersion, final List<JsonEnvelope> events) {
+        this.expectedVersion = expectedVersion;
+        this.events = events;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public List<JsonEnvelope> getEvents() {
+        return events;
+    }
+}
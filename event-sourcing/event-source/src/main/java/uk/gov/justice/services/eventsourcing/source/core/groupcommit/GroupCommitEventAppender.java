@@ -0,0 +1,258 @@
+package uk.gov.justice.services.eventsourcing.source.core.groupcommit;
+
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static javax.transaction.Status.STATUS_NO_TRANSACTION;
+
+import uk.gov.justice.services.common.configuration.GlobalValue;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.OptimisticLockingRetryException;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.StoreEventRequestFailedException;
+import uk.gov.justice.services.eventsourcing.source.core.EventAppender;
+import uk.gov.justice.services.eventsourcing.source.core.PublishingEventAppender;
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Typed;
+import javax.inject.Inject;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.slf4j.Logger;
+
+/**
+ * {@link EventAppender} that coalesces the appends of concurrent callers into one batched insert
+ * and one commit, trading a few milliseconds of latency for fewer commits under load.
+ *
+ * The first caller to arrive while no group is being collected leads the next group: it waits
+ * until the commit window has passed or the group holds the maximum number of events, then writes
+ * the whole group in a transaction of its own. Every caller, the leader included, then gets its
+ * own outcome; an append whose stream has moved on fails with an
+ * {@link OptimisticLockingRetryException} without affecting the rest of the group.
+ *
+ * A group is committed in a transaction of its own, which cannot be the transaction of any of its
+ * callers. So it is only used by the EventStreamManager appends made with group commit, which must
+ * be made outside a transaction; an append made inside the caller's transaction is written in that
+ * transaction by the {@link PublishingEventAppender}, so that the events still commit or roll back
+ * with the rest of the caller's work.
+ *
+ * Appends are only grouped if enabled with the JNDI value event.appender.group.commit.enabled.
+ * Otherwise each append is written on its own, in a transaction of its own, straight away.
+ */
+@ApplicationScoped
+@Typed(GroupCommitEventAppender.class)
+public class GroupCommitEventAppender implements EventAppender {
+
+    @Inject
+    @GlobalValue(key = "event.appender.group.commit.enabled", defaultValue = "false")
+    private String groupCommitEnabled;
+
+    @Inject
+    @GlobalValue(key = "event.appender.group.commit.window.millis", defaultValue = "2")
+    private String commitWindowMillis;
+
+    @Inject
+    @GlobalValue(key = "event.appender.group.commit.max.events", defaultValue = "500")
+    private String maxEventsPerCommit;
+
+    @Inject
+    private GroupCommitWriter groupCommitWriter;
+
+    @Inject
+    private PublishingEventAppender publishingEventAppender;
+
+    @Inject
+    private GroupCommitMetrics groupCommitMetrics;
+
+    @Inject
+    private Logger logger;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition groupFull = lock.newCondition();
+
+    private List<PendingAppend> pendingAppends = new ArrayList<>();
+    private int pendingEventCount = 0;
+    private boolean collectingGroup = false;
+
+    @Override
+    public void append(final JsonEnvelope event, final UUID streamId, final long version, final String eventSourceName) throws EventStreamException {
+        appendAll(singletonList(event), streamId, version, eventSourceName);
+    }
+
+    /**
+     * Queues the events to be written with those of other concurrent callers and waits until they
+     * have been committed, or writes them on their own if group commit is not enabled. If the
+     * caller is in a transaction the events are written in that transaction instead, without
+     * waiting for other callers.
+     *
+     * @param events       - the events to be appended, in order
+     * @param streamId     - id of the stream the events will be part of
+     * @param firstVersion - version id of the first event in the stream
+     */
+    @Override
+    public void appendAll(final List<JsonEnvelope> events, final UUID streamId, final long firstVersion, final String eventSourceName) throws EventStreamException {
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        if (transactionSynchronizationRegistry.getTransactionStatus() != STATUS_NO_TRANSACTION) {
+            groupCommitMetrics.appendedInCallerTransaction();
+            publishingEventAppender.appendAll(events, streamId, firstVersion, eventSourceName);
+            return;
+        }
+
+        final long startTime = System.nanoTime();
+
+        final List<JsonEnvelope> eventsWithStreamIdAndVersion = new ArrayList<>(events.size());
+        long version = firstVersion;
+        for (final JsonEnvelope event : events) {
+            eventsWithStreamIdAndVersion.add(eventFrom(event, streamId, version++, eventSourceName));
+        }
+
+        final PendingAppend pendingAppend = new PendingAppend(streamId, firstVersion, eventsWithStreamIdAndVersion);
+
+        if (parseBoolean(groupCommitEnabled)) {
+            final List<PendingAppend> group = enqueue(pendingAppend);
+            if (group != null) {
+                write(group);
+            }
+        } else {
+            writeAlone(pendingAppend);
+        }
+
+        try {
+            awaitCompletion(pendingAppend);
+        } finally {
+            groupCommitMetrics.appendCompleted(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Versions assigned by the database need the stream locked for the rest of the caller's
+     * transaction, so these appends are not grouped.
+     */
+    @Override
+    public long appendAtNextVersions(final List<JsonEnvelope> events, final UUID streamId, final String eventSourceName) throws EventStreamException {
+        return publishingEventAppender.appendAtNextVersions(events, streamId, eventSourceName);
+    }
+
+    /**
+     * Adds the append to the group being collected. If no group is being collected the caller
+     * becomes the leader of a new one, waits for it to fill and returns it to be written.
+     *
+     * @return the group to write, or null if the append joined a group led by another caller
+     */
+    private List<PendingAppend> enqueue(final PendingAppend pendingAppend) {
+        lock.lock();
+        try {
+            pendingAppends.add(pendingAppend);
+            pendingEventCount += pendingAppend.getEvents().size();
+
+            final int maxEvents = parseInt(maxEventsPerCommit);
+
+            if (collectingGroup) {
+                if (pendingEventCount >= maxEvents) {
+                    groupFull.signal();
+                }
+                return null;
+            }
+
+            collectingGroup = true;
+
+            long remainingNanos = MILLISECONDS.toNanos(parseLong(commitWindowMillis));
+            while (pendingEventCount < maxEvents && remainingNanos > 0) {
+                try {
+                    remainingNanos = groupFull.awaitNanos(remainingNanos);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            final List<PendingAppend> group = pendingAppends;
+            pendingAppends = new ArrayList<>();
+            pendingEventCount = 0;
+            collectingGroup = false;
+
+            return group;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(final List<PendingAppend> group) {
+        try {
+            final List<List<JsonEnvelope>> rejectedAppends = groupCommitWriter.write(group);
+            completeGroup(group, rejectedAppends);
+        } catch (final OptimisticLockingRetryException e) {
+            logger.debug("Conflict writing group of {} appends, writing them one at a time", group.size());
+            group.forEach(this::writeAlone);
+        } catch (final StoreEventRequestFailedException | RuntimeException e) {
+            group.forEach(pendingAppend -> pendingAppend.getCompletion().completeExceptionally(e));
+        }
+    }
+
+    private void writeAlone(final PendingAppend pendingAppend) {
+        try {
+            final List<PendingAppend> group = singletonList(pendingAppend);
+            completeGroup(group, groupCommitWriter.write(group));
+        } catch (final StoreEventRequestFailedException | RuntimeException e) {
+            if (e instanceof OptimisticLockingRetryException) {
+                groupCommitMetrics.conflictDetected();
+            }
+            pendingAppend.getCompletion().completeExceptionally(e);
+        }
+    }
+
+    private void completeGroup(final List<PendingAppend> group, final List<List<JsonEnvelope>> rejectedAppends) {
+
+        int numberOfAppends = 0;
+        int numberOfEvents = 0;
+
+        for (final PendingAppend pendingAppend : group) {
+            if (rejectedAppends.contains(pendingAppend.getEvents())) {
+                groupCommitMetrics.conflictDetected();
+                pendingAppend.getCompletion().completeExceptionally(new OptimisticLockingRetryException(
+                        format("Locking Exception while storing sequence %s of stream %s", pendingAppend.getFirstVersion(), pendingAppend.getStreamId())));
+            } else {
+                numberOfAppends++;
+                numberOfEvents += pendingAppend.getEvents().size();
+                pendingAppend.getCompletion().complete(null);
+            }
+        }
+
+        groupCommitMetrics.commitCompleted(numberOfAppends, numberOfEvents);
+    }
+
+    private void awaitCompletion(final PendingAppend pendingAppend) throws EventStreamException {
+        try {
+            pendingAppend.getCompletion().get();
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof OptimisticLockingRetryException) {
+                throw (OptimisticLockingRetryException) cause;
+            }
+            throw new EventStreamException(format("Failed to append %d events to the event store for stream %s",
+                    pendingAppend.getEvents().size(), pendingAppend.getStreamId()), cause);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventStreamException(format("Interrupted while appending %d events to the event store for stream %s",
+                    pendingAppend.getEvents().size(), pendingAppend.getStreamId()), e);
+        }
+    }
+}
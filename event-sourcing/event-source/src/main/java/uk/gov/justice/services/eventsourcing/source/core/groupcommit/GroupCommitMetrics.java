@@ -0,0 +1,115 @@
+package uk.gov.justice.services.eventsourcing.source.core.groupcommit;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.NamedMetrics;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Throughput and latency of the {@link GroupCommitEventAppender} on this node: how many
+ * commits were made for how many appends and events, how many appends were rejected as
+ * conflicting with another append to the same stream, how long callers waited for their
+ * append to be committed, and how many appends were not grouped because they were made inside
+ * the caller's transaction.
+ *
+ * Exported through the registries of the {@link PipelineMetrics}, as
+ * 'type=EventStoreMetrics,name="group-commit"' in JMX.
+ */
+@ApplicationScoped
+public class GroupCommitMetrics implements GroupCommitMetricsMXBean, NamedMetrics {
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong appendCount = new AtomicLong();
+    private final AtomicLong eventCount = new AtomicLong();
+    private final AtomicLong conflictCount = new AtomicLong();
+    private final AtomicLong appendsInCallerTransactionCount = new AtomicLong();
+    private final AtomicLong completedAppendCount = new AtomicLong();
+    private final AtomicLong totalAppendLatencyNanos = new AtomicLong();
+    private final AtomicLong maxAppendLatencyNanos = new AtomicLong();
+
+    @PostConstruct
+    public void register() {
+        pipelineMetrics.register(this);
+    }
+
+    public void commitCompleted(final int numberOfAppends, final int numberOfEvents) {
+        commitCount.incrementAndGet();
+        appendCount.addAndGet(numberOfAppends);
+        eventCount.addAndGet(numberOfEvents);
+    }
+
+    public void conflictDetected() {
+        conflictCount.incrementAndGet();
+    }
+
+    public void appendedInCallerTransaction() {
+        appendsInCallerTransactionCount.incrementAndGet();
+    }
+
+    public void appendCompleted(final long latencyNanos) {
+        completedAppendCount.incrementAndGet();
+        totalAppendLatencyNanos.addAndGet(latencyNanos);
+        maxAppendLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    @Override
+    public String getMetricsType() {
+        return "EventStoreMetrics";
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "group-commit";
+    }
+
+    @Override
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    @Override
+    public long getAppendCount() {
+        return appendCount.get();
+    }
+
+    @Override
+    public long getEventCount() {
+        return eventCount.get();
+    }
+
+    @Override
+    public long getConflictCount() {
+        return conflictCount.get();
+    }
+
+    @Override
+    public long getAppendsInCallerTransactionCount() {
+        return appendsInCallerTransactionCount.get();
+    }
+
+    @Override
+    public double getAverageAppendsPerCommit() {
+        final long commits = commitCount.get();
+        return commits == 0 ? 0 : (double) appendCount.get() / commits;
+    }
+
+    @Override
+    public long getAverageAppendLatencyMicros() {
+        final long appends = completedAppendCount.get();
+        return appends == 0 ? 0 : NANOSECONDS.toMicros(totalAppendLatencyNanos.get() / appends);
+    }
+
+    @Override
+    public long getMaxAppendLatencyMicros() {
+        return NANOSECONDS.toMicros(maxAppendLatencyNanos.get());
+    }
+}
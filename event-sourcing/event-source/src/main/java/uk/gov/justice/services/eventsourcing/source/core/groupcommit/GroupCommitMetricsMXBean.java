@@ -0,0 +1,23 @@
+package uk.gov.justice.services.eventsourcing.source.core.groupcommit;
+
+/**
+ * The group commits of this node as read through JMX
+ */
+public interface GroupCommitMetricsMXBean {
+
+    long getCommitCount();
+
+    long getAppendCount();
+
+    long getEventCount();
+
+    long getConflictCount();
+
+    long getAppendsInCallerTransactionCount();
+
+    double getAverageAppendsPerCommit();
+
+    long getAverageAppendLatencyMicros();
+
+    long getMaxAppendLatencyMicros();
+}
@@ -0,0 +1,45 @@
+package uk.gov.justice.services.eventsourcing.source.core.groupcommit;
+
+import static java.util.stream.Collectors.toList;
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+import static uk.gov.justice.services.eventsourcing.source.core.EventSourceConstants.INITIAL_EVENT_VERSION;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.EventRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.StoreEventRequestFailedException;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+/**
+ * Writes a group of appends to the event store in a transaction of its own, so that they are
+ * committed together. Only appends made outside a transaction are grouped, see
+ * {@link GroupCommitEventAppender}, so the new transaction never commits events that a caller's
+ * transaction could still roll back.
+ */
+public class GroupCommitWriter {
+
+    @Inject
+    private EventRepository eventRepository;
+
+    /**
+     * Stores the events of all the appends with one batched insert and commits them.
+     *
+     * @param pendingAppends the appends to write
+     * @return the events of the appends that were not written because their stream had moved on
+     * @throws StoreEventRequestFailedException if the events could not be stored
+     */
+    @Transactional(value = REQUIRES_NEW, rollbackOn = StoreEventRequestFailedException.class)
+    public List<List<JsonEnvelope>> write(final List<PendingAppend> pendingAppends) throws StoreEventRequestFailedException {
+
+        pendingAppends.stream()
+                .filter(pendingAppend -> pendingAppend.getFirstVersion() == INITIAL_EVENT_VERSION)
+                .forEach(pendingAppend -> eventRepository.createEventStream(pendingAppend.getStreamId()));
+
+        return eventRepository.storeEventsOfAppends(pendingAppends.stream()
+                .map(PendingAppend::getEvents)
+                .collect(toList()));
+    }
+}
@@ -0,0 +1,41 @@
+package uk.gov.justice.services.eventsourcing.source.core.groupcommit;
+
+import uk.gov.justice.services.messaging.JsonEnvelope;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An append waiting to be written by the {@link GroupCommitEventAppender}, together with the
+ * future its caller is waiting on.
+ */
+public class PendingAppend {
+
+    private final UUID streamId;
+    private final long firstVersion;
+    private final List<JsonEnvelope> events;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    public PendingAppend(final UUID streamId, final long firstVersion, final List<JsonEnvelope> events) {
+        this.streamId = streamId;
+        this.firstVersion = firstVersion;
+        this.events = events;
+    }
+
+    public UUID getStreamId() {
+        return streamId;
+    }
+
+    public long getFirstVersion() {
+        return firstVersion;
+    }
+
+    public List<JsonEnvelope> getEvents() {
+        return events;
+    }
+
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+}
@@ -1,6 +1,5 @@
 package uk.gov.justice.services.eventsourcing.source.core;
 
-import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static java.util.UUID.randomUUID;
 import static java.util.stream.Collectors.toList;
@@ -77,31 +76,11 @@ public class DefaultPublishedEventSourceTest {
     }
 
     @Test
-    public void shouldGetEventNumberFromLatestPublishedEvent() throws Exception {
+    public void shouldGetTheHighestPublishedEventNumber() throws Exception {
 
-        final Long latestEventNumber = 9827394873L;
-        final PublishedEvent latestPublishedEvent = mock(PublishedEvent.class);
-        when(latestPublishedEvent.getEventNumber()).thenReturn(of(latestEventNumber));
-        when(multipleDataSourcePublishedEventRepository.getLatestPublishedEvent()).thenReturn(of(latestPublishedEvent));
+        final long highestEventNumber = 9827394873L;
+        when(multipleDataSourcePublishedEventRepository.getHighestEventNumber()).thenReturn(highestEventNumber);
 
-        assertThat(defaultPublishedEventSource.getHighestPublishedEventNumber(), is(latestEventNumber));
-    }
-
-    @Test
-    public void shouldReturnZeroIfLatestPublishedEventHasNoEventNumber() throws Exception {
-
-        final PublishedEvent latestPublishedEvent = mock(PublishedEvent.class);
-        when(latestPublishedEvent.getEventNumber()).thenReturn(empty());
-        when(multipleDataSourcePublishedEventRepository.getLatestPublishedEvent()).thenReturn(of(latestPublishedEvent));
-
-        assertThat(defaultPublishedEventSource.getHighestPublishedEventNumber(), is(0L));
-    }
-
-    @Test
-    public void shouldReturnZeroIfNoLatestPublishedEventFound() throws Exception {
-
-        when(multipleDataSourcePublishedEventRepository.getLatestPublishedEvent()).thenReturn(empty());
-
-        assertThat(defaultPublishedEventSource.getHighestPublishedEventNumber(), is(0L));
+        assertThat(defaultPublishedEventSource.getHighestPublishedEventNumber(), is(highestEventNumber));
     }
 }
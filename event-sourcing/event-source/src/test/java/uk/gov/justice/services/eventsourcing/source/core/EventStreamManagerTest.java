@@ -1,35 +1,42 @@
 package uk.gov.justice.services.eventsourcing.source.core;
 
-import static java.util.Optional.empty;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static java.util.UUID.randomUUID;
 import static javax.json.Json.createObjectBuilder;
 import static org.hamcrest.CoreMatchers.equalTo;
-import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
 import static uk.gov.justice.services.messaging.JsonEnvelope.metadataBuilder;
-import static uk.gov.justice.services.test.utils.core.enveloper.EnveloperFactory.createEnveloper;
 
-import uk.gov.justice.services.core.enveloper.Enveloper;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.JdbcBasedEventRepository;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.ChunkedStreamDeleter;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.deletion.StreamDeletionProgressListener;
 import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.OptimisticLockingRetryException;
 import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
 import uk.gov.justice.services.eventsourcing.source.core.exception.VersionMismatchException;
+import uk.gov.justice.services.eventsourcing.source.core.groupcommit.GroupCommitEventAppender;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -39,7 +46,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 
@@ -52,14 +58,15 @@ public class EventStreamManagerTest {
     private static final Long INVALID_VERSION = 8L;
     private static final String EVENT_SOURCE_NAME = "eventSourceName";
 
-    private static final long MAX_RETRY = 23L;
-
     @Mock
     private JdbcBasedEventRepository eventRepository;
 
     @Mock
     private PublishingEventAppender publishingEventAppender;
 
+    @Mock
+    private GroupCommitEventAppender groupCommitEventAppender;
+
     @SuppressWarnings("unchecked")
     @Mock
     private Stream<JsonEnvelope> eventStream;
@@ -67,15 +74,14 @@ public class EventStreamManagerTest {
     @Mock
     private SystemEventService systemEventService;
 
-    @SuppressWarnings("unused")
-    @Spy
-    private Enveloper enveloper = createEnveloper();
-
     @Mock
     private EventSourceNameProvider eventSourceNameProvider;
 
     @Mock
-    private MaxRetryProvider maxRetryProvider;
+    private NonConsecutiveAppendMetrics nonConsecutiveAppendMetrics;
+
+    @Mock
+    private ChunkedStreamDeleter chunkedStreamDeleter;
 
     @Mock
     private Logger logger;
@@ -84,10 +90,10 @@ public class EventStreamManagerTest {
     private EventStreamManager eventStreamManager;
 
     @Captor
-    private ArgumentCaptor<JsonEnvelope> eventCaptor;
+    private ArgumentCaptor<List<JsonEnvelope>> eventsCaptor;
 
     @Captor
-    private ArgumentCaptor<Long> versionCaptor;
+    private ArgumentCaptor<List<List<JsonEnvelope>>> appendsCaptor;
 
     @Test
     public void shouldAppendToStream() throws Exception {
@@ -100,8 +106,63 @@ public class EventStreamManagerTest {
 
         eventStreamManager.append(STREAM_ID, Stream.of(event));
 
-        verify(publishingEventAppender).append(event, STREAM_ID, INITIAL_VERSION + 1, EVENT_SOURCE_NAME);
+        verify(publishingEventAppender).appendAll(singletonList(event), STREAM_ID, INITIAL_VERSION + 1, EVENT_SOURCE_NAME);
+
+    }
+
+    @Test
+    public void shouldAppendAllEventsToStreamInOneBatch() throws Exception {
+
+        when(eventRepository.getStreamSize(STREAM_ID)).thenReturn(CURRENT_VERSION);
+        when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
+
+        final JsonEnvelope event1 = envelopeFrom(
+                metadataBuilder().withId(randomUUID()).withName("my-event-1"),
+                createObjectBuilder());
+        final JsonEnvelope event2 = envelopeFrom(
+                metadataBuilder().withId(randomUUID()).withName("my-event-2"),
+                createObjectBuilder());
+
+        final long returnedVersion = eventStreamManager.append(STREAM_ID, Stream.of(event1, event2));
+
+        assertThat(returnedVersion, is(CURRENT_VERSION + 2));
+        verify(publishingEventAppender).appendAll(asList(event1, event2), STREAM_ID, CURRENT_VERSION + 1, EVENT_SOURCE_NAME);
+        verifyNoMoreInteractions(publishingEventAppender);
+        verifyNoInteractions(groupCommitEventAppender);
+    }
+
+    @Test
+    public void shouldAppendToStreamThroughTheGroupCommitAppenderWhenAppendingWithGroupCommit() throws Exception {
+
+        when(eventRepository.getStreamSize(STREAM_ID)).thenReturn(CURRENT_VERSION);
+        when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
+
+        final JsonEnvelope event = envelopeFrom(
+                metadataBuilder().withId(randomUUID()).withName("my-event"),
+                createObjectBuilder());
+
+        final long returnedVersion = eventStreamManager.appendWithGroupCommit(STREAM_ID, Stream.of(event));
+
+        assertThat(returnedVersion, is(CURRENT_VERSION + 1));
+        verify(groupCommitEventAppender).appendAll(singletonList(event), STREAM_ID, CURRENT_VERSION + 1, EVENT_SOURCE_NAME);
+        verifyNoInteractions(publishingEventAppender);
+    }
+
+    @Test
+    public void shouldAppendToStreamFromVersionThroughTheGroupCommitAppenderWhenAppendingWithGroupCommit() throws Exception {
+
+        when(eventRepository.getStreamSize(STREAM_ID)).thenReturn(CURRENT_VERSION);
+        when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
+
+        final JsonEnvelope event = envelopeFrom(
+                metadataBuilder().withId(randomUUID()).withName("my-event"),
+                createObjectBuilder());
 
+        final long returnedVersion = eventStreamManager.appendAfterWithGroupCommit(STREAM_ID, Stream.of(event), CURRENT_VERSION);
+
+        assertThat(returnedVersion, is(CURRENT_VERSION + 1));
+        verify(groupCommitEventAppender).appendAll(singletonList(event), STREAM_ID, CURRENT_VERSION + 1, EVENT_SOURCE_NAME);
+        verifyNoInteractions(publishingEventAppender);
     }
 
     @Test
@@ -127,7 +188,41 @@ public class EventStreamManagerTest {
         eventStreamManager.appendAfter(STREAM_ID, Stream.of(event), CURRENT_VERSION);
 
 
-        verify(publishingEventAppender).append(event, STREAM_ID, expectedVersion, EVENT_SOURCE_NAME);
+        verify(publishingEventAppender).appendAll(singletonList(event), STREAM_ID, expectedVersion, EVENT_SOURCE_NAME);
+    }
+
+    @Test
+    public void shouldReReadStreamSizeIfCachedStreamSizeIsBehindVersionToAppendAfter() throws Exception {
+
+        final JsonEnvelope event = envelopeFrom(
+                metadataBuilder().withId(randomUUID()).withName("my-event"),
+                createObjectBuilder());
+
+        when(eventRepository.getStreamSize(STREAM_ID)).thenReturn(CURRENT_VERSION - 1, CURRENT_VERSION);
+        when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
+
+        final long returnedVersion = eventStreamManager.appendAfter(STREAM_ID, Stream.of(event), CURRENT_VERSION);
+
+        assertThat(returnedVersion, is(CURRENT_VERSION + 1));
+        verify(eventRepository).invalidateStreamSize(STREAM_ID);
+        verify(publishingEventAppender).appendAll(singletonList(event), STREAM_ID, CURRENT_VERSION + 1, EVENT_SOURCE_NAME);
+    }
+
+    @Test
+    public void shouldReReadStreamSizeIfCachedStreamSizeIsAheadOfVersionToAppendAfter() throws Exception {
+
+        final JsonEnvelope event = envelopeFrom(
+                metadataBuilder().withId(randomUUID()).withName("my-event"),
+                createObjectBuilder());
+
+        when(eventRepository.getStreamSize(STREAM_ID)).thenReturn(CURRENT_VERSION + 5, INITIAL_VERSION);
+        when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
+
+        final long returnedVersion = eventStreamManager.appendAfter(STREAM_ID, Stream.of(event), INITIAL_VERSION);
+
+        assertThat(returnedVersion, is(INITIAL_VERSION + 1));
+        verify(eventRepository).invalidateStreamSize(STREAM_ID);
+        verify(publishingEventAppender).appendAll(singletonList(event), STREAM_ID, INITIAL_VERSION + 1, EVENT_SOURCE_NAME);
     }
 
     @Test
@@ -249,14 +344,14 @@ public class EventStreamManagerTest {
 
         eventStreamManager.appendNonConsecutively(STREAM_ID, Stream.of(event1, event2));
 
-        verify(publishingEventAppender).append(event1, STREAM_ID, CURRENT_VERSION + 1, EVENT_SOURCE_NAME);
-        verify(publishingEventAppender).append(event2, STREAM_ID, CURRENT_VERSION + 2, EVENT_SOURCE_NAME);
-
+        verify(publishingEventAppender).appendAtNextVersions(asList(event1, event2), STREAM_ID, EVENT_SOURCE_NAME);
+        verifyNoMoreInteractions(publishingEventAppender);
     }
 
     @Test
     public void shouldReturnCurrentVersionWhenAppendingNonConsecutively() throws Exception {
         when(eventRepository.getStreamSize(STREAM_ID)).thenReturn(CURRENT_VERSION);
+        when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
 
         final JsonEnvelope event1 = envelopeFrom(
                 metadataBuilder().withId(randomUUID()).withName("my-event-1"),
@@ -265,56 +360,57 @@ public class EventStreamManagerTest {
                 metadataBuilder().withId(randomUUID()).withName("my-event-2"),
                 createObjectBuilder());
 
+        when(publishingEventAppender.appendAtNextVersions(asList(event1, event2), STREAM_ID, EVENT_SOURCE_NAME)).thenReturn(CURRENT_VERSION + 2);
+
         long returnedVersion = eventStreamManager.appendNonConsecutively(STREAM_ID, Stream.of(event1, event2));
         assertThat(returnedVersion, is(CURRENT_VERSION + 2));
 
+        verify(nonConsecutiveAppendMetrics).incrementAppendCount();
+        verify(nonConsecutiveAppendMetrics, never()).incrementRetriesAvoidedCount();
     }
 
     @Test
-    public void shouldRetryWithNextVersionIdInCaseOfOptimisticLockException() throws Exception {
+    public void shouldReturnVersionAssignedByEventStoreAndCountRetryAvoidedIfStreamMovedOnWhenAppendingNonConsecutively() throws Exception {
 
         final long currentVersion = 6L;
-        final long currentVersionAfterException = 11L;
+        final long lastVersionAssigned = 12L;
 
-        when(eventRepository.getStreamSize(STREAM_ID))
-                .thenReturn(currentVersion).thenReturn(currentVersionAfterException);
-        when(maxRetryProvider.getMaxRetry()).thenReturn(20L);
+        when(eventRepository.getStreamSize(STREAM_ID)).thenReturn(currentVersion);
         when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
 
-
         final JsonEnvelope event1 = envelopeFrom(
                 metadataBuilder().withId(randomUUID()).withName("my-event-1"),
                 createObjectBuilder());
         final JsonEnvelope event2 = envelopeFrom(
                 metadataBuilder().withId(randomUUID()).withName("my-event-2"),
                 createObjectBuilder());
-        final JsonEnvelope event3 = envelopeFrom(
-                metadataBuilder().withId(randomUUID()).withName("my-event-3"),
-                createObjectBuilder());
 
-        doNothing().when(publishingEventAppender).append(eq(event1), eq(STREAM_ID), anyLong(), eq(EVENT_SOURCE_NAME));
-        doThrow(OptimisticLockingRetryException.class).when(publishingEventAppender).append(eq(event2), eq(STREAM_ID), eq(currentVersion + 2), eq(EVENT_SOURCE_NAME));
-        doNothing().when(publishingEventAppender).append(eq(event2), eq(STREAM_ID), eq(currentVersionAfterException + 1), eq(EVENT_SOURCE_NAME));
-        doNothing().when(publishingEventAppender).append(eq(event3), eq(STREAM_ID), anyLong(), eq(EVENT_SOURCE_NAME));
+        when(publishingEventAppender.appendAtNextVersions(asList(event1, event2), STREAM_ID, EVENT_SOURCE_NAME)).thenReturn(lastVersionAssigned);
 
-        eventStreamManager.appendNonConsecutively(STREAM_ID, Stream.of(event1, event2, event3));
+        final long returnedVersion = eventStreamManager.appendNonConsecutively(STREAM_ID, Stream.of(event1, event2));
 
-        verify(publishingEventAppender).append(event1, STREAM_ID, currentVersion + 1, EVENT_SOURCE_NAME);
-        verify(publishingEventAppender).append(event2, STREAM_ID, currentVersion + 2, EVENT_SOURCE_NAME);
-        verify(publishingEventAppender).append(event2, STREAM_ID, currentVersionAfterException + 1, EVENT_SOURCE_NAME);
-        verify(publishingEventAppender).append(event3, STREAM_ID, currentVersionAfterException + 2, EVENT_SOURCE_NAME);
+        assertThat(returnedVersion, is(lastVersionAssigned));
+        verify(nonConsecutiveAppendMetrics).incrementAppendCount();
+        verify(nonConsecutiveAppendMetrics).incrementRetriesAvoidedCount();
+        verify(logger).trace("Stream {} moved on from version {} while appending, events appended up to version {}", STREAM_ID, currentVersion, lastVersionAssigned);
     }
 
     @Test
-    public void shouldTraceLogAnAttemptedRetry() throws Exception {
+    public void shouldNotAppendAnythingWhenAppendingNoEventsNonConsecutively() throws Exception {
 
-        final long currentVersion = 6L;
-        final long currentVersionAfterException = 11L;
+        when(eventRepository.getStreamSize(STREAM_ID)).thenReturn(CURRENT_VERSION);
 
-        when(eventRepository.getStreamSize(STREAM_ID))
-                .thenReturn(currentVersion).thenReturn(currentVersionAfterException);
-        when(maxRetryProvider.getMaxRetry()).thenReturn(20L);
-        when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
+        final long returnedVersion = eventStreamManager.appendNonConsecutively(STREAM_ID, Stream.empty());
+
+        assertThat(returnedVersion, is(CURRENT_VERSION));
+        verifyNoInteractions(publishingEventAppender, nonConsecutiveAppendMetrics);
+    }
+
+    @Test
+    public void shouldAppendToSeveralStreamsInOneBatch() throws Exception {
+
+        final UUID streamId_1 = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        final UUID streamId_2 = UUID.fromString("80000000-0000-0000-0000-000000000002");
 
         final JsonEnvelope event1 = envelopeFrom(
                 metadataBuilder().withId(randomUUID()).withName("my-event-1"),
@@ -326,122 +422,127 @@ public class EventStreamManagerTest {
                 metadataBuilder().withId(randomUUID()).withName("my-event-3"),
                 createObjectBuilder());
 
-        doNothing().when(publishingEventAppender).append(eq(event1), eq(STREAM_ID), anyLong(), eq(EVENT_SOURCE_NAME));
-        doThrow(OptimisticLockingRetryException.class).when(publishingEventAppender).append(eq(event2), eq(STREAM_ID), eq(currentVersion + 2), eq(EVENT_SOURCE_NAME));
-        doNothing().when(publishingEventAppender).append(eq(event2), eq(STREAM_ID), eq(currentVersionAfterException + 1), eq(EVENT_SOURCE_NAME));
-        doNothing().when(publishingEventAppender).append(eq(event3), eq(STREAM_ID), anyLong(), eq(EVENT_SOURCE_NAME));
+        final Map<UUID, StreamAppend> streamAppends = new HashMap<>();
+        streamAppends.put(streamId_2, new StreamAppend(INITIAL_VERSION, singletonList(event3)));
+        streamAppends.put(streamId_1, new StreamAppend(CURRENT_VERSION, asList(event1, event2)));
 
-        eventStreamManager.appendNonConsecutively(STREAM_ID, Stream.of(event1, event2, event3));
+        final Map<UUID, Long> currentVersions = new HashMap<>();
+        currentVersions.put(streamId_1, CURRENT_VERSION);
+        currentVersions.put(streamId_2, INITIAL_VERSION);
 
-        verify(logger).trace("Retrying appending to stream {}, with version {}", STREAM_ID, currentVersionAfterException + 1);
+        when(eventRepository.lockStreamSizes(Set.of(streamId_1, streamId_2))).thenReturn(currentVersions);
+        when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
+        when(publishingEventAppender.eventFrom(any(), any(), anyLong(), any())).thenCallRealMethod();
+
+        final Map<UUID, Long> newVersions = eventStreamManager.appendToStreams(streamAppends);
+
+        assertThat(newVersions.get(streamId_1), is(CURRENT_VERSION + 2));
+        assertThat(newVersions.get(streamId_2), is(INITIAL_VERSION + 1));
+
+        verify(eventRepository).createEventStreams(singletonList(streamId_2));
+        verify(eventRepository, never()).createEventStream(any(UUID.class));
+        verify(eventRepository).storeEventsOfLockedStreams(appendsCaptor.capture());
+
+        final List<List<JsonEnvelope>> appends = appendsCaptor.getValue();
+        assertThat(appends.size(), is(2));
+        assertThat(appends.get(0).get(0).metadata().name(), is("my-event-1"));
+        assertThat(appends.get(0).get(0).metadata().streamId(), is(Optional.of(streamId_1)));
+        assertThat(appends.get(0).get(0).metadata().position(), is(Optional.of(CURRENT_VERSION + 1)));
+        assertThat(appends.get(0).get(1).metadata().position(), is(Optional.of(CURRENT_VERSION + 2)));
+        assertThat(appends.get(1).get(0).metadata().name(), is("my-event-3"));
+        assertThat(appends.get(1).get(0).metadata().streamId(), is(Optional.of(streamId_2)));
+        assertThat(appends.get(1).get(0).metadata().position(), is(Optional.of(INITIAL_VERSION + 1)));
     }
 
     @Test
-    public void shouldThrowExceptionAfterMaxNumberOfRetriesReached() throws Exception {
+    public void shouldThrowVersionMismatchExceptionNamingTheStreamThatIsBehindWhenAppendingToSeveralStreams() throws Exception {
 
-        final long currentVersion = 6L;
-        final long currentVersionAfterException1 = 11L;
-        final long currentVersionAfterException2 = 12L;
-
-        when(eventRepository.getStreamSize(STREAM_ID))
-                .thenReturn(currentVersion)
-                .thenReturn(currentVersionAfterException1)
-                .thenReturn(currentVersionAfterException2);
-        when(maxRetryProvider.getMaxRetry()).thenReturn(2L);
-        when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
+        final UUID streamId_1 = randomUUID();
+        final UUID streamId_2 = randomUUID();
 
-        final JsonEnvelope event = envelopeFrom(
-                metadataBuilder().withId(randomUUID()).withName("my-event"),
-                createObjectBuilder());
+        final Map<UUID, StreamAppend> streamAppends = new HashMap<>();
+        streamAppends.put(streamId_1, new StreamAppend(CURRENT_VERSION, singletonList(envelopeFrom(
+                metadataBuilder().withId(randomUUID()).withName("my-event-1"),
+                createObjectBuilder()))));
+        streamAppends.put(streamId_2, new StreamAppend(INVALID_VERSION, singletonList(envelopeFrom(
+                metadataBuilder().withId(randomUUID()).withName("my-event-2"),
+                createObjectBuilder()))));
+
+        final Map<UUID, Long> currentVersions = new HashMap<>();
+        currentVersions.put(streamId_1, CURRENT_VERSION);
+        currentVersions.put(streamId_2, CURRENT_VERSION);
 
-        doThrow(OptimisticLockingRetryException.class).when(publishingEventAppender).append(event, STREAM_ID, currentVersion + 1, EVENT_SOURCE_NAME);
-        doThrow(OptimisticLockingRetryException.class).when(publishingEventAppender).append(event, STREAM_ID, currentVersionAfterException1 + 1, EVENT_SOURCE_NAME);
-        doThrow(OptimisticLockingRetryException.class).when(publishingEventAppender).append(event, STREAM_ID, currentVersionAfterException2 + 1, EVENT_SOURCE_NAME);
+        when(eventRepository.lockStreamSizes(Set.of(streamId_1, streamId_2))).thenReturn(currentVersions);
 
+        final VersionMismatchException versionMismatchException = assertThrows(
+                VersionMismatchException.class,
+                () -> eventStreamManager.appendToStreams(streamAppends));
 
-        assertThrows(OptimisticLockingRetryException.class, () ->
-                eventStreamManager.appendNonConsecutively(STREAM_ID, Stream.of(event))
-        );
+        assertThat(versionMismatchException.getMessage(), is("Failed to append to streams due to a version mismatch; stream " + streamId_2 + " expected 8, found 5"));
+        verify(eventRepository, never()).createEventStreams(any());
+        verify(eventRepository, never()).storeEventsOfLockedStreams(any());
     }
 
     @Test
-    public void shouldLogWarningAfterMaxNumberOfRetriesReached() throws Exception {
-
-        final long currentVersion = 6L;
-        final long currentVersionAfterException1 = 11L;
-        final long currentVersionAfterException2 = 12L;
-
-        when(eventRepository.getStreamSize(STREAM_ID))
-                .thenReturn(currentVersion)
-                .thenReturn(currentVersionAfterException1)
-                .thenReturn(currentVersionAfterException2);
-        when(maxRetryProvider.getMaxRetry()).thenReturn(2L);
-        when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
+    public void shouldThrowOptimisticLockingRetryExceptionNamingTheStreamThatHasMovedOnWhenAppendingToSeveralStreams() throws Exception {
 
+        final UUID streamId = randomUUID();
 
-        final JsonEnvelope event = envelopeFrom(
+        final Map<UUID, StreamAppend> streamAppends = singletonMap(streamId, new StreamAppend(CURRENT_VERSION, singletonList(envelopeFrom(
                 metadataBuilder().withId(randomUUID()).withName("my-event"),
-                createObjectBuilder());
+                createObjectBuilder()))));
 
-        doThrow(OptimisticLockingRetryException.class).when(publishingEventAppender).append(event, STREAM_ID, currentVersion + 1, EVENT_SOURCE_NAME);
-        doThrow(OptimisticLockingRetryException.class).when(publishingEventAppender).append(event, STREAM_ID, currentVersionAfterException1 + 1, EVENT_SOURCE_NAME);
-        doThrow(OptimisticLockingRetryException.class).when(publishingEventAppender).append(event, STREAM_ID, currentVersionAfterException2 + 1, EVENT_SOURCE_NAME);
+        when(eventRepository.lockStreamSizes(Set.of(streamId))).thenReturn(singletonMap(streamId, CURRENT_VERSION + 1));
 
-        try {
-            eventStreamManager.appendNonConsecutively(STREAM_ID, Stream.of(event));
-        } catch (final OptimisticLockingRetryException e) {
-        }
+        final OptimisticLockingRetryException optimisticLockingRetryException = assertThrows(
+                OptimisticLockingRetryException.class,
+                () -> eventStreamManager.appendToStreams(streamAppends));
 
-        verify(logger).warn("Failed to append to stream {} due to concurrency issues, returning to handler.", STREAM_ID);
+        assertThat(optimisticLockingRetryException.getMessage(), is("Optimistic locking failure while appending to streams which have moved on; stream " + streamId + " expected 5, found 6"));
+        verify(eventRepository, never()).storeEventsOfLockedStreams(any());
     }
 
     @Test
-    public void shouldCloneStreamWithBlankVersions() throws EventStreamException {
+    public void shouldCloneStreamInTheEventStoreAndAppendSystemEventToTheClone() throws Exception {
 
-        final JsonEnvelope event = buildEnvelope("test.events.event1");
         final JsonEnvelope systemEvent = buildEnvelope("system.events.cloned");
 
         when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
-        when(eventRepository.getEventsByStreamId(STREAM_ID)).thenReturn(Stream.of(event));
+        when(eventRepository.cloneEventStream(eq(STREAM_ID), any(UUID.class), eq(EVENT_SOURCE_NAME))).thenReturn(2L);
         when(systemEventService.clonedEventFor(STREAM_ID)).thenReturn(systemEvent);
+        when(publishingEventAppender.eventFrom(any(), any(), anyLong(), any())).thenCallRealMethod();
 
         final UUID clonedId = eventStreamManager.cloneAsAncestor(STREAM_ID);
 
         assertThat(clonedId, is(notNullValue()));
         assertThat(clonedId, is(not(STREAM_ID)));
 
-        verify(publishingEventAppender, times(2)).append(eventCaptor.capture(), eq(clonedId), versionCaptor.capture(), eq(EVENT_SOURCE_NAME));
-        final List<JsonEnvelope> clonedEvents = eventCaptor.getAllValues();
+        verify(eventRepository).cloneEventStream(STREAM_ID, clonedId, EVENT_SOURCE_NAME);
+        verify(eventRepository).storeEvents(eventsCaptor.capture());
 
-        assertThat(versionCaptor.getAllValues(), hasItems(1L, 2L));
-        assertThat(clonedEvents, hasItems(systemEvent));
-        final JsonEnvelope clonedEvent = clonedEvents.get(0);
-        assertThat(clonedEvent.metadata().name(), is("test.events.event1"));
-        assertThat(clonedEvent.metadata().position(), is(empty()));
+        final List<JsonEnvelope> storedEvents = eventsCaptor.getValue();
+        assertThat(storedEvents.size(), is(1));
+        assertThat(storedEvents.get(0).metadata().name(), is("system.events.cloned"));
+        assertThat(storedEvents.get(0).metadata().streamId(), is(Optional.of(clonedId)));
+        assertThat(storedEvents.get(0).metadata().position(), is(Optional.of(3L)));
 
-        verify(eventRepository).markEventStreamActive(clonedId, false);
+        verify(eventRepository, never()).getEventsByStreamId(any());
     }
 
     @Test
-    public void shouldCloneAllEventsOnAStream() throws EventStreamException {
+    public void shouldAppendSystemEventAsFirstEventOfCloneOfEmptyStream() throws Exception {
 
-        final JsonEnvelope event1 = buildEnvelope("test.events.event1");
-        final JsonEnvelope event2 = buildEnvelope("test.events.event2");
         final JsonEnvelope systemEvent = buildEnvelope("system.events.cloned");
 
-        when(eventRepository.getEventsByStreamId(STREAM_ID)).thenReturn(Stream.of(event1, event2));
-        when(systemEventService.clonedEventFor(STREAM_ID)).thenReturn(systemEvent);
         when(eventSourceNameProvider.getDefaultEventSourceName()).thenReturn(EVENT_SOURCE_NAME);
+        when(eventRepository.cloneEventStream(eq(STREAM_ID), any(UUID.class), eq(EVENT_SOURCE_NAME))).thenReturn(0L);
+        when(systemEventService.clonedEventFor(STREAM_ID)).thenReturn(systemEvent);
+        when(publishingEventAppender.eventFrom(any(), any(), anyLong(), any())).thenCallRealMethod();
 
-        final UUID clonedId = eventStreamManager.cloneAsAncestor(STREAM_ID);
-
-        assertThat(clonedId, is(notNullValue()));
-        assertThat(clonedId, is(not(STREAM_ID)));
-
-        verify(publishingEventAppender, times(3)).append(eventCaptor.capture(), eq(clonedId), versionCaptor.capture(), eq(EVENT_SOURCE_NAME));
-        assertThat(versionCaptor.getAllValues(), hasItems(1L, 2L, 3L));
+        eventStreamManager.cloneAsAncestor(STREAM_ID);
 
-        verify(eventRepository).markEventStreamActive(clonedId, false);
+        verify(eventRepository).storeEvents(eventsCaptor.capture());
+        assertThat(eventsCaptor.getValue().get(0).metadata().position(), is(Optional.of(1L)));
     }
 
     @Test
@@ -450,6 +551,40 @@ public class EventStreamManagerTest {
 
         verify(eventRepository).clearEventsForStream(STREAM_ID);
         verifyNoMoreInteractions(eventRepository, publishingEventAppender);
+        verifyNoInteractions(chunkedStreamDeleter);
+    }
+
+    @Test
+    public void shouldClearEventStreamInChunks() throws Exception {
+
+        final StreamDeletionProgressListener streamDeletionProgressListener = mock(StreamDeletionProgressListener.class);
+
+        when(chunkedStreamDeleter.clearStream(STREAM_ID)).thenReturn(2500L);
+        when(chunkedStreamDeleter.clearStream(STREAM_ID, streamDeletionProgressListener)).thenReturn(1500L);
+
+        assertThat(eventStreamManager.clearInChunks(STREAM_ID), is(2500L));
+        assertThat(eventStreamManager.clearInChunks(STREAM_ID, streamDeletionProgressListener), is(1500L));
+        verifyNoInteractions(eventRepository, publishingEventAppender);
+    }
+
+    @Test
+    public void shouldDeleteEventStreamInChunks() throws Exception {
+
+        when(chunkedStreamDeleter.deleteStream(STREAM_ID)).thenReturn(2500L);
+
+        assertThat(eventStreamManager.delete(STREAM_ID), is(2500L));
+        verifyNoInteractions(eventRepository, publishingEventAppender);
+    }
+
+    @Test
+    public void shouldDeleteEventStreamInChunksReportingProgress() throws Exception {
+
+        final StreamDeletionProgressListener streamDeletionProgressListener = mock(StreamDeletionProgressListener.class);
+
+        when(chunkedStreamDeleter.deleteStream(STREAM_ID, streamDeletionProgressListener)).thenReturn(2500L);
+
+        assertThat(eventStreamManager.delete(STREAM_ID, streamDeletionProgressListener), is(2500L));
+        verifyNoInteractions(eventRepository, publishingEventAppender);
     }
 
     @Test
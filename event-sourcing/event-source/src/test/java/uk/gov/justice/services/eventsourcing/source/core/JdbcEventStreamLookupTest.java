@@ -0,0 +1,52 @@
+package uk.gov.justice.services.eventsourcing.source.core;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.EventRepository;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class JdbcEventStreamLookupTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @InjectMocks
+    private JdbcEventStreamLookup jdbcEventStreamLookup;
+
+    @Test
+    public void shouldCheckWhetherAnEventStreamExistsAtAPosition() throws Exception {
+
+        when(eventRepository.eventStreamExistsAtPosition(23L)).thenReturn(true);
+
+        assertThat(jdbcEventStreamLookup.eventStreamExists(23L), is(true));
+    }
+
+    @Test
+    public void shouldCountTheEventStreamsFromAPosition() throws Exception {
+
+        when(eventRepository.countEventStreamsFromPosition(1L)).thenReturn(42L);
+
+        assertThat(jdbcEventStreamLookup.countEventStreamsFrom(1L), is(42L));
+    }
+
+    @Test
+    public void shouldCheckWhetherAStreamHasEventsFromAPosition() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        when(eventRepository.hasEventsFromPosition(streamId, 5L)).thenReturn(false);
+
+        assertThat(jdbcEventStreamLookup.eventExistsFrom(streamId, 5L), is(false));
+    }
+}
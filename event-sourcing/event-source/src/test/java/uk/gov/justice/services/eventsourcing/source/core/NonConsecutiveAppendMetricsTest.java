@@ -0,0 +1,41 @@
+package uk.gov.justice.services.eventsourcing.source.core;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import org.junit.jupiter.api.Test;
+
+public class NonConsecutiveAppendMetricsTest {
+
+    private final NonConsecutiveAppendMetrics nonConsecutiveAppendMetrics = new NonConsecutiveAppendMetrics();
+
+    @Test
+    public void shouldCountAppendsAndRetriesAvoided() {
+
+        nonConsecutiveAppendMetrics.incrementAppendCount();
+        nonConsecutiveAppendMetrics.incrementAppendCount();
+        nonConsecutiveAppendMetrics.incrementAppendCount();
+        nonConsecutiveAppendMetrics.incrementRetriesAvoidedCount();
+
+        assertThat(nonConsecutiveAppendMetrics.getAppendCount(), is(3L));
+        assertThat(nonConsecutiveAppendMetrics.getRetriesAvoidedCount(), is(1L));
+    }
+
+    @Test
+    public void shouldRegisterWithThePipelineMetrics() {
+
+        final PipelineMetrics pipelineMetrics = mock(PipelineMetrics.class);
+        setField(nonConsecutiveAppendMetrics, "pipelineMetrics", pipelineMetrics);
+
+        nonConsecutiveAppendMetrics.register();
+
+        verify(pipelineMetrics).register(nonConsecutiveAppendMetrics);
+        assertThat(nonConsecutiveAppendMetrics.getMetricsType(), is("EventStoreMetrics"));
+        assertThat(nonConsecutiveAppendMetrics.getMetricsName(), is("non-consecutive-appends"));
+    }
+}
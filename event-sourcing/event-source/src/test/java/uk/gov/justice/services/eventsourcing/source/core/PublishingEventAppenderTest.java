@@ -1,6 +1,9 @@
 package uk.gov.justice.services.eventsourcing.source.core;
 
 import static co.unruly.matchers.OptionalMatchers.contains;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.UUID.randomUUID;
 import static javax.json.Json.createObjectBuilder;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -8,8 +11,11 @@ import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
 import static uk.gov.justice.services.messaging.JsonEnvelope.metadataBuilder;
 
@@ -18,6 +24,7 @@ import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.StoreEven
 import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
@@ -131,4 +138,112 @@ public class PublishingEventAppenderTest {
         verify(eventRepository, times(0)).
                 createEventStream(streamId);
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldStoreAllEventsInRepoInOneBatchWithConsecutiveVersions() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        final JsonEnvelope event_1 = envelopeFrom(
+                metadataBuilder()
+                        .withName("name_1")
+                        .withId(randomUUID()),
+                createObjectBuilder()
+                        .add("somePayloadField", "payloadValue_1"));
+        final JsonEnvelope event_2 = envelopeFrom(
+                metadataBuilder()
+                        .withName("name_2")
+                        .withId(randomUUID()),
+                createObjectBuilder()
+                        .add("somePayloadField", "payloadValue_2"));
+
+        eventAppender.appendAll(asList(event_1, event_2), streamId, 1L, DEFAULT_EVENT_SOURCE_NAME);
+
+        final ArgumentCaptor<List<JsonEnvelope>> envelopesCaptor = ArgumentCaptor.forClass(List.class);
+
+        verify(eventRepository).createEventStream(streamId);
+        verify(eventRepository).storeEvents(envelopesCaptor.capture());
+
+        final List<JsonEnvelope> storedEnvelopes = envelopesCaptor.getValue();
+        assertThat(storedEnvelopes.size(), is(2));
+        assertThat(storedEnvelopes.get(0).metadata().streamId(), contains(streamId));
+        assertThat(storedEnvelopes.get(0).metadata().position(), contains(1L));
+        assertThat(storedEnvelopes.get(0).metadata().name(), is("name_1"));
+        assertThat(storedEnvelopes.get(1).metadata().streamId(), contains(streamId));
+        assertThat(storedEnvelopes.get(1).metadata().position(), contains(2L));
+        assertThat(storedEnvelopes.get(1).metadata().name(), is("name_2"));
+    }
+
+    @Test
+    public void shouldNotStoreAnythingWhenAppendingAnEmptyBatch() throws Exception {
+
+        eventAppender.appendAll(emptyList(), randomUUID(), 1L, DEFAULT_EVENT_SOURCE_NAME);
+
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenStoreEventsRequestFails() throws Exception {
+        doThrow(StoreEventRequestFailedException.class).when(eventRepository).storeEvents(any());
+
+        final JsonEnvelope jsonEnvelope = envelopeFrom(
+                metadataBuilder()
+                        .withName("name123")
+                        .withId(randomUUID()),
+                createObjectBuilder());
+
+        assertThrows(EventStreamException.class, () -> eventAppender.appendAll(singletonList(jsonEnvelope), randomUUID(), 3L, DEFAULT_EVENT_SOURCE_NAME));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldStoreAllEventsAtTheVersionsReservedInTheRepo() throws Exception {
+
+        final UUID streamId = randomUUID();
+
+        final JsonEnvelope event_1 = envelopeFrom(
+                metadataBuilder()
+                        .withName("name_1")
+                        .withId(randomUUID()),
+                createObjectBuilder());
+        final JsonEnvelope event_2 = envelopeFrom(
+                metadataBuilder()
+                        .withName("name_2")
+                        .withId(randomUUID()),
+                createObjectBuilder());
+
+        when(eventRepository.reserveStreamPositions(streamId, 2)).thenReturn(9L);
+
+        final long lastVersion = eventAppender.appendAtNextVersions(asList(event_1, event_2), streamId, DEFAULT_EVENT_SOURCE_NAME);
+
+        assertThat(lastVersion, is(9L));
+
+        final ArgumentCaptor<List<JsonEnvelope>> envelopesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(eventRepository).storeEventsAtReservedPositions(envelopesCaptor.capture());
+        verify(eventRepository, never()).createEventStream(streamId);
+
+        final List<JsonEnvelope> storedEnvelopes = envelopesCaptor.getValue();
+        assertThat(storedEnvelopes.size(), is(2));
+        assertThat(storedEnvelopes.get(0).metadata().streamId(), contains(streamId));
+        assertThat(storedEnvelopes.get(0).metadata().position(), contains(8L));
+        assertThat(storedEnvelopes.get(1).metadata().streamId(), contains(streamId));
+        assertThat(storedEnvelopes.get(1).metadata().position(), contains(9L));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenStoreEventsAtReservedPositionsRequestFails() throws Exception {
+        final UUID streamId = randomUUID();
+
+        when(eventRepository.reserveStreamPositions(streamId, 1)).thenReturn(1L);
+        doThrow(StoreEventRequestFailedException.class).when(eventRepository).storeEventsAtReservedPositions(any());
+
+        final JsonEnvelope jsonEnvelope = envelopeFrom(
+                metadataBuilder()
+                        .withName("name123")
+                        .withId(randomUUID()),
+                createObjectBuilder());
+
+        assertThrows(EventStreamException.class, () -> eventAppender.appendAtNextVersions(singletonList(jsonEnvelope), streamId, DEFAULT_EVENT_SOURCE_NAME));
+    }
 }
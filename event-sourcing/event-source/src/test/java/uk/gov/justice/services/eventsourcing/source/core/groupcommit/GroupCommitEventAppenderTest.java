@@ -0,0 +1,246 @@
+package uk.gov.justice.services.eventsourcing.source.core.groupcommit;
+
+import static co.unruly.matchers.OptionalMatchers.contains;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static javax.transaction.Status.STATUS_ACTIVE;
+import static javax.transaction.Status.STATUS_NO_TRANSACTION;
+import static javax.json.Json.createObjectBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+import static uk.gov.justice.services.messaging.JsonEnvelope.metadataBuilder;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.OptimisticLockingRetryException;
+import uk.gov.justice.services.eventsourcing.repository.jdbc.exception.StoreEventRequestFailedException;
+import uk.gov.justice.services.eventsourcing.source.core.PublishingEventAppender;
+import uk.gov.justice.services.eventsourcing.source.core.exception.EventStreamException;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupCommitEventAppenderTest {
+
+    private static final String EVENT_SOURCE_NAME = "eventSourceName";
+
+    @Mock
+    private GroupCommitWriter groupCommitWriter;
+
+    @Mock
+    private PublishingEventAppender publishingEventAppender;
+
+    @Mock
+    private GroupCommitMetrics groupCommitMetrics;
+
+    @Mock
+    private Logger logger;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @InjectMocks
+    private GroupCommitEventAppender groupCommitEventAppender;
+
+    @Captor
+    private ArgumentCaptor<List<PendingAppend>> groupCaptor;
+
+    @BeforeEach
+    public void setUp() {
+        setField(groupCommitEventAppender, "groupCommitEnabled", "true");
+        setField(groupCommitEventAppender, "commitWindowMillis", "0");
+        setField(groupCommitEventAppender, "maxEventsPerCommit", "500");
+    }
+
+    @Test
+    public void shouldWriteEventsWithStreamIdAndConsecutiveVersions() throws Exception {
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+        final UUID streamId = randomUUID();
+
+        when(groupCommitWriter.write(any())).thenReturn(emptyList());
+
+        groupCommitEventAppender.appendAll(asList(event("name_1"), event("name_2")), streamId, 4L, EVENT_SOURCE_NAME);
+
+        verify(groupCommitWriter).write(groupCaptor.capture());
+
+        final List<PendingAppend> group = groupCaptor.getValue();
+        assertThat(group.size(), is(1));
+        assertThat(group.get(0).getStreamId(), is(streamId));
+        assertThat(group.get(0).getFirstVersion(), is(4L));
+
+        final List<JsonEnvelope> events = group.get(0).getEvents();
+        assertThat(events.get(0).metadata().streamId(), contains(streamId));
+        assertThat(events.get(0).metadata().position(), contains(4L));
+        assertThat(events.get(1).metadata().position(), contains(5L));
+
+        verify(groupCommitMetrics).commitCompleted(1, 2);
+        verify(groupCommitMetrics).appendCompleted(anyLong());
+    }
+
+    @Test
+    public void shouldNotWriteAnythingWhenAppendingAnEmptyList() throws Exception {
+
+        groupCommitEventAppender.appendAll(emptyList(), randomUUID(), 1L, EVENT_SOURCE_NAME);
+
+        verifyNoInteractions(groupCommitWriter, groupCommitMetrics);
+    }
+
+    @Test
+    public void shouldThrowOptimisticLockingRetryExceptionIfAppendWasRejected() throws Exception {
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+        final UUID streamId = randomUUID();
+
+        when(groupCommitWriter.write(any())).thenAnswer(invocation -> {
+            final List<PendingAppend> group = invocation.getArgument(0);
+            return singletonList(group.get(0).getEvents());
+        });
+
+        final OptimisticLockingRetryException optimisticLockingRetryException = assertThrows(
+                OptimisticLockingRetryException.class,
+                () -> groupCommitEventAppender.append(event("name"), streamId, 3L, EVENT_SOURCE_NAME));
+
+        assertThat(optimisticLockingRetryException.getMessage(), is("Locking Exception while storing sequence 3 of stream " + streamId));
+        verify(groupCommitMetrics).conflictDetected();
+        verify(groupCommitMetrics).commitCompleted(0, 0);
+    }
+
+    @Test
+    public void shouldWriteAppendsOneAtATimeIfWritingTheGroupConflicts() throws Exception {
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+        when(groupCommitWriter.write(any()))
+                .thenThrow(new OptimisticLockingRetryException("Ooops"))
+                .thenReturn(emptyList());
+
+        groupCommitEventAppender.append(event("name"), randomUUID(), 3L, EVENT_SOURCE_NAME);
+
+        verify(groupCommitWriter, times(2)).write(any());
+        verify(groupCommitMetrics).commitCompleted(1, 1);
+    }
+
+    @Test
+    public void shouldThrowEventStreamExceptionIfWritingFails() throws Exception {
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+        final StoreEventRequestFailedException storeEventRequestFailedException = new StoreEventRequestFailedException("Ooops", new RuntimeException());
+        when(groupCommitWriter.write(any())).thenThrow(storeEventRequestFailedException);
+
+        final EventStreamException eventStreamException = assertThrows(
+                EventStreamException.class,
+                () -> groupCommitEventAppender.append(event("name"), randomUUID(), 3L, EVENT_SOURCE_NAME));
+
+        assertThat(eventStreamException.getCause(), is(storeEventRequestFailedException));
+    }
+
+    @Test
+    public void shouldWriteAppendsOfConcurrentCallersInOneGroup() throws Exception {
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+        setField(groupCommitEventAppender, "commitWindowMillis", "10000");
+        setField(groupCommitEventAppender, "maxEventsPerCommit", "2");
+
+        when(groupCommitWriter.write(any())).thenReturn(emptyList());
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> first = executorService.submit(() -> append(randomUUID()));
+            final Future<?> second = executorService.submit(() -> append(randomUUID()));
+
+            first.get(5, SECONDS);
+            second.get(5, SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        verify(groupCommitWriter).write(groupCaptor.capture());
+        assertThat(groupCaptor.getValue().size(), is(2));
+        verify(groupCommitMetrics).commitCompleted(2, 2);
+    }
+
+    @Test
+    public void shouldWriteEachAppendOnItsOwnWithoutWaitingForOtherCallersIfGroupCommitIsNotEnabled() throws Exception {
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+        setField(groupCommitEventAppender, "groupCommitEnabled", "false");
+        setField(groupCommitEventAppender, "commitWindowMillis", "10000");
+
+        when(groupCommitWriter.write(any())).thenReturn(emptyList());
+
+        final UUID streamId = randomUUID();
+
+        groupCommitEventAppender.appendAll(asList(event("name_1"), event("name_2")), streamId, 1L, EVENT_SOURCE_NAME);
+
+        verify(groupCommitWriter).write(groupCaptor.capture());
+        assertThat(groupCaptor.getValue().size(), is(1));
+        assertThat(groupCaptor.getValue().get(0).getStreamId(), is(streamId));
+        verifyNoInteractions(publishingEventAppender);
+    }
+
+    @Test
+    public void shouldAppendInTheCallersTransactionRatherThanGroupIfTheCallerIsInATransaction() throws Exception {
+
+        final UUID streamId = randomUUID();
+        final List<JsonEnvelope> events = asList(event("name_1"), event("name_2"));
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_ACTIVE);
+
+        groupCommitEventAppender.appendAll(events, streamId, 4L, EVENT_SOURCE_NAME);
+
+        verify(publishingEventAppender).appendAll(events, streamId, 4L, EVENT_SOURCE_NAME);
+        verify(groupCommitMetrics).appendedInCallerTransaction();
+        verifyNoInteractions(groupCommitWriter);
+    }
+
+    @Test
+    public void shouldNotGroupAppendsAtVersionsAssignedByTheEventStore() throws Exception {
+
+        final UUID streamId = randomUUID();
+        final List<JsonEnvelope> events = singletonList(event("name"));
+
+        when(publishingEventAppender.appendAtNextVersions(events, streamId, EVENT_SOURCE_NAME)).thenReturn(7L);
+
+        assertThat(groupCommitEventAppender.appendAtNextVersions(events, streamId, EVENT_SOURCE_NAME), is(7L));
+
+        verifyNoInteractions(groupCommitWriter);
+    }
+
+    private Void append(final UUID streamId) throws EventStreamException {
+        groupCommitEventAppender.append(event("name"), streamId, 1L, EVENT_SOURCE_NAME);
+        return null;
+    }
+
+    private JsonEnvelope event(final String name) {
+        return envelopeFrom(
+                metadataBuilder().withId(randomUUID()).withName(name),
+                createObjectBuilder());
+    }
+}
@@ -0,0 +1,55 @@
+package uk.gov.justice.services.eventsourcing.source.core.groupcommit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
+
+import org.junit.jupiter.api.Test;
+
+public class GroupCommitMetricsTest {
+
+    private final GroupCommitMetrics groupCommitMetrics = new GroupCommitMetrics();
+
+    @Test
+    public void shouldReportThroughputAndLatencyOfGroupCommits() {
+
+        groupCommitMetrics.commitCompleted(3, 7);
+        groupCommitMetrics.commitCompleted(1, 1);
+        groupCommitMetrics.conflictDetected();
+        groupCommitMetrics.appendedInCallerTransaction();
+        groupCommitMetrics.appendCompleted(2_000_000L);
+        groupCommitMetrics.appendCompleted(4_000_000L);
+
+        assertThat(groupCommitMetrics.getCommitCount(), is(2L));
+        assertThat(groupCommitMetrics.getAppendCount(), is(4L));
+        assertThat(groupCommitMetrics.getEventCount(), is(8L));
+        assertThat(groupCommitMetrics.getConflictCount(), is(1L));
+        assertThat(groupCommitMetrics.getAppendsInCallerTransactionCount(), is(1L));
+        assertThat(groupCommitMetrics.getAverageAppendsPerCommit(), is(2.0));
+        assertThat(groupCommitMetrics.getAverageAppendLatencyMicros(), is(3000L));
+        assertThat(groupCommitMetrics.getMaxAppendLatencyMicros(), is(4000L));
+    }
+
+    @Test
+    public void shouldRegisterWithThePipelineMetrics() {
+
+        final PipelineMetrics pipelineMetrics = mock(PipelineMetrics.class);
+        setField(groupCommitMetrics, "pipelineMetrics", pipelineMetrics);
+
+        groupCommitMetrics.register();
+
+        verify(pipelineMetrics).register(groupCommitMetrics);
+        assertThat(groupCommitMetrics.getMetricsType(), is("EventStoreMetrics"));
+        assertThat(groupCommitMetrics.getMetricsName(), is("group-commit"));
+    }
+
+    @Test
+    public void shouldReportZeroAveragesBeforeAnyCommit() {
+        assertThat(groupCommitMetrics.getAverageAppendsPerCommit(), is(0.0));
+        assertThat(groupCommitMetrics.getAverageAppendLatencyMicros(), is(0L));
+    }
+}
@@ -0,0 +1,53 @@
+package uk.gov.justice.services.eventsourcing.source.core.groupcommit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.eventsourcing.repository.jdbc.EventRepository;
+import uk.gov.justice.services.messaging.JsonEnvelope;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupCommitWriterTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @InjectMocks
+    private GroupCommitWriter groupCommitWriter;
+
+    @Test
+    public void shouldCreateNewStreamsAndStoreEventsOfAllAppendsTogether() throws Exception {
+
+        final UUID newStreamId = randomUUID();
+        final UUID existingStreamId = randomUUID();
+        final List<JsonEnvelope> newStreamEvents = singletonList(mock(JsonEnvelope.class));
+        final List<JsonEnvelope> existingStreamEvents = singletonList(mock(JsonEnvelope.class));
+
+        final PendingAppend newStreamAppend = new PendingAppend(newStreamId, 1L, newStreamEvents);
+        final PendingAppend existingStreamAppend = new PendingAppend(existingStreamId, 6L, existingStreamEvents);
+
+        when(eventRepository.storeEventsOfAppends(asList(newStreamEvents, existingStreamEvents))).thenReturn(singletonList(existingStreamEvents));
+
+        final List<List<JsonEnvelope>> rejectedAppends = groupCommitWriter.write(asList(newStreamAppend, existingStreamAppend));
+
+        assertThat(rejectedAppends, is(singletonList(existingStreamEvents)));
+        verify(eventRepository).createEventStream(newStreamId);
+        verify(eventRepository, never()).createEventStream(existingStreamId);
+    }
+}
@@ -0,0 +1,13 @@
+package uk.gov.justice.services.eventstore.management.commands;
+
+import uk.gov.justice.services.jmx.api.command.BaseSystemCommand;
+
+public class ResumeRebuildCommand extends BaseSystemCommand {
+
+    public static final String RESUME_REBUILD = "RESUME_REBUILD";
+    private static final String DESCRIPTION = "Resumes a REBUILD that did not complete from its last checkpoint, or runs a REBUILD if there is no checkpoint";
+
+    public ResumeRebuildCommand() {
+        super(RESUME_REBUILD, DESCRIPTION);
+    }
+}
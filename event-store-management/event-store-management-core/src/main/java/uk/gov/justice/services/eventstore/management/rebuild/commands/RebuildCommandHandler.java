@@ -2,14 +2,20 @@ package uk.gov.justice.services.eventstore.management.rebuild.commands;
 
 import static java.lang.String.format;
 import static java.time.temporal.ChronoUnit.MILLIS;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
 import static uk.gov.justice.services.eventstore.management.commands.RebuildCommand.REBUILD;
+import static uk.gov.justice.services.eventstore.management.commands.ResumeRebuildCommand.RESUME_REBUILD;
 import static uk.gov.justice.services.jmx.api.domain.CommandState.COMMAND_COMPLETE;
 import static uk.gov.justice.services.jmx.api.domain.CommandState.COMMAND_FAILED;
 import static uk.gov.justice.services.jmx.api.domain.CommandState.COMMAND_IN_PROGRESS;
 
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventRebuilder;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgress;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressListener;
 import uk.gov.justice.services.eventstore.management.commands.RebuildCommand;
+import uk.gov.justice.services.eventstore.management.commands.ResumeRebuildCommand;
+import uk.gov.justice.services.jmx.api.command.SystemCommand;
 import uk.gov.justice.services.jmx.api.parameters.JmxCommandRuntimeParameters;
 import uk.gov.justice.services.jmx.command.HandlesSystemCommand;
 import uk.gov.justice.services.jmx.logging.MdcLoggerInterceptor;
@@ -17,6 +23,7 @@ import uk.gov.justice.services.jmx.state.events.SystemCommandStateChangedEvent;
 
 import java.time.ZonedDateTime;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
@@ -45,13 +52,30 @@ public class RebuildCommandHandler {
             final UUID commandId,
             @SuppressWarnings("unused")
             final JmxCommandRuntimeParameters jmxCommandRuntimeParameters) {
-        final String commandName = rebuildCommand.getName();
+        runRebuild(rebuildCommand, commandId, publishedEventRebuilder::rebuild);
+    }
+
+    @Interceptors(MdcLoggerInterceptor.class)
+    @HandlesSystemCommand(RESUME_REBUILD)
+    public void doResumeRebuild(
+            final ResumeRebuildCommand resumeRebuildCommand,
+            final UUID commandId,
+            @SuppressWarnings("unused")
+            final JmxCommandRuntimeParameters jmxCommandRuntimeParameters) {
+        runRebuild(resumeRebuildCommand, commandId, publishedEventRebuilder::resumeRebuild);
+    }
+
+    private void runRebuild(
+            final SystemCommand systemCommand,
+            final UUID commandId,
+            final Consumer<RebuildProgressListener> rebuild) {
+        final String commandName = systemCommand.getName();
         final ZonedDateTime rebuildStartedAt = clock.now();
         final String startMessage = format("%s started at %tc", commandName, rebuildStartedAt);
 
         systemCommandStateChangedEventFirer.fire(new SystemCommandStateChangedEvent(
                 commandId,
-                rebuildCommand,
+                systemCommand,
                 COMMAND_IN_PROGRESS,
                 rebuildStartedAt,
                 startMessage
@@ -60,7 +84,7 @@ public class RebuildCommandHandler {
         logger.info(startMessage);
 
         try {
-            publishedEventRebuilder.rebuild();
+            rebuild.accept(rebuildProgress -> fireProgress(systemCommand, commandId, rebuildProgress));
 
             final ZonedDateTime rebuildCompletedAt = clock.now();
             logger.info(format("%s command completed at %tc", commandName, rebuildCompletedAt));
@@ -68,7 +92,7 @@ public class RebuildCommandHandler {
 
             systemCommandStateChangedEventFirer.fire(new SystemCommandStateChangedEvent(
                     commandId,
-                    rebuildCommand,
+                    systemCommand,
                     COMMAND_COMPLETE,
                     rebuildCompletedAt,
                     endMessage
@@ -82,11 +106,47 @@ public class RebuildCommandHandler {
 
             systemCommandStateChangedEventFirer.fire(new SystemCommandStateChangedEvent(
                     commandId,
-                    rebuildCommand,
+                    systemCommand,
                     COMMAND_FAILED,
                     clock.now(),
                     format("Rebuild failed: %s: %s", e.getClass().getSimpleName(), e.getMessage())
             ));
         }
     }
+
+    private void fireProgress(final SystemCommand systemCommand, final UUID commandId, final RebuildProgress rebuildProgress) {
+
+        final String progressMessage = progressMessageOf(rebuildProgress);
+
+        systemCommandStateChangedEventFirer.fire(new SystemCommandStateChangedEvent(
+                commandId,
+                systemCommand,
+                COMMAND_IN_PROGRESS,
+                clock.now(),
+                progressMessage
+        ));
+
+        logger.info(progressMessage);
+    }
+
+    private String progressMessageOf(final RebuildProgress rebuildProgress) {
+
+        final String phaseDescription = rebuildProgress.getPhase().getDescription();
+
+        if (rebuildProgress.getPhase() != CREATING_PUBLISHED_EVENTS) {
+            return format("Rebuild: %s", phaseDescription);
+        }
+
+        final String timeRemaining = rebuildProgress.getEstimatedTimeRemaining()
+                .map(estimatedTimeRemaining -> format("about %d seconds remaining", estimatedTimeRemaining.getSeconds()))
+                .orElse("time remaining not yet known");
+
+        return format("Rebuild: %s, event number %d of %d, %d PublishedEvents inserted, %d events per second, %s",
+                phaseDescription,
+                rebuildProgress.getLastEventNumber(),
+                rebuildProgress.getMaximumEventNumber(),
+                rebuildProgress.getInsertedCount(),
+                rebuildProgress.getEventsPerSecond(),
+                timeRemaining);
+    }
 }
@@ -1,13 +1,18 @@
 package uk.gov.justice.services.eventstore.management.rebuild.commands;
 
+import static java.time.Duration.ofSeconds;
 import static java.time.ZoneOffset.UTC;
 import static java.time.ZonedDateTime.of;
 import static java.util.UUID.randomUUID;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.CREATING_PUBLISHED_EVENTS;
+import static uk.gov.justice.services.eventsourcing.publishedevent.rebuild.checkpoint.RebuildPhase.DELETING_PUBLISHED_EVENTS;
 import static uk.gov.justice.services.jmx.api.domain.CommandState.COMMAND_COMPLETE;
 import static uk.gov.justice.services.jmx.api.domain.CommandState.COMMAND_FAILED;
 import static uk.gov.justice.services.jmx.api.domain.CommandState.COMMAND_IN_PROGRESS;
@@ -15,7 +20,10 @@ import static uk.gov.justice.services.jmx.api.parameters.JmxCommandRuntimeParame
 
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.PublishedEventRebuilder;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgress;
+import uk.gov.justice.services.eventsourcing.publishedevent.rebuild.progress.RebuildProgressListener;
 import uk.gov.justice.services.eventstore.management.commands.RebuildCommand;
+import uk.gov.justice.services.eventstore.management.commands.ResumeRebuildCommand;
 import uk.gov.justice.services.jmx.state.events.SystemCommandStateChangedEvent;
 
 import java.time.ZonedDateTime;
@@ -72,7 +80,7 @@ public class RebuildCommandHandlerTest {
 
         inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
         inOrder.verify(logger).info("REBUILD started at Fri May 24 12:00:00 Z 2019");
-        inOrder.verify(publishedEventRebuilder).rebuild();
+        inOrder.verify(publishedEventRebuilder).rebuild(any(RebuildProgressListener.class));
         inOrder.verify(logger).info("REBUILD command completed at Fri May 24 12:00:01 Z 2019");
         inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
         inOrder.verify(logger).info("Rebuild took 1000 milliseconds");
@@ -107,7 +115,7 @@ public class RebuildCommandHandlerTest {
         final RebuildCommand rebuildCommand = new RebuildCommand();
 
         when(clock.now()).thenReturn(rebuildStartedAt, rebuildCompletedAt);
-        doThrow(nullPointerException).when(publishedEventRebuilder).rebuild();
+        doThrow(nullPointerException).when(publishedEventRebuilder).rebuild(any(RebuildProgressListener.class));
 
         rebuildCommandHandler.doRebuild(rebuildCommand, commandId, withNoCommandParameters());
 
@@ -115,7 +123,7 @@ public class RebuildCommandHandlerTest {
 
         inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
         inOrder.verify(logger).info("REBUILD started at Fri May 24 12:00:00 Z 2019");
-        inOrder.verify(publishedEventRebuilder).rebuild();
+        inOrder.verify(publishedEventRebuilder).rebuild(any(RebuildProgressListener.class));
         inOrder.verify(logger).error("REBUILD failed", nullPointerException);
         inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
 
@@ -136,4 +144,83 @@ public class RebuildCommandHandlerTest {
         assertThat(endEvent.getStatusChangedAt(), is(rebuildCompletedAt));
         assertThat(endEvent.getMessage(), is("Rebuild failed: NullPointerException: Ooops"));
     }
+
+    @Test
+    public void shouldResumeRebuild() throws Exception {
+
+        final UUID commandId = randomUUID();
+        final ZonedDateTime rebuildStartedAt = of(2019, 5, 24, 12, 0, 0, 0, UTC);
+        final ZonedDateTime rebuildCompletedAt = rebuildStartedAt.plusSeconds(1);
+
+        final ResumeRebuildCommand resumeRebuildCommand = new ResumeRebuildCommand();
+
+        when(clock.now()).thenReturn(rebuildStartedAt, rebuildCompletedAt);
+
+        rebuildCommandHandler.doResumeRebuild(resumeRebuildCommand, commandId, withNoCommandParameters());
+
+        final InOrder inOrder = inOrder(systemCommandStateChangedEventFirer, logger, publishedEventRebuilder);
+
+        inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
+        inOrder.verify(logger).info("RESUME_REBUILD started at Fri May 24 12:00:00 Z 2019");
+        inOrder.verify(publishedEventRebuilder).resumeRebuild(any(RebuildProgressListener.class));
+        inOrder.verify(logger).info("RESUME_REBUILD command completed at Fri May 24 12:00:01 Z 2019");
+        inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
+        inOrder.verify(logger).info("Rebuild took 1000 milliseconds");
+
+        final List<SystemCommandStateChangedEvent> allValues = systemCommandStateChangedEventCaptor.getAllValues();
+
+        assertThat(allValues.get(0).getSystemCommand(), is(resumeRebuildCommand));
+        assertThat(allValues.get(0).getCommandState(), is(COMMAND_IN_PROGRESS));
+        assertThat(allValues.get(1).getSystemCommand(), is(resumeRebuildCommand));
+        assertThat(allValues.get(1).getCommandState(), is(COMMAND_COMPLETE));
+    }
+
+    @Test
+    public void shouldFireTheProgressOfTheRebuildAsInProgressEvents() throws Exception {
+
+        final UUID commandId = randomUUID();
+        final ZonedDateTime rebuildStartedAt = of(2019, 5, 24, 12, 0, 0, 0, UTC);
+        final ZonedDateTime deletingReportedAt = rebuildStartedAt.plusSeconds(1);
+        final ZonedDateTime creatingStartedReportedAt = rebuildStartedAt.plusSeconds(2);
+        final ZonedDateTime creatingReportedAt = rebuildStartedAt.plusSeconds(31);
+        final ZonedDateTime rebuildCompletedAt = rebuildStartedAt.plusSeconds(61);
+
+        final RebuildCommand rebuildCommand = new RebuildCommand();
+
+        when(clock.now()).thenReturn(rebuildStartedAt, deletingReportedAt, creatingStartedReportedAt, creatingReportedAt, rebuildCompletedAt);
+        doAnswer(invocationOnMock -> {
+            final RebuildProgressListener rebuildProgressListener = invocationOnMock.getArgument(0);
+            rebuildProgressListener.progressMade(new RebuildProgress(DELETING_PUBLISHED_EVENTS, 0L, 0L, 0L, 0L, null));
+            rebuildProgressListener.progressMade(new RebuildProgress(CREATING_PUBLISHED_EVENTS, 0L, 9000L, 0L, 0L, null));
+            rebuildProgressListener.progressMade(new RebuildProgress(CREATING_PUBLISHED_EVENTS, 3000L, 9000L, 2990L, 100L, ofSeconds(60)));
+            return null;
+        }).when(publishedEventRebuilder).rebuild(any(RebuildProgressListener.class));
+
+        rebuildCommandHandler.doRebuild(rebuildCommand, commandId, withNoCommandParameters());
+
+        final InOrder inOrder = inOrder(systemCommandStateChangedEventFirer, logger);
+
+        inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
+        inOrder.verify(logger).info("REBUILD started at Fri May 24 12:00:00 Z 2019");
+        inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
+        inOrder.verify(logger).info("Rebuild: Deleting PublishedEvents");
+        inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
+        inOrder.verify(logger).info("Rebuild: Creating PublishedEvents, event number 0 of 9000, 0 PublishedEvents inserted, 0 events per second, time remaining not yet known");
+        inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
+        inOrder.verify(logger).info("Rebuild: Creating PublishedEvents, event number 3000 of 9000, 2990 PublishedEvents inserted, 100 events per second, about 60 seconds remaining");
+        inOrder.verify(systemCommandStateChangedEventFirer).fire(systemCommandStateChangedEventCaptor.capture());
+
+        final List<SystemCommandStateChangedEvent> allValues = systemCommandStateChangedEventCaptor.getAllValues();
+
+        final SystemCommandStateChangedEvent progressEvent = allValues.get(3);
+
+        assertThat(progressEvent.getCommandId(), is(commandId));
+        assertThat(progressEvent.getCommandState(), is(COMMAND_IN_PROGRESS));
+        assertThat(progressEvent.getSystemCommand(), is(rebuildCommand));
+        assertThat(progressEvent.getStatusChangedAt(), is(creatingReportedAt));
+        assertThat(progressEvent.getMessage(), is("Rebuild: Creating PublishedEvents, event number 3000 of 9000, 2990 PublishedEvents inserted, 100 events per second, about 60 seconds remaining"));
+
+        assertThat(allValues.get(4).getCommandState(), is(COMMAND_COMPLETE));
+        assertThat(allValues.get(4).getMessage(), is("Rebuild took 61000 milliseconds"));
+    }
 }
@@ -0,0 +1,189 @@
+package uk.gov.justice.services.eventsourcing.util.jdbc;
+
+import static java.lang.String.format;
+import static java.sql.ResultSet.CONCUR_READ_ONLY;
+import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
+import static java.util.Spliterator.IMMUTABLE;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.jdbc.persistence.JdbcRepositoryException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+/**
+ * Streams the results of a query through a server side cursor, so that memory stays flat however
+ * many rows the query returns.
+ *
+ * Postgres only uses a cursor when the statement has a fetch size and the connection is not in
+ * auto commit mode; otherwise the driver reads the whole result set into memory before returning
+ * the first row. If the connection is in auto commit mode, which it is outside a JTA transaction,
+ * auto commit is switched off for the life of the stream and switched back on when the stream is
+ * closed. Inside a JTA transaction the connection is used as it is.
+ *
+ * The connection, statement and result set are released when the stream is closed or when its
+ * last row has been read, whichever comes first.
+ */
+public class CursorResultSetStreamer {
+
+    @Inject
+    private StreamingMetrics streamingMetrics;
+
+    @Inject
+    private Closer closer;
+
+    /**
+     * @param dataSource      the data source to query
+     * @param streamingQuery  the sql, fetch size and name of the query
+     * @param rowMapper       maps the current row of the result set
+     * @param rowSizeInBytes  an estimate of the size in bytes of a mapped row, for the metrics
+     * @param parameters      the parameters of the query, in order
+     * @return a Stream of the mapped rows, which should be closed by the caller
+     * @throws SQLException if the query could not be run
+     */
+    public <T> Stream<T> streamOf(
+            final DataSource dataSource,
+            final StreamingQuery streamingQuery,
+            final Function<ResultSet, T> rowMapper,
+            final ToLongFunction<T> rowSizeInBytes,
+            final Object... parameters) throws SQLException {
+
+        final Connection connection = dataSource.getConnection();
+        final Cursor cursor = new Cursor(connection, streamingMetrics.forQuery(streamingQuery.getName()));
+
+        try {
+            cursor.open(streamingQuery, parameters);
+        } catch (final SQLException | RuntimeException e) {
+            cursor.close();
+            throw e;
+        }
+
+        return StreamSupport
+                .stream(new CursorSpliterator<>(cursor, rowMapper, rowSizeInBytes), false)
+                .onClose(cursor::close);
+    }
+
+    private class Cursor {
+
+        private final Connection connection;
+        private final StreamedQueryMetrics streamedQueryMetrics;
+
+        private PreparedStatement preparedStatement;
+        private ResultSet resultSet;
+        private boolean autoCommitSwitchedOff = false;
+        private boolean opened = false;
+        private boolean closed = false;
+
+        private Cursor(final Connection connection, final StreamedQueryMetrics streamedQueryMetrics) {
+            this.connection = connection;
+            this.streamedQueryMetrics = streamedQueryMetrics;
+        }
+
+        private void open(final StreamingQuery streamingQuery, final Object... parameters) throws SQLException {
+
+            if (connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                autoCommitSwitchedOff = true;
+            }
+
+            preparedStatement = connection.prepareStatement(streamingQuery.getSql(), TYPE_FORWARD_ONLY, CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(streamingQuery.getFetchSize());
+
+            for (int index = 0; index < parameters.length; index++) {
+                preparedStatement.setObject(index + 1, parameters[index]);
+            }
+
+            resultSet = preparedStatement.executeQuery();
+
+            opened = true;
+            streamedQueryMetrics.cursorOpened();
+        }
+
+        private boolean next() {
+            try {
+                return resultSet.next();
+            } catch (final SQLException e) {
+                close();
+                throw new JdbcRepositoryException(format("Failed to read next row from cursor of %s", preparedStatement), e);
+            }
+        }
+
+        private void close() {
+
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            closer.closeQuietly(resultSet);
+            closer.closeQuietly(preparedStatement);
+
+            if (autoCommitSwitchedOff) {
+                try {
+                    connection.commit();
+                    connection.setAutoCommit(true);
+                } catch (final SQLException ignored) {
+                }
+            }
+
+            closer.closeQuietly(connection);
+
+            if (opened) {
+                streamedQueryMetrics.cursorClosed();
+            }
+        }
+    }
+
+    private static class CursorSpliterator<T> extends AbstractSpliterator<T> {
+
+        private final Cursor cursor;
+        private final Function<ResultSet, T> rowMapper;
+        private final ToLongFunction<T> rowSizeInBytes;
+
+        private CursorSpliterator(final Cursor cursor, final Function<ResultSet, T> rowMapper, final ToLongFunction<T> rowSizeInBytes) {
+            super(Long.MAX_VALUE, ORDERED | NONNULL | IMMUTABLE);
+            this.cursor = cursor;
+            this.rowMapper = rowMapper;
+            this.rowSizeInBytes = rowSizeInBytes;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+
+            if (cursor.closed) {
+                return false;
+            }
+
+            if (!cursor.next()) {
+                cursor.close();
+                return false;
+            }
+
+            final T row;
+            try {
+                row = rowMapper.apply(cursor.resultSet);
+            } catch (final RuntimeException e) {
+                cursor.close();
+                throw e;
+            }
+
+            cursor.streamedQueryMetrics.rowStreamed(rowSizeInBytes.applyAsLong(row));
+            action.accept(row);
+
+            return true;
+        }
+    }
+}
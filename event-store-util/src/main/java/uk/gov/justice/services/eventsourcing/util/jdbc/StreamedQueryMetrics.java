@@ -0,0 +1,44 @@
+package uk.gov.justice.services.eventsourcing.util.jdbc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts of the queries, rows and bytes streamed for one type of query.
+ */
+public class StreamedQueryMetrics {
+
+    private final AtomicLong queryCount = new AtomicLong();
+    private final AtomicLong openCursorCount = new AtomicLong();
+    private final AtomicLong rowCount = new AtomicLong();
+    private final AtomicLong byteCount = new AtomicLong();
+
+    public void cursorOpened() {
+        queryCount.incrementAndGet();
+        openCursorCount.incrementAndGet();
+    }
+
+    public void cursorClosed() {
+        openCursorCount.decrementAndGet();
+    }
+
+    public void rowStreamed(final long numberOfBytes) {
+        rowCount.incrementAndGet();
+        byteCount.addAndGet(numberOfBytes);
+    }
+
+    public long getQueryCount() {
+        return queryCount.get();
+    }
+
+    public long getOpenCursorCount() {
+        return openCursorCount.get();
+    }
+
+    public long getRowCount() {
+        return rowCount.get();
+    }
+
+    public long getByteCount() {
+        return byteCount.get();
+    }
+}
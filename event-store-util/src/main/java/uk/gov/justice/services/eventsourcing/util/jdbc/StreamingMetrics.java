@@ -0,0 +1,25 @@
+package uk.gov.justice.services.eventsourcing.util.jdbc;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Rows and bytes streamed through the {@link CursorResultSetStreamer}, by type of query.
+ */
+@ApplicationScoped
+public class StreamingMetrics {
+
+    private final Map<String, StreamedQueryMetrics> metricsByQueryName = new ConcurrentHashMap<>();
+
+    public StreamedQueryMetrics forQuery(final String queryName) {
+        return metricsByQueryName.computeIfAbsent(queryName, name -> new StreamedQueryMetrics());
+    }
+
+    public Map<String, StreamedQueryMetrics> getMetricsByQueryName() {
+        return unmodifiableMap(metricsByQueryName);
+    }
+}
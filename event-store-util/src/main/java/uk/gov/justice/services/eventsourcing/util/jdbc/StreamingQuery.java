@@ -0,0 +1,38 @@
+package uk.gov.justice.services.eventsourcing.util.jdbc;
+
+/**
+ * A query whose results are streamed through a server side cursor, fetching fetchSize rows at a
+ * time. The name identifies the type of query in the {@link StreamingMetrics}.
+ */
+public class StreamingQuery {
+
+    private final String name;
+    private final String sql;
+    private final int fetchSize;
+
+    public StreamingQuery(final String name, final String sql, final int fetchSize) {
+        this.name = name;
+        this.sql = sql;
+        this.fetchSize = fetchSize;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingQuery{" +
+                "name='" + name + '\'' +
+                ", fetchSize=" + fetchSize +
+                '}';
+    }
+}
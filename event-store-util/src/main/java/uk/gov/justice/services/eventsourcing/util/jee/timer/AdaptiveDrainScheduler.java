@@ -0,0 +1,229 @@
+package uk.gov.justice.services.eventsourcing.util.jee.timer;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.time.temporal.ChronoUnit.MILLIS;
+
+import uk.gov.justice.services.eventsourcing.util.metrics.NamedMetrics;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Decides how a job that drains a queue in batches should drain it, from the depth of the queue
+ * and the time each batch takes, rather than draining for a fixed time on every tick of a timer.
+ *
+ * The batch size doubles while batches come back full in under half the target time for a batch,
+ * halves whenever a batch takes longer than the target, and never exceeds the depth of the queue
+ * when a drain ends with a backlog; it always stays between the minimum and maximum batch sizes.
+ * A drain that ends with a backlog should carry on straight away. A drain that finds the queue
+ * empty backs off: the next drain is not started until the base back off has passed, doubling for
+ * each further empty drain up to the maximum back off. A wake-up ends the back off.
+ *
+ * The job should call {@link #tryStartDrain(ZonedDateTime)} before draining, which also stops
+ * two drains running at once, {@link #batchDrained(int, int, long)} after each batch,
+ * {@link #endSlice(long, ZonedDateTime)} when it stops draining, and {@link #finishDrain()}
+ * unless it carries on draining. The getters expose the decisions made as metrics, exported
+ * through JMX as 'type=AdaptiveDrainScheduler,name=&lt;name&gt;' once registered with the
+ * PipelineMetrics.
+ */
+public class AdaptiveDrainScheduler implements AdaptiveDrainSchedulerMXBean, NamedMetrics {
+
+    private static final int MAX_BACK_OFF_DOUBLINGS = 20;
+    private static final String METRICS_TYPE = "AdaptiveDrainScheduler";
+
+    private final String name;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long targetBatchMilliseconds;
+    private final long baseBackOffMilliseconds;
+    private final long maxBackOffMilliseconds;
+
+    private boolean draining = false;
+    private int batchSize;
+    private long eventsDrainedSinceDrainStarted = 0;
+    private int emptyDrainCount = 0;
+    private ZonedDateTime nextWakeUp;
+
+    private long lastQueueDepth = 0;
+    private long lastBatchMilliseconds = 0;
+    private long nextWakeUpDelayMilliseconds = 0;
+    private long drainCount = 0;
+    private long sliceCount = 0;
+    private long batchCount = 0;
+    private long eventCount = 0;
+    private long skippedWakeUpCount = 0;
+
+    public AdaptiveDrainScheduler(
+            final String name,
+            final int minBatchSize,
+            final int maxBatchSize,
+            final long targetBatchMilliseconds,
+            final long baseBackOffMilliseconds,
+            final long maxBackOffMilliseconds) {
+        this.name = name;
+        this.minBatchSize = max(minBatchSize, 1);
+        this.maxBatchSize = max(maxBatchSize, this.minBatchSize);
+        this.targetBatchMilliseconds = targetBatchMilliseconds;
+        this.baseBackOffMilliseconds = baseBackOffMilliseconds;
+        this.maxBackOffMilliseconds = max(maxBackOffMilliseconds, baseBackOffMilliseconds);
+        this.batchSize = this.minBatchSize;
+    }
+
+    /**
+     * @return true if the caller should start a drain, false if a drain is already running or
+     * the drain is backing off until a later time
+     */
+    public synchronized boolean tryStartDrain(final ZonedDateTime now) {
+
+        if (draining || (nextWakeUp != null && now.isBefore(nextWakeUp))) {
+            skippedWakeUpCount++;
+            return false;
+        }
+
+        draining = true;
+        eventsDrainedSinceDrainStarted = 0;
+        drainCount++;
+
+        return true;
+    }
+
+    /**
+     * Ends any back off, as something has been added to the queue
+     */
+    public synchronized void wakeUp() {
+        emptyDrainCount = 0;
+        nextWakeUp = null;
+        nextWakeUpDelayMilliseconds = 0;
+    }
+
+    public synchronized int nextBatchSize() {
+        return batchSize;
+    }
+
+    public synchronized void batchDrained(final int requestedBatchSize, final int drainedCount, final long elapsedMilliseconds) {
+
+        batchCount++;
+        eventCount += drainedCount;
+        eventsDrainedSinceDrainStarted += drainedCount;
+        lastBatchMilliseconds = elapsedMilliseconds;
+
+        if (elapsedMilliseconds > targetBatchMilliseconds) {
+            batchSize = max(batchSize / 2, minBatchSize);
+        } else if (drainedCount >= requestedBatchSize && elapsedMilliseconds < targetBatchMilliseconds / 2) {
+            batchSize = (int) min((long) batchSize * 2, maxBatchSize);
+        }
+    }
+
+    /**
+     * @param queueDepth the depth of the queue when the drain stopped, which may be capped at
+     *                   the maximum batch size, or zero if the last batch came back short
+     * @return true if there is a backlog and the caller should carry on draining straight away,
+     * false if it should finish the drain
+     */
+    public synchronized boolean endSlice(final long queueDepth, final ZonedDateTime now) {
+
+        sliceCount++;
+        lastQueueDepth = queueDepth;
+
+        if (queueDepth > 0) {
+            batchSize = (int) max(min(batchSize, queueDepth), minBatchSize);
+            emptyDrainCount = 0;
+            nextWakeUp = null;
+            nextWakeUpDelayMilliseconds = 0;
+            return true;
+        }
+
+        if (eventsDrainedSinceDrainStarted > 0) {
+            emptyDrainCount = 0;
+            nextWakeUp = null;
+            nextWakeUpDelayMilliseconds = 0;
+            return false;
+        }
+
+        emptyDrainCount++;
+        final int doublings = min(emptyDrainCount - 1, MAX_BACK_OFF_DOUBLINGS);
+        nextWakeUpDelayMilliseconds = min(baseBackOffMilliseconds << doublings, maxBackOffMilliseconds);
+        nextWakeUp = now.plus(nextWakeUpDelayMilliseconds, MILLIS);
+
+        return false;
+    }
+
+    public synchronized void finishDrain() {
+        draining = false;
+    }
+
+    @Override
+    public String getMetricsType() {
+        return METRICS_TYPE;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public synchronized boolean isDraining() {
+        return draining;
+    }
+
+    @Override
+    public synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public synchronized long getLastQueueDepth() {
+        return lastQueueDepth;
+    }
+
+    @Override
+    public synchronized long getLastBatchMilliseconds() {
+        return lastBatchMilliseconds;
+    }
+
+    @Override
+    public synchronized long getNextWakeUpDelayMilliseconds() {
+        return nextWakeUpDelayMilliseconds;
+    }
+
+    @Override
+    public synchronized int getEmptyDrainCount() {
+        return emptyDrainCount;
+    }
+
+    @Override
+    public synchronized long getDrainCount() {
+        return drainCount;
+    }
+
+    @Override
+    public synchronized long getSliceCount() {
+        return sliceCount;
+    }
+
+    @Override
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    @Override
+    public synchronized long getEventCount() {
+        return eventCount;
+    }
+
+    @Override
+    public synchronized long getSkippedWakeUpCount() {
+        return skippedWakeUpCount;
+    }
+}
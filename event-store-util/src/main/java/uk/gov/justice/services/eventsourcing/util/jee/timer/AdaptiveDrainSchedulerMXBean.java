@@ -0,0 +1,33 @@
+package uk.gov.justice.services.eventsourcing.util.jee.timer;
+
+/**
+ * The decisions of an {@link AdaptiveDrainScheduler} as read through JMX
+ */
+public interface AdaptiveDrainSchedulerMXBean {
+
+    String getName();
+
+    int getMaxBatchSize();
+
+    boolean isDraining();
+
+    int getBatchSize();
+
+    long getLastQueueDepth();
+
+    long getLastBatchMilliseconds();
+
+    long getNextWakeUpDelayMilliseconds();
+
+    int getEmptyDrainCount();
+
+    long getDrainCount();
+
+    long getSliceCount();
+
+    long getBatchCount();
+
+    long getEventCount();
+
+    long getSkippedWakeUpCount();
+}
@@ -0,0 +1,55 @@
+package uk.gov.justice.services.eventsourcing.util.jee.timer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces the wake-up signals of a job that drains a queue, so that however many signals
+ * arrive only one drain runs at a time, and a signal arriving while a drain is running causes one
+ * more pass of that drain rather than being lost.
+ *
+ * The drain should call {@link #startPass()} before each pass over the queue and
+ * {@link #endPass()} after it, running another pass for as long as endPass returns true. If a
+ * pass fails, the drain should call {@link #release()} so that the next signal can start a new
+ * drain.
+ */
+public class WakeUpGate {
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean(false);
+
+    /**
+     * @return true if the caller should start a drain, false if a drain is already running and
+     * will make another pass
+     */
+    public boolean signal() {
+        wakeUpPending.set(true);
+        return draining.compareAndSet(false, true);
+    }
+
+    public void startPass() {
+        wakeUpPending.set(false);
+    }
+
+    /**
+     * @return true if a signal arrived during the pass and another pass should be made, false if
+     * the drain is finished
+     */
+    public boolean endPass() {
+
+        if (wakeUpPending.get()) {
+            return true;
+        }
+
+        draining.set(false);
+
+        return wakeUpPending.get() && draining.compareAndSet(false, true);
+    }
+
+    public void release() {
+        draining.set(false);
+    }
+
+    public boolean isDraining() {
+        return draining.get();
+    }
+}
@@ -0,0 +1,81 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+import static java.lang.String.format;
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+
+/**
+ * Exposes the metrics of each stage of the publishing pipeline through JMX, as an MXBean named
+ * 'uk.gov.justice.event-store:type=PipelineMetrics,stage=&lt;stage name&gt;', and any other
+ * {@link NamedMetrics} as an MXBean named 'uk.gov.justice.event-store:type=&lt;metrics
+ * type&gt;,name=&lt;metrics name&gt;'
+ */
+@ApplicationScoped
+public class JmxPipelineMetricsRegistry implements PipelineMetricsRegistry {
+
+    private static final String OBJECT_NAME = "uk.gov.justice.event-store:type=PipelineMetrics,stage=%s";
+    private static final String NAMED_METRICS_OBJECT_NAME = "uk.gov.justice.event-store:type=%s,name=%s";
+
+    @Inject
+    private Logger logger;
+
+    private final MBeanServer mBeanServer = getPlatformMBeanServer();
+    private final List<ObjectName> registeredObjectNames = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void register(final PipelineStageMetrics pipelineStageMetrics) {
+
+        final String stageName = pipelineStageMetrics.getStageName();
+        try {
+            final ObjectName objectName = new ObjectName(format(OBJECT_NAME, ObjectName.quote(stageName)));
+            mBeanServer.registerMBean(pipelineStageMetrics, objectName);
+            registeredObjectNames.add(objectName);
+        } catch (final InstanceAlreadyExistsException e) {
+            logger.warn(format("Pipeline metrics of stage '%s' already registered with JMX by another deployment", stageName));
+        } catch (final JMException e) {
+            logger.error(format("Failed to register pipeline metrics of stage '%s' with JMX", stageName), e);
+        }
+    }
+
+    @Override
+    public void register(final NamedMetrics namedMetrics) {
+
+        final String metricsType = namedMetrics.getMetricsType();
+        final String metricsName = namedMetrics.getMetricsName();
+        try {
+            final ObjectName objectName = new ObjectName(format(NAMED_METRICS_OBJECT_NAME, metricsType, ObjectName.quote(metricsName)));
+            mBeanServer.registerMBean(namedMetrics, objectName);
+            registeredObjectNames.add(objectName);
+        } catch (final InstanceAlreadyExistsException e) {
+            logger.warn(format("%s metrics '%s' already registered with JMX by another deployment", metricsType, metricsName));
+        } catch (final JMException e) {
+            logger.error(format("Failed to register %s metrics '%s' with JMX", metricsType, metricsName), e);
+        }
+    }
+
+    @PreDestroy
+    public void unregister() {
+
+        for (final ObjectName objectName : registeredObjectNames) {
+            try {
+                mBeanServer.unregisterMBean(objectName);
+            } catch (final JMException e) {
+                logger.warn(format("Failed to unregister '%s' from JMX", objectName), e);
+            }
+        }
+
+        registeredObjectNames.clear();
+    }
+}
@@ -0,0 +1,134 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in milliseconds, counted into fixed buckets so that recording a
+ * latency takes no locks and allocates nothing. Percentiles are read as the upper bound of the
+ * bucket the percentile falls in, or as the maximum recorded for the last, unbounded, bucket.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BUCKET_UPPER_BOUNDS_MILLISECONDS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500,
+            1_000, 2_000, 5_000, 10_000, 30_000, 60_000, 300_000, 900_000, 3_600_000
+    };
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MILLISECONDS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMilliseconds = new AtomicLong();
+    private final AtomicLong maxMilliseconds = new AtomicLong();
+
+    public void record(final long latencyMilliseconds) {
+
+        final long milliseconds = max(latencyMilliseconds, 0L);
+
+        bucketCounts.incrementAndGet(bucketOf(milliseconds));
+        count.incrementAndGet();
+        totalMilliseconds.addAndGet(milliseconds);
+        maxMilliseconds.accumulateAndGet(milliseconds, Math::max);
+    }
+
+    /**
+     * Adds the latencies counted by another histogram to this one
+     *
+     * @param latencyHistogram the histogram to add
+     */
+    public void add(final LatencyHistogram latencyHistogram) {
+
+        for (int bucket = 0; bucket < bucketCounts.length(); bucket++) {
+            bucketCounts.addAndGet(bucket, latencyHistogram.bucketCounts.get(bucket));
+        }
+        count.addAndGet(latencyHistogram.count.get());
+        totalMilliseconds.addAndGet(latencyHistogram.totalMilliseconds.get());
+        maxMilliseconds.accumulateAndGet(latencyHistogram.maxMilliseconds.get(), Math::max);
+    }
+
+    /**
+     * Empties the histogram. A latency recorded while the histogram is being emptied may be only
+     * partly cleared.
+     */
+    public void reset() {
+
+        for (int bucket = 0; bucket < bucketCounts.length(); bucket++) {
+            bucketCounts.set(bucket, 0L);
+        }
+        count.set(0L);
+        totalMilliseconds.set(0L);
+        maxMilliseconds.set(0L);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMeanMilliseconds() {
+        final long numberRecorded = count.get();
+        return numberRecorded == 0 ? 0 : totalMilliseconds.get() / numberRecorded;
+    }
+
+    public long getMaxMilliseconds() {
+        return maxMilliseconds.get();
+    }
+
+    /**
+     * @param percentile the percentile to read, from 0 to 100
+     * @return the upper bound in milliseconds of the bucket the percentile falls in, 0 if nothing
+     * has been recorded
+     */
+    public long getPercentileMilliseconds(final double percentile) {
+
+        final long[] counts = getBucketCounts();
+        long numberRecorded = 0;
+        for (final long bucketCount : counts) {
+            numberRecorded += bucketCount;
+        }
+
+        if (numberRecorded == 0) {
+            return 0;
+        }
+
+        final long rank = max((long) ceil(numberRecorded * percentile / 100.0), 1L);
+        long cumulativeCount = 0;
+        for (int bucket = 0; bucket < BUCKET_UPPER_BOUNDS_MILLISECONDS.length; bucket++) {
+            cumulativeCount += counts[bucket];
+            if (cumulativeCount >= rank) {
+                return BUCKET_UPPER_BOUNDS_MILLISECONDS[bucket];
+            }
+        }
+
+        return maxMilliseconds.get();
+    }
+
+    /**
+     * @return the upper bound in milliseconds of each bucket but the last, which is unbounded
+     */
+    public long[] getBucketUpperBoundsMilliseconds() {
+        return BUCKET_UPPER_BOUNDS_MILLISECONDS.clone();
+    }
+
+    public long[] getBucketCounts() {
+
+        final long[] counts = new long[bucketCounts.length()];
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            counts[bucket] = bucketCounts.get(bucket);
+        }
+
+        return counts;
+    }
+
+    private int bucketOf(final long milliseconds) {
+
+        for (int bucket = 0; bucket < BUCKET_UPPER_BOUNDS_MILLISECONDS.length; bucket++) {
+            if (milliseconds <= BUCKET_UPPER_BOUNDS_MILLISECONDS[bucket]) {
+                return bucket;
+            }
+        }
+
+        return BUCKET_UPPER_BOUNDS_MILLISECONDS.length;
+    }
+}
@@ -0,0 +1,16 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+/**
+ * Metrics other than those of the stages of the publishing pipeline, such as the sends to one
+ * JMS destination or the drains of one timer, that are handed to each
+ * {@link PipelineMetricsRegistry} through {@link PipelineMetrics#register(NamedMetrics)}.
+ *
+ * The type groups metrics of the same kind, and the name tells apart the metrics of one type.
+ * To be exported through JMX the metrics should also implement an MXBean interface.
+ */
+public interface NamedMetrics {
+
+    String getMetricsType();
+
+    String getMetricsName();
+}
@@ -0,0 +1,179 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+import static java.util.Collections.unmodifiableMap;
+import static javax.transaction.Status.STATUS_ACTIVE;
+import static javax.transaction.Status.STATUS_COMMITTED;
+import static javax.transaction.Status.STATUS_NO_TRANSACTION;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * The lag of events through each stage of the publishing pipeline, measured from the time each
+ * event was appended to the event log: when it is pre-published into published_event, when it is
+ * sent to the event topic, and when a subscriber records it as processed. The lags are taken from
+ * the created at time already read with each event, so recording them costs no queries.
+ *
+ * The lag of an event processed in a transaction is only recorded once that transaction commits,
+ * so that a batch which rolls back and is retried is counted once.
+ *
+ * The metrics of each stage are handed to every {@link PipelineMetricsRegistry} when the stage
+ * first records anything, as are any {@link NamedMetrics} registered here.
+ */
+@ApplicationScoped
+public class PipelineMetrics {
+
+    public static final String PRE_PUBLISHED = "pre-published";
+    public static final String PUBLISHED = "published";
+    public static final String PROCESSED = "processed";
+
+    private static final String UNCOMMITTED_EVENTS_KEY = PipelineMetrics.class.getName() + ".uncommittedEvents";
+
+    @Inject
+    @Any
+    private Instance<PipelineMetricsRegistry> pipelineMetricsRegistries;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private final Map<String, PipelineStageMetrics> metricsByStage = new ConcurrentHashMap<>();
+
+    /**
+     * Records the lag of an event through a stage once the current transaction commits, or
+     * straight away if there is no transaction. Nothing is recorded if the transaction rolls back.
+     */
+    public void eventProcessed(final String stageName, final ZonedDateTime createdAt, final ZonedDateTime now) {
+
+        final int transactionStatus = transactionSynchronizationRegistry.getTransactionStatus();
+
+        if (transactionStatus == STATUS_NO_TRANSACTION) {
+            forStage(stageName).eventProcessed(createdAt, now);
+        } else if (transactionStatus == STATUS_ACTIVE) {
+            uncommittedEvents().add(new ProcessedEvent(stageName, createdAt, now));
+        }
+    }
+
+    public void queueDepthCounted(final String stageName, final long queueDepth) {
+        forStage(stageName).queueDepthCounted(queueDepth);
+    }
+
+    public PipelineStageMetrics forStage(final String stageName) {
+
+        final PipelineStageMetrics pipelineStageMetrics = metricsByStage.get(stageName);
+        if (pipelineStageMetrics != null) {
+            return pipelineStageMetrics;
+        }
+
+        final PipelineStageMetrics newPipelineStageMetrics = new PipelineStageMetrics(stageName);
+        final PipelineStageMetrics existingPipelineStageMetrics = metricsByStage.putIfAbsent(stageName, newPipelineStageMetrics);
+        if (existingPipelineStageMetrics != null) {
+            return existingPipelineStageMetrics;
+        }
+
+        for (final PipelineMetricsRegistry pipelineMetricsRegistry : pipelineMetricsRegistries) {
+            pipelineMetricsRegistry.register(newPipelineStageMetrics);
+        }
+
+        return newPipelineStageMetrics;
+    }
+
+    /**
+     * Hands metrics other than those of the stages of the pipeline to every
+     * {@link PipelineMetricsRegistry}. Each should be registered once.
+     *
+     * @param namedMetrics the metrics to export
+     */
+    public void register(final NamedMetrics namedMetrics) {
+        for (final PipelineMetricsRegistry pipelineMetricsRegistry : pipelineMetricsRegistries) {
+            pipelineMetricsRegistry.register(namedMetrics);
+        }
+    }
+
+    /**
+     * Returns the metrics held under the key, first creating them and registering them as with
+     * {@link #register(NamedMetrics)} if there are none yet. However many threads ask for the
+     * same key at once, only the metrics that end up in the map are registered.
+     *
+     * @param metricsByKey the metrics created so far, by key
+     * @param key          the key of the metrics
+     * @param newMetrics   creates the metrics of a key
+     * @return the metrics of the key
+     */
+    public <K, M extends NamedMetrics> M registerIfAbsent(final ConcurrentMap<K, M> metricsByKey, final K key, final Function<K, M> newMetrics) {
+
+        final M metrics = metricsByKey.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+
+        final M createdMetrics = newMetrics.apply(key);
+        final M existingMetrics = metricsByKey.putIfAbsent(key, createdMetrics);
+        if (existingMetrics != null) {
+            return existingMetrics;
+        }
+
+        register(createdMetrics);
+
+        return createdMetrics;
+    }
+
+    public Map<String, PipelineStageMetrics> getMetricsByStage() {
+        return unmodifiableMap(metricsByStage);
+    }
+
+    /**
+     * The events processed so far in the current transaction, which are recorded together by
+     * the one synchronization registered with the first of them
+     */
+    @SuppressWarnings("unchecked")
+    private List<ProcessedEvent> uncommittedEvents() {
+
+        final List<ProcessedEvent> uncommittedEvents = (List<ProcessedEvent>) transactionSynchronizationRegistry.getResource(UNCOMMITTED_EVENTS_KEY);
+        if (uncommittedEvents != null) {
+            return uncommittedEvents;
+        }
+
+        final List<ProcessedEvent> newUncommittedEvents = new ArrayList<>();
+        transactionSynchronizationRegistry.putResource(UNCOMMITTED_EVENTS_KEY, newUncommittedEvents);
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(final int status) {
+                if (status == STATUS_COMMITTED) {
+                    newUncommittedEvents.forEach(processedEvent -> forStage(processedEvent.stageName).eventProcessed(processedEvent.createdAt, processedEvent.now));
+                }
+            }
+        });
+
+        return newUncommittedEvents;
+    }
+
+    private static class ProcessedEvent {
+
+        private final String stageName;
+        private final ZonedDateTime createdAt;
+        private final ZonedDateTime now;
+
+        private ProcessedEvent(final String stageName, final ZonedDateTime createdAt, final ZonedDateTime now) {
+            this.stageName = stageName;
+            this.createdAt = createdAt;
+            this.now = now;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+/**
+ * Somewhere the metrics of the stages of the publishing pipeline can be exported to, such as JMX
+ * or a metrics library. Any CDI bean implementing this interface is given the metrics of each
+ * stage once, when the stage first records anything, and should read them from then on.
+ *
+ * It is also given any {@link NamedMetrics} registered with {@link PipelineMetrics}, which
+ * registries that only export the stages of the pipeline may ignore.
+ */
+public interface PipelineMetricsRegistry {
+
+    void register(final PipelineStageMetrics pipelineStageMetrics);
+
+    default void register(final NamedMetrics namedMetrics) {
+    }
+}
@@ -0,0 +1,131 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of one stage of the publishing pipeline: the lag of each event from when it was
+ * appended to the event log to when it passed through the stage, the number of events and the
+ * events per second through the stage, and the depth of the queue in front of the stage when it
+ * was last counted.
+ *
+ * Events per second are measured over windows of ten seconds, and read as the rate of the last
+ * complete window, which is only closed by the next event through the stage.
+ *
+ * The mean, maximum and percentiles of the lag are read over the last minute, so they fall back
+ * once a backlog has cleared. The event count and the counts of the lag buckets are running
+ * totals since startup, to be read as counters by anything that works out rates from them.
+ */
+public class PipelineStageMetrics implements PipelineStageMetricsMXBean {
+
+    private static final long RATE_WINDOW_MILLISECONDS = 10_000L;
+    private static final long NO_QUEUE_DEPTH = -1L;
+
+    private final String stageName;
+    private final LatencyHistogram lagHistogram = new LatencyHistogram();
+    private final RollingLatencyHistogram recentLagHistogram;
+    private final AtomicLong queueDepth = new AtomicLong(NO_QUEUE_DEPTH);
+
+    private final LongAdder eventsInRateWindow = new LongAdder();
+    private final AtomicLong rateWindowStartedAt = new AtomicLong(-1L);
+    private volatile double eventsPerSecond = 0.0;
+
+    public PipelineStageMetrics(final String stageName) {
+        this(stageName, Clock.systemUTC());
+    }
+
+    public PipelineStageMetrics(final String stageName, final Clock clock) {
+        this.stageName = stageName;
+        this.recentLagHistogram = new RollingLatencyHistogram(clock);
+    }
+
+    public void eventProcessed(final ZonedDateTime createdAt, final ZonedDateTime now) {
+
+        final long nowMilliseconds = now.toInstant().toEpochMilli();
+
+        final long lagMilliseconds = nowMilliseconds - createdAt.toInstant().toEpochMilli();
+        lagHistogram.record(lagMilliseconds);
+        recentLagHistogram.record(lagMilliseconds);
+        eventsInRateWindow.increment();
+
+        final long windowStartedAt = rateWindowStartedAt.get();
+        if (windowStartedAt < 0) {
+            rateWindowStartedAt.compareAndSet(windowStartedAt, nowMilliseconds);
+        } else if (nowMilliseconds - windowStartedAt >= RATE_WINDOW_MILLISECONDS && rateWindowStartedAt.compareAndSet(windowStartedAt, nowMilliseconds)) {
+            eventsPerSecond = eventsInRateWindow.sumThenReset() * 1000.0 / (nowMilliseconds - windowStartedAt);
+        }
+    }
+
+    public void queueDepthCounted(final long depth) {
+        queueDepth.set(depth);
+    }
+
+    public LatencyHistogram getLagHistogram() {
+        return lagHistogram;
+    }
+
+    public LatencyHistogram getLastMinuteLagHistogram() {
+        return recentLagHistogram.getLastMinute();
+    }
+
+    @Override
+    public String getStageName() {
+        return stageName;
+    }
+
+    @Override
+    public long getEventCount() {
+        return lagHistogram.getCount();
+    }
+
+    @Override
+    public double getEventsPerSecond() {
+        return eventsPerSecond;
+    }
+
+    /**
+     * @return the depth of the queue in front of the stage when last counted, which may be capped,
+     * or -1 if it has not been counted
+     */
+    @Override
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    @Override
+    public long getMeanLagMilliseconds() {
+        return getLastMinuteLagHistogram().getMeanMilliseconds();
+    }
+
+    @Override
+    public long getMaxLagMilliseconds() {
+        return getLastMinuteLagHistogram().getMaxMilliseconds();
+    }
+
+    @Override
+    public long getLag50thPercentileMilliseconds() {
+        return getLastMinuteLagHistogram().getPercentileMilliseconds(50);
+    }
+
+    @Override
+    public long getLag95thPercentileMilliseconds() {
+        return getLastMinuteLagHistogram().getPercentileMilliseconds(95);
+    }
+
+    @Override
+    public long getLag99thPercentileMilliseconds() {
+        return getLastMinuteLagHistogram().getPercentileMilliseconds(99);
+    }
+
+    @Override
+    public long[] getLagBucketUpperBoundsMilliseconds() {
+        return lagHistogram.getBucketUpperBoundsMilliseconds();
+    }
+
+    @Override
+    public long[] getLagBucketCounts() {
+        return lagHistogram.getBucketCounts();
+    }
+}
@@ -0,0 +1,30 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+/**
+ * The metrics of one stage of the publishing pipeline as read through JMX. The lag attributes
+ * cover the last minute, the event and bucket counts are running totals since startup.
+ */
+public interface PipelineStageMetricsMXBean {
+
+    String getStageName();
+
+    long getEventCount();
+
+    double getEventsPerSecond();
+
+    long getQueueDepth();
+
+    long getMeanLagMilliseconds();
+
+    long getMaxLagMilliseconds();
+
+    long getLag50thPercentileMilliseconds();
+
+    long getLag95thPercentileMilliseconds();
+
+    long getLag99thPercentileMilliseconds();
+
+    long[] getLagBucketUpperBoundsMilliseconds();
+
+    long[] getLagBucketCounts();
+}
@@ -0,0 +1,75 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of the latencies recorded over the last minute only, so that percentiles read
+ * from it follow the current latency rather than everything recorded since startup.
+ *
+ * The minute is split into six slots of ten seconds, each counted by its own
+ * {@link LatencyHistogram}. When a new ten seconds starts the oldest slot is emptied and reused,
+ * and reads add up the slots still inside the minute. A latency recorded at the very moment its
+ * slot is emptied may be lost, which is close enough for metrics.
+ */
+public class RollingLatencyHistogram {
+
+    private static final int NUMBER_OF_SLOTS = 6;
+    private static final long SLOT_MILLISECONDS = 10_000L;
+    private static final long NOT_STARTED = -1L;
+
+    private final Clock clock;
+    private final LatencyHistogram[] slots = new LatencyHistogram[NUMBER_OF_SLOTS];
+    private final AtomicLongArray slotStartedAt = new AtomicLongArray(NUMBER_OF_SLOTS);
+
+    public RollingLatencyHistogram() {
+        this(Clock.systemUTC());
+    }
+
+    public RollingLatencyHistogram(final Clock clock) {
+        this.clock = clock;
+
+        for (int slot = 0; slot < NUMBER_OF_SLOTS; slot++) {
+            slots[slot] = new LatencyHistogram();
+            slotStartedAt.set(slot, NOT_STARTED);
+        }
+    }
+
+    public void record(final long latencyMilliseconds) {
+
+        final long startOfSlot = startOfSlotAt(clock.millis());
+        final int slot = slotOf(startOfSlot);
+
+        final long startedAt = slotStartedAt.get(slot);
+        if (startedAt != startOfSlot && slotStartedAt.compareAndSet(slot, startedAt, startOfSlot)) {
+            slots[slot].reset();
+        }
+
+        slots[slot].record(latencyMilliseconds);
+    }
+
+    /**
+     * @return a histogram of the latencies recorded over the last minute
+     */
+    public LatencyHistogram getLastMinute() {
+
+        final long startOfOldestSlot = startOfSlotAt(clock.millis()) - (NUMBER_OF_SLOTS - 1) * SLOT_MILLISECONDS;
+        final LatencyHistogram lastMinute = new LatencyHistogram();
+
+        for (int slot = 0; slot < NUMBER_OF_SLOTS; slot++) {
+            if (slotStartedAt.get(slot) >= startOfOldestSlot) {
+                lastMinute.add(slots[slot]);
+            }
+        }
+
+        return lastMinute;
+    }
+
+    private long startOfSlotAt(final long milliseconds) {
+        return milliseconds - milliseconds % SLOT_MILLISECONDS;
+    }
+
+    private int slotOf(final long startOfSlot) {
+        return (int) (startOfSlot / SLOT_MILLISECONDS % NUMBER_OF_SLOTS);
+    }
+}
@@ -0,0 +1,166 @@
+package uk.gov.justice.services.eventsourcing.util.jdbc;
+
+import static java.sql.ResultSet.CONCUR_READ_ONLY;
+import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class CursorResultSetStreamerTest {
+
+    private static final String SQL = "SELECT name FROM some_table WHERE number > ?";
+    private static final String QUERY_NAME = "some_table.scan";
+
+    @Spy
+    private StreamingMetrics streamingMetrics = new StreamingMetrics();
+
+    @Spy
+    private Closer closer = new Closer();
+
+    @InjectMocks
+    private CursorResultSetStreamer cursorResultSetStreamer;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Test
+    public void shouldStreamRowsThroughACursorWithTheFetchSizeOfTheQuery() throws Exception {
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(SQL, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY)).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getString("name")).thenReturn("first", "second");
+
+        final List<String> names = cursorResultSetStreamer
+                .streamOf(dataSource, new StreamingQuery(QUERY_NAME, SQL, 250), asName(), String::length, 23L)
+                .collect(toList());
+
+        assertThat(names, is(asList("first", "second")));
+
+        final InOrder inOrder = inOrder(connection, preparedStatement, resultSet);
+        inOrder.verify(connection).setAutoCommit(false);
+        inOrder.verify(preparedStatement).setFetchSize(250);
+        inOrder.verify(preparedStatement).setObject(1, 23L);
+        inOrder.verify(preparedStatement).executeQuery();
+        inOrder.verify(resultSet).close();
+        inOrder.verify(preparedStatement).close();
+        inOrder.verify(connection).commit();
+        inOrder.verify(connection).setAutoCommit(true);
+        inOrder.verify(connection).close();
+
+        final StreamedQueryMetrics streamedQueryMetrics = streamingMetrics.forQuery(QUERY_NAME);
+        assertThat(streamedQueryMetrics.getQueryCount(), is(1L));
+        assertThat(streamedQueryMetrics.getOpenCursorCount(), is(0L));
+        assertThat(streamedQueryMetrics.getRowCount(), is(2L));
+        assertThat(streamedQueryMetrics.getByteCount(), is(11L));
+    }
+
+    @Test
+    public void shouldUseTheConnectionAsItIsIfAlreadyInATransaction() throws Exception {
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(false);
+        when(connection.prepareStatement(SQL, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY)).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        try (final Stream<String> names = cursorResultSetStreamer.streamOf(dataSource, new StreamingQuery(QUERY_NAME, SQL, 250), asName(), String::length, 23L)) {
+            assertThat(names.count(), is(0L));
+        }
+
+        verify(connection, never()).setAutoCommit(false);
+        verify(connection, never()).commit();
+        verify(connection).close();
+    }
+
+    @Test
+    public void shouldReleaseTheCursorWhenTheStreamIsClosedBeforeItsLastRow() throws Exception {
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(SQL, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY)).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString("name")).thenReturn("first");
+
+        try (final Stream<String> names = cursorResultSetStreamer.streamOf(dataSource, new StreamingQuery(QUERY_NAME, SQL, 250), asName(), String::length, 23L)) {
+            assertThat(names.findFirst().get(), is("first"));
+            assertThat(streamingMetrics.forQuery(QUERY_NAME).getOpenCursorCount(), is(1L));
+        }
+
+        verify(resultSet).close();
+        verify(preparedStatement).close();
+        verify(connection).setAutoCommit(true);
+        verify(connection).close();
+        assertThat(streamingMetrics.forQuery(QUERY_NAME).getOpenCursorCount(), is(0L));
+    }
+
+    @Test
+    public void shouldReleaseTheConnectionIfTheQueryFails() throws Exception {
+
+        final SQLException sqlException = new SQLException("Ooops");
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(SQL, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY)).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenThrow(sqlException);
+
+        final SQLException thrown = assertThrows(
+                SQLException.class,
+                () -> cursorResultSetStreamer.streamOf(dataSource, new StreamingQuery(QUERY_NAME, SQL, 250), asName(), String::length, 23L));
+
+        assertThat(thrown, is(sqlException));
+        verify(preparedStatement).close();
+        verify(connection).setAutoCommit(true);
+        verify(connection).close();
+        assertThat(streamingMetrics.forQuery(QUERY_NAME).getQueryCount(), is(0L));
+    }
+
+    private Function<ResultSet, String> asName() {
+        return resultSet -> {
+            try {
+                return resultSet.getString("name");
+            } catch (final SQLException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+}
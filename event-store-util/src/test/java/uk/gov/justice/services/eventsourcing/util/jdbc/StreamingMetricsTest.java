@@ -0,0 +1,32 @@
+package uk.gov.justice.services.eventsourcing.util.jdbc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class StreamingMetricsTest {
+
+    private final StreamingMetrics streamingMetrics = new StreamingMetrics();
+
+    @Test
+    public void shouldKeepSeparateCountsForEachTypeOfQuery() throws Exception {
+
+        final StreamedQueryMetrics eventLogMetrics = streamingMetrics.forQuery("event_log.scan");
+        eventLogMetrics.cursorOpened();
+        eventLogMetrics.rowStreamed(100L);
+        eventLogMetrics.rowStreamed(50L);
+
+        streamingMetrics.forQuery("published_event.scan").cursorOpened();
+
+        assertThat(streamingMetrics.forQuery("event_log.scan"), is(sameInstance(eventLogMetrics)));
+        assertThat(eventLogMetrics.getQueryCount(), is(1L));
+        assertThat(eventLogMetrics.getOpenCursorCount(), is(1L));
+        assertThat(eventLogMetrics.getRowCount(), is(2L));
+        assertThat(eventLogMetrics.getByteCount(), is(150L));
+
+        assertThat(streamingMetrics.forQuery("published_event.scan").getRowCount(), is(0L));
+        assertThat(streamingMetrics.getMetricsByQueryName().size(), is(2));
+    }
+}
@@ -0,0 +1,186 @@
+package uk.gov.justice.services.eventsourcing.util.jee.timer;
+
+import static java.time.ZoneOffset.UTC;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveDrainSchedulerTest {
+
+    private static final int MIN_BATCH_SIZE = 10;
+    private static final int MAX_BATCH_SIZE = 80;
+    private static final long TARGET_BATCH_MILLISECONDS = 100L;
+    private static final long BASE_BACK_OFF_MILLISECONDS = 500L;
+    private static final long MAX_BACK_OFF_MILLISECONDS = 3000L;
+
+    private final ZonedDateTime now = ZonedDateTime.of(2025, 3, 12, 10, 0, 0, 0, UTC);
+
+    private final AdaptiveDrainScheduler adaptiveDrainScheduler = new AdaptiveDrainScheduler(
+            "publish",
+            MIN_BATCH_SIZE,
+            MAX_BATCH_SIZE,
+            TARGET_BATCH_MILLISECONDS,
+            BASE_BACK_OFF_MILLISECONDS,
+            MAX_BACK_OFF_MILLISECONDS);
+
+    @Test
+    public void shouldBeNamedForJmx() throws Exception {
+
+        assertThat(adaptiveDrainScheduler.getName(), is("publish"));
+        assertThat(adaptiveDrainScheduler.getMetricsType(), is("AdaptiveDrainScheduler"));
+        assertThat(adaptiveDrainScheduler.getMetricsName(), is("publish"));
+    }
+
+    @Test
+    public void shouldOnlyRunOneDrainAtATime() throws Exception {
+
+        assertThat(adaptiveDrainScheduler.tryStartDrain(now), is(true));
+        assertThat(adaptiveDrainScheduler.tryStartDrain(now), is(false));
+        assertThat(adaptiveDrainScheduler.isDraining(), is(true));
+
+        adaptiveDrainScheduler.finishDrain();
+
+        assertThat(adaptiveDrainScheduler.tryStartDrain(now), is(true));
+        assertThat(adaptiveDrainScheduler.getDrainCount(), is(2L));
+        assertThat(adaptiveDrainScheduler.getSkippedWakeUpCount(), is(1L));
+    }
+
+    @Test
+    public void shouldDoubleTheBatchSizeWhileBatchesComeBackFullAndFastUpToTheMaximum() throws Exception {
+
+        assertThat(adaptiveDrainScheduler.nextBatchSize(), is(10));
+
+        adaptiveDrainScheduler.batchDrained(10, 10, 20L);
+        assertThat(adaptiveDrainScheduler.nextBatchSize(), is(20));
+
+        adaptiveDrainScheduler.batchDrained(20, 20, 20L);
+        adaptiveDrainScheduler.batchDrained(40, 40, 20L);
+        adaptiveDrainScheduler.batchDrained(80, 80, 20L);
+        assertThat(adaptiveDrainScheduler.nextBatchSize(), is(80));
+
+        assertThat(adaptiveDrainScheduler.getBatchCount(), is(4L));
+        assertThat(adaptiveDrainScheduler.getEventCount(), is(150L));
+        assertThat(adaptiveDrainScheduler.getLastBatchMilliseconds(), is(20L));
+    }
+
+    @Test
+    public void shouldKeepTheBatchSizeIfABatchComesBackShortOrIsNotFastEnough() throws Exception {
+
+        adaptiveDrainScheduler.batchDrained(10, 7, 20L);
+        assertThat(adaptiveDrainScheduler.nextBatchSize(), is(10));
+
+        adaptiveDrainScheduler.batchDrained(10, 10, 60L);
+        assertThat(adaptiveDrainScheduler.nextBatchSize(), is(10));
+    }
+
+    @Test
+    public void shouldHalveTheBatchSizeDownToTheMinimumIfABatchTakesLongerThanTheTarget() throws Exception {
+
+        adaptiveDrainScheduler.batchDrained(10, 10, 20L);
+        adaptiveDrainScheduler.batchDrained(20, 20, 20L);
+        assertThat(adaptiveDrainScheduler.nextBatchSize(), is(40));
+
+        adaptiveDrainScheduler.batchDrained(40, 40, 150L);
+        assertThat(adaptiveDrainScheduler.nextBatchSize(), is(20));
+
+        adaptiveDrainScheduler.batchDrained(20, 20, 150L);
+        adaptiveDrainScheduler.batchDrained(10, 10, 150L);
+        assertThat(adaptiveDrainScheduler.nextBatchSize(), is(10));
+    }
+
+    @Test
+    public void shouldCarryOnDrainingWhileThereIsABacklogAndNotClaimMoreThanTheBacklog() throws Exception {
+
+        adaptiveDrainScheduler.tryStartDrain(now);
+        adaptiveDrainScheduler.batchDrained(10, 10, 20L);
+        adaptiveDrainScheduler.batchDrained(20, 20, 20L);
+        adaptiveDrainScheduler.batchDrained(40, 40, 20L);
+
+        assertThat(adaptiveDrainScheduler.endSlice(25L, now), is(true));
+
+        assertThat(adaptiveDrainScheduler.nextBatchSize(), is(25));
+        assertThat(adaptiveDrainScheduler.getLastQueueDepth(), is(25L));
+        assertThat(adaptiveDrainScheduler.getNextWakeUpDelayMilliseconds(), is(0L));
+        assertThat(adaptiveDrainScheduler.getSliceCount(), is(1L));
+
+        assertThat(adaptiveDrainScheduler.endSlice(3L, now), is(true));
+        assertThat(adaptiveDrainScheduler.nextBatchSize(), is(10));
+    }
+
+    @Test
+    public void shouldNotBackOffIfTheDrainEmptiedTheQueue() throws Exception {
+
+        adaptiveDrainScheduler.tryStartDrain(now);
+        adaptiveDrainScheduler.batchDrained(10, 4, 20L);
+
+        assertThat(adaptiveDrainScheduler.endSlice(0L, now), is(false));
+        adaptiveDrainScheduler.finishDrain();
+
+        assertThat(adaptiveDrainScheduler.getNextWakeUpDelayMilliseconds(), is(0L));
+        assertThat(adaptiveDrainScheduler.tryStartDrain(now), is(true));
+    }
+
+    @Test
+    public void shouldBackOffExponentiallyUpToTheMaximumWhileDrainsFindTheQueueEmpty() throws Exception {
+
+        assertThat(emptyDrainAt(now), is(true));
+        assertThat(adaptiveDrainScheduler.getNextWakeUpDelayMilliseconds(), is(500L));
+
+        assertThat(adaptiveDrainScheduler.tryStartDrain(now.plusNanos(499_000_000L)), is(false));
+
+        assertThat(emptyDrainAt(now.plusNanos(500_000_000L)), is(true));
+        assertThat(adaptiveDrainScheduler.getNextWakeUpDelayMilliseconds(), is(1000L));
+
+        emptyDrainAt(now.plusSeconds(2));
+        assertThat(adaptiveDrainScheduler.getNextWakeUpDelayMilliseconds(), is(2000L));
+
+        emptyDrainAt(now.plusSeconds(10));
+        assertThat(adaptiveDrainScheduler.getNextWakeUpDelayMilliseconds(), is(3000L));
+        assertThat(adaptiveDrainScheduler.getEmptyDrainCount(), is(4));
+
+        emptyDrainAt(now.plusSeconds(20));
+        assertThat(adaptiveDrainScheduler.getNextWakeUpDelayMilliseconds(), is(3000L));
+    }
+
+    @Test
+    public void shouldEndTheBackOffOnWakeUp() throws Exception {
+
+        emptyDrainAt(now);
+        emptyDrainAt(now.plusSeconds(1));
+
+        assertThat(adaptiveDrainScheduler.tryStartDrain(now.plusSeconds(1)), is(false));
+
+        adaptiveDrainScheduler.wakeUp();
+
+        assertThat(adaptiveDrainScheduler.getNextWakeUpDelayMilliseconds(), is(0L));
+        assertThat(adaptiveDrainScheduler.getEmptyDrainCount(), is(0));
+        assertThat(adaptiveDrainScheduler.tryStartDrain(now.plusSeconds(1)), is(true));
+    }
+
+    @Test
+    public void shouldKeepTheBatchSizesWithinSensibleBounds() throws Exception {
+
+        final AdaptiveDrainScheduler scheduler = new AdaptiveDrainScheduler("publish", 0, -5, TARGET_BATCH_MILLISECONDS, BASE_BACK_OFF_MILLISECONDS, MAX_BACK_OFF_MILLISECONDS);
+
+        assertThat(scheduler.nextBatchSize(), is(1));
+        assertThat(scheduler.getMaxBatchSize(), is(1));
+
+        scheduler.batchDrained(1, 1, 0L);
+        assertThat(scheduler.nextBatchSize(), is(1));
+    }
+
+    private boolean emptyDrainAt(final ZonedDateTime time) {
+
+        final boolean started = adaptiveDrainScheduler.tryStartDrain(time);
+        if (started) {
+            adaptiveDrainScheduler.batchDrained(10, 0, 5L);
+            adaptiveDrainScheduler.endSlice(0L, time);
+            adaptiveDrainScheduler.finishDrain();
+        }
+
+        return started;
+    }
+}
@@ -0,0 +1,60 @@
+package uk.gov.justice.services.eventsourcing.util.jee.timer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class WakeUpGateTest {
+
+    private final WakeUpGate wakeUpGate = new WakeUpGate();
+
+    @Test
+    public void shouldOnlyStartOneDrainHoweverManySignalsArrive() throws Exception {
+
+        assertThat(wakeUpGate.signal(), is(true));
+        assertThat(wakeUpGate.signal(), is(false));
+        assertThat(wakeUpGate.signal(), is(false));
+
+        assertThat(wakeUpGate.isDraining(), is(true));
+    }
+
+    @Test
+    public void shouldFinishTheDrainIfNoSignalArrivedDuringThePass() throws Exception {
+
+        assertThat(wakeUpGate.signal(), is(true));
+
+        wakeUpGate.startPass();
+        assertThat(wakeUpGate.endPass(), is(false));
+
+        assertThat(wakeUpGate.isDraining(), is(false));
+        assertThat(wakeUpGate.signal(), is(true));
+    }
+
+    @Test
+    public void shouldMakeAnotherPassIfASignalArrivedDuringThePass() throws Exception {
+
+        assertThat(wakeUpGate.signal(), is(true));
+
+        wakeUpGate.startPass();
+        assertThat(wakeUpGate.signal(), is(false));
+        assertThat(wakeUpGate.endPass(), is(true));
+
+        wakeUpGate.startPass();
+        assertThat(wakeUpGate.endPass(), is(false));
+
+        assertThat(wakeUpGate.isDraining(), is(false));
+    }
+
+    @Test
+    public void shouldAllowANewDrainOnceReleased() throws Exception {
+
+        assertThat(wakeUpGate.signal(), is(true));
+
+        wakeUpGate.startPass();
+        wakeUpGate.release();
+
+        assertThat(wakeUpGate.isDraining(), is(false));
+        assertThat(wakeUpGate.signal(), is(true));
+    }
+}
@@ -0,0 +1,123 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static java.time.ZoneOffset.UTC;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.verify;
+
+import java.time.ZonedDateTime;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class JmxPipelineMetricsRegistryTest {
+
+    private final MBeanServer mBeanServer = getPlatformMBeanServer();
+
+    @Mock
+    private Logger logger;
+
+    @InjectMocks
+    private JmxPipelineMetricsRegistry jmxPipelineMetricsRegistry;
+
+    @AfterEach
+    public void unregister() {
+        jmxPipelineMetricsRegistry.unregister();
+    }
+
+    @Test
+    public void shouldExposeTheMetricsOfAStageAsAnMXBean() throws Exception {
+
+        final ZonedDateTime createdAt = ZonedDateTime.of(2025, 3, 12, 10, 0, 0, 0, UTC);
+        final PipelineStageMetrics pipelineStageMetrics = new PipelineStageMetrics("published");
+        pipelineStageMetrics.eventProcessed(createdAt, createdAt.plusSeconds(2));
+        pipelineStageMetrics.queueDepthCounted(17L);
+
+        jmxPipelineMetricsRegistry.register(pipelineStageMetrics);
+
+        final ObjectName objectName = new ObjectName("uk.gov.justice.event-store:type=PipelineMetrics,stage=\"published\"");
+
+        assertThat(mBeanServer.isRegistered(objectName), is(true));
+        assertThat(mBeanServer.getAttribute(objectName, "EventCount"), is(1L));
+        assertThat(mBeanServer.getAttribute(objectName, "MaxLagMilliseconds"), is(2000L));
+        assertThat(mBeanServer.getAttribute(objectName, "QueueDepth"), is(17L));
+
+        jmxPipelineMetricsRegistry.unregister();
+
+        assertThat(mBeanServer.isRegistered(objectName), is(false));
+    }
+
+    @Test
+    public void shouldExposeNamedMetricsAsAnMXBean() throws Exception {
+
+        jmxPipelineMetricsRegistry.register(new SendMetrics("people.event", 23L));
+
+        final ObjectName objectName = new ObjectName("uk.gov.justice.event-store:type=SendMetrics,name=\"people.event\"");
+
+        assertThat(mBeanServer.isRegistered(objectName), is(true));
+        assertThat(mBeanServer.getAttribute(objectName, "SentCount"), is(23L));
+
+        jmxPipelineMetricsRegistry.unregister();
+
+        assertThat(mBeanServer.isRegistered(objectName), is(false));
+    }
+
+    @Test
+    public void shouldWarnRatherThanFailIfNamedMetricsAreAlreadyRegistered() throws Exception {
+
+        jmxPipelineMetricsRegistry.register(new SendMetrics("people.event", 1L));
+        jmxPipelineMetricsRegistry.register(new SendMetrics("people.event", 2L));
+
+        verify(logger).warn("SendMetrics metrics 'people.event' already registered with JMX by another deployment");
+    }
+
+    @Test
+    public void shouldWarnRatherThanFailIfTheStageIsAlreadyRegistered() throws Exception {
+
+        jmxPipelineMetricsRegistry.register(new PipelineStageMetrics("processed"));
+        jmxPipelineMetricsRegistry.register(new PipelineStageMetrics("processed"));
+
+        verify(logger).warn("Pipeline metrics of stage 'processed' already registered with JMX by another deployment");
+    }
+
+    public interface SendMetricsMXBean {
+
+        long getSentCount();
+    }
+
+    public static class SendMetrics implements SendMetricsMXBean, NamedMetrics {
+
+        private final String destinationName;
+        private final long sentCount;
+
+        public SendMetrics(final String destinationName, final long sentCount) {
+            this.destinationName = destinationName;
+            this.sentCount = sentCount;
+        }
+
+        @Override
+        public long getSentCount() {
+            return sentCount;
+        }
+
+        @Override
+        public String getMetricsType() {
+            return "SendMetrics";
+        }
+
+        @Override
+        public String getMetricsName() {
+            return destinationName;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+    @Test
+    public void shouldCountLatenciesIntoBucketsAndKeepTheirMeanAndMaximum() throws Exception {
+
+        latencyHistogram.record(0L);
+        latencyHistogram.record(3L);
+        latencyHistogram.record(5L);
+        latencyHistogram.record(1_500L);
+        latencyHistogram.record(-20L);
+
+        final long[] bucketCounts = latencyHistogram.getBucketCounts();
+
+        assertThat(bucketCounts[0], is(2L));
+        assertThat(bucketCounts[2], is(2L));
+        assertThat(bucketCounts[10], is(1L));
+        assertThat(latencyHistogram.getCount(), is(5L));
+        assertThat(latencyHistogram.getMeanMilliseconds(), is(301L));
+        assertThat(latencyHistogram.getMaxMilliseconds(), is(1_500L));
+    }
+
+    @Test
+    public void shouldReadPercentilesAsTheUpperBoundOfTheirBucket() throws Exception {
+
+        for (int i = 0; i < 90; i++) {
+            latencyHistogram.record(15L);
+        }
+        for (int i = 0; i < 9; i++) {
+            latencyHistogram.record(400L);
+        }
+        latencyHistogram.record(7_200_000L);
+
+        assertThat(latencyHistogram.getPercentileMilliseconds(50), is(20L));
+        assertThat(latencyHistogram.getPercentileMilliseconds(95), is(500L));
+        assertThat(latencyHistogram.getPercentileMilliseconds(99), is(500L));
+        assertThat(latencyHistogram.getPercentileMilliseconds(100), is(7_200_000L));
+    }
+
+    @Test
+    public void shouldAddTheLatenciesOfAnotherHistogram() throws Exception {
+
+        final LatencyHistogram otherLatencyHistogram = new LatencyHistogram();
+
+        latencyHistogram.record(3L);
+        otherLatencyHistogram.record(5L);
+        otherLatencyHistogram.record(1_500L);
+
+        latencyHistogram.add(otherLatencyHistogram);
+
+        assertThat(latencyHistogram.getBucketCounts()[2], is(2L));
+        assertThat(latencyHistogram.getBucketCounts()[10], is(1L));
+        assertThat(latencyHistogram.getCount(), is(3L));
+        assertThat(latencyHistogram.getMeanMilliseconds(), is(502L));
+        assertThat(latencyHistogram.getMaxMilliseconds(), is(1_500L));
+    }
+
+    @Test
+    public void shouldEmptyTheHistogramOnReset() throws Exception {
+
+        latencyHistogram.record(3L);
+        latencyHistogram.record(1_500L);
+
+        latencyHistogram.reset();
+
+        assertThat(latencyHistogram.getBucketCounts()[2], is(0L));
+        assertThat(latencyHistogram.getBucketCounts()[10], is(0L));
+        assertThat(latencyHistogram.getCount(), is(0L));
+        assertThat(latencyHistogram.getMaxMilliseconds(), is(0L));
+    }
+
+    @Test
+    public void shouldReadZeroIfNothingHasBeenRecorded() throws Exception {
+
+        assertThat(latencyHistogram.getCount(), is(0L));
+        assertThat(latencyHistogram.getMeanMilliseconds(), is(0L));
+        assertThat(latencyHistogram.getPercentileMilliseconds(99), is(0L));
+    }
+}
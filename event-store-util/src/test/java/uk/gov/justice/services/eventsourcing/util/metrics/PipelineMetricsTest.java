@@ -0,0 +1,223 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static javax.transaction.Status.STATUS_ACTIVE;
+import static javax.transaction.Status.STATUS_COMMITTED;
+import static javax.transaction.Status.STATUS_NO_TRANSACTION;
+import static javax.transaction.Status.STATUS_ROLLEDBACK;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PRE_PUBLISHED;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PROCESSED;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PUBLISHED;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.inject.Instance;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PipelineMetricsTest {
+
+    private final ZonedDateTime createdAt = ZonedDateTime.of(2025, 3, 12, 10, 0, 0, 0, UTC);
+
+    @Mock
+    private Instance<PipelineMetricsRegistry> pipelineMetricsRegistries;
+
+    @Mock
+    private PipelineMetricsRegistry pipelineMetricsRegistry;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @Captor
+    private ArgumentCaptor<Synchronization> synchronizationCaptor;
+
+    @Captor
+    private ArgumentCaptor<Object> uncommittedEventsCaptor;
+
+    @InjectMocks
+    private PipelineMetrics pipelineMetrics;
+
+    @Test
+    public void shouldRecordTheLagOfEachEventThroughEachStage() throws Exception {
+
+        when(pipelineMetricsRegistries.iterator()).thenAnswer(invocation -> singletonList(pipelineMetricsRegistry).iterator());
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_NO_TRANSACTION);
+
+        pipelineMetrics.eventProcessed(PRE_PUBLISHED, createdAt, createdAt.plusNanos(40_000_000L));
+        pipelineMetrics.eventProcessed(PUBLISHED, createdAt, createdAt.plusNanos(150_000_000L));
+        pipelineMetrics.eventProcessed(PUBLISHED, createdAt, createdAt.plusNanos(250_000_000L));
+        pipelineMetrics.eventProcessed(PROCESSED, createdAt, createdAt.plusSeconds(3));
+
+        final PipelineStageMetrics publishedMetrics = pipelineMetrics.forStage(PUBLISHED);
+
+        assertThat(publishedMetrics.getStageName(), is(PUBLISHED));
+        assertThat(publishedMetrics.getEventCount(), is(2L));
+        assertThat(publishedMetrics.getMeanLagMilliseconds(), is(200L));
+        assertThat(publishedMetrics.getMaxLagMilliseconds(), is(250L));
+        assertThat(publishedMetrics.getLag50thPercentileMilliseconds(), is(200L));
+        assertThat(publishedMetrics.getLag99thPercentileMilliseconds(), is(500L));
+
+        assertThat(pipelineMetrics.forStage(PRE_PUBLISHED).getMaxLagMilliseconds(), is(40L));
+        assertThat(pipelineMetrics.forStage(PROCESSED).getMaxLagMilliseconds(), is(3000L));
+        assertThat(pipelineMetrics.getMetricsByStage().size(), is(3));
+
+        verify(pipelineMetricsRegistry).register(publishedMetrics);
+        verify(pipelineMetricsRegistry, times(3)).register(any(PipelineStageMetrics.class));
+    }
+
+    @Test
+    public void shouldOnlyRecordTheLagOfEventsProcessedInATransactionOnceItCommits() throws Exception {
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_ACTIVE);
+
+        pipelineMetrics.eventProcessed(PUBLISHED, createdAt, createdAt.plusSeconds(1));
+
+        verify(transactionSynchronizationRegistry).putResource(eq(PipelineMetrics.class.getName() + ".uncommittedEvents"), uncommittedEventsCaptor.capture());
+        verify(transactionSynchronizationRegistry).registerInterposedSynchronization(synchronizationCaptor.capture());
+
+        when(transactionSynchronizationRegistry.getResource(PipelineMetrics.class.getName() + ".uncommittedEvents")).thenReturn(uncommittedEventsCaptor.getValue());
+
+        pipelineMetrics.eventProcessed(PUBLISHED, createdAt, createdAt.plusSeconds(3));
+
+        assertThat(((List<?>) uncommittedEventsCaptor.getValue()).size(), is(2));
+        assertThat(pipelineMetrics.getMetricsByStage().isEmpty(), is(true));
+
+        synchronizationCaptor.getValue().afterCompletion(STATUS_COMMITTED);
+
+        assertThat(pipelineMetrics.forStage(PUBLISHED).getEventCount(), is(2L));
+        assertThat(pipelineMetrics.forStage(PUBLISHED).getMaxLagMilliseconds(), is(3000L));
+    }
+
+    @Test
+    public void shouldNotRecordTheLagOfEventsProcessedInATransactionThatRollsBack() throws Exception {
+
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(STATUS_ACTIVE);
+
+        pipelineMetrics.eventProcessed(PUBLISHED, createdAt, createdAt.plusSeconds(1));
+
+        verify(transactionSynchronizationRegistry).registerInterposedSynchronization(synchronizationCaptor.capture());
+
+        synchronizationCaptor.getValue().afterCompletion(STATUS_ROLLEDBACK);
+
+        assertThat(pipelineMetrics.getMetricsByStage().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldHandNamedMetricsToEachRegistry() throws Exception {
+
+        final NamedMetrics namedMetrics = new NamedMetrics() {
+            @Override
+            public String getMetricsType() {
+                return "DestinationSendMetrics";
+            }
+
+            @Override
+            public String getMetricsName() {
+                return "people.event";
+            }
+        };
+
+        when(pipelineMetricsRegistries.iterator()).thenAnswer(invocation -> singletonList(pipelineMetricsRegistry).iterator());
+
+        pipelineMetrics.register(namedMetrics);
+
+        verify(pipelineMetricsRegistry).register(namedMetrics);
+        verifyNoInteractions(transactionSynchronizationRegistry);
+    }
+
+    @Test
+    public void shouldCreateAndRegisterNamedMetricsOnlyTheFirstTimeTheirKeyIsAskedFor() throws Exception {
+
+        final ConcurrentMap<String, NamedMetrics> metricsByName = new ConcurrentHashMap<>();
+
+        when(pipelineMetricsRegistries.iterator()).thenAnswer(invocation -> singletonList(pipelineMetricsRegistry).iterator());
+
+        final NamedMetrics namedMetrics = pipelineMetrics.registerIfAbsent(metricsByName, "people.event", this::namedMetricsOf);
+
+        assertThat(namedMetrics.getMetricsName(), is("people.event"));
+        assertThat(pipelineMetrics.registerIfAbsent(metricsByName, "people.event", this::namedMetricsOf), is(sameInstance(namedMetrics)));
+        assertThat(metricsByName.get("people.event"), is(sameInstance(namedMetrics)));
+
+        verify(pipelineMetricsRegistry, times(1)).register(namedMetrics);
+        verify(pipelineMetricsRegistry, times(1)).register(any(NamedMetrics.class));
+    }
+
+    @Test
+    public void shouldNotRegisterNamedMetricsAlreadyHeldUnderTheKey() throws Exception {
+
+        final NamedMetrics namedMetrics = namedMetricsOf("people.event");
+        final ConcurrentMap<String, NamedMetrics> metricsByName = new ConcurrentHashMap<>();
+        metricsByName.put("people.event", namedMetrics);
+
+        assertThat(pipelineMetrics.registerIfAbsent(metricsByName, "people.event", this::namedMetricsOf), is(sameInstance(namedMetrics)));
+
+        verifyNoInteractions(pipelineMetricsRegistries);
+    }
+
+    @Test
+    public void shouldKeepTheQueueDepthLastCountedInFrontOfAStage() throws Exception {
+
+        assertThat(pipelineMetrics.forStage(PUBLISHED).getQueueDepth(), is(-1L));
+
+        pipelineMetrics.queueDepthCounted(PUBLISHED, 120L);
+        pipelineMetrics.queueDepthCounted(PUBLISHED, 35L);
+
+        assertThat(pipelineMetrics.forStage(PUBLISHED), is(sameInstance(pipelineMetrics.getMetricsByStage().get(PUBLISHED))));
+        assertThat(pipelineMetrics.forStage(PUBLISHED).getQueueDepth(), is(35L));
+    }
+
+    @Test
+    public void shouldMeasureEventsPerSecondOverTheLastCompleteWindow() throws Exception {
+
+        final PipelineStageMetrics pipelineStageMetrics = new PipelineStageMetrics(PUBLISHED);
+
+        for (int second = 0; second < 10; second++) {
+            for (int event = 0; event < 50; event++) {
+                pipelineStageMetrics.eventProcessed(createdAt, createdAt.plusSeconds(second));
+            }
+        }
+
+        assertThat(pipelineStageMetrics.getEventsPerSecond(), is(0.0));
+
+        pipelineStageMetrics.eventProcessed(createdAt, createdAt.plusSeconds(10));
+
+        assertThat(pipelineStageMetrics.getEventsPerSecond(), is(50.1));
+        assertThat(pipelineStageMetrics.getEventCount(), is(501L));
+    }
+
+    private NamedMetrics namedMetricsOf(final String name) {
+        return new NamedMetrics() {
+            @Override
+            public String getMetricsType() {
+                return "DestinationSendMetrics";
+            }
+
+            @Override
+            public String getMetricsName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.justice.services.eventsourcing.util.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RollingLatencyHistogramTest {
+
+    private static final long STARTED_AT = 1_741_773_600_000L;
+
+    @Mock
+    private Clock clock;
+
+    @Test
+    public void shouldOnlyReadTheLatenciesRecordedOverTheLastMinute() throws Exception {
+
+        final RollingLatencyHistogram rollingLatencyHistogram = new RollingLatencyHistogram(clock);
+
+        when(clock.millis()).thenReturn(STARTED_AT);
+        rollingLatencyHistogram.record(4_000L);
+
+        when(clock.millis()).thenReturn(STARTED_AT + 25_000L);
+        rollingLatencyHistogram.record(150L);
+        rollingLatencyHistogram.record(250L);
+
+        assertThat(rollingLatencyHistogram.getLastMinute().getCount(), is(3L));
+        assertThat(rollingLatencyHistogram.getLastMinute().getMaxMilliseconds(), is(4_000L));
+
+        when(clock.millis()).thenReturn(STARTED_AT + 65_000L);
+
+        final LatencyHistogram lastMinute = rollingLatencyHistogram.getLastMinute();
+        assertThat(lastMinute.getCount(), is(2L));
+        assertThat(lastMinute.getMeanMilliseconds(), is(200L));
+        assertThat(lastMinute.getMaxMilliseconds(), is(250L));
+
+        when(clock.millis()).thenReturn(STARTED_AT + 90_000L);
+
+        assertThat(rollingLatencyHistogram.getLastMinute().getCount(), is(0L));
+        assertThat(rollingLatencyHistogram.getLastMinute().getPercentileMilliseconds(99), is(0L));
+    }
+
+    @Test
+    public void shouldEmptyASlotBeforeReusingIt() throws Exception {
+
+        final RollingLatencyHistogram rollingLatencyHistogram = new RollingLatencyHistogram(clock);
+
+        when(clock.millis()).thenReturn(STARTED_AT);
+        rollingLatencyHistogram.record(3_000L);
+
+        when(clock.millis()).thenReturn(STARTED_AT + 60_000L);
+        rollingLatencyHistogram.record(10L);
+
+        final LatencyHistogram lastMinute = rollingLatencyHistogram.getLastMinute();
+        assertThat(lastMinute.getCount(), is(1L));
+        assertThat(lastMinute.getMaxMilliseconds(), is(10L));
+    }
+
+    @Test
+    public void shouldReadTheLastMinuteFromTheSystemClockByDefault() throws Exception {
+
+        final RollingLatencyHistogram rollingLatencyHistogram = new RollingLatencyHistogram();
+
+        rollingLatencyHistogram.record(42L);
+
+        assertThat(rollingLatencyHistogram.getLastMinute().getMaxMilliseconds(), is(42L));
+    }
+}
@@ -1,13 +1,14 @@
 package uk.gov.justice.services.subscription;
 
+import static java.lang.Integer.parseInt;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static javax.transaction.Transactional.TxType.REQUIRED;
 import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
 
-import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
-import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapper;
-import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
+import uk.gov.justice.services.common.configuration.GlobalValue;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingQuery;
 import uk.gov.justice.services.jdbc.persistence.ViewStoreJdbcDataSourceProvider;
 
 import java.sql.Connection;
@@ -52,11 +53,15 @@ public class ProcessedEventTrackingRepository {
                     "ORDER BY event_number DESC " +
                     "LIMIT ?";
 
+    private static final String SCAN_QUERY = "processed_event.scan";
+    private static final long PROCESSED_EVENT_ROW_SIZE_IN_BYTES = 16L + 8L + 8L;
+
     @Inject
-    private JdbcResultSetStreamer jdbcResultSetStreamer;
+    @GlobalValue(key = "processed.event.scan.fetch.size", defaultValue = "10000")
+    private String scanFetchSize;
 
     @Inject
-    private PreparedStatementWrapperFactory preparedStatementWrapperFactory;
+    private CursorResultSetStreamer cursorResultSetStreamer;
 
     @Inject
     private ViewStoreJdbcDataSourceProvider viewStoreJdbcDataSourceProvider;
@@ -85,23 +90,22 @@ public class ProcessedEventTrackingRepository {
     public Stream<ProcessedEvent> getAllProcessedEventsDescendingOrder(final String source, final String componentName) {
 
         try {
-            final PreparedStatementWrapper preparedStatement = preparedStatementWrapperFactory.preparedStatementWrapperOf(
-                    viewStoreJdbcDataSourceProvider.getDataSource(), SELECT_ALL_DESCENDING_ORDER_SQL);
-
-            preparedStatement.setString(1, source);
-            preparedStatement.setString(2, componentName);
-
-            return jdbcResultSetStreamer.streamOf(preparedStatement, resultSet -> {
-
-                try {
-                    final UUID eventId = (UUID) resultSet.getObject("event_id");
-                    final long eventNumber = resultSet.getLong("event_number");
-                    final long previousEventNumber = resultSet.getLong("previous_event_number");
-                    return new ProcessedEvent(eventId, previousEventNumber, eventNumber, source, componentName);
-                } catch (final SQLException e) {
-                    throw new ProcessedEventTrackingException("Failed to get row from processed_event table", e);
-                }
-            });
+            return cursorResultSetStreamer.streamOf(
+                    viewStoreJdbcDataSourceProvider.getDataSource(),
+                    new StreamingQuery(SCAN_QUERY, SELECT_ALL_DESCENDING_ORDER_SQL, parseInt(scanFetchSize)),
+                    resultSet -> {
+                        try {
+                            final UUID eventId = (UUID) resultSet.getObject("event_id");
+                            final long eventNumber = resultSet.getLong("event_number");
+                            final long previousEventNumber = resultSet.getLong("previous_event_number");
+                            return new ProcessedEvent(eventId, previousEventNumber, eventNumber, source, componentName);
+                        } catch (final SQLException e) {
+                            throw new ProcessedEventTrackingException("Failed to get row from processed_event table", e);
+                        }
+                    },
+                    processedEvent -> PROCESSED_EVENT_ROW_SIZE_IN_BYTES,
+                    source,
+                    componentName);
 
         } catch (final SQLException e) {
             throw new ProcessedEventTrackingException("Failed to get processed events from processed_event table", e);
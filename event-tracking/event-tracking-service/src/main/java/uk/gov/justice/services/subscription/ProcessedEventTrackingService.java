@@ -1,9 +1,12 @@
 package uk.gov.justice.services.subscription;
 
 import static java.lang.String.format;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PROCESSED;
 
+import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.source.api.streams.MissingEventRange;
 import uk.gov.justice.services.eventsourcing.util.messaging.EventSourceNameCalculator;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 import uk.gov.justice.services.messaging.Metadata;
 
@@ -35,6 +38,12 @@ public class ProcessedEventTrackingService {
     @Inject
     private MissingEventRangeStringifier missingEventRangeStringifier;
 
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    @Inject
+    private UtcClock clock;
+
     @Inject
     private Logger logger;
 
@@ -59,6 +68,8 @@ public class ProcessedEventTrackingService {
         );
 
         processedEventTrackingRepository.save(processedEvent);
+
+        metadata.createdAt().ifPresent(createdAt -> pipelineMetrics.eventProcessed(PROCESSED, createdAt, clock.now()));
     }
 
     public Stream<MissingEventRange> getAllMissingEvents(final String eventSourceName, final String componentName, final Long highestPublishedEventNumber) {
@@ -5,9 +5,11 @@ import static java.util.stream.StreamSupport.stream;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
-import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
-import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
 import uk.gov.justice.services.jdbc.persistence.ViewStoreJdbcDataSourceProvider;
 import uk.gov.justice.services.test.utils.persistence.DatabaseCleaner;
 import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
@@ -33,13 +35,8 @@ public class ProcessedEventStreamSpliteratorIT {
     @Mock
     private ViewStoreJdbcDataSourceProvider viewStoreJdbcDataSourceProvider;
 
-    @SuppressWarnings("unused")
     @Spy
-    private JdbcResultSetStreamer jdbcResultSetStreamer = new JdbcResultSetStreamer();
-
-    @SuppressWarnings("unused")
-    @Spy
-    private PreparedStatementWrapperFactory preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
+    private CursorResultSetStreamer cursorResultSetStreamer = new CursorResultSetStreamer();
 
     @InjectMocks
     private ProcessedEventTrackingRepository processedEventTrackingRepository;
@@ -47,6 +44,10 @@ public class ProcessedEventStreamSpliteratorIT {
     @BeforeEach
     public void ensureOurDatasourceProviderReturnsOurTestDataSource() {
         when(viewStoreJdbcDataSourceProvider.getDataSource()).thenReturn(viewStoreDataSource);
+
+        setField(cursorResultSetStreamer, "streamingMetrics", new StreamingMetrics());
+        setField(cursorResultSetStreamer, "closer", new Closer());
+        setField(processedEventTrackingRepository, "scanFetchSize", "2");
     }
 
     @BeforeEach
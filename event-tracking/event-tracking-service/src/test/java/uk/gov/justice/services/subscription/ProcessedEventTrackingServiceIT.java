@@ -8,9 +8,10 @@ import static org.slf4j.LoggerFactory.getLogger;
 import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
 
 import uk.gov.justice.services.eventsourcing.source.api.streams.MissingEventRange;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
 import uk.gov.justice.services.eventsourcing.util.messaging.EventSourceNameCalculator;
-import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
-import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
 import uk.gov.justice.services.jdbc.persistence.ViewStoreJdbcDataSourceProvider;
 import uk.gov.justice.services.test.utils.persistence.DatabaseCleaner;
 import uk.gov.justice.services.test.utils.persistence.FrameworkTestDataSourceFactory;
@@ -30,8 +31,7 @@ import org.slf4j.Logger;
 public class ProcessedEventTrackingServiceIT {
 
     private final DataSource viewStoreDataSource = new FrameworkTestDataSourceFactory().createViewStoreDataSource();
-    private final JdbcResultSetStreamer jdbcResultSetStreamer = new JdbcResultSetStreamer();
-    private final PreparedStatementWrapperFactory preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
+    private final CursorResultSetStreamer cursorResultSetStreamer = new CursorResultSetStreamer();
     private final ViewStoreJdbcDataSourceProvider viewStoreJdbcDataSourceProvider = new TestViewStoreJdbcDataSourceProvider(viewStoreDataSource);
     private final ProcessedEventTrackingRepository processedEventTrackingRepository = new ProcessedEventTrackingRepository();
     private final EventSourceNameCalculator eventSourceNameCalculator = new EventSourceNameCalculator();
@@ -54,8 +54,11 @@ public class ProcessedEventTrackingServiceIT {
 
     @BeforeEach
     public void createClassUnderTest() {
-        setField(processedEventTrackingRepository, "jdbcResultSetStreamer", jdbcResultSetStreamer);
-        setField(processedEventTrackingRepository, "preparedStatementWrapperFactory", preparedStatementWrapperFactory);
+        setField(cursorResultSetStreamer, "streamingMetrics", new StreamingMetrics());
+        setField(cursorResultSetStreamer, "closer", new Closer());
+
+        setField(processedEventTrackingRepository, "cursorResultSetStreamer", cursorResultSetStreamer);
+        setField(processedEventTrackingRepository, "scanFetchSize", "2");
         setField(processedEventTrackingRepository, "viewStoreJdbcDataSourceProvider", viewStoreJdbcDataSourceProvider);
 
         setField(processedEventStreamer, "processedEventStreamSpliteratorFactory", processedEventStreamSpliteratorFactory);
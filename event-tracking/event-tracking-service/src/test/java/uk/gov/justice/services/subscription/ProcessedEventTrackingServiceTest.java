@@ -13,12 +13,16 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.messaging.JsonEnvelope.envelopeFrom;
+import static uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics.PROCESSED;
 import static uk.gov.justice.services.messaging.JsonEnvelope.metadataBuilder;
 
+import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.justice.services.eventsourcing.source.api.streams.MissingEventRange;
 import uk.gov.justice.services.eventsourcing.util.messaging.EventSourceNameCalculator;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 import uk.gov.justice.services.messaging.JsonEnvelope;
 
+import java.time.ZonedDateTime;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
@@ -49,6 +53,12 @@ public class ProcessedEventTrackingServiceTest {
     @Mock
     private MissingEventRangeStringifier missingEventRangeStringifier;
 
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @Mock
+    private UtcClock clock;
+
     @Mock
     private Logger logger;
 
@@ -81,6 +91,34 @@ public class ProcessedEventTrackingServiceTest {
         verify(processedEventTrackingRepository).save(new ProcessedEvent(eventId, previousEventNumber, eventNumber, source, componentName));
     }
 
+    @Test
+    public void shouldRecordTheLagOfTheEventFromWhenItWasCreated() throws Exception {
+
+        final UUID eventId = randomUUID();
+        final String source = "example-context";
+        final String componentName = "EVENT_LISTENER";
+        final ZonedDateTime createdAt = new UtcClock().now();
+        final ZonedDateTime now = createdAt.plusSeconds(2);
+
+        final JsonEnvelope event = envelopeFrom(
+                metadataBuilder()
+                        .withId(eventId)
+                        .withName("event-name")
+                        .withPreviousEventNumber(23)
+                        .withEventNumber(24)
+                        .withSource(source)
+                        .createdAt(createdAt),
+                createObjectBuilder());
+
+        when(eventSourceNameCalculator.getSource(event)).thenReturn(source);
+        when(clock.now()).thenReturn(now);
+
+        processedEventTrackingService.trackProcessedEvent(event, componentName);
+
+        verify(processedEventTrackingRepository).save(new ProcessedEvent(eventId, 23L, 24L, source, componentName));
+        verify(pipelineMetrics).eventProcessed(PROCESSED, createdAt, now);
+    }
+
     @Test
     public void shouldThrowExceptionIfNoPreviousEventNumberFound() throws Exception {
 
@@ -69,7 +69,11 @@ import uk.gov.justice.services.core.producers.RequestResponseEnvelopeValidatorFa
 import uk.gov.justice.services.core.producers.RequesterProducer;
 import uk.gov.justice.services.core.producers.SenderProducer;
 import uk.gov.justice.services.event.source.subscriptions.interceptors.SubscriptionEventInterceptor;
+import uk.gov.justice.services.eventsourcing.util.io.Closer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.CursorResultSetStreamer;
+import uk.gov.justice.services.eventsourcing.util.jdbc.StreamingMetrics;
 import uk.gov.justice.services.eventsourcing.util.messaging.EventSourceNameCalculator;
+import uk.gov.justice.services.eventsourcing.util.metrics.PipelineMetrics;
 import uk.gov.justice.services.jdbc.persistence.JdbcResultSetStreamer;
 import uk.gov.justice.services.jdbc.persistence.JndiAppNameProvider;
 import uk.gov.justice.services.jdbc.persistence.PreparedStatementWrapperFactory;
@@ -198,6 +202,10 @@ public class SubscriptionEventInterceptorIT {
             JsonSchemaLoader.class,
             DefaultTraceLogger.class,
             JdbcResultSetStreamer.class,
+            CursorResultSetStreamer.class,
+            StreamingMetrics.class,
+            PipelineMetrics.class,
+            Closer.class,
             PreparedStatementWrapperFactory.class,
             ViewStoreJdbcDataSourceProvider.class,
             ViewStoreDataSourceNameProvider.class,